@@ -0,0 +1,121 @@
+-- ============================================
+-- BENCHMARK DE LA BÚSQUEDA DIFUSA (pg_trgm, migración V3)
+-- ============================================
+-- Genera 1.000.000 de pacientes sintéticos repartidos entre 200.000
+-- clientes y compara el plan de la búsqueda LIKE '%x%' anterior, el de la
+-- búsqueda por trigramas con OR tras el join y el de la búsqueda por
+-- candidatos de PacienteRepository.buscarPorSimilitud (requiere V17).
+--
+-- Ejecutar SOLO en una base de datos de pruebas:
+--   psql -d veterinaria_bench -f benchmark-busqueda-trigram.sql
+-- ============================================
+
+BEGIN;
+
+-- 1. Personas / usuarios / clientes sintéticos
+INSERT INTO personas (nombre, apellido, correo, telefono)
+SELECT (ARRAY['Juan','María','Carlos','Lucía','Andrés','Sofía','Diego','Valentina'])[1 + (g % 8)],
+       (ARRAY['Pérez','Gómez','Rodríguez','López','Martínez','García','Sánchez','Ramírez'])[1 + ((g / 8) % 8)],
+       'bench.cliente' || g || '@example.com',
+       '300' || LPAD(g::text, 7, '0')
+FROM generate_series(1, 200000) AS g;
+
+INSERT INTO usuarios (id_usuario, username, password_hash, activo, rol_id)
+SELECT pe.id_persona, 'bench_' || pe.id_persona, 'x', TRUE, r.id_rol
+FROM personas pe
+JOIN roles r ON r.nombre_rol = 'CLIENTE'
+WHERE pe.correo LIKE 'bench.cliente%';
+
+INSERT INTO clientes (id_usuario, documento_identidad)
+SELECT id_usuario, (1000000000 + id_usuario)::text
+FROM usuarios WHERE username LIKE 'bench\_%';
+
+-- 2. Pacientes sintéticos (5 por cliente)
+WITH cl AS (
+    SELECT c.id_usuario, ROW_NUMBER() OVER (ORDER BY c.id_usuario) - 1 AS rn
+    FROM clientes c
+    JOIN usuarios u ON u.id_usuario = c.id_usuario
+    WHERE u.username LIKE 'bench\_%'
+)
+INSERT INTO pacientes (nombre, especie, cliente_id)
+SELECT (ARRAY['Max','Luna','Rocky','Coco','Toby','Kira','Simba','Nala','Bruno','Lola'])[1 + (g % 10)]
+           || ' ' || substr(md5(g::text), 1, 4),
+       CASE WHEN g % 2 = 0 THEN 'perro' ELSE 'gato' END,
+       cl.id_usuario
+FROM generate_series(0, 999999) AS g
+JOIN cl ON cl.rn = g / 5;
+
+ANALYZE personas;
+ANALYZE clientes;
+ANALYZE pacientes;
+
+-- 3. Búsqueda anterior (secuencial)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT p.* FROM pacientes p WHERE LOWER(p.nombre) LIKE LOWER('%rocyk%');
+
+-- 4. Búsqueda por trigramas con OR entre tablas tras el join (versión anterior)
+\set termino 'rocyk'
+\set prefijo 'rocyk%'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT p.id_paciente,
+       GREATEST(similarity(LOWER(p.nombre), :'termino'),
+                similarity(LOWER(pe.nombre), :'termino'),
+                similarity(LOWER(pe.apellido), :'termino'),
+                similarity(LOWER(pe.nombre || ' ' || pe.apellido), :'termino'),
+                similarity(LOWER(COALESCE(c.documento_identidad, '')), :'termino'),
+                similarity(COALESCE(pe.telefono, ''), :'termino'),
+                similarity(LOWER(pe.correo), :'termino')) AS puntaje
+FROM pacientes p
+JOIN clientes c ON c.id_usuario = p.cliente_id
+JOIN personas pe ON pe.id_persona = c.id_usuario
+WHERE LOWER(p.nombre) % :'termino'
+   OR LOWER(pe.nombre) % :'termino'
+   OR LOWER(pe.apellido) % :'termino'
+   OR LOWER(c.documento_identidad) % :'termino'
+   OR pe.telefono % :'termino'
+   OR LOWER(pe.correo) % :'termino'
+   OR LOWER(p.nombre) LIKE :'prefijo'
+   OR LOWER(pe.apellido) LIKE :'prefijo'
+   OR LOWER(c.documento_identidad) LIKE :'prefijo'
+   OR pe.telefono LIKE :'prefijo'
+ORDER BY puntaje DESC, p.id_paciente
+LIMIT 21;
+
+-- 5. Búsqueda por trigramas con candidatos por tabla (PacienteRepository.buscarPorSimilitud)
+EXPLAIN (ANALYZE, BUFFERS)
+WITH candidatos AS (
+    SELECT p.id_paciente FROM pacientes p
+    WHERE LOWER(p.nombre) % :'termino' OR LOWER(p.nombre) LIKE :'prefijo'
+    UNION
+    SELECT p.id_paciente FROM personas pe
+    JOIN pacientes p ON p.cliente_id = pe.id_persona
+    WHERE LOWER(pe.nombre) % :'termino'
+       OR LOWER(pe.apellido) % :'termino'
+       OR LOWER(pe.nombre || ' ' || pe.apellido) % :'termino'
+       OR pe.telefono % :'termino'
+       OR LOWER(pe.correo) % :'termino'
+       OR LOWER(pe.apellido) LIKE :'prefijo'
+       OR pe.telefono LIKE :'prefijo'
+    UNION
+    SELECT p.id_paciente FROM clientes c
+    JOIN pacientes p ON p.cliente_id = c.id_usuario
+    WHERE LOWER(c.documento_identidad) % :'termino'
+       OR LOWER(c.documento_identidad) LIKE :'prefijo'
+)
+SELECT p.id_paciente,
+       GREATEST(similarity(LOWER(p.nombre), :'termino'),
+                similarity(LOWER(pe.nombre), :'termino'),
+                similarity(LOWER(pe.apellido), :'termino'),
+                similarity(LOWER(pe.nombre || ' ' || pe.apellido), :'termino'),
+                similarity(LOWER(COALESCE(c.documento_identidad, '')), :'termino'),
+                similarity(COALESCE(pe.telefono, ''), :'termino'),
+                similarity(LOWER(pe.correo), :'termino')) AS puntaje
+FROM candidatos k
+JOIN pacientes p ON p.id_paciente = k.id_paciente
+JOIN clientes c ON c.id_usuario = p.cliente_id
+JOIN personas pe ON pe.id_persona = c.id_usuario
+ORDER BY puntaje DESC, p.id_paciente
+LIMIT 21;
+
+-- Los datos sintéticos se descartan al terminar
+ROLLBACK;
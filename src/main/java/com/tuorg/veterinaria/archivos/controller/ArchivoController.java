@@ -0,0 +1,188 @@
+package com.tuorg.veterinaria.archivos.controller;
+
+import com.tuorg.veterinaria.archivos.dto.ArchivoAdjuntoResponse;
+import com.tuorg.veterinaria.archivos.model.ArchivoAdjunto;
+import com.tuorg.veterinaria.archivos.service.AlmacenArchivosService;
+import com.tuorg.veterinaria.common.dto.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Controlador REST del almacén de archivos adjuntos.
+ *
+ * Las subidas se envían como cuerpo crudo de la petición (el tipo MIME en
+ * Content-Type) para poder procesarlas en streaming. Las descargas admiten
+ * peticiones parciales (Range) y GET condicional: el contenido de un hash
+ * nunca cambia, así que el ETag es el propio hash.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/archivos")
+public class ArchivoController {
+
+    /**
+     * Tipos que se sirven en línea. SVG queda fuera: puede llevar scripts.
+     */
+    private static final Set<String> TIPOS_EN_LINEA = Set.of(
+            "image/png", "image/jpeg", "image/gif", "image/webp", "application/pdf");
+
+    /**
+     * Atributos de petición con los que Tomcat ofrece y recibe un envío por sendfile.
+     */
+    private static final String SENDFILE_SOPORTADO = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_ARCHIVO = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIN = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * Almacén de archivos.
+     */
+    private final AlmacenArchivosService almacenArchivosService;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param almacenArchivosService Almacén de archivos
+     */
+    @Autowired
+    public ArchivoController(AlmacenArchivosService almacenArchivosService) {
+        this.almacenArchivosService = almacenArchivosService;
+    }
+
+    /**
+     * Sube un archivo. Si el contenido ya estaba almacenado se devuelve el
+     * mismo hash sin duplicarlo.
+     *
+     * @param contentType Tipo MIME del archivo
+     * @param nombre Nombre original del archivo
+     * @param cuerpo Contenido del archivo
+     * @return Respuesta con los metadatos y el hash del archivo
+     */
+    @PostMapping
+    public ResponseEntity<ApiResponse<ArchivoAdjuntoResponse>> subir(
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestParam(required = false) String nombre,
+            InputStream cuerpo) {
+        ArchivoAdjuntoResponse archivo = almacenArchivosService.guardar(cuerpo, contentType, nombre);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Archivo almacenado exitosamente", archivo));
+    }
+
+    /**
+     * Obtiene los metadatos de un archivo.
+     *
+     * @param hash SHA-256 del archivo
+     * @return Respuesta con los metadatos
+     */
+    @GetMapping("/{hash}/metadatos")
+    public ResponseEntity<ApiResponse<ArchivoAdjuntoResponse>> obtenerMetadatos(@PathVariable String hash) {
+        ArchivoAdjuntoResponse archivo = almacenArchivosService.obtenerMetadatos(hash);
+        return ResponseEntity.ok(ApiResponse.success("Archivo obtenido exitosamente", archivo));
+    }
+
+    /**
+     * Descarga un archivo completo o un rango de bytes (cabecera Range).
+     *
+     * @param hash SHA-256 del archivo
+     * @param request Petición HTTP
+     * @param response Respuesta HTTP
+     * @throws IOException Si falla la escritura de la respuesta
+     */
+    @GetMapping("/{hash}")
+    public void descargar(@PathVariable String hash, HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+        ArchivoAdjunto archivo = almacenArchivosService.obtener(hash);
+        if (new ServletWebRequest(request, response).checkNotModified("\"" + hash + "\"")) {
+            return;
+        }
+
+        long tamano = archivo.getTamanoBytes();
+        long inicio = 0;
+        long longitud = tamano;
+
+        String cabeceraRange = request.getHeader(HttpHeaders.RANGE);
+        if (cabeceraRange != null) {
+            List<HttpRange> rangos;
+            try {
+                rangos = HttpRange.parseRanges(cabeceraRange);
+            } catch (IllegalArgumentException e) {
+                rangos = List.of();
+            }
+            // Solo se atiende un rango; con varios se envía el archivo completo
+            if (rangos.size() == 1) {
+                HttpRange rango = rangos.get(0);
+                try {
+                    inicio = rango.getRangeStart(tamano);
+                    longitud = rango.getRangeEnd(tamano) - inicio + 1;
+                } catch (IllegalArgumentException e) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + tamano);
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE,
+                        "bytes " + inicio + "-" + (inicio + longitud - 1) + "/" + tamano);
+            }
+        }
+
+        // El tipo lo declara quien sube el archivo: solo se muestran en el
+        // navegador los tipos inofensivos; el resto (HTML, SVG...) se descarga
+        ContentDisposition.Builder disposicion = mostrarEnLinea(archivo.getTipoContenido())
+                ? ContentDisposition.inline() : ContentDisposition.attachment();
+        if (archivo.getNombreOriginal() != null) {
+            disposicion.filename(archivo.getNombreOriginal(), StandardCharsets.UTF_8);
+        }
+        response.setContentType(archivo.getTipoContenido());
+        response.setContentLengthLong(longitud);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=31536000, immutable");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposicion.build().toString());
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SOPORTADO))) {
+            // Tomcat envía el archivo con sendfile al terminar la petición, sin copiarlo al heap
+            request.setAttribute(SENDFILE_ARCHIVO, almacenArchivosService.rutaContenido(hash).toString());
+            request.setAttribute(SENDFILE_INICIO, inicio);
+            request.setAttribute(SENDFILE_FIN, inicio + longitud);
+        } else {
+            almacenArchivosService.transferir(hash, inicio, longitud, response.getOutputStream());
+        }
+    }
+
+    /**
+     * Indica si un tipo de contenido puede mostrarse en el navegador sin
+     * riesgo de ejecutar código en el origen de la aplicación.
+     *
+     * @param tipoContenido Tipo MIME almacenado
+     * @return true para imágenes rasterizadas y PDF
+     */
+    static boolean mostrarEnLinea(String tipoContenido) {
+        try {
+            MediaType tipo = MediaType.parseMediaType(tipoContenido);
+            return TIPOS_EN_LINEA.contains((tipo.getType() + "/" + tipo.getSubtype()).toLowerCase(Locale.ROOT));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.tuorg.veterinaria.archivos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Archivo adjunto almacenado por contenido")
+public class ArchivoAdjuntoResponse {
+
+    @Schema(description = "SHA-256 del contenido; es la referencia que se guarda en los registros médicos",
+            example = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08")
+    private String hash;
+
+    @Schema(description = "Tamaño en bytes", example = "482113")
+    private long tamanoBytes;
+
+    @Schema(description = "Tipo MIME", example = "application/pdf")
+    private String tipoContenido;
+
+    @Schema(description = "Nombre del archivo en la primera subida", example = "hemograma.pdf")
+    private String nombreOriginal;
+
+    @Schema(description = "Fecha de la primera subida")
+    private LocalDateTime fechaCreacion;
+
+    @Schema(description = "Indica si el contenido ya estaba almacenado", example = "false")
+    private boolean duplicado;
+}
@@ -0,0 +1,64 @@
+package com.tuorg.veterinaria.archivos.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa un archivo adjunto almacenado por contenido.
+ * 
+ * La clave es el SHA-256 del contenido: subir dos veces el mismo archivo
+ * (por ejemplo, el mismo PDF de laboratorio en varios registros médicos)
+ * produce una única copia en disco. Los registros médicos referencian el
+ * archivo por su hash en {@code RegistroMedico.archivos}.
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "archivos_adjuntos", schema = "public")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivoAdjunto {
+
+    /**
+     * SHA-256 del contenido en hexadecimal (clave primaria). Se declara CHAR
+     * para que la validación del esquema acepte la columna de longitud fija.
+     */
+    @Id
+    @JdbcTypeCode(SqlTypes.CHAR)
+    @Column(name = "hash_sha256", length = 64, columnDefinition = "CHAR(64)")
+    private String hashSha256;
+
+    /**
+     * Tamaño del archivo en bytes.
+     */
+    @Column(name = "tamano_bytes", nullable = false)
+    private Long tamanoBytes;
+
+    /**
+     * Tipo MIME con que se subió el archivo.
+     */
+    @Column(name = "tipo_contenido", nullable = false, length = 150)
+    private String tipoContenido;
+
+    /**
+     * Nombre del archivo en la primera subida.
+     */
+    @Column(name = "nombre_original", length = 255)
+    private String nombreOriginal;
+
+    /**
+     * Fecha de la primera subida.
+     */
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+}
@@ -0,0 +1,47 @@
+package com.tuorg.veterinaria.archivos.repository;
+
+import com.tuorg.veterinaria.archivos.model.ArchivoAdjunto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Repositorio para la entidad ArchivoAdjunto.
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Repository
+public interface ArchivoAdjuntoRepository extends JpaRepository<ArchivoAdjunto, String> {
+
+    /**
+     * Registra un archivo si su hash no existe todavía. Dos subidas
+     * simultáneas del mismo contenido no generan error de clave duplicada.
+     * 
+     * @return 1 si se insertó, 0 si ya existía
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO archivos_adjuntos (hash_sha256, tamano_bytes, tipo_contenido, nombre_original, fecha_creacion) "
+            + "VALUES (:hash, :tamano, :tipoContenido, :nombre, :fecha) ON CONFLICT (hash_sha256) DO NOTHING",
+            nativeQuery = true)
+    int insertarSiNoExiste(@Param("hash") String hash,
+                           @Param("tamano") long tamano,
+                           @Param("tipoContenido") String tipoContenido,
+                           @Param("nombre") String nombre,
+                           @Param("fecha") LocalDateTime fecha);
+
+    /**
+     * Cuenta cuántos de los hashes indicados están registrados.
+     * 
+     * @param hashes Hashes a comprobar
+     * @return Número de hashes existentes
+     */
+    long countByHashSha256In(Collection<String> hashes);
+}
@@ -0,0 +1,317 @@
+package com.tuorg.veterinaria.archivos.service;
+
+import com.tuorg.veterinaria.archivos.dto.ArchivoAdjuntoResponse;
+import com.tuorg.veterinaria.archivos.model.ArchivoAdjunto;
+import com.tuorg.veterinaria.archivos.repository.ArchivoAdjuntoRepository;
+import com.tuorg.veterinaria.auditoria.aspect.Auditable;
+import com.tuorg.veterinaria.common.constants.AppConstants;
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.common.exception.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Almacén de archivos adjuntos direccionado por contenido.
+ *
+ * Las subidas se copian en streaming a un archivo temporal mientras se
+ * calcula su SHA-256, sin cargarlas en memoria; al terminar se mueven a
+ * {@code <upload-dir>/<2 hex>/<2 hex>/<hash>}. Si el contenido ya existía,
+ * el temporal se descarta y se reutiliza la copia almacenada.
+ *
+ * Las descargas no pasan por este servicio cuando el contenedor admite
+ * sendfile (ver ArchivoController): el núcleo copia del archivo al socket sin
+ * pasar por el heap. En otro caso {@link #transferir} copia a través de un
+ * búfer de {@value #TAMANO_BUFFER} bytes, porque el flujo de salida de un
+ * servlet no es un canal al que {@link FileChannel#transferTo} pueda
+ * delegar.
+ *
+ * La subida no abre transacción: la conexión a la base de datos solo se
+ * toma para registrar los metadatos una vez escrito el archivo.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Service
+public class AlmacenArchivosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlmacenArchivosService.class);
+
+    /**
+     * Formato de un hash SHA-256 en hexadecimal.
+     */
+    private static final Pattern PATRON_HASH = Pattern.compile("^[0-9a-f]{64}$");
+
+    private static final String TIPO_CONTENIDO_POR_DEFECTO = "application/octet-stream";
+
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    /**
+     * Repositorio de metadatos de archivos.
+     */
+    private final ArchivoAdjuntoRepository archivoAdjuntoRepository;
+
+    /**
+     * Directorio raíz del almacén.
+     */
+    private final Path directorioBase;
+
+    /**
+     * Tamaño máximo por archivo en bytes.
+     */
+    private final long tamanoMaximo;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param archivoAdjuntoRepository Repositorio de metadatos
+     * @param directorio Directorio raíz del almacén
+     * @param tamanoMaximo Tamaño máximo por archivo en bytes
+     */
+    @Autowired
+    public AlmacenArchivosService(ArchivoAdjuntoRepository archivoAdjuntoRepository,
+                                  @Value("${app.file.upload-dir:" + AppConstants.DEFAULT_UPLOAD_DIR + "}") String directorio,
+                                  @Value("${app.file.max-size:" + AppConstants.MAX_FILE_SIZE + "}") long tamanoMaximo) {
+        this.archivoAdjuntoRepository = archivoAdjuntoRepository;
+        this.directorioBase = Paths.get(directorio).toAbsolutePath().normalize();
+        this.tamanoMaximo = tamanoMaximo;
+    }
+
+    /**
+     * Indica si una referencia de {@code RegistroMedico.archivos} apunta a
+     * un archivo del almacén (hash SHA-256).
+     *
+     * @param referencia Referencia a evaluar
+     * @return true si tiene formato de hash
+     */
+    public static boolean esHash(String referencia) {
+        return referencia != null && PATRON_HASH.matcher(referencia).matches();
+    }
+
+    /**
+     * Guarda el contenido leído en streaming. Si ya existe un archivo con el
+     * mismo contenido, no se vuelve a escribir.
+     *
+     * @param contenido Flujo con el contenido del archivo
+     * @param tipoContenido Tipo MIME (opcional)
+     * @param nombre Nombre original (opcional)
+     * @return Metadatos del archivo almacenado
+     * @throws BusinessException Si el archivo está vacío o supera el tamaño máximo
+     */
+    @Auditable
+    public ArchivoAdjuntoResponse guardar(InputStream contenido, String tipoContenido, String nombre) {
+        return guardar(contenido, tipoContenido, nombre, tamanoMaximo);
+    }
+
+    /**
+     * Guarda el contenido leído en streaming con un tamaño máximo propio,
+     * para archivos que genera el sistema y no sube un usuario.
+     *
+     * @param contenido Flujo con el contenido del archivo
+     * @param tipoContenido Tipo MIME (opcional)
+     * @param nombre Nombre original (opcional)
+     * @param tamanoMaximo Tamaño máximo en bytes
+     * @return Metadatos del archivo almacenado
+     * @throws BusinessException Si el archivo está vacío o supera el tamaño máximo
+     */
+    @Auditable
+    public ArchivoAdjuntoResponse guardar(InputStream contenido, String tipoContenido, String nombre,
+                                          long tamanoMaximo) {
+        Path temporal = null;
+        try {
+            Path directorioTemporal = Files.createDirectories(directorioBase.resolve("tmp"));
+            temporal = Files.createTempFile(directorioTemporal, "subida-", ".part");
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long tamano = 0;
+            try (OutputStream salida = Files.newOutputStream(temporal, StandardOpenOption.WRITE)) {
+                byte[] buffer = new byte[TAMANO_BUFFER];
+                int leidos;
+                while ((leidos = contenido.read(buffer)) != -1) {
+                    tamano += leidos;
+                    if (tamano > tamanoMaximo) {
+                        throw new BusinessException(
+                                "El archivo supera el tamaño máximo permitido de " + tamanoMaximo + " bytes");
+                    }
+                    digest.update(buffer, 0, leidos);
+                    salida.write(buffer, 0, leidos);
+                }
+            }
+            if (tamano == 0) {
+                throw new BusinessException("El archivo está vacío");
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path destino = ruta(hash);
+            if (!Files.exists(destino)) {
+                Files.createDirectories(destino.getParent());
+                try {
+                    Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+                    temporal = null;
+                } catch (FileAlreadyExistsException e) {
+                    // Otra subida simultánea del mismo contenido llegó primero
+                    logger.debug("Archivo {} ya almacenado por otra subida", hash);
+                }
+            }
+
+            boolean nuevo = archivoAdjuntoRepository.insertarSiNoExiste(hash, tamano,
+                    tipoContenido != null && !tipoContenido.isBlank() ? tipoContenido : TIPO_CONTENIDO_POR_DEFECTO,
+                    recortarNombre(nombre), LocalDateTime.now()) > 0;
+            ArchivoAdjuntoResponse respuesta = mapToResponse(obtener(hash));
+            respuesta.setDuplicado(!nuevo);
+            return respuesta;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al almacenar el archivo", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        } finally {
+            if (temporal != null) {
+                try {
+                    Files.deleteIfExists(temporal);
+                } catch (IOException e) {
+                    logger.warn("No se pudo eliminar el temporal {}: {}", temporal, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Obtiene los metadatos de un archivo.
+     *
+     * @param hash SHA-256 del archivo
+     * @return Metadatos del archivo
+     * @throws ResourceNotFoundException Si el archivo no existe
+     */
+    public ArchivoAdjunto obtener(String hash) {
+        if (!esHash(hash)) {
+            throw new ResourceNotFoundException("ArchivoAdjunto", "hash", hash);
+        }
+        return archivoAdjuntoRepository.findById(hash)
+                .orElseThrow(() -> new ResourceNotFoundException("ArchivoAdjunto", "hash", hash));
+    }
+
+    /**
+     * Obtiene los metadatos de un archivo como DTO.
+     *
+     * @param hash SHA-256 del archivo
+     * @return Metadatos del archivo
+     */
+    public ArchivoAdjuntoResponse obtenerMetadatos(String hash) {
+        return mapToResponse(obtener(hash));
+    }
+
+    /**
+     * Ruta canónica del contenido almacenado de un archivo.
+     *
+     * @param hash SHA-256 del archivo
+     * @return Ruta del archivo en disco
+     * @throws ResourceNotFoundException Si el contenido no está en el almacén
+     * @throws IOException Si no se puede resolver la ruta
+     */
+    public Path rutaContenido(String hash) throws IOException {
+        Path archivo = esHash(hash) ? ruta(hash) : null;
+        if (archivo == null || !Files.exists(archivo)) {
+            throw new ResourceNotFoundException("ArchivoAdjunto", "hash", hash);
+        }
+        return archivo.toRealPath();
+    }
+
+    /**
+     * Escribe un rango del archivo en el flujo de salida, a través de un
+     * búfer en memoria.
+     *
+     * @param hash SHA-256 del archivo
+     * @param posicion Primer byte a enviar
+     * @param longitud Número de bytes a enviar
+     * @param salida Flujo de destino (no se cierra)
+     * @throws IOException Si falla la lectura o la escritura
+     */
+    public void transferir(String hash, long posicion, long longitud, OutputStream salida) throws IOException {
+        Path archivo = rutaContenido(hash);
+        try (FileChannel origen = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            origen.position(posicion);
+            ByteBuffer buffer = ByteBuffer.allocate(TAMANO_BUFFER);
+            long restante = longitud;
+            while (restante > 0) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), restante));
+                int leidos = origen.read(buffer);
+                if (leidos < 0) {
+                    break;
+                }
+                salida.write(buffer.array(), 0, leidos);
+                restante -= leidos;
+            }
+        }
+        salida.flush();
+    }
+
+    /**
+     * Verifica que las referencias con formato de hash existan en el almacén.
+     * Las demás referencias (rutas o URLs previas) se aceptan sin cambios.
+     *
+     * @param referencias Referencias de {@code RegistroMedico.archivos}
+     * @throws BusinessException Si algún hash no está almacenado
+     */
+    public void validarReferencias(Collection<String> referencias) {
+        if (referencias == null || referencias.isEmpty()) {
+            return;
+        }
+        Set<String> hashes = referencias.stream()
+                .filter(AlmacenArchivosService::esHash)
+                .collect(Collectors.toSet());
+        if (!hashes.isEmpty() && archivoAdjuntoRepository.countByHashSha256In(hashes) != hashes.size()) {
+            throw new BusinessException("Uno o más archivos referenciados no existen en el almacén");
+        }
+    }
+
+    /**
+     * Ruta del archivo: dos niveles de subdirectorios para no acumular
+     * miles de archivos en un mismo directorio.
+     */
+    private Path ruta(String hash) {
+        return directorioBase.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private static String recortarNombre(String nombre) {
+        if (nombre == null || nombre.isBlank()) {
+            return null;
+        }
+        // Solo el nombre, sin la ruta que envían algunos navegadores
+        String limpio = nombre.trim();
+        limpio = limpio.substring(Math.max(limpio.lastIndexOf('/'), limpio.lastIndexOf('\\')) + 1);
+        return limpio.length() > 255 ? limpio.substring(0, 255) : limpio;
+    }
+
+    private ArchivoAdjuntoResponse mapToResponse(ArchivoAdjunto archivo) {
+        return ArchivoAdjuntoResponse.builder()
+                .hash(archivo.getHashSha256())
+                .tamanoBytes(archivo.getTamanoBytes())
+                .tipoContenido(archivo.getTipoContenido())
+                .nombreOriginal(archivo.getNombreOriginal())
+                .fechaCreacion(archivo.getFechaCreacion())
+                .build();
+    }
+}
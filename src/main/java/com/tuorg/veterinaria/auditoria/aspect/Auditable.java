@@ -0,0 +1,35 @@
+package com.tuorg.veterinaria.auditoria.aspect;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca una operación que debe auditarse aunque quede fuera de los servicios
+ * de negocio o de la convención de nombres de {@link AuditoriaAspect}:
+ * parámetros del sistema, copias de seguridad, fuentes de datos, reportes.
+ *
+ * Como todo el aspecto, solo actúa en llamadas que pasan por el proxy de
+ * Spring y con un usuario autenticado: registra lo que pide una persona
+ * desde la API. Las ejecuciones automáticas de los mismos métodos (tareas
+ * programadas, avisos de otros nodos) se invocan desde la propia clase o sin
+ * usuario y no llegan a historial_acciones; su rastro queda en el log de la
+ * aplicación.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Auditable {
+
+    /**
+     * Argumentos de texto que sí pueden copiarse en la auditoría porque no
+     * contienen datos personales ni secretos (por ejemplo, la clave de un
+     * parámetro, pero no su valor).
+     */
+    String[] argumentos() default {};
+}
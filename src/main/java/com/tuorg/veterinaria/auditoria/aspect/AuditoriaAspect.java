@@ -0,0 +1,196 @@
+package com.tuorg.veterinaria.auditoria.aspect;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuorg.veterinaria.auditoria.repository.AuditoriaRepository.Accion;
+import com.tuorg.veterinaria.auditoria.service.AuditoriaService;
+import com.tuorg.veterinaria.config.security.UsuarioAutenticado;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.lang.reflect.Method;
+import java.time.temporal.Temporal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Aspecto que audita las operaciones de modificación de los servicios de negocio.
+ *
+ * Envuelve los métodos públicos de creación, actualización, baja, registro
+ * (pagos, movimientos, vacunas...), cancelación, anulación y los que agregan
+ * registros o adjuntan archivos a la historia clínica, más cualquier
+ * método marcado con {@link Auditable} en otros módulos, y registra quién
+ * los ejecutó, qué operación fue, con qué identificadores y cómo terminó.
+ * Solo se audita la operación más externa de cada petición, y solo si hay un
+ * usuario autenticado (historial_acciones exige usuario); su ID se toma de
+ * la sesión en ese momento, así que la acción no depende de que el nombre de
+ * usuario siga existiendo cuando se escriba el lote. Se ejecuta por
+ * fuera de la transacción, así que un fallo al confirmar también queda
+ * registrado como error. La escritura es asíncrona: aquí solo se encola.
+ *
+ * Los argumentos se guardan únicamente si son identificadores o valores
+ * simples (números, booleanos, enumerados y fechas); los DTO y los textos
+ * no se copian para no volcar datos personales ni contraseñas, salvo los
+ * textos que la propia anotación {@link Auditable} declara seguros.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AuditoriaAspect {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditoriaAspect.class);
+
+    /**
+     * Marca que hay una operación auditada en curso en el hilo.
+     */
+    private static final ThreadLocal<Boolean> EN_CURSO = new ThreadLocal<>();
+
+    private final AuditoriaService auditoriaService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param auditoriaService Servicio de auditoría
+     * @param objectMapper Serializador JSON
+     */
+    @Autowired
+    public AuditoriaAspect(AuditoriaService auditoriaService, ObjectMapper objectMapper) {
+        this.auditoriaService = auditoriaService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Servicios de los módulos de negocio.
+     */
+    @Pointcut("within(com.tuorg.veterinaria.gestionusuarios.service..*)"
+            + " || within(com.tuorg.veterinaria.gestionpacientes.service..*)"
+            + " || within(com.tuorg.veterinaria.gestioninventario.service..*)"
+            + " || within(com.tuorg.veterinaria.gestionfacturacion.service..*)"
+            + " || within(com.tuorg.veterinaria.prestacioneservicios.service..*)")
+    public void serviciosDeNegocio() {
+    }
+
+    /**
+     * Métodos públicos que modifican datos, por convención de nombres.
+     */
+    @Pointcut("(execution(public * crear*(..)) || execution(public * actualizar*(..))"
+            + " || execution(public * eliminar*(..)) || execution(public * registrar*(..))"
+            + " || execution(public * cancelar*(..)) || execution(public * anular*(..))"
+            + " || execution(public * completar*(..)) || execution(public * programar*(..))"
+            + " || execution(public * reprogramar*(..)) || execution(public * revertir*(..))"
+            + " || execution(public * importar*(..)) || execution(public * agregar*(..))"
+            + " || execution(public * adjuntar*(..)))"
+            + " && !execution(* actualizarUltimoAcceso(..))")
+    public void operacionesDeModificacion() {
+    }
+
+    /**
+     * Operaciones marcadas explícitamente, en cualquier módulo.
+     */
+    @Pointcut("@annotation(com.tuorg.veterinaria.auditoria.aspect.Auditable)")
+    public void operacionesAuditables() {
+    }
+
+    /**
+     * Ejecuta la operación y registra su resultado.
+     *
+     * @param punto Operación interceptada
+     * @return Resultado de la operación
+     * @throws Throwable El error de la operación, sin cambios
+     */
+    @Around("(serviciosDeNegocio() && operacionesDeModificacion()) || operacionesAuditables()")
+    public Object auditar(ProceedingJoinPoint punto) throws Throwable {
+        Authentication autenticacion = usuarioActual();
+        if (autenticacion == null || EN_CURSO.get() != null) {
+            return punto.proceed();
+        }
+        EN_CURSO.set(Boolean.TRUE);
+        long inicio = System.nanoTime();
+        Throwable error = null;
+        try {
+            return punto.proceed();
+        } catch (Throwable t) {
+            error = t;
+            throw t;
+        } finally {
+            EN_CURSO.remove();
+            registrar(punto, autenticacion, error, (System.nanoTime() - inicio) / 1_000_000);
+        }
+    }
+
+    private void registrar(ProceedingJoinPoint punto, Authentication autenticacion, Throwable error,
+                           long duracionMs) {
+        try {
+            MethodSignature firma = (MethodSignature) punto.getSignature();
+            String operacion = firma.getDeclaringType().getSimpleName() + "." + firma.getName();
+            Method metodo = firma.getMethod();
+            Auditable auditable = metodo != null ? metodo.getAnnotation(Auditable.class) : null;
+            Map<String, Object> argumentos = argumentos(firma.getParameterNames(), punto.getArgs(),
+                    auditable != null ? List.of(auditable.argumentos()) : List.of());
+
+            StringJoiner descripcion = new StringJoiner(", ", operacion + "(", ")");
+            argumentos.forEach((nombre, valor) -> descripcion.add(nombre + "=" + valor));
+            Map<String, Object> metadata = new LinkedHashMap<>();
+            metadata.put("operacion", operacion);
+            metadata.put("resultado", error == null ? "OK" : "ERROR");
+            if (error != null) {
+                metadata.put("error", error.getClass().getSimpleName());
+            }
+            metadata.put("duracionMs", duracionMs);
+            metadata.put("argumentos", argumentos);
+
+            Long usuarioId = autenticacion.getPrincipal() instanceof UsuarioAutenticado usuario
+                    ? usuario.getIdUsuario() : null;
+            auditoriaService.registrar(new Accion(usuarioId, autenticacion.getName(), LocalDateTime.now(),
+                    error == null ? descripcion.toString()
+                            : descripcion + " falló: " + error.getClass().getSimpleName(),
+                    objectMapper.writeValueAsString(metadata)));
+        } catch (Exception e) {
+            // La auditoría nunca debe cambiar el resultado de la operación
+            logger.error("No se pudo registrar la auditoría de {}: {}", punto.getSignature().toShortString(),
+                    e.getMessage());
+        }
+    }
+
+    private static Map<String, Object> argumentos(String[] nombres, Object[] valores, List<String> textosSeguros) {
+        Map<String, Object> argumentos = new LinkedHashMap<>();
+        for (int i = 0; i < valores.length; i++) {
+            Object valor = valores[i];
+            String nombre = nombres != null ? nombres[i] : "arg" + i;
+            if (valor instanceof Number || valor instanceof Boolean
+                    || (valor instanceof String && textosSeguros.contains(nombre))) {
+                argumentos.put(nombre, valor);
+            } else if (valor instanceof Enum<?> || valor instanceof Temporal) {
+                argumentos.put(nombre, valor.toString());
+            }
+        }
+        return argumentos;
+    }
+
+    private static Authentication usuarioActual() {
+        Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacion == null || autenticacion instanceof AnonymousAuthenticationToken
+                || !autenticacion.isAuthenticated()) {
+            return null;
+        }
+        return autenticacion;
+    }
+}
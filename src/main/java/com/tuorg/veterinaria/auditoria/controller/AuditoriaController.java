@@ -0,0 +1,63 @@
+package com.tuorg.veterinaria.auditoria.controller;
+
+import com.tuorg.veterinaria.auditoria.dto.PaginaAuditoriaResponse;
+import com.tuorg.veterinaria.auditoria.service.AuditoriaService;
+import com.tuorg.veterinaria.common.dto.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+/**
+ * Controlador REST del historial de auditoría.
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/auditoria")  // Sin /api porque el context-path ya lo incluye
+public class AuditoriaController {
+
+    /**
+     * Servicio de auditoría.
+     */
+    private final AuditoriaService auditoriaService;
+
+    /**
+     * Constructor con inyección de dependencias.
+     * 
+     * @param auditoriaService Servicio de auditoría
+     */
+    @Autowired
+    public AuditoriaController(AuditoriaService auditoriaService) {
+        this.auditoriaService = auditoriaService;
+    }
+
+    /**
+     * Consulta el historial de acciones paginando por cursor.
+     * 
+     * @param usuarioId Usuario (opcional)
+     * @param desde Inicio del rango (por defecto, 7 días antes de hasta)
+     * @param hasta Fin del rango (por defecto, ahora)
+     * @param cursor Cursor de la página anterior (opcional)
+     * @param limite Acciones por página (por defecto 100, máximo 1000)
+     * @return Respuesta con la página de acciones
+     */
+    @GetMapping("/acciones")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<PaginaAuditoriaResponse>> buscarAcciones(
+            @RequestParam(required = false) Long usuarioId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        PaginaAuditoriaResponse pagina = auditoriaService.buscar(usuarioId, desde, hasta, cursor, limite);
+        return ResponseEntity.ok(ApiResponse.success("Historial de auditoría obtenido exitosamente", pagina));
+    }
+}
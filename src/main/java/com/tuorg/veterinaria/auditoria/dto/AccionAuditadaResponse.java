@@ -0,0 +1,35 @@
+package com.tuorg.veterinaria.auditoria.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+
+/**
+ * DTO de salida de una acción del historial de auditoría.
+ */
+@Data
+@Builder
+@Schema(name = "AccionAuditadaResponse", description = "Acción registrada en el historial de auditoría")
+public class AccionAuditadaResponse {
+
+    @Schema(description = "ID de la acción", example = "5310")
+    private Long id;
+
+    @Schema(description = "ID del usuario que la realizó", example = "3")
+    private Long usuarioId;
+
+    @Schema(description = "Nombre de usuario", example = "recepcion1")
+    private String username;
+
+    @Schema(description = "Momento en que terminó la operación")
+    private OffsetDateTime fechaHora;
+
+    @Schema(description = "Descripción de la operación", example = "CitaService.cancelar(id=42)")
+    private String descripcion;
+
+    @Schema(description = "Detalle en JSON: operación, resultado, duración y argumentos",
+            example = "{\"operacion\":\"CitaService.cancelar\",\"resultado\":\"OK\",\"duracionMs\":12}")
+    private String metadata;
+}
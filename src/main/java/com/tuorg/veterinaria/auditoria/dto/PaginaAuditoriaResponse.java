@@ -0,0 +1,23 @@
+package com.tuorg.veterinaria.auditoria.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO de salida de una página del historial de auditoría.
+ */
+@Data
+@Builder
+@Schema(name = "PaginaAuditoriaResponse", description = "Página de acciones auditadas, de la más reciente a la más antigua")
+public class PaginaAuditoriaResponse {
+
+    @Schema(description = "Acciones de la página")
+    private List<AccionAuditadaResponse> acciones;
+
+    @Schema(description = "Cursor para pedir la página siguiente; null si no hay más",
+            example = "MjAyNS0wMy0xMFQxNDoxNTowMFp8NTMxMA")
+    private String siguienteCursor;
+}
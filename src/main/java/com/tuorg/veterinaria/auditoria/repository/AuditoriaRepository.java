@@ -0,0 +1,163 @@
+package com.tuorg.veterinaria.auditoria.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Acceso JDBC a historial_acciones para la auditoría.
+ *
+ * La escritura inserta cada lote con un único INSERT de varias filas con el
+ * ID de usuario capturado al ejecutarse la acción; solo las acciones sin ID
+ * (respaldos anteriores) lo resuelven por nombre en la propia sentencia. La
+ * lectura pagina por cursor sobre (fecha_hora, id_accion) en orden
+ * descendente.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Repository
+public class AuditoriaRepository {
+
+    private static final String SQL_INSERTAR =
+            "INSERT INTO historial_acciones (usuario_id, fecha_hora, descripcion, metadata) "
+                    + "SELECT COALESCE(v.usuario_id, (SELECT u.id_usuario FROM usuarios u WHERE u.username = v.username)), "
+                    + "v.fecha_hora, v.descripcion, v.metadata::jsonb FROM (VALUES ";
+
+    private static final String SQL_INSERTAR_FIN =
+            ") AS v (usuario_id, username, fecha_hora, descripcion, metadata)";
+
+    private static final String FILA = "(CAST(? AS BIGINT), CAST(? AS VARCHAR), CAST(? AS TIMESTAMP), "
+            + "CAST(? AS TEXT), CAST(? AS TEXT))";
+
+    /**
+     * Máximo de filas por sentencia (5 parámetros por fila, muy por debajo del
+     * límite de 32767 parámetros del protocolo de PostgreSQL).
+     */
+    private static final int FILAS_POR_SENTENCIA = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Sentencias ya construidas por número de filas.
+     */
+    private final ConcurrentMap<Integer, String> sentencias = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param jdbcTemplate Plantilla JDBC
+     */
+    @Autowired
+    public AuditoriaRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserta las acciones indicadas: todas o ninguna.
+     *
+     * @param acciones Acciones a insertar
+     * @throws org.springframework.dao.DataIntegrityViolationException Si el usuario de alguna ya no existe
+     */
+    @Transactional
+    public void insertar(List<Accion> acciones) {
+        for (int desde = 0; desde < acciones.size(); desde += FILAS_POR_SENTENCIA) {
+            List<Accion> tramo = acciones.subList(desde, Math.min(acciones.size(), desde + FILAS_POR_SENTENCIA));
+            Object[] parametros = new Object[tramo.size() * 5];
+            int i = 0;
+            for (Accion accion : tramo) {
+                parametros[i++] = accion.usuarioId();
+                parametros[i++] = accion.username();
+                parametros[i++] = accion.fechaHora();
+                parametros[i++] = accion.descripcion();
+                parametros[i++] = accion.metadata();
+            }
+            jdbcTemplate.update(sentencia(tramo.size()), parametros);
+        }
+    }
+
+    /**
+     * Busca una página de acciones, de la más reciente a la más antigua.
+     *
+     * @param desde Inicio del rango (inclusive)
+     * @param hasta Fin del rango (exclusive)
+     * @param usuarioId Usuario, o null para todos
+     * @param despuesDe Última acción de la página anterior, o null para la primera
+     * @param limite Acciones por página
+     * @return Acciones de la página
+     */
+    public List<Registro> buscar(OffsetDateTime desde, OffsetDateTime hasta, Long usuarioId, Posicion despuesDe,
+                                 int limite) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT h.id_accion, h.usuario_id, u.username, h.fecha_hora, h.descripcion, h.metadata::text "
+                        + "FROM historial_acciones h JOIN usuarios u ON u.id_usuario = h.usuario_id "
+                        + "WHERE h.fecha_hora >= ? AND h.fecha_hora < ?");
+        List<Object> parametros = new ArrayList<>(List.of(desde, hasta));
+        if (usuarioId != null) {
+            sql.append(" AND h.usuario_id = ?");
+            parametros.add(usuarioId);
+        }
+        if (despuesDe != null) {
+            sql.append(" AND (h.fecha_hora, h.id_accion) < (?, ?)");
+            parametros.add(despuesDe.fechaHora());
+            parametros.add(despuesDe.id());
+        }
+        sql.append(" ORDER BY h.fecha_hora DESC, h.id_accion DESC LIMIT ?");
+        parametros.add(limite);
+        return jdbcTemplate.query(sql.toString(), (rs, fila) -> new Registro(
+                rs.getLong(1),
+                rs.getLong(2),
+                rs.getString(3),
+                rs.getObject(4, OffsetDateTime.class),
+                rs.getString(5),
+                rs.getString(6)), parametros.toArray());
+    }
+
+    private String sentencia(int filas) {
+        return sentencias.computeIfAbsent(filas, n -> {
+            StringBuilder sql = new StringBuilder(SQL_INSERTAR.length() + SQL_INSERTAR_FIN.length()
+                    + n * (FILA.length() + 2));
+            sql.append(SQL_INSERTAR);
+            for (int i = 0; i < n; i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append(FILA);
+            }
+            return sql.append(SQL_INSERTAR_FIN).toString();
+        });
+    }
+
+    /**
+     * Acción pendiente de escribir.
+     *
+     * @param usuarioId ID del usuario que la realizó, o null en respaldos anteriores
+     * @param username Usuario que la realizó
+     * @param fechaHora Momento en que terminó
+     * @param descripcion Descripción legible
+     * @param metadata Detalle en JSON
+     */
+    public record Accion(Long usuarioId, String username, LocalDateTime fechaHora, String descripcion, String metadata) {
+    }
+
+    /**
+     * Acción leída del historial.
+     */
+    public record Registro(long id, long usuarioId, String username, OffsetDateTime fechaHora, String descripcion,
+                           String metadata) {
+    }
+
+    /**
+     * Posición de paginación: última acción entregada.
+     */
+    public record Posicion(OffsetDateTime fechaHora, long id) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.tuorg.veterinaria.auditoria.service;
+
+import com.tuorg.veterinaria.auditoria.dto.AccionAuditadaResponse;
+import com.tuorg.veterinaria.auditoria.dto.PaginaAuditoriaResponse;
+import com.tuorg.veterinaria.auditoria.repository.AuditoriaRepository;
+import com.tuorg.veterinaria.auditoria.repository.AuditoriaRepository.Accion;
+import com.tuorg.veterinaria.auditoria.repository.AuditoriaRepository.Posicion;
+import com.tuorg.veterinaria.auditoria.repository.AuditoriaRepository.Registro;
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.common.util.CursorPaginacion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Servicio del historial de auditoría.
+ * 
+ * Registra las operaciones de modificación capturadas por
+ * {@link com.tuorg.veterinaria.auditoria.aspect.AuditoriaAspect} sin
+ * bloquear la petición, y las consulta por usuario y rango de fechas.
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Service
+public class AuditoriaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditoriaService.class);
+
+    private static final int LIMITE_POR_DEFECTO = 100;
+    private static final int LIMITE_MAXIMO = 1000;
+    private static final Duration RANGO_POR_DEFECTO = Duration.ofDays(7);
+
+    /**
+     * Repositorio del historial de acciones.
+     */
+    private final AuditoriaRepository auditoriaRepository;
+
+    /**
+     * Escritor por lotes de acciones.
+     */
+    private final EscritorAuditoria escritorAuditoria;
+
+    /**
+     * Constructor con inyección de dependencias.
+     * 
+     * @param auditoriaRepository Repositorio del historial de acciones
+     * @param escritorAuditoria Escritor por lotes de acciones
+     */
+    @Autowired
+    public AuditoriaService(AuditoriaRepository auditoriaRepository, EscritorAuditoria escritorAuditoria) {
+        this.auditoriaRepository = auditoriaRepository;
+        this.escritorAuditoria = escritorAuditoria;
+    }
+
+    /**
+     * Registra una acción. Solo encola: se escribe en el siguiente lote.
+     * 
+     * @param accion Acción a registrar
+     * @return true si se aceptó, false si se descartó por saturación
+     */
+    public boolean registrar(Accion accion) {
+        boolean aceptada = escritorAuditoria.registrar(accion);
+        if (!aceptada) {
+            logger.warn("Acción de auditoría descartada por saturación: {} - {}", accion.username(),
+                    accion.descripcion());
+        }
+        return aceptada;
+    }
+
+    /**
+     * Busca una página del historial, de la acción más reciente a la más antigua.
+     * 
+     * @param usuarioId Usuario, o null para todos
+     * @param desde Inicio del rango (inclusive); por defecto, 7 días antes de hasta
+     * @param hasta Fin del rango (exclusive); por defecto, ahora
+     * @param cursor Cursor devuelto por la página anterior, o null para la primera
+     * @param limite Acciones por página (máximo {@value #LIMITE_MAXIMO})
+     * @return Página de acciones con el cursor de la siguiente
+     * @throws BusinessException Si el rango o el cursor no son válidos
+     */
+    @Transactional(readOnly = true)
+    public PaginaAuditoriaResponse buscar(Long usuarioId, LocalDateTime desde, LocalDateTime hasta, String cursor,
+                                          Integer limite) {
+        ZoneId zona = ZoneId.systemDefault();
+        OffsetDateTime fin = (hasta != null ? hasta : LocalDateTime.now()).atZone(zona).toOffsetDateTime();
+        OffsetDateTime inicio = desde != null
+                ? desde.atZone(zona).toOffsetDateTime()
+                : fin.minus(RANGO_POR_DEFECTO);
+        if (!inicio.isBefore(fin)) {
+            throw new BusinessException("La fecha de inicio debe ser anterior a la fecha de fin");
+        }
+        int tamano = limite != null ? Math.max(1, Math.min(limite, LIMITE_MAXIMO)) : LIMITE_POR_DEFECTO;
+        CursorPaginacion.Posicion posicion = CursorPaginacion.decodificar(cursor);
+
+        // Se pide una acción de más para saber si hay página siguiente
+        List<Registro> registros = auditoriaRepository.buscar(inicio, fin, usuarioId,
+                posicion != null ? new Posicion(posicion.fechaHora(), posicion.id()) : null, tamano + 1);
+        boolean hayMas = registros.size() > tamano;
+        List<Registro> pagina = hayMas ? registros.subList(0, tamano) : registros;
+        Registro ultimo = pagina.isEmpty() ? null : pagina.get(pagina.size() - 1);
+        return PaginaAuditoriaResponse.builder()
+                .acciones(pagina.stream().map(AuditoriaService::mapToResponse).toList())
+                .siguienteCursor(hayMas ? CursorPaginacion.codificar(ultimo.fechaHora(), ultimo.id()) : null)
+                .build();
+    }
+
+    private static AccionAuditadaResponse mapToResponse(Registro registro) {
+        return AccionAuditadaResponse.builder()
+                .id(registro.id())
+                .usuarioId(registro.usuarioId())
+                .username(registro.username())
+                .fechaHora(registro.fechaHora())
+                .descripcion(registro.descripcion())
+                .metadata(registro.metadata())
+                .build();
+    }
+}
@@ -0,0 +1,204 @@
+package com.tuorg.veterinaria.auditoria.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuorg.veterinaria.auditoria.repository.AuditoriaRepository;
+import com.tuorg.veterinaria.auditoria.repository.AuditoriaRepository.Accion;
+import com.tuorg.veterinaria.common.util.EscritorPorLotes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Escritor asíncrono por lotes de la auditoría en historial_acciones.
+ *
+ * Se apoya en {@link EscritorPorLotes}: el hilo de la petición solo encola.
+ * Para no perder acciones, un lote que no se puede escribir tras los
+ * reintentos (también el último, al cerrar la aplicación) se añade a un
+ * fichero de respaldo sincronizado en disco, que se reenvía al arrancar y
+ * tras la siguiente escritura correcta. La entrega es al menos una vez: si un
+ * lote falla después de confirmarse, puede quedar duplicado al reenviarlo.
+ * Una acción que la base de datos rechaza por sí sola (su usuario ya no
+ * existe) no se respalda: se registra entera en el log como error y se
+ * descarta, para que no bloquee el respaldo para siempre.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Component
+public class EscritorAuditoria extends EscritorPorLotes<Accion> {
+
+    private static final Logger logger = LoggerFactory.getLogger(EscritorAuditoria.class);
+
+    private final AuditoriaRepository auditoriaRepository;
+    private final ObjectMapper objectMapper;
+    private final Path respaldo;
+    private final Object bloqueoRespaldo = new Object();
+    private final AtomicLong respaldadas = new AtomicLong();
+    private volatile boolean respaldoPendiente;
+
+    @Autowired
+    public EscritorAuditoria(AuditoriaRepository auditoriaRepository,
+                             ObjectMapper objectMapper,
+                             @Value("${app.auditoria.capacidad:8192}") int capacidad,
+                             @Value("${app.auditoria.lote:500}") int tamanoLote,
+                             @Value("${app.auditoria.intervalo:PT0.5S}") Duration intervalo,
+                             @Value("${app.auditoria.desborde:ESPERAR}") Desborde desborde,
+                             @Value("${app.auditoria.espera-maxima:PT2S}") Duration esperaMaxima,
+                             @Value("${app.auditoria.espera-cierre:PT15S}") Duration esperaCierre,
+                             @Value("${app.auditoria.respaldo:./auditoria/pendientes.jsonl}") String respaldo) {
+        this(auditoriaRepository, objectMapper, capacidad, tamanoLote, intervalo, desborde, esperaMaxima,
+                esperaCierre, Paths.get(respaldo));
+    }
+
+    EscritorAuditoria(AuditoriaRepository auditoriaRepository, ObjectMapper objectMapper, int capacidad,
+                      int tamanoLote, Duration intervalo, Desborde desborde, Duration esperaMaxima,
+                      Duration esperaCierre, Path respaldo) {
+        super("auditoria-escritor", capacidad, tamanoLote, intervalo, desborde, esperaMaxima, esperaCierre);
+        this.auditoriaRepository = auditoriaRepository;
+        this.objectMapper = objectMapper;
+        this.respaldo = respaldo.toAbsolutePath().normalize();
+        this.respaldoPendiente = Files.exists(this.respaldo);
+        iniciar();
+    }
+
+    /**
+     * Acciones guardadas en el fichero de respaldo desde el arranque.
+     */
+    public long getRespaldadas() {
+        return respaldadas.get();
+    }
+
+    /**
+     * Reenvía al arrancar las acciones que quedaron en el fichero de respaldo.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reenviarAlArrancar() {
+        if (respaldoPendiente) {
+            reenviarSinFallar();
+        }
+    }
+
+    /**
+     * Inserta las acciones del fichero de respaldo y lo elimina.
+     *
+     * @return Acciones reenviadas
+     * @throws DataAccessException Si la base de datos sigue sin responder; el fichero se conserva
+     */
+    public int reenviarRespaldo() {
+        synchronized (bloqueoRespaldo) {
+            if (!Files.exists(respaldo)) {
+                respaldoPendiente = false;
+                return 0;
+            }
+            List<Accion> acciones = new ArrayList<>();
+            int rechazadas;
+            try {
+                for (String linea : Files.readAllLines(respaldo, StandardCharsets.UTF_8)) {
+                    if (!linea.isBlank()) {
+                        try {
+                            acciones.add(objectMapper.readValue(linea, Accion.class));
+                        } catch (IOException e) {
+                            // Una línea a medio escribir por una caída no impide reenviar el resto
+                            logger.warn("Línea ilegible en el respaldo de auditoría: {}", e.getMessage());
+                        }
+                    }
+                }
+                rechazadas = escribirSeparando(acciones, auditoriaRepository::insertar);
+                Files.delete(respaldo);
+            } catch (IOException e) {
+                logger.error("No se pudo leer el respaldo de auditoría {}: {}", respaldo, e.getMessage());
+                return 0;
+            }
+            respaldoPendiente = false;
+            logger.info("Reenviadas {} acciones de auditoría desde {} ({} rechazadas)",
+                    acciones.size() - rechazadas, respaldo, rechazadas);
+            return acciones.size() - rechazadas;
+        }
+    }
+
+    @Override
+    protected void escribirLote(List<Accion> lote) {
+        auditoriaRepository.insertar(lote);
+        if (respaldoPendiente) {
+            reenviarSinFallar();
+        }
+    }
+
+    @Override
+    protected void informarDescartes(long cantidad, List<Accion> lote) {
+        logger.error("Se descartaron {} acciones de auditoría por saturación del registro", cantidad);
+    }
+
+    @Override
+    protected void elementoRechazado(Accion accion, DataIntegrityViolationException error) {
+        logger.error("Acción de auditoría rechazada por la base de datos y descartada ({}): usuario {} ({}), {}, {}, {}",
+                error.getMostSpecificCause().getMessage(), accion.username(), accion.usuarioId(),
+                accion.fechaHora(), accion.descripcion(), accion.metadata());
+    }
+
+    @Override
+    protected boolean loteFallido(List<Accion> lote, RuntimeException error) {
+        try {
+            guardarEnRespaldo(lote);
+            respaldadas.addAndGet(lote.size());
+            logger.error("No se pudo escribir un lote de {} acciones de auditoría ({}); guardado en {}",
+                    lote.size(), error.getMessage(), respaldo);
+            return true;
+        } catch (IOException e) {
+            logger.error("Se perdieron {} acciones de auditoría: la base de datos falló ({}) y el respaldo también ({})",
+                    lote.size(), error.getMessage(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void guardarEnRespaldo(List<Accion> lote) throws IOException {
+        ByteArrayOutputStream contenido = new ByteArrayOutputStream();
+        for (Accion accion : lote) {
+            contenido.write(objectMapper.writeValueAsBytes(accion));
+            contenido.write('\n');
+        }
+        synchronized (bloqueoRespaldo) {
+            Path directorio = respaldo.getParent();
+            if (directorio != null) {
+                Files.createDirectories(directorio);
+            }
+            try (FileChannel canal = FileChannel.open(respaldo, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer buffer = ByteBuffer.wrap(contenido.toByteArray());
+                while (buffer.hasRemaining()) {
+                    canal.write(buffer);
+                }
+                canal.force(true);
+            }
+            respaldoPendiente = true;
+        }
+    }
+
+    private void reenviarSinFallar() {
+        try {
+            reenviarRespaldo();
+        } catch (DataAccessException e) {
+            logger.warn("No se pudo reenviar el respaldo de auditoría; se reintentará: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.tuorg.veterinaria.busqueda.controller;
+
+import com.tuorg.veterinaria.busqueda.dto.OmniboxResultadoResponse;
+import com.tuorg.veterinaria.busqueda.service.OmniboxService;
+import com.tuorg.veterinaria.common.dto.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controlador REST del buscador global (omnibox).
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/busqueda")
+public class OmniboxController {
+
+    /**
+     * Prefijo de las autoridades de rol de Spring Security.
+     */
+    private static final String PREFIJO_ROL = "ROLE_";
+
+    /**
+     * Servicio del buscador global.
+     */
+    private final OmniboxService omniboxService;
+
+    /**
+     * Constructor con inyección de dependencias.
+     * 
+     * @param omniboxService Servicio del buscador global
+     */
+    @Autowired
+    public OmniboxController(OmniboxService omniboxService) {
+        this.omniboxService = omniboxService;
+    }
+
+    /**
+     * Typeahead sobre pacientes, clientes, productos, facturas y citas,
+     * filtrado según el rol del usuario autenticado.
+     * 
+     * @param q Texto escrito por el usuario
+     * @param limite Número máximo de resultados (por defecto 10)
+     * @param authentication Usuario autenticado
+     * @return Respuesta con los resultados
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<OmniboxResultadoResponse>>> buscar(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limite,
+            Authentication authentication) {
+        List<String> roles = authentication == null ? List.of() : authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .filter(a -> a.startsWith(PREFIJO_ROL))
+                .map(a -> a.substring(PREFIJO_ROL.length()))
+                .toList();
+        List<OmniboxResultadoResponse> resultados = omniboxService.buscar(q, roles, limite);
+        return ResponseEntity.ok(ApiResponse.success("Búsqueda realizada exitosamente", resultados));
+    }
+}
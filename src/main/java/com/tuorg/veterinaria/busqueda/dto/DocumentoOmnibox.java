@@ -0,0 +1,45 @@
+package com.tuorg.veterinaria.busqueda.dto;
+
+import com.tuorg.veterinaria.busqueda.model.TipoDocumentoOmnibox;
+import lombok.Getter;
+
+/**
+ * Documento del índice del buscador global.
+ * 
+ * Se construye directamente desde las consultas JPQL de
+ * {@code OmniboxRepository} (expresiones constructoras), por lo que no
+ * pasa por el contexto de persistencia durante la carga masiva.
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Getter
+public class DocumentoOmnibox {
+
+    private final TipoDocumentoOmnibox tipo;
+    private final Long id;
+    private final String titulo;
+    private final String subtitulo;
+
+    /**
+     * Texto completo a tokenizar (puede incluir campos que no se muestran).
+     */
+    private final String texto;
+
+    /**
+     * Constructor usado por las expresiones constructoras de JPQL.
+     * 
+     * @param tipo Nombre del tipo de documento
+     * @param id ID de la entidad
+     * @param titulo Texto principal mostrado
+     * @param subtitulo Texto secundario mostrado
+     * @param texto Texto a indexar
+     */
+    public DocumentoOmnibox(String tipo, Long id, String titulo, String subtitulo, String texto) {
+        this.tipo = TipoDocumentoOmnibox.valueOf(tipo);
+        this.id = id;
+        this.titulo = titulo;
+        this.subtitulo = subtitulo;
+        this.texto = texto;
+    }
+}
@@ -0,0 +1,26 @@
+package com.tuorg.veterinaria.busqueda.dto;
+
+import com.tuorg.veterinaria.busqueda.model.TipoDocumentoOmnibox;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Resultado del buscador global")
+public class OmniboxResultadoResponse {
+
+    @Schema(description = "Tipo de entidad encontrada", example = "PACIENTE")
+    private TipoDocumentoOmnibox tipo;
+
+    @Schema(description = "ID de la entidad", example = "12")
+    private Long id;
+
+    @Schema(description = "Texto principal", example = "Max")
+    private String titulo;
+
+    @Schema(description = "Texto secundario", example = "perro - Diego López")
+    private String subtitulo;
+}
@@ -0,0 +1,153 @@
+package com.tuorg.veterinaria.busqueda.listener;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuorg.veterinaria.busqueda.model.TipoDocumentoOmnibox;
+import com.tuorg.veterinaria.busqueda.service.OmniboxService;
+import com.tuorg.veterinaria.common.util.OyentePostgres;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mantiene el índice del buscador global de este nodo al día con los
+ * cambios hechos desde cualquier nodo, por SQL directo o por una
+ * restauración.
+ *
+ * Escucha el canal {@value #CANAL} (ver {@link OyentePostgres}), en el que
+ * los triggers de las tablas indexadas anuncian los IDs cambiados al
+ * confirmar cada transacción. Los IDs de todas las notificaciones de una
+ * lectura se agrupan por tipo y se releen de una vez, así que un lote de la
+ * importación masiva se reindexa con una consulta por tipo. Todo se aplica
+ * en el hilo de escucha, en el orden de los commits y releyendo después de
+ * cada uno, de modo que una lectura anterior nunca pisa a una posterior.
+ * Cada suscripción reconstruye el índice completo.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Component
+public class OmniboxListener extends OyentePostgres {
+
+    private static final Logger logger = LoggerFactory.getLogger(OmniboxListener.class);
+
+    static final String CANAL = "omnibox";
+
+    private final OmniboxService omniboxService;
+    private final ObjectMapper objectMapper;
+    private final boolean habilitado;
+
+    /**
+     * IDs anunciados y aún no releídos; solo los usa el hilo de escucha.
+     */
+    private final Map<TipoDocumentoOmnibox, Set<Long>> pendientes = new EnumMap<>(TipoDocumentoOmnibox.class);
+
+    private boolean recargaPendiente;
+
+    @Autowired
+    public OmniboxListener(OmniboxService omniboxService,
+                           DataSourceProperties dataSourceProperties,
+                           ObjectMapper objectMapper,
+                           @Value("${app.omnibox.notificaciones:true}") boolean habilitado,
+                           @Value("${app.omnibox.verificacion:PT1M}") Duration verificacion,
+                           @Value("${app.omnibox.reintento:PT5S}") Duration reintento) {
+        super(CANAL, "omnibox-listener", dataSourceProperties, verificacion, reintento);
+        this.omniboxService = omniboxService;
+        this.objectMapper = objectMapper;
+        this.habilitado = habilitado;
+    }
+
+    /**
+     * Arranca la escucha cuando la aplicación está lista. Sin notificaciones
+     * el índice solo se carga una vez.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (habilitado) {
+            iniciarEscucha();
+        } else {
+            omniboxService.cargarIndice();
+        }
+    }
+
+    @Override
+    protected void suscrito() {
+        // Lo anunciado hasta aquí ya queda incluido en la carga
+        pendientes.clear();
+        recargaPendiente = false;
+        omniboxService.cargarIndice();
+    }
+
+    /**
+     * Acumula una notificación de los triggers del buscador.
+     *
+     * @param payload JSON con el tipo de documento y, salvo en las recargas, los IDs
+     */
+    @Override
+    protected void procesar(String payload) {
+        try {
+            JsonNode cambio = objectMapper.readTree(payload);
+            String tipo = cambio.path("tipo").asText();
+            if ("RECARGA".equals(tipo)) {
+                recargaPendiente = true;
+                return;
+            }
+            Set<Long> ids = pendientes.computeIfAbsent(TipoDocumentoOmnibox.valueOf(tipo),
+                    t -> new LinkedHashSet<>());
+            cambio.path("ids").forEach(id -> ids.add(id.asLong()));
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("Notificación del buscador ilegible; se recarga el índice: {}", payload);
+            recargaPendiente = true;
+        }
+    }
+
+    @Override
+    protected void notificacionesProcesadas() {
+        aplicar();
+    }
+
+    @Override
+    protected void verificar() {
+        // Lo que falló al aplicarse se reintenta aquí
+        aplicar();
+    }
+
+    /**
+     * Aplica la recarga o los IDs acumulados. Lo que falla se conserva para
+     * el siguiente intento.
+     */
+    void aplicar() {
+        if (recargaPendiente) {
+            try {
+                omniboxService.cargarIndice();
+                recargaPendiente = false;
+                pendientes.clear();
+            } catch (RuntimeException e) {
+                logger.warn("No se pudo recargar el índice del buscador: {}", e.getMessage());
+            }
+            return;
+        }
+        pendientes.entrySet().removeIf(entrada -> {
+            try {
+                omniboxService.reindexar(entrada.getKey(), entrada.getValue());
+                return true;
+            } catch (RuntimeException e) {
+                logger.warn("No se pudieron reindexar {} documentos de tipo {}: {}",
+                        entrada.getValue().size(), entrada.getKey(), e.getMessage());
+                return false;
+            }
+        });
+    }
+}
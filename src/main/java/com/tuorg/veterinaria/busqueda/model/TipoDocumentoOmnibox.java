@@ -0,0 +1,15 @@
+package com.tuorg.veterinaria.busqueda.model;
+
+/**
+ * Tipos de entidad indexados por el buscador global (omnibox).
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public enum TipoDocumentoOmnibox {
+    PACIENTE,
+    CLIENTE,
+    PRODUCTO,
+    FACTURA,
+    CITA
+}
@@ -0,0 +1,106 @@
+package com.tuorg.veterinaria.busqueda.repository;
+
+import com.tuorg.veterinaria.busqueda.dto.DocumentoOmnibox;
+import com.tuorg.veterinaria.gestionpacientes.model.Paciente;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+/**
+ * Consultas de solo lectura que alimentan el índice del buscador global.
+ * 
+ * Cada entidad indexada tiene una consulta de carga masiva (en streaming,
+ * con tamaño de lote) y otra por lista de IDs para la actualización
+ * incremental.
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@org.springframework.stereotype.Repository
+public interface OmniboxRepository extends Repository<Paciente, Long> {
+
+    String PACIENTE = "SELECT new com.tuorg.veterinaria.busqueda.dto.DocumentoOmnibox('PACIENTE', p.idPaciente, p.nombre, " +
+            "CONCAT(p.especie, ' - ', c.nombre, ' ', c.apellido), CONCAT(p.nombre, ' ', c.nombre, ' ', c.apellido)) " +
+            "FROM Paciente p JOIN p.cliente c";
+
+    String CLIENTE = "SELECT new com.tuorg.veterinaria.busqueda.dto.DocumentoOmnibox('CLIENTE', c.idPersona, " +
+            "CONCAT(c.nombre, ' ', c.apellido), c.correo, " +
+            "CONCAT(c.nombre, ' ', c.apellido, ' ', COALESCE(c.documentoIdentidad, ''), ' ', c.correo, ' ', COALESCE(c.telefono, ''))) " +
+            "FROM Cliente c";
+
+    String PRODUCTO = "SELECT new com.tuorg.veterinaria.busqueda.dto.DocumentoOmnibox('PRODUCTO', p.idProducto, p.nombre, " +
+            "p.sku, CONCAT(p.sku, ' ', p.nombre)) " +
+            "FROM Producto p";
+
+    String FACTURA = "SELECT new com.tuorg.veterinaria.busqueda.dto.DocumentoOmnibox('FACTURA', f.idFactura, f.numero, " +
+            "CONCAT(COALESCE(c.nombre, ''), ' ', COALESCE(c.apellido, '')), " +
+            "CONCAT(f.numero, ' ', COALESCE(c.nombre, ''), ' ', COALESCE(c.apellido, ''))) " +
+            "FROM Factura f LEFT JOIN f.cliente c";
+
+    String CITA = "SELECT new com.tuorg.veterinaria.busqueda.dto.DocumentoOmnibox('CITA', ci.idCita, " +
+            "CONCAT(p.nombre, ' - ', CAST(ci.fechaHora AS String)), CONCAT(COALESCE(ci.tipoServicio, ''), ' ', ci.estado), " +
+            "CONCAT(p.nombre, ' ', COALESCE(ci.tipoServicio, ''))) " +
+            "FROM Cita ci JOIN ci.paciente p";
+
+    @Query(PACIENTE)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<DocumentoOmnibox> streamPacientes();
+
+    @Query(CLIENTE)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<DocumentoOmnibox> streamClientes();
+
+    @Query(PRODUCTO)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<DocumentoOmnibox> streamProductos();
+
+    @Query(FACTURA)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<DocumentoOmnibox> streamFacturas();
+
+    @Query(CITA)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<DocumentoOmnibox> streamCitas();
+
+    @Query(PACIENTE + " WHERE p.idPaciente IN :ids")
+    List<DocumentoOmnibox> findPacientes(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Pacientes de unos clientes (se reindexan cuando cambia el nombre del dueño).
+     */
+    @Query(PACIENTE + " WHERE c.idPersona IN :clienteIds")
+    List<DocumentoOmnibox> findPacientesPorClientes(@Param("clienteIds") Collection<Long> clienteIds);
+
+    @Query(CLIENTE + " WHERE c.idPersona IN :ids")
+    List<DocumentoOmnibox> findClientes(@Param("ids") Collection<Long> ids);
+
+    @Query(PRODUCTO + " WHERE p.idProducto IN :ids")
+    List<DocumentoOmnibox> findProductos(@Param("ids") Collection<Long> ids);
+
+    @Query(FACTURA + " WHERE f.idFactura IN :ids")
+    List<DocumentoOmnibox> findFacturas(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Facturas de unos clientes (se reindexan cuando cambia el nombre del cliente).
+     */
+    @Query(FACTURA + " WHERE c.idPersona IN :clienteIds")
+    List<DocumentoOmnibox> findFacturasPorClientes(@Param("clienteIds") Collection<Long> clienteIds);
+
+    @Query(CITA + " WHERE ci.idCita IN :ids")
+    List<DocumentoOmnibox> findCitas(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Citas de unos pacientes (se reindexan cuando cambia el nombre del paciente).
+     */
+    @Query(CITA + " WHERE p.idPaciente IN :pacienteIds")
+    List<DocumentoOmnibox> findCitasPorPacientes(@Param("pacienteIds") Collection<Long> pacienteIds);
+}
@@ -0,0 +1,341 @@
+package com.tuorg.veterinaria.busqueda.service;
+
+import com.tuorg.veterinaria.busqueda.dto.DocumentoOmnibox;
+import com.tuorg.veterinaria.busqueda.dto.OmniboxResultadoResponse;
+import com.tuorg.veterinaria.busqueda.listener.OmniboxListener;
+import com.tuorg.veterinaria.busqueda.model.TipoDocumentoOmnibox;
+import com.tuorg.veterinaria.busqueda.repository.OmniboxRepository;
+import com.tuorg.veterinaria.common.constants.AppConstants;
+import com.tuorg.veterinaria.common.util.TextNormalizationUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Servicio del buscador global (omnibox) de recepción.
+ * 
+ * Mantiene en memoria un índice invertido de prefijos sobre pacientes,
+ * clientes, productos, facturas y citas. Cada token (sin acentos y en
+ * minúsculas) se indexa por todos sus prefijos, de modo que una consulta
+ * de typeahead es una intersección de conjuntos en memoria sin acceso a BD.
+ * 
+ * El índice se construye en streaming cada vez que {@link OmniboxListener}
+ * se suscribe a los avisos de cambios y se publica completo al terminar;
+ * después se mantiene releyendo por lotes los IDs que la base anuncia tras
+ * cada commit, venga el cambio de este nodo o de otro.
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Service
+public class OmniboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OmniboxService.class);
+
+    /**
+     * Longitud máxima de prefijo indexado; los tokens más largos se buscan por sus primeros caracteres.
+     */
+    private static final int LONGITUD_MAXIMA_PREFIJO = 20;
+
+    /**
+     * Número de resultados por defecto.
+     */
+    private static final int LIMITE_POR_DEFECTO = 10;
+
+    /**
+     * Número máximo de resultados.
+     */
+    private static final int LIMITE_MAXIMO = 50;
+
+    /**
+     * Candidatos máximos evaluados por consulta; acota el costo de consultas muy amplias (una letra).
+     */
+    private static final int MAX_CANDIDATOS = 500;
+
+    /**
+     * IDs por consulta al releer documentos.
+     */
+    private static final int IDS_POR_CONSULTA = 500;
+
+    /**
+     * Tipos de resultado visibles para cada rol.
+     */
+    private static final Map<String, Set<TipoDocumentoOmnibox>> TIPOS_POR_ROL = Map.of(
+            AppConstants.ROL_ADMIN, EnumSet.allOf(TipoDocumentoOmnibox.class),
+            AppConstants.ROL_SECRETARIO, EnumSet.allOf(TipoDocumentoOmnibox.class),
+            AppConstants.ROL_VETERINARIO, EnumSet.of(
+                    TipoDocumentoOmnibox.PACIENTE,
+                    TipoDocumentoOmnibox.CLIENTE,
+                    TipoDocumentoOmnibox.CITA,
+                    TipoDocumentoOmnibox.PRODUCTO)
+    );
+
+    /**
+     * Repositorio de consultas del índice.
+     */
+    private final OmniboxRepository omniboxRepository;
+
+    /**
+     * Índice invertido (prefijo -> claves de documento) y documentos por
+     * clave (tipo + ID).
+     */
+    private record Indice(Map<String, Set<Long>> prefijos, Map<Long, DocumentoOmnibox> documentos) {
+
+        Indice() {
+            this(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Índice vigente. Una recarga construye uno nuevo y lo publica al terminar.
+     */
+    private volatile Indice indice = new Indice();
+
+    /**
+     * Constructor con inyección de dependencias.
+     * 
+     * @param omniboxRepository Repositorio de consultas del índice
+     */
+    @Autowired
+    public OmniboxService(OmniboxRepository omniboxRepository) {
+        this.omniboxRepository = omniboxRepository;
+    }
+
+    /**
+     * Construye el índice completo y lo publica al terminar; mientras tanto
+     * las búsquedas usan el anterior. Los documentos se leen en streaming,
+     * sin cargar entidades en memoria.
+     */
+    @Transactional(readOnly = true)
+    public void cargarIndice() {
+        long inicio = System.currentTimeMillis();
+        Indice nuevo = new Indice();
+        cargar(nuevo, omniboxRepository::streamPacientes);
+        cargar(nuevo, omniboxRepository::streamClientes);
+        cargar(nuevo, omniboxRepository::streamProductos);
+        cargar(nuevo, omniboxRepository::streamFacturas);
+        cargar(nuevo, omniboxRepository::streamCitas);
+        indice = nuevo;
+        logger.info("Índice del buscador global cargado: {} documentos, {} prefijos en {} ms",
+                nuevo.documentos().size(), nuevo.prefijos().size(), System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * Vuelve a leer unas entidades y actualiza sus documentos en el índice;
+     * las que ya no existen se eliminan. Arrastra los documentos que
+     * muestran su nombre: las facturas y pacientes de un cliente y las
+     * citas de un paciente.
+     * 
+     * @param tipo Tipo de entidad
+     * @param ids IDs de las entidades
+     */
+    @Transactional(readOnly = true)
+    public void reindexar(TipoDocumentoOmnibox tipo, Collection<Long> ids) {
+        List<Long> lista = List.copyOf(ids);
+        for (int desde = 0; desde < lista.size(); desde += IDS_POR_CONSULTA) {
+            List<Long> parte = lista.subList(desde, Math.min(lista.size(), desde + IDS_POR_CONSULTA));
+            List<DocumentoOmnibox> leidos = switch (tipo) {
+                case PACIENTE -> omniboxRepository.findPacientes(parte);
+                case CLIENTE -> omniboxRepository.findClientes(parte);
+                case PRODUCTO -> omniboxRepository.findProductos(parte);
+                case FACTURA -> omniboxRepository.findFacturas(parte);
+                case CITA -> omniboxRepository.findCitas(parte);
+            };
+            Set<Long> ausentes = new HashSet<>(parte);
+            for (DocumentoOmnibox documento : leidos) {
+                indexar(documento);
+                ausentes.remove(documento.getId());
+            }
+            ausentes.forEach(id -> eliminar(tipo, id));
+
+            if (tipo == TipoDocumentoOmnibox.CLIENTE) {
+                omniboxRepository.findPacientesPorClientes(parte).forEach(this::indexar);
+                omniboxRepository.findFacturasPorClientes(parte).forEach(this::indexar);
+            } else if (tipo == TipoDocumentoOmnibox.PACIENTE) {
+                omniboxRepository.findCitasPorPacientes(parte).forEach(this::indexar);
+            }
+        }
+    }
+
+    /**
+     * Elimina el documento de una entidad del índice.
+     * 
+     * @param tipo Tipo de entidad
+     * @param id ID de la entidad
+     */
+    public synchronized void eliminar(TipoDocumentoOmnibox tipo, Long id) {
+        Indice actual = indice;
+        long clave = clave(tipo, id);
+        DocumentoOmnibox anterior = actual.documentos().remove(clave);
+        if (anterior != null) {
+            quitarPrefijos(actual, clave, anterior);
+        }
+    }
+
+    /**
+     * Busca en el índice los documentos que contienen todos los tokens de la
+     * consulta como prefijo de alguna de sus palabras.
+     * 
+     * @param consulta Texto escrito por el usuario
+     * @param roles Roles del usuario (sin prefijo ROLE_)
+     * @param limite Número máximo de resultados (opcional)
+     * @return Resultados visibles para los roles indicados
+     */
+    public List<OmniboxResultadoResponse> buscar(String consulta, Collection<String> roles, Integer limite) {
+        Set<TipoDocumentoOmnibox> permitidos = tiposPermitidos(roles);
+        List<String> tokens = TextNormalizationUtil.tokenize(consulta).stream()
+                .map(this::recortar)
+                .distinct()
+                .toList();
+        if (permitidos.isEmpty() || tokens.isEmpty()) {
+            return List.of();
+        }
+
+        Indice actual = indice;
+        List<Set<Long>> listas = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            Set<Long> claves = actual.prefijos().get(token);
+            if (claves == null) {
+                return List.of();
+            }
+            listas.add(claves);
+        }
+        // Se recorre la lista más corta y se verifica la pertenencia en las demás
+        listas.sort(Comparator.comparingInt(Set::size));
+
+        List<DocumentoOmnibox> candidatos = new ArrayList<>();
+        for (Long clave : listas.get(0)) {
+            if (!permitidos.contains(tipo(clave)) || !contenidaEnTodas(clave, listas)) {
+                continue;
+            }
+            DocumentoOmnibox documento = actual.documentos().get(clave);
+            if (documento != null) {
+                candidatos.add(documento);
+                if (candidatos.size() >= MAX_CANDIDATOS) {
+                    break;
+                }
+            }
+        }
+
+        int tamanio = limite == null ? LIMITE_POR_DEFECTO : Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        return candidatos.stream()
+                .sorted(Comparator.comparingInt((DocumentoOmnibox d) -> -coincidenciasExactas(d, tokens))
+                        .thenComparingInt(d -> d.getTitulo() != null ? d.getTitulo().length() : 0)
+                        .thenComparing(DocumentoOmnibox::getTipo))
+                .limit(tamanio)
+                .map(d -> new OmniboxResultadoResponse(d.getTipo(), d.getId(), d.getTitulo(), d.getSubtitulo()))
+                .toList();
+    }
+
+    /**
+     * Número de documentos en el índice.
+     * 
+     * @return Total de documentos indexados
+     */
+    public int totalDocumentos() {
+        return indice.documentos().size();
+    }
+
+    private void cargar(Indice destino, Supplier<Stream<DocumentoOmnibox>> consulta) {
+        try (Stream<DocumentoOmnibox> stream = consulta.get()) {
+            stream.forEach(documento -> indexar(destino, documento));
+        }
+    }
+
+    private synchronized void indexar(DocumentoOmnibox documento) {
+        indexar(indice, documento);
+    }
+
+    private void indexar(Indice destino, DocumentoOmnibox documento) {
+        long clave = clave(documento.getTipo(), documento.getId());
+        DocumentoOmnibox anterior = destino.documentos().put(clave, documento);
+        if (anterior != null) {
+            quitarPrefijos(destino, clave, anterior);
+        }
+        for (String prefijo : prefijos(documento.getTexto())) {
+            destino.prefijos().computeIfAbsent(prefijo, k -> ConcurrentHashMap.newKeySet()).add(clave);
+        }
+    }
+
+    private void quitarPrefijos(Indice destino, long clave, DocumentoOmnibox documento) {
+        for (String prefijo : prefijos(documento.getTexto())) {
+            Set<Long> claves = destino.prefijos().get(prefijo);
+            if (claves != null) {
+                claves.remove(clave);
+                if (claves.isEmpty()) {
+                    destino.prefijos().remove(prefijo, claves);
+                }
+            }
+        }
+    }
+
+    private Set<String> prefijos(String texto) {
+        Set<String> prefijos = new HashSet<>();
+        for (String token : TextNormalizationUtil.tokenize(texto)) {
+            int maximo = Math.min(token.length(), LONGITUD_MAXIMA_PREFIJO);
+            for (int i = 1; i <= maximo; i++) {
+                prefijos.add(token.substring(0, i));
+            }
+        }
+        return prefijos;
+    }
+
+    private boolean contenidaEnTodas(Long clave, List<Set<Long>> listas) {
+        for (int i = 1; i < listas.size(); i++) {
+            if (!listas.get(i).contains(clave)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cuenta los tokens de la consulta que coinciden con una palabra completa del título.
+     */
+    private int coincidenciasExactas(DocumentoOmnibox documento, List<String> tokens) {
+        List<String> palabras = TextNormalizationUtil.tokenize(documento.getTitulo());
+        int total = 0;
+        for (String token : tokens) {
+            if (palabras.contains(token)) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    private Set<TipoDocumentoOmnibox> tiposPermitidos(Collection<String> roles) {
+        Set<TipoDocumentoOmnibox> permitidos = EnumSet.noneOf(TipoDocumentoOmnibox.class);
+        if (roles != null) {
+            for (String rol : roles) {
+                permitidos.addAll(TIPOS_POR_ROL.getOrDefault(rol, Set.of()));
+            }
+        }
+        return permitidos;
+    }
+
+    private String recortar(String token) {
+        return token.length() > LONGITUD_MAXIMA_PREFIJO ? token.substring(0, LONGITUD_MAXIMA_PREFIJO) : token;
+    }
+
+    private static long clave(TipoDocumentoOmnibox tipo, Long id) {
+        return ((long) tipo.ordinal() << 56) | id;
+    }
+
+    private static TipoDocumentoOmnibox tipo(long clave) {
+        return TipoDocumentoOmnibox.values()[(int) (clave >>> 56)];
+    }
+}
@@ -65,7 +65,8 @@ public final class AppConstants {
     public static final String ESTADO_CITA_CANCELADA = "CANCELADA";
 
     /**
-     * Duración estándar de una cita en minutos.
+     * Duración estándar de una cita en minutos, usada mientras no se
+     * configure el parámetro {@link #PARAM_DURACION_CITA_MINUTOS}.
      */
     public static final int DURACION_CITA_MINUTOS = 30;
 
@@ -171,6 +172,33 @@ public final class AppConstants {
      */
     public static final String DEFAULT_UPLOAD_DIR = "./uploads";
 
+    // ==================== Parámetros del Sistema ====================
+
+    /**
+     * Parámetro: duración de una cita en minutos.
+     */
+    public static final String PARAM_DURACION_CITA_MINUTOS = "citas.duracion.minutos";
+
+    /**
+     * Parámetro: nivel de stock a partir del cual un producto se considera bajo.
+     */
+    public static final String PARAM_STOCK_MINIMO = "inventario.stock.minimo";
+
+    /**
+     * Parámetro: habilita el envío de notificaciones por email.
+     */
+    public static final String PARAM_EMAIL_HABILITADO = "notificaciones.email.enabled";
+
+    /**
+     * Parámetro: habilita el envío de notificaciones por SMS.
+     */
+    public static final String PARAM_SMS_HABILITADO = "notificaciones.sms.enabled";
+
+    /**
+     * Nivel de stock bajo usado mientras no se configure {@link #PARAM_STOCK_MINIMO}.
+     */
+    public static final int STOCK_MINIMO_POR_DEFECTO = 10;
+
     // ==================== Validaciones ====================
 
     /**
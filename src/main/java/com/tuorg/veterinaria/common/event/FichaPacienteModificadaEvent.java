@@ -0,0 +1,37 @@
+package com.tuorg.veterinaria.common.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Evento que se publica cuando cambia algún dato que forma parte de la
+ * ficha integral de un paciente (o de todos los pacientes de un cliente).
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public class FichaPacienteModificadaEvent extends ApplicationEvent {
+
+    private final Long pacienteId;
+    private final Long clienteId;
+
+    /**
+     * Constructor del evento.
+     * 
+     * @param source Entidad modificada
+     * @param pacienteId ID del paciente afectado (null si el cambio es del cliente)
+     * @param clienteId ID del cliente afectado (null si el cambio es de un solo paciente)
+     */
+    public FichaPacienteModificadaEvent(Object source, Long pacienteId, Long clienteId) {
+        super(source);
+        this.pacienteId = pacienteId;
+        this.clienteId = clienteId;
+    }
+
+    public Long getPacienteId() {
+        return pacienteId;
+    }
+
+    public Long getClienteId() {
+        return clienteId;
+    }
+}
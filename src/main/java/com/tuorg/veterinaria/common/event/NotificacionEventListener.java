@@ -5,7 +5,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 /**
@@ -32,10 +31,12 @@ public class NotificacionEventListener {
     /**
      * Escucha eventos de notificaciones enviadas.
      * 
+     * El registro en el log del sistema solo encola el evento, así que no
+     * hace falta derivarlo a otro hilo.
+     * 
      * @param event Evento de notificación
      */
     @EventListener
-    @Async
     public void handleNotificacionEnviada(NotificacionEvent event) {
         logger.info("Evento de notificación recibido: {} - ID: {}", 
                 event.getTipoEvento(), event.getNotificacion().getIdNotificacion());
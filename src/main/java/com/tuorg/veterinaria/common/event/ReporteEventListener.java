@@ -5,7 +5,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 /**
@@ -32,10 +31,12 @@ public class ReporteEventListener {
     /**
      * Escucha eventos de reportes generados.
      * 
+     * El registro en el log del sistema solo encola el evento, así que no
+     * hace falta derivarlo a otro hilo.
+     * 
      * @param event Evento de reporte generado
      */
     @EventListener
-    @Async
     public void handleReporteGenerado(ReporteGeneradoEvent event) {
         logger.info("Evento de reporte generado recibido: {} - ID: {}", 
                 event.getTipoReporte(), event.getReporte().getIdReporte());
@@ -0,0 +1,16 @@
+package com.tuorg.veterinaria.common.event;
+
+/**
+ * Tipos de entidad cuyos cambios anuncian los triggers de la base de datos
+ * (canal cubo_analitico).
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public enum TipoEntidad {
+    PACIENTE,
+    CLIENTE,
+    PRODUCTO,
+    FACTURA,
+    CITA
+}
@@ -0,0 +1,104 @@
+package com.tuorg.veterinaria.common.util;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Anillo acotado sin bloqueos para muchos productores y un único consumidor.
+ *
+ * Cada celda lleva un número de secuencia que indica si está libre para la
+ * vuelta actual del productor o lista para el consumidor; los productores solo
+ * compiten con un CAS sobre la cola y nunca esperan al consumidor. Si el anillo
+ * está lleno, {@link #ofrecer(Object)} devuelve false en lugar de esperar.
+ *
+ * @param <T> Tipo de elemento
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+final class AnilloEventos<T> {
+
+    private final AtomicReferenceArray<T> elementos;
+    private final AtomicLongArray secuencias;
+    private final int mascara;
+    private final AtomicLong cola = new AtomicLong();
+    private final AtomicLong cabeza = new AtomicLong();
+
+    /**
+     * @param capacidadMinima Capacidad deseada; se redondea a potencia de dos
+     */
+    AnilloEventos(int capacidadMinima) {
+        int capacidad = 1 << (32 - Integer.numberOfLeadingZeros(Math.max(2, capacidadMinima) - 1));
+        this.elementos = new AtomicReferenceArray<>(capacidad);
+        this.secuencias = new AtomicLongArray(capacidad);
+        this.mascara = capacidad - 1;
+        for (int i = 0; i < capacidad; i++) {
+            secuencias.set(i, i);
+        }
+    }
+
+    /**
+     * Añade un elemento si hay hueco. Puede llamarse desde cualquier hilo.
+     *
+     * @param elemento Elemento a añadir
+     * @return false si el anillo está lleno
+     */
+    boolean ofrecer(T elemento) {
+        long posicion = cola.get();
+        while (true) {
+            int indice = (int) (posicion & mascara);
+            long diferencia = secuencias.get(indice) - posicion;
+            if (diferencia == 0) {
+                if (cola.compareAndSet(posicion, posicion + 1)) {
+                    elementos.set(indice, elemento);
+                    secuencias.set(indice, posicion + 1);
+                    return true;
+                }
+                posicion = cola.get();
+            } else if (diferencia < 0) {
+                // La celda aún no la ha liberado el consumidor: vuelta completa
+                return false;
+            } else {
+                posicion = cola.get();
+            }
+        }
+    }
+
+    /**
+     * Extrae hasta {@code maximo} elementos en orden de llegada. Solo debe
+     * llamarlo el hilo consumidor.
+     *
+     * @param destino Lista donde se añaden
+     * @param maximo Número máximo de elementos
+     * @return Elementos extraídos
+     */
+    int drenar(List<T> destino, int maximo) {
+        long posicion = cabeza.get();
+        int extraidos = 0;
+        while (extraidos < maximo) {
+            int indice = (int) (posicion & mascara);
+            if (secuencias.get(indice) != posicion + 1) {
+                break;
+            }
+            destino.add(elementos.get(indice));
+            elementos.set(indice, null);
+            secuencias.set(indice, posicion + mascara + 1);
+            posicion++;
+            extraidos++;
+        }
+        cabeza.set(posicion);
+        return extraidos;
+    }
+
+    /**
+     * Elementos pendientes (aproximado mientras haya productores activos).
+     */
+    int tamano() {
+        return (int) Math.max(0, cola.get() - cabeza.get());
+    }
+
+    int capacidad() {
+        return mascara + 1;
+    }
+}
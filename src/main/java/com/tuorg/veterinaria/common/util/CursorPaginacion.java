@@ -0,0 +1,68 @@
+package com.tuorg.veterinaria.common.util;
+
+import com.tuorg.veterinaria.common.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para paginar por (fecha, id) en orden descendente.
+ *
+ * El cliente recibe el cursor del último elemento de una página y lo
+ * devuelve para pedir la siguiente; la consulta continúa desde esa posición
+ * con un índice en vez de saltarse filas con OFFSET.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public final class CursorPaginacion {
+
+    private CursorPaginacion() {
+    }
+
+    /**
+     * Codifica la posición de un elemento.
+     *
+     * @param fechaHora Fecha del elemento
+     * @param id ID del elemento
+     * @return Cursor en Base64 apto para URL
+     */
+    public static String codificar(OffsetDateTime fechaHora, long id) {
+        String valor = fechaHora.toInstant() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor.
+     *
+     * @param cursor Cursor recibido, o null para la primera página
+     * @return Posición, o null si no hay cursor
+     * @throws BusinessException Si el cursor no es válido
+     */
+    public static Posicion decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = valor.indexOf('|');
+            return new Posicion(Instant.parse(valor.substring(0, separador)).atOffset(ZoneOffset.UTC),
+                    Long.parseLong(valor.substring(separador + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new BusinessException("El cursor de paginación no es válido");
+        }
+    }
+
+    /**
+     * Posición de un elemento en el orden de paginación.
+     *
+     * @param fechaHora Fecha del elemento
+     * @param id ID del elemento
+     */
+    public record Posicion(OffsetDateTime fechaHora, long id) {
+    }
+}
@@ -0,0 +1,321 @@
+package com.tuorg.veterinaria.common.util;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Escritor asíncrono por lotes con memoria acotada.
+ *
+ * Los productores dejan cada elemento en un {@link AnilloEventos} sin bloquear
+ * ni tomar conexiones; un único hilo lo vacía y escribe un lote cuando reúne
+ * {@code lote} elementos o cuando el más antiguo lleva {@code intervalo}
+ * esperando. Si la base de datos no da abasto y el anillo se llena, la
+ * política de desborde decide entre descartar en el acto o esperar un tiempo
+ * acotado; los descartes se cuentan y se informan al preparar el siguiente
+ * lote. Al cerrar la aplicación se escribe todo lo pendiente.
+ *
+ * Los fallos de acceso a datos se reintentan; si la base de datos rechaza el
+ * contenido del lote (una restricción violada), el lote se parte por la mitad
+ * hasta aislar los elementos inválidos, que se descartan sin arrastrar a los
+ * demás. Cualquier otro error da el lote por fallido en el acto: el hilo
+ * escritor nunca termina por un lote.
+ *
+ * Las subclases implementan la escritura y deben llamar a {@link #iniciar()}
+ * al final de su constructor, cuando sus campos ya están asignados.
+ *
+ * @param <T> Tipo de elemento
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public abstract class EscritorPorLotes<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(EscritorPorLotes.class);
+
+    /**
+     * Intentos de escritura de un lote antes de darlo por fallido.
+     */
+    private static final int INTENTOS = 3;
+
+    /**
+     * Qué hacer con un elemento cuando el anillo está lleno.
+     */
+    public enum Desborde {
+        /** Se descarta en el acto; el productor nunca espera. */
+        DESCARTAR,
+        /** Se reintenta hasta la espera máxima y después se descarta. */
+        ESPERAR
+    }
+
+    private final String nombre;
+    private final AnilloEventos<T> anillo;
+    private final int tamanoLote;
+    private final long intervaloNanos;
+    private final Desborde desborde;
+    private final long esperaMaximaNanos;
+    private final long esperaCierreMs;
+    private final Thread hilo;
+
+    private final AtomicLong descartados = new AtomicLong();
+    private final AtomicLong escritos = new AtomicLong();
+    private final AtomicLong rechazados = new AtomicLong();
+    private long descartadosInformados;
+    private volatile boolean cerrado;
+
+    /**
+     * @param nombre Nombre del hilo escritor
+     * @param capacidad Capacidad del anillo (se redondea a potencia de dos)
+     * @param tamanoLote Elementos por lote
+     * @param intervalo Espera máxima de un lote incompleto
+     * @param desborde Política con el anillo lleno
+     * @param esperaMaxima Espera máxima del productor con {@link Desborde#ESPERAR}
+     * @param esperaCierre Espera máxima para escribir lo pendiente al cerrar
+     */
+    protected EscritorPorLotes(String nombre, int capacidad, int tamanoLote, Duration intervalo, Desborde desborde,
+                               Duration esperaMaxima, Duration esperaCierre) {
+        this.nombre = nombre;
+        this.anillo = new AnilloEventos<>(capacidad);
+        this.tamanoLote = Math.max(1, tamanoLote);
+        this.intervaloNanos = intervalo.toNanos();
+        this.desborde = desborde;
+        this.esperaMaximaNanos = esperaMaxima.toNanos();
+        this.esperaCierreMs = esperaCierre.toMillis();
+        this.hilo = new Thread(this::escribir, nombre);
+        this.hilo.setDaemon(true);
+    }
+
+    /**
+     * Arranca el hilo escritor.
+     */
+    protected final void iniciar() {
+        hilo.start();
+    }
+
+    /**
+     * Escribe un lote. Los fallos de acceso a datos se reintentan. Debe ser
+     * atómico: si falla no puede quedar escrita una parte, porque el lote se
+     * reintenta o se vuelve a escribir por mitades.
+     *
+     * @param lote Elementos a escribir
+     */
+    protected abstract void escribirLote(List<T> lote);
+
+    /**
+     * Se invoca antes de escribir un lote cuando hubo descartes desde el
+     * anterior; puede añadir al lote un elemento que los deje registrados.
+     *
+     * @param cantidad Elementos descartados desde el último aviso
+     * @param lote Lote a punto de escribirse
+     */
+    protected void informarDescartes(long cantidad, List<T> lote) {
+        logger.warn("{}: se descartaron {} elementos por saturación", nombre, cantidad);
+    }
+
+    /**
+     * Se invoca cuando un lote no pudo escribirse tras los reintentos. Por
+     * defecto se cuenta como descartado.
+     *
+     * @param lote Lote fallido
+     * @param error Último error
+     * @return true si el lote quedó a salvo por otra vía y no debe contarse como descartado
+     */
+    protected boolean loteFallido(List<T> lote, RuntimeException error) {
+        logger.error("{}: no se pudo escribir un lote de {} elementos tras {} intentos: {}",
+                nombre, lote.size(), INTENTOS, error.getMessage());
+        return false;
+    }
+
+    /**
+     * Se invoca con cada elemento que la base de datos rechaza por sí solo.
+     * El elemento no se reintenta ni se cuenta entre los descartes por
+     * saturación.
+     *
+     * @param elemento Elemento rechazado
+     * @param error Error de la base de datos
+     */
+    protected void elementoRechazado(T elemento, DataIntegrityViolationException error) {
+        logger.error("{}: la base de datos rechazó un elemento y se descarta: {}", nombre, error.getMessage());
+    }
+
+    /**
+     * Escribe un lote con la escritura indicada (atómica); si la base de datos
+     * rechaza su contenido, lo parte por la mitad hasta aislar los elementos
+     * que no puede guardar, que pasan a {@link #elementoRechazado}.
+     *
+     * @param lote Elementos a escribir
+     * @param escritura Escritura de un lote
+     * @return Elementos rechazados
+     * @throws DataAccessException Si falla por otro motivo
+     */
+    protected final int escribirSeparando(List<T> lote, Consumer<List<T>> escritura) {
+        if (lote.isEmpty()) {
+            return 0;
+        }
+        try {
+            escritura.accept(lote);
+            return 0;
+        } catch (DataIntegrityViolationException e) {
+            if (lote.size() == 1) {
+                elementoRechazado(lote.get(0), e);
+                return 1;
+            }
+            int mitad = lote.size() / 2;
+            return escribirSeparando(new ArrayList<>(lote.subList(0, mitad)), escritura)
+                    + escribirSeparando(new ArrayList<>(lote.subList(mitad, lote.size())), escritura);
+        }
+    }
+
+    /**
+     * Encola un elemento para su escritura.
+     *
+     * @param elemento Elemento a registrar
+     * @return false si se descartó (anillo lleno o escritor cerrado)
+     */
+    public boolean registrar(T elemento) {
+        if (cerrado) {
+            descartados.incrementAndGet();
+            return false;
+        }
+        boolean aceptado = anillo.ofrecer(elemento);
+        if (!aceptado && desborde == Desborde.ESPERAR) {
+            long limite = System.nanoTime() + esperaMaximaNanos;
+            while (!aceptado && !cerrado && System.nanoTime() < limite) {
+                LockSupport.unpark(hilo);
+                LockSupport.parkNanos(1_000_000L);
+                aceptado = anillo.ofrecer(elemento);
+            }
+        }
+        if (!aceptado) {
+            descartados.incrementAndGet();
+            return false;
+        }
+        if (anillo.tamano() >= tamanoLote) {
+            LockSupport.unpark(hilo);
+        }
+        return true;
+    }
+
+    /**
+     * Elementos descartados desde el arranque.
+     */
+    public long getDescartados() {
+        return descartados.get();
+    }
+
+    /**
+     * Elementos escritos desde el arranque.
+     */
+    public long getEscritos() {
+        return escritos.get();
+    }
+
+    /**
+     * Elementos rechazados por la base de datos desde el arranque.
+     */
+    public long getRechazados() {
+        return rechazados.get();
+    }
+
+    /**
+     * Elementos en el anillo pendientes de escribir.
+     */
+    public int getPendientes() {
+        return anillo.tamano();
+    }
+
+    /**
+     * Deja de aceptar elementos y espera a que se escriba lo pendiente.
+     */
+    @PreDestroy
+    public void cerrar() {
+        cerrado = true;
+        LockSupport.unpark(hilo);
+        try {
+            hilo.join(esperaCierreMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (hilo.isAlive()) {
+            logger.warn("{}: no terminó en {} ms; quedan {} elementos sin escribir",
+                    nombre, esperaCierreMs, anillo.tamano());
+        }
+    }
+
+    private void escribir() {
+        List<T> lote = new ArrayList<>(tamanoLote);
+        long inicioLote = 0;
+        while (true) {
+            // Se lee antes de drenar: lo aceptado antes del cierre llega a este drenado
+            boolean terminar = cerrado;
+            boolean vacio = lote.isEmpty();
+            anillo.drenar(lote, tamanoLote - lote.size());
+            if (vacio && !lote.isEmpty()) {
+                inicioLote = System.nanoTime();
+            }
+            long restante = intervaloNanos - (System.nanoTime() - inicioLote);
+            if (lote.size() >= tamanoLote || (!lote.isEmpty() && (terminar || restante <= 0))) {
+                persistir(lote);
+                lote.clear();
+            } else if (terminar) {
+                return;
+            } else {
+                LockSupport.parkNanos(this, lote.isEmpty() ? intervaloNanos : restante);
+            }
+        }
+    }
+
+    private void persistir(List<T> lote) {
+        long totalDescartados = descartados.get();
+        if (totalDescartados > descartadosInformados) {
+            try {
+                informarDescartes(totalDescartados - descartadosInformados, lote);
+            } catch (RuntimeException e) {
+                logger.error("{}: no se pudo informar de {} descartes", nombre,
+                        totalDescartados - descartadosInformados, e);
+            }
+            descartadosInformados = totalDescartados;
+        }
+        for (int intento = 1; ; intento++) {
+            try {
+                int rechazadosLote = escribirSeparando(lote, this::escribirLote);
+                escritos.addAndGet(lote.size() - rechazadosLote);
+                rechazados.addAndGet(rechazadosLote);
+                return;
+            } catch (DataAccessException e) {
+                if (intento >= INTENTOS) {
+                    fallar(lote, e);
+                    return;
+                }
+                logger.warn("{}: fallo al escribir {} elementos (intento {}): {}",
+                        nombre, lote.size(), intento, e.getMessage());
+                LockSupport.parkNanos(intervaloNanos * intento);
+            } catch (RuntimeException e) {
+                // Un error que no es de la base de datos no se arregla reintentando
+                logger.error("{}: error inesperado al escribir {} elementos", nombre, lote.size(), e);
+                fallar(lote, e);
+                return;
+            }
+        }
+    }
+
+    private void fallar(List<T> lote, RuntimeException error) {
+        boolean aSalvo = false;
+        try {
+            aSalvo = loteFallido(lote, error);
+        } catch (RuntimeException e) {
+            logger.error("{}: falló también el tratamiento del lote fallido", nombre, e);
+        }
+        if (!aSalvo) {
+            descartados.addAndGet(lote.size());
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package com.tuorg.veterinaria.common.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Escritor de libros XLSX (SpreadsheetML) en streaming.
+ *
+ * Cada fila se escribe en la hoja comprimida en cuanto se recibe, sin
+ * construir el libro en memoria. Las partes que dependen del contenido
+ * completo (cadenas compartidas, libro, tipos) se escriben al cerrar, ya
+ * que el orden de las entradas del ZIP es libre. Los textos repetidos se
+ * guardan una sola vez en la tabla de cadenas compartidas hasta
+ * {@link #MAX_CADENAS_COMPARTIDAS} entradas; a partir de ahí, y para textos
+ * largos, se escriben en línea, de modo que la memoria no crece con el
+ * número de filas.
+ *
+ * Una hoja que llega a {@link #MAX_FILAS_HOJA} filas continúa en otra con
+ * el mismo nombre numerado y los mismos encabezados. Los nombres de hoja
+ * se recortan a 31 caracteres y se numeran si coinciden con uno anterior.
+ *
+ * El flujo de salida no se cierra.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public final class EscritorXlsx implements AutoCloseable {
+
+    /**
+     * Entradas máximas de la tabla de cadenas compartidas.
+     */
+    public static final int MAX_CADENAS_COMPARTIDAS = 50_000;
+
+    /**
+     * Filas máximas de una hoja de Excel, incluido el encabezado.
+     */
+    public static final long MAX_FILAS_HOJA = 1_048_576;
+
+    /**
+     * Longitud máxima de un nombre de hoja en Excel.
+     */
+    private static final int MAX_NOMBRE_HOJA = 31;
+
+    /**
+     * Longitud máxima de un texto para compartirlo (los textos largos rara vez se repiten).
+     */
+    private static final int MAX_LONGITUD_COMPARTIDA = 255;
+
+    private static final String NS_MAIN = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String NS_REL = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String NS_PKG_REL = "http://schemas.openxmlformats.org/package/2006/relationships";
+
+    /**
+     * Origen de las fechas de Excel (sistema 1900, ajustado por el 29/02/1900 inexistente).
+     */
+    private static final LocalDate EPOCA_EXCEL = LocalDate.of(1899, 12, 30);
+
+    /**
+     * Estilos: 0 general, 1 fecha, 2 fecha y hora, 3 encabezado en negrita.
+     */
+    private static final String ESTILOS = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+            + "<styleSheet xmlns=\"" + NS_MAIN + "\">"
+            + "<numFmts count=\"1\"><numFmt numFmtId=\"164\" formatCode=\"yyyy-mm-dd hh:mm\"/></numFmts>"
+            + "<fonts count=\"2\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font>"
+            + "<font><b/><sz val=\"11\"/><name val=\"Calibri\"/></font></fonts>"
+            + "<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill>"
+            + "<fill><patternFill patternType=\"gray125\"/></fill></fills>"
+            + "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>"
+            + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+            + "<cellXfs count=\"4\">"
+            + "<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>"
+            + "<xf numFmtId=\"14\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>"
+            + "<xf numFmtId=\"164\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>"
+            + "<xf numFmtId=\"0\" fontId=\"1\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyFont=\"1\"/>"
+            + "</cellXfs>"
+            + "<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>"
+            + "</styleSheet>";
+
+    private static final int ESTILO_FECHA = 1;
+    private static final int ESTILO_FECHA_HORA = 2;
+    private static final int ESTILO_ENCABEZADO = 3;
+
+    private final OutputStream salida;
+    private final ZipOutputStream zip;
+    private final Writer xml;
+    private final long maxFilasHoja;
+    private final Map<String, Integer> cadenasCompartidas = new LinkedHashMap<>();
+    private final List<String> nombresHojas = new ArrayList<>();
+    /**
+     * Nombres ya usados en minúsculas: Excel no distingue mayúsculas en los nombres de hoja.
+     */
+    private final Set<String> nombresUsados = new HashSet<>();
+    private long referenciasCompartidas;
+    private String nombreHoja;
+    private String[] encabezados = new String[0];
+    private long filaActual;
+    private boolean hojaAbierta;
+    private boolean cerrado;
+
+    /**
+     * Crea un libro que se escribe sobre la salida indicada.
+     *
+     * @param salida Flujo de salida
+     */
+    public EscritorXlsx(OutputStream salida) {
+        this(salida, MAX_FILAS_HOJA);
+    }
+
+    /**
+     * Crea un libro con un tope de filas por hoja menor que el de Excel.
+     *
+     * @param salida Flujo de salida
+     * @param maxFilasHoja Filas por hoja, incluido el encabezado
+     */
+    EscritorXlsx(OutputStream salida, long maxFilasHoja) {
+        this.salida = salida;
+        this.maxFilasHoja = maxFilasHoja;
+        this.zip = new ZipOutputStream(salida, StandardCharsets.UTF_8);
+        // Prima la velocidad: las exportaciones grandes están limitadas por CPU, no por tamaño
+        this.zip.setLevel(Deflater.BEST_SPEED);
+        this.xml = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    /**
+     * Cierra la hoja actual y abre una nueva con una fila de encabezados.
+     *
+     * @param nombre Nombre de la hoja (se recorta a 31 caracteres y se numera si ya existe)
+     * @param encabezados Encabezados de columna (puede no haber)
+     * @throws IOException Si falla la escritura
+     */
+    public void iniciarHoja(String nombre, String... encabezados) throws IOException {
+        cerrarHoja();
+        this.nombreHoja = nombre;
+        this.encabezados = encabezados;
+        abrirHoja();
+    }
+
+    /**
+     * Escribe una fila en la hoja actual, o en una continuación si la hoja
+     * está llena. Admite textos, números, booleanos, LocalDate y
+     * LocalDateTime; los valores nulos dejan la celda vacía.
+     *
+     * @param valores Valores de la fila
+     * @throws IOException Si falla la escritura
+     */
+    public void escribirFila(Object... valores) throws IOException {
+        if (!hojaAbierta) {
+            iniciarHoja("Hoja1");
+        } else if (filaActual >= maxFilasHoja) {
+            cerrarHoja();
+            abrirHoja();
+        }
+        fila(0, valores);
+    }
+
+    /**
+     * Número de filas escritas en la hoja actual, incluido el encabezado.
+     *
+     * @return Filas de la hoja actual
+     */
+    public long getFilasHoja() {
+        return filaActual;
+    }
+
+    /**
+     * Número de hojas del libro, incluidas las continuaciones.
+     *
+     * @return Hojas abiertas hasta ahora
+     */
+    public int getHojas() {
+        return nombresHojas.size();
+    }
+
+    /**
+     * Entradas actuales de la tabla de cadenas compartidas.
+     *
+     * @return Cadenas compartidas distintas
+     */
+    public int getCadenasCompartidas() {
+        return cadenasCompartidas.size();
+    }
+
+    /**
+     * Completa el libro: cierra la hoja y escribe las partes restantes del
+     * paquete. No cierra el flujo de salida.
+     *
+     * @throws IOException Si falla la escritura
+     */
+    @Override
+    public void close() throws IOException {
+        if (cerrado) {
+            return;
+        }
+        cerrado = true;
+        if (nombresHojas.isEmpty()) {
+            iniciarHoja("Hoja1");
+        }
+        cerrarHoja();
+        escribirCadenasCompartidas();
+        escribirEntrada("xl/styles.xml", ESTILOS);
+        escribirLibro();
+        escribirEntrada("[Content_Types].xml", tiposContenido());
+        escribirEntrada("_rels/.rels", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                + "<Relationships xmlns=\"" + NS_PKG_REL + "\"><Relationship Id=\"rId1\" "
+                + "Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" "
+                + "Target=\"xl/workbook.xml\"/></Relationships>");
+        xml.flush();
+        zip.finish();
+        salida.flush();
+    }
+
+    /**
+     * Abre una hoja con el nombre y los encabezados actuales.
+     */
+    private void abrirHoja() throws IOException {
+        nombresHojas.add(nombreUnico(nombreHoja, nombresHojas.size() + 1));
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + nombresHojas.size() + ".xml"));
+        xml.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n<worksheet xmlns=\"");
+        xml.write(NS_MAIN);
+        xml.write("\">");
+        if (encabezados.length > 0) {
+            xml.write("<sheetViews><sheetView workbookViewId=\"0\"><pane ySplit=\"1\" topLeftCell=\"A2\" "
+                    + "activePane=\"bottomLeft\" state=\"frozen\"/></sheetView></sheetViews>");
+        }
+        xml.write("<sheetData>");
+        hojaAbierta = true;
+        filaActual = 0;
+        if (encabezados.length > 0) {
+            fila(ESTILO_ENCABEZADO, (Object[]) encabezados);
+        }
+    }
+
+    private void fila(int estilo, Object... valores) throws IOException {
+        filaActual++;
+        xml.write("<row r=\"");
+        xml.write(Long.toString(filaActual));
+        xml.write("\">");
+        for (int i = 0; i < valores.length; i++) {
+            celda(nombreColumna(i) + filaActual, valores[i], estilo);
+        }
+        xml.write("</row>");
+    }
+
+    private void celda(String referencia, Object valor, int estilo) throws IOException {
+        if (valor == null) {
+            return;
+        }
+        if (valor instanceof Number numero && esFinito(numero)) {
+            abrirCelda(referencia, estilo, null);
+            xml.write("<v>");
+            xml.write(numero instanceof BigDecimal decimal ? decimal.toPlainString() : numero.toString());
+            xml.write("</v></c>");
+        } else if (valor instanceof Boolean booleano) {
+            abrirCelda(referencia, estilo, "b");
+            xml.write(booleano ? "<v>1</v></c>" : "<v>0</v></c>");
+        } else if (valor instanceof LocalDateTime fechaHora) {
+            double serial = ChronoUnit.DAYS.between(EPOCA_EXCEL, fechaHora.toLocalDate())
+                    + fechaHora.toLocalTime().toSecondOfDay() / 86_400d;
+            abrirCelda(referencia, estilo != 0 ? estilo : ESTILO_FECHA_HORA, null);
+            xml.write("<v>");
+            xml.write(Double.toString(serial));
+            xml.write("</v></c>");
+        } else if (valor instanceof LocalDate fecha) {
+            abrirCelda(referencia, estilo != 0 ? estilo : ESTILO_FECHA, null);
+            xml.write("<v>");
+            xml.write(Long.toString(ChronoUnit.DAYS.between(EPOCA_EXCEL, fecha)));
+            xml.write("</v></c>");
+        } else {
+            texto(referencia, valor.toString(), estilo);
+        }
+    }
+
+    private void texto(String referencia, String valor, int estilo) throws IOException {
+        Integer indice = cadenasCompartidas.get(valor);
+        if (indice == null && cadenasCompartidas.size() < MAX_CADENAS_COMPARTIDAS
+                && valor.length() <= MAX_LONGITUD_COMPARTIDA) {
+            indice = cadenasCompartidas.size();
+            cadenasCompartidas.put(valor, indice);
+        }
+        if (indice != null) {
+            referenciasCompartidas++;
+            abrirCelda(referencia, estilo, "s");
+            xml.write("<v>");
+            xml.write(Integer.toString(indice));
+            xml.write("</v></c>");
+        } else {
+            abrirCelda(referencia, estilo, "inlineStr");
+            xml.write("<is><t xml:space=\"preserve\">");
+            escapar(valor);
+            xml.write("</t></is></c>");
+        }
+    }
+
+    private void abrirCelda(String referencia, int estilo, String tipo) throws IOException {
+        xml.write("<c r=\"");
+        xml.write(referencia);
+        xml.write('"');
+        if (estilo != 0) {
+            xml.write(" s=\"");
+            xml.write(Integer.toString(estilo));
+            xml.write('"');
+        }
+        if (tipo != null) {
+            xml.write(" t=\"");
+            xml.write(tipo);
+            xml.write('"');
+        }
+        xml.write('>');
+    }
+
+    private void cerrarHoja() throws IOException {
+        if (hojaAbierta) {
+            xml.write("</sheetData></worksheet>");
+            xml.flush();
+            zip.closeEntry();
+            hojaAbierta = false;
+        }
+    }
+
+    private void escribirCadenasCompartidas() throws IOException {
+        zip.putNextEntry(new ZipEntry("xl/sharedStrings.xml"));
+        xml.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n<sst xmlns=\"");
+        xml.write(NS_MAIN);
+        xml.write("\" count=\"");
+        xml.write(Long.toString(referenciasCompartidas));
+        xml.write("\" uniqueCount=\"");
+        xml.write(Integer.toString(cadenasCompartidas.size()));
+        xml.write("\">");
+        for (String valor : cadenasCompartidas.keySet()) {
+            xml.write("<si><t xml:space=\"preserve\">");
+            escapar(valor);
+            xml.write("</t></si>");
+        }
+        xml.write("</sst>");
+        xml.flush();
+        zip.closeEntry();
+    }
+
+    private void escribirLibro() throws IOException {
+        StringBuilder libro = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n")
+                .append("<workbook xmlns=\"").append(NS_MAIN).append("\" xmlns:r=\"").append(NS_REL)
+                .append("\"><sheets>");
+        StringBuilder relaciones = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n")
+                .append("<Relationships xmlns=\"").append(NS_PKG_REL).append("\">");
+        for (int i = 1; i <= nombresHojas.size(); i++) {
+            libro.append("<sheet name=\"").append(escaparAtributo(nombresHojas.get(i - 1)))
+                    .append("\" sheetId=\"").append(i).append("\" r:id=\"rId").append(i).append("\"/>");
+            relaciones.append("<Relationship Id=\"rId").append(i)
+                    .append("\" Type=\"").append(NS_REL).append("/worksheet\" Target=\"worksheets/sheet")
+                    .append(i).append(".xml\"/>");
+        }
+        int siguiente = nombresHojas.size() + 1;
+        relaciones.append("<Relationship Id=\"rId").append(siguiente).append("\" Type=\"").append(NS_REL)
+                .append("/sharedStrings\" Target=\"sharedStrings.xml\"/>")
+                .append("<Relationship Id=\"rId").append(siguiente + 1).append("\" Type=\"").append(NS_REL)
+                .append("/styles\" Target=\"styles.xml\"/></Relationships>");
+        escribirEntrada("xl/workbook.xml", libro.append("</sheets></workbook>").toString());
+        escribirEntrada("xl/_rels/workbook.xml.rels", relaciones.toString());
+    }
+
+    private String tiposContenido() {
+        StringBuilder tipos = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n")
+                .append("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+                .append("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+                .append("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+                .append("<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>")
+                .append("<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>")
+                .append("<Override PartName=\"/xl/sharedStrings.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sharedStrings+xml\"/>");
+        for (int i = 1; i <= nombresHojas.size(); i++) {
+            tipos.append("<Override PartName=\"/xl/worksheets/sheet").append(i)
+                    .append(".xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+        }
+        return tipos.append("</Types>").toString();
+    }
+
+    private void escribirEntrada(String nombre, String contenido) throws IOException {
+        zip.putNextEntry(new ZipEntry(nombre));
+        xml.write(contenido);
+        xml.flush();
+        zip.closeEntry();
+    }
+
+    private void escapar(String valor) throws IOException {
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '&' -> xml.write("&amp;");
+                case '<' -> xml.write("&lt;");
+                case '>' -> xml.write("&gt;");
+                case '"' -> xml.write("&quot;");
+                default -> {
+                    // XML 1.0 no admite caracteres de control salvo tabulador y saltos de línea
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        xml.write(c);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Limpia y recorta el nombre; si ya existe, le añade " (2)", " (3)"...
+     * recortando la base para que el sufijo quepa.
+     */
+    private String nombreUnico(String nombre, int posicion) {
+        String limpio = nombre == null ? "" : nombre.replaceAll("[\\[\\]:*?/\\\\]", " ").trim();
+        if (limpio.isEmpty()) {
+            limpio = "Hoja" + posicion;
+        }
+        String candidato = recortar(limpio, MAX_NOMBRE_HOJA).stripTrailing();
+        for (int n = 2; !nombresUsados.add(candidato.toLowerCase(Locale.ROOT)); n++) {
+            String sufijo = " (" + n + ")";
+            candidato = recortar(limpio, MAX_NOMBRE_HOJA - sufijo.length()).stripTrailing() + sufijo;
+        }
+        return candidato;
+    }
+
+    private static String recortar(String texto, int longitud) {
+        return texto.length() > longitud ? texto.substring(0, longitud) : texto;
+    }
+
+    private static String escaparAtributo(String valor) {
+        return valor.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private static String nombreColumna(int indice) {
+        StringBuilder nombre = new StringBuilder();
+        for (int n = indice + 1; n > 0; n = (n - 1) / 26) {
+            nombre.insert(0, (char) ('A' + (n - 1) % 26));
+        }
+        return nombre.toString();
+    }
+
+    private static boolean esFinito(Number numero) {
+        return !(numero instanceof Double d && (d.isNaN() || d.isInfinite()))
+                && !(numero instanceof Float f && (f.isNaN() || f.isInfinite()));
+    }
+}
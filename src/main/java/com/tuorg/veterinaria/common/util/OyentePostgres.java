@@ -0,0 +1,182 @@
+package com.tuorg.veterinaria.common.util;
+
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Escucha un canal de notificaciones de PostgreSQL (LISTEN/NOTIFY).
+ *
+ * Un hilo dedicado mantiene una conexión propia, fuera del pool, suscrita al
+ * canal y entrega el contenido de cada notificación a {@link #procesar(String)}.
+ * Si la conexión cae, se reconecta tras la espera de reintento. Como NOTIFY no
+ * guarda lo emitido mientras nadie escuchaba, cada suscripción, incluida la
+ * primera, llama a {@link #suscrito()} para que la subclase recargue su estado
+ * completo.
+ *
+ * Las subclases arrancan la escucha con {@link #iniciarEscucha()}, normalmente
+ * cuando la aplicación está lista.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public abstract class OyentePostgres {
+
+    private static final Logger logger = LoggerFactory.getLogger(OyentePostgres.class);
+
+    /**
+     * Espera máxima de cada lectura de notificaciones, para revisar la
+     * conexión y la parada sin depender de que llegue tráfico.
+     */
+    private static final int ESPERA_MS = 1_000;
+
+    private final String canal;
+    private final String nombreHilo;
+    private final DataSourceProperties dataSourceProperties;
+    private final long verificacionMs;
+    private final long reintentoMs;
+
+    private volatile boolean activo;
+    private volatile Thread hilo;
+    private volatile Connection conexion;
+
+    /**
+     * @param canal Canal de notificaciones
+     * @param nombreHilo Nombre del hilo de escucha
+     * @param dataSourceProperties Datos de conexión a la base de datos
+     * @param verificacion Intervalo de las comprobaciones periódicas
+     * @param reintento Espera antes de reconectar
+     */
+    protected OyentePostgres(String canal, String nombreHilo, DataSourceProperties dataSourceProperties,
+                             Duration verificacion, Duration reintento) {
+        this.canal = canal;
+        this.nombreHilo = nombreHilo;
+        this.dataSourceProperties = dataSourceProperties;
+        this.verificacionMs = verificacion.toMillis();
+        this.reintentoMs = reintento.toMillis();
+    }
+
+    /**
+     * Se invoca tras cada suscripción, antes de atender notificaciones.
+     */
+    protected abstract void suscrito();
+
+    /**
+     * Aplica una notificación del canal.
+     *
+     * @param payload Contenido de la notificación
+     */
+    protected abstract void procesar(String payload);
+
+    /**
+     * Se invoca después de entregar a {@link #procesar(String)} todas las
+     * notificaciones de una lectura, para aplicar de una vez lo acumulado.
+     * Por defecto no hace nada.
+     */
+    protected void notificacionesProcesadas() {
+    }
+
+    /**
+     * Se invoca en cada comprobación periódica, con la conexión ya
+     * verificada. Por defecto no hace nada.
+     */
+    protected void verificar() {
+    }
+
+    /**
+     * Arranca el hilo de escucha si no estaba arrancado.
+     */
+    protected final synchronized void iniciarEscucha() {
+        if (activo) {
+            return;
+        }
+        activo = true;
+        Thread nuevo = new Thread(this::escuchar, nombreHilo);
+        nuevo.setDaemon(true);
+        hilo = nuevo;
+        nuevo.start();
+    }
+
+    /**
+     * Detiene la escucha y cierra la conexión dedicada.
+     */
+    @PreDestroy
+    public void cerrar() {
+        activo = false;
+        Thread actual = hilo;
+        if (actual != null) {
+            actual.interrupt();
+        }
+        Connection abierta = conexion;
+        if (abierta != null) {
+            try {
+                abierta.close();
+            } catch (SQLException e) {
+                logger.debug("Error al cerrar la conexión de escucha de {}: {}", canal, e.getMessage());
+            }
+        }
+    }
+
+    private void escuchar() {
+        while (activo) {
+            try (Connection nueva = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                conexion = nueva;
+                try (Statement statement = nueva.createStatement()) {
+                    statement.execute("LISTEN " + canal);
+                }
+                // Se recarga después de suscribirse para no perder nada entre medias
+                suscrito();
+                logger.info("Escuchando notificaciones en el canal {}", canal);
+                atender(nueva);
+            } catch (SQLException | RuntimeException e) {
+                if (activo) {
+                    logger.warn("Escucha del canal {} interrumpida; se reintenta en {} ms: {}",
+                            canal, reintentoMs, e.getMessage());
+                    dormir(reintentoMs);
+                }
+            } finally {
+                conexion = null;
+            }
+        }
+    }
+
+    private void atender(Connection conexionEscucha) throws SQLException {
+        PGConnection pgConnection = conexionEscucha.unwrap(PGConnection.class);
+        long proximaVerificacion = System.currentTimeMillis() + verificacionMs;
+        while (activo) {
+            PGNotification[] notificaciones = pgConnection.getNotifications(ESPERA_MS);
+            if (notificaciones != null && notificaciones.length > 0) {
+                for (PGNotification notificacion : notificaciones) {
+                    procesar(notificacion.getParameter());
+                }
+                notificacionesProcesadas();
+            }
+            if (System.currentTimeMillis() >= proximaVerificacion) {
+                // Una conexión caída en silencio no lanza error al esperar
+                if (!conexionEscucha.isValid(5)) {
+                    throw new SQLException("Conexión de escucha no válida");
+                }
+                verificar();
+                proximaVerificacion = System.currentTimeMillis() + verificacionMs;
+            }
+        }
+    }
+
+    private static void dormir(long milisegundos) {
+        try {
+            Thread.sleep(milisegundos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
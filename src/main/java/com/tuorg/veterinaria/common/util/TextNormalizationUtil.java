@@ -0,0 +1,66 @@
+package com.tuorg.veterinaria.common.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Clase de utilidades para normalizar texto.
+ * 
+ * Centraliza la eliminación de acentos (usada en la exportación PDF de
+ * historias clínicas) y la tokenización usada por el buscador global.
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public final class TextNormalizationUtil {
+
+    /**
+     * Patrón de marcas diacríticas tras la descomposición NFD.
+     */
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}");
+
+    /**
+     * Patrón de separadores entre tokens (todo lo que no es letra o dígito).
+     */
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Constructor privado para prevenir instanciación.
+     */
+    private TextNormalizationUtil() {
+        throw new UnsupportedOperationException("Esta es una clase de utilidades y no debe instanciarse");
+    }
+
+    /**
+     * Elimina acentos y reemplaza la ñ, conservando mayúsculas y minúsculas.
+     * 
+     * @param text Texto original
+     * @return Texto sin acentos, o cadena vacía si es null
+     */
+    public static String removeAccents(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = DIACRITICOS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return normalized.replace("ñ", "n").replace("Ñ", "N");
+    }
+
+    /**
+     * Divide un texto en tokens sin acentos y en minúsculas.
+     * 
+     * @param text Texto original
+     * @return Lista de tokens (vacía si el texto es null o no tiene letras ni dígitos)
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARADORES.split(removeAccents(text).toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -108,6 +108,7 @@ public class SecurityConfig {
         configuration.setAllowCredentials(true);
         configuration.addExposedHeader("Authorization");
         configuration.addExposedHeader("Content-Type");
+        configuration.addExposedHeader("Idempotency-Replayed");
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
@@ -0,0 +1,64 @@
+package com.tuorg.veterinaria.config.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Comprueba, justo antes de serializar cada respuesta, que la petición
+ * ya no retiene ninguna conexión JDBC.
+ *
+ * Con open-in-view desactivado el contador
+ * veterinaria.db.conexion.retenida.serializacion debe permanecer en cero;
+ * si crece, algún endpoint está serializando dentro de una transacción.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@ControllerAdvice
+public class ConnectionHeldDuringSerializationAdvice implements ResponseBodyAdvice<Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionHeldDuringSerializationAdvice.class);
+
+    /**
+     * Contador de respuestas serializadas con una conexión aún prestada.
+     */
+    private final Counter retenidasEnSerializacion;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param meterRegistry Registro de métricas
+     */
+    @Autowired
+    public ConnectionHeldDuringSerializationAdvice(MeterRegistry meterRegistry) {
+        this.retenidasEnSerializacion = Counter.builder("veterinaria.db.conexion.retenida.serializacion")
+                .description("Respuestas serializadas mientras la petición retenía una conexión")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (ConnectionHoldTimeTracker.tieneConexionAbierta()) {
+            retenidasEnSerializacion.increment();
+            logger.warn("Respuesta de {} serializada con una conexión JDBC aún prestada", request.getURI().getPath());
+        }
+        return body;
+    }
+}
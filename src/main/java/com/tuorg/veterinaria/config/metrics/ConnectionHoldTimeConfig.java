@@ -0,0 +1,40 @@
+package com.tuorg.veterinaria.config.metrics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuración de la medición de retención de conexiones por petición.
+ *
+ * Envuelve el DataSource del pool en un {@link ConnectionHoldTimeDataSource}
+ * para que el {@link ConnectionHoldTimeFilter} pueda publicar, por endpoint,
+ * cuánto tiempo estuvo prestada la conexión.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Configuration
+public class ConnectionHoldTimeConfig {
+
+    /**
+     * Post-procesador que envuelve los DataSource del contexto.
+     * Es estático para registrarse antes de que se cree el DataSource.
+     *
+     * @return BeanPostProcessor de DataSource
+     */
+    @Bean
+    public static BeanPostProcessor connectionHoldTimeDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionHoldTimeDataSource)) {
+                    return new ConnectionHoldTimeDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package com.tuorg.veterinaria.config.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DataSource que envuelve al pool (Hikari) para medir cuánto tiempo
+ * retiene cada petición sus conexiones.
+ *
+ * Cada conexión entregada es un proxy que notifica al
+ * {@link ConnectionHoldTimeTracker} cuando se toma y cuando se cierra
+ * (devolución al pool).
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public class ConnectionHoldTimeDataSource extends DelegatingDataSource {
+
+    /**
+     * Constructor.
+     *
+     * @param targetDataSource DataSource real (pool de conexiones)
+     */
+    public ConnectionHoldTimeDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return rastrear(obtenerTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return rastrear(obtenerTargetDataSource().getConnection(username, password));
+    }
+
+    private DataSource obtenerTargetDataSource() {
+        DataSource target = getTargetDataSource();
+        if (target == null) {
+            throw new IllegalStateException("DataSource destino no configurado");
+        }
+        return target;
+    }
+
+    /**
+     * Envuelve la conexión en un proxy que detecta su cierre.
+     */
+    private Connection rastrear(Connection conexion) {
+        ConnectionHoldTimeTracker.conexionAdquirida();
+        AtomicBoolean cerrada = new AtomicBoolean(false);
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && cerrada.compareAndSet(false, true)) {
+                        ConnectionHoldTimeTracker.conexionLiberada();
+                    }
+                    try {
+                        return method.invoke(conexion, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
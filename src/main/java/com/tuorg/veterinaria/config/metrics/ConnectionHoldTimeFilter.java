@@ -0,0 +1,96 @@
+package com.tuorg.veterinaria.config.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtro que mide el tiempo de retención de conexiones JDBC por petición.
+ *
+ * Publica en Micrometer (expuesto en /actuator/metrics):
+ * - veterinaria.db.conexion.retencion: tiempo con conexión prestada, por método y URI
+ * - veterinaria.db.conexion.adquisiciones: conexiones tomadas del pool por petición
+ *
+ * Comparando la retención con http.server.requests se comprueba que la
+ * conexión se devuelve al pool antes de escribir la respuesta.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ConnectionHoldTimeFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionHoldTimeFilter.class);
+
+    /**
+     * Registro de métricas.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param meterRegistry Registro de métricas
+     */
+    @Autowired
+    public ConnectionHoldTimeFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ConnectionHoldTimeTracker.iniciar();
+        long inicio = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long duracion = System.nanoTime() - inicio;
+            ConnectionHoldTimeTracker.Registro registro = ConnectionHoldTimeTracker.finalizar();
+            if (registro != null && registro.getAdquisiciones() > 0) {
+                registrar(request, registro, duracion);
+            }
+        }
+    }
+
+    private void registrar(HttpServletRequest request, ConnectionHoldTimeTracker.Registro registro, long duracion) {
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = patron != null ? patron.toString() : "UNKNOWN";
+
+        Timer.builder("veterinaria.db.conexion.retencion")
+                .description("Tiempo que la petición retuvo conexiones del pool")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(registro.getRetencionNanos(), TimeUnit.NANOSECONDS);
+
+        DistributionSummary.builder("veterinaria.db.conexion.adquisiciones")
+                .description("Conexiones tomadas del pool por petición")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(registro.getAdquisiciones());
+
+        logger.debug("{} {} retuvo conexión {} ms de {} ms ({} adquisiciones)",
+                request.getMethod(), uri,
+                TimeUnit.NANOSECONDS.toMillis(registro.getRetencionNanos()),
+                TimeUnit.NANOSECONDS.toMillis(duracion),
+                registro.getAdquisiciones());
+    }
+}
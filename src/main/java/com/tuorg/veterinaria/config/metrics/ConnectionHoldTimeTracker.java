@@ -0,0 +1,108 @@
+package com.tuorg.veterinaria.config.metrics;
+
+/**
+ * Registro por hilo del tiempo que una petición HTTP retiene conexiones JDBC.
+ *
+ * El filtro {@link ConnectionHoldTimeFilter} inicia el registro al entrar la
+ * petición y lo finaliza al salir; el {@link ConnectionHoldTimeDataSource}
+ * notifica cada préstamo y devolución de conexión al pool. Fuera de una
+ * petición (arranque, Flyway, tareas asíncronas) las notificaciones se ignoran.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public final class ConnectionHoldTimeTracker {
+
+    /**
+     * Registro de la petición en curso en el hilo actual.
+     */
+    private static final ThreadLocal<Registro> REGISTRO_ACTUAL = new ThreadLocal<>();
+
+    private ConnectionHoldTimeTracker() {
+        // Clase de utilidad
+    }
+
+    /**
+     * Inicia el registro para la petición del hilo actual.
+     */
+    public static void iniciar() {
+        REGISTRO_ACTUAL.set(new Registro());
+    }
+
+    /**
+     * Finaliza el registro del hilo actual y lo devuelve.
+     *
+     * @return Registro acumulado, o null si no se había iniciado
+     */
+    public static Registro finalizar() {
+        Registro registro = REGISTRO_ACTUAL.get();
+        REGISTRO_ACTUAL.remove();
+        if (registro != null && registro.conexionesAbiertas > 0) {
+            // Conexiones que siguen prestadas al terminar la petición
+            registro.acumuladoNanos += System.nanoTime() - registro.inicioRetencionNanos;
+        }
+        return registro;
+    }
+
+    /**
+     * Notifica que el hilo actual tomó una conexión del pool.
+     */
+    static void conexionAdquirida() {
+        Registro registro = REGISTRO_ACTUAL.get();
+        if (registro == null) {
+            return;
+        }
+        registro.adquisiciones++;
+        if (registro.conexionesAbiertas++ == 0) {
+            registro.inicioRetencionNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Notifica que el hilo actual devolvió una conexión al pool.
+     */
+    static void conexionLiberada() {
+        Registro registro = REGISTRO_ACTUAL.get();
+        if (registro == null || registro.conexionesAbiertas == 0) {
+            return;
+        }
+        if (--registro.conexionesAbiertas == 0) {
+            registro.acumuladoNanos += System.nanoTime() - registro.inicioRetencionNanos;
+        }
+    }
+
+    /**
+     * Indica si el hilo actual tiene alguna conexión prestada en este momento.
+     *
+     * @return true si hay conexiones abiertas en la petición en curso
+     */
+    public static boolean tieneConexionAbierta() {
+        Registro registro = REGISTRO_ACTUAL.get();
+        return registro != null && registro.conexionesAbiertas > 0;
+    }
+
+    /**
+     * Datos acumulados de retención de conexiones para una petición.
+     */
+    public static final class Registro {
+
+        private int conexionesAbiertas;
+        private int adquisiciones;
+        private long inicioRetencionNanos;
+        private long acumuladoNanos;
+
+        /**
+         * @return Tiempo total con al menos una conexión prestada, en nanosegundos
+         */
+        public long getRetencionNanos() {
+            return acumuladoNanos;
+        }
+
+        /**
+         * @return Número de conexiones tomadas del pool durante la petición
+         */
+        public int getAdquisiciones() {
+            return adquisiciones;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.tuorg.veterinaria.config.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Usuario autenticado con su identificador.
+ *
+ * Se carga una vez por petición, así que quien necesite el ID del usuario
+ * en curso (por ejemplo, la auditoría) lo obtiene sin volver a consultar la
+ * base de datos y sin depender de que el nombre de usuario siga igual.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public class UsuarioAutenticado extends User {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * ID del usuario en la tabla usuarios.
+     */
+    private final Long idUsuario;
+
+    /**
+     * Constructor.
+     *
+     * @param idUsuario ID del usuario
+     * @param username Nombre de usuario
+     * @param password Hash de la contraseña
+     * @param activo Si el usuario está activo
+     * @param authorities Autoridades del usuario
+     */
+    public UsuarioAutenticado(Long idUsuario, String username, String password, boolean activo,
+                              Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, activo, true, true, true, authorities);
+        this.idUsuario = idUsuario;
+    }
+
+    /**
+     * Obtiene el ID del usuario.
+     *
+     * @return ID del usuario
+     */
+    public Long getIdUsuario() {
+        return idUsuario;
+    }
+}
@@ -1,11 +1,20 @@
 package com.tuorg.veterinaria.configuracion.controller;
 
 import com.tuorg.veterinaria.common.dto.ApiResponse;
+import com.tuorg.veterinaria.configuracion.dto.BackupResponse;
+import com.tuorg.veterinaria.configuracion.dto.PaginaLogsResponse;
+import com.tuorg.veterinaria.configuracion.service.BackupService;
 import com.tuorg.veterinaria.configuracion.service.ConfigService;
+import com.tuorg.veterinaria.configuracion.service.LogSistemaService;
+import com.tuorg.veterinaria.configuracion.service.MantenimientoLogsSistema;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -26,14 +35,38 @@ public class ConfiguracionController {
      */
     private final ConfigService configService;
 
+    /**
+     * Servicio de logs del sistema.
+     */
+    private final LogSistemaService logSistemaService;
+
+    /**
+     * Mantenimiento de particiones de logs.
+     */
+    private final MantenimientoLogsSistema mantenimientoLogsSistema;
+
+    /**
+     * Servicio de copias de seguridad.
+     */
+    private final BackupService backupService;
+
     /**
      * Constructor con inyección de dependencias.
      * 
      * @param configService Servicio de configuración
+     * @param logSistemaService Servicio de logs del sistema
+     * @param mantenimientoLogsSistema Mantenimiento de particiones de logs
+     * @param backupService Servicio de copias de seguridad
      */
     @Autowired
-    public ConfiguracionController(ConfigService configService) {
+    public ConfiguracionController(ConfigService configService,
+                                   LogSistemaService logSistemaService,
+                                   MantenimientoLogsSistema mantenimientoLogsSistema,
+                                   BackupService backupService) {
         this.configService = configService;
+        this.logSistemaService = logSistemaService;
+        this.mantenimientoLogsSistema = mantenimientoLogsSistema;
+        this.backupService = backupService;
     }
 
     /**
@@ -85,5 +118,79 @@ public class ConfiguracionController {
         configService.cargarTodos();
         return ResponseEntity.ok(ApiResponse.success("Parámetros recargados exitosamente"));
     }
-}
 
+    /**
+     * Consulta el log del sistema paginando por cursor.
+     * 
+     * @param desde Inicio del rango (por defecto, 7 días antes de hasta)
+     * @param hasta Fin del rango (por defecto, ahora)
+     * @param nivel Nivel exacto (opcional)
+     * @param componente Componente exacto (opcional)
+     * @param cursor Cursor de la página anterior (opcional)
+     * @param limite Eventos por página (por defecto 100, máximo 1000)
+     * @return Respuesta con la página de eventos
+     */
+    @GetMapping("/logs")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<PaginaLogsResponse>> buscarLogs(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(required = false) String nivel,
+            @RequestParam(required = false) String componente,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        PaginaLogsResponse pagina = logSistemaService.buscar(desde, hasta, nivel, componente, cursor, limite);
+        return ResponseEntity.ok(ApiResponse.success("Logs obtenidos exitosamente", pagina));
+    }
+
+    /**
+     * Ejecuta en el acto el mantenimiento de particiones de logs.
+     * 
+     * @return Respuesta con las particiones creadas y los archivos generados
+     */
+    @PostMapping("/logs/particiones/mantener")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<MantenimientoLogsSistema.Resultado>> mantenerParticionesLogs() {
+        MantenimientoLogsSistema.Resultado resultado = mantenimientoLogsSistema.mantener();
+        return ResponseEntity.ok(ApiResponse.success("Mantenimiento de logs completado", resultado));
+    }
+
+    /**
+     * Crea una copia de seguridad de la base de datos.
+     * 
+     * @param incremental true para copiar solo las filas nuevas de las tablas de solo inserción
+     * @return Respuesta con la copia creada
+     */
+    @PostMapping("/backups")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<BackupResponse>> crearBackup(
+            @RequestParam(defaultValue = "false") boolean incremental) {
+        BackupResponse backup = backupService.crear(incremental);
+        return ResponseEntity.ok(ApiResponse.success("Copia de seguridad creada exitosamente", backup));
+    }
+
+    /**
+     * Lista las copias de seguridad registradas.
+     * 
+     * @return Respuesta con las copias, de la más reciente a la más antigua
+     */
+    @GetMapping("/backups")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<BackupResponse>>> listarBackups() {
+        List<BackupResponse> backups = backupService.listar();
+        return ResponseEntity.ok(ApiResponse.success("Copias de seguridad obtenidas exitosamente", backups));
+    }
+
+    /**
+     * Restaura la base de datos desde una copia de seguridad.
+     * 
+     * @param id ID de la copia
+     * @return Respuesta con el resultado de la restauración
+     */
+    @PostMapping("/backups/{id}/restaurar")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<BackupService.Restauracion>> restaurarBackup(@PathVariable Long id) {
+        BackupService.Restauracion restauracion = backupService.restaurar(id);
+        return ResponseEntity.ok(ApiResponse.success("Base de datos restaurada exitosamente", restauracion));
+    }
+}
@@ -0,0 +1,43 @@
+package com.tuorg.veterinaria.configuracion.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de salida de una copia de seguridad.
+ */
+@Data
+@Builder
+@Schema(name = "BackupResponse", description = "Copia de seguridad registrada en el sistema")
+public class BackupResponse {
+
+    @Schema(description = "ID de la copia", example = "12")
+    private Long idBackup;
+
+    @Schema(description = "Fecha de creación")
+    private LocalDateTime fechaCreacion;
+
+    @Schema(description = "Ruta del archivo en el servidor", example = "/var/backups/veterinaria/backup_20250310_020000.zip")
+    private String rutaArchivo;
+
+    @Schema(description = "Tipo de copia; null en registros anteriores al formato actual", example = "INCREMENTAL")
+    private String tipo;
+
+    @Schema(description = "Copia sobre la que se apoya una incremental", example = "11")
+    private Long idBase;
+
+    @Schema(description = "Tablas incluidas", example = "41")
+    private Integer tablas;
+
+    @Schema(description = "Filas copiadas", example = "250000")
+    private Long filas;
+
+    @Schema(description = "Tamaño del archivo en bytes", example = "10485760")
+    private Long bytesArchivo;
+
+    @Schema(description = "Duración de la copia en milisegundos", example = "3200")
+    private Long duracionMs;
+}
@@ -0,0 +1,34 @@
+package com.tuorg.veterinaria.configuracion.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+
+/**
+ * DTO de salida de un evento del log del sistema.
+ */
+@Data
+@Builder
+@Schema(name = "LogSistemaResponse", description = "Evento registrado en el log del sistema")
+public class LogSistemaResponse {
+
+    @Schema(description = "Identificador del evento", example = "10452")
+    private Long id;
+
+    @Schema(description = "Momento del evento", example = "2025-03-10T09:15:00-05:00")
+    private OffsetDateTime fechaHora;
+
+    @Schema(description = "Nivel", example = "INFO")
+    private String nivel;
+
+    @Schema(description = "Componente que lo generó", example = "NotificacionService")
+    private String componente;
+
+    @Schema(description = "Mensaje descriptivo", example = "Notificación ENVIADA: Recordatorio de cita (ID: 8)")
+    private String mensaje;
+
+    @Schema(description = "Metadatos en JSON")
+    private String metadata;
+}
@@ -0,0 +1,23 @@
+package com.tuorg.veterinaria.configuracion.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO de salida de una página del log del sistema.
+ */
+@Data
+@Builder
+@Schema(name = "PaginaLogsResponse", description = "Página de eventos del log, del más reciente al más antiguo")
+public class PaginaLogsResponse {
+
+    @Schema(description = "Eventos de la página")
+    private List<LogSistemaResponse> logs;
+
+    @Schema(description = "Cursor para pedir la página siguiente; null si no hay más",
+            example = "MjAyNS0wMy0xMFQxNDoxNTowMFp8MTA0NTI")
+    private String siguienteCursor;
+}
@@ -0,0 +1,108 @@
+package com.tuorg.veterinaria.configuracion.listener;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuorg.veterinaria.common.util.OyentePostgres;
+import com.tuorg.veterinaria.configuracion.service.ConfigService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Propaga a este nodo los cambios de parámetros hechos desde cualquier otro.
+ *
+ * Escucha el canal {@value #CANAL} (ver {@link OyentePostgres}) y aplica cada
+ * notificación del trigger de parametros_sistema sobre la caché de
+ * {@link ConfigService}, clave a clave. Cada cierto tiempo compara la huella
+ * de la caché con la de la tabla, y tras cualquier reconexión recarga todo.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Component
+public class ParametrosSistemaListener extends OyentePostgres {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParametrosSistemaListener.class);
+
+    static final String CANAL = "parametros_sistema";
+
+    private final ConfigService configService;
+    private final ObjectMapper objectMapper;
+    private final boolean habilitado;
+
+    @Autowired
+    public ParametrosSistemaListener(ConfigService configService,
+                                     DataSourceProperties dataSourceProperties,
+                                     ObjectMapper objectMapper,
+                                     @Value("${app.configuracion.notificaciones:true}") boolean habilitado,
+                                     @Value("${app.configuracion.verificacion:PT5M}") Duration verificacion,
+                                     @Value("${app.configuracion.reintento:PT5S}") Duration reintento) {
+        super(CANAL, "parametros-listener", dataSourceProperties, verificacion, reintento);
+        this.configService = configService;
+        this.objectMapper = objectMapper;
+        this.habilitado = habilitado;
+    }
+
+    /**
+     * Arranca la escucha cuando la aplicación está lista.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (habilitado) {
+            iniciarEscucha();
+        }
+    }
+
+    @Override
+    protected void suscrito() {
+        // Lo cambiado mientras no había suscripción solo se recupera releyendo
+        configService.cargarTodos();
+        logger.debug("Parámetros recargados (versión {})", configService.getVersion());
+    }
+
+    @Override
+    protected void verificar() {
+        configService.verificarHuella();
+    }
+
+    /**
+     * Aplica una notificación del trigger de parametros_sistema.
+     *
+     * @param payload JSON con operación, clave, versión y, en los cambios, el
+     *                valor; la operación RECARGA no lleva clave
+     */
+    @Override
+    protected void procesar(String payload) {
+        try {
+            JsonNode cambio = objectMapper.readTree(payload);
+            if ("RECARGA".equals(cambio.path("operacion").asText())) {
+                // Tras una restauración: retira las claves que ya no existen
+                configService.cargarTodos();
+                return;
+            }
+            String clave = cambio.path("clave").asText(null);
+            long version = cambio.path("version").asLong();
+            if (clave == null) {
+                logger.warn("Notificación de parámetro sin clave: {}", payload);
+                return;
+            }
+            if ("BAJA".equals(cambio.path("operacion").asText())) {
+                configService.aplicarBaja(clave, version);
+            } else {
+                configService.aplicarCambio(clave, cambio.path("valor").asText(), version);
+            }
+            logger.debug("Parámetro {} actualizado desde notificación (versión {})", clave, version);
+        } catch (IOException e) {
+            logger.warn("Notificación de parámetro ilegible; se recarga la caché: {}", payload);
+            configService.cargarTodos();
+        }
+    }
+}
@@ -61,5 +61,12 @@ public class ParametroSistema {
      */
     @Column(name = "aplicacion", length = 50)
     private String aplicacion;
+
+    /**
+     * Versión del último cambio, asignada por trigger desde una secuencia.
+     * Permite descartar notificaciones que llegan fuera de orden.
+     */
+    @Column(name = "version", insertable = false, updatable = false)
+    private Long version;
 }
 
@@ -0,0 +1,546 @@
+package com.tuorg.veterinaria.configuracion.repository;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Acceso de bajo nivel para copias de seguridad mediante COPY.
+ *
+ * Cada exportación usa su propia conexión dentro de una transacción
+ * REPEATABLE READ que importa la instantánea de {@link #abrirInstantanea()},
+ * de modo que varias tablas se vuelcan en paralelo viendo exactamente el
+ * mismo estado de la base de datos (igual que {@code pg_dump -j}). Los datos
+ * viajan en el formato binario de COPY, que es el más compacto y no
+ * requiere conversión de tipos.
+ *
+ * La restauración, en cambio, usa una sola conexión y una sola transacción:
+ * si algo falla a mitad de la carga, la base de datos queda como estaba.
+ * Un bloqueo consultivo impide que coincida con una copia o con otra
+ * restauración en cualquier nodo.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Repository
+public class BackupDatosRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackupDatosRepository.class);
+
+    private static final String SQL_TABLAS =
+            "SELECT c.relname FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace "
+                    + "WHERE n.nspname = 'public' AND c.relkind IN ('r', 'p') AND NOT c.relispartition "
+                    + "ORDER BY c.relname";
+
+    private static final String SQL_COLUMNAS =
+            "SELECT c.relname, a.attname FROM pg_attribute a "
+                    + "JOIN pg_class c ON c.oid = a.attrelid JOIN pg_namespace n ON n.oid = c.relnamespace "
+                    + "WHERE n.nspname = 'public' AND a.attnum > 0 AND NOT a.attisdropped AND a.attgenerated = '' "
+                    + "ORDER BY c.relname, a.attnum";
+
+    private static final String SQL_DEPENDENCIAS =
+            "SELECT hija.relname, padre.relname FROM pg_constraint f "
+                    + "JOIN pg_class hija ON hija.oid = f.conrelid JOIN pg_class padre ON padre.oid = f.confrelid "
+                    + "JOIN pg_namespace n ON n.oid = hija.relnamespace "
+                    + "WHERE f.contype = 'f' AND n.nspname = 'public' AND NOT hija.relispartition";
+
+    private static final String SQL_CLAVES_FORANEAS =
+            "SELECT f.confrelid::regclass::text, array_agg(hija.attname ORDER BY k.orden), "
+                    + "array_agg(padre.attname ORDER BY k.orden) FROM pg_constraint f "
+                    + "CROSS JOIN LATERAL unnest(f.conkey, f.confkey) WITH ORDINALITY AS k (hija, padre, orden) "
+                    + "JOIN pg_attribute hija ON hija.attrelid = f.conrelid AND hija.attnum = k.hija "
+                    + "JOIN pg_attribute padre ON padre.attrelid = f.confrelid AND padre.attnum = k.padre "
+                    + "WHERE f.contype = 'f' AND f.conrelid = to_regclass(?) GROUP BY f.oid, f.confrelid";
+
+    /**
+     * Primer argumento del bloqueo consultivo de copias y restauraciones
+     * ("BACK" en ASCII). Las copias lo toman compartido y las
+     * restauraciones exclusivo.
+     */
+    static final int CLAVE_BLOQUEO = 0x4241434B;
+
+    /**
+     * Formato de texto de pg_snapshot: xmin:xmax:lista de transacciones en curso.
+     */
+    private static final Pattern CORTE = Pattern.compile("(\\d+):(\\d+):([\\d,]*)");
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param dataSource Origen de conexiones
+     * @param jdbcTemplate Plantilla JDBC
+     */
+    @Autowired
+    public BackupDatosRepository(DataSource dataSource, JdbcTemplate jdbcTemplate) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Lista las tablas del esquema public con sus columnas y las tablas a
+     * las que referencian por clave foránea. Las particiones no aparecen: se
+     * copian a través de su tabla padre.
+     *
+     * @param excluidas Tablas que no deben incluirse
+     * @return Tablas en orden alfabético
+     */
+    public List<Tabla> listarTablas(Collection<String> excluidas) {
+        Map<String, List<String>> columnas = new LinkedHashMap<>();
+        jdbcTemplate.query(SQL_TABLAS, rs -> {
+            if (!excluidas.contains(rs.getString(1))) {
+                columnas.put(rs.getString(1), new ArrayList<>());
+            }
+        });
+        jdbcTemplate.query(SQL_COLUMNAS, rs -> {
+            List<String> lista = columnas.get(rs.getString(1));
+            if (lista != null) {
+                lista.add(rs.getString(2));
+            }
+        });
+        Map<String, Set<String>> referencias = new LinkedHashMap<>();
+        jdbcTemplate.query(SQL_DEPENDENCIAS, rs -> {
+            String hija = rs.getString(1);
+            String padre = rs.getString(2);
+            if (columnas.containsKey(hija) && columnas.containsKey(padre) && !hija.equals(padre)) {
+                referencias.computeIfAbsent(hija, clave -> new TreeSet<>()).add(padre);
+            }
+        });
+        return columnas.entrySet().stream()
+                .map(entrada -> new Tabla(entrada.getKey(), List.copyOf(entrada.getValue()),
+                        Set.copyOf(referencias.getOrDefault(entrada.getKey(), Set.of()))))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Versión de la última migración de Flyway aplicada.
+     *
+     * @return Versión del esquema, o null si no hay historial
+     */
+    public String versionEsquema() {
+        return jdbcTemplate.query("SELECT version FROM flyway_schema_history WHERE success AND version IS NOT NULL "
+                        + "ORDER BY installed_rank DESC LIMIT 1",
+                rs -> rs.next() ? rs.getString(1) : null);
+    }
+
+    /**
+     * Abre una transacción REPEATABLE READ y exporta su instantánea, junto
+     * con su corte de transacciones y la generación de restauración que ve.
+     * La instantánea solo puede importarse mientras la transacción siga
+     * abierta, y mientras lo está ninguna restauración puede empezar.
+     *
+     * @return Instantánea abierta; debe cerrarse al terminar la copia
+     * @throws CannotAcquireLockException Si hay una restauración en curso en algún nodo
+     */
+    public Instantanea abrirInstantanea() {
+        Connection conexion = null;
+        try {
+            conexion = dataSource.getConnection();
+            conexion.setAutoCommit(false);
+            conexion.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try (PreparedStatement sentencia = conexion.prepareStatement(
+                    "SELECT pg_try_advisory_xact_lock_shared(?, 0), pg_export_snapshot(), "
+                            + "pg_current_snapshot()::text, "
+                            + "(SELECT version FROM versiones_datos WHERE ambito = 'restauracion')")) {
+                sentencia.setInt(1, CLAVE_BLOQUEO);
+                try (ResultSet rs = sentencia.executeQuery()) {
+                    rs.next();
+                    if (!rs.getBoolean(1)) {
+                        throw new CannotAcquireLockException("Hay una restauración en curso");
+                    }
+                    return new Instantanea(conexion, rs.getString(2), rs.getString(3), rs.getLong(4));
+                }
+            }
+        } catch (SQLException e) {
+            cerrarSilenciosamente(conexion);
+            throw new DataAccessResourceFailureException("No se pudo abrir la instantánea de copia", e);
+        } catch (RuntimeException e) {
+            cerrarSilenciosamente(conexion);
+            throw e;
+        }
+    }
+
+    /**
+     * Vuelca una tabla en formato binario de COPY.
+     *
+     * En una copia incremental se vuelcan las filas que no eran visibles en
+     * el corte de la copia base: las insertadas después y también las de
+     * transacciones que seguían abiertas entonces, aunque su ID sea menor
+     * que el de filas ya copiadas. El xmin de 32 bits de cada fila se
+     * extiende a xid8 tomando la época del corte actual, lo que es exacto
+     * mientras entre ambos cortes haya menos de 2^31 transacciones.
+     *
+     * @param instantanea Instantánea compartida por todas las tablas de la copia
+     * @param tabla Tabla a volcar
+     * @param corteBase Corte de la copia base, o null para la tabla completa
+     * @param destino Flujo de salida; no se cierra
+     * @return Filas escritas
+     */
+    public long exportar(Instantanea instantanea, Tabla tabla, String corteBase, OutputStream destino) {
+        StringBuilder consulta = new StringBuilder("SELECT ").append(listaColumnas(tabla))
+                .append(" FROM ").append(identificador(tabla.nombre()));
+        if (corteBase != null) {
+            long xmax = xmax(instantanea.corte());
+            // El corte base viene del manifiesto: se valida antes de incrustarlo
+            xmax(corteBase);
+            // Los xmin 0 a 2 son especiales (inválido, arranque, congelado) y siempre visibles
+            consulta.append(" WHERE xmin::text::bigint >= 3 AND NOT pg_visible_in_snapshot((")
+                    .append(xmax).append(" - ((").append(xmax)
+                    .append(" % 4294967296 - xmin::text::bigint + 4294967296) % 4294967296))::text::xid8, ")
+                    .append("CAST('").append(corteBase).append("' AS pg_snapshot))");
+        }
+        String sql = "COPY (" + consulta + ") TO STDOUT (FORMAT binary)";
+        try (Connection conexion = dataSource.getConnection()) {
+            conexion.setAutoCommit(false);
+            try (Statement sentencia = conexion.createStatement()) {
+                sentencia.execute("SET TRANSACTION ISOLATION LEVEL REPEATABLE READ, READ ONLY");
+                sentencia.execute("SET TRANSACTION SNAPSHOT '" + instantanea.id() + "'");
+            }
+            long filas = conexion.unwrap(PGConnection.class).getCopyAPI().copyOut(sql, destino);
+            conexion.commit();
+            return filas;
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("No se pudo exportar la tabla " + tabla.nombre(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir la copia de " + tabla.nombre(), e);
+        }
+    }
+
+    /**
+     * Reemplaza el contenido de las tablas por el de los volcados en una
+     * sola transacción. Las tablas se bloquean en exclusiva, se vacían
+     * reiniciando sus secuencias y se cargan con los triggers de usuario
+     * desactivados (como {@code pg_restore --disable-triggers}); las claves
+     * foráneas sí se comprueban, así que el orden debe respetarlas. Antes de
+     * confirmar se llama a {@code datos_restaurados()}, que invalida las
+     * cachés de todos los nodos. Ante cualquier error no se confirma nada.
+     *
+     * Las tablas conservadas (registros de solo inserción, como la
+     * auditoría) no pierden lo escrito después de la copia: sus filas
+     * actuales se apartan antes de vaciarlas y se vuelven a insertar tras la
+     * carga, salvo las que ya trae la copia y las que referencian filas que
+     * la copia no tiene. Las tablas con recorte solo cargan las filas desde
+     * ese valor.
+     *
+     * @param tablas Tablas en orden de carga
+     * @param carga Tablas conservadas y recortes
+     * @param origenes Volcados de cada tabla, del más antiguo al más reciente
+     * @return Filas cargadas
+     * @throws CannotAcquireLockException Si hay una copia o restauración en curso en algún nodo
+     */
+    public long restaurar(List<Tabla> tablas, Carga carga, Origenes origenes) {
+        try (Connection conexion = dataSource.getConnection()) {
+            conexion.setAutoCommit(false);
+            try {
+                long filas = cargar(conexion, tablas, carga, origenes);
+                conexion.commit();
+                return filas;
+            } catch (SQLException | IOException | RuntimeException e) {
+                conexion.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("No se pudo restaurar la base de datos", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer la copia de seguridad", e);
+        }
+    }
+
+    private long cargar(Connection conexion, List<Tabla> tablas, Carga carga, Origenes origenes)
+            throws SQLException, IOException {
+        try (PreparedStatement bloqueo = conexion.prepareStatement("SELECT pg_try_advisory_xact_lock(?, 0)")) {
+            bloqueo.setInt(1, CLAVE_BLOQUEO);
+            try (ResultSet rs = bloqueo.executeQuery()) {
+                rs.next();
+                if (!rs.getBoolean(1)) {
+                    throw new CannotAcquireLockException("Hay una copia de seguridad o restauración en curso");
+                }
+            }
+        }
+        String lista = tablas.stream().map(tabla -> identificador(tabla.nombre())).collect(Collectors.joining(", "));
+        Map<Tabla, String> conservadas = new LinkedHashMap<>();
+        // Los triggers se desactivan antes de cualquier escritura: con eventos
+        // diferidos pendientes, PostgreSQL no admite ALTER TABLE en la tabla
+        try (Statement sentencia = conexion.createStatement()) {
+            sentencia.execute("LOCK TABLE " + lista + " IN ACCESS EXCLUSIVE MODE");
+            for (Tabla tabla : tablas) {
+                sentencia.execute("ALTER TABLE " + identificador(tabla.nombre()) + " DISABLE TRIGGER USER");
+            }
+            for (Tabla tabla : tablas) {
+                if (carga.conservadas().contains(tabla.nombre())) {
+                    String temporal = "restauracion_conservada_" + conservadas.size();
+                    sentencia.execute("CREATE TEMP TABLE " + temporal + " ON COMMIT DROP AS SELECT "
+                            + listaColumnas(tabla) + " FROM " + identificador(tabla.nombre()));
+                    conservadas.put(tabla, temporal);
+                }
+            }
+            sentencia.execute("TRUNCATE " + lista + " RESTART IDENTITY");
+        }
+        CopyManager copia = conexion.unwrap(PGConnection.class).getCopyAPI();
+        long filas = 0;
+        for (Tabla tabla : tablas) {
+            Recorte recorte = carga.recortes().get(tabla.nombre());
+            String sql = "COPY " + identificador(tabla.nombre()) + " (" + listaColumnas(tabla)
+                    + ") FROM STDIN (FORMAT binary)"
+                    + (recorte != null ? " WHERE " + identificador(recorte.columna()) + " >= '" + recorte.desde() + "'"
+                    : "");
+            for (InputStream origen : origenes.abrir(tabla)) {
+                try (origen) {
+                    filas += copia.copyIn(sql, origen);
+                }
+            }
+        }
+        for (Map.Entry<Tabla, String> conservada : conservadas.entrySet()) {
+            filas += conservar(conexion, conservada.getKey(), conservada.getValue());
+        }
+        for (Tabla tabla : tablas) {
+            ajustarSecuencias(conexion, tabla);
+        }
+        try (Statement sentencia = conexion.createStatement()) {
+            for (Tabla tabla : tablas) {
+                sentencia.execute("ALTER TABLE " + identificador(tabla.nombre()) + " ENABLE TRIGGER USER");
+            }
+            sentencia.execute("SELECT datos_restaurados()");
+        }
+        return filas;
+    }
+
+    /**
+     * Vuelve a insertar las filas apartadas de una tabla conservada que no
+     * trae la copia y cuyas claves foráneas siguen resolviéndose.
+     *
+     * @return Filas insertadas
+     */
+    private static long conservar(Connection conexion, Tabla tabla, String temporal) throws SQLException {
+        List<String> referencias = new ArrayList<>();
+        try (PreparedStatement claves = conexion.prepareStatement(SQL_CLAVES_FORANEAS)) {
+            claves.setString(1, identificador(tabla.nombre()));
+            try (ResultSet rs = claves.executeQuery()) {
+                while (rs.next()) {
+                    String[] hijas = (String[]) rs.getArray(2).getArray();
+                    String[] padres = (String[]) rs.getArray(3).getArray();
+                    StringBuilder condicion = new StringBuilder("(");
+                    for (String hija : hijas) {
+                        condicion.append("c.").append(identificador(hija)).append(" IS NULL OR ");
+                    }
+                    condicion.append("EXISTS (SELECT 1 FROM ").append(rs.getString(1)).append(" p WHERE ");
+                    for (int i = 0; i < hijas.length; i++) {
+                        condicion.append(i > 0 ? " AND " : "").append("p.").append(identificador(padres[i]))
+                                .append(" = c.").append(identificador(hijas[i]));
+                    }
+                    referencias.add(condicion.append("))").toString());
+                }
+            }
+        }
+        String validas = referencias.isEmpty() ? "TRUE" : String.join(" AND ", referencias);
+        try (Statement sentencia = conexion.createStatement()) {
+            long insertadas = sentencia.executeUpdate("INSERT INTO " + identificador(tabla.nombre()) + " ("
+                    + listaColumnas(tabla) + ") SELECT " + listaColumnas(tabla) + " FROM " + temporal + " c WHERE "
+                    + validas + " ON CONFLICT DO NOTHING");
+            try (ResultSet rs = sentencia.executeQuery("SELECT count(*) FROM " + temporal + " c WHERE NOT ("
+                    + validas + ")")) {
+                rs.next();
+                if (rs.getLong(1) > 0) {
+                    logger.warn("No se conservaron {} filas de {} porque referencian filas que la copia no tiene",
+                            rs.getLong(1), tabla.nombre());
+                }
+            }
+            return insertadas;
+        }
+    }
+
+    /**
+     * Ajusta las secuencias de las columnas de la tabla al máximo restaurado.
+     */
+    private static void ajustarSecuencias(Connection conexion, Tabla tabla) throws SQLException {
+        String nombre = identificador(tabla.nombre());
+        try (PreparedStatement serial = conexion.prepareStatement("SELECT pg_get_serial_sequence(?, ?)")) {
+            for (String columna : tabla.columnas()) {
+                serial.setString(1, nombre);
+                serial.setString(2, columna);
+                String secuencia;
+                try (ResultSet rs = serial.executeQuery()) {
+                    rs.next();
+                    secuencia = rs.getString(1);
+                }
+                if (secuencia == null) {
+                    continue;
+                }
+                try (PreparedStatement ajuste = conexion.prepareStatement("SELECT setval(?, COALESCE(MAX("
+                        + identificador(columna) + "), 0) + 1, false) FROM " + nombre)) {
+                    ajuste.setString(1, secuencia);
+                    ajuste.execute();
+                }
+            }
+        }
+    }
+
+    /**
+     * Registra una copia en backups_sistema.
+     *
+     * @param fechaCreacion Fecha de la copia
+     * @param rutaArchivo Ruta del archivo generado
+     * @param metadata Metadatos en JSON
+     * @return ID de la copia registrada
+     */
+    public long registrar(LocalDateTime fechaCreacion, String rutaArchivo, String metadata) {
+        return jdbcTemplate.queryForObject("INSERT INTO backups_sistema (fecha_creacion, ruta_archivo, metadata) "
+                + "VALUES (?, ?, CAST(? AS jsonb)) RETURNING id_backup", Long.class, fechaCreacion, rutaArchivo, metadata);
+    }
+
+    /**
+     * Límite superior (xmax) de un corte de transacciones.
+     *
+     * @param corte Corte en el formato de texto de pg_snapshot
+     * @return Primer ID de transacción todavía no asignado en el corte
+     * @throws IllegalArgumentException Si el corte no tiene ese formato
+     */
+    public static long xmax(String corte) {
+        Matcher partes = corte != null ? CORTE.matcher(corte) : null;
+        if (partes == null || !partes.matches()) {
+            throw new IllegalArgumentException("Corte de transacciones no válido: " + corte);
+        }
+        return Long.parseLong(partes.group(2));
+    }
+
+    private static String listaColumnas(Tabla tabla) {
+        return tabla.columnas().stream().map(BackupDatosRepository::identificador).collect(Collectors.joining(", "));
+    }
+
+    private static String identificador(String nombre) {
+        return "\"" + nombre.replace("\"", "\"\"") + "\"";
+    }
+
+    private static void cerrarSilenciosamente(Connection conexion) {
+        if (conexion != null) {
+            try {
+                conexion.close();
+            } catch (SQLException ignorada) {
+                // La conexión ya no sirve; el pool la descartará
+            }
+        }
+    }
+
+    /**
+     * Tabla a copiar.
+     *
+     * @param nombre Nombre de la tabla
+     * @param columnas Columnas en orden de definición
+     * @param referencias Tablas a las que referencia por clave foránea (sin ella misma)
+     */
+    public record Tabla(String nombre, List<String> columnas, Set<String> referencias) {
+    }
+
+    /**
+     * Opciones de carga de una restauración.
+     *
+     * @param conservadas Tablas cuyas filas actuales se mantienen junto a las de la copia
+     * @param recortes Filas que se cargan de cada tabla recortada
+     */
+    public record Carga(Set<String> conservadas, Map<String, Recorte> recortes) {
+    }
+
+    /**
+     * Carga solo las filas cuya columna es mayor o igual que el valor dado.
+     *
+     * @param columna Columna de fecha
+     * @param desde Primer valor que se carga
+     */
+    public record Recorte(String columna, LocalDateTime desde) {
+    }
+
+    /**
+     * Abre los volcados de una tabla durante la restauración.
+     */
+    @FunctionalInterface
+    public interface Origenes {
+
+        /**
+         * @param tabla Tabla que se va a cargar
+         * @return Volcados binarios en orden de carga; se cierran tras cargarlos
+         * @throws IOException Si un volcado no se puede abrir
+         */
+        List<InputStream> abrir(Tabla tabla) throws IOException;
+    }
+
+    /**
+     * Transacción abierta cuya instantánea comparten las exportaciones.
+     */
+    public static final class Instantanea implements AutoCloseable {
+
+        private final Connection conexion;
+        private final String id;
+        private final String corte;
+        private final long generacion;
+
+        Instantanea(Connection conexion, String id, String corte, long generacion) {
+            this.conexion = conexion;
+            this.id = id;
+            this.corte = corte;
+            this.generacion = generacion;
+        }
+
+        /**
+         * Identificador de la instantánea exportada.
+         */
+        public String id() {
+            return id;
+        }
+
+        /**
+         * Corte de transacciones de la instantánea (texto de pg_snapshot):
+         * una copia incremental posterior vuelca lo que no era visible en él.
+         */
+        public String corte() {
+            return corte;
+        }
+
+        /**
+         * Versión del ámbito 'restauracion' de versiones_datos, que cambia
+         * con cada restauración.
+         */
+        public long generacion() {
+            return generacion;
+        }
+
+        @Override
+        public void close() {
+            try {
+                conexion.rollback();
+            } catch (SQLException ignorada) {
+                // Solo se leyó; al cerrar la conexión se descarta la transacción
+            }
+            cerrarSilenciosamente(conexion);
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.tuorg.veterinaria.configuracion.model.BackupSistema;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 /**
  * Repositorio para la entidad BackupSistema.
  * 
@@ -15,6 +17,12 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface BackupSistemaRepository extends JpaRepository<BackupSistema, Long> {
-    // Métodos adicionales pueden agregarse aquí según sea necesario
+
+    /**
+     * Obtiene la copia registrada más reciente.
+     * 
+     * @return Copia más reciente, si hay alguna
+     */
+    Optional<BackupSistema> findFirstByOrderByIdBackupDesc();
 }
 
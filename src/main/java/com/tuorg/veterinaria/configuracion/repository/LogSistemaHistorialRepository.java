@@ -0,0 +1,229 @@
+package com.tuorg.veterinaria.configuracion.repository;
+
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Acceso JDBC al histórico particionado de logs_sistema.
+ *
+ * Las consultas filtran siempre por rango de fecha_hora para que PostgreSQL
+ * descarte las particiones que no intervienen, y paginan por cursor sobre
+ * (fecha_hora, id_log) en orden descendente: cada página cuesta lo mismo
+ * sin importar cuántas filas haya antes ni cuántos meses se guarden.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Repository
+public class LogSistemaHistorialRepository {
+
+    private static final Pattern NOMBRE_PARTICION = Pattern.compile("logs_sistema_(\\d{4})_(\\d{2})");
+
+    private static final String SQL_PARTICIONES =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                    + "WHERE i.inhparent = 'logs_sistema'::regclass";
+
+    /**
+     * Primer argumento de los bloqueos consultivos del mantenimiento de
+     * particiones.
+     */
+    private static final int CLAVE_BLOQUEO = 0x4C4F4753;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param jdbcTemplate Plantilla JDBC
+     */
+    @Autowired
+    public LogSistemaHistorialRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Busca una página de logs, del más reciente al más antiguo.
+     *
+     * @param desde Inicio del rango (inclusive)
+     * @param hasta Fin del rango (exclusive)
+     * @param nivel Nivel exacto, o null para todos
+     * @param componente Componente exacto, o null para todos
+     * @param cursor Último registro de la página anterior, o null para la primera
+     * @param limite Registros por página
+     * @return Registros de la página
+     */
+    public List<Registro> buscar(OffsetDateTime desde, OffsetDateTime hasta, String nivel, String componente,
+                                 Cursor cursor, int limite) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT id_log, fecha_hora, nivel, componente, mensaje, metadata::text "
+                        + "FROM logs_sistema WHERE fecha_hora >= ? AND fecha_hora < ?");
+        List<Object> parametros = new ArrayList<>(List.of(desde, hasta));
+        if (nivel != null) {
+            sql.append(" AND nivel = ?");
+            parametros.add(nivel);
+        }
+        if (componente != null) {
+            sql.append(" AND componente = ?");
+            parametros.add(componente);
+        }
+        if (cursor != null) {
+            sql.append(" AND (fecha_hora, id_log) < (?, ?)");
+            parametros.add(cursor.fechaHora());
+            parametros.add(cursor.id());
+        }
+        sql.append(" ORDER BY fecha_hora DESC, id_log DESC LIMIT ?");
+        parametros.add(limite);
+        return jdbcTemplate.query(sql.toString(), (rs, fila) -> new Registro(
+                rs.getLong(1),
+                rs.getObject(2, OffsetDateTime.class),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getString(5),
+                rs.getString(6)), parametros.toArray());
+    }
+
+    /**
+     * Crea la partición del mes indicado si no existe.
+     *
+     * @param mes Mes de la partición
+     * @return Nombre de la partición creada, o null si ya existía
+     */
+    public String crearParticion(YearMonth mes) {
+        return jdbcTemplate.queryForObject("SELECT logs_sistema_crear_particion(?)", String.class,
+                mes.atDay(1));
+    }
+
+    /**
+     * Meses anteriores al indicado con filas en la partición por defecto,
+     * que quedaron ahí por no tener aún partición propia.
+     *
+     * @param antesDe Primer mes que no se incluye
+     * @return Meses con filas, del más antiguo al más reciente
+     */
+    public List<YearMonth> mesesEnParticionPorDefecto(YearMonth antesDe) {
+        return jdbcTemplate.query("SELECT DISTINCT date_trunc('month', fecha_hora)::date AS mes "
+                        + "FROM logs_sistema_default WHERE fecha_hora < ? ORDER BY mes",
+                (rs, fila) -> YearMonth.from(rs.getDate(1).toLocalDate()), antesDe.atDay(1));
+    }
+
+    /**
+     * Lista las particiones mensuales existentes, de la más antigua a la más reciente.
+     *
+     * @return Particiones (sin incluir la partición por defecto)
+     */
+    public List<Particion> listarParticiones() {
+        List<Particion> particiones = new ArrayList<>();
+        jdbcTemplate.query(SQL_PARTICIONES, rs -> {
+            Matcher matcher = NOMBRE_PARTICION.matcher(rs.getString(1));
+            if (matcher.matches()) {
+                particiones.add(new Particion(rs.getString(1),
+                        YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)))));
+            }
+        });
+        particiones.sort(Comparator.comparing(Particion::mes));
+        return particiones;
+    }
+
+    /**
+     * Toma, sin esperar, el bloqueo de la creación de particiones hasta el
+     * final de la transacción, para que solo un nodo las cree en cada pasada.
+     *
+     * @return true si se obtuvo el bloqueo
+     */
+    public boolean bloquearCreacion() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?, 0)",
+                Boolean.class, CLAVE_BLOQUEO));
+    }
+
+    /**
+     * Toma, sin esperar, el bloqueo del archivado de una partición hasta el
+     * final de la transacción y comprueba que siga existiendo: otro nodo
+     * puede haberla archivado después de listarla.
+     *
+     * @param particion Partición a archivar
+     * @return true si se obtuvo el bloqueo y la partición existe
+     */
+    public boolean reservar(Particion particion) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(?, hashtext(?)) AND to_regclass(?) IS NOT NULL",
+                Boolean.class, CLAVE_BLOQUEO, particion.nombre(), particion.nombre()));
+    }
+
+    /**
+     * Impide escribir en la partición hasta el final de la transacción y
+     * cuenta sus filas, para comparar con las que se archiven.
+     *
+     * @param particion Partición a archivar
+     * @return Filas de la partición
+     */
+    public long contarBloqueando(Particion particion) {
+        jdbcTemplate.execute("LOCK TABLE " + particion.nombre() + " IN SHARE MODE");
+        Long filas = jdbcTemplate.queryForObject("SELECT count(*) FROM " + particion.nombre(), Long.class);
+        return filas != null ? filas : 0L;
+    }
+
+    /**
+     * Vuelca una partición en CSV con cabecera mediante COPY. Dentro de una
+     * transacción usa su conexión, y ve lo mismo que {@link #contarBloqueando}.
+     *
+     * @param particion Partición a volcar
+     * @param destino Flujo de salida; no se cierra
+     * @return Filas escritas
+     */
+    public long exportar(Particion particion, OutputStream destino) {
+        String sql = "COPY (SELECT id_log, fecha_hora, nivel, componente, mensaje, metadata FROM "
+                + particion.nombre() + " ORDER BY fecha_hora, id_log) TO STDOUT WITH (FORMAT csv, HEADER)";
+        return jdbcTemplate.execute((ConnectionCallback<Long>) conexion -> {
+            try {
+                return conexion.unwrap(PGConnection.class).getCopyAPI().copyOut(sql, destino);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Separa la partición de logs_sistema y la elimina. Debe ejecutarse dentro
+     * de una transacción para que no quede separada sin eliminar.
+     *
+     * @param particion Partición a eliminar
+     */
+    public void eliminar(Particion particion) {
+        jdbcTemplate.execute("ALTER TABLE logs_sistema DETACH PARTITION " + particion.nombre());
+        jdbcTemplate.execute("DROP TABLE " + particion.nombre());
+    }
+
+    /**
+     * Registro de log leído del histórico.
+     */
+    public record Registro(long id, OffsetDateTime fechaHora, String nivel, String componente, String mensaje,
+                           String metadata) {
+    }
+
+    /**
+     * Posición de paginación: último registro entregado.
+     */
+    public record Cursor(OffsetDateTime fechaHora, long id) {
+    }
+
+    /**
+     * Partición mensual. El nombre procede del catálogo y cumple
+     * {@code logs_sistema_AAAA_MM}, por lo que es seguro incluirlo en SQL.
+     */
+    public record Particion(String nombre, YearMonth mes) {
+    }
+}
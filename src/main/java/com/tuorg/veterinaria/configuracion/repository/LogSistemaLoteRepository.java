@@ -0,0 +1,101 @@
+package com.tuorg.veterinaria.configuracion.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Escritura por lotes en logs_sistema.
+ *
+ * Inserta cada lote con un único INSERT de varias filas: un viaje al servidor
+ * y una sola conexión por lote, en vez de una transacción JPA por evento.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Repository
+public class LogSistemaLoteRepository {
+
+    private static final String SQL_INSERTAR =
+            "INSERT INTO logs_sistema (fecha_hora, nivel, componente, mensaje, metadata) VALUES ";
+
+    private static final String FILA = "(?, ?, ?, ?, ?::jsonb)";
+
+    /**
+     * Máximo de filas por sentencia (5 parámetros por fila, muy por debajo del
+     * límite de 32767 parámetros del protocolo de PostgreSQL).
+     */
+    private static final int FILAS_POR_SENTENCIA = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Sentencias ya construidas por número de filas.
+     */
+    private final ConcurrentMap<Integer, String> sentencias = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param jdbcTemplate Plantilla JDBC
+     */
+    @Autowired
+    public LogSistemaLoteRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserta los eventos indicados: todos o ninguno.
+     *
+     * @param eventos Eventos a insertar
+     */
+    @Transactional
+    public void insertar(List<Evento> eventos) {
+        for (int desde = 0; desde < eventos.size(); desde += FILAS_POR_SENTENCIA) {
+            List<Evento> tramo = eventos.subList(desde, Math.min(eventos.size(), desde + FILAS_POR_SENTENCIA));
+            Object[] parametros = new Object[tramo.size() * 5];
+            int i = 0;
+            for (Evento evento : tramo) {
+                parametros[i++] = evento.fechaHora();
+                parametros[i++] = evento.nivel();
+                parametros[i++] = evento.componente();
+                parametros[i++] = evento.mensaje();
+                parametros[i++] = evento.metadata();
+            }
+            jdbcTemplate.update(sentencia(tramo.size()), parametros);
+        }
+    }
+
+    private String sentencia(int filas) {
+        return sentencias.computeIfAbsent(filas, n -> {
+            StringBuilder sql = new StringBuilder(SQL_INSERTAR.length() + n * (FILA.length() + 2));
+            sql.append(SQL_INSERTAR);
+            for (int i = 0; i < n; i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append(FILA);
+            }
+            return sql.toString();
+        });
+    }
+
+    /**
+     * Evento pendiente de escribir.
+     *
+     * @param fechaHora Momento en que se registró
+     * @param nivel Nivel (INFO, WARN, ERROR, DEBUG)
+     * @param componente Componente que lo generó
+     * @param mensaje Mensaje descriptivo
+     * @param metadata Metadatos en JSON, o null
+     */
+    public record Evento(LocalDateTime fechaHora, String nivel, String componente, String mensaje,
+                         String metadata) {
+    }
+}
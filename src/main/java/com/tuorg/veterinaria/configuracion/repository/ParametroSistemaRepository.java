@@ -2,6 +2,7 @@ package com.tuorg.veterinaria.configuracion.repository;
 
 import com.tuorg.veterinaria.configuracion.model.ParametroSistema;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -33,5 +34,15 @@ public interface ParametroSistemaRepository extends JpaRepository<ParametroSiste
      * @return true si existe, false en caso contrario
      */
     boolean existsByClave(String clave);
+
+    /**
+     * Calcula la huella MD5 de todos los parámetros ("clave=valor" ordenados
+     * por clave en orden binario y separados por salto de línea).
+     *
+     * @return Huella hexadecimal en minúsculas
+     */
+    @Query(value = "SELECT md5(COALESCE(string_agg(clave || '=' || valor, E'\\n' ORDER BY clave COLLATE \"C\"), '')) "
+            + "FROM parametros_sistema", nativeQuery = true)
+    String calcularHuella();
 }
 
@@ -0,0 +1,685 @@
+package com.tuorg.veterinaria.configuracion.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tuorg.veterinaria.auditoria.aspect.Auditable;
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.common.exception.ResourceNotFoundException;
+import com.tuorg.veterinaria.configuracion.dto.BackupResponse;
+import com.tuorg.veterinaria.configuracion.model.BackupSistema;
+import com.tuorg.veterinaria.configuracion.repository.BackupDatosRepository;
+import com.tuorg.veterinaria.configuracion.repository.BackupDatosRepository.Carga;
+import com.tuorg.veterinaria.configuracion.repository.BackupDatosRepository.Instantanea;
+import com.tuorg.veterinaria.configuracion.repository.BackupDatosRepository.Recorte;
+import com.tuorg.veterinaria.configuracion.repository.BackupDatosRepository.Tabla;
+import com.tuorg.veterinaria.configuracion.repository.BackupSistemaRepository;
+import com.tuorg.veterinaria.configuracion.repository.LogSistemaHistorialRepository;
+import com.tuorg.veterinaria.configuracion.repository.LogSistemaHistorialRepository.Particion;
+import com.tuorg.veterinaria.configuracion.service.ManifiestoBackup.EntradaTabla;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Servicio de copias de seguridad y restauración de la base de datos.
+ *
+ * Cada tabla se vuelca con COPY en un hilo propio, todas sobre la misma
+ * instantánea, y se comprime con gzip mientras llega; al terminar, los
+ * volcados se reúnen sin recomprimir en un único archivo ZIP junto con su
+ * manifiesto. Las tablas de solo inserción configuradas en
+ * {@code app.backup.incrementales} admiten copias incrementales: solo se
+ * vuelcan las filas que no eran visibles en el corte de transacciones de la
+ * copia anterior, incluidas las de transacciones que seguían abiertas
+ * entonces, mientras que el resto de tablas se copian siempre completas.
+ *
+ * La restauración solo se admite con {@code sistema.mantenimiento} activo.
+ * Comprueba las sumas SHA-256 de toda la cadena antes de tocar la base de
+ * datos y después vacía y carga todas las tablas, por orden de dependencias
+ * de claves foráneas, en una única transacción: el resto de conexiones
+ * esperan a los bloqueos y ven los datos anteriores o los restaurados, nunca
+ * tablas vacías o a medias. Las tablas de {@code app.backup.conservadas}
+ * (por defecto, la auditoría) conservan además lo escrito después de la
+ * copia, y de logs_sistema no se cargan los meses anteriores a su partición
+ * más antigua, que ya se archivaron y no deben volver a la base de datos.
+ * Al confirmar se invalidan las cachés de
+ * parámetros, cartera, fichas y cubo de análisis de todos los nodos, y la
+ * base restaurada sigue en mantenimiento hasta que un administrador la reabra.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Service
+public class BackupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackupService.class);
+
+    /**
+     * Tablas que nunca se copian: el propio registro de copias y el historial de Flyway.
+     */
+    private static final Set<String> SIEMPRE_EXCLUIDAS = Set.of("backups_sistema", "flyway_schema_history");
+
+    private static final String MANIFIESTO = "manifiesto.json";
+    private static final String TABLA_LOGS = "logs_sistema";
+    private static final String MANTENIMIENTO = "sistema.mantenimiento";
+
+    /**
+     * Distancia máxima entre el corte de la copia base y el actual: más allá,
+     * los xmin de 32 bits de las filas ya no se pueden situar sin ambigüedad.
+     */
+    private static final long DISTANCIA_MAXIMA_CORTES = 1L << 31;
+    private static final int BUFFER = 1 << 16;
+    private static final DateTimeFormatter FORMATO_NOMBRE = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss_SSS");
+
+    private final BackupDatosRepository backupDatosRepository;
+    private final BackupSistemaRepository backupSistemaRepository;
+    private final LogSistemaHistorialRepository logSistemaHistorialRepository;
+    private final ConfigService configService;
+    private final ObjectMapper objectMapper;
+    private final Path directorio;
+    private final Set<String> excluidas;
+    private final Set<String> incrementales;
+    private final Set<String> conservadas;
+    private final Clock reloj;
+    private final ExecutorService pool;
+    private final ReentrantLock enCurso = new ReentrantLock();
+
+    @Autowired
+    public BackupService(BackupDatosRepository backupDatosRepository,
+                         BackupSistemaRepository backupSistemaRepository,
+                         LogSistemaHistorialRepository logSistemaHistorialRepository,
+                         ConfigService configService,
+                         ObjectMapper objectMapper,
+                         @Value("${app.backup.directorio:./backups}") String directorio,
+                         @Value("${app.backup.hilos:4}") int hilos,
+                         @Value("${app.backup.excluidas:}") List<String> excluidas,
+                         @Value("${app.backup.incrementales:logs_sistema}") List<String> incrementales,
+                         @Value("${app.backup.conservadas:historial_acciones}") List<String> conservadas) {
+        this(backupDatosRepository, backupSistemaRepository, logSistemaHistorialRepository, configService,
+                objectMapper, Paths.get(directorio), hilos, excluidas, leerIncrementales(incrementales), conservadas,
+                Clock.systemDefaultZone());
+    }
+
+    BackupService(BackupDatosRepository backupDatosRepository, BackupSistemaRepository backupSistemaRepository,
+                  LogSistemaHistorialRepository logSistemaHistorialRepository, ConfigService configService,
+                  ObjectMapper objectMapper, Path directorio, int hilos, Collection<String> excluidas,
+                  Collection<String> incrementales, Collection<String> conservadas, Clock reloj) {
+        this.backupDatosRepository = backupDatosRepository;
+        this.backupSistemaRepository = backupSistemaRepository;
+        this.logSistemaHistorialRepository = logSistemaHistorialRepository;
+        this.configService = configService;
+        this.objectMapper = objectMapper;
+        this.directorio = directorio.toAbsolutePath().normalize();
+        this.excluidas = new HashSet<>(SIEMPRE_EXCLUIDAS);
+        excluidas.stream().map(String::trim).filter(tabla -> !tabla.isEmpty()).forEach(this.excluidas::add);
+        this.incrementales = Set.copyOf(incrementales);
+        this.conservadas = conservadas.stream().map(String::trim).filter(tabla -> !tabla.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.reloj = reloj;
+        AtomicInteger contador = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(Math.max(1, hilos), tarea -> {
+            Thread hilo = new Thread(tarea, "backup-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Crea una copia de seguridad.
+     *
+     * @param incremental true para copiar solo las filas nuevas de las tablas
+     *                    de solo inserción; si no hay una copia anterior
+     *                    utilizable se hace una completa
+     * @return Copia registrada
+     * @throws BusinessException Si ya hay una copia o restauración en curso,
+     *                           o una restauración en otro nodo
+     */
+    @Auditable
+    public BackupResponse crear(boolean incremental) {
+        bloquear();
+        long inicio = System.nanoTime();
+        Path trabajo = null;
+        try {
+            LocalDateTime fecha = LocalDateTime.now(reloj);
+            String version = backupDatosRepository.versionEsquema();
+            Copia base = incremental ? baseIncremental(version) : null;
+            List<Tabla> tablas = backupDatosRepository.listarTablas(excluidas);
+
+            Files.createDirectories(directorio);
+            trabajo = Files.createTempDirectory(directorio, ".backup-");
+            List<Volcado> volcados;
+            String corte;
+            long generacion;
+            try (Instantanea instantanea = abrirInstantanea()) {
+                corte = instantanea.corte();
+                generacion = instantanea.generacion();
+                if (base != null && !encadenable(base, instantanea)) {
+                    base = null;
+                }
+                String corteBase = base != null ? base.manifiesto().corte() : null;
+                List<Callable<Volcado>> tareas = new ArrayList<>();
+                for (Tabla tabla : tablas) {
+                    String desde = incrementales.contains(tabla.nombre()) ? corteBase : null;
+                    Path destino = trabajo.resolve(tabla.nombre() + ".copy.gz");
+                    tareas.add(() -> volcar(instantanea, tabla, desde, destino));
+                }
+                volcados = ejecutarTodas(tareas);
+            }
+
+            ManifiestoBackup manifiesto = new ManifiestoBackup(ManifiestoBackup.FORMATO,
+                    base != null ? ManifiestoBackup.INCREMENTAL : ManifiestoBackup.COMPLETA,
+                    base != null ? base.id() : null, version, fecha, corte, generacion,
+                    volcados.stream().map(Volcado::entrada).toList());
+            Path archivo = directorio.resolve("backup_" + FORMATO_NOMBRE.format(fecha) + ".zip");
+            empaquetar(archivo, manifiesto, volcados);
+
+            long bytes = Files.size(archivo);
+            long duracionMs = (System.nanoTime() - inicio) / 1_000_000;
+            ObjectNode metadata = objectMapper.valueToTree(manifiesto);
+            metadata.put("bytesArchivo", bytes);
+            metadata.put("duracionMs", duracionMs);
+            long id = backupDatosRepository.registrar(fecha, archivo.toString(),
+                    objectMapper.writeValueAsString(metadata));
+            logger.info("Copia {} {} creada en {}: {} tablas, {} filas, {} bytes en {} ms", id, manifiesto.tipo(),
+                    archivo, manifiesto.tablas().size(), manifiesto.filas(), bytes, duracionMs);
+            return respuesta(id, fecha, archivo.toString(), manifiesto, bytes, duracionMs);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir la copia de seguridad", e);
+        } finally {
+            borrar(trabajo);
+            enCurso.unlock();
+        }
+    }
+
+    /**
+     * Lista las copias registradas, de la más reciente a la más antigua.
+     *
+     * @return Copias registradas
+     */
+    public List<BackupResponse> listar() {
+        return backupSistemaRepository.findAll(Sort.by(Sort.Direction.DESC, "idBackup")).stream()
+                .map(this::respuesta)
+                .toList();
+    }
+
+    /**
+     * Restaura la base de datos al estado de una copia. Si es incremental, se
+     * cargan también las copias de las que depende, hasta la última completa.
+     *
+     * @param idBackup ID de la copia
+     * @return Resultado de la restauración
+     * @throws ResourceNotFoundException Si la copia no existe
+     * @throws BusinessException Si el sistema no está en mantenimiento, la
+     *                           cadena no es válida, un archivo falta o está
+     *                           dañado, el esquema no coincide o hay una copia
+     *                           o restauración en curso en algún nodo
+     */
+    @Auditable
+    public Restauracion restaurar(Long idBackup) {
+        if (!configService.getFoto().getBooleano(MANTENIMIENTO, false)) {
+            throw new BusinessException("La restauración requiere activar antes el parámetro " + MANTENIMIENTO);
+        }
+        bloquear();
+        long inicio = System.nanoTime();
+        Map<Long, ZipFile> archivos = new HashMap<>();
+        try {
+            List<Copia> cadena = cadena(idBackup);
+            String version = backupDatosRepository.versionEsquema();
+            for (Copia copia : cadena) {
+                if (!Objects.equals(copia.manifiesto().versionEsquema(), version)) {
+                    throw new BusinessException(String.format(
+                            "La copia %d es de la versión de esquema %s y la base de datos está en la %s",
+                            copia.id(), copia.manifiesto().versionEsquema(), version));
+                }
+                archivos.put(copia.id(), abrirArchivo(copia));
+            }
+
+            Map<String, Tabla> actuales = new HashMap<>();
+            backupDatosRepository.listarTablas(excluidas).forEach(tabla -> actuales.put(tabla.nombre(), tabla));
+            Map<Tabla, List<Fuente>> plan = new LinkedHashMap<>();
+            for (EntradaTabla entrada : cadena.get(0).manifiesto().tablas()) {
+                Tabla actual = actuales.get(entrada.tabla());
+                if (actual == null) {
+                    throw new BusinessException("La tabla " + entrada.tabla() + " de la copia no existe en la base de datos");
+                }
+                plan.put(new Tabla(entrada.tabla(), entrada.columnas(), actual.referencias()),
+                        fuentes(cadena, archivos, entrada.tabla()));
+            }
+
+            // Nada se borra hasta comprobar que todos los volcados están íntegros
+            ejecutarTodas(plan.values().stream().flatMap(List::stream)
+                    .map(fuente -> (Callable<Void>) () -> {
+                        verificar(fuente);
+                        return null;
+                    })
+                    .toList());
+
+            List<Tabla> orden = niveles(plan.keySet()).stream().flatMap(List::stream).toList();
+            long filas;
+            try {
+                filas = backupDatosRepository.restaurar(orden, carga(), tabla -> abrir(plan.get(tabla)));
+            } catch (CannotAcquireLockException e) {
+                throw new BusinessException("Hay una copia de seguridad o restauración en curso en otro nodo");
+            }
+            // Los demás nodos se enteran por las notificaciones de datos_restaurados()
+            configService.cargarTodos();
+
+            List<Long> ids = cadena.stream().map(Copia::id).sorted().toList();
+            long duracionMs = (System.nanoTime() - inicio) / 1_000_000;
+            logger.info("Base de datos restaurada desde las copias {}: {} tablas, {} filas en {} ms",
+                    ids, plan.size(), filas, duracionMs);
+            return new Restauracion(ids, plan.size(), filas, duracionMs);
+        } finally {
+            archivos.values().forEach(BackupService::cerrar);
+            enCurso.unlock();
+        }
+    }
+
+    /**
+     * Detiene los hilos de copia.
+     */
+    @PreDestroy
+    public void cerrar() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Agrupa las tablas en niveles de carga: cada tabla va en un nivel
+     * posterior a las tablas a las que referencia, así que cargarlas nivel a
+     * nivel no viola claves foráneas. Si hay un ciclo, las tablas restantes
+     * se cargan juntas en el último nivel.
+     *
+     * @param tablas Tablas a cargar
+     * @return Niveles en orden de carga
+     */
+    static List<List<Tabla>> niveles(Collection<Tabla> tablas) {
+        Set<String> nombres = new HashSet<>();
+        tablas.forEach(tabla -> nombres.add(tabla.nombre()));
+        Set<String> cargadas = new HashSet<>();
+        List<Tabla> restantes = new ArrayList<>(tablas);
+        List<List<Tabla>> niveles = new ArrayList<>();
+        while (!restantes.isEmpty()) {
+            List<Tabla> nivel = restantes.stream()
+                    .filter(tabla -> tabla.referencias().stream()
+                            .allMatch(padre -> cargadas.contains(padre) || !nombres.contains(padre)))
+                    .toList();
+            if (nivel.isEmpty()) {
+                nivel = List.copyOf(restantes);
+            }
+            nivel.forEach(tabla -> cargadas.add(tabla.nombre()));
+            restantes.removeAll(nivel);
+            niveles.add(nivel);
+        }
+        return niveles;
+    }
+
+    /**
+     * Tablas conservadas y recorte de logs_sistema en su partición más antigua.
+     */
+    private Carga carga() {
+        Map<String, Recorte> recortes = logSistemaHistorialRepository.listarParticiones().stream()
+                .map(Particion::mes)
+                .min(Comparator.naturalOrder())
+                .map(mes -> Map.of(TABLA_LOGS, new Recorte("fecha_hora", mes.atDay(1).atStartOfDay())))
+                .orElse(Map.of());
+        return new Carga(conservadas, recortes);
+    }
+
+    private void bloquear() {
+        if (!enCurso.tryLock()) {
+            throw new BusinessException("Ya hay una copia de seguridad o restauración en curso");
+        }
+    }
+
+    private Instantanea abrirInstantanea() {
+        try {
+            return backupDatosRepository.abrirInstantanea();
+        } catch (CannotAcquireLockException e) {
+            throw new BusinessException("Hay una restauración en curso en otro nodo");
+        }
+    }
+
+    /**
+     * Última copia sobre la que puede apoyarse una incremental: del formato
+     * actual, del mismo esquema y con su archivo todavía en disco.
+     */
+    private Copia baseIncremental(String version) {
+        Copia base = backupSistemaRepository.findFirstByOrderByIdBackupDesc().map(this::leer).orElse(null);
+        if (base == null || !Objects.equals(base.manifiesto().versionEsquema(), version)
+                || !Files.isRegularFile(Paths.get(base.rutaArchivo()))) {
+            logger.info("No hay una copia anterior utilizable como base; se hace una copia completa");
+            return null;
+        }
+        return base;
+    }
+
+    /**
+     * Una incremental solo puede apoyarse en una copia de la misma generación
+     * de restauración (tras restaurar, todas las filas tienen xmin nuevos) y
+     * del mismo servidor, con un corte anterior y no demasiado lejano.
+     */
+    private boolean encadenable(Copia base, Instantanea instantanea) {
+        ManifiestoBackup manifiesto = base.manifiesto();
+        String motivo = null;
+        if (manifiesto.corte() == null || manifiesto.generacion() == null) {
+            motivo = "no registra su corte de transacciones";
+        } else if (manifiesto.generacion() != instantanea.generacion()) {
+            motivo = "es anterior a la última restauración";
+        } else {
+            long distancia = BackupDatosRepository.xmax(instantanea.corte())
+                    - BackupDatosRepository.xmax(manifiesto.corte());
+            if (distancia < 0 || distancia >= DISTANCIA_MAXIMA_CORTES) {
+                motivo = "tiene un corte de transacciones incompatible con el actual";
+            }
+        }
+        if (motivo != null) {
+            logger.info("La copia {} {}; se hace una copia completa", base.id(), motivo);
+            return false;
+        }
+        return true;
+    }
+
+    private Volcado volcar(Instantanea instantanea, Tabla tabla, String corteBase, Path destino) throws IOException {
+        CRC32 crc = new CRC32();
+        MessageDigest sha256 = sha256();
+        long filas;
+        try (OutputStream salida = new GZIPOutputStream(new DigestOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(destino), BUFFER), crc), sha256), BUFFER)) {
+            filas = backupDatosRepository.exportar(instantanea, tabla, corteBase, salida);
+        }
+        EntradaTabla entrada = new EntradaTabla(tabla.nombre(), tabla.columnas(),
+                corteBase != null ? ManifiestoBackup.INCREMENTAL : ManifiestoBackup.COMPLETA, filas, Files.size(destino), HexFormat.of().formatHex(sha256.digest()),
+                "tablas/" + tabla.nombre() + ".copy.gz");
+        return new Volcado(entrada, destino, crc.getValue());
+    }
+
+    private void empaquetar(Path archivo, ManifiestoBackup manifiesto, List<Volcado> volcados) throws IOException {
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".parcial");
+        try (ZipOutputStream zip = new ZipOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporal), BUFFER))) {
+            zip.putNextEntry(new ZipEntry(MANIFIESTO));
+            zip.write(objectMapper.writeValueAsBytes(manifiesto));
+            zip.closeEntry();
+            for (Volcado volcado : volcados) {
+                // Cada volcado ya va comprimido con gzip: se guarda tal cual
+                ZipEntry entrada = new ZipEntry(volcado.entrada().archivo());
+                entrada.setMethod(ZipEntry.STORED);
+                entrada.setSize(volcado.entrada().bytes());
+                entrada.setCompressedSize(volcado.entrada().bytes());
+                entrada.setCrc(volcado.crc());
+                zip.putNextEntry(entrada);
+                Files.copy(volcado.archivo(), zip);
+                zip.closeEntry();
+            }
+        }
+        Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private List<Copia> cadena(Long idBackup) {
+        List<Copia> cadena = new ArrayList<>();
+        Long id = idBackup;
+        while (true) {
+            Long buscado = id;
+            BackupSistema registro = backupSistemaRepository.findById(buscado)
+                    .orElseThrow(() -> new ResourceNotFoundException("Backup", "id", buscado));
+            Copia copia = leer(registro);
+            if (copia == null) {
+                throw new BusinessException("La copia " + buscado + " no tiene un formato restaurable");
+            }
+            cadena.add(copia);
+            if (!ManifiestoBackup.INCREMENTAL.equals(copia.manifiesto().tipo())) {
+                return cadena;
+            }
+            id = copia.manifiesto().idBase();
+            if (id == null || id >= copia.id()) {
+                throw new BusinessException("La copia " + copia.id() + " tiene una copia base no válida");
+            }
+        }
+    }
+
+    /**
+     * Volcados que reconstruyen una tabla, del más antiguo al más reciente:
+     * la última entrada completa de la cadena y las incrementales posteriores.
+     */
+    private static List<Fuente> fuentes(List<Copia> cadena, Map<Long, ZipFile> archivos, String tabla) {
+        List<Fuente> fuentes = new ArrayList<>();
+        for (Copia copia : cadena) {
+            EntradaTabla entrada = copia.manifiesto().entrada(tabla);
+            ZipFile zip = archivos.get(copia.id());
+            ZipEntry zipEntrada = entrada != null ? zip.getEntry(entrada.archivo()) : null;
+            if (zipEntrada == null) {
+                throw new BusinessException("La copia " + copia.id() + " no contiene la tabla " + tabla);
+            }
+            fuentes.add(0, new Fuente(copia.id(), entrada, zip, zipEntrada));
+            if (ManifiestoBackup.COMPLETA.equals(entrada.modo())) {
+                return fuentes;
+            }
+        }
+        throw new BusinessException("La cadena de copias de la tabla " + tabla + " no parte de una copia completa");
+    }
+
+    private static void verificar(Fuente fuente) throws IOException {
+        MessageDigest sha256 = sha256();
+        try (InputStream entrada = new DigestInputStream(fuente.zip().getInputStream(fuente.zipEntrada()), sha256)) {
+            entrada.transferTo(OutputStream.nullOutputStream());
+        }
+        if (!HexFormat.of().formatHex(sha256.digest()).equals(fuente.entrada().sha256())) {
+            throw new BusinessException(String.format("La tabla %s de la copia %d está dañada",
+                    fuente.entrada().tabla(), fuente.idBackup()));
+        }
+    }
+
+    private static List<InputStream> abrir(List<Fuente> fuentes) throws IOException {
+        List<InputStream> flujos = new ArrayList<>();
+        for (Fuente fuente : fuentes) {
+            flujos.add(new GZIPInputStream(fuente.zip().getInputStream(fuente.zipEntrada()), BUFFER));
+        }
+        return flujos;
+    }
+
+    private ZipFile abrirArchivo(Copia copia) {
+        try {
+            return new ZipFile(copia.rutaArchivo());
+        } catch (IOException e) {
+            throw new BusinessException("No se puede abrir el archivo de la copia " + copia.id() + ": "
+                    + copia.rutaArchivo());
+        }
+    }
+
+    /**
+     * Ejecuta las tareas en el pool y espera a todas, incluso si alguna
+     * falla, para no dejar volcados a medio escribir; después relanza el
+     * primer error.
+     */
+    private <T> List<T> ejecutarTodas(List<Callable<T>> tareas) {
+        List<Future<T>> futuros = tareas.stream().map(pool::submit).toList();
+        List<T> resultados = new ArrayList<>();
+        Throwable error = null;
+        for (Future<T> futuro : futuros) {
+            try {
+                resultados.add(futuro.get());
+            } catch (ExecutionException e) {
+                error = error != null ? error : e.getCause();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futuros.forEach(pendiente -> pendiente.cancel(true));
+                throw new IllegalStateException("Operación de copia interrumpida", e);
+            }
+        }
+        if (error instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (error instanceof IOException io) {
+            throw new UncheckedIOException(io);
+        }
+        if (error != null) {
+            throw new IllegalStateException(error);
+        }
+        return resultados;
+    }
+
+    private Copia leer(BackupSistema registro) {
+        JsonNode metadata = metadata(registro);
+        if (metadata == null || metadata.path("formato").asInt() != ManifiestoBackup.FORMATO) {
+            return null;
+        }
+        try {
+            return new Copia(registro.getIdBackup(), registro.getRutaArchivo(),
+                    objectMapper.treeToValue(metadata, ManifiestoBackup.class));
+        } catch (IOException e) {
+            logger.warn("Metadata no válida en la copia {}: {}", registro.getIdBackup(), e.getMessage());
+            return null;
+        }
+    }
+
+    private JsonNode metadata(BackupSistema registro) {
+        if (registro.getMetadata() == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(registro.getMetadata());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private BackupResponse respuesta(BackupSistema registro) {
+        Copia copia = leer(registro);
+        if (copia == null) {
+            return BackupResponse.builder()
+                    .idBackup(registro.getIdBackup())
+                    .fechaCreacion(registro.getFechaCreacion())
+                    .rutaArchivo(registro.getRutaArchivo())
+                    .build();
+        }
+        JsonNode metadata = metadata(registro);
+        return respuesta(registro.getIdBackup(), registro.getFechaCreacion(), registro.getRutaArchivo(),
+                copia.manifiesto(), metadata.path("bytesArchivo").asLong(), metadata.path("duracionMs").asLong());
+    }
+
+    private static BackupResponse respuesta(long id, LocalDateTime fecha, String ruta, ManifiestoBackup manifiesto,
+                                            long bytes, long duracionMs) {
+        return BackupResponse.builder()
+                .idBackup(id)
+                .fechaCreacion(fecha)
+                .rutaArchivo(ruta)
+                .tipo(manifiesto.tipo())
+                .idBase(manifiesto.idBase())
+                .tablas(manifiesto.tablas().size())
+                .filas(manifiesto.filas())
+                .bytesArchivo(bytes)
+                .duracionMs(duracionMs)
+                .build();
+    }
+
+    /**
+     * Nombres de tabla; se admite el formato anterior tabla:columna, cuya
+     * columna ya no se usa.
+     */
+    private static Set<String> leerIncrementales(List<String> definiciones) {
+        Set<String> incrementales = new HashSet<>();
+        for (String definicion : definiciones) {
+            String tabla = definicion.split(":")[0].trim();
+            if (!tabla.isEmpty()) {
+                incrementales.add(tabla);
+            }
+        }
+        return incrementales;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void cerrar(ZipFile zip) {
+        try {
+            zip.close();
+        } catch (IOException e) {
+            logger.debug("No se pudo cerrar {}: {}", zip.getName(), e.getMessage());
+        }
+    }
+
+    private static void borrar(Path trabajo) {
+        if (trabajo == null) {
+            return;
+        }
+        try (Stream<Path> rutas = Files.walk(trabajo)) {
+            rutas.sorted(Comparator.reverseOrder()).forEach(ruta -> ruta.toFile().delete());
+        } catch (IOException e) {
+            logger.warn("No se pudo limpiar el directorio temporal {}: {}", trabajo, e.getMessage());
+        }
+    }
+
+    /**
+     * Resultado de una restauración.
+     *
+     * @param copias Copias aplicadas, de la más antigua a la más reciente
+     * @param tablas Tablas restauradas
+     * @param filas Filas cargadas
+     * @param duracionMs Duración en milisegundos
+     */
+    public record Restauracion(List<Long> copias, int tablas, long filas, long duracionMs) {
+    }
+
+    private record Copia(long id, String rutaArchivo, ManifiestoBackup manifiesto) {
+    }
+
+    private record Volcado(EntradaTabla entrada, Path archivo, long crc) {
+    }
+
+    private record Fuente(long idBackup, EntradaTabla entrada, ZipFile zip, ZipEntry zipEntrada) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.tuorg.veterinaria.configuracion.service;
 
+import com.tuorg.veterinaria.auditoria.aspect.Auditable;
 import com.tuorg.veterinaria.common.exception.ResourceNotFoundException;
 import com.tuorg.veterinaria.configuracion.model.ParametroSistema;
 import com.tuorg.veterinaria.configuracion.repository.ParametroSistemaRepository;
@@ -9,10 +10,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  * Servicio para la gestión de parámetros del sistema.
@@ -23,6 +35,16 @@ import java.util.concurrent.ConcurrentHashMap;
  * El servicio mantiene un caché en memoria de los parámetros para mejorar
  * el rendimiento, evitando consultas repetidas a la base de datos.
  * 
+ * Cada entrada guarda la versión con la que se leyó (asignada por trigger en
+ * la base de datos). Los cambios hechos desde cualquier nodo llegan por
+ * {@link com.tuorg.veterinaria.configuracion.listener.ParametrosSistemaListener}
+ * y se aplican clave a clave solo si son más recientes que lo que ya hay en
+ * caché; la huella periódica detecta lo que se haya podido perder.
+ * 
+ * Tras cada cambio se publica una {@link FotoConfiguracion} inmutable con los
+ * valores ya tipados y se avisa a los componentes suscritos a las claves que
+ * cambiaron, para que no tengan que leer ni parsear parámetros en cada petición.
+ * 
  * @author Equipo de Desarrollo
  * @version 1.0.0
  */
@@ -41,7 +63,22 @@ public class ConfigService {
      * Caché local thread-safe para almacenar parámetros en memoria.
      * Utiliza ConcurrentHashMap para garantizar thread-safety.
      */
-    private final Map<String, String> cache = new ConcurrentHashMap<>();
+    private final Map<String, Entrada> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Versión más alta aplicada a la caché.
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Foto tipada vigente; se reemplaza completa en cada cambio.
+     */
+    private volatile FotoConfiguracion foto = FotoConfiguracion.vacia();
+
+    /**
+     * Componentes suscritos a cambios de parámetros.
+     */
+    private final List<Suscripcion> suscripciones = new CopyOnWriteArrayList<>();
 
     /**
      * Repositorio de parámetros del sistema.
@@ -86,9 +123,9 @@ public class ConfigService {
     @Transactional(readOnly = true)
     public String obtener(String clave) {
         // Buscar en caché primero
-        String valor = cache.get(clave);
-        if (valor != null) {
-            return valor;
+        Entrada entrada = cache.get(clave);
+        if (entrada != null) {
+            return entrada.valor();
         }
 
         // Si no está en caché, buscar en base de datos
@@ -96,7 +133,7 @@ public class ConfigService {
                 .orElseThrow(() -> new ResourceNotFoundException("ParametroSistema", "clave", clave));
 
         // Actualizar caché
-        cache.put(clave, parametro.getValor());
+        aplicarCambio(clave, parametro.getValor(), versionDe(parametro));
         return parametro.getValor();
     }
 
@@ -110,6 +147,7 @@ public class ConfigService {
      * @throws ResourceNotFoundException Si el parámetro no existe
      */
     @Transactional
+    @Auditable(argumentos = "clave")
     public void actualizarValor(String clave, String valor) {
         ParametroSistema parametro = parametroSistemaRepository.findByClave(clave)
                 .orElseThrow(() -> new ResourceNotFoundException("ParametroSistema", "clave", clave));
@@ -117,8 +155,10 @@ public class ConfigService {
         parametro.setValor(valor);
         parametroSistemaRepository.save(parametro);
 
-        // Actualizar caché
-        cache.put(clave, valor);
+        // Actualizar caché conservando la versión leída: la notificación del
+        // trigger traerá la nueva versión cuando se confirme la transacción
+        cache.merge(clave, new Entrada(valor, versionDe(parametro)), ConfigService::masReciente);
+        publicar();
         logger.info("Parámetro actualizado: {} = {}", clave, valor);
     }
 
@@ -131,10 +171,24 @@ public class ConfigService {
     @Transactional(readOnly = true)
     public void cargarTodos() {
         List<ParametroSistema> parametros = parametroSistemaRepository.findAll();
-        cache.clear();
+        // Se reemplaza entrada a entrada para que las lecturas concurrentes
+        // nunca encuentren la caché vacía. Una notificación aplicada mientras
+        // se leía puede traer una versión posterior a la leída: se conserva,
+        // igual que en aplicarCambio
+        Set<String> claves = new HashSet<>();
+        long maxima = 0;
         for (ParametroSistema parametro : parametros) {
-            cache.put(parametro.getClave(), parametro.getValor());
+            long versionParametro = versionDe(parametro);
+            cache.merge(parametro.getClave(), new Entrada(parametro.getValor(), versionParametro),
+                    ConfigService::masReciente);
+            claves.add(parametro.getClave());
+            maxima = Math.max(maxima, versionParametro);
         }
+        long maximaLeida = maxima;
+        cache.entrySet().removeIf(entrada -> !claves.contains(entrada.getKey())
+                && entrada.getValue().version() <= maximaLeida);
+        version.accumulateAndGet(maxima, Math::max);
+        publicar();
         logger.info("Caché de parámetros cargado: {} parámetros", parametros.size());
     }
 
@@ -149,7 +203,52 @@ public class ConfigService {
         if (cache.isEmpty()) {
             cargarTodos();
         }
-        return new HashMap<>(cache);
+        return foto.comoMapa();
+    }
+
+    /**
+     * Obtiene la foto tipada vigente de los parámetros.
+     * 
+     * @return Foto inmutable; no cambia aunque lleguen cambios posteriores
+     */
+    public FotoConfiguracion getFoto() {
+        return foto;
+    }
+
+    /**
+     * Suscribe un componente a los cambios de ciertos parámetros.
+     * 
+     * El oyente se invoca en el acto con la foto vigente y después cada vez
+     * que cambie alguna de las claves, en el hilo que aplicó el cambio: debe
+     * limitarse a copiar los valores que necesita.
+     * 
+     * @param claves Claves de interés
+     * @param oyente Recibe la nueva foto
+     */
+    public void suscribir(Collection<String> claves, Consumer<FotoConfiguracion> oyente) {
+        Suscripcion suscripcion = new Suscripcion(Set.copyOf(claves), oyente);
+        synchronized (this) {
+            suscripciones.add(suscripcion);
+            suscripcion.avisar(foto);
+        }
+    }
+
+    /**
+     * Mantiene al día los parámetros indicados con una sola suscripción.
+     *
+     * Es la forma habitual de que un servicio lea parámetros en caliente:
+     * declara cada uno como campo {@link ParametroVigente} con su valor por
+     * defecto y lo pasa aquí al inicializarse (por ejemplo en un método
+     * {@code @PostConstruct}). Desde entonces cada lectura devuelve el valor
+     * de la última foto sin consultar la caché; mientras no se llame, por
+     * ejemplo en pruebas unitarias, conserva el valor por defecto.
+     *
+     * @param parametros Parámetros a actualizar
+     */
+    public void seguir(ParametroVigente<?>... parametros) {
+        List<ParametroVigente<?>> lista = List.of(parametros);
+        suscribir(lista.stream().map(ParametroVigente::getClave).toList(),
+                foto -> lista.forEach(parametro -> parametro.actualizar(foto)));
     }
 
     /**
@@ -161,6 +260,149 @@ public class ConfigService {
         cache.clear();
         logger.info("Caché de parámetros limpiado");
     }
+
+    /**
+     * Aplica el alta o modificación de un parámetro notificada por la base de datos.
+     * 
+     * @param clave Clave del parámetro
+     * @param valor Nuevo valor
+     * @param versionCambio Versión asignada por el trigger
+     * @return true si la caché cambió, false si ya tenía una versión igual o posterior
+     */
+    public boolean aplicarCambio(String clave, String valor, long versionCambio) {
+        boolean[] aplicado = new boolean[1];
+        cache.compute(clave, (k, actual) -> {
+            if (actual != null && actual.version() >= versionCambio) {
+                return actual;
+            }
+            aplicado[0] = true;
+            return new Entrada(valor, versionCambio);
+        });
+        version.accumulateAndGet(versionCambio, Math::max);
+        if (aplicado[0]) {
+            publicar();
+        }
+        return aplicado[0];
+    }
+
+    /**
+     * Aplica la baja de un parámetro notificada por la base de datos.
+     * 
+     * @param clave Clave del parámetro eliminado
+     * @param versionBaja Versión asignada a la baja
+     * @return true si la clave se retiró de la caché
+     */
+    public boolean aplicarBaja(String clave, long versionBaja) {
+        boolean[] aplicado = new boolean[1];
+        cache.computeIfPresent(clave, (k, actual) -> {
+            if (actual.version() >= versionBaja) {
+                return actual;
+            }
+            aplicado[0] = true;
+            return null;
+        });
+        version.accumulateAndGet(versionBaja, Math::max);
+        if (aplicado[0]) {
+            publicar();
+        }
+        return aplicado[0];
+    }
+
+    /**
+     * Compara la huella de la caché con la de la tabla y recarga todo si difieren.
+     * 
+     * Es la red de seguridad ante notificaciones perdidas (reconexiones,
+     * nodos arrancando, cambios hechos con los triggers deshabilitados).
+     * 
+     * @return true si hubo que recargar
+     */
+    @Transactional(readOnly = true)
+    public boolean verificarHuella() {
+        String remota = parametroSistemaRepository.calcularHuella();
+        if (huellaLocal().equals(remota)) {
+            return false;
+        }
+        logger.warn("La caché de parámetros no coincide con la base de datos (versión local {}); se recarga",
+                version.get());
+        cargarTodos();
+        return true;
+    }
+
+    /**
+     * Obtiene la versión más alta aplicada a la caché.
+     * 
+     * @return Versión del snapshot local
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Calcula la huella MD5 de la caché con el mismo formato que
+     * {@link ParametroSistemaRepository#calcularHuella()}.
+     */
+    String huellaLocal() {
+        Map<String, Entrada> ordenada = new TreeMap<>(cache);
+        StringBuilder contenido = new StringBuilder();
+        ordenada.forEach((clave, entrada) -> {
+            if (!contenido.isEmpty()) {
+                contenido.append('\n');
+            }
+            contenido.append(clave).append('=').append(entrada.valor());
+        });
+        try {
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            return HexFormat.of().formatHex(md5.digest(contenido.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 no disponible", e);
+        }
+    }
+
+    /**
+     * Construye y publica una foto nueva a partir de la caché y avisa a los
+     * suscritos cuyas claves cambiaron. Se serializa para que los avisos
+     * lleguen en el mismo orden en que se publicaron las fotos.
+     */
+    private synchronized void publicar() {
+        Map<String, String> valores = new HashMap<>();
+        cache.forEach((clave, entrada) -> valores.put(clave, entrada.valor()));
+        FotoConfiguracion anterior = foto;
+        FotoConfiguracion nueva = FotoConfiguracion.de(valores, version.get());
+        foto = nueva;
+        for (Suscripcion suscripcion : suscripciones) {
+            if (suscripcion.claves().stream().anyMatch(clave -> nueva.cambio(anterior, clave))) {
+                suscripcion.avisar(nueva);
+            }
+        }
+    }
+
+    private static Entrada masReciente(Entrada actual, Entrada leida) {
+        return actual.version() > leida.version() ? actual : leida;
+    }
+
+    private static long versionDe(ParametroSistema parametro) {
+        return parametro.getVersion() != null ? parametro.getVersion() : 0L;
+    }
+
+    /**
+     * Valor en caché junto a la versión con la que se leyó.
+     */
+    private record Entrada(String valor, long version) {
+    }
+
+    /**
+     * Oyente junto a las claves que le interesan.
+     */
+    private record Suscripcion(Set<String> claves, Consumer<FotoConfiguracion> oyente) {
+
+        void avisar(FotoConfiguracion foto) {
+            try {
+                oyente.accept(foto);
+            } catch (RuntimeException e) {
+                logger.error("Error al aplicar cambios de parámetros {}: {}", claves, e.getMessage(), e);
+            }
+        }
+    }
 }
 
 
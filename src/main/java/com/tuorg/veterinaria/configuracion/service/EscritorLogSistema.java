@@ -0,0 +1,53 @@
+package com.tuorg.veterinaria.configuracion.service;
+
+import com.tuorg.veterinaria.common.util.EscritorPorLotes;
+import com.tuorg.veterinaria.configuracion.repository.LogSistemaLoteRepository;
+import com.tuorg.veterinaria.configuracion.repository.LogSistemaLoteRepository.Evento;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Escritor asíncrono por lotes de los eventos de logs_sistema.
+ *
+ * Los productores encolan cada evento sin bloquear ni tomar conexiones y un
+ * único hilo los escribe por lotes (ver {@link EscritorPorLotes}). Los
+ * eventos descartados por saturación se dejan registrados con un aviso en
+ * el siguiente lote.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Component
+public class EscritorLogSistema extends EscritorPorLotes<Evento> {
+
+    private final LogSistemaLoteRepository logSistemaLoteRepository;
+
+    @Autowired
+    public EscritorLogSistema(LogSistemaLoteRepository logSistemaLoteRepository,
+                              @Value("${app.logs.capacidad:16384}") int capacidad,
+                              @Value("${app.logs.lote:500}") int tamanoLote,
+                              @Value("${app.logs.intervalo:PT0.2S}") Duration intervalo,
+                              @Value("${app.logs.desborde:DESCARTAR}") Desborde desborde,
+                              @Value("${app.logs.espera-maxima:PT0.5S}") Duration esperaMaxima,
+                              @Value("${app.logs.espera-cierre:PT10S}") Duration esperaCierre) {
+        super("logs-escritor", capacidad, tamanoLote, intervalo, desborde, esperaMaxima, esperaCierre);
+        this.logSistemaLoteRepository = logSistemaLoteRepository;
+        iniciar();
+    }
+
+    @Override
+    protected void escribirLote(List<Evento> lote) {
+        logSistemaLoteRepository.insertar(lote);
+    }
+
+    @Override
+    protected void informarDescartes(long cantidad, List<Evento> lote) {
+        lote.add(new Evento(LocalDateTime.now(), "WARN", "LogSistemaService",
+                String.format("Se descartaron %d eventos por saturación del registro", cantidad), null));
+    }
+}
@@ -0,0 +1,163 @@
+package com.tuorg.veterinaria.configuracion.service;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Foto inmutable de los parámetros del sistema en una versión concreta.
+ *
+ * Cada valor se interpreta una sola vez al construir la foto (entero, decimal,
+ * booleano, duración y lista separada por comas), de modo que los lectores
+ * obtienen el tipo que necesitan sin volver a parsear ni sincronizarse.
+ * {@link ConfigService} sustituye la foto completa con cada cambio.
+ *
+ * Si el valor no existe o no admite el tipo pedido, se devuelve el valor por
+ * defecto indicado por quien lo consulta.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public final class FotoConfiguracion {
+
+    private static final FotoConfiguracion VACIA = new FotoConfiguracion(Map.of(), 0L);
+
+    private final long version;
+    private final Map<String, String> textos;
+    private final Map<String, Valor> valores;
+
+    private FotoConfiguracion(Map<String, String> textos, long version) {
+        this.version = version;
+        this.textos = Collections.unmodifiableMap(new HashMap<>(textos));
+        Map<String, Valor> interpretados = new HashMap<>(textos.size() * 2);
+        textos.forEach((clave, texto) -> interpretados.put(clave, Valor.de(texto)));
+        this.valores = interpretados;
+    }
+
+    /**
+     * Crea una foto a partir de los valores en texto.
+     *
+     * @param textos Parámetros (clave -> valor)
+     * @param version Versión de los datos
+     * @return Foto inmutable
+     */
+    public static FotoConfiguracion de(Map<String, String> textos, long version) {
+        return new FotoConfiguracion(textos, version);
+    }
+
+    /**
+     * Foto sin parámetros, usada antes de la primera carga.
+     *
+     * @return Foto vacía
+     */
+    public static FotoConfiguracion vacia() {
+        return VACIA;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Obtiene todos los parámetros como texto.
+     *
+     * @return Map inmodificable (clave -> valor)
+     */
+    public Map<String, String> comoMapa() {
+        return textos;
+    }
+
+    public String getTexto(String clave, String defecto) {
+        return textos.getOrDefault(clave, defecto);
+    }
+
+    public int getEntero(String clave, int defecto) {
+        Valor valor = valores.get(clave);
+        return valor != null && valor.entero() != null ? valor.entero() : defecto;
+    }
+
+    public BigDecimal getDecimal(String clave, BigDecimal defecto) {
+        Valor valor = valores.get(clave);
+        return valor != null && valor.decimal() != null ? valor.decimal() : defecto;
+    }
+
+    public boolean getBooleano(String clave, boolean defecto) {
+        Valor valor = valores.get(clave);
+        return valor != null && valor.booleano() != null ? valor.booleano() : defecto;
+    }
+
+    /**
+     * Obtiene una duración en formato ISO-8601 ("PT30M") o simple ("30m", "2h").
+     */
+    public Duration getDuracion(String clave, Duration defecto) {
+        Valor valor = valores.get(clave);
+        return valor != null && valor.duracion() != null ? valor.duracion() : defecto;
+    }
+
+    /**
+     * Obtiene una lista de valores separados por comas, sin elementos vacíos.
+     */
+    public List<String> getLista(String clave) {
+        Valor valor = valores.get(clave);
+        return valor != null ? valor.lista() : List.of();
+    }
+
+    /**
+     * Indica si el valor de la clave difiere entre esta foto y otra.
+     */
+    boolean cambio(FotoConfiguracion otra, String clave) {
+        String actual = textos.get(clave);
+        String anterior = otra.textos.get(clave);
+        return actual == null ? anterior != null : !actual.equals(anterior);
+    }
+
+    /**
+     * Interpretaciones de un valor; las que no aplican quedan a null.
+     */
+    private record Valor(Integer entero, BigDecimal decimal, Boolean booleano,
+                         Duration duracion, List<String> lista) {
+
+        static Valor de(String texto) {
+            String limpio = texto.trim();
+            return new Valor(entero(limpio), decimal(limpio), booleano(limpio), duracion(limpio),
+                    Arrays.stream(limpio.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList());
+        }
+
+        private static Integer entero(String texto) {
+            try {
+                return Integer.valueOf(texto);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private static BigDecimal decimal(String texto) {
+            try {
+                return new BigDecimal(texto);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private static Boolean booleano(String texto) {
+            if ("true".equalsIgnoreCase(texto)) {
+                return Boolean.TRUE;
+            }
+            return "false".equalsIgnoreCase(texto) ? Boolean.FALSE : null;
+        }
+
+        private static Duration duracion(String texto) {
+            try {
+                return DurationStyle.detectAndParse(texto);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
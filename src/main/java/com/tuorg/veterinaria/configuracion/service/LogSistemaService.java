@@ -1,21 +1,31 @@
 package com.tuorg.veterinaria.configuracion.service;
 
-import com.tuorg.veterinaria.configuracion.model.LogSistema;
-import com.tuorg.veterinaria.configuracion.repository.LogSistemaRepository;
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.common.util.CursorPaginacion;
+import com.tuorg.veterinaria.configuracion.dto.LogSistemaResponse;
+import com.tuorg.veterinaria.configuracion.dto.PaginaLogsResponse;
+import com.tuorg.veterinaria.configuracion.repository.LogSistemaHistorialRepository;
+import com.tuorg.veterinaria.configuracion.repository.LogSistemaHistorialRepository.Cursor;
+import com.tuorg.veterinaria.configuracion.repository.LogSistemaHistorialRepository.Registro;
+import com.tuorg.veterinaria.configuracion.repository.LogSistemaLoteRepository.Evento;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
 import java.util.List;
 
 /**
  * Servicio para la gestión de logs del sistema.
  * 
  * Este servicio proporciona métodos para registrar y consultar
- * eventos del sistema para auditoría y seguimiento.
+ * eventos del sistema para auditoría y seguimiento. El registro es
+ * asíncrono: los eventos se escriben por lotes desde {@link EscritorLogSistema}.
  * 
  * @author Equipo de Desarrollo
  * @version 1.0.0
@@ -25,85 +35,115 @@ public class LogSistemaService {
 
     private static final Logger logger = LoggerFactory.getLogger(LogSistemaService.class);
 
+    private static final int LIMITE_POR_DEFECTO = 100;
+    private static final int LIMITE_MAXIMO = 1000;
+    private static final Duration RANGO_POR_DEFECTO = Duration.ofDays(7);
+
+    /**
+     * Repositorio del histórico particionado de logs.
+     */
+    private final LogSistemaHistorialRepository logSistemaHistorialRepository;
+
     /**
-     * Repositorio de logs del sistema.
+     * Escritor por lotes de eventos.
      */
-    private final LogSistemaRepository logSistemaRepository;
+    private final EscritorLogSistema escritorLogSistema;
 
     /**
      * Constructor con inyección de dependencias.
      * 
-     * @param logSistemaRepository Repositorio de logs
+     * @param logSistemaHistorialRepository Repositorio del histórico de logs
+     * @param escritorLogSistema Escritor por lotes de eventos
      */
     @Autowired
-    public LogSistemaService(LogSistemaRepository logSistemaRepository) {
-        this.logSistemaRepository = logSistemaRepository;
+    public LogSistemaService(LogSistemaHistorialRepository logSistemaHistorialRepository,
+                             EscritorLogSistema escritorLogSistema) {
+        this.logSistemaHistorialRepository = logSistemaHistorialRepository;
+        this.escritorLogSistema = escritorLogSistema;
     }
 
     /**
      * Registra un evento en el sistema.
      * 
+     * No bloquea ni abre transacción: el evento se encola y se escribe en el
+     * siguiente lote, por lo que puede tardar unos milisegundos en consultarse.
+     * 
      * @param componente Componente que genera el log
      * @param nivel Nivel del log (INFO, WARN, ERROR, DEBUG)
      * @param mensaje Mensaje descriptivo del evento
-     * @return LogSistema creado
+     * @return true si se aceptó, false si se descartó por saturación
      */
-    @Transactional
-    public LogSistema registrarEvento(String componente, String nivel, String mensaje) {
-        LogSistema logSistema = new LogSistema();
-        logSistema.setFechaHora(LocalDateTime.now());
-        logSistema.setComponente(componente);
-        logSistema.setNivel(nivel);
-        logSistema.setMensaje(mensaje);
-
-        LogSistema saved = logSistemaRepository.save(logSistema);
-        logger.debug("Evento registrado: {} - {} - {}", componente, nivel, mensaje);
-        return saved;
+    public boolean registrarEvento(String componente, String nivel, String mensaje) {
+        boolean aceptado = escritorLogSistema.registrar(
+                new Evento(LocalDateTime.now(), nivel, componente, mensaje, null));
+        if (aceptado) {
+            logger.debug("Evento registrado: {} - {} - {}", componente, nivel, mensaje);
+        } else {
+            logger.debug("Evento descartado por saturación: {} - {} - {}", componente, nivel, mensaje);
+        }
+        return aceptado;
     }
 
     /**
-     * Obtiene todos los logs del sistema.
+     * Busca una página de eventos del log, del más reciente al más antiguo.
      * 
-     * @return Lista de todos los logs
-     */
-    @Transactional(readOnly = true)
-    public List<LogSistema> obtenerTodos() {
-        return logSistemaRepository.findAll();
-    }
-
-    /**
-     * Obtiene logs por nivel.
+     * El rango se limita siempre (por defecto, los últimos 7 días) para que la
+     * consulta solo recorra las particiones mensuales implicadas.
      * 
-     * @param nivel Nivel del log (INFO, WARN, ERROR, DEBUG)
-     * @return Lista de logs con el nivel especificado
+     * @param desde Inicio del rango (inclusive); por defecto, 7 días antes de hasta
+     * @param hasta Fin del rango (exclusive); por defecto, ahora
+     * @param nivel Nivel exacto, o null para todos
+     * @param componente Componente exacto, o null para todos
+     * @param cursor Cursor devuelto por la página anterior, o null para la primera
+     * @param limite Eventos por página (máximo {@value #LIMITE_MAXIMO})
+     * @return Página de eventos con el cursor de la siguiente
+     * @throws BusinessException Si el rango o el cursor no son válidos
      */
     @Transactional(readOnly = true)
-    public List<LogSistema> obtenerPorNivel(String nivel) {
-        return logSistemaRepository.findByNivel(nivel);
+    public PaginaLogsResponse buscar(LocalDateTime desde, LocalDateTime hasta, String nivel, String componente,
+                                     String cursor, Integer limite) {
+        ZoneId zona = ZoneId.systemDefault();
+        OffsetDateTime fin = (hasta != null ? hasta : LocalDateTime.now()).atZone(zona).toOffsetDateTime();
+        OffsetDateTime inicio = desde != null
+                ? desde.atZone(zona).toOffsetDateTime()
+                : fin.minus(RANGO_POR_DEFECTO);
+        if (!inicio.isBefore(fin)) {
+            throw new BusinessException("La fecha de inicio debe ser anterior a la fecha de fin");
+        }
+        int tamano = limite != null ? Math.max(1, Math.min(limite, LIMITE_MAXIMO)) : LIMITE_POR_DEFECTO;
+
+        // Se pide un registro de más para saber si hay página siguiente
+        List<Registro> registros = logSistemaHistorialRepository.buscar(inicio, fin, vacioANulo(nivel),
+                vacioANulo(componente), decodificarCursor(cursor), tamano + 1);
+        boolean hayMas = registros.size() > tamano;
+        List<Registro> pagina = hayMas ? registros.subList(0, tamano) : registros;
+        return PaginaLogsResponse.builder()
+                .logs(pagina.stream().map(LogSistemaService::mapToResponse).toList())
+                .siguienteCursor(hayMas ? codificarCursor(pagina.get(pagina.size() - 1)) : null)
+                .build();
     }
 
-    /**
-     * Obtiene logs por componente.
-     * 
-     * @param componente Nombre del componente
-     * @return Lista de logs del componente especificado
-     */
-    @Transactional(readOnly = true)
-    public List<LogSistema> obtenerPorComponente(String componente) {
-        return logSistemaRepository.findByComponente(componente);
+    private static LogSistemaResponse mapToResponse(Registro registro) {
+        return LogSistemaResponse.builder()
+                .id(registro.id())
+                .fechaHora(registro.fechaHora())
+                .nivel(registro.nivel())
+                .componente(registro.componente())
+                .mensaje(registro.mensaje())
+                .metadata(registro.metadata())
+                .build();
     }
 
-    /**
-     * Obtiene logs en un rango de fechas.
-     * 
-     * @param fechaInicio Fecha de inicio
-     * @param fechaFin Fecha de fin
-     * @return Lista de logs en el rango especificado
-     */
-    @Transactional(readOnly = true)
-    public List<LogSistema> obtenerPorRangoFechas(LocalDateTime fechaInicio, LocalDateTime fechaFin) {
-        return logSistemaRepository.findByFechaHoraBetween(fechaInicio, fechaFin);
+    private static String codificarCursor(Registro registro) {
+        return CursorPaginacion.codificar(registro.fechaHora(), registro.id());
     }
-}
 
+    private static Cursor decodificarCursor(String cursor) {
+        CursorPaginacion.Posicion posicion = CursorPaginacion.decodificar(cursor);
+        return posicion != null ? new Cursor(posicion.fechaHora(), posicion.id()) : null;
+    }
 
+    private static String vacioANulo(String valor) {
+        return valor == null || valor.isBlank() ? null : valor;
+    }
+}
@@ -0,0 +1,73 @@
+package com.tuorg.veterinaria.configuracion.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Manifiesto de una copia de seguridad.
+ *
+ * Se guarda dentro del archivo (manifiesto.json) y como metadata de su
+ * registro en backups_sistema, así que la cadena de una copia incremental
+ * se puede reconstruir sin abrir los archivos.
+ *
+ * @param formato Versión del formato de archivo
+ * @param tipo COMPLETA o INCREMENTAL
+ * @param idBase Copia sobre la que se apoya una incremental, o null
+ * @param versionEsquema Versión de Flyway de la base de datos copiada
+ * @param fechaCreacion Fecha de la copia
+ * @param corte Corte de transacciones de la instantánea copiada (texto de
+ *              pg_snapshot); una incremental posterior parte de él
+ * @param generacion Generación de restauración de la base copiada; una
+ *                   incremental solo se apoya en una copia de la misma
+ * @param tablas Tablas incluidas
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ManifiestoBackup(int formato, String tipo, Long idBase, String versionEsquema,
+                               LocalDateTime fechaCreacion, String corte, Long generacion,
+                               List<EntradaTabla> tablas) {
+
+    /**
+     * Versión actual del formato de archivo.
+     */
+    public static final int FORMATO = 1;
+
+    public static final String COMPLETA = "COMPLETA";
+    public static final String INCREMENTAL = "INCREMENTAL";
+
+    /**
+     * Entrada de una tabla en el archivo.
+     *
+     * @param tabla Nombre de la tabla
+     * @param columnas Columnas volcadas, en el orden del volcado binario
+     * @param modo COMPLETA o INCREMENTAL (solo filas no visibles en el corte de la copia base)
+     * @param filas Filas volcadas
+     * @param bytes Tamaño comprimido de la entrada
+     * @param sha256 Suma SHA-256 de la entrada comprimida
+     * @param archivo Nombre de la entrada dentro del archivo
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record EntradaTabla(String tabla, List<String> columnas, String modo, long filas, long bytes,
+                               String sha256, String archivo) {
+    }
+
+    /**
+     * Filas totales de la copia.
+     */
+    public long filas() {
+        return tablas.stream().mapToLong(EntradaTabla::filas).sum();
+    }
+
+    /**
+     * Busca la entrada de una tabla.
+     *
+     * @param tabla Nombre de la tabla
+     * @return Entrada, o null si la tabla no está en la copia
+     */
+    public EntradaTabla entrada(String tabla) {
+        return tablas.stream().filter(entrada -> entrada.tabla().equals(tabla)).findFirst().orElse(null);
+    }
+}
@@ -0,0 +1,284 @@
+package com.tuorg.veterinaria.configuracion.service;
+
+import com.tuorg.veterinaria.auditoria.aspect.Auditable;
+import com.tuorg.veterinaria.configuracion.repository.LogSistemaHistorialRepository;
+import com.tuorg.veterinaria.configuracion.repository.LogSistemaHistorialRepository.Particion;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Mantenimiento periódico de las particiones mensuales de logs_sistema.
+ *
+ * En cada pasada crea las particiones de los próximos meses y las de los
+ * meses pasados que tengan filas en la partición por defecto (trasladándolas
+ * a ellas), y archiva las que superan la retención. Todos los nodos lo
+ * ejecutan, pero la creación y el archivado de cada partición se hacen bajo
+ * bloqueos consultivos: el nodo que no los obtiene se salta esa parte.
+ *
+ * Cada partición se archiva en una sola transacción: se bloquea contra
+ * escritura, se cuenta, se vuelca a un CSV comprimido con gzip y se
+ * sincroniza a disco; el archivo se relee entero para comprobar que el gzip
+ * está completo y que contiene lo volcado, y solo entonces se publica con su
+ * nombre definitivo y se separa y elimina la partición. Si algo falla, la
+ * partición sigue en la base de datos.
+ *
+ * El directorio de archivo debe ser un almacenamiento compartido por todos
+ * los nodos, ya que cualquiera puede archivar; sin él configurado las
+ * particiones vencidas se conservan.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Component
+public class MantenimientoLogsSistema {
+
+    private static final Logger logger = LoggerFactory.getLogger(MantenimientoLogsSistema.class);
+
+    private final LogSistemaHistorialRepository logSistemaHistorialRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int mesesAdelante;
+    private final int retencionMeses;
+    private final Duration intervalo;
+    private final Path directorioArchivo;
+    private final Clock reloj;
+    private final ScheduledExecutorService programador;
+
+    @Autowired
+    public MantenimientoLogsSistema(LogSistemaHistorialRepository logSistemaHistorialRepository,
+                                    TransactionTemplate transactionTemplate,
+                                    @Value("${app.logs.particiones.meses-adelante:2}") int mesesAdelante,
+                                    @Value("${app.logs.particiones.retencion-meses:12}") int retencionMeses,
+                                    @Value("${app.logs.particiones.intervalo:PT6H}") Duration intervalo,
+                                    @Value("${app.logs.particiones.directorio-archivo:}")
+                                    String directorioArchivo) {
+        this(logSistemaHistorialRepository, transactionTemplate, mesesAdelante, retencionMeses, intervalo,
+                directorioArchivo.isBlank() ? null : Paths.get(directorioArchivo), Clock.systemDefaultZone());
+    }
+
+    MantenimientoLogsSistema(LogSistemaHistorialRepository logSistemaHistorialRepository,
+                             TransactionTemplate transactionTemplate, int mesesAdelante, int retencionMeses,
+                             Duration intervalo, Path directorioArchivo, Clock reloj) {
+        this.logSistemaHistorialRepository = logSistemaHistorialRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.mesesAdelante = Math.max(1, mesesAdelante);
+        this.retencionMeses = Math.max(1, retencionMeses);
+        this.intervalo = intervalo;
+        this.directorioArchivo = directorioArchivo != null ? directorioArchivo.toAbsolutePath().normalize() : null;
+        this.reloj = reloj;
+        this.programador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "logs-particiones");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Programa el mantenimiento periódico al arrancar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        programador.scheduleWithFixedDelay(this::mantenerSinFallar, 0, intervalo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Crea las particiones pendientes y archiva las vencidas, salvo las que
+     * esté tratando otro nodo.
+     *
+     * @return Particiones creadas y archivos generados por este nodo
+     */
+    @Auditable
+    public synchronized Resultado mantener() {
+        YearMonth actual = YearMonth.now(reloj);
+        List<String> creadas = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(estado -> {
+            if (!logSistemaHistorialRepository.bloquearCreacion()) {
+                return;
+            }
+            // Los meses pasados que cayeron en la partición por defecto reciben la
+            // suya, con sus filas, y se archivan como las demás al vencer
+            List<YearMonth> meses = new ArrayList<>(
+                    logSistemaHistorialRepository.mesesEnParticionPorDefecto(actual));
+            for (int i = 0; i <= mesesAdelante; i++) {
+                meses.add(actual.plusMonths(i));
+            }
+            for (YearMonth mes : meses) {
+                String creada = logSistemaHistorialRepository.crearParticion(mes);
+                if (creada != null) {
+                    creadas.add(creada);
+                }
+            }
+        });
+
+        YearMonth limite = actual.minusMonths(retencionMeses);
+        List<Particion> vencidas = logSistemaHistorialRepository.listarParticiones().stream()
+                .filter(particion -> particion.mes().isBefore(limite))
+                .toList();
+        List<String> archivos = new ArrayList<>();
+        if (!vencidas.isEmpty() && directorioArchivo == null) {
+            logger.warn("Hay {} particiones de logs vencidas pero no se ha configurado un directorio de archivo "
+                    + "compartido (app.logs.particiones.directorio-archivo); se conservan", vencidas.size());
+        } else {
+            for (Particion particion : vencidas) {
+                Path archivo = transactionTemplate.execute(estado -> archivar(particion));
+                if (archivo != null) {
+                    archivos.add(archivo.toString());
+                }
+            }
+        }
+        if (!creadas.isEmpty() || !archivos.isEmpty()) {
+            logger.info("Particiones de logs creadas: {}; archivadas: {}", creadas, archivos);
+        }
+        return new Resultado(creadas, archivos);
+    }
+
+    /**
+     * Detiene el mantenimiento periódico.
+     */
+    @PreDestroy
+    public void cerrar() {
+        programador.shutdownNow();
+    }
+
+    /**
+     * Archiva una partición dentro de la transacción en curso.
+     *
+     * @return Archivo generado, o null si otro nodo la está archivando o ya lo hizo
+     */
+    private Path archivar(Particion particion) {
+        if (!logSistemaHistorialRepository.reservar(particion)) {
+            return null;
+        }
+        long filasParticion = logSistemaHistorialRepository.contarBloqueando(particion);
+        Path destino = directorioArchivo.resolve(particion.nombre() + ".csv.gz");
+        Path temporal = directorioArchivo.resolve(particion.nombre() + ".csv.gz.parcial");
+        long filas;
+        try {
+            Files.createDirectories(directorioArchivo);
+            long bytes;
+            try (FileOutputStream archivo = new FileOutputStream(temporal.toFile())) {
+                GZIPOutputStream gzip = new GZIPOutputStream(archivo, 1 << 16);
+                ContadorBytes contador = new ContadorBytes(gzip);
+                filas = logSistemaHistorialRepository.exportar(particion, contador);
+                gzip.finish();
+                archivo.getChannel().force(true);
+                bytes = contador.bytes;
+            }
+            if (filas != filasParticion) {
+                throw new IllegalStateException("Se volcaron " + filas + " filas de " + particion.nombre()
+                        + " y tiene " + filasParticion);
+            }
+            // Releer de disco detecta un gzip truncado o corrupto antes de borrar nada
+            long leidos;
+            try (InputStream entrada = new GZIPInputStream(Files.newInputStream(temporal), 1 << 16)) {
+                leidos = entrada.transferTo(OutputStream.nullOutputStream());
+            }
+            if (leidos != bytes) {
+                throw new IllegalStateException("El archivo de " + particion.nombre() + " tiene " + leidos
+                        + " bytes y se escribieron " + bytes);
+            }
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            sincronizarDirectorio();
+        } catch (IOException e) {
+            borrarTemporal(temporal);
+            throw new UncheckedIOException("No se pudo archivar la partición " + particion.nombre(), e);
+        } catch (RuntimeException e) {
+            borrarTemporal(temporal);
+            throw e;
+        }
+        logSistemaHistorialRepository.eliminar(particion);
+        logger.info("Partición {} archivada en {} ({} filas)", particion.nombre(), destino, filas);
+        return destino;
+    }
+
+    /**
+     * Sincroniza la entrada del archivo en el directorio, para que el
+     * renombrado sobreviva a una caída antes de eliminar la partición.
+     */
+    private void sincronizarDirectorio() {
+        try (FileChannel directorio = FileChannel.open(directorioArchivo, StandardOpenOption.READ)) {
+            directorio.force(true);
+        } catch (IOException e) {
+            // Algunos sistemas de archivos no permiten abrir directorios
+            logger.debug("No se pudo sincronizar el directorio {}: {}", directorioArchivo, e.getMessage());
+        }
+    }
+
+    private static void borrarTemporal(Path temporal) {
+        try {
+            Files.deleteIfExists(temporal);
+        } catch (IOException e) {
+            logger.warn("No se pudo borrar el archivo parcial {}: {}", temporal, e.getMessage());
+        }
+    }
+
+    private void mantenerSinFallar() {
+        try {
+            mantener();
+        } catch (RuntimeException e) {
+            logger.error("Error en el mantenimiento de particiones de logs: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Cuenta los bytes sin comprimir que pasan hacia el gzip.
+     */
+    private static final class ContadorBytes extends FilterOutputStream {
+
+        private long bytes;
+
+        private ContadorBytes(OutputStream destino) {
+            super(destino);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] datos, int desde, int longitud) throws IOException {
+            out.write(datos, desde, longitud);
+            bytes += longitud;
+        }
+    }
+
+    /**
+     * Resultado de una pasada de mantenimiento.
+     *
+     * @param creadas Particiones creadas
+     * @param archivos Archivos comprimidos generados
+     */
+    public record Resultado(List<String> creadas, List<String> archivos) {
+    }
+}
@@ -0,0 +1,61 @@
+package com.tuorg.veterinaria.configuracion.service;
+
+import java.util.function.Function;
+
+/**
+ * Valor tipado de un parámetro del sistema que se mantiene al día.
+ *
+ * Parte del valor por defecto y lo sustituye {@link ConfigService#seguir}
+ * con cada foto en la que cambie la clave. Leerlo no consulta la caché ni
+ * vuelve a parsear el texto.
+ *
+ * @param <T> Tipo del valor
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public final class ParametroVigente<T> {
+
+    private final String clave;
+    private final Function<FotoConfiguracion, T> lectura;
+    private volatile T valor;
+
+    private ParametroVigente(String clave, T defecto, Function<FotoConfiguracion, T> lectura) {
+        this.clave = clave;
+        this.lectura = lectura;
+        this.valor = defecto;
+    }
+
+    /**
+     * Parámetro entero.
+     *
+     * @param clave Clave del parámetro
+     * @param defecto Valor si falta o no es un entero
+     * @return Parámetro con el valor por defecto
+     */
+    public static ParametroVigente<Integer> entero(String clave, int defecto) {
+        return new ParametroVigente<>(clave, defecto, foto -> foto.getEntero(clave, defecto));
+    }
+
+    /**
+     * Parámetro booleano.
+     *
+     * @param clave Clave del parámetro
+     * @param defecto Valor si falta o no es un booleano
+     * @return Parámetro con el valor por defecto
+     */
+    public static ParametroVigente<Boolean> booleano(String clave, boolean defecto) {
+        return new ParametroVigente<>(clave, defecto, foto -> foto.getBooleano(clave, defecto));
+    }
+
+    public String getClave() {
+        return clave;
+    }
+
+    public T get() {
+        return valor;
+    }
+
+    void actualizar(FotoConfiguracion foto) {
+        valor = lectura.apply(foto);
+    }
+}
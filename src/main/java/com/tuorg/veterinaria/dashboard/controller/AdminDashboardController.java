@@ -1,7 +1,9 @@
 package com.tuorg.veterinaria.dashboard.controller;
 
 import com.tuorg.veterinaria.dashboard.dto.AdminDashboardResponse;
+import com.tuorg.veterinaria.dashboard.dto.ReconstruccionResumenResponse;
 import com.tuorg.veterinaria.dashboard.service.AdminDashboardService;
+import com.tuorg.veterinaria.dashboard.service.ResumenDiarioService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -10,6 +12,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -24,10 +27,13 @@ import org.springframework.web.bind.annotation.RestController;
 public class AdminDashboardController {
 
     private final AdminDashboardService adminDashboardService;
+    private final ResumenDiarioService resumenDiarioService;
 
     @Autowired
-    public AdminDashboardController(AdminDashboardService adminDashboardService) {
+    public AdminDashboardController(AdminDashboardService adminDashboardService,
+                                    ResumenDiarioService resumenDiarioService) {
         this.adminDashboardService = adminDashboardService;
+        this.resumenDiarioService = resumenDiarioService;
     }
 
     @GetMapping("/estadisticas")
@@ -42,4 +48,16 @@ public class AdminDashboardController {
         AdminDashboardResponse dashboard = adminDashboardService.obtenerDashboard();
         return ResponseEntity.ok(dashboard);
     }
+
+    @PostMapping("/resumen-diario/reconstruir")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Reconstruir los resúmenes diarios",
+            description = "Recalcula desde el histórico los resúmenes diarios de facturas y citas que alimentan el dashboard. Procesa un mes por transacción, varios en paralelo."
+    )
+    @ApiResponse(responseCode = "200", description = "Resúmenes reconstruidos exitosamente")
+    @ApiResponse(responseCode = "403", description = "Acceso denegado - requiere rol ADMIN")
+    public ResponseEntity<ReconstruccionResumenResponse> reconstruirResumenDiario() {
+        return ResponseEntity.ok(resumenDiarioService.reconstruir());
+    }
 }
@@ -0,0 +1,29 @@
+package com.tuorg.veterinaria.dashboard.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado de la reconstrucción de los resúmenes diarios")
+public class ReconstruccionResumenResponse {
+
+    @Schema(description = "Primer día reconstruido", example = "2023-01-04")
+    private LocalDate desde;
+
+    @Schema(description = "Último día reconstruido", example = "2025-06-30")
+    private LocalDate hasta;
+
+    @Schema(description = "Meses reconstruidos", example = "30")
+    private int meses;
+
+    @Schema(description = "Duración de la reconstrucción en milisegundos", example = "850")
+    private long duracionMs;
+}
@@ -0,0 +1,280 @@
+package com.tuorg.veterinaria.dashboard.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Acceso JDBC a los resúmenes diarios de facturas y citas.
+ *
+ * Las escrituras incrementales toman un bloqueo consultivo compartido por
+ * mes y la reconstrucción de un mes lo toma exclusivo, de modo que ningún
+ * incremento se pierde ni se cuenta dos veces mientras se reconstruye el
+ * histórico.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Repository
+public class ResumenDiarioRepository {
+
+    /**
+     * Totales de un mes para un estado.
+     *
+     * @param monto Importe acumulado (cero para citas)
+     */
+    public record TotalMensual(YearMonth mes, String estado, long cantidad, BigDecimal monto) {
+    }
+
+    /**
+     * Totales agrupados por una clave (estado, tipo de servicio o veterinario).
+     */
+    public record TotalPorClave(String clave, long cantidad, BigDecimal monto) {
+    }
+
+    /**
+     * Primer argumento de los bloqueos consultivos de los resúmenes.
+     */
+    private static final int CLAVE_BLOQUEO = 0x52445349;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param jdbcTemplate Plantilla JDBC
+     */
+    @Autowired
+    public ResumenDiarioRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Toma el bloqueo compartido de los meses indicados hasta el final de la
+     * transacción. Los meses deben venir ordenados.
+     *
+     * @param meses Meses afectados por la escritura
+     */
+    public void bloquearMeses(Collection<YearMonth> meses) {
+        for (YearMonth mes : meses) {
+            jdbcTemplate.query("SELECT pg_advisory_xact_lock_shared(?, ?)", rs -> null, CLAVE_BLOQUEO, indice(mes));
+        }
+    }
+
+    /**
+     * Suma un delta al resumen de facturas de un día y estado.
+     *
+     * @param dia Día de emisión
+     * @param estado Estado de la factura
+     * @param cantidad Delta de facturas
+     * @param monto Delta de importe
+     */
+    public void sumarFactura(LocalDate dia, String estado, long cantidad, BigDecimal monto) {
+        jdbcTemplate.update(
+                "INSERT INTO resumen_diario_facturas (dia, estado, cantidad, monto) VALUES (?, ?, ?, ?) "
+                        + "ON CONFLICT (dia, estado) DO UPDATE SET "
+                        + "cantidad = resumen_diario_facturas.cantidad + EXCLUDED.cantidad, "
+                        + "monto = resumen_diario_facturas.monto + EXCLUDED.monto",
+                Date.valueOf(dia), estado, cantidad, monto);
+    }
+
+    /**
+     * Suma un delta al resumen de citas de un día, estado, tipo y veterinario.
+     *
+     * @param dia Día de la cita
+     * @param estado Estado de la cita
+     * @param tipoServicio Tipo de servicio (vacío si no tiene)
+     * @param veterinarioId ID del veterinario
+     * @param cantidad Delta de citas
+     */
+    public void sumarCita(LocalDate dia, String estado, String tipoServicio, Long veterinarioId, long cantidad) {
+        jdbcTemplate.update(
+                "INSERT INTO resumen_diario_citas (dia, estado, tipo_servicio, veterinario_id, cantidad) "
+                        + "VALUES (?, ?, ?, ?, ?) "
+                        + "ON CONFLICT (dia, estado, tipo_servicio, veterinario_id) DO UPDATE SET "
+                        + "cantidad = resumen_diario_citas.cantidad + EXCLUDED.cantidad",
+                Date.valueOf(dia), estado, tipoServicio, veterinarioId, cantidad);
+    }
+
+    /**
+     * Totales mensuales de facturas por estado.
+     *
+     * @param desde Primer día (inclusive)
+     * @param hasta Último día (exclusive)
+     * @return Totales por mes y estado
+     */
+    public List<TotalMensual> facturasPorMes(LocalDate desde, LocalDate hasta) {
+        return jdbcTemplate.query(
+                "SELECT EXTRACT(YEAR FROM dia), EXTRACT(MONTH FROM dia), estado, SUM(cantidad), SUM(monto) "
+                        + "FROM resumen_diario_facturas WHERE dia >= ? AND dia < ? GROUP BY 1, 2, 3",
+                (rs, rowNum) -> new TotalMensual(YearMonth.of(rs.getInt(1), rs.getInt(2)), rs.getString(3),
+                        rs.getLong(4), rs.getBigDecimal(5)),
+                Date.valueOf(desde), Date.valueOf(hasta));
+    }
+
+    /**
+     * Totales mensuales de citas por estado.
+     *
+     * @param desde Primer día (inclusive)
+     * @param hasta Último día (exclusive)
+     * @return Totales por mes y estado
+     */
+    public List<TotalMensual> citasPorMes(LocalDate desde, LocalDate hasta) {
+        return jdbcTemplate.query(
+                "SELECT EXTRACT(YEAR FROM dia), EXTRACT(MONTH FROM dia), estado, SUM(cantidad) "
+                        + "FROM resumen_diario_citas WHERE dia >= ? AND dia < ? GROUP BY 1, 2, 3",
+                (rs, rowNum) -> new TotalMensual(YearMonth.of(rs.getInt(1), rs.getInt(2)), rs.getString(3),
+                        rs.getLong(4), BigDecimal.ZERO),
+                Date.valueOf(desde), Date.valueOf(hasta));
+    }
+
+    /**
+     * Totales históricos de facturas por estado.
+     *
+     * @return Cantidad e importe por estado
+     */
+    public List<TotalPorClave> facturasPorEstado() {
+        return jdbcTemplate.query(
+                "SELECT estado, SUM(cantidad), SUM(monto) FROM resumen_diario_facturas GROUP BY estado",
+                (rs, rowNum) -> new TotalPorClave(rs.getString(1), rs.getLong(2), rs.getBigDecimal(3)));
+    }
+
+    /**
+     * Totales históricos de citas por estado.
+     *
+     * @return Cantidad por estado
+     */
+    public List<TotalPorClave> citasPorEstado() {
+        return totalesCitas("SELECT estado, SUM(cantidad) FROM resumen_diario_citas GROUP BY estado");
+    }
+
+    /**
+     * Totales históricos de citas por tipo de servicio.
+     *
+     * @return Cantidad por tipo (vacío para citas sin tipo)
+     */
+    public List<TotalPorClave> citasPorTipoServicio() {
+        return totalesCitas("SELECT tipo_servicio, SUM(cantidad) FROM resumen_diario_citas GROUP BY tipo_servicio");
+    }
+
+    /**
+     * Totales históricos de citas por veterinario.
+     *
+     * @return Cantidad por nombre completo del veterinario
+     */
+    public List<TotalPorClave> citasPorVeterinario() {
+        return totalesCitas(
+                "SELECT p.nombre || ' ' || COALESCE(p.apellido, ''), SUM(r.cantidad) FROM resumen_diario_citas r "
+                        + "JOIN personas p ON p.id_persona = r.veterinario_id "
+                        + "GROUP BY r.veterinario_id, p.nombre, p.apellido");
+    }
+
+    private List<TotalPorClave> totalesCitas(String sql) {
+        return jdbcTemplate.query(sql,
+                (rs, rowNum) -> new TotalPorClave(rs.getString(1), rs.getLong(2), BigDecimal.ZERO));
+    }
+
+    /**
+     * Clientes registrados por mes desde una fecha.
+     *
+     * @param desde Primer día (inclusive)
+     * @return Clientes nuevos por mes
+     */
+    public Map<YearMonth, Long> clientesNuevosPorMes(LocalDate desde) {
+        Map<YearMonth, Long> nuevos = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT EXTRACT(YEAR FROM fecha_registro), EXTRACT(MONTH FROM fecha_registro), COUNT(*) "
+                        + "FROM clientes WHERE fecha_registro >= ? GROUP BY 1, 2",
+                (RowCallbackHandler) rs ->
+                        nuevos.put(YearMonth.of(rs.getInt(1), rs.getInt(2)), rs.getLong(3)),
+                Timestamp.valueOf(desde.atStartOfDay()));
+        return nuevos;
+    }
+
+    /**
+     * Indica si los resúmenes todavía no se han construido.
+     *
+     * @return true si ambas tablas están vacías
+     */
+    public boolean estaVacio() {
+        Boolean vacio = jdbcTemplate.queryForObject(
+                "SELECT NOT EXISTS (SELECT 1 FROM resumen_diario_facturas) "
+                        + "AND NOT EXISTS (SELECT 1 FROM resumen_diario_citas)", Boolean.class);
+        return Boolean.TRUE.equals(vacio);
+    }
+
+    /**
+     * Obtiene el primer y el último día con facturas o citas.
+     *
+     * @return Rango de días del histórico, vacío si no hay datos
+     */
+    public Optional<LocalDate[]> rangoHistorico() {
+        return jdbcTemplate.query(
+                "SELECT CAST(LEAST((SELECT MIN(fecha_emision) FROM facturas), (SELECT MIN(fecha_hora) FROM citas)) AS DATE), "
+                        + "CAST(GREATEST((SELECT MAX(fecha_emision) FROM facturas), (SELECT MAX(fecha_hora) FROM citas)) AS DATE)",
+                rs -> {
+                    if (!rs.next() || rs.getDate(1) == null) {
+                        return Optional.<LocalDate[]>empty();
+                    }
+                    return Optional.of(new LocalDate[]{rs.getDate(1).toLocalDate(), rs.getDate(2).toLocalDate()});
+                });
+    }
+
+    /**
+     * Recalcula desde las tablas de origen los resúmenes de un mes. Debe
+     * ejecutarse en su propia transacción: el bloqueo exclusivo del mes se
+     * mantiene hasta el commit.
+     *
+     * @param mes Mes a reconstruir
+     */
+    public void reconstruirMes(YearMonth mes) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?, ?)", rs -> null, CLAVE_BLOQUEO, indice(mes));
+        Date desde = Date.valueOf(mes.atDay(1));
+        Date hasta = Date.valueOf(mes.plusMonths(1).atDay(1));
+        Timestamp desdeTs = Timestamp.valueOf(mes.atDay(1).atStartOfDay());
+        Timestamp hastaTs = Timestamp.valueOf(mes.plusMonths(1).atDay(1).atStartOfDay());
+
+        jdbcTemplate.update("DELETE FROM resumen_diario_facturas WHERE dia >= ? AND dia < ?", desde, hasta);
+        jdbcTemplate.update(
+                "INSERT INTO resumen_diario_facturas (dia, estado, cantidad, monto) "
+                        + "SELECT CAST(fecha_emision AS DATE), estado, COUNT(*), COALESCE(SUM(total), 0) "
+                        + "FROM facturas WHERE fecha_emision >= ? AND fecha_emision < ? GROUP BY 1, 2",
+                desdeTs, hastaTs);
+
+        jdbcTemplate.update("DELETE FROM resumen_diario_citas WHERE dia >= ? AND dia < ?", desde, hasta);
+        jdbcTemplate.update(
+                "INSERT INTO resumen_diario_citas (dia, estado, tipo_servicio, veterinario_id, cantidad) "
+                        + "SELECT CAST(fecha_hora AS DATE), estado, COALESCE(tipo_servicio, ''), veterinario_id, COUNT(*) "
+                        + "FROM citas WHERE fecha_hora >= ? AND fecha_hora < ? GROUP BY 1, 2, 3, 4",
+                desdeTs, hastaTs);
+    }
+
+    /**
+     * Elimina los resúmenes fuera del rango del histórico.
+     *
+     * @param desde Primer día con datos
+     * @param hasta Último día con datos
+     */
+    public void eliminarFueraDeRango(LocalDate desde, LocalDate hasta) {
+        jdbcTemplate.update("DELETE FROM resumen_diario_facturas WHERE dia < ? OR dia > ?",
+                Date.valueOf(desde), Date.valueOf(hasta));
+        jdbcTemplate.update("DELETE FROM resumen_diario_citas WHERE dia < ? OR dia > ?",
+                Date.valueOf(desde), Date.valueOf(hasta));
+    }
+
+    private static int indice(YearMonth mes) {
+        return mes.getYear() * 12 + mes.getMonthValue() - 1;
+    }
+}
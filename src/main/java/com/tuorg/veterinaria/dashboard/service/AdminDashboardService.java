@@ -1,12 +1,17 @@
 package com.tuorg.veterinaria.dashboard.service;
 
+import com.tuorg.veterinaria.common.constants.AppConstants;
+import com.tuorg.veterinaria.configuracion.service.ConfigService;
 import com.tuorg.veterinaria.dashboard.dto.AdminDashboardResponse;
 import com.tuorg.veterinaria.dashboard.dto.AdminDashboardResponse.*;
+import com.tuorg.veterinaria.dashboard.repository.ResumenDiarioRepository;
+import com.tuorg.veterinaria.dashboard.repository.ResumenDiarioRepository.TotalMensual;
+import com.tuorg.veterinaria.dashboard.repository.ResumenDiarioRepository.TotalPorClave;
 import com.tuorg.veterinaria.gestionfacturacion.repository.FacturaRepository;
 import com.tuorg.veterinaria.gestioninventario.repository.ProductoRepository;
-import com.tuorg.veterinaria.gestionpacientes.repository.DesparasitacionRepository;
+import com.tuorg.veterinaria.gestionpacientes.model.PautaPreventiva;
+import com.tuorg.veterinaria.gestionpacientes.repository.AgendaPreventivaRepository;
 import com.tuorg.veterinaria.gestionpacientes.repository.PacienteRepository;
-import com.tuorg.veterinaria.gestionpacientes.repository.VacunacionRepository;
 import com.tuorg.veterinaria.gestionusuarios.repository.ClienteRepository;
 import com.tuorg.veterinaria.gestionusuarios.repository.UsuarioRepository;
 import com.tuorg.veterinaria.prestacioneservicios.repository.CitaRepository;
@@ -19,13 +24,15 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.TextStyle;
 import java.util.*;
 import java.util.stream.Collectors;
 
 /**
  * Servicio para generar el dashboard del administrador con datos reales de la BD.
+ * Las cifras de facturas y citas se leen de los resúmenes diarios que
+ * mantiene {@link ResumenDiarioService}, en lugar de recorrer las tablas.
  */
 @Service
 public class AdminDashboardService {
@@ -35,9 +42,10 @@ public class AdminDashboardService {
     private final CitaRepository citaRepository;
     private final FacturaRepository facturaRepository;
     private final ProductoRepository productoRepository;
-    private final VacunacionRepository vacunacionRepository;
-    private final DesparasitacionRepository desparasitacionRepository;
+    private final AgendaPreventivaRepository agendaPreventivaRepository;
     private final UsuarioRepository usuarioRepository;
+    private final ResumenDiarioRepository resumenDiarioRepository;
+    private final ConfigService configService;
 
     @Autowired
     public AdminDashboardService(
@@ -46,17 +54,19 @@ public class AdminDashboardService {
             CitaRepository citaRepository,
             FacturaRepository facturaRepository,
             ProductoRepository productoRepository,
-            VacunacionRepository vacunacionRepository,
-            DesparasitacionRepository desparasitacionRepository,
-            UsuarioRepository usuarioRepository) {
+            AgendaPreventivaRepository agendaPreventivaRepository,
+            UsuarioRepository usuarioRepository,
+            ResumenDiarioRepository resumenDiarioRepository,
+            ConfigService configService) {
         this.pacienteRepository = pacienteRepository;
         this.clienteRepository = clienteRepository;
         this.citaRepository = citaRepository;
         this.facturaRepository = facturaRepository;
         this.productoRepository = productoRepository;
-        this.vacunacionRepository = vacunacionRepository;
-        this.desparasitacionRepository = desparasitacionRepository;
+        this.agendaPreventivaRepository = agendaPreventivaRepository;
         this.usuarioRepository = usuarioRepository;
+        this.resumenDiarioRepository = resumenDiarioRepository;
+        this.configService = configService;
     }
 
     private static final Logger logger = LoggerFactory.getLogger(AdminDashboardService.class);
@@ -66,19 +76,27 @@ public class AdminDashboardService {
         try {
             logger.info("📊 Iniciando construcción del dashboard...");
             LocalDate hoy = LocalDate.now();
-            LocalDate inicioMes = hoy.withDayOfMonth(1);
-            LocalDate finMes = hoy.withDayOfMonth(hoy.lengthOfMonth());
-            LocalDate inicioMesAnterior = inicioMes.minusMonths(1);
-            LocalDate finMesAnterior = inicioMes.minusDays(1);
+            YearMonth mesActual = YearMonth.from(hoy);
+            YearMonth mesAnterior = mesActual.minusMonths(1);
+            YearMonth inicioAnio = YearMonth.of(hoy.getYear(), 1);
+
+            // Una sola lectura de los resúmenes cubre todas las secciones
+            LocalDate desde = (mesAnterior.isBefore(inicioAnio) ? mesAnterior : inicioAnio).atDay(1);
+            LocalDate hasta = inicioAnio.plusYears(1).atDay(1);
+            List<TotalMensual> facturasMes = resumenDiarioRepository.facturasPorMes(desde, hasta);
+            List<TotalMensual> citasMes = resumenDiarioRepository.citasPorMes(desde, hasta);
+            List<TotalPorClave> facturasEstado = resumenDiarioRepository.facturasPorEstado();
+            List<TotalPorClave> citasEstado = resumenDiarioRepository.citasPorEstado();
 
             logger.info("✓ Construyendo resumen general...");
-            ResumenGeneral resumen = construirResumenGeneral();
+            ResumenGeneral resumen = construirResumenGeneral(facturasEstado, citasEstado);
             
             logger.info("✓ Construyendo estadísticas financieras...");
-            EstadisticasFinancieras finanzas = construirEstadisticasFinancieras(inicioMes, finMes, inicioMesAnterior, finMesAnterior);
+            EstadisticasFinancieras finanzas = construirEstadisticasFinancieras(
+                    mesActual, mesAnterior, facturasMes, facturasEstado, citasEstado);
             
             logger.info("✓ Construyendo métricas de pacientes...");
-            MetricasPacientes pacientes = construirMetricasPacientes(inicioMes, finMes);
+            MetricasPacientes pacientes = construirMetricasPacientes(mesActual, citasMes, citasEstado);
             
             logger.info("✓ Construyendo estado de inventario...");
             EstadoInventario inventario = construirEstadoInventario();
@@ -87,7 +105,7 @@ public class AdminDashboardService {
             RendimientoPersonal personal = construirRendimientoPersonal();
             
             logger.info("✓ Construyendo datos para gráficos...");
-            DatosGraficos graficos = construirDatosGraficos();
+            DatosGraficos graficos = construirDatosGraficos(inicioAnio, facturasMes, citasMes);
 
             logger.info("✅ Dashboard construido exitosamente");
             return AdminDashboardResponse.builder()
@@ -104,21 +122,17 @@ public class AdminDashboardService {
         }
     }
 
-    private ResumenGeneral construirResumenGeneral() {
+    private ResumenGeneral construirResumenGeneral(List<TotalPorClave> facturasEstado,
+                                                   List<TotalPorClave> citasEstado) {
         Long totalPacientes = pacienteRepository.count();
         Long totalClientes = clienteRepository.count();
         Long totalCitas = citaRepository.count();
         Long totalFacturas = facturaRepository.count();
         
         // INGRESOS TOTALES: Solo facturas PAGADAS (ingresos reales confirmados)
-        BigDecimal ingresosTotales = facturaRepository.findAll().stream()
-                .filter(f -> "PAGADA".equals(f.getEstado())) // Solo facturas pagadas
-                .map(f -> f.getTotal() != null ? f.getTotal() : BigDecimal.ZERO)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal ingresosTotales = monto(facturasEstado, "PAGADA");
         
-        Long citasPendientes = citaRepository.findAll().stream()
-                .filter(c -> "PROGRAMADA".equals(c.getEstado()))
-                .count();
+        Long citasPendientes = cantidad(citasEstado, "PROGRAMADA");
 
         return ResumenGeneral.builder()
                 .totalPacientes(totalPacientes)
@@ -131,22 +145,12 @@ public class AdminDashboardService {
     }
 
     private EstadisticasFinancieras construirEstadisticasFinancieras(
-            LocalDate inicioMes, LocalDate finMes,
-            LocalDate inicioMesAnterior, LocalDate finMesAnterior) {
+            YearMonth mesActual, YearMonth mesAnterior, List<TotalMensual> facturasMes,
+            List<TotalPorClave> facturasEstado, List<TotalPorClave> citasEstado) {
         
-        BigDecimal ingresosMesActual = facturaRepository.findAll().stream()
-                .filter(f -> f.getFechaEmision() != null && 
-                            !f.getFechaEmision().isBefore(inicioMes.atStartOfDay()) &&
-                            !f.getFechaEmision().isAfter(finMes.atTime(23, 59, 59)))
-                .map(f -> f.getTotal() != null ? f.getTotal() : BigDecimal.ZERO)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal ingresosMesActual = montoDelMes(facturasMes, mesActual);
 
-        BigDecimal ingresosMesAnterior = facturaRepository.findAll().stream()
-                .filter(f -> f.getFechaEmision() != null &&
-                            !f.getFechaEmision().isBefore(inicioMesAnterior.atStartOfDay()) &&
-                            !f.getFechaEmision().isAfter(finMesAnterior.atTime(23, 59, 59)))
-                .map(f -> f.getTotal() != null ? f.getTotal() : BigDecimal.ZERO)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal ingresosMesAnterior = montoDelMes(facturasMes, mesAnterior);
 
         BigDecimal porcentajeCrecimiento = BigDecimal.ZERO;
         if (ingresosMesAnterior.compareTo(BigDecimal.ZERO) > 0) {
@@ -156,22 +160,13 @@ public class AdminDashboardService {
                     .multiply(BigDecimal.valueOf(100));
         }
 
-        Long facturasPendientes = facturaRepository.findAll().stream()
-                .filter(f -> "PENDIENTE".equals(f.getEstado()))
-                .count();
+        Long facturasPendientes = cantidad(facturasEstado, "PENDIENTE");
 
-        BigDecimal montoFacturasPendientes = facturaRepository.findAll().stream()
-                .filter(f -> "PENDIENTE".equals(f.getEstado()))
-                .map(f -> f.getTotal() != null ? f.getTotal() : BigDecimal.ZERO)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal montoFacturasPendientes = monto(facturasEstado, "PENDIENTE");
 
-        Long facturasRealizadas = facturaRepository.findAll().stream()
-                .filter(f -> "PAGADA".equals(f.getEstado()))
-                .count();
+        Long facturasRealizadas = cantidad(facturasEstado, "PAGADA");
 
-        Long citasRealizadas = citaRepository.findAll().stream()
-                .filter(c -> "REALIZADA".equals(c.getEstado()))
-                .count();
+        Long citasRealizadas = cantidad(citasEstado, "REALIZADA");
 
         BigDecimal promedioIngresoPorCita = BigDecimal.ZERO;
         if (citasRealizadas > 0 && ingresosMesActual.compareTo(BigDecimal.ZERO) > 0) {
@@ -190,38 +185,25 @@ public class AdminDashboardService {
                 .build();
     }
 
-    private MetricasPacientes construirMetricasPacientes(LocalDate inicioMes, LocalDate finMes) {
+    private MetricasPacientes construirMetricasPacientes(YearMonth mesActual, List<TotalMensual> citasMes,
+                                                         List<TotalPorClave> citasEstado) {
         Long pacientesActivos = pacienteRepository.count();
         
         Long pacientesNuevosEsteMes = 0L; // No hay campo fechaRegistro en Paciente
 
-        Long citasRealizadasEsteMes = citaRepository.findAll().stream()
-                .filter(c -> c.getFechaHora() != null &&
-                            c.getFechaHora().toLocalDate().compareTo(inicioMes) >= 0 &&
-                            c.getFechaHora().toLocalDate().compareTo(finMes) <= 0 &&
-                            "REALIZADA".equals(c.getEstado()))
-                .count();
+        Long citasRealizadasEsteMes = cantidadDelMes(citasMes, mesActual, "REALIZADA");
 
-        Long citasPendientes = citaRepository.findAll().stream()
-                .filter(c -> "PROGRAMADA".equals(c.getEstado()))
-                .count();
+        Long citasPendientes = cantidad(citasEstado, "PROGRAMADA");
 
-        Long citasCanceladasEsteMes = citaRepository.findAll().stream()
-                .filter(c -> c.getFechaHora() != null &&
-                            c.getFechaHora().toLocalDate().compareTo(inicioMes) >= 0 &&
-                            c.getFechaHora().toLocalDate().compareTo(finMes) <= 0 &&
-                            "CANCELADA".equals(c.getEstado()))
-                .count();
+        Long citasCanceladasEsteMes = cantidadDelMes(citasMes, mesActual, "CANCELADA");
 
-        Long vacunacionesPendientes = vacunacionRepository.findAll().stream()
-                .filter(v -> v.getProximaDosis() != null && 
-                            v.getProximaDosis().isAfter(LocalDate.now()))
-                .count();
+        // Dosis debidas en los próximos 30 días (incluye vencidas), según la agenda preventiva
+        LocalDate limitePendientes = LocalDate.now().plusDays(30);
+        Long vacunacionesPendientes = agendaPreventivaRepository.contarDebidas(
+                PautaPreventiva.Tipo.VACUNA, limitePendientes);
 
-        Long desparasitacionesPendientes = desparasitacionRepository.findAll().stream()
-                .filter(d -> d.getProximaAplicacion() != null && 
-                            d.getProximaAplicacion().isAfter(LocalDate.now()))
-                .count();
+        Long desparasitacionesPendientes = agendaPreventivaRepository.contarDebidas(
+                PautaPreventiva.Tipo.DESPARASITACION, limitePendientes);
 
         return MetricasPacientes.builder()
                 .pacientesActivos(pacientesActivos)
@@ -236,9 +218,11 @@ public class AdminDashboardService {
 
     private EstadoInventario construirEstadoInventario() {
         Long totalProductos = productoRepository.count();
+        int stockMinimo = configService.getFoto()
+                .getEntero(AppConstants.PARAM_STOCK_MINIMO, AppConstants.STOCK_MINIMO_POR_DEFECTO);
         
         Long productosStockBajo = productoRepository.findAll().stream()
-                .filter(p -> p.getStock() != null && p.getStock() < 10 && p.getStock() > 0)
+                .filter(p -> p.getStock() != null && p.getStock() < stockMinimo && p.getStock() > 0)
                 .count();
 
         Long productosAgotados = productoRepository.findAll().stream()
@@ -270,13 +254,8 @@ public class AdminDashboardService {
                 .filter(u -> u.getRol() != null && "SECRETARIO".equals(u.getRol().getNombreRol()))
                 .count();
 
-        Map<String, Long> citasPorVeterinario = citaRepository.findAll().stream()
-                .filter(c -> c.getVeterinario() != null && c.getVeterinario().getNombre() != null)
-                .collect(Collectors.groupingBy(
-                        c -> c.getVeterinario().getNombre() + " " + 
-                             (c.getVeterinario().getApellido() != null ? c.getVeterinario().getApellido() : ""),
-                        Collectors.counting()
-                ));
+        Map<String, Long> citasPorVeterinario = resumenDiarioRepository.citasPorVeterinario().stream()
+                .collect(Collectors.toMap(TotalPorClave::clave, TotalPorClave::cantidad, Long::sum));
 
         return RendimientoPersonal.builder()
                 .totalVeterinarios(totalVeterinarios)
@@ -285,9 +264,10 @@ public class AdminDashboardService {
                 .build();
     }
 
-    private DatosGraficos construirDatosGraficos() {
-        List<DatoMensual> ingresosPorMes = calcularIngresosMensuales();
-        List<DatoMensual> citasPorMes = calcularCitasMensuales();
+    private DatosGraficos construirDatosGraficos(YearMonth inicioAnio, List<TotalMensual> facturasMes,
+                                                 List<TotalMensual> citasMes) {
+        List<DatoMensual> ingresosPorMes = calcularIngresosMensuales(inicioAnio, facturasMes);
+        List<DatoMensual> citasPorMes = calcularCitasMensuales(inicioAnio, citasMes);
         List<DistribucionPorTipo> distribucionServicios = calcularDistribucionServicios();
         List<TendenciaClientes> tendenciaClientes = calcularTendenciaClientes();
 
@@ -299,53 +279,29 @@ public class AdminDashboardService {
                 .build();
     }
 
-    private List<DatoMensual> calcularIngresosMensuales() {
-        LocalDate inicioAnio = LocalDate.now().withDayOfYear(1);
+    private List<DatoMensual> calcularIngresosMensuales(YearMonth inicioAnio, List<TotalMensual> facturasMes) {
         List<DatoMensual> datos = new ArrayList<>();
 
         for (int i = 0; i < 12; i++) {
-            LocalDate mes = inicioAnio.plusMonths(i);
-            LocalDate inicioMes = mes.withDayOfMonth(1);
-            LocalDate finMes = mes.withDayOfMonth(mes.lengthOfMonth());
-
-            BigDecimal ingresos = facturaRepository.findAll().stream()
-                    .filter(f -> f.getFechaEmision() != null &&
-                                !f.getFechaEmision().isBefore(inicioMes.atStartOfDay()) &&
-                                !f.getFechaEmision().isAfter(finMes.atTime(23, 59, 59)))
-                    .map(f -> f.getTotal() != null ? f.getTotal() : BigDecimal.ZERO)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            Long cantidadFacturas = facturaRepository.findAll().stream()
-                    .filter(f -> f.getFechaEmision() != null &&
-                                !f.getFechaEmision().isBefore(inicioMes.atStartOfDay()) &&
-                                !f.getFechaEmision().isAfter(finMes.atTime(23, 59, 59)))
-                    .count();
+            YearMonth mes = inicioAnio.plusMonths(i);
 
             datos.add(DatoMensual.builder()
                     .mes(mes.getMonth().getDisplayName(TextStyle.SHORT, Locale.forLanguageTag("es")))
                     .anio(mes.getYear())
-                    .valor(ingresos)
-                    .cantidad(cantidadFacturas)
+                    .valor(montoDelMes(facturasMes, mes))
+                    .cantidad(cantidadDelMes(facturasMes, mes, null))
                     .build());
         }
 
         return datos;
     }
 
-    private List<DatoMensual> calcularCitasMensuales() {
-        LocalDate inicioAnio = LocalDate.now().withDayOfYear(1);
+    private List<DatoMensual> calcularCitasMensuales(YearMonth inicioAnio, List<TotalMensual> citasMes) {
         List<DatoMensual> datos = new ArrayList<>();
 
         for (int i = 0; i < 12; i++) {
-            LocalDate mes = inicioAnio.plusMonths(i);
-            LocalDate inicioMes = mes.withDayOfMonth(1);
-            LocalDate finMes = mes.withDayOfMonth(mes.lengthOfMonth());
-
-            Long cantidadCitas = citaRepository.findAll().stream()
-                    .filter(c -> c.getFechaHora() != null &&
-                                c.getFechaHora().toLocalDate().compareTo(inicioMes) >= 0 &&
-                                c.getFechaHora().toLocalDate().compareTo(finMes) <= 0)
-                    .count();
+            YearMonth mes = inicioAnio.plusMonths(i);
+            Long cantidadCitas = cantidadDelMes(citasMes, mes, null);
 
             datos.add(DatoMensual.builder()
                     .mes(mes.getMonth().getDisplayName(TextStyle.SHORT, Locale.forLanguageTag("es")))
@@ -359,17 +315,17 @@ public class AdminDashboardService {
     }
 
     private List<DistribucionPorTipo> calcularDistribucionServicios() {
-        Long totalCitas = citaRepository.count();
+        Map<String, Long> distribucion = resumenDiarioRepository.citasPorTipoServicio().stream()
+                .filter(t -> t.cantidad() > 0)
+                .collect(Collectors.toMap(
+                        t -> t.clave() == null || t.clave().isEmpty() ? "Sin tipo" : t.clave(),
+                        TotalPorClave::cantidad,
+                        Long::sum));
+        long totalCitas = distribucion.values().stream().mapToLong(Long::longValue).sum();
         if (totalCitas == 0) {
             return Collections.emptyList();
         }
 
-        Map<String, Long> distribucion = citaRepository.findAll().stream()
-                .collect(Collectors.groupingBy(
-                        c -> c.getTipoServicio() != null ? c.getTipoServicio() : "Sin tipo",
-                        Collectors.counting()
-                ));
-
         return distribucion.entrySet().stream()
                 .map(e -> DistribucionPorTipo.builder()
                         .tipo(e.getKey())
@@ -383,29 +339,53 @@ public class AdminDashboardService {
     }
 
     private List<TendenciaClientes> calcularTendenciaClientes() {
-        LocalDate hoy = LocalDate.now();
+        YearMonth actual = YearMonth.now();
+        Map<YearMonth, Long> nuevosPorMes =
+                resumenDiarioRepository.clientesNuevosPorMes(actual.minusMonths(5).atDay(1));
+        Long activos = clienteRepository.count();
         List<TendenciaClientes> tendencia = new ArrayList<>();
 
         for (int i = 5; i >= 0; i--) {
-            LocalDate mes = hoy.minusMonths(i);
-            LocalDate inicioMes = mes.withDayOfMonth(1);
-            LocalDate finMes = mes.withDayOfMonth(mes.lengthOfMonth());
-
-            Long nuevos = clienteRepository.findAll().stream()
-                    .filter(c -> c.getFechaRegistro() != null &&
-                                !c.getFechaRegistro().isBefore(inicioMes.atStartOfDay()) &&
-                                !c.getFechaRegistro().isAfter(finMes.atTime(23, 59, 59)))
-                    .count();
-
-            Long activos = clienteRepository.count();
+            YearMonth mes = actual.minusMonths(i);
 
             tendencia.add(TendenciaClientes.builder()
                     .periodo(mes.getMonth().getDisplayName(TextStyle.SHORT, Locale.forLanguageTag("es")))
-                    .nuevos(nuevos)
+                    .nuevos(nuevosPorMes.getOrDefault(mes, 0L))
                     .activos(activos)
                     .build());
         }
 
         return tendencia;
     }
+
+    private static Long cantidad(List<TotalPorClave> totales, String estado) {
+        return totales.stream()
+                .filter(t -> estado.equals(t.clave()))
+                .mapToLong(TotalPorClave::cantidad)
+                .sum();
+    }
+
+    private static BigDecimal monto(List<TotalPorClave> totales, String estado) {
+        return totales.stream()
+                .filter(t -> estado.equals(t.clave()))
+                .map(TotalPorClave::monto)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    /**
+     * Cantidad de un mes, de un estado concreto o de todos si es null.
+     */
+    private static Long cantidadDelMes(List<TotalMensual> totales, YearMonth mes, String estado) {
+        return totales.stream()
+                .filter(t -> mes.equals(t.mes()) && (estado == null || estado.equals(t.estado())))
+                .mapToLong(TotalMensual::cantidad)
+                .sum();
+    }
+
+    private static BigDecimal montoDelMes(List<TotalMensual> totales, YearMonth mes) {
+        return totales.stream()
+                .filter(t -> mes.equals(t.mes()))
+                .map(TotalMensual::monto)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
 }
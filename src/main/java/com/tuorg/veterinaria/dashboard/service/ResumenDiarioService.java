@@ -0,0 +1,221 @@
+package com.tuorg.veterinaria.dashboard.service;
+
+import com.tuorg.veterinaria.dashboard.dto.ReconstruccionResumenResponse;
+import com.tuorg.veterinaria.dashboard.repository.ResumenDiarioRepository;
+import com.tuorg.veterinaria.gestionfacturacion.model.Factura;
+import com.tuorg.veterinaria.prestacioneservicios.model.Cita;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Servicio de mantenimiento de los resúmenes diarios de facturas y citas.
+ *
+ * Los servicios de facturación y citas informan cada alta o cambio de
+ * estado con una foto anterior y otra posterior de los campos agregados;
+ * la diferencia se aplica en la misma transacción, restando en la clave
+ * anterior y sumando en la nueva. La reconstrucción desde el histórico
+ * procesa un mes por transacción, en paralelo.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Service
+public class ResumenDiarioService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResumenDiarioService.class);
+
+    /**
+     * Meses reconstruidos en paralelo como máximo (cada uno ocupa una conexión).
+     */
+    private static final int MAXIMO_HILOS_RECONSTRUCCION = 4;
+
+    /**
+     * Campos de una factura que intervienen en el resumen.
+     */
+    public record FotoFactura(LocalDate dia, String estado, BigDecimal total) {
+
+        /**
+         * Toma la foto del estado actual de una factura.
+         *
+         * @param factura Factura
+         * @return Foto, o null si la factura aún no tiene fecha de emisión
+         */
+        public static FotoFactura de(Factura factura) {
+            if (factura.getFechaEmision() == null) {
+                return null;
+            }
+            return new FotoFactura(factura.getFechaEmision().toLocalDate(), factura.getEstado(),
+                    factura.getTotal() != null ? factura.getTotal() : BigDecimal.ZERO);
+        }
+    }
+
+    /**
+     * Campos de una cita que intervienen en el resumen.
+     */
+    public record FotoCita(LocalDate dia, String estado, String tipoServicio, Long veterinarioId) {
+
+        /**
+         * Toma la foto del estado actual de una cita.
+         *
+         * @param cita Cita
+         * @return Foto, o null si la cita aún no tiene fecha o veterinario
+         */
+        public static FotoCita de(Cita cita) {
+            if (cita.getFechaHora() == null || cita.getVeterinario() == null) {
+                return null;
+            }
+            return new FotoCita(cita.getFechaHora().toLocalDate(), cita.getEstado(),
+                    cita.getTipoServicio() != null ? cita.getTipoServicio() : "",
+                    cita.getVeterinario().getIdUsuario());
+        }
+    }
+
+    /**
+     * Repositorio JDBC de los resúmenes.
+     */
+    private final ResumenDiarioRepository resumenDiarioRepository;
+
+    /**
+     * Plantilla para ejecutar cada mes de la reconstrucción en su propia transacción.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param resumenDiarioRepository Repositorio JDBC de los resúmenes
+     * @param transactionTemplate Plantilla de transacciones
+     */
+    @Autowired
+    public ResumenDiarioService(ResumenDiarioRepository resumenDiarioRepository,
+                                TransactionTemplate transactionTemplate) {
+        this.resumenDiarioRepository = resumenDiarioRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Construye los resúmenes al arrancar si todavía están vacíos.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        if (resumenDiarioRepository.estaVacio()) {
+            reconstruir();
+        }
+    }
+
+    /**
+     * Aplica al resumen el alta o cambio de una factura.
+     *
+     * @param anterior Foto previa al cambio (null en el alta)
+     * @param actual Foto posterior al cambio
+     */
+    @Transactional
+    public void registrarFactura(FotoFactura anterior, FotoFactura actual) {
+        if (Objects.equals(anterior, actual)) {
+            return;
+        }
+        bloquear(anterior != null ? anterior.dia() : null, actual != null ? actual.dia() : null);
+        if (anterior != null) {
+            resumenDiarioRepository.sumarFactura(anterior.dia(), anterior.estado(), -1, anterior.total().negate());
+        }
+        if (actual != null) {
+            resumenDiarioRepository.sumarFactura(actual.dia(), actual.estado(), 1, actual.total());
+        }
+    }
+
+    /**
+     * Aplica al resumen el alta o cambio de una cita.
+     *
+     * @param anterior Foto previa al cambio (null en el alta)
+     * @param actual Foto posterior al cambio
+     */
+    @Transactional
+    public void registrarCita(FotoCita anterior, FotoCita actual) {
+        if (Objects.equals(anterior, actual)) {
+            return;
+        }
+        bloquear(anterior != null ? anterior.dia() : null, actual != null ? actual.dia() : null);
+        if (anterior != null) {
+            resumenDiarioRepository.sumarCita(anterior.dia(), anterior.estado(), anterior.tipoServicio(),
+                    anterior.veterinarioId(), -1);
+        }
+        if (actual != null) {
+            resumenDiarioRepository.sumarCita(actual.dia(), actual.estado(), actual.tipoServicio(),
+                    actual.veterinarioId(), 1);
+        }
+    }
+
+    /**
+     * Reconstruye los resúmenes de todo el histórico, un mes por
+     * transacción y varios meses en paralelo.
+     *
+     * @return Resumen de la reconstrucción
+     */
+    public ReconstruccionResumenResponse reconstruir() {
+        long inicio = System.currentTimeMillis();
+        Optional<LocalDate[]> rango = resumenDiarioRepository.rangoHistorico();
+        LocalDate hoy = LocalDate.now();
+        LocalDate desde = rango.map(r -> r[0]).orElse(hoy);
+        LocalDate hasta = rango.map(r -> r[1]).filter(d -> d.isAfter(hoy)).orElse(hoy);
+
+        List<YearMonth> meses = new ArrayList<>();
+        for (YearMonth mes = YearMonth.from(desde); !mes.isAfter(YearMonth.from(hasta)); mes = mes.plusMonths(1)) {
+            meses.add(mes);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(MAXIMO_HILOS_RECONSTRUCCION,
+                Math.max(1, Math.min(meses.size(), Runtime.getRuntime().availableProcessors()))));
+        try {
+            CompletableFuture.allOf(meses.stream()
+                    .map(mes -> CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(
+                            estado -> resumenDiarioRepository.reconstruirMes(mes)), executor))
+                    .toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException causa ? causa : e;
+        } finally {
+            executor.shutdown();
+        }
+        resumenDiarioRepository.eliminarFueraDeRango(desde, hasta);
+
+        long duracion = System.currentTimeMillis() - inicio;
+        logger.info("Resúmenes diarios reconstruidos: {} meses ({} a {}) en {} ms", meses.size(), desde, hasta, duracion);
+        return ReconstruccionResumenResponse.builder()
+                .desde(desde)
+                .hasta(hasta)
+                .meses(meses.size())
+                .duracionMs(duracion)
+                .build();
+    }
+
+    private void bloquear(LocalDate anterior, LocalDate actual) {
+        TreeSet<YearMonth> meses = new TreeSet<>();
+        if (anterior != null) {
+            meses.add(YearMonth.from(anterior));
+        }
+        if (actual != null) {
+            meses.add(YearMonth.from(actual));
+        }
+        resumenDiarioRepository.bloquearMeses(meses);
+    }
+}
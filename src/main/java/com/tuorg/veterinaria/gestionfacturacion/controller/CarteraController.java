@@ -0,0 +1,90 @@
+package com.tuorg.veterinaria.gestionfacturacion.controller;
+
+import com.tuorg.veterinaria.gestionfacturacion.model.FormatoExportacion;
+import com.tuorg.veterinaria.gestionfacturacion.service.CarteraService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Controlador REST de reportes de cartera.
+ *
+ * El reporte se escribe directamente en la respuesta a medida que se lee,
+ * sin envolverlo en ApiResponse, y admite GET condicional con el ETag de
+ * la versión de cartera vigente.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/cartera")
+public class CarteraController {
+
+    /**
+     * Servicio de cartera.
+     */
+    private final CarteraService carteraService;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param carteraService Servicio de cartera
+     */
+    @Autowired
+    public CarteraController(CarteraService carteraService) {
+        this.carteraService = carteraService;
+    }
+
+    /**
+     * Exporta la antigüedad de cartera por cliente en tramos de 0-30, 31-60,
+     * 61-90 y más de 90 días. Sin formato explícito se elige según la
+     * cabecera Accept (NDJSON por defecto).
+     *
+     * @param formato Formato de exportación (opcional)
+     * @param fechaCorte Fecha de corte (opcional, por defecto hoy)
+     * @param request Petición HTTP
+     * @param response Respuesta HTTP
+     * @throws IOException Si falla la escritura de la respuesta
+     */
+    @GetMapping("/antiguedad")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SECRETARIO')")
+    public void exportarAntiguedad(
+            @RequestParam(required = false) FormatoExportacion formato,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaCorte,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        LocalDate fecha = carteraService.resolverFechaCorte(fechaCorte);
+        FormatoExportacion formatoFinal = formato != null ? formato : formatoSegunAccept(request);
+        if (new ServletWebRequest(request, response).checkNotModified(carteraService.etag(fecha, formatoFinal))) {
+            return;
+        }
+
+        response.setContentType(formatoFinal.getTipoContenido());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("cartera-antiguedad-" + fecha + "." + formatoFinal.getExtension())
+                .build()
+                .toString());
+        carteraService.exportar(fecha, formatoFinal, response.getOutputStream());
+    }
+
+    private static FormatoExportacion formatoSegunAccept(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains(FormatoExportacion.CSV.getTipoContenido())
+                ? FormatoExportacion.CSV
+                : FormatoExportacion.NDJSON;
+    }
+}
@@ -4,13 +4,17 @@ import com.tuorg.veterinaria.common.dto.ApiResponse;
 import com.tuorg.veterinaria.gestionfacturacion.dto.FacturaPagoRequest;
 import com.tuorg.veterinaria.gestionfacturacion.dto.FacturaRequest;
 import com.tuorg.veterinaria.gestionfacturacion.dto.FacturaResponse;
+import com.tuorg.veterinaria.gestionfacturacion.dto.ResumenConceptoFacturadoResponse;
+import com.tuorg.veterinaria.gestionfacturacion.model.TipoLineaFactura;
 import com.tuorg.veterinaria.gestionfacturacion.service.FacturaService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -65,6 +69,23 @@ public class FacturaController {
         return ResponseEntity.ok(ApiResponse.success("Facturas obtenidas exitosamente", facturas));
     }
 
+    /**
+     * Agrega lo facturado por servicio o producto en un período.
+     * 
+     * @param tipo SERVICIO o PRODUCTO (opcional)
+     * @param desde Primer día del período (opcional, por defecto inicio del mes)
+     * @param hasta Último día del período (opcional, por defecto hoy)
+     * @return Respuesta con los importes por concepto
+     */
+    @GetMapping("/resumen-conceptos")
+    public ResponseEntity<ApiResponse<List<ResumenConceptoFacturadoResponse>>> resumirPorConcepto(
+            @RequestParam(required = false) TipoLineaFactura tipo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        List<ResumenConceptoFacturadoResponse> resumen = facturaService.resumirPorConcepto(tipo, desde, hasta);
+        return ResponseEntity.ok(ApiResponse.success("Resumen por concepto obtenido exitosamente", resumen));
+    }
+
     /**
      * Obtiene una factura por su ID.
      * 
@@ -0,0 +1,47 @@
+package com.tuorg.veterinaria.gestionfacturacion.dto;
+
+import com.tuorg.veterinaria.gestionfacturacion.model.TipoLineaFactura;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO de una línea de factura (servicio o producto).
+ */
+@Data
+@Schema(name = "FacturaLineaRequest", description = "Servicio o producto facturado")
+public class FacturaLineaRequest {
+
+    @NotNull(message = "El tipo de línea es obligatorio")
+    @Schema(description = "Concepto facturado", example = "SERVICIO", requiredMode = Schema.RequiredMode.REQUIRED)
+    private TipoLineaFactura tipo;
+
+    @Schema(description = "Servicio del catálogo (líneas de tipo SERVICIO)", example = "1")
+    private Long servicioId;
+
+    @Schema(description = "Producto del inventario (líneas de tipo PRODUCTO)", example = "4")
+    private Long productoId;
+
+    @Size(max = 255, message = "La descripción no puede superar 255 caracteres")
+    @Schema(description = "Descripción; por defecto el nombre del servicio o producto", example = "Consulta general")
+    private String descripcion;
+
+    @NotNull(message = "La cantidad es obligatoria")
+    @DecimalMin(value = "0.0", inclusive = false, message = "La cantidad debe ser mayor que cero")
+    @Schema(description = "Cantidad facturada", example = "1", requiredMode = Schema.RequiredMode.REQUIRED)
+    private BigDecimal cantidad;
+
+    @DecimalMin(value = "0.0", inclusive = true, message = "El precio unitario debe ser mayor o igual a cero")
+    @Schema(description = "Precio unitario; por defecto el precio del catálogo", example = "40000")
+    private BigDecimal precioUnitario;
+
+    @DecimalMin(value = "0.0", inclusive = true, message = "El porcentaje de impuesto debe ser mayor o igual a cero")
+    @DecimalMax(value = "100.0", inclusive = true, message = "El porcentaje de impuesto no puede superar 100")
+    @Schema(description = "Porcentaje de impuesto de la línea", example = "19")
+    private BigDecimal porcentajeImpuesto;
+}
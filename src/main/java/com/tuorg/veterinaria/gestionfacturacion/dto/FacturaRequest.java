@@ -1,11 +1,14 @@
 package com.tuorg.veterinaria.gestionfacturacion.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -19,9 +22,9 @@ public class FacturaRequest {
     @Schema(description = "Identificador del cliente al que se factura", example = "8", requiredMode = Schema.RequiredMode.REQUIRED)
     private Long clienteId;
 
-    @NotNull(message = "El total es obligatorio")
     @DecimalMin(value = "0.0", inclusive = true, message = "El total debe ser mayor o igual a cero")
-    @Schema(description = "Monto total de la factura", example = "145000.50", requiredMode = Schema.RequiredMode.REQUIRED)
+    @Schema(description = "Monto total de la factura; obligatorio sin líneas, con líneas se calcula y, si se envía, debe coincidir",
+            example = "145000.50")
     private BigDecimal total;
 
     @Schema(description = "Forma de pago pactada", example = "TARJETA")
@@ -29,5 +32,10 @@ public class FacturaRequest {
 
     @Schema(description = "Contenido detallado de la factura en formato JSON", example = "{\"servicios\":[{\"nombre\":\"Consulta\",\"monto\":40000}]}")
     private Map<String, Object> contenido;
+
+    @Valid
+    @Size(max = 500, message = "Una factura admite como máximo 500 líneas")
+    @Schema(description = "Líneas de la factura; el total se calcula a partir de ellas")
+    private List<FacturaLineaRequest> lineas;
 }
 
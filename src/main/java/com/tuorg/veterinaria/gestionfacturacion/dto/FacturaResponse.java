@@ -6,6 +6,7 @@ import lombok.Data;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -28,6 +29,12 @@ public class FacturaResponse {
     @Schema(description = "Monto total cobrado", example = "145000.50")
     private BigDecimal total;
 
+    @Schema(description = "Suma de las líneas sin impuestos (null en facturas sin líneas)", example = "122000.00")
+    private BigDecimal subtotal;
+
+    @Schema(description = "Impuestos de las líneas (null en facturas sin líneas)", example = "23180.00")
+    private BigDecimal impuestos;
+
     @Schema(description = "Forma de pago utilizada", example = "EFECTIVO")
     private String formaPago;
 
@@ -37,6 +44,9 @@ public class FacturaResponse {
     @Schema(description = "Contenido detallado de la factura")
     private Map<String, Object> contenido;
 
+    @Schema(description = "Líneas tipadas de la factura (vacío en facturas anteriores)")
+    private List<LineaSummary> lineas;
+
     @Schema(description = "Resumen del cliente al que se factura")
     private ClienteSummary cliente;
 
@@ -60,5 +70,46 @@ public class FacturaResponse {
         @Schema(description = "Teléfono de contacto", example = "+57 3001234567")
         private String telefono;
     }
-}
 
+    /**
+     * Línea de la factura con sus importes calculados.
+     */
+    @Data
+    @Builder
+    @Schema(name = "FacturaLineaSummary", description = "Servicio o producto facturado")
+    public static class LineaSummary {
+
+        @Schema(description = "Número de línea", example = "1")
+        private int numero;
+
+        @Schema(description = "Concepto facturado", example = "SERVICIO")
+        private String tipo;
+
+        @Schema(description = "Servicio del catálogo", example = "1")
+        private Long servicioId;
+
+        @Schema(description = "Producto del inventario", example = "4")
+        private Long productoId;
+
+        @Schema(description = "Descripción de la línea", example = "Consulta general")
+        private String descripcion;
+
+        @Schema(description = "Cantidad facturada", example = "1")
+        private BigDecimal cantidad;
+
+        @Schema(description = "Precio unitario", example = "40000.00")
+        private BigDecimal precioUnitario;
+
+        @Schema(description = "Cantidad por precio unitario", example = "40000.00")
+        private BigDecimal subtotal;
+
+        @Schema(description = "Porcentaje de impuesto", example = "19.00")
+        private BigDecimal porcentajeImpuesto;
+
+        @Schema(description = "Importe del impuesto", example = "7600.00")
+        private BigDecimal impuesto;
+
+        @Schema(description = "Subtotal más impuesto", example = "47600.00")
+        private BigDecimal total;
+    }
+}
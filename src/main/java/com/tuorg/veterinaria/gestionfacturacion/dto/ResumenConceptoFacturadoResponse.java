@@ -0,0 +1,44 @@
+package com.tuorg.veterinaria.gestionfacturacion.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO con los importes facturados de un servicio o producto en un período.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "ResumenConceptoFacturadoResponse", description = "Importes facturados por servicio o producto")
+public class ResumenConceptoFacturadoResponse {
+
+    @Schema(description = "Concepto facturado", example = "SERVICIO")
+    private String tipo;
+
+    @Schema(description = "ID del servicio o producto (null en líneas libres)", example = "1")
+    private Long conceptoId;
+
+    @Schema(description = "Nombre del servicio o producto", example = "Consulta general")
+    private String concepto;
+
+    @Schema(description = "Cantidad total facturada", example = "42")
+    private BigDecimal cantidad;
+
+    @Schema(description = "Suma de subtotales", example = "1680000.00")
+    private BigDecimal subtotal;
+
+    @Schema(description = "Suma de impuestos", example = "319200.00")
+    private BigDecimal impuestos;
+
+    @Schema(description = "Suma de totales", example = "1999200.00")
+    private BigDecimal total;
+
+    @Schema(description = "Facturas distintas que incluyen el concepto", example = "40")
+    private long facturas;
+}
@@ -1,6 +1,7 @@
 package com.tuorg.veterinaria.gestionfacturacion.model;
 
 import com.tuorg.veterinaria.common.constants.AppConstants;
+import com.tuorg.veterinaria.gestionpacientes.listener.FichaPacienteEntityListener;
 import com.tuorg.veterinaria.gestionusuarios.model.Cliente;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -24,6 +25,7 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "facturas", schema = "public")
+@EntityListeners(FichaPacienteEntityListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -61,6 +63,20 @@ public class Factura {
     @Column(name = "total", nullable = false, precision = 14, scale = 2)
     private BigDecimal total;
 
+    /**
+     * Suma de los subtotales de las líneas (sin impuestos).
+     * Null en facturas sin líneas tipadas.
+     */
+    @Column(name = "subtotal", precision = 14, scale = 2)
+    private BigDecimal subtotal;
+
+    /**
+     * Suma de los impuestos de las líneas.
+     * Null en facturas sin líneas tipadas.
+     */
+    @Column(name = "impuestos", precision = 14, scale = 2)
+    private BigDecimal impuestos;
+
     /**
      * Forma de pago utilizada.
      */
@@ -84,7 +100,8 @@ public class Factura {
 
     /**
      * Contenido de la factura en formato JSON.
-     * Incluye detalles de servicios, impuestos, descuentos, etc.
+     * En facturas con líneas tipadas (tabla factura_lineas) solo guarda los
+     * datos adicionales enviados por el cliente; el detalle se lee de las líneas.
      */
     @Column(name = "contenido", columnDefinition = "JSONB")
     private String contenido;
@@ -0,0 +1,34 @@
+package com.tuorg.veterinaria.gestionfacturacion.model;
+
+/**
+ * Formatos de exportación en streaming de los reportes de facturación.
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public enum FormatoExportacion {
+    /**
+     * CSV con cabecera (RFC 4180), separador coma.
+     */
+    CSV("text/csv", "csv"),
+    /**
+     * Un objeto JSON por línea (NDJSON).
+     */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String tipoContenido;
+    private final String extension;
+
+    FormatoExportacion(String tipoContenido, String extension) {
+        this.tipoContenido = tipoContenido;
+        this.extension = extension;
+    }
+
+    public String getTipoContenido() {
+        return tipoContenido;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,18 @@
+package com.tuorg.veterinaria.gestionfacturacion.model;
+
+/**
+ * Concepto facturado en una línea de factura.
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public enum TipoLineaFactura {
+    /**
+     * Servicio del catálogo (consulta, cirugía, baño...).
+     */
+    SERVICIO,
+    /**
+     * Producto del inventario.
+     */
+    PRODUCTO
+}
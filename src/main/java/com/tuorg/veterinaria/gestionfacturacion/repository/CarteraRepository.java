@@ -0,0 +1,122 @@
+package com.tuorg.veterinaria.gestionfacturacion.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * Acceso JDBC al reporte de antigüedad de cartera.
+ *
+ * Toda la agregación se hace en PostgreSQL con una sola consulta: las
+ * facturas pendientes se reparten en tramos de días con FILTER y la
+ * participación de cada cliente en la cartera se obtiene con una función
+ * de ventana sobre el agregado. A la JVM solo llega una fila por cliente,
+ * leída con cursor.
+ *
+ * La versión de la cartera (V20) la mantienen triggers de facturas y
+ * personas, y sirve para invalidar la caché de archivos del reporte.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Repository
+public class CarteraRepository {
+
+    /**
+     * Saldo pendiente de un cliente repartido por antigüedad.
+     *
+     * @param porcentajeCartera Participación del cliente en el total pendiente
+     * @param diasMaximos Días de la factura pendiente más antigua
+     */
+    public record FilaAntiguedad(Long clienteId, String cliente, String correo, long facturas,
+                                 BigDecimal tramo0a30, BigDecimal tramo31a60, BigDecimal tramo61a90,
+                                 BigDecimal tramoMas90, BigDecimal total, BigDecimal porcentajeCartera,
+                                 LocalDate facturaMasAntigua, int diasMaximos) {
+    }
+
+    private static final String SQL_ANTIGUEDAD =
+            "WITH abiertas AS ("
+                    + "  SELECT cliente_id, total, CAST(fecha_emision AS DATE) AS emision, "
+                    + "         CAST(? AS DATE) - CAST(fecha_emision AS DATE) AS dias "
+                    + "  FROM facturas "
+                    + "  WHERE estado = 'PENDIENTE' AND fecha_emision < CAST(? AS DATE) + 1"
+                    + ") "
+                    + "SELECT a.cliente_id, concat_ws(' ', p.nombre, p.apellido), p.correo, COUNT(*), "
+                    + "  COALESCE(SUM(a.total) FILTER (WHERE a.dias <= 30), 0), "
+                    + "  COALESCE(SUM(a.total) FILTER (WHERE a.dias BETWEEN 31 AND 60), 0), "
+                    + "  COALESCE(SUM(a.total) FILTER (WHERE a.dias BETWEEN 61 AND 90), 0), "
+                    + "  COALESCE(SUM(a.total) FILTER (WHERE a.dias > 90), 0), "
+                    + "  SUM(a.total), "
+                    + "  ROUND(100 * SUM(a.total) / NULLIF(SUM(SUM(a.total)) OVER (), 0), 2), "
+                    + "  MIN(a.emision), MAX(a.dias) "
+                    + "FROM abiertas a "
+                    + "JOIN personas p ON p.id_persona = a.cliente_id "
+                    + "GROUP BY a.cliente_id, p.nombre, p.apellido, p.correo "
+                    + "ORDER BY SUM(a.total) DESC, a.cliente_id";
+
+    /**
+     * Filas leídas por viaje al servidor.
+     */
+    private static final int TAMANO_FETCH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param jdbcTemplate Plantilla JDBC
+     */
+    @Autowired
+    public CarteraRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Recorre en streaming la antigüedad de cartera por cliente, de mayor a
+     * menor saldo. Debe ejecutarse dentro de una transacción para que el
+     * driver use cursor.
+     *
+     * @param fechaCorte Fecha a la que se calculan los días de antigüedad
+     * @param consumidor Receptor de cada fila
+     */
+    public void recorrerAntiguedad(LocalDate fechaCorte, Consumer<FilaAntiguedad> consumidor) {
+        Date corte = Date.valueOf(fechaCorte);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_ANTIGUEDAD);
+            ps.setFetchSize(TAMANO_FETCH);
+            ps.setDate(1, corte);
+            ps.setDate(2, corte);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumidor.accept(new FilaAntiguedad(
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getLong(4),
+                rs.getBigDecimal(5),
+                rs.getBigDecimal(6),
+                rs.getBigDecimal(7),
+                rs.getBigDecimal(8),
+                rs.getBigDecimal(9),
+                rs.getBigDecimal(10),
+                rs.getDate(11).toLocalDate(),
+                rs.getInt(12))));
+    }
+
+    /**
+     * Obtiene la versión actual de la cartera.
+     *
+     * @return Versión, cambia tras el commit de cualquier cambio en facturas o clientes
+     */
+    public long version() {
+        Long version = jdbcTemplate.queryForObject(
+                "SELECT version FROM versiones_datos WHERE ambito = 'cartera'", Long.class);
+        return version != null ? version : 0L;
+    }
+}
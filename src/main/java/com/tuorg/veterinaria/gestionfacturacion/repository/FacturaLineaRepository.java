@@ -0,0 +1,220 @@
+package com.tuorg.veterinaria.gestionfacturacion.repository;
+
+import com.tuorg.veterinaria.gestionfacturacion.model.TipoLineaFactura;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Acceso JDBC a las líneas tipadas de factura.
+ *
+ * Las líneas se insertan en un solo batch al crear la factura y se leen
+ * en una consulta para todas las facturas de un listado. Las consultas de
+ * agregación por servicio o producto quedan disponibles para reportes.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Repository
+public class FacturaLineaRepository {
+
+    /**
+     * Línea de factura con sus importes ya calculados.
+     */
+    public record Linea(Long facturaId, int numero, TipoLineaFactura tipo, Long servicioId, Long productoId,
+                        String descripcion, BigDecimal cantidad, BigDecimal precioUnitario, BigDecimal subtotal,
+                        BigDecimal porcentajeImpuesto, BigDecimal impuesto, BigDecimal total) {
+    }
+
+    /**
+     * Servicio o producto del catálogo, con su precio vigente.
+     */
+    public record Concepto(String nombre, BigDecimal precio) {
+    }
+
+    /**
+     * Importes facturados de un servicio o producto en un período.
+     *
+     * @param conceptoId ID del servicio o producto (null en líneas sin catálogo)
+     * @param facturas Número de facturas distintas que lo incluyen
+     */
+    public record ResumenConcepto(TipoLineaFactura tipo, Long conceptoId, String concepto, BigDecimal cantidad,
+                                  BigDecimal subtotal, BigDecimal impuestos, BigDecimal total, long facturas) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param jdbcTemplate Plantilla JDBC
+     */
+    @Autowired
+    public FacturaLineaRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserta las líneas de una factura en un solo batch.
+     *
+     * @param lineas Líneas a insertar
+     */
+    public void insertar(List<Linea> lineas) {
+        if (lineas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO factura_lineas (factura_id, numero_linea, tipo, servicio_id, producto_id, descripcion, "
+                        + "cantidad, precio_unitario, subtotal, porcentaje_impuesto, impuesto, total) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                lineas, lineas.size(), (ps, l) -> {
+                    ps.setLong(1, l.facturaId());
+                    ps.setInt(2, l.numero());
+                    ps.setString(3, l.tipo().name());
+                    setLong(ps, 4, l.servicioId());
+                    setLong(ps, 5, l.productoId());
+                    ps.setString(6, l.descripcion());
+                    ps.setBigDecimal(7, l.cantidad());
+                    ps.setBigDecimal(8, l.precioUnitario());
+                    ps.setBigDecimal(9, l.subtotal());
+                    ps.setBigDecimal(10, l.porcentajeImpuesto());
+                    ps.setBigDecimal(11, l.impuesto());
+                    ps.setBigDecimal(12, l.total());
+                });
+    }
+
+    /**
+     * Obtiene las líneas de varias facturas en una consulta.
+     *
+     * @param facturaIds IDs de las facturas
+     * @return Líneas agrupadas por factura, en orden de número de línea
+     */
+    public Map<Long, List<Linea>> findByFacturaIds(Collection<Long> facturaIds) {
+        Map<Long, List<Linea>> lineas = new HashMap<>();
+        if (facturaIds.isEmpty()) {
+            return lineas;
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT factura_id, numero_linea, tipo, servicio_id, producto_id, descripcion, cantidad, "
+                            + "precio_unitario, subtotal, porcentaje_impuesto, impuesto, total "
+                            + "FROM factura_lineas WHERE factura_id = ANY(?) ORDER BY factura_id, numero_linea");
+            ps.setArray(1, con.createArrayOf("bigint", facturaIds.toArray()));
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            Linea linea = new Linea(
+                    rs.getLong(1),
+                    rs.getInt(2),
+                    TipoLineaFactura.valueOf(rs.getString(3)),
+                    getLong(rs, 4),
+                    getLong(rs, 5),
+                    rs.getString(6),
+                    rs.getBigDecimal(7),
+                    rs.getBigDecimal(8),
+                    rs.getBigDecimal(9),
+                    rs.getBigDecimal(10),
+                    rs.getBigDecimal(11),
+                    rs.getBigDecimal(12));
+            lineas.computeIfAbsent(linea.facturaId(), k -> new ArrayList<>()).add(linea);
+        });
+        return lineas;
+    }
+
+    /**
+     * Obtiene nombre y precio base de varios servicios en una consulta.
+     *
+     * @param ids IDs de servicios
+     * @return Servicios existentes por ID
+     */
+    public Map<Long, Concepto> findServicios(Collection<Long> ids) {
+        return findConceptos("SELECT id_servicio, nombre, precio_base FROM servicios WHERE id_servicio = ANY(?)", ids);
+    }
+
+    /**
+     * Obtiene nombre y precio unitario de varios productos en una consulta.
+     *
+     * @param ids IDs de productos
+     * @return Productos existentes por ID
+     */
+    public Map<Long, Concepto> findProductos(Collection<Long> ids) {
+        return findConceptos(
+                "SELECT id_producto, nombre, precio_unitario FROM productos WHERE id_producto = ANY(?)", ids);
+    }
+
+    private Map<Long, Concepto> findConceptos(String sql, Collection<Long> ids) {
+        Map<Long, Concepto> conceptos = new HashMap<>();
+        if (ids.isEmpty()) {
+            return conceptos;
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        }, (RowCallbackHandler) rs -> conceptos.put(rs.getLong(1), new Concepto(rs.getString(2), rs.getBigDecimal(3))));
+        return conceptos;
+    }
+
+    /**
+     * Agrega los importes facturados por servicio o producto en un período,
+     * excluyendo facturas anuladas.
+     *
+     * @param tipo Tipo de concepto (null para ambos)
+     * @param desde Inicio del período (inclusive)
+     * @param hasta Fin del período (exclusive)
+     * @return Conceptos ordenados por total facturado descendente
+     */
+    public List<ResumenConcepto> resumirPorConcepto(TipoLineaFactura tipo, LocalDateTime desde, LocalDateTime hasta) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT l.tipo, COALESCE(l.servicio_id, l.producto_id) AS concepto_id, "
+                        + "COALESCE(s.nombre, p.nombre, l.descripcion) AS concepto, "
+                        + "SUM(l.cantidad), SUM(l.subtotal), SUM(l.impuesto), SUM(l.total), "
+                        + "COUNT(DISTINCT l.factura_id) "
+                        + "FROM factura_lineas l "
+                        + "JOIN facturas f ON f.id_factura = l.factura_id "
+                        + "LEFT JOIN servicios s ON s.id_servicio = l.servicio_id "
+                        + "LEFT JOIN productos p ON p.id_producto = l.producto_id "
+                        + "WHERE f.estado <> 'ANULADA' AND f.fecha_emision >= ? AND f.fecha_emision < ? ");
+        List<Object> parametros = new ArrayList<>(List.of(Timestamp.valueOf(desde), Timestamp.valueOf(hasta)));
+        if (tipo != null) {
+            sql.append("AND l.tipo = ? ");
+            parametros.add(tipo.name());
+        }
+        sql.append("GROUP BY 1, 2, 3 ORDER BY 7 DESC");
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new ResumenConcepto(
+                TipoLineaFactura.valueOf(rs.getString(1)),
+                getLong(rs, 2),
+                rs.getString(3),
+                rs.getBigDecimal(4),
+                rs.getBigDecimal(5),
+                rs.getBigDecimal(6),
+                rs.getBigDecimal(7),
+                rs.getLong(8)), parametros.toArray());
+    }
+
+    private static void setLong(PreparedStatement ps, int indice, Long valor) throws SQLException {
+        if (valor != null) {
+            ps.setLong(indice, valor);
+        } else {
+            ps.setNull(indice, Types.BIGINT);
+        }
+    }
+
+    private static Long getLong(ResultSet rs, int indice) throws SQLException {
+        long valor = rs.getLong(indice);
+        return rs.wasNull() ? null : valor;
+    }
+}
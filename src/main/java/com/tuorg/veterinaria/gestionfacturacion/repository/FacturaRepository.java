@@ -35,9 +35,17 @@ public interface FacturaRepository extends JpaRepository<Factura, Long> {
      * @param clienteId ID del cliente
      * @return Lista de facturas del cliente
      */
-    @Query("SELECT f FROM Factura f WHERE f.cliente.idPersona = :clienteId")
+    @Query("SELECT f FROM Factura f LEFT JOIN FETCH f.cliente c WHERE c.idPersona = :clienteId")
     List<Factura> findByClienteId(@Param("clienteId") Long clienteId);
 
+    /**
+     * Obtiene todas las facturas con su cliente ya inicializado.
+     * 
+     * @return Lista de facturas con el cliente cargado en la misma consulta
+     */
+    @Query("SELECT f FROM Factura f LEFT JOIN FETCH f.cliente")
+    List<Factura> findAllWithCliente();
+
     /**
      * Busca facturas por estado.
      * 
@@ -0,0 +1,273 @@
+package com.tuorg.veterinaria.gestionfacturacion.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.gestionfacturacion.model.FormatoExportacion;
+import com.tuorg.veterinaria.gestionfacturacion.repository.CarteraRepository;
+import com.tuorg.veterinaria.gestionfacturacion.repository.CarteraRepository.FilaAntiguedad;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * Servicio del reporte de antigüedad de cartera por cliente.
+ *
+ * El cálculo se delega por completo a una consulta agregada que se lee con
+ * cursor y se escribe fila a fila en la respuesta, así que el número de
+ * facturas abiertas no influye en la memoria usada. Mientras se envía, el
+ * resultado se copia a un archivo de caché identificado por fecha de corte,
+ * formato y versión de la cartera. La versión está en la base (V20) y la
+ * suben triggers tras cualquier cambio en facturas o clientes, venga del
+ * nodo que venga, así que las peticiones repetidas se sirven desde disco
+ * con una sola lectura por clave primaria.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Service
+public class CarteraService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CarteraService.class);
+
+    private static final String CABECERA_CSV = "cliente_id,cliente,correo,facturas,tramo_0_30,tramo_31_60,"
+            + "tramo_61_90,tramo_mas_90,total,porcentaje_cartera,factura_mas_antigua,dias_maximos";
+
+    /**
+     * Repositorio JDBC del reporte.
+     */
+    private final CarteraRepository carteraRepository;
+
+    /**
+     * Escritor JSON sin flush por fila.
+     */
+    private final ObjectWriter escritorJson;
+
+    /**
+     * Directorio de los archivos de caché.
+     */
+    private final Path directorioCache;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param carteraRepository Repositorio JDBC del reporte
+     * @param objectMapper Mapper JSON de la aplicación
+     * @param directorioCache Directorio de los archivos de caché
+     */
+    @Autowired
+    public CarteraService(CarteraRepository carteraRepository, ObjectMapper objectMapper,
+                          @Value("${app.reportes.cache-dir:${java.io.tmpdir}/veterinaria/cartera}")
+                          String directorioCache) {
+        this.carteraRepository = carteraRepository;
+        this.escritorJson = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.directorioCache = Paths.get(directorioCache).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Valida la fecha de corte; sin fecha se usa la actual.
+     *
+     * @param fechaCorte Fecha de corte solicitada (opcional)
+     * @return Fecha de corte a aplicar
+     * @throws BusinessException Si la fecha es futura
+     */
+    public LocalDate resolverFechaCorte(LocalDate fechaCorte) {
+        LocalDate hoy = LocalDate.now();
+        if (fechaCorte == null) {
+            return hoy;
+        }
+        if (fechaCorte.isAfter(hoy)) {
+            throw new BusinessException("La fecha de corte no puede ser futura");
+        }
+        return fechaCorte;
+    }
+
+    /**
+     * Calcula el ETag actual del reporte a partir de la versión persistida
+     * de la cartera, igual en todos los nodos.
+     *
+     * @param fechaCorte Fecha de corte
+     * @param formato Formato de exportación
+     * @return ETag débil del reporte
+     */
+    public String etag(LocalDate fechaCorte, FormatoExportacion formato) {
+        return "W/\"" + fechaCorte + "-" + formato.getExtension() + "-" + carteraRepository.version() + "\"";
+    }
+
+    /**
+     * Escribe el reporte en la salida, desde la caché si está vigente o
+     * recorriendo la consulta en caso contrario.
+     *
+     * @param fechaCorte Fecha de corte (ya validada)
+     * @param formato Formato de exportación
+     * @param salida Flujo de salida; no se cierra
+     * @throws IOException Si falla la escritura
+     */
+    @Transactional(readOnly = true)
+    public void exportar(LocalDate fechaCorte, FormatoExportacion formato, OutputStream salida) throws IOException {
+        long versionActual = carteraRepository.version();
+        Path cache = directorioCache.resolve(
+                "cartera-" + versionActual + "-" + fechaCorte + "." + formato.getExtension());
+        if (Files.exists(cache)) {
+            Files.copy(cache, salida);
+            salida.flush();
+            return;
+        }
+
+        long inicio = System.currentTimeMillis();
+        Files.createDirectories(directorioCache);
+        Path temporal = Files.createTempFile(directorioCache, "generando-", ".part");
+        try {
+            long filas;
+            try (OutputStream archivo = new BufferedOutputStream(Files.newOutputStream(temporal))) {
+                filas = escribir(fechaCorte, formato, new Bifurcacion(salida, archivo));
+            }
+            // Si la cartera cambió durante el recorrido el archivo no se conserva
+            if (carteraRepository.version() == versionActual) {
+                Files.move(temporal, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                purgarCache(versionActual);
+            }
+            logger.info("Antigüedad de cartera al {} generada: {} clientes en {} ms",
+                    fechaCorte, filas, System.currentTimeMillis() - inicio);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    private long escribir(LocalDate fechaCorte, FormatoExportacion formato, OutputStream salida) throws IOException {
+        long[] filas = {0};
+        try {
+            if (formato == FormatoExportacion.CSV) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+                writer.write(CABECERA_CSV);
+                writer.write("\r\n");
+                recorrer(fechaCorte, filas, fila -> {
+                    writer.write(lineaCsv(fila));
+                    writer.write("\r\n");
+                });
+                writer.flush();
+            } else {
+                JsonGenerator generator = escritorJson.getFactory().createGenerator(salida);
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                recorrer(fechaCorte, filas, fila -> {
+                    escritorJson.writeValue(generator, fila);
+                    generator.writeRaw('\n');
+                });
+                generator.close();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        salida.flush();
+        return filas[0];
+    }
+
+    private void recorrer(LocalDate fechaCorte, long[] filas, EscritorFila escritor) {
+        Consumer<FilaAntiguedad> consumidor = fila -> {
+            try {
+                escritor.escribir(fila);
+                filas[0]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+        carteraRepository.recorrerAntiguedad(fechaCorte, consumidor);
+    }
+
+    private void purgarCache(long versionActual) {
+        String vigente = "cartera-" + versionActual + "-";
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorioCache, "cartera-*")) {
+            for (Path archivo : archivos) {
+                if (!archivo.getFileName().toString().startsWith(vigente)) {
+                    Files.deleteIfExists(archivo);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("No se pudo purgar la caché de cartera: {}", e.getMessage());
+        }
+    }
+
+    static String lineaCsv(FilaAntiguedad fila) {
+        return fila.clienteId() + "," + csv(fila.cliente()) + "," + csv(fila.correo()) + "," + fila.facturas()
+                + "," + importe(fila.tramo0a30()) + "," + importe(fila.tramo31a60())
+                + "," + importe(fila.tramo61a90()) + "," + importe(fila.tramoMas90())
+                + "," + importe(fila.total()) + "," + importe(fila.porcentajeCartera())
+                + "," + fila.facturaMasAntigua() + "," + fila.diasMaximos();
+    }
+
+    private static String csv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return "\"" + valor.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String importe(BigDecimal valor) {
+        return valor != null ? valor.toPlainString() : "";
+    }
+
+    /**
+     * Escritura de una fila que puede fallar con E/S.
+     */
+    @FunctionalInterface
+    private interface EscritorFila {
+        void escribir(FilaAntiguedad fila) throws IOException;
+    }
+
+    /**
+     * Flujo que replica lo escrito en la respuesta y en el archivo de caché.
+     */
+    private static final class Bifurcacion extends OutputStream {
+
+        private final OutputStream primario;
+        private final OutputStream copia;
+
+        private Bifurcacion(OutputStream primario, OutputStream copia) {
+            this.primario = primario;
+            this.copia = copia;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            primario.write(b);
+            copia.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            primario.write(b, off, len);
+            copia.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            primario.flush();
+            copia.flush();
+        }
+    }
+}
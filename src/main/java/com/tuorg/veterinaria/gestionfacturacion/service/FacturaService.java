@@ -6,43 +6,72 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tuorg.veterinaria.common.constants.AppConstants;
 import com.tuorg.veterinaria.common.exception.BusinessException;
 import com.tuorg.veterinaria.common.exception.ResourceNotFoundException;
+import com.tuorg.veterinaria.dashboard.service.ResumenDiarioService;
+import com.tuorg.veterinaria.dashboard.service.ResumenDiarioService.FotoFactura;
 import com.tuorg.veterinaria.gestionusuarios.model.Cliente;
 import com.tuorg.veterinaria.gestionusuarios.model.Usuario;
 import com.tuorg.veterinaria.gestionusuarios.repository.UsuarioRepository;
+import com.tuorg.veterinaria.gestionfacturacion.dto.FacturaLineaRequest;
 import com.tuorg.veterinaria.gestionfacturacion.dto.FacturaPagoRequest;
 import com.tuorg.veterinaria.gestionfacturacion.dto.FacturaRequest;
 import com.tuorg.veterinaria.gestionfacturacion.dto.FacturaResponse;
+import com.tuorg.veterinaria.gestionfacturacion.dto.ResumenConceptoFacturadoResponse;
 import com.tuorg.veterinaria.gestionfacturacion.model.Factura;
+import com.tuorg.veterinaria.gestionfacturacion.model.TipoLineaFactura;
+import com.tuorg.veterinaria.gestionfacturacion.repository.FacturaLineaRepository;
+import com.tuorg.veterinaria.gestionfacturacion.repository.FacturaLineaRepository.Concepto;
+import com.tuorg.veterinaria.gestionfacturacion.repository.FacturaLineaRepository.Linea;
 import com.tuorg.veterinaria.gestionfacturacion.repository.FacturaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 /**
  * Servicio para la gestión de facturas.
  *
  * Implementa el patrón Factory/Builder para encapsular la lógica de creación
  * y expone DTOs para separar la capa de exposición de las entidades JPA.
+ *
+ * Las facturas con líneas tipadas calculan subtotal, impuestos y total al
+ * crearse y guardan las líneas en factura_lineas; el campo {@code contenido}
+ * de la respuesta se arma a partir de ellas sin volver a parsear JSON. Las
+ * facturas anteriores, sin líneas, siguen exponiendo su contenido original.
  */
 @Service
 public class FacturaService {
 
+    private static final BigDecimal CIEN = BigDecimal.valueOf(100);
+
     private final FacturaRepository facturaRepository;
+    private final FacturaLineaRepository facturaLineaRepository;
     private final UsuarioRepository usuarioRepository;
+    private final ResumenDiarioService resumenDiarioService;
     private final ObjectMapper objectMapper;
 
     @Autowired
     public FacturaService(FacturaRepository facturaRepository,
+                          FacturaLineaRepository facturaLineaRepository,
                           UsuarioRepository usuarioRepository,
+                          ResumenDiarioService resumenDiarioService,
                           ObjectMapper objectMapper) {
         this.facturaRepository = facturaRepository;
+        this.facturaLineaRepository = facturaLineaRepository;
         this.usuarioRepository = usuarioRepository;
+        this.resumenDiarioService = resumenDiarioService;
         this.objectMapper = objectMapper;
     }
 
@@ -64,6 +93,20 @@ public class FacturaService {
         factura.setFormaPago(request.getFormaPago());
         factura.setContenido(asJsonString(request.getContenido()));
 
+        List<Linea> lineas = calcularLineas(request.getLineas());
+        if (!lineas.isEmpty()) {
+            BigDecimal subtotal = sumar(lineas, Linea::subtotal);
+            BigDecimal impuestos = sumar(lineas, Linea::impuesto);
+            BigDecimal total = sumar(lineas, Linea::total);
+            if (request.getTotal() != null && request.getTotal().compareTo(total) != 0) {
+                throw new BusinessException("El total indicado (" + request.getTotal()
+                        + ") no coincide con la suma de las líneas (" + total + ")");
+            }
+            factura.setSubtotal(subtotal);
+            factura.setImpuestos(impuestos);
+            factura.setTotal(total);
+        }
+
         // Generar número único
         String numeroFactura = generarNumeroFactura();
         while (facturaRepository.findByNumero(numeroFactura).isPresent()) {
@@ -79,7 +122,92 @@ public class FacturaService {
         factura.setEstado(AppConstants.ESTADO_FACTURA_PENDIENTE);
 
         Factura guardada = facturaRepository.save(factura);
-        return mapToResponse(guardada);
+        resumenDiarioService.registrarFactura(null, FotoFactura.de(guardada));
+        List<Linea> lineasGuardadas = lineas.stream()
+                .map(l -> new Linea(guardada.getIdFactura(), l.numero(), l.tipo(), l.servicioId(), l.productoId(),
+                        l.descripcion(), l.cantidad(), l.precioUnitario(), l.subtotal(), l.porcentajeImpuesto(),
+                        l.impuesto(), l.total()))
+                .toList();
+        facturaLineaRepository.insertar(lineasGuardadas);
+        return mapToResponse(guardada, lineasGuardadas);
+    }
+
+    /**
+     * Resuelve precios y descripciones desde el catálogo (una consulta por
+     * tipo de concepto) y calcula los importes de cada línea.
+     */
+    private List<Linea> calcularLineas(List<FacturaLineaRequest> solicitudes) {
+        if (solicitudes == null || solicitudes.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Concepto> servicios = facturaLineaRepository.findServicios(idsCatalogo(solicitudes,
+                TipoLineaFactura.SERVICIO, FacturaLineaRequest::getServicioId));
+        Map<Long, Concepto> productos = facturaLineaRepository.findProductos(idsCatalogo(solicitudes,
+                TipoLineaFactura.PRODUCTO, FacturaLineaRequest::getProductoId));
+
+        List<Linea> lineas = new ArrayList<>(solicitudes.size());
+        for (int i = 0; i < solicitudes.size(); i++) {
+            FacturaLineaRequest solicitud = solicitudes.get(i);
+            Long servicioId = null;
+            Long productoId = null;
+            Concepto concepto = null;
+            if (solicitud.getTipo() == TipoLineaFactura.SERVICIO) {
+                if (solicitud.getProductoId() != null) {
+                    throw new BusinessException("La línea " + (i + 1) + " es un servicio y no puede indicar producto");
+                }
+                servicioId = solicitud.getServicioId();
+                if (servicioId != null) {
+                    concepto = servicios.get(servicioId);
+                    if (concepto == null) {
+                        throw new ResourceNotFoundException("Servicio", "id", servicioId);
+                    }
+                }
+            } else {
+                if (solicitud.getServicioId() != null) {
+                    throw new BusinessException("La línea " + (i + 1) + " es un producto y no puede indicar servicio");
+                }
+                productoId = solicitud.getProductoId();
+                if (productoId != null) {
+                    concepto = productos.get(productoId);
+                    if (concepto == null) {
+                        throw new ResourceNotFoundException("Producto", "id", productoId);
+                    }
+                }
+            }
+
+            String descripcion = solicitud.getDescripcion() != null && !solicitud.getDescripcion().isBlank()
+                    ? solicitud.getDescripcion().trim()
+                    : concepto != null ? concepto.nombre() : null;
+            BigDecimal precio = solicitud.getPrecioUnitario() != null
+                    ? solicitud.getPrecioUnitario()
+                    : concepto != null ? concepto.precio() : null;
+            if (descripcion == null || precio == null) {
+                throw new BusinessException("La línea " + (i + 1)
+                        + " debe indicar un servicio o producto del catálogo, o bien descripción y precio unitario");
+            }
+
+            BigDecimal porcentaje = solicitud.getPorcentajeImpuesto() != null
+                    ? solicitud.getPorcentajeImpuesto()
+                    : BigDecimal.ZERO;
+            BigDecimal subtotal = solicitud.getCantidad().multiply(precio).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal impuesto = subtotal.multiply(porcentaje).divide(CIEN, 2, RoundingMode.HALF_UP);
+            lineas.add(new Linea(null, i + 1, solicitud.getTipo(), servicioId, productoId, descripcion,
+                    solicitud.getCantidad(), precio, subtotal, porcentaje, impuesto, subtotal.add(impuesto)));
+        }
+        return lineas;
+    }
+
+    private static Set<Long> idsCatalogo(List<FacturaLineaRequest> solicitudes, TipoLineaFactura tipo,
+                                         Function<FacturaLineaRequest, Long> id) {
+        return solicitudes.stream()
+                .filter(s -> s.getTipo() == tipo)
+                .map(id)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    private static BigDecimal sumar(List<Linea> lineas, Function<Linea, BigDecimal> importe) {
+        return lineas.stream().map(importe).reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 
     private String generarNumeroFactura() {
@@ -97,17 +225,43 @@ public class FacturaService {
 
     @Transactional(readOnly = true)
     public List<FacturaResponse> obtenerTodas() {
-        return facturaRepository.findAll()
-                .stream()
-                .map(this::mapToResponse)
-                .toList();
+        return mapToResponses(facturaRepository.findAllWithCliente());
     }
 
     @Transactional(readOnly = true)
     public List<FacturaResponse> obtenerPorCliente(Long clienteId) {
-        return facturaRepository.findByClienteId(clienteId)
+        return mapToResponses(facturaRepository.findByClienteId(clienteId));
+    }
+
+    /**
+     * Agrega lo facturado por servicio o producto en un período (facturas
+     * con líneas tipadas, excluidas las anuladas).
+     *
+     * @param tipo Tipo de concepto (opcional)
+     * @param desde Primer día del período (por defecto, inicio del mes actual)
+     * @param hasta Último día del período, inclusive (por defecto, hoy)
+     * @return Conceptos ordenados por total facturado
+     */
+    @Transactional(readOnly = true)
+    public List<ResumenConceptoFacturadoResponse> resumirPorConcepto(TipoLineaFactura tipo,
+                                                                    LocalDate desde, LocalDate hasta) {
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.withDayOfMonth(1);
+        if (inicio.isAfter(fin)) {
+            throw new BusinessException("La fecha de inicio no puede ser posterior a la fecha de fin");
+        }
+        return facturaLineaRepository.resumirPorConcepto(tipo, inicio.atStartOfDay(), fin.plusDays(1).atStartOfDay())
                 .stream()
-                .map(this::mapToResponse)
+                .map(r -> ResumenConceptoFacturadoResponse.builder()
+                        .tipo(r.tipo().name())
+                        .conceptoId(r.conceptoId())
+                        .concepto(r.concepto())
+                        .cantidad(r.cantidad())
+                        .subtotal(r.subtotal())
+                        .impuestos(r.impuestos())
+                        .total(r.total())
+                        .facturas(r.facturas())
+                        .build())
                 .toList();
     }
 
@@ -132,8 +286,10 @@ public class FacturaService {
             throw new BusinessException("No se puede anular una factura ya pagada");
         }
 
+        FotoFactura anterior = FotoFactura.de(factura);
         factura.setEstado(AppConstants.ESTADO_FACTURA_ANULADA);
         Factura anulada = facturaRepository.save(factura);
+        resumenDiarioService.registrarFactura(anterior, FotoFactura.de(anulada));
         return mapToResponse(anulada);
     }
 
@@ -146,24 +302,57 @@ public class FacturaService {
             throw new BusinessException("Solo se pueden pagar facturas en estado PENDIENTE");
         }
 
+        FotoFactura anterior = FotoFactura.de(factura);
         factura.setEstado(AppConstants.ESTADO_FACTURA_PAGADA);
         factura.setFormaPago(request.getFormaPago());
         factura.setFechaEmision(factura.getFechaEmision() != null ? factura.getFechaEmision() : LocalDateTime.now());
 
         Factura pagada = facturaRepository.save(factura);
+        resumenDiarioService.registrarFactura(anterior, FotoFactura.de(pagada));
         return mapToResponse(pagada);
     }
 
+    private List<FacturaResponse> mapToResponses(List<Factura> facturas) {
+        Map<Long, List<Linea>> lineas = facturaLineaRepository.findByFacturaIds(
+                facturas.stream().map(Factura::getIdFactura).toList());
+        return facturas.stream()
+                .map(f -> mapToResponse(f, lineas.getOrDefault(f.getIdFactura(), List.of())))
+                .toList();
+    }
+
     private FacturaResponse mapToResponse(Factura factura) {
+        return mapToResponse(factura, facturaLineaRepository.findByFacturaIds(List.of(factura.getIdFactura()))
+                .getOrDefault(factura.getIdFactura(), List.of()));
+    }
+
+    private FacturaResponse mapToResponse(Factura factura, List<Linea> lineas) {
         Cliente cliente = factura.getCliente();
+        List<FacturaResponse.LineaSummary> lineasResponse = lineas.stream()
+                .map(l -> FacturaResponse.LineaSummary.builder()
+                        .numero(l.numero())
+                        .tipo(l.tipo().name())
+                        .servicioId(l.servicioId())
+                        .productoId(l.productoId())
+                        .descripcion(l.descripcion())
+                        .cantidad(l.cantidad())
+                        .precioUnitario(l.precioUnitario())
+                        .subtotal(l.subtotal())
+                        .porcentajeImpuesto(l.porcentajeImpuesto())
+                        .impuesto(l.impuesto())
+                        .total(l.total())
+                        .build())
+                .toList();
         return FacturaResponse.builder()
                 .idFactura(factura.getIdFactura())
                 .numero(factura.getNumero())
                 .fechaEmision(factura.getFechaEmision())
                 .total(factura.getTotal())
+                .subtotal(factura.getSubtotal())
+                .impuestos(factura.getImpuestos())
                 .formaPago(factura.getFormaPago())
                 .estado(factura.getEstado())
-                .contenido(asMap(factura.getContenido()))
+                .contenido(lineas.isEmpty() ? asMap(factura.getContenido()) : contenidoDesdeLineas(factura, lineasResponse))
+                .lineas(lineasResponse)
                 .cliente(cliente != null ? FacturaResponse.ClienteSummary.builder()
                         .id(cliente.getIdUsuario())
                         .nombreCompleto(cliente.getNombre() + " " + cliente.getApellido())
@@ -173,6 +362,20 @@ public class FacturaService {
                 .build();
     }
 
+    /**
+     * Contenido compatible con el formato anterior: los datos adicionales
+     * enviados al crear la factura más el detalle y los totales tomados de
+     * las líneas. Solo se parsea JSON si hubo datos adicionales.
+     */
+    private Map<String, Object> contenidoDesdeLineas(Factura factura, List<FacturaResponse.LineaSummary> lineas) {
+        Map<String, Object> contenido = new LinkedHashMap<>(asMap(factura.getContenido()));
+        contenido.put("lineas", lineas);
+        contenido.put("subtotal", factura.getSubtotal());
+        contenido.put("impuestos", factura.getImpuestos());
+        contenido.put("total", factura.getTotal());
+        return contenido;
+    }
+
     private String asJsonString(Map<String, Object> contenido) {
         if (contenido == null || contenido.isEmpty()) {
             return null;
@@ -95,12 +95,12 @@ public class ProductoController {
     /**
      * Obtiene productos con stock bajo.
      * 
-     * @param nivelStock Nivel mínimo de stock (por defecto 10)
+     * @param nivelStock Nivel mínimo de stock (por defecto, el parámetro inventario.stock.minimo)
      * @return Respuesta con la lista de productos con stock bajo
      */
     @GetMapping("/stock-bajo")
     public ResponseEntity<ApiResponse<List<ProductoResponse>>> obtenerProductosConStockBajo(
-            @RequestParam(defaultValue = "10") Integer nivelStock) {
+            @RequestParam(required = false) Integer nivelStock) {
         List<ProductoResponse> productos = productoService.obtenerProductosConStockBajo(nivelStock);
         return ResponseEntity.ok(ApiResponse.success("Productos con stock bajo obtenidos exitosamente", productos));
     }
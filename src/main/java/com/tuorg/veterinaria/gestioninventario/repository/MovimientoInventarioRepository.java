@@ -27,7 +27,11 @@ public interface MovimientoInventarioRepository extends JpaRepository<Movimiento
      * @param productoId ID del producto
      * @return Lista de movimientos del producto
      */
-    @Query("SELECT mi FROM MovimientoInventario mi WHERE mi.producto.idProducto = :productoId")
+    @Query("SELECT mi FROM MovimientoInventario mi " +
+           "LEFT JOIN FETCH mi.producto p " +
+           "LEFT JOIN FETCH mi.proveedor pr " +
+           "LEFT JOIN FETCH mi.usuario u " +
+           "WHERE p.idProducto = :productoId")
     List<MovimientoInventario> findByProductoId(@Param("productoId") Long productoId);
 
     /**
@@ -45,7 +49,11 @@ public interface MovimientoInventarioRepository extends JpaRepository<Movimiento
      * @param fechaFin Fecha de fin
      * @return Lista de movimientos en el rango especificado
      */
-    @Query("SELECT m FROM MovimientoInventario m WHERE m.fecha BETWEEN :fechaInicio AND :fechaFin ORDER BY m.fecha DESC")
+    @Query("SELECT m FROM MovimientoInventario m " +
+           "LEFT JOIN FETCH m.producto p " +
+           "LEFT JOIN FETCH m.proveedor pr " +
+           "LEFT JOIN FETCH m.usuario u " +
+           "WHERE m.fecha BETWEEN :fechaInicio AND :fechaFin ORDER BY m.fecha DESC")
     List<MovimientoInventario> findByFechaBetween(
             @Param("fechaInicio") LocalDateTime fechaInicio,
             @Param("fechaFin") LocalDateTime fechaFin);
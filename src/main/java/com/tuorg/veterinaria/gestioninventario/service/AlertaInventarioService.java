@@ -1,5 +1,6 @@
 package com.tuorg.veterinaria.gestioninventario.service;
 
+import com.tuorg.veterinaria.auditoria.aspect.Auditable;
 import com.tuorg.veterinaria.common.exception.ResourceNotFoundException;
 import com.tuorg.veterinaria.gestioninventario.model.AlertaInventario;
 import com.tuorg.veterinaria.gestioninventario.model.Producto;
@@ -53,6 +54,7 @@ public class AlertaInventarioService {
      * @param productoId ID del producto
      * @return AlertaInventario creada
      */
+    @Auditable
     @Transactional
     public AlertaInventario generarAlerta(Long productoId) {
         Producto producto = productoRepository.findById(productoId)
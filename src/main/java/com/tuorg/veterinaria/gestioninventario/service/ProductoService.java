@@ -1,13 +1,17 @@
 package com.tuorg.veterinaria.gestioninventario.service;
 
+import com.tuorg.veterinaria.common.constants.AppConstants;
 import com.tuorg.veterinaria.common.exception.BusinessException;
 import com.tuorg.veterinaria.common.exception.ResourceNotFoundException;
 import com.tuorg.veterinaria.common.util.ValidationUtil;
+import com.tuorg.veterinaria.configuracion.service.ConfigService;
+import com.tuorg.veterinaria.configuracion.service.ParametroVigente;
 import com.tuorg.veterinaria.gestioninventario.dto.ProductoRequest;
 import com.tuorg.veterinaria.gestioninventario.dto.ProductoResponse;
 import com.tuorg.veterinaria.gestioninventario.dto.ProductoUpdateRequest;
 import com.tuorg.veterinaria.gestioninventario.model.Producto;
 import com.tuorg.veterinaria.gestioninventario.repository.ProductoRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -31,14 +35,32 @@ public class ProductoService {
      */
     private final ProductoRepository productoRepository;
 
+    /**
+     * Servicio de parámetros del sistema.
+     */
+    private final ConfigService configService;
+
+    /**
+     * Nivel de stock bajo cuando la consulta no indica otro.
+     */
+    private final ParametroVigente<Integer> stockMinimo =
+            ParametroVigente.entero(AppConstants.PARAM_STOCK_MINIMO, AppConstants.STOCK_MINIMO_POR_DEFECTO);
+
     /**
      * Constructor con inyección de dependencias.
      * 
      * @param productoRepository Repositorio de productos
+     * @param configService Servicio de parámetros del sistema
      */
     @Autowired
-    public ProductoService(ProductoRepository productoRepository) {
+    public ProductoService(ProductoRepository productoRepository, ConfigService configService) {
         this.productoRepository = productoRepository;
+        this.configService = configService;
+    }
+
+    @PostConstruct
+    void suscribirConfiguracion() {
+        configService.seguir(stockMinimo);
     }
 
     /**
@@ -177,12 +199,13 @@ public class ProductoService {
     /**
      * Obtiene productos con stock bajo.
      * 
-     * @param nivelStock Nivel mínimo de stock para considerar bajo
+     * @param nivelStock Nivel mínimo de stock para considerar bajo; si es null
+     *                   se usa el parámetro {@code inventario.stock.minimo}
      * @return Lista de productos con stock bajo
      */
     @Transactional(readOnly = true)
     public List<ProductoResponse> obtenerProductosConStockBajo(Integer nivelStock) {
-        return productoRepository.findProductosConStockBajo(nivelStock)
+        return productoRepository.findProductosConStockBajo(nivelStock != null ? nivelStock : stockMinimo.get())
                 .stream()
                 .map(this::mapToResponse)
                 .toList();
@@ -0,0 +1,88 @@
+package com.tuorg.veterinaria.gestionpacientes.controller;
+
+import com.tuorg.veterinaria.common.dto.ApiResponse;
+import com.tuorg.veterinaria.gestionpacientes.dto.AgendaPreventivaResponse;
+import com.tuorg.veterinaria.gestionpacientes.model.PautaPreventiva;
+import com.tuorg.veterinaria.gestionpacientes.service.AgendaPreventivaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controlador REST de la agenda preventiva (vacunas y desparasitaciones debidas).
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/agenda-preventiva")
+public class AgendaPreventivaController {
+
+    /**
+     * Servicio de la agenda preventiva.
+     */
+    private final AgendaPreventivaService agendaPreventivaService;
+
+    /**
+     * Constructor con inyección de dependencias.
+     * 
+     * @param agendaPreventivaService Servicio de la agenda preventiva
+     */
+    @Autowired
+    public AgendaPreventivaController(AgendaPreventivaService agendaPreventivaService) {
+        this.agendaPreventivaService = agendaPreventivaService;
+    }
+
+    /**
+     * Lista las dosis debidas en los próximos días.
+     * 
+     * @param dias Días hacia adelante (por defecto 7)
+     * @param incluirVencidas Incluir dosis ya vencidas (por defecto true)
+     * @param tipo VACUNA o DESPARASITACION (opcional)
+     * @param limite Máximo de resultados (opcional)
+     * @return Respuesta con las dosis debidas ordenadas por fecha
+     */
+    @GetMapping("/pendientes")
+    public ResponseEntity<ApiResponse<List<AgendaPreventivaResponse>>> obtenerPendientes(
+            @RequestParam(required = false) Integer dias,
+            @RequestParam(required = false) Boolean incluirVencidas,
+            @RequestParam(required = false) PautaPreventiva.Tipo tipo,
+            @RequestParam(required = false) Integer limite) {
+        List<AgendaPreventivaResponse> pendientes =
+                agendaPreventivaService.obtenerPendientes(dias, incluirVencidas, tipo, limite);
+        return ResponseEntity.ok(ApiResponse.success("Agenda preventiva obtenida exitosamente", pendientes));
+    }
+
+    /**
+     * Obtiene la agenda preventiva de un paciente.
+     * 
+     * @param pacienteId ID del paciente
+     * @return Respuesta con la próxima dosis de cada pauta
+     */
+    @GetMapping("/paciente/{pacienteId}")
+    public ResponseEntity<ApiResponse<List<AgendaPreventivaResponse>>> obtenerPorPaciente(
+            @PathVariable Long pacienteId) {
+        List<AgendaPreventivaResponse> agenda = agendaPreventivaService.obtenerPorPaciente(pacienteId);
+        return ResponseEntity.ok(ApiResponse.success("Agenda preventiva obtenida exitosamente", agenda));
+    }
+
+    /**
+     * Recalcula la agenda de toda la población.
+     * 
+     * @return Respuesta con el número de entradas generadas
+     */
+    @PostMapping("/recalcular")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Long>> recalcular() {
+        long entradas = agendaPreventivaService.recalcularTodo();
+        return ResponseEntity.ok(ApiResponse.success("Agenda preventiva recalculada exitosamente", entradas));
+    }
+}
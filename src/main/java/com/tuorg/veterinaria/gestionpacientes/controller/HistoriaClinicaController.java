@@ -1,5 +1,7 @@
 package com.tuorg.veterinaria.gestionpacientes.controller;
 
+import com.tuorg.veterinaria.archivos.dto.ArchivoAdjuntoResponse;
+import com.tuorg.veterinaria.archivos.service.AlmacenArchivosService;
 import com.tuorg.veterinaria.common.dto.ApiResponse;
 import com.tuorg.veterinaria.gestionpacientes.dto.HistoriaClinicaResponse;
 import com.tuorg.veterinaria.gestionpacientes.dto.RegistroMedicoRequest;
@@ -7,9 +9,11 @@ import com.tuorg.veterinaria.gestionpacientes.dto.RegistroMedicoResponse;
 import com.tuorg.veterinaria.gestionpacientes.service.HistoriaClinicaService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -30,14 +34,22 @@ public class HistoriaClinicaController {
      */
     private final HistoriaClinicaService historiaClinicaService;
 
+    /**
+     * Almacén de archivos adjuntos.
+     */
+    private final AlmacenArchivosService almacenArchivosService;
+
     /**
      * Constructor con inyección de dependencias.
      * 
      * @param historiaClinicaService Servicio de historias clínicas
+     * @param almacenArchivosService Almacén de archivos adjuntos
      */
     @Autowired
-    public HistoriaClinicaController(HistoriaClinicaService historiaClinicaService) {
+    public HistoriaClinicaController(HistoriaClinicaService historiaClinicaService,
+                                     AlmacenArchivosService almacenArchivosService) {
         this.historiaClinicaService = historiaClinicaService;
+        this.almacenArchivosService = almacenArchivosService;
     }
 
     /**
@@ -79,6 +91,28 @@ public class HistoriaClinicaController {
         return ResponseEntity.ok(ApiResponse.success("Registros médicos obtenidos exitosamente", registros));
     }
 
+    /**
+     * Sube un archivo (cuerpo crudo de la petición) y lo adjunta a un
+     * registro médico. El archivo se guarda antes de abrir la transacción
+     * del registro, para no retener una conexión durante la subida.
+     * 
+     * @param registroId ID del registro médico
+     * @param contentType Tipo MIME del archivo
+     * @param nombre Nombre original del archivo
+     * @param cuerpo Contenido del archivo
+     * @return Respuesta con el registro médico actualizado
+     */
+    @PostMapping("/registros/{registroId}/archivos")
+    public ResponseEntity<ApiResponse<RegistroMedicoResponse>> adjuntarArchivo(
+            @PathVariable Long registroId,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestParam(required = false) String nombre,
+            InputStream cuerpo) {
+        ArchivoAdjuntoResponse archivo = almacenArchivosService.guardar(cuerpo, contentType, nombre);
+        RegistroMedicoResponse registro = historiaClinicaService.adjuntarArchivo(registroId, archivo.getHash());
+        return ResponseEntity.ok(ApiResponse.success("Archivo adjuntado exitosamente", registro));
+    }
+
     /**
      * Exporta la historia clínica como PDF.
      * 
@@ -0,0 +1,81 @@
+package com.tuorg.veterinaria.gestionpacientes.controller;
+
+import com.tuorg.veterinaria.common.dto.ApiResponse;
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.gestionpacientes.dto.ImportacionPacientesResponse;
+import com.tuorg.veterinaria.gestionpacientes.model.FormatoImportacion;
+import com.tuorg.veterinaria.gestionpacientes.service.ImportacionPacientesService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+
+/**
+ * Controlador REST para la importación masiva de propietarios y pacientes.
+ * 
+ * El archivo se envía como cuerpo de la petición (text/csv o
+ * application/x-ndjson) y se procesa en streaming, sin almacenarlo.
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/pacientes/importar")
+public class ImportacionPacientesController {
+
+    /**
+     * Tipo MIME de NDJSON.
+     */
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    /**
+     * Servicio de importación masiva.
+     */
+    private final ImportacionPacientesService importacionPacientesService;
+
+    /**
+     * Constructor con inyección de dependencias.
+     * 
+     * @param importacionPacientesService Servicio de importación masiva
+     */
+    @Autowired
+    public ImportacionPacientesController(ImportacionPacientesService importacionPacientesService) {
+        this.importacionPacientesService = importacionPacientesService;
+    }
+
+    /**
+     * Importa propietarios y pacientes desde CSV o NDJSON.
+     * Las filas inválidas se reportan en la respuesta sin abortar la importación.
+     * 
+     * @param contentType Tipo de contenido del cuerpo
+     * @param cuerpo Contenido del archivo
+     * @return Respuesta con el resumen y los errores por fila
+     */
+    @PostMapping(consumes = {"text/csv", APPLICATION_NDJSON})
+    @PreAuthorize("hasAnyRole('ADMIN', 'SECRETARIO')")
+    public ResponseEntity<ApiResponse<ImportacionPacientesResponse>> importar(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream cuerpo) {
+        ImportacionPacientesResponse resultado =
+                importacionPacientesService.importar(cuerpo, resolverFormato(contentType));
+        return ResponseEntity.ok(ApiResponse.success("Importación procesada exitosamente", resultado));
+    }
+
+    private static FormatoImportacion resolverFormato(String contentType) {
+        MediaType tipo = MediaType.parseMediaType(contentType);
+        if (tipo.isCompatibleWith(MediaType.parseMediaType(APPLICATION_NDJSON))) {
+            return FormatoImportacion.NDJSON;
+        }
+        if (tipo.isCompatibleWith(MediaType.parseMediaType("text/csv"))) {
+            return FormatoImportacion.CSV;
+        }
+        throw new BusinessException("Formato de importación no soportado: " + contentType);
+    }
+}
@@ -1,16 +1,23 @@
 package com.tuorg.veterinaria.gestionpacientes.controller;
 
 import com.tuorg.veterinaria.common.dto.ApiResponse;
+import com.tuorg.veterinaria.gestionpacientes.dto.BusquedaPacienteResponse;
+import com.tuorg.veterinaria.gestionpacientes.dto.FichaPacienteResponse;
 import com.tuorg.veterinaria.gestionpacientes.dto.PacienteRequest;
 import com.tuorg.veterinaria.gestionpacientes.dto.PacienteResponse;
 import com.tuorg.veterinaria.gestionpacientes.dto.PacienteUpdateRequest;
+import com.tuorg.veterinaria.gestionpacientes.service.BusquedaPacienteService;
+import com.tuorg.veterinaria.gestionpacientes.service.FichaPacienteService;
+import com.tuorg.veterinaria.gestionpacientes.service.FichaPacienteVersionService;
 import com.tuorg.veterinaria.gestionpacientes.service.PacienteService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 /**
@@ -31,14 +38,38 @@ public class PacienteController {
      */
     private final PacienteService pacienteService;
 
+    /**
+     * Servicio de búsqueda difusa de pacientes.
+     */
+    private final BusquedaPacienteService busquedaPacienteService;
+
+    /**
+     * Servicio de la ficha integral del paciente.
+     */
+    private final FichaPacienteService fichaPacienteService;
+
+    /**
+     * Versionado de fichas para GET condicional.
+     */
+    private final FichaPacienteVersionService fichaPacienteVersionService;
+
     /**
      * Constructor con inyección de dependencias.
      * 
      * @param pacienteService Servicio de pacientes
+     * @param busquedaPacienteService Servicio de búsqueda de pacientes
+     * @param fichaPacienteService Servicio de la ficha integral
+     * @param fichaPacienteVersionService Versionado de fichas
      */
     @Autowired
-    public PacienteController(PacienteService pacienteService) {
+    public PacienteController(PacienteService pacienteService,
+                              BusquedaPacienteService busquedaPacienteService,
+                              FichaPacienteService fichaPacienteService,
+                              FichaPacienteVersionService fichaPacienteVersionService) {
         this.pacienteService = pacienteService;
+        this.busquedaPacienteService = busquedaPacienteService;
+        this.fichaPacienteService = fichaPacienteService;
+        this.fichaPacienteVersionService = fichaPacienteVersionService;
     }
 
     /**
@@ -54,6 +85,26 @@ public class PacienteController {
                 .body(ApiResponse.success("Paciente registrado exitosamente", pacienteCreado));
     }
 
+    /**
+     * Búsqueda difusa de pacientes por nombre de la mascota o datos del propietario.
+     * Para la siguiente página se envían cursorPuntaje y cursorId de la respuesta anterior.
+     * 
+     * @param q Término de búsqueda
+     * @param limite Número de resultados por página (máximo 50)
+     * @param cursorPuntaje Puntaje del último resultado recibido
+     * @param cursorId ID del último resultado recibido
+     * @return Respuesta con los resultados ordenados por similitud
+     */
+    @GetMapping("/buscar")
+    public ResponseEntity<ApiResponse<BusquedaPacienteResponse>> buscar(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limite,
+            @RequestParam(required = false) BigDecimal cursorPuntaje,
+            @RequestParam(required = false) Long cursorId) {
+        BusquedaPacienteResponse resultado = busquedaPacienteService.buscar(q, limite, cursorPuntaje, cursorId);
+        return ResponseEntity.ok(ApiResponse.success("Búsqueda realizada exitosamente", resultado));
+    }
+
     /**
      * Obtiene un paciente por su ID.
      * 
@@ -66,6 +117,28 @@ public class PacienteController {
         return ResponseEntity.ok(ApiResponse.success("Paciente obtenido exitosamente", paciente));
     }
 
+    /**
+     * Obtiene la ficha integral del paciente en una sola respuesta.
+     * Soporta GET condicional: si el ETag enviado en If-None-Match sigue
+     * vigente se responde 304 tras leer solo la versión de la ficha.
+     * 
+     * @param id ID del paciente
+     * @param webRequest Petición (cabeceras condicionales)
+     * @return Respuesta con la ficha, o 304 si no cambió
+     */
+    @GetMapping("/{id}/ficha")
+    public ResponseEntity<ApiResponse<FichaPacienteResponse>> obtenerFicha(@PathVariable Long id, WebRequest webRequest) {
+        // La versión se lee antes de consultar: un cambio concurrente produce un ETag distinto
+        String etag = fichaPacienteVersionService.etag(id);
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        FichaPacienteResponse ficha = fichaPacienteService.obtenerFicha(id);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .body(ApiResponse.success("Ficha del paciente obtenida exitosamente", ficha));
+    }
+
     /**
      * Obtiene todos los pacientes.
      * 
@@ -0,0 +1,77 @@
+package com.tuorg.veterinaria.gestionpacientes.controller;
+
+import com.tuorg.veterinaria.common.dto.ApiResponse;
+import com.tuorg.veterinaria.gestionpacientes.dto.TendenciaSignoVitalResponse;
+import com.tuorg.veterinaria.gestionpacientes.service.SignosVitalesService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Controlador REST para las tendencias de signos vitales de un paciente.
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/pacientes/{pacienteId}/signos-vitales")
+public class SignosVitalesController {
+
+    /**
+     * Servicio de signos vitales.
+     */
+    private final SignosVitalesService signosVitalesService;
+
+    /**
+     * Constructor con inyección de dependencias.
+     * 
+     * @param signosVitalesService Servicio de signos vitales
+     */
+    @Autowired
+    public SignosVitalesController(SignosVitalesService signosVitalesService) {
+        this.signosVitalesService = signosVitalesService;
+    }
+
+    /**
+     * Lista las métricas con mediciones registradas para el paciente.
+     * 
+     * @param pacienteId ID del paciente
+     * @return Respuesta con los nombres de métrica
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<String>>> obtenerMetricas(@PathVariable Long pacienteId) {
+        List<String> metricas = signosVitalesService.obtenerMetricas(pacienteId);
+        return ResponseEntity.ok(ApiResponse.success("Métricas obtenidas exitosamente", metricas));
+    }
+
+    /**
+     * Obtiene la tendencia de una métrica reducida a intervalos
+     * (mínimo, máximo y promedio por intervalo).
+     * 
+     * @param pacienteId ID del paciente
+     * @param metrica Métrica (peso, temperatura, frecuencia_cardiaca...)
+     * @param desde Inicio del rango (ISO-8601, opcional)
+     * @param hasta Fin del rango (ISO-8601, opcional)
+     * @param puntos Número máximo de intervalos (opcional)
+     * @return Respuesta con la serie reducida
+     */
+    @GetMapping("/{metrica}/tendencia")
+    public ResponseEntity<ApiResponse<TendenciaSignoVitalResponse>> obtenerTendencia(
+            @PathVariable Long pacienteId,
+            @PathVariable String metrica,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(required = false) Integer puntos) {
+        TendenciaSignoVitalResponse tendencia =
+                signosVitalesService.obtenerTendencia(pacienteId, metrica, desde, hasta, puntos);
+        return ResponseEntity.ok(ApiResponse.success("Tendencia obtenida exitosamente", tendencia));
+    }
+}
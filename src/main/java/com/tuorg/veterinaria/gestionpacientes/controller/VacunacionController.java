@@ -1,9 +1,12 @@
 package com.tuorg.veterinaria.gestionpacientes.controller;
 
 import com.tuorg.veterinaria.common.dto.ApiResponse;
+import com.tuorg.veterinaria.gestionpacientes.dto.CampanaVacunacionRequest;
+import com.tuorg.veterinaria.gestionpacientes.dto.CampanaVacunacionResponse;
 import com.tuorg.veterinaria.gestionpacientes.dto.ProgramarProximaDosisRequest;
 import com.tuorg.veterinaria.gestionpacientes.dto.VacunacionRequest;
 import com.tuorg.veterinaria.gestionpacientes.dto.VacunacionResponse;
+import com.tuorg.veterinaria.gestionpacientes.service.CampanaVacunacionService;
 import com.tuorg.veterinaria.gestionpacientes.service.VacunacionService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,14 +34,22 @@ public class VacunacionController {
      */
     private final VacunacionService vacunacionService;
 
+    /**
+     * Servicio de registro masivo de vacunaciones.
+     */
+    private final CampanaVacunacionService campanaVacunacionService;
+
     /**
      * Constructor con inyección de dependencias.
      * 
      * @param vacunacionService Servicio de vacunaciones
+     * @param campanaVacunacionService Servicio de registro masivo de vacunaciones
      */
     @Autowired
-    public VacunacionController(VacunacionService vacunacionService) {
+    public VacunacionController(VacunacionService vacunacionService,
+                                CampanaVacunacionService campanaVacunacionService) {
         this.vacunacionService = vacunacionService;
+        this.campanaVacunacionService = campanaVacunacionService;
     }
 
     /**
@@ -54,6 +65,21 @@ public class VacunacionController {
                 .body(ApiResponse.success("Vacunación registrada exitosamente", vacunacionCreada));
     }
 
+    /**
+     * Registra en una sola operación las vacunaciones de una jornada de campaña.
+     * Si alguna aplicación no es válida no se registra ninguna.
+     * 
+     * @param request Datos de la campaña y aplicaciones
+     * @return Respuesta con el resumen de la campaña
+     */
+    @PostMapping("/campana")
+    public ResponseEntity<ApiResponse<CampanaVacunacionResponse>> registrarCampana(
+            @Valid @RequestBody CampanaVacunacionRequest request) {
+        CampanaVacunacionResponse campana = campanaVacunacionService.registrarCampana(request);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Campaña de vacunación registrada exitosamente", campana));
+    }
+
     /**
      * Programa la próxima dosis de una vacunación.
      * 
@@ -0,0 +1,50 @@
+package com.tuorg.veterinaria.gestionpacientes.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Próxima dosis debida de una pauta preventiva")
+public class AgendaPreventivaResponse {
+
+    @Schema(description = "ID del paciente", example = "1")
+    private Long pacienteId;
+
+    @Schema(description = "Nombre del paciente", example = "Max")
+    private String pacienteNombre;
+
+    @Schema(description = "Especie del paciente", example = "Perro")
+    private String especie;
+
+    @Schema(description = "Código de la pauta", example = "PERRO_RABIA")
+    private String pauta;
+
+    @Schema(description = "Nombre de la pauta", example = "Rabia")
+    private String pautaNombre;
+
+    @Schema(description = "Tipo de pauta", example = "VACUNA")
+    private String tipo;
+
+    @Schema(description = "Fecha en que vence la dosis")
+    private LocalDate fechaDebida;
+
+    @Schema(description = "Número de dosis que corresponde aplicar", example = "2")
+    private int dosisNumero;
+
+    @Schema(description = "Fecha de la última aplicación de la pauta")
+    private LocalDate ultimaAplicacion;
+
+    @Schema(description = "Indica si la fecha debida ya pasó", example = "false")
+    private boolean vencida;
+
+    @Schema(description = "Días hasta la fecha debida (negativo si está vencida)", example = "5")
+    private long diasRestantes;
+}
@@ -0,0 +1,77 @@
+package com.tuorg.veterinaria.gestionpacientes.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Página de resultados de la búsqueda difusa de pacientes y propietarios")
+public class BusquedaPacienteResponse {
+
+    @Schema(description = "Resultados ordenados por similitud descendente")
+    private List<Resultado> resultados;
+
+    @Schema(description = "Puntaje del último resultado, para pedir la siguiente página", example = "0.41667")
+    private BigDecimal cursorPuntaje;
+
+    @Schema(description = "ID de paciente del último resultado, para pedir la siguiente página", example = "128")
+    private Long cursorId;
+
+    @Schema(description = "Indica si pueden existir más resultados", example = "true")
+    private boolean hayMas;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Paciente encontrado junto con su propietario")
+    public static class Resultado {
+        @Schema(description = "ID del paciente", example = "1")
+        private Long pacienteId;
+
+        @Schema(description = "Nombre del paciente", example = "Max")
+        private String nombre;
+
+        @Schema(description = "Especie del paciente", example = "perro")
+        private String especie;
+
+        @Schema(description = "Propietario del paciente")
+        private PropietarioSummary propietario;
+
+        @Schema(description = "Similitud por trigramas del mejor campo coincidente (0 a 1)", example = "0.71429")
+        private BigDecimal puntaje;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Resumen del propietario")
+    public static class PropietarioSummary {
+        @Schema(description = "ID del cliente", example = "4")
+        private Long id;
+
+        @Schema(description = "Nombre del cliente", example = "Diego")
+        private String nombre;
+
+        @Schema(description = "Apellido del cliente", example = "López")
+        private String apellido;
+
+        @Schema(description = "Documento de identidad", example = "1032456789")
+        private String documentoIdentidad;
+
+        @Schema(description = "Teléfono", example = "3001234567")
+        private String telefono;
+
+        @Schema(description = "Correo electrónico", example = "diego.cliente@email.com")
+        private String correo;
+    }
+}
@@ -0,0 +1,52 @@
+package com.tuorg.veterinaria.gestionpacientes.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Schema(description = "Request para registrar las vacunaciones de una jornada de campaña")
+public class CampanaVacunacionRequest {
+
+    @NotBlank(message = "El tipo de vacuna es obligatorio")
+    @Schema(description = "Vacuna aplicada en la campaña", example = "Rabia")
+    private String tipoVacuna;
+
+    @NotNull(message = "La fecha de aplicación es obligatoria")
+    @Schema(description = "Fecha de la jornada", example = "2025-03-10")
+    private LocalDate fechaAplicacion;
+
+    @Schema(description = "Veterinario por defecto de las aplicaciones", example = "2")
+    private Long veterinarioId;
+
+    @Schema(description = "Próxima dosis por defecto de las aplicaciones", example = "2026-03-10")
+    private LocalDate proximaDosis;
+
+    @Valid
+    @NotEmpty(message = "Debe indicar al menos una aplicación")
+    @Size(max = 5000, message = "Una campaña admite como máximo 5000 aplicaciones por solicitud")
+    @Schema(description = "Aplicaciones de la jornada")
+    private List<Aplicacion> aplicaciones;
+
+    @Data
+    @Schema(description = "Aplicación de la vacuna a un paciente")
+    public static class Aplicacion {
+
+        @NotNull(message = "Debe indicar el paciente")
+        @Schema(description = "Identificador del paciente", example = "1")
+        private Long pacienteId;
+
+        @Schema(description = "Veterinario que aplica la vacuna (sustituye al de la campaña)", example = "3")
+        private Long veterinarioId;
+
+        @Schema(description = "Próxima dosis del paciente (sustituye a la de la campaña)", example = "2026-03-10")
+        private LocalDate proximaDosis;
+    }
+}
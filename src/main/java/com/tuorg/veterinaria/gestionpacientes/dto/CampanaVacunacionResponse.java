@@ -0,0 +1,29 @@
+package com.tuorg.veterinaria.gestionpacientes.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado del registro de una jornada de vacunación")
+public class CampanaVacunacionResponse {
+
+    @Schema(description = "Vacunaciones registradas", example = "350")
+    private int registradas;
+
+    @Schema(description = "Vacunaciones con próxima dosis programada", example = "350")
+    private int proximasDosisProgramadas;
+
+    @Schema(description = "IDs de las vacunaciones creadas, en el orden de la solicitud")
+    private List<Long> vacunacionIds;
+
+    @Schema(description = "Duración del registro en milisegundos", example = "120")
+    private long duracionMs;
+}
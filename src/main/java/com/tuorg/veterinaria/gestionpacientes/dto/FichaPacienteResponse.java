@@ -0,0 +1,40 @@
+package com.tuorg.veterinaria.gestionpacientes.dto;
+
+import com.tuorg.veterinaria.gestionfacturacion.dto.FacturaResponse;
+import com.tuorg.veterinaria.prestacioneservicios.dto.CitaResponse;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Ficha integral del paciente: datos, historia clínica, prevención, citas y facturación")
+public class FichaPacienteResponse {
+
+    @Schema(description = "Datos del paciente y su propietario")
+    private PacienteResponse paciente;
+
+    @Schema(description = "Historia clínica (null si el paciente no tiene)")
+    private HistoriaClinicaResponse historia;
+
+    @Schema(description = "Registros médicos, del más reciente al más antiguo")
+    private List<RegistroMedicoResponse> registros;
+
+    @Schema(description = "Vacunaciones aplicadas")
+    private List<VacunacionResponse> vacunaciones;
+
+    @Schema(description = "Desparasitaciones aplicadas")
+    private List<DesparasitacionResponse> desparasitaciones;
+
+    @Schema(description = "Citas del paciente")
+    private List<CitaResponse> citas;
+
+    @Schema(description = "Facturas del propietario")
+    private List<FacturaResponse> facturas;
+}
@@ -0,0 +1,52 @@
+package com.tuorg.veterinaria.gestionpacientes.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado de la importación masiva de propietarios y pacientes")
+public class ImportacionPacientesResponse {
+
+    @Schema(description = "Filas de datos leídas (sin contar la cabecera)", example = "25000")
+    private long filasProcesadas;
+
+    @Schema(description = "Pacientes creados (cada uno con su historia clínica)", example = "24990")
+    private long pacientesCreados;
+
+    @Schema(description = "Propietarios nuevos creados", example = "18000")
+    private long clientesCreados;
+
+    @Schema(description = "Filas descartadas por error", example = "10")
+    private long filasConError;
+
+    @Schema(description = "Detalle de errores por fila (limitado a los primeros)")
+    private List<ErrorFila> errores;
+
+    @Schema(description = "Indica si hubo más errores que los incluidos en el detalle", example = "false")
+    private boolean erroresTruncados;
+
+    @Schema(description = "Duración total de la importación en milisegundos", example = "1840")
+    private long duracionMs;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Error de una fila del archivo")
+    public static class ErrorFila {
+        @Schema(description = "Número de línea en el archivo", example = "17")
+        private long linea;
+
+        @Schema(description = "Motivo por el que se descartó la fila",
+                example = "La especie debe ser 'perro' o 'gato'")
+        private String mensaje;
+    }
+}
@@ -0,0 +1,58 @@
+package com.tuorg.veterinaria.gestionpacientes.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Serie de un signo vital reducida a intervalos de ancho fijo")
+public class TendenciaSignoVitalResponse {
+
+    @Schema(description = "ID del paciente", example = "1")
+    private Long pacienteId;
+
+    @Schema(description = "Métrica consultada", example = "peso")
+    private String metrica;
+
+    @Schema(description = "Inicio del rango consultado")
+    private LocalDateTime desde;
+
+    @Schema(description = "Fin del rango consultado")
+    private LocalDateTime hasta;
+
+    @Schema(description = "Ancho de cada intervalo en segundos", example = "86400")
+    private long anchoIntervaloSegundos;
+
+    @Schema(description = "Intervalos con mediciones, en orden cronológico")
+    private List<Punto> puntos;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Agregado de las mediciones de un intervalo")
+    public static class Punto {
+        @Schema(description = "Inicio del intervalo")
+        private LocalDateTime inicio;
+
+        @Schema(description = "Valor mínimo del intervalo", example = "11.8")
+        private double minimo;
+
+        @Schema(description = "Valor máximo del intervalo", example = "12.4")
+        private double maximo;
+
+        @Schema(description = "Promedio del intervalo", example = "12.1")
+        private double promedio;
+
+        @Schema(description = "Número de mediciones del intervalo", example = "3")
+        private long muestras;
+    }
+}
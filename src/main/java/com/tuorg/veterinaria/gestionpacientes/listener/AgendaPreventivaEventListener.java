@@ -0,0 +1,46 @@
+package com.tuorg.veterinaria.gestionpacientes.listener;
+
+import com.tuorg.veterinaria.common.event.FichaPacienteModificadaEvent;
+import com.tuorg.veterinaria.gestionpacientes.model.Desparasitacion;
+import com.tuorg.veterinaria.gestionpacientes.model.Paciente;
+import com.tuorg.veterinaria.gestionpacientes.model.Vacunacion;
+import com.tuorg.veterinaria.gestionpacientes.service.AgendaPreventivaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Mantiene la agenda preventiva al día (Observer pattern).
+ * 
+ * Tras el commit de una vacunación, una desparasitación o un cambio del
+ * paciente (especie, fecha de nacimiento) recalcula solo a ese paciente.
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Component
+public class AgendaPreventivaEventListener {
+
+    private final AgendaPreventivaService agendaPreventivaService;
+
+    @Autowired
+    public AgendaPreventivaEventListener(AgendaPreventivaService agendaPreventivaService) {
+        this.agendaPreventivaService = agendaPreventivaService;
+    }
+
+    /**
+     * Recalcula la agenda del paciente afectado.
+     * 
+     * @param event Evento de ficha de paciente modificada
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Async
+    public void handleFichaPacienteModificada(FichaPacienteModificadaEvent event) {
+        Object origen = event.getSource();
+        if (event.getPacienteId() != null
+                && (origen instanceof Vacunacion || origen instanceof Desparasitacion || origen instanceof Paciente)) {
+            agendaPreventivaService.recalcularPaciente(event.getPacienteId());
+        }
+    }
+}
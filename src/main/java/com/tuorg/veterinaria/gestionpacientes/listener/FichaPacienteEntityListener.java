@@ -0,0 +1,70 @@
+package com.tuorg.veterinaria.gestionpacientes.listener;
+
+import com.tuorg.veterinaria.common.event.FichaPacienteModificadaEvent;
+import com.tuorg.veterinaria.gestionfacturacion.model.Factura;
+import com.tuorg.veterinaria.gestionpacientes.model.Desparasitacion;
+import com.tuorg.veterinaria.gestionpacientes.model.HistoriaClinica;
+import com.tuorg.veterinaria.gestionpacientes.model.Paciente;
+import com.tuorg.veterinaria.gestionpacientes.model.RegistroMedico;
+import com.tuorg.veterinaria.gestionpacientes.model.Vacunacion;
+import com.tuorg.veterinaria.gestionusuarios.model.Cliente;
+import com.tuorg.veterinaria.prestacioneservicios.model.Cita;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Listener JPA de las entidades que componen la ficha integral del paciente.
+ * 
+ * Publica un {@link FichaPacienteModificadaEvent} para que los consumidores
+ * (agenda preventiva) reaccionen al cambio. La versión de la ficha (ETag) no
+ * depende de este evento: la mantienen triggers en la base de datos.
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public class FichaPacienteEntityListener {
+
+    /**
+     * Publicador de eventos de Spring.
+     */
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onModificada(Object entidad) {
+        if (eventPublisher == null) {
+            return;
+        }
+        Long pacienteId = null;
+        Long clienteId = null;
+        if (entidad instanceof Paciente paciente) {
+            pacienteId = paciente.getIdPaciente();
+        } else if (entidad instanceof HistoriaClinica historia) {
+            pacienteId = idPaciente(historia.getPaciente());
+        } else if (entidad instanceof RegistroMedico registro) {
+            pacienteId = registro.getHistoria() != null ? idPaciente(registro.getHistoria().getPaciente()) : null;
+        } else if (entidad instanceof Vacunacion vacunacion) {
+            pacienteId = idPaciente(vacunacion.getPaciente());
+        } else if (entidad instanceof Desparasitacion desparasitacion) {
+            pacienteId = idPaciente(desparasitacion.getPaciente());
+        } else if (entidad instanceof Cita cita) {
+            pacienteId = idPaciente(cita.getPaciente());
+        } else if (entidad instanceof Factura factura) {
+            clienteId = factura.getCliente() != null ? factura.getCliente().getIdPersona() : null;
+        } else if (entidad instanceof Cliente cliente) {
+            clienteId = cliente.getIdPersona();
+        }
+        if (pacienteId != null || clienteId != null) {
+            eventPublisher.publishEvent(new FichaPacienteModificadaEvent(entidad, pacienteId, clienteId));
+        }
+    }
+
+    private Long idPaciente(Paciente paciente) {
+        return paciente != null ? paciente.getIdPaciente() : null;
+    }
+}
@@ -1,5 +1,6 @@
 package com.tuorg.veterinaria.gestionpacientes.model;
 
+import com.tuorg.veterinaria.gestionpacientes.listener.FichaPacienteEntityListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -19,6 +20,7 @@ import java.time.LocalDate;
  */
 @Entity
 @Table(name = "desparasitaciones", schema = "public")
+@EntityListeners(FichaPacienteEntityListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,18 @@
+package com.tuorg.veterinaria.gestionpacientes.model;
+
+/**
+ * Formatos aceptados por la importación masiva de propietarios y pacientes.
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public enum FormatoImportacion {
+    /**
+     * CSV con cabecera (RFC 4180: comillas dobles y separador coma).
+     */
+    CSV,
+    /**
+     * Un objeto JSON por línea (NDJSON).
+     */
+    NDJSON
+}
@@ -1,5 +1,6 @@
 package com.tuorg.veterinaria.gestionpacientes.model;
 
+import com.tuorg.veterinaria.gestionpacientes.listener.FichaPacienteEntityListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -22,6 +23,7 @@ import java.util.Map;
  */
 @Entity
 @Table(name = "historias_clinicas", schema = "public")
+@EntityListeners(FichaPacienteEntityListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
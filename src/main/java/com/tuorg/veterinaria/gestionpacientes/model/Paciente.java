@@ -1,5 +1,6 @@
 package com.tuorg.veterinaria.gestionpacientes.model;
 
+import com.tuorg.veterinaria.gestionpacientes.listener.FichaPacienteEntityListener;
 import com.tuorg.veterinaria.gestionusuarios.model.Cliente;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -22,6 +23,7 @@ import java.util.UUID;
  */
 @Entity
 @Table(name = "pacientes", schema = "public")
+@EntityListeners(FichaPacienteEntityListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
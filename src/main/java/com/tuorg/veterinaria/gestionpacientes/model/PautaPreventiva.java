@@ -0,0 +1,130 @@
+package com.tuorg.veterinaria.gestionpacientes.model;
+
+import com.tuorg.veterinaria.common.constants.AppConstants;
+import com.tuorg.veterinaria.common.util.TextNormalizationUtil;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Protocolo preventivo de vacunación y desparasitación por especie.
+ * 
+ * Cada pauta define la edad de la primera dosis, la serie inicial
+ * (número de dosis e intervalo entre ellas) y el intervalo de refuerzo
+ * posterior. Las aplicaciones registradas se asocian a una pauta por
+ * palabras clave en el tipo de vacuna; toda desparasitación cuenta para
+ * la pauta de desparasitación de su especie.
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public enum PautaPreventiva {
+
+    PERRO_POLIVALENTE(AppConstants.ESPECIE_PERRO, Tipo.VACUNA, "Polivalente (moquillo, parvovirus, hepatitis)",
+            6, 3, 3, 12, "polivalente", "dhpp", "moquillo", "parvo", "quintuple", "sextuple", "multiple"),
+    PERRO_RABIA(AppConstants.ESPECIE_PERRO, Tipo.VACUNA, "Rabia",
+            12, 1, 0, 12, "rabia", "antirrabica"),
+    PERRO_DESPARASITACION(AppConstants.ESPECIE_PERRO, Tipo.DESPARASITACION, "Desparasitación",
+            2, 3, 2, 3),
+    GATO_TRIPLE_FELINA(AppConstants.ESPECIE_GATO, Tipo.VACUNA, "Triple felina (panleucopenia, rinotraqueítis, calicivirus)",
+            8, 3, 3, 12, "triple", "trivalente", "panleucopenia", "rinotraqueitis", "calicivirus"),
+    GATO_RABIA(AppConstants.ESPECIE_GATO, Tipo.VACUNA, "Rabia",
+            12, 1, 0, 12, "rabia", "antirrabica"),
+    GATO_DESPARASITACION(AppConstants.ESPECIE_GATO, Tipo.DESPARASITACION, "Desparasitación",
+            3, 3, 2, 3);
+
+    /**
+     * Tipo de aplicación preventiva.
+     */
+    public enum Tipo {
+        VACUNA,
+        DESPARASITACION
+    }
+
+    private final String especie;
+    private final Tipo tipo;
+    private final String nombre;
+    private final int edadInicioSemanas;
+    private final int dosisIniciales;
+    private final int intervaloInicialSemanas;
+    private final int refuerzoMeses;
+    private final List<String> palabrasClave;
+
+    PautaPreventiva(String especie, Tipo tipo, String nombre, int edadInicioSemanas, int dosisIniciales,
+                    int intervaloInicialSemanas, int refuerzoMeses, String... palabrasClave) {
+        this.especie = especie;
+        this.tipo = tipo;
+        this.nombre = nombre;
+        this.edadInicioSemanas = edadInicioSemanas;
+        this.dosisIniciales = dosisIniciales;
+        this.intervaloInicialSemanas = intervaloInicialSemanas;
+        this.refuerzoMeses = refuerzoMeses;
+        this.palabrasClave = List.of(palabrasClave);
+    }
+
+    /**
+     * Pautas aplicables a una especie.
+     * 
+     * @param especie Especie del paciente
+     * @return Pautas de la especie (vacía si la especie no tiene protocolo)
+     */
+    public static List<PautaPreventiva> paraEspecie(String especie) {
+        if (especie == null) {
+            return List.of();
+        }
+        String normalizada = especie.toLowerCase(Locale.ROOT);
+        return Arrays.stream(values())
+                .filter(pauta -> pauta.especie.equals(normalizada))
+                .toList();
+    }
+
+    /**
+     * Indica si una aplicación registrada corresponde a esta pauta.
+     * 
+     * @param tipoAplicacion Tipo de aplicación registrada
+     * @param descripcion Tipo de vacuna o producto usado
+     * @return true si la aplicación cuenta como dosis de esta pauta
+     */
+    public boolean coincide(Tipo tipoAplicacion, String descripcion) {
+        if (tipoAplicacion != tipo) {
+            return false;
+        }
+        if (palabrasClave.isEmpty()) {
+            return true;
+        }
+        if (descripcion == null) {
+            return false;
+        }
+        String texto = TextNormalizationUtil.removeAccents(descripcion).toLowerCase(Locale.ROOT);
+        return palabrasClave.stream().anyMatch(texto::contains);
+    }
+
+    public String getEspecie() {
+        return especie;
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public int getEdadInicioSemanas() {
+        return edadInicioSemanas;
+    }
+
+    public int getDosisIniciales() {
+        return dosisIniciales;
+    }
+
+    public int getIntervaloInicialSemanas() {
+        return intervaloInicialSemanas;
+    }
+
+    public int getRefuerzoMeses() {
+        return refuerzoMeses;
+    }
+}
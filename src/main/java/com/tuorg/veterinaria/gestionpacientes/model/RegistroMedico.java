@@ -1,6 +1,7 @@
 package com.tuorg.veterinaria.gestionpacientes.model;
 
 import com.tuorg.veterinaria.common.converter.JsonbListMapConverter;
+import com.tuorg.veterinaria.gestionpacientes.listener.FichaPacienteEntityListener;
 import com.tuorg.veterinaria.gestionusuarios.model.UsuarioVeterinario;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -25,6 +26,7 @@ import java.util.Map;
  */
 @Entity
 @Table(name = "registros_medicos", schema = "public")
+@EntityListeners(FichaPacienteEntityListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,68 @@
+package com.tuorg.veterinaria.gestionpacientes.model;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Signos vitales conocidos y los alias con que llegan en
+ * {@code RegistroMedico.signosVitales}.
+ * 
+ * Las claves no reconocidas se conservan tal cual (en minúsculas), de modo
+ * que cualquier medición numérica puede graficarse.
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public enum SignoVital {
+    TEMPERATURA("temperatura", "temp"),
+    FRECUENCIA_CARDIACA("frecuencia_cardiaca", "fc"),
+    FRECUENCIA_RESPIRATORIA("frecuencia_respiratoria", "fr"),
+    PESO("peso", "peso_kg");
+
+    /**
+     * Longitud máxima de la columna metrica.
+     */
+    public static final int MAX_LONGITUD_METRICA = 50;
+
+    private static final Map<String, String> CODIGOS = new HashMap<>();
+
+    static {
+        for (SignoVital signo : values()) {
+            CODIGOS.put(signo.codigo, signo.codigo);
+            for (String alias : signo.alias) {
+                CODIGOS.put(alias, signo.codigo);
+            }
+        }
+    }
+
+    private final String codigo;
+    private final String[] alias;
+
+    SignoVital(String codigo, String... alias) {
+        this.codigo = codigo;
+        this.alias = alias;
+    }
+
+    public String getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * Convierte una clave del JSON de signos vitales en el nombre de métrica
+     * almacenado en la serie temporal.
+     * 
+     * @param clave Clave tal como llega en el registro
+     * @return Código canónico de la métrica
+     */
+    public static String normalizar(String clave) {
+        String minusculas = clave.trim().toLowerCase(Locale.ROOT);
+        String codigo = CODIGOS.get(minusculas);
+        if (codigo != null) {
+            return codigo;
+        }
+        return minusculas.length() > MAX_LONGITUD_METRICA
+                ? minusculas.substring(0, MAX_LONGITUD_METRICA)
+                : minusculas;
+    }
+}
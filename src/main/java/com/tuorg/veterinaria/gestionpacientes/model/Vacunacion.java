@@ -1,5 +1,6 @@
 package com.tuorg.veterinaria.gestionpacientes.model;
 
+import com.tuorg.veterinaria.gestionpacientes.listener.FichaPacienteEntityListener;
 import com.tuorg.veterinaria.gestionusuarios.model.UsuarioVeterinario;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -20,6 +21,7 @@ import java.time.LocalDate;
  */
 @Entity
 @Table(name = "vacunaciones", schema = "public")
+@EntityListeners(FichaPacienteEntityListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,254 @@
+package com.tuorg.veterinaria.gestionpacientes.repository;
+
+import com.tuorg.veterinaria.gestionpacientes.model.PautaPreventiva;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Acceso JDBC a la agenda preventiva materializada y al historial de
+ * vacunaciones y desparasitaciones que la alimenta.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Repository
+public class AgendaPreventivaRepository {
+
+    /**
+     * Fila del historial preventivo. Los pacientes sin aplicaciones aparecen
+     * una vez con tipo, descripción y fechas en null.
+     */
+    public record FilaHistorial(Long pacienteId, String especie, LocalDate fechaNacimiento,
+                                PautaPreventiva.Tipo tipo, String descripcion,
+                                LocalDate fechaAplicacion, LocalDate proxima) {
+    }
+
+    /**
+     * Entrada de la agenda: próxima dosis debida de una pauta.
+     */
+    public record EntradaAgenda(Long pacienteId, PautaPreventiva pauta, LocalDate fechaDebida,
+                                int dosisNumero, LocalDate ultimaAplicacion) {
+    }
+
+    /**
+     * Entrada de la agenda junto con los datos del paciente.
+     */
+    public record EntradaPaciente(EntradaAgenda entrada, String pacienteNombre, String especie) {
+    }
+
+    /**
+     * Historial de todos los pacientes (o de uno), ordenado por paciente y fecha.
+     */
+    private static final String SQL_HISTORIAL =
+            "SELECT p.id_paciente, p.especie, p.fecha_nacimiento, h.tipo, h.descripcion, "
+                    + "h.fecha_aplicacion, h.proxima "
+                    + "FROM pacientes p "
+                    + "LEFT JOIN ("
+                    + "  SELECT paciente_id, 'VACUNA' AS tipo, tipo_vacuna AS descripcion, "
+                    + "         fecha_aplicacion, proxima_dosis AS proxima FROM vacunaciones "
+                    + "  UNION ALL "
+                    + "  SELECT paciente_id, 'DESPARASITACION', producto_usado, "
+                    + "         fecha_aplicacion, proxima_aplicacion FROM desparasitaciones"
+                    + ") h ON h.paciente_id = p.id_paciente ";
+
+    private static final String SQL_ENTRADAS =
+            "SELECT a.paciente_id, a.pauta, a.fecha_debida, a.dosis_numero, a.ultima_aplicacion, "
+                    + "p.nombre, p.especie "
+                    + "FROM agenda_preventiva a JOIN pacientes p ON p.id_paciente = a.paciente_id ";
+
+    private static final RowMapper<EntradaPaciente> ENTRADA_MAPPER = (rs, rowNum) -> {
+        Date ultima = rs.getDate(5);
+        return new EntradaPaciente(
+                new EntradaAgenda(
+                        rs.getLong(1),
+                        PautaPreventiva.valueOf(rs.getString(2)),
+                        rs.getDate(3).toLocalDate(),
+                        rs.getInt(4),
+                        ultima != null ? ultima.toLocalDate() : null),
+                rs.getString(6),
+                rs.getString(7));
+    };
+
+    /**
+     * Filas leídas por viaje al servidor al recorrer el historial completo.
+     */
+    private static final int TAMANO_FETCH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param jdbcTemplate Plantilla JDBC
+     */
+    @Autowired
+    public AgendaPreventivaRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Recorre en streaming el historial preventivo de toda la población.
+     * Debe ejecutarse dentro de una transacción para que el driver use cursor.
+     *
+     * @param consumidor Receptor de cada fila, en orden de paciente y fecha
+     */
+    public void recorrerHistorial(Consumer<FilaHistorial> consumidor) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    SQL_HISTORIAL + "ORDER BY p.id_paciente, h.fecha_aplicacion");
+            ps.setFetchSize(TAMANO_FETCH);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumidor.accept(mapHistorial(rs)));
+    }
+
+    /**
+     * Recorre el historial preventivo de un conjunto de pacientes.
+     *
+     * @param pacienteIds IDs de los pacientes
+     * @param consumidor Receptor de cada fila, en orden de paciente y fecha
+     */
+    public void recorrerHistorial(Collection<Long> pacienteIds, Consumer<FilaHistorial> consumidor) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    SQL_HISTORIAL + "WHERE p.id_paciente = ANY(?) ORDER BY p.id_paciente, h.fecha_aplicacion");
+            ps.setArray(1, con.createArrayOf("bigint", pacienteIds.toArray()));
+            return ps;
+        }, (RowCallbackHandler) rs -> consumidor.accept(mapHistorial(rs)));
+    }
+
+    private static FilaHistorial mapHistorial(ResultSet rs) throws SQLException {
+        Date nacimiento = rs.getDate(3);
+        String tipo = rs.getString(4);
+        Date aplicacion = rs.getDate(6);
+        Date proxima = rs.getDate(7);
+        return new FilaHistorial(
+                rs.getLong(1),
+                rs.getString(2),
+                nacimiento != null ? nacimiento.toLocalDate() : null,
+                tipo != null ? PautaPreventiva.Tipo.valueOf(tipo) : null,
+                rs.getString(5),
+                aplicacion != null ? aplicacion.toLocalDate() : null,
+                proxima != null ? proxima.toLocalDate() : null);
+    }
+
+    /**
+     * Indica si la agenda no tiene entradas.
+     *
+     * @return true si está vacía
+     */
+    public boolean estaVacia() {
+        return Boolean.FALSE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM agenda_preventiva)", Boolean.class));
+    }
+
+    /**
+     * Elimina todas las entradas de la agenda.
+     */
+    public void eliminarTodo() {
+        jdbcTemplate.update("DELETE FROM agenda_preventiva");
+    }
+
+    /**
+     * Elimina las entradas de un conjunto de pacientes.
+     *
+     * @param pacienteIds IDs de los pacientes
+     */
+    public void eliminarPorPacientes(Collection<Long> pacienteIds) {
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("DELETE FROM agenda_preventiva WHERE paciente_id = ANY(?)");
+            ps.setArray(1, con.createArrayOf("bigint", pacienteIds.toArray()));
+            return ps;
+        });
+    }
+
+    /**
+     * Inserta entradas en un solo batch.
+     *
+     * @param entradas Entradas a insertar
+     */
+    public void insertar(List<EntradaAgenda> entradas) {
+        if (entradas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO agenda_preventiva (paciente_id, pauta, tipo, fecha_debida, dosis_numero, "
+                        + "ultima_aplicacion) VALUES (?, ?, ?, ?, ?, ?)",
+                entradas, entradas.size(), (ps, e) -> {
+                    ps.setLong(1, e.pacienteId());
+                    ps.setString(2, e.pauta().name());
+                    ps.setString(3, e.pauta().getTipo().name());
+                    ps.setDate(4, Date.valueOf(e.fechaDebida()));
+                    ps.setInt(5, e.dosisNumero());
+                    if (e.ultimaAplicacion() != null) {
+                        ps.setDate(6, Date.valueOf(e.ultimaAplicacion()));
+                    } else {
+                        ps.setNull(6, Types.DATE);
+                    }
+                });
+    }
+
+    /**
+     * Entradas debidas hasta una fecha, usando el índice por fecha debida.
+     *
+     * @param desde Fecha mínima (null para incluir todas las vencidas)
+     * @param hasta Fecha máxima (inclusive)
+     * @param tipo Tipo de pauta (null para todos)
+     * @param limite Máximo de entradas
+     * @return Entradas ordenadas por fecha debida
+     */
+    public List<EntradaPaciente> findDebidas(LocalDate desde, LocalDate hasta, PautaPreventiva.Tipo tipo, int limite) {
+        StringBuilder sql = new StringBuilder(SQL_ENTRADAS).append("WHERE a.fecha_debida <= ? ");
+        List<Object> parametros = new ArrayList<>();
+        parametros.add(Date.valueOf(hasta));
+        if (desde != null) {
+            sql.append("AND a.fecha_debida >= ? ");
+            parametros.add(Date.valueOf(desde));
+        }
+        if (tipo != null) {
+            sql.append("AND a.tipo = ? ");
+            parametros.add(tipo.name());
+        }
+        sql.append("ORDER BY a.fecha_debida, a.paciente_id LIMIT ?");
+        parametros.add(limite);
+        return jdbcTemplate.query(sql.toString(), ENTRADA_MAPPER, parametros.toArray());
+    }
+
+    /**
+     * Entradas de un paciente.
+     *
+     * @param pacienteId ID del paciente
+     * @return Entradas ordenadas por fecha debida
+     */
+    public List<EntradaPaciente> findByPacienteId(Long pacienteId) {
+        return jdbcTemplate.query(SQL_ENTRADAS + "WHERE a.paciente_id = ? ORDER BY a.fecha_debida",
+                ENTRADA_MAPPER, pacienteId);
+    }
+
+    /**
+     * Cuenta las entradas de un tipo debidas hasta una fecha (incluye vencidas).
+     *
+     * @param tipo Tipo de pauta
+     * @param hasta Fecha máxima (inclusive)
+     * @return Número de entradas
+     */
+    public long contarDebidas(PautaPreventiva.Tipo tipo, LocalDate hasta) {
+        Long total = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM agenda_preventiva WHERE fecha_debida <= ? AND tipo = ?",
+                Long.class, Date.valueOf(hasta), tipo.name());
+        return total != null ? total : 0L;
+    }
+}
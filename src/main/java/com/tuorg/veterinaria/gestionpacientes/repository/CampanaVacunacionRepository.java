@@ -0,0 +1,125 @@
+package com.tuorg.veterinaria.gestionpacientes.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Acceso JDBC para el registro masivo de vacunaciones (jornadas de campaña).
+ *
+ * Los pacientes y veterinarios referenciados se validan con una consulta por
+ * conjunto en lugar de un findById por vacunación, y las vacunaciones se
+ * insertan en un único batch.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Repository
+public class CampanaVacunacionRepository {
+
+    /**
+     * Vacunación lista para insertar.
+     */
+    public record NuevaVacunacion(Long id, Long pacienteId, String tipoVacuna, LocalDate fechaAplicacion,
+                                  LocalDate proximaDosis, Long veterinarioId) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param jdbcTemplate Plantilla JDBC
+     */
+    @Autowired
+    public CampanaVacunacionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Filtra los IDs de pacientes que existen.
+     *
+     * @param ids IDs a comprobar
+     * @return IDs existentes
+     */
+    public Set<Long> findPacientesExistentes(Collection<Long> ids) {
+        return findExistentes("SELECT id_paciente FROM pacientes WHERE id_paciente = ANY(?)", ids);
+    }
+
+    /**
+     * Filtra los IDs de usuarios que son veterinarios.
+     *
+     * @param ids IDs a comprobar
+     * @return IDs de veterinarios existentes
+     */
+    public Set<Long> findVeterinariosExistentes(Collection<Long> ids) {
+        return findExistentes("SELECT id_usuario FROM usuarios_veterinarios WHERE id_usuario = ANY(?)", ids);
+    }
+
+    private Set<Long> findExistentes(String sql, Collection<Long> ids) {
+        Set<Long> existentes = new HashSet<>();
+        if (ids.isEmpty()) {
+            return existentes;
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        }, (RowCallbackHandler) rs -> existentes.add(rs.getLong(1)));
+        return existentes;
+    }
+
+    /**
+     * Reserva IDs de vacunaciones en una sola consulta.
+     *
+     * @param cantidad Número de IDs
+     * @return IDs reservados
+     */
+    public List<Long> reservarIds(int cantidad) {
+        if (cantidad == 0) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList(
+                "SELECT nextval('vacunaciones_id_vacunacion_seq') FROM generate_series(1, ?)", Long.class, cantidad);
+    }
+
+    /**
+     * Inserta vacunaciones en un solo batch.
+     *
+     * @param vacunaciones Vacunaciones con ID ya reservado
+     */
+    public void insertar(List<NuevaVacunacion> vacunaciones) {
+        if (vacunaciones.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO vacunaciones (id_vacunacion, paciente_id, tipo_vacuna, fecha_aplicacion, "
+                        + "proxima_dosis, veterinario_id) VALUES (?, ?, ?, ?, ?, ?)",
+                vacunaciones, vacunaciones.size(), (ps, v) -> {
+                    ps.setLong(1, v.id());
+                    ps.setLong(2, v.pacienteId());
+                    ps.setString(3, v.tipoVacuna());
+                    ps.setDate(4, Date.valueOf(v.fechaAplicacion()));
+                    if (v.proximaDosis() != null) {
+                        ps.setDate(5, Date.valueOf(v.proximaDosis()));
+                    } else {
+                        ps.setNull(5, Types.DATE);
+                    }
+                    if (v.veterinarioId() != null) {
+                        ps.setLong(6, v.veterinarioId());
+                    } else {
+                        ps.setNull(6, Types.BIGINT);
+                    }
+                });
+    }
+}
@@ -1,7 +1,9 @@
 package com.tuorg.veterinaria.gestionpacientes.repository;
 
 import com.tuorg.veterinaria.gestionpacientes.model.Desparasitacion;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -25,6 +27,7 @@ public interface DesparasitacionRepository extends JpaRepository<Desparasitacion
      * @param pacienteId ID del paciente
      * @return Lista de desparasitaciones
      */
+    @EntityGraph(attributePaths = "paciente")
     List<Desparasitacion> findByPacienteIdPaciente(Long pacienteId);
 
     /**
@@ -34,6 +37,15 @@ public interface DesparasitacionRepository extends JpaRepository<Desparasitacion
      * @param fechaFin Fecha de fin del rango
      * @return Lista de desparasitaciones pendientes
      */
+    @EntityGraph(attributePaths = "paciente")
     List<Desparasitacion> findByProximaAplicacionBetween(LocalDate fechaInicio, LocalDate fechaFin);
+
+    /**
+     * Obtiene todas las desparasitaciones con su paciente ya inicializado.
+     * 
+     * @return Lista de desparasitaciones con el paciente cargado en la misma consulta
+     */
+    @Query("SELECT d FROM Desparasitacion d LEFT JOIN FETCH d.paciente")
+    List<Desparasitacion> findAllWithPaciente();
 }
 
@@ -0,0 +1,43 @@
+package com.tuorg.veterinaria.gestionpacientes.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Acceso JDBC a la versión persistida de la ficha de cada paciente (V18).
+ *
+ * La tabla la mantienen los triggers de las tablas que forman la ficha.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Repository
+public class FichaPacienteVersionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param jdbcTemplate Plantilla JDBC
+     */
+    @Autowired
+    public FichaPacienteVersionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Obtiene la versión actual de la ficha de un paciente.
+     *
+     * @param pacienteId ID del paciente
+     * @return Versión, o 0 si la ficha no ha cambiado desde el alta
+     */
+    public long version(Long pacienteId) {
+        List<Long> versiones = jdbcTemplate.queryForList(
+                "SELECT version FROM fichas_paciente_version WHERE paciente_id = ?", Long.class, pacienteId);
+        return versiones.isEmpty() ? 0L : versiones.get(0);
+    }
+}
@@ -26,7 +26,7 @@ public interface HistoriaClinicaRepository extends JpaRepository<HistoriaClinica
      * @param pacienteId ID del paciente
      * @return Optional con la historia clínica si existe
      */
-    @Query("SELECT h FROM HistoriaClinica h WHERE h.paciente.idPaciente = :pacienteId")
+    @Query("SELECT h FROM HistoriaClinica h LEFT JOIN FETCH h.paciente p WHERE p.idPaciente = :pacienteId")
     Optional<HistoriaClinica> findByPacienteId(@Param("pacienteId") Long pacienteId);
 }
 
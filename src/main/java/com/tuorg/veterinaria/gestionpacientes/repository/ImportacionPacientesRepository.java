@@ -0,0 +1,214 @@
+package com.tuorg.veterinaria.gestionpacientes.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Acceso JDBC para la importación masiva de propietarios y pacientes.
+ *
+ * Evita el ciclo por fila de JPA (consulta del propietario, insert del
+ * paciente, insert de la historia): los IDs se reservan por lotes desde las
+ * secuencias y las filas se insertan con batch JDBC. Con
+ * {@code reWriteBatchedInserts} el driver agrupa cada lote en INSERT
+ * multi-fila.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Repository
+public class ImportacionPacientesRepository {
+
+    /**
+     * Propietario existente, tal como se carga para resolver filas.
+     *
+     * @param id ID del cliente
+     * @param documentoIdentidad Documento de identidad (puede ser null)
+     * @param correo Correo electrónico
+     */
+    public record ClienteExistente(Long id, String documentoIdentidad, String correo) {
+    }
+
+    /**
+     * Propietario nuevo listo para insertar.
+     */
+    public record NuevoCliente(Long id, String nombre, String apellido, String correo, String telefono,
+                               String direccion, String username, String documentoIdentidad) {
+    }
+
+    /**
+     * Paciente nuevo listo para insertar.
+     */
+    public record NuevoPaciente(Long id, Long clienteId, String nombre, String especie, String raza,
+                                LocalDate fechaNacimiento, String sexo, BigDecimal pesoKg,
+                                String estadoSalud, UUID identificadorExterno) {
+    }
+
+    /**
+     * Metadatos de las historias clínicas creadas por la importación.
+     */
+    private static final String METADATOS_HISTORIA =
+            "{\"origen\": \"importación masiva\", \"creadoPor\": \"sistema\"}";
+
+    private static final String RESUMEN_HISTORIA =
+            "Historia clínica creada automáticamente al importar el paciente";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param jdbcTemplate Plantilla JDBC
+     */
+    @Autowired
+    public ImportacionPacientesRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Recorre todos los clientes existentes (ID, documento y correo).
+     *
+     * @param consumidor Receptor de cada cliente
+     */
+    public void recorrerClientes(Consumer<ClienteExistente> consumidor) {
+        jdbcTemplate.query(
+                "SELECT c.id_usuario, c.documento_identidad, p.correo "
+                        + "FROM clientes c JOIN personas p ON p.id_persona = c.id_usuario",
+                (RowCallbackHandler) rs -> consumidor.accept(new ClienteExistente(
+                        rs.getLong(1), rs.getString(2), rs.getString(3))));
+    }
+
+    /**
+     * Recorre todos los nombres de usuario registrados.
+     *
+     * @param consumidor Receptor de cada username
+     */
+    public void recorrerUsernames(Consumer<String> consumidor) {
+        jdbcTemplate.query("SELECT username FROM usuarios",
+                (RowCallbackHandler) rs -> consumidor.accept(rs.getString(1)));
+    }
+
+    /**
+     * Reserva IDs de personas (clientes) en una sola consulta.
+     *
+     * @param cantidad Número de IDs
+     * @return IDs reservados
+     */
+    public List<Long> reservarIdsPersona(int cantidad) {
+        return reservarIds("personas_id_persona_seq", cantidad);
+    }
+
+    /**
+     * Reserva IDs de pacientes en una sola consulta.
+     *
+     * @param cantidad Número de IDs
+     * @return IDs reservados
+     */
+    public List<Long> reservarIdsPaciente(int cantidad) {
+        return reservarIds("pacientes_id_paciente_seq", cantidad);
+    }
+
+    private List<Long> reservarIds(String secuencia, int cantidad) {
+        if (cantidad == 0) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList(
+                "SELECT nextval('" + secuencia + "') FROM generate_series(1, ?)", Long.class, cantidad);
+    }
+
+    /**
+     * Inserta propietarios nuevos en personas, usuarios y clientes.
+     *
+     * @param clientes Clientes con ID ya reservado
+     * @param rolClienteId ID del rol CLIENTE
+     * @param passwordHash Hash de contraseña inicial
+     * @param fechaRegistro Fecha de registro
+     */
+    public void insertarClientes(List<NuevoCliente> clientes, Long rolClienteId,
+                                 String passwordHash, LocalDateTime fechaRegistro) {
+        if (clientes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO personas (id_persona, nombre, apellido, correo, telefono, direccion) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)",
+                clientes, clientes.size(), (ps, c) -> {
+                    ps.setLong(1, c.id());
+                    ps.setString(2, c.nombre());
+                    ps.setString(3, c.apellido());
+                    ps.setString(4, c.correo());
+                    ps.setString(5, c.telefono());
+                    ps.setString(6, c.direccion());
+                });
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO usuarios (id_usuario, username, password_hash, activo, rol_id) "
+                        + "VALUES (?, ?, ?, TRUE, ?)",
+                clientes, clientes.size(), (ps, c) -> {
+                    ps.setLong(1, c.id());
+                    ps.setString(2, c.username());
+                    ps.setString(3, passwordHash);
+                    ps.setLong(4, rolClienteId);
+                });
+        Timestamp registro = Timestamp.valueOf(fechaRegistro);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO clientes (id_usuario, fecha_registro, documento_identidad) VALUES (?, ?, ?)",
+                clientes, clientes.size(), (ps, c) -> {
+                    ps.setLong(1, c.id());
+                    ps.setTimestamp(2, registro);
+                    ps.setString(3, c.documentoIdentidad());
+                });
+    }
+
+    /**
+     * Inserta pacientes y una historia clínica por cada uno.
+     *
+     * @param pacientes Pacientes con ID ya reservado
+     * @param fechaApertura Fecha de apertura de las historias
+     */
+    public void insertarPacientesConHistoria(List<NuevoPaciente> pacientes, LocalDateTime fechaApertura) {
+        if (pacientes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO pacientes (id_paciente, nombre, especie, raza, fecha_nacimiento, sexo, "
+                        + "peso_kg, estado_salud, cliente_id, identificador_externo) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                pacientes, pacientes.size(), (ps, p) -> {
+                    ps.setLong(1, p.id());
+                    ps.setString(2, p.nombre());
+                    ps.setString(3, p.especie());
+                    ps.setString(4, p.raza());
+                    if (p.fechaNacimiento() != null) {
+                        ps.setDate(5, Date.valueOf(p.fechaNacimiento()));
+                    } else {
+                        ps.setNull(5, Types.DATE);
+                    }
+                    ps.setString(6, p.sexo());
+                    ps.setBigDecimal(7, p.pesoKg());
+                    ps.setString(8, p.estadoSalud());
+                    ps.setLong(9, p.clienteId());
+                    ps.setObject(10, p.identificadorExterno());
+                });
+        Timestamp apertura = Timestamp.valueOf(fechaApertura);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO historias_clinicas (paciente_id, fecha_apertura, resumen, metadatos) "
+                        + "VALUES (?, ?, ?, CAST(? AS jsonb))",
+                pacientes, pacientes.size(), (ps, p) -> {
+                    ps.setLong(1, p.id());
+                    ps.setTimestamp(2, apertura);
+                    ps.setString(3, RESUMEN_HISTORIA);
+                    ps.setString(4, METADATOS_HISTORIA);
+                });
+    }
+}
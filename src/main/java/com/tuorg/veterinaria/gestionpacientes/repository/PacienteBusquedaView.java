@@ -0,0 +1,38 @@
+package com.tuorg.veterinaria.gestionpacientes.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Proyección de la búsqueda difusa de pacientes y propietarios.
+ * 
+ * Los nombres de los getters coinciden con los alias de la consulta
+ * nativa {@link PacienteRepository#buscarPorSimilitud}.
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public interface PacienteBusquedaView {
+
+    Long getIdPaciente();
+
+    String getNombrePaciente();
+
+    String getEspecie();
+
+    Long getIdCliente();
+
+    String getNombreCliente();
+
+    String getApellidoCliente();
+
+    String getDocumentoIdentidad();
+
+    String getTelefono();
+
+    String getCorreo();
+
+    /**
+     * @return Similitud por trigramas (0 a 1) del mejor campo coincidente
+     */
+    BigDecimal getPuntaje();
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 /**
@@ -26,9 +27,17 @@ public interface PacienteRepository extends JpaRepository<Paciente, Long> {
      * @param clienteId ID del cliente
      * @return Lista de pacientes del cliente
      */
-    @Query("SELECT p FROM Paciente p WHERE p.cliente.idPersona = :clienteId")
+    @Query("SELECT p FROM Paciente p LEFT JOIN FETCH p.cliente c WHERE c.idPersona = :clienteId")
     List<Paciente> findByClienteId(@Param("clienteId") Long clienteId);
 
+    /**
+     * Obtiene todos los pacientes con su propietario ya inicializado.
+     * 
+     * @return Lista de pacientes con el cliente cargado en la misma consulta
+     */
+    @Query("SELECT p FROM Paciente p LEFT JOIN FETCH p.cliente")
+    List<Paciente> findAllWithCliente();
+
     /**
      * Busca pacientes por especie.
      * 
@@ -45,5 +54,72 @@ public interface PacienteRepository extends JpaRepository<Paciente, Long> {
      */
     @Query("SELECT p FROM Paciente p WHERE LOWER(p.nombre) LIKE LOWER(CONCAT('%', :nombre, '%'))")
     List<Paciente> buscarPorNombre(@Param("nombre") String nombre);
-}
 
+    /**
+     * Búsqueda difusa de pacientes por nombre del paciente o por nombre, apellido,
+     * nombre completo, documento, teléfono o correo del propietario (índices GIN
+     * de pg_trgm, V3 y V17).
+     * 
+     * Los candidatos se reúnen con una consulta por tabla unidas con UNION, de
+     * modo que cada una filtra con sus propios índices; un OR entre columnas de
+     * tablas distintas tras el join obligaría a recorrer todas las filas. Solo
+     * los candidatos se puntúan y se ordenan por similitud descendente.
+     * 
+     * Se pagina por keyset: la siguiente página se pide con el puntaje y el ID
+     * del último resultado. Para la primera página se usa un puntaje mayor que 1
+     * y un ID de 0.
+     * 
+     * @param termino Término normalizado (minúsculas, sin espacios extremos)
+     * @param prefijo Término seguido de '%' para coincidencias por prefijo
+     * @param cursorPuntaje Puntaje del último resultado de la página anterior
+     * @param cursorId ID de paciente del último resultado de la página anterior
+     * @param limite Número máximo de resultados
+     * @return Resultados ordenados por puntaje e ID
+     */
+    @Query(value = "WITH candidatos AS (" +
+            "SELECT p.id_paciente FROM pacientes p " +
+            "WHERE LOWER(p.nombre) % :termino OR LOWER(p.nombre) LIKE :prefijo " +
+            "UNION " +
+            "SELECT p.id_paciente FROM personas pe " +
+            "JOIN pacientes p ON p.cliente_id = pe.id_persona " +
+            "WHERE LOWER(pe.nombre) % :termino " +
+            "OR LOWER(pe.apellido) % :termino " +
+            "OR LOWER(pe.nombre || ' ' || pe.apellido) % :termino " +
+            "OR pe.telefono % :termino " +
+            "OR LOWER(pe.correo) % :termino " +
+            "OR LOWER(pe.apellido) LIKE :prefijo " +
+            "OR pe.telefono LIKE :prefijo " +
+            "UNION " +
+            "SELECT p.id_paciente FROM clientes c " +
+            "JOIN pacientes p ON p.cliente_id = c.id_usuario " +
+            "WHERE LOWER(c.documento_identidad) % :termino " +
+            "OR LOWER(c.documento_identidad) LIKE :prefijo" +
+            ") " +
+            "SELECT r.* FROM (" +
+            "SELECT p.id_paciente AS \"idPaciente\", p.nombre AS \"nombrePaciente\", p.especie AS \"especie\", " +
+            "pe.id_persona AS \"idCliente\", pe.nombre AS \"nombreCliente\", pe.apellido AS \"apellidoCliente\", " +
+            "c.documento_identidad AS \"documentoIdentidad\", pe.telefono AS \"telefono\", pe.correo AS \"correo\", " +
+            "CAST(GREATEST(" +
+            "similarity(LOWER(p.nombre), :termino), " +
+            "similarity(LOWER(pe.nombre), :termino), " +
+            "similarity(LOWER(pe.apellido), :termino), " +
+            "similarity(LOWER(pe.nombre || ' ' || pe.apellido), :termino), " +
+            "similarity(LOWER(COALESCE(c.documento_identidad, '')), :termino), " +
+            "similarity(COALESCE(pe.telefono, ''), :termino), " +
+            "similarity(LOWER(pe.correo), :termino)) AS NUMERIC(6,5)) AS \"puntaje\" " +
+            "FROM candidatos k " +
+            "JOIN pacientes p ON p.id_paciente = k.id_paciente " +
+            "JOIN clientes c ON c.id_usuario = p.cliente_id " +
+            "JOIN personas pe ON pe.id_persona = c.id_usuario" +
+            ") r " +
+            "WHERE r.\"puntaje\" < :cursorPuntaje " +
+            "OR (r.\"puntaje\" = :cursorPuntaje AND r.\"idPaciente\" > :cursorId) " +
+            "ORDER BY r.\"puntaje\" DESC, r.\"idPaciente\" ASC " +
+            "LIMIT :limite",
+            nativeQuery = true)
+    List<PacienteBusquedaView> buscarPorSimilitud(@Param("termino") String termino,
+                                                  @Param("prefijo") String prefijo,
+                                                  @Param("cursorPuntaje") BigDecimal cursorPuntaje,
+                                                  @Param("cursorId") Long cursorId,
+                                                  @Param("limite") int limite);
+}
@@ -26,7 +26,21 @@ public interface RegistroMedicoRepository extends JpaRepository<RegistroMedico,
      * @param historiaId ID de la historia clínica
      * @return Lista de registros médicos de la historia
      */
-    @Query("SELECT rm FROM RegistroMedico rm WHERE rm.historia.idHistoria = :historiaId")
+    @Query("SELECT rm FROM RegistroMedico rm " +
+           "LEFT JOIN FETCH rm.veterinario v " +
+           "WHERE rm.historia.idHistoria = :historiaId")
     List<RegistroMedico> findByHistoriaId(@Param("historiaId") Long historiaId);
+
+    /**
+     * Busca registros médicos de la historia clínica de un paciente.
+     * 
+     * @param pacienteId ID del paciente
+     * @return Lista de registros médicos del paciente, del más reciente al más antiguo
+     */
+    @Query("SELECT rm FROM RegistroMedico rm " +
+           "LEFT JOIN FETCH rm.veterinario v " +
+           "WHERE rm.historia.paciente.idPaciente = :pacienteId " +
+           "ORDER BY rm.fecha DESC")
+    List<RegistroMedico> findByPacienteId(@Param("pacienteId") Long pacienteId);
 }
 
@@ -0,0 +1,135 @@
+package com.tuorg.veterinaria.gestionpacientes.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Acceso JDBC a la serie temporal de signos vitales.
+ *
+ * La tabla es de solo inserción y se consulta siempre agregada, por lo que
+ * no se modela como entidad JPA.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Repository
+public class SignoVitalSerieRepository {
+
+    /**
+     * Medición individual a insertar.
+     */
+    public record Medicion(Long pacienteId, String metrica, LocalDateTime fecha, double valor, Long registroId) {
+    }
+
+    /**
+     * Agregado de un intervalo de la serie.
+     */
+    public record Intervalo(LocalDateTime inicio, double minimo, double maximo, double promedio, long muestras) {
+    }
+
+    /**
+     * Primera y última medición de una métrica.
+     */
+    public record Rango(LocalDateTime desde, LocalDateTime hasta) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param jdbcTemplate Plantilla JDBC
+     */
+    @Autowired
+    public SignoVitalSerieRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserta mediciones en un solo batch.
+     *
+     * @param mediciones Mediciones a insertar
+     */
+    public void insertar(List<Medicion> mediciones) {
+        if (mediciones.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO signos_vitales_series (paciente_id, metrica, fecha, valor, registro_id) "
+                        + "VALUES (?, ?, ?, ?, ?)",
+                mediciones, mediciones.size(), (ps, m) -> {
+                    ps.setLong(1, m.pacienteId());
+                    ps.setString(2, m.metrica());
+                    ps.setTimestamp(3, Timestamp.valueOf(m.fecha()));
+                    ps.setDouble(4, m.valor());
+                    ps.setLong(5, m.registroId());
+                });
+    }
+
+    /**
+     * Métricas registradas para un paciente.
+     *
+     * @param pacienteId ID del paciente
+     * @return Nombres de métrica ordenados alfabéticamente
+     */
+    public List<String> findMetricas(Long pacienteId) {
+        return jdbcTemplate.queryForList(
+                "SELECT DISTINCT metrica FROM signos_vitales_series WHERE paciente_id = ? ORDER BY metrica",
+                String.class, pacienteId);
+    }
+
+    /**
+     * Fechas de la primera y la última medición de una métrica.
+     *
+     * @param pacienteId ID del paciente
+     * @param metrica Métrica
+     * @return Rango, o vacío si no hay mediciones
+     */
+    public Optional<Rango> findRango(Long pacienteId, String metrica) {
+        return jdbcTemplate.query(
+                "SELECT MIN(fecha), MAX(fecha) FROM signos_vitales_series WHERE paciente_id = ? AND metrica = ?",
+                rs -> {
+                    if (!rs.next() || rs.getTimestamp(1) == null) {
+                        return Optional.empty();
+                    }
+                    return Optional.of(new Rango(
+                            rs.getTimestamp(1).toLocalDateTime(), rs.getTimestamp(2).toLocalDateTime()));
+                },
+                pacienteId, metrica);
+    }
+
+    /**
+     * Agrega la serie en intervalos de ancho fijo (mínimo, máximo y promedio
+     * por intervalo). Los intervalos sin mediciones no se devuelven.
+     *
+     * @param pacienteId ID del paciente
+     * @param metrica Métrica
+     * @param desde Inicio del rango (inclusive), origen de los intervalos
+     * @param hasta Fin del rango (exclusivo)
+     * @param anchoSegundos Ancho de cada intervalo en segundos
+     * @return Intervalos ordenados cronológicamente
+     */
+    public List<Intervalo> findTendencia(Long pacienteId, String metrica, LocalDateTime desde,
+                                         LocalDateTime hasta, long anchoSegundos) {
+        Timestamp origen = Timestamp.valueOf(desde);
+        return jdbcTemplate.query(
+                "SELECT date_bin(make_interval(secs => ?), fecha, CAST(? AS TIMESTAMPTZ)) AS inicio, "
+                        + "MIN(valor), MAX(valor), AVG(valor), COUNT(*) "
+                        + "FROM signos_vitales_series "
+                        + "WHERE paciente_id = ? AND metrica = ? AND fecha >= ? AND fecha < ? "
+                        + "GROUP BY inicio ORDER BY inicio",
+                (rs, rowNum) -> new Intervalo(
+                        rs.getTimestamp(1).toLocalDateTime(),
+                        rs.getDouble(2),
+                        rs.getDouble(3),
+                        rs.getDouble(4),
+                        rs.getLong(5)),
+                (double) anchoSegundos, origen, pacienteId, metrica, origen, Timestamp.valueOf(hasta));
+    }
+}
@@ -27,7 +27,10 @@ public interface VacunacionRepository extends JpaRepository<Vacunacion, Long> {
      * @param pacienteId ID del paciente
      * @return Lista de vacunaciones del paciente
      */
-    @Query("SELECT v FROM Vacunacion v WHERE v.paciente.idPaciente = :pacienteId")
+    @Query("SELECT v FROM Vacunacion v " +
+           "LEFT JOIN FETCH v.paciente p " +
+           "LEFT JOIN FETCH v.veterinario vet " +
+           "WHERE p.idPaciente = :pacienteId")
     List<Vacunacion> findByPacienteId(@Param("pacienteId") Long pacienteId);
 
     /**
@@ -36,7 +39,10 @@ public interface VacunacionRepository extends JpaRepository<Vacunacion, Long> {
      * @param fechaLimite Fecha límite para considerar pendiente
      * @return Lista de vacunaciones con próxima dosis antes de la fecha límite
      */
-    @Query("SELECT v FROM Vacunacion v WHERE v.proximaDosis IS NOT NULL AND v.proximaDosis <= :fechaLimite")
+    @Query("SELECT v FROM Vacunacion v " +
+           "LEFT JOIN FETCH v.paciente p " +
+           "LEFT JOIN FETCH v.veterinario vet " +
+           "WHERE v.proximaDosis IS NOT NULL AND v.proximaDosis <= :fechaLimite")
     List<Vacunacion> findVacunacionesPendientes(@Param("fechaLimite") LocalDate fechaLimite);
 }
 
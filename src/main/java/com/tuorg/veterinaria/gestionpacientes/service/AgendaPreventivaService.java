@@ -0,0 +1,298 @@
+package com.tuorg.veterinaria.gestionpacientes.service;
+
+import com.tuorg.veterinaria.auditoria.aspect.Auditable;
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.common.exception.ResourceNotFoundException;
+import com.tuorg.veterinaria.gestionpacientes.dto.AgendaPreventivaResponse;
+import com.tuorg.veterinaria.gestionpacientes.model.PautaPreventiva;
+import com.tuorg.veterinaria.gestionpacientes.repository.AgendaPreventivaRepository;
+import com.tuorg.veterinaria.gestionpacientes.repository.AgendaPreventivaRepository.EntradaAgenda;
+import com.tuorg.veterinaria.gestionpacientes.repository.AgendaPreventivaRepository.EntradaPaciente;
+import com.tuorg.veterinaria.gestionpacientes.repository.AgendaPreventivaRepository.FilaHistorial;
+import com.tuorg.veterinaria.gestionpacientes.repository.PacienteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Motor del protocolo preventivo (vacunación y desparasitación).
+ *
+ * A partir de la especie, la fecha de nacimiento y las aplicaciones
+ * registradas calcula, para cada pauta de {@link PautaPreventiva}, la
+ * próxima dosis debida del paciente, y la materializa en la tabla
+ * agenda_preventiva. Las consultas de "debidas esta semana" leen solo esa
+ * tabla (índice por fecha debida) sin recorrer el historial.
+ *
+ * El cálculo completo se hace en una sola pasada en streaming sobre toda
+ * la población; después, cada vacunación, desparasitación o cambio de
+ * paciente recalcula solo a ese paciente.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Service
+public class AgendaPreventivaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgendaPreventivaService.class);
+
+    /**
+     * Entradas por batch de inserción en el recálculo completo.
+     */
+    private static final int TAMANO_LOTE = 1000;
+
+    /**
+     * Máximo de entradas por consulta de pendientes.
+     */
+    static final int LIMITE_MAXIMO = 5000;
+
+    /**
+     * Repositorio de la agenda preventiva.
+     */
+    private final AgendaPreventivaRepository agendaPreventivaRepository;
+
+    /**
+     * Repositorio de pacientes.
+     */
+    private final PacienteRepository pacienteRepository;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param agendaPreventivaRepository Repositorio de la agenda preventiva
+     * @param pacienteRepository Repositorio de pacientes
+     */
+    @Autowired
+    public AgendaPreventivaService(AgendaPreventivaRepository agendaPreventivaRepository,
+                                   PacienteRepository pacienteRepository) {
+        this.agendaPreventivaRepository = agendaPreventivaRepository;
+        this.pacienteRepository = pacienteRepository;
+    }
+
+    /**
+     * Construye la agenda al arrancar si todavía está vacía.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void inicializar() {
+        if (agendaPreventivaRepository.estaVacia()) {
+            recalcular();
+        }
+    }
+
+    /**
+     * Recalcula la agenda de toda la población en una sola pasada.
+     *
+     * @return Número de entradas generadas
+     */
+    @Auditable
+    @Transactional
+    public long recalcularTodo() {
+        return recalcular();
+    }
+
+    private long recalcular() {
+        long inicio = System.currentTimeMillis();
+        LocalDate hoy = LocalDate.now();
+        agendaPreventivaRepository.eliminarTodo();
+
+        RecorridoPoblacion recorrido = new RecorridoPoblacion(hoy);
+        agendaPreventivaRepository.recorrerHistorial(recorrido::agregar);
+        recorrido.terminar();
+
+        logger.info("Agenda preventiva recalculada: {} pacientes, {} entradas en {} ms",
+                recorrido.pacientes, recorrido.entradas, System.currentTimeMillis() - inicio);
+        return recorrido.entradas;
+    }
+
+    /**
+     * Recalcula la agenda de un paciente.
+     *
+     * @param pacienteId ID del paciente
+     */
+    @Transactional
+    public void recalcularPaciente(Long pacienteId) {
+        recalcularPacientes(List.of(pacienteId));
+    }
+
+    /**
+     * Recalcula la agenda de un conjunto de pacientes con una lectura
+     * del historial y un batch de inserción.
+     *
+     * @param pacienteIds IDs de los pacientes
+     */
+    @Transactional
+    public void recalcularPacientes(Collection<Long> pacienteIds) {
+        if (pacienteIds.isEmpty()) {
+            return;
+        }
+        agendaPreventivaRepository.eliminarPorPacientes(pacienteIds);
+        RecorridoPoblacion recorrido = new RecorridoPoblacion(LocalDate.now());
+        agendaPreventivaRepository.recorrerHistorial(pacienteIds, recorrido::agregar);
+        recorrido.terminar();
+    }
+
+    /**
+     * Obtiene las dosis debidas en los próximos días.
+     *
+     * @param dias Días hacia adelante (por defecto 7)
+     * @param incluirVencidas Incluir dosis con fecha debida pasada (por defecto true)
+     * @param tipo Tipo de pauta (opcional)
+     * @param limite Máximo de resultados (por defecto y máximo 5000)
+     * @return Dosis debidas ordenadas por fecha
+     */
+    @Transactional(readOnly = true)
+    public List<AgendaPreventivaResponse> obtenerPendientes(Integer dias, Boolean incluirVencidas,
+                                                            PautaPreventiva.Tipo tipo, Integer limite) {
+        int diasConsulta = dias != null ? dias : 7;
+        if (diasConsulta < 0) {
+            throw new BusinessException("El número de días no puede ser negativo");
+        }
+        int limiteConsulta = limite != null ? Math.min(Math.max(limite, 1), LIMITE_MAXIMO) : LIMITE_MAXIMO;
+        LocalDate hoy = LocalDate.now();
+        LocalDate desde = Boolean.FALSE.equals(incluirVencidas) ? hoy : null;
+        return agendaPreventivaRepository.findDebidas(desde, hoy.plusDays(diasConsulta), tipo, limiteConsulta)
+                .stream()
+                .map(entrada -> mapToResponse(entrada, hoy))
+                .toList();
+    }
+
+    /**
+     * Obtiene la agenda preventiva de un paciente.
+     *
+     * @param pacienteId ID del paciente
+     * @return Próximas dosis de cada pauta
+     */
+    @Transactional(readOnly = true)
+    public List<AgendaPreventivaResponse> obtenerPorPaciente(Long pacienteId) {
+        if (!pacienteRepository.existsById(pacienteId)) {
+            throw new ResourceNotFoundException("Paciente", "id", pacienteId);
+        }
+        LocalDate hoy = LocalDate.now();
+        return agendaPreventivaRepository.findByPacienteId(pacienteId)
+                .stream()
+                .map(entrada -> mapToResponse(entrada, hoy))
+                .toList();
+    }
+
+    /**
+     * Calcula la próxima dosis de cada pauta de un paciente.
+     *
+     * Para cada pauta se cuentan las aplicaciones que coinciden con ella:
+     * si la última tiene próxima dosis explícita se respeta; si no, sin
+     * aplicaciones la primera dosis vence a la edad de inicio, durante la
+     * serie inicial la siguiente vence tras el intervalo inicial, y
+     * completada la serie corresponde el refuerzo. Sin fecha de nacimiento
+     * la primera dosis se considera debida hoy.
+     *
+     * @param historial Filas de un único paciente, ordenadas por fecha de aplicación
+     * @param hoy Fecha de cálculo
+     * @return Entradas de agenda del paciente
+     */
+    static List<EntradaAgenda> calcular(List<FilaHistorial> historial, LocalDate hoy) {
+        if (historial.isEmpty()) {
+            return List.of();
+        }
+        FilaHistorial paciente = historial.get(0);
+        List<EntradaAgenda> entradas = new ArrayList<>();
+        for (PautaPreventiva pauta : PautaPreventiva.paraEspecie(paciente.especie())) {
+            int aplicadas = 0;
+            FilaHistorial ultima = null;
+            for (FilaHistorial fila : historial) {
+                if (fila.fechaAplicacion() != null && pauta.coincide(fila.tipo(), fila.descripcion())) {
+                    aplicadas++;
+                    ultima = fila;
+                }
+            }
+
+            LocalDate debida;
+            if (ultima == null) {
+                debida = paciente.fechaNacimiento() != null
+                        ? paciente.fechaNacimiento().plusWeeks(pauta.getEdadInicioSemanas())
+                        : hoy;
+            } else if (ultima.proxima() != null) {
+                debida = ultima.proxima();
+            } else if (aplicadas < pauta.getDosisIniciales()) {
+                debida = ultima.fechaAplicacion().plusWeeks(pauta.getIntervaloInicialSemanas());
+            } else {
+                debida = ultima.fechaAplicacion().plusMonths(pauta.getRefuerzoMeses());
+            }
+            entradas.add(new EntradaAgenda(paciente.pacienteId(), pauta, debida, aplicadas + 1,
+                    ultima != null ? ultima.fechaAplicacion() : null));
+        }
+        return entradas;
+    }
+
+    private AgendaPreventivaResponse mapToResponse(EntradaPaciente entradaPaciente, LocalDate hoy) {
+        EntradaAgenda entrada = entradaPaciente.entrada();
+        return AgendaPreventivaResponse.builder()
+                .pacienteId(entrada.pacienteId())
+                .pacienteNombre(entradaPaciente.pacienteNombre())
+                .especie(entradaPaciente.especie())
+                .pauta(entrada.pauta().name())
+                .pautaNombre(entrada.pauta().getNombre())
+                .tipo(entrada.pauta().getTipo().name())
+                .fechaDebida(entrada.fechaDebida())
+                .dosisNumero(entrada.dosisNumero())
+                .ultimaAplicacion(entrada.ultimaAplicacion())
+                .vencida(entrada.fechaDebida().isBefore(hoy))
+                .diasRestantes(ChronoUnit.DAYS.between(hoy, entrada.fechaDebida()))
+                .build();
+    }
+
+    /**
+     * Agrupa las filas del recorrido completo por paciente y escribe la
+     * agenda por lotes a medida que avanza.
+     */
+    private final class RecorridoPoblacion {
+        private final LocalDate hoy;
+        private final List<FilaHistorial> pacienteActual = new ArrayList<>();
+        private final List<EntradaAgenda> lote = new ArrayList<>(TAMANO_LOTE);
+        private long pacientes;
+        private long entradas;
+
+        private RecorridoPoblacion(LocalDate hoy) {
+            this.hoy = hoy;
+        }
+
+        private void agregar(FilaHistorial fila) {
+            if (!pacienteActual.isEmpty() && !pacienteActual.get(0).pacienteId().equals(fila.pacienteId())) {
+                cerrarPaciente();
+            }
+            pacienteActual.add(fila);
+        }
+
+        private void cerrarPaciente() {
+            lote.addAll(calcular(pacienteActual, hoy));
+            pacienteActual.clear();
+            pacientes++;
+            if (lote.size() >= TAMANO_LOTE) {
+                escribirLote();
+            }
+        }
+
+        private void escribirLote() {
+            agendaPreventivaRepository.insertar(lote);
+            entradas += lote.size();
+            lote.clear();
+        }
+
+        private void terminar() {
+            if (!pacienteActual.isEmpty()) {
+                cerrarPaciente();
+            }
+            escribirLote();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.tuorg.veterinaria.gestionpacientes.service;
+
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.gestionpacientes.dto.BusquedaPacienteResponse;
+import com.tuorg.veterinaria.gestionpacientes.repository.PacienteBusquedaView;
+import com.tuorg.veterinaria.gestionpacientes.repository.PacienteRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Servicio de búsqueda difusa de pacientes y propietarios.
+ * 
+ * Usa los índices de trigramas (pg_trgm) para tolerar errores de escritura
+ * en el buscador de recepción y devuelve los resultados ordenados por
+ * similitud, paginados por keyset (puntaje, ID) en lugar de OFFSET.
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Service
+public class BusquedaPacienteService {
+
+    /**
+     * Longitud mínima del término de búsqueda.
+     */
+    private static final int LONGITUD_MINIMA = 2;
+
+    /**
+     * Número de resultados por defecto.
+     */
+    private static final int LIMITE_POR_DEFECTO = 20;
+
+    /**
+     * Número máximo de resultados por página.
+     */
+    private static final int LIMITE_MAXIMO = 50;
+
+    /**
+     * Puntaje inicial del cursor: mayor que cualquier similitud posible (0 a 1).
+     */
+    private static final BigDecimal PUNTAJE_INICIAL = new BigDecimal("2");
+
+    /**
+     * Repositorio de pacientes.
+     */
+    private final PacienteRepository pacienteRepository;
+
+    /**
+     * Constructor con inyección de dependencias.
+     * 
+     * @param pacienteRepository Repositorio de pacientes
+     */
+    @Autowired
+    public BusquedaPacienteService(PacienteRepository pacienteRepository) {
+        this.pacienteRepository = pacienteRepository;
+    }
+
+    /**
+     * Busca pacientes por similitud con el término indicado.
+     * 
+     * @param termino Texto buscado (nombre de mascota, nombre/apellido, documento, teléfono o correo del dueño)
+     * @param limite Número de resultados deseado (opcional, máximo 50)
+     * @param cursorPuntaje Puntaje del último resultado de la página anterior (opcional)
+     * @param cursorId ID del último resultado de la página anterior (opcional)
+     * @return Página de resultados con el cursor de la siguiente
+     */
+    @Transactional(readOnly = true)
+    public BusquedaPacienteResponse buscar(String termino, Integer limite, BigDecimal cursorPuntaje, Long cursorId) {
+        String normalizado = termino != null ? termino.trim().toLowerCase(Locale.ROOT) : "";
+        if (normalizado.length() < LONGITUD_MINIMA) {
+            throw new BusinessException("El término de búsqueda debe tener al menos " + LONGITUD_MINIMA + " caracteres");
+        }
+        if ((cursorPuntaje == null) != (cursorId == null)) {
+            throw new BusinessException("El cursor de paginación requiere puntaje e ID");
+        }
+
+        int tamanio = limite == null ? LIMITE_POR_DEFECTO : Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        String prefijo = escaparLike(normalizado) + "%";
+
+        // Se pide un registro extra para saber si existe otra página
+        List<PacienteBusquedaView> filas = pacienteRepository.buscarPorSimilitud(
+                normalizado,
+                prefijo,
+                cursorPuntaje != null ? cursorPuntaje : PUNTAJE_INICIAL,
+                cursorId != null ? cursorId : 0L,
+                tamanio + 1);
+
+        boolean hayMas = filas.size() > tamanio;
+        List<BusquedaPacienteResponse.Resultado> resultados = filas.stream()
+                .limit(tamanio)
+                .map(this::mapToResultado)
+                .toList();
+
+        BusquedaPacienteResponse.Resultado ultimo = resultados.isEmpty() ? null : resultados.get(resultados.size() - 1);
+        return BusquedaPacienteResponse.builder()
+                .resultados(resultados)
+                .hayMas(hayMas)
+                .cursorPuntaje(hayMas ? ultimo.getPuntaje() : null)
+                .cursorId(hayMas ? ultimo.getPacienteId() : null)
+                .build();
+    }
+
+    /**
+     * Escapa los comodines de LIKE presentes en el texto del usuario.
+     */
+    private String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private BusquedaPacienteResponse.Resultado mapToResultado(PacienteBusquedaView fila) {
+        return BusquedaPacienteResponse.Resultado.builder()
+                .pacienteId(fila.getIdPaciente())
+                .nombre(fila.getNombrePaciente())
+                .especie(fila.getEspecie())
+                .puntaje(fila.getPuntaje())
+                .propietario(BusquedaPacienteResponse.PropietarioSummary.builder()
+                        .id(fila.getIdCliente())
+                        .nombre(fila.getNombreCliente())
+                        .apellido(fila.getApellidoCliente())
+                        .documentoIdentidad(fila.getDocumentoIdentidad())
+                        .telefono(fila.getTelefono())
+                        .correo(fila.getCorreo())
+                        .build())
+                .build();
+    }
+}
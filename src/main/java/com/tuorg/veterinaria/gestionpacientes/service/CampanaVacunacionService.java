@@ -0,0 +1,180 @@
+package com.tuorg.veterinaria.gestionpacientes.service;
+
+import com.tuorg.veterinaria.common.event.FichaPacienteModificadaEvent;
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.gestionpacientes.dto.CampanaVacunacionRequest;
+import com.tuorg.veterinaria.gestionpacientes.dto.CampanaVacunacionResponse;
+import com.tuorg.veterinaria.gestionpacientes.repository.CampanaVacunacionRepository;
+import com.tuorg.veterinaria.gestionpacientes.repository.CampanaVacunacionRepository.NuevaVacunacion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio para el registro masivo de vacunaciones en jornadas de campaña.
+ *
+ * Frente a {@link VacunacionService#registrarVacuna}, que hace dos findById
+ * y un save por aplicación, aquí todas las referencias se validan con una
+ * consulta por conjunto y las vacunaciones se insertan en un único batch.
+ * La próxima dosis se guarda en la misma inserción y la agenda preventiva
+ * de los pacientes afectados se recalcula en la misma transacción, de modo
+ * que la campaña se registra completa o no se registra.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Service
+public class CampanaVacunacionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CampanaVacunacionService.class);
+
+    /**
+     * IDs incluidos como máximo en los mensajes de error.
+     */
+    private static final int MAX_IDS_EN_ERROR = 20;
+
+    /**
+     * Repositorio JDBC de la campaña.
+     */
+    private final CampanaVacunacionRepository campanaVacunacionRepository;
+
+    /**
+     * Servicio de la agenda preventiva.
+     */
+    private final AgendaPreventivaService agendaPreventivaService;
+
+    /**
+     * Publicador de eventos para invalidar las fichas de los pacientes.
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param campanaVacunacionRepository Repositorio JDBC de la campaña
+     * @param agendaPreventivaService Servicio de la agenda preventiva
+     * @param eventPublisher Publicador de eventos
+     */
+    @Autowired
+    public CampanaVacunacionService(CampanaVacunacionRepository campanaVacunacionRepository,
+                                    AgendaPreventivaService agendaPreventivaService,
+                                    ApplicationEventPublisher eventPublisher) {
+        this.campanaVacunacionRepository = campanaVacunacionRepository;
+        this.agendaPreventivaService = agendaPreventivaService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Registra todas las vacunaciones de una jornada.
+     *
+     * @param request Datos de la campaña y aplicaciones
+     * @return Resumen con los IDs de las vacunaciones creadas
+     * @throws BusinessException Si alguna fecha, paciente o veterinario no es válido
+     */
+    @Transactional
+    public CampanaVacunacionResponse registrarCampana(CampanaVacunacionRequest request) {
+        long inicio = System.currentTimeMillis();
+        LocalDate fechaAplicacion = request.getFechaAplicacion();
+        if (fechaAplicacion.isAfter(LocalDate.now())) {
+            throw new BusinessException("La fecha de aplicación no puede ser futura");
+        }
+
+        List<CampanaVacunacionRequest.Aplicacion> aplicaciones = request.getAplicaciones();
+        Set<Long> pacienteIds = new LinkedHashSet<>();
+        Set<Long> veterinarioIds = new HashSet<>();
+        Set<Long> duplicados = new LinkedHashSet<>();
+        for (CampanaVacunacionRequest.Aplicacion aplicacion : aplicaciones) {
+            if (!pacienteIds.add(aplicacion.getPacienteId())) {
+                duplicados.add(aplicacion.getPacienteId());
+            }
+            Long veterinarioId = veterinario(request, aplicacion);
+            if (veterinarioId != null) {
+                veterinarioIds.add(veterinarioId);
+            }
+            LocalDate proximaDosis = proximaDosis(request, aplicacion);
+            if (proximaDosis != null && !proximaDosis.isAfter(fechaAplicacion)) {
+                throw new BusinessException("La próxima dosis del paciente " + aplicacion.getPacienteId()
+                        + " debe ser posterior a la fecha de aplicación");
+            }
+        }
+        if (!duplicados.isEmpty()) {
+            throw new BusinessException("Pacientes repetidos en la campaña: " + resumirIds(duplicados));
+        }
+
+        Set<Long> pacientesInexistentes = faltantes(pacienteIds,
+                campanaVacunacionRepository.findPacientesExistentes(pacienteIds));
+        if (!pacientesInexistentes.isEmpty()) {
+            throw new BusinessException("Pacientes inexistentes: " + resumirIds(pacientesInexistentes));
+        }
+        Set<Long> veterinariosInvalidos = faltantes(veterinarioIds,
+                campanaVacunacionRepository.findVeterinariosExistentes(veterinarioIds));
+        if (!veterinariosInvalidos.isEmpty()) {
+            throw new BusinessException("Los usuarios indicados no corresponden a veterinarios: "
+                    + resumirIds(veterinariosInvalidos));
+        }
+
+        List<Long> ids = campanaVacunacionRepository.reservarIds(aplicaciones.size());
+        List<NuevaVacunacion> vacunaciones = new ArrayList<>(aplicaciones.size());
+        int proximasDosis = 0;
+        for (int i = 0; i < aplicaciones.size(); i++) {
+            CampanaVacunacionRequest.Aplicacion aplicacion = aplicaciones.get(i);
+            LocalDate proximaDosis = proximaDosis(request, aplicacion);
+            if (proximaDosis != null) {
+                proximasDosis++;
+            }
+            vacunaciones.add(new NuevaVacunacion(ids.get(i), aplicacion.getPacienteId(),
+                    request.getTipoVacuna().trim(), fechaAplicacion, proximaDosis,
+                    veterinario(request, aplicacion)));
+        }
+        campanaVacunacionRepository.insertar(vacunaciones);
+        agendaPreventivaService.recalcularPacientes(pacienteIds);
+
+        // Las inserciones JDBC no pasan por los listeners JPA
+        pacienteIds.forEach(id -> eventPublisher.publishEvent(new FichaPacienteModificadaEvent(this, id, null)));
+
+        long duracion = System.currentTimeMillis() - inicio;
+        logger.info("Campaña de vacunación '{}' registrada: {} aplicaciones en {} ms",
+                request.getTipoVacuna(), vacunaciones.size(), duracion);
+        return CampanaVacunacionResponse.builder()
+                .registradas(vacunaciones.size())
+                .proximasDosisProgramadas(proximasDosis)
+                .vacunacionIds(ids)
+                .duracionMs(duracion)
+                .build();
+    }
+
+    private static Long veterinario(CampanaVacunacionRequest request, CampanaVacunacionRequest.Aplicacion aplicacion) {
+        return aplicacion.getVeterinarioId() != null ? aplicacion.getVeterinarioId() : request.getVeterinarioId();
+    }
+
+    private static LocalDate proximaDosis(CampanaVacunacionRequest request,
+                                          CampanaVacunacionRequest.Aplicacion aplicacion) {
+        return aplicacion.getProximaDosis() != null ? aplicacion.getProximaDosis() : request.getProximaDosis();
+    }
+
+    private static Set<Long> faltantes(Set<Long> solicitados, Set<Long> existentes) {
+        Set<Long> faltantes = new LinkedHashSet<>(solicitados);
+        faltantes.removeAll(existentes);
+        return faltantes;
+    }
+
+    private static String resumirIds(Collection<Long> ids) {
+        String lista = ids.stream()
+                .limit(MAX_IDS_EN_ERROR)
+                .map(String::valueOf)
+                .collect(Collectors.joining(", "));
+        return ids.size() > MAX_IDS_EN_ERROR ? lista + " y " + (ids.size() - MAX_IDS_EN_ERROR) + " más" : lista;
+    }
+}
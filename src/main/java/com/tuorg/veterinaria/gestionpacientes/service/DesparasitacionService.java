@@ -106,7 +106,7 @@ public class DesparasitacionService {
      */
     @Transactional(readOnly = true)
     public List<DesparasitacionResponse> obtenerTodas() {
-        return desparasitacionRepository.findAll()
+        return desparasitacionRepository.findAllWithPaciente()
                 .stream()
                 .map(this::mapToResponse)
                 .toList();
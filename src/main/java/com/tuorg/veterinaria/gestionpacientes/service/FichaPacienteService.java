@@ -0,0 +1,155 @@
+package com.tuorg.veterinaria.gestionpacientes.service;
+
+import com.tuorg.veterinaria.common.exception.ResourceNotFoundException;
+import com.tuorg.veterinaria.gestionfacturacion.dto.FacturaResponse;
+import com.tuorg.veterinaria.gestionfacturacion.service.FacturaService;
+import com.tuorg.veterinaria.gestionpacientes.dto.DesparasitacionResponse;
+import com.tuorg.veterinaria.gestionpacientes.dto.FichaPacienteResponse;
+import com.tuorg.veterinaria.gestionpacientes.dto.HistoriaClinicaResponse;
+import com.tuorg.veterinaria.gestionpacientes.dto.PacienteResponse;
+import com.tuorg.veterinaria.gestionpacientes.dto.RegistroMedicoResponse;
+import com.tuorg.veterinaria.gestionpacientes.dto.VacunacionResponse;
+import com.tuorg.veterinaria.prestacioneservicios.dto.CitaResponse;
+import com.tuorg.veterinaria.prestacioneservicios.service.CitaService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servicio que arma la ficha integral (vista 360) de un paciente.
+ * 
+ * Reemplaza las siete llamadas que hacía el frontend al abrir una ficha por
+ * un número fijo de consultas por conjuntos (una por sección, con fetch
+ * joins) ejecutadas en paralelo. Cada sección corre en su propia transacción
+ * de solo lectura; este servicio no es transaccional para no retener una
+ * conexión mientras espera a las demás.
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Service
+public class FichaPacienteService {
+
+    /**
+     * Hilos compartidos por todas las peticiones de fichas. Acota las
+     * conexiones que la ficha puede tomar del pool (10) al mismo tiempo.
+     */
+    private static final int HILOS_CONSULTA = 3;
+
+    private final PacienteService pacienteService;
+    private final HistoriaClinicaService historiaClinicaService;
+    private final VacunacionService vacunacionService;
+    private final DesparasitacionService desparasitacionService;
+    private final CitaService citaService;
+    private final FacturaService facturaService;
+
+    /**
+     * Ejecutor de las consultas de cada sección.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Constructor con inyección de dependencias.
+     * 
+     * @param pacienteService Servicio de pacientes
+     * @param historiaClinicaService Servicio de historias clínicas
+     * @param vacunacionService Servicio de vacunaciones
+     * @param desparasitacionService Servicio de desparasitaciones
+     * @param citaService Servicio de citas
+     * @param facturaService Servicio de facturas
+     */
+    @Autowired
+    public FichaPacienteService(PacienteService pacienteService,
+                                HistoriaClinicaService historiaClinicaService,
+                                VacunacionService vacunacionService,
+                                DesparasitacionService desparasitacionService,
+                                CitaService citaService,
+                                FacturaService facturaService) {
+        this.pacienteService = pacienteService;
+        this.historiaClinicaService = historiaClinicaService;
+        this.vacunacionService = vacunacionService;
+        this.desparasitacionService = desparasitacionService;
+        this.citaService = citaService;
+        this.facturaService = facturaService;
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(HILOS_CONSULTA, tarea -> {
+            Thread hilo = new Thread(tarea, "ficha-paciente-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Obtiene la ficha integral de un paciente.
+     * 
+     * @param pacienteId ID del paciente
+     * @return Ficha con todas las secciones
+     * @throws ResourceNotFoundException Si el paciente no existe
+     */
+    public FichaPacienteResponse obtenerFicha(Long pacienteId) {
+        CompletableFuture<PacienteResponse> paciente =
+                CompletableFuture.supplyAsync(() -> pacienteService.obtener(pacienteId), executor);
+        CompletableFuture<HistoriaClinicaResponse> historia =
+                CompletableFuture.supplyAsync(() -> obtenerHistoria(pacienteId), executor);
+        CompletableFuture<List<RegistroMedicoResponse>> registros =
+                CompletableFuture.supplyAsync(() -> historiaClinicaService.obtenerRegistrosPorPaciente(pacienteId), executor);
+        CompletableFuture<List<VacunacionResponse>> vacunaciones =
+                CompletableFuture.supplyAsync(() -> vacunacionService.obtenerPorPaciente(pacienteId), executor);
+        CompletableFuture<List<DesparasitacionResponse>> desparasitaciones =
+                CompletableFuture.supplyAsync(() -> desparasitacionService.obtenerPorPaciente(pacienteId), executor);
+        CompletableFuture<List<CitaResponse>> citas =
+                CompletableFuture.supplyAsync(() -> citaService.obtenerPorPaciente(pacienteId), executor);
+        // Las facturas dependen del propietario, que se conoce al cargar el paciente
+        CompletableFuture<List<FacturaResponse>> facturas =
+                paciente.thenApplyAsync(p -> obtenerFacturas(p), executor);
+
+        try {
+            CompletableFuture.allOf(paciente, historia, registros, vacunaciones, desparasitaciones, citas, facturas).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+
+        return FichaPacienteResponse.builder()
+                .paciente(paciente.join())
+                .historia(historia.join())
+                .registros(registros.join())
+                .vacunaciones(vacunaciones.join())
+                .desparasitaciones(desparasitaciones.join())
+                .citas(citas.join())
+                .facturas(facturas.join())
+                .build();
+    }
+
+    /**
+     * Libera los hilos del ejecutor al cerrar el contexto.
+     */
+    @PreDestroy
+    public void cerrar() {
+        executor.shutdown();
+    }
+
+    private HistoriaClinicaResponse obtenerHistoria(Long pacienteId) {
+        try {
+            return historiaClinicaService.obtenerPorPaciente(pacienteId);
+        } catch (ResourceNotFoundException e) {
+            return null;
+        }
+    }
+
+    private List<FacturaResponse> obtenerFacturas(PacienteResponse paciente) {
+        if (paciente.getCliente() == null) {
+            return List.of();
+        }
+        return facturaService.obtenerPorCliente(paciente.getCliente().getId());
+    }
+}
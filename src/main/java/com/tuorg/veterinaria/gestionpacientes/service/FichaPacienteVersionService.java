@@ -0,0 +1,44 @@
+package com.tuorg.veterinaria.gestionpacientes.service;
+
+import com.tuorg.veterinaria.gestionpacientes.repository.FichaPacienteVersionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Versionado de la ficha integral de cada paciente.
+ * 
+ * La versión vive en la base de datos (tabla fichas_paciente_version, V18) y
+ * la incrementan triggers sobre el paciente, su historia, registros, vacunas,
+ * desparasitaciones y citas, y sobre las facturas y los datos de su
+ * propietario. Así todos los nodos calculan el mismo ETag y cuentan también
+ * los cambios que no pasan por JPA (importaciones, campañas, SQL directo).
+ * Calcular el ETag cuesta una lectura por clave primaria.
+ * 
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Service
+public class FichaPacienteVersionService {
+
+    private final FichaPacienteVersionRepository fichaPacienteVersionRepository;
+
+    /**
+     * Constructor con inyección de dependencias.
+     * 
+     * @param fichaPacienteVersionRepository Repositorio de versiones de ficha
+     */
+    @Autowired
+    public FichaPacienteVersionService(FichaPacienteVersionRepository fichaPacienteVersionRepository) {
+        this.fichaPacienteVersionRepository = fichaPacienteVersionRepository;
+    }
+
+    /**
+     * Calcula el ETag actual de la ficha de un paciente.
+     * 
+     * @param pacienteId ID del paciente
+     * @return ETag débil de la ficha
+     */
+    public String etag(Long pacienteId) {
+        return "W/\"" + pacienteId + "-" + fichaPacienteVersionRepository.version(pacienteId) + "\"";
+    }
+}
@@ -1,7 +1,9 @@
 package com.tuorg.veterinaria.gestionpacientes.service;
 
+import com.tuorg.veterinaria.archivos.service.AlmacenArchivosService;
 import com.tuorg.veterinaria.common.exception.BusinessException;
 import com.tuorg.veterinaria.common.exception.ResourceNotFoundException;
+import com.tuorg.veterinaria.common.util.TextNormalizationUtil;
 import com.tuorg.veterinaria.gestionpacientes.dto.HistoriaClinicaResponse;
 import com.tuorg.veterinaria.gestionpacientes.dto.RegistroMedicoRequest;
 import com.tuorg.veterinaria.gestionpacientes.dto.RegistroMedicoResponse;
@@ -17,9 +19,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.nio.charset.StandardCharsets;
-import java.text.Normalizer;
 import java.time.format.DateTimeFormatter;
 
 /**
@@ -50,19 +52,35 @@ public class HistoriaClinicaService {
     private final RegistroMedicoRepository registroMedicoRepository;
     private final UsuarioRepository usuarioRepository;
 
+    /**
+     * Servicio de la serie temporal de signos vitales.
+     */
+    private final SignosVitalesService signosVitalesService;
+
+    /**
+     * Almacén de archivos adjuntos.
+     */
+    private final AlmacenArchivosService almacenArchivosService;
+
     /**
      * Constructor con inyección de dependencias.
      * 
      * @param historiaClinicaRepository Repositorio de historias clínicas
      * @param registroMedicoRepository Repositorio de registros médicos
+     * @param signosVitalesService Servicio de signos vitales
+     * @param almacenArchivosService Almacén de archivos adjuntos
      */
     @Autowired
     public HistoriaClinicaService(HistoriaClinicaRepository historiaClinicaRepository,
                                   RegistroMedicoRepository registroMedicoRepository,
-                                  UsuarioRepository usuarioRepository) {
+                                  UsuarioRepository usuarioRepository,
+                                  SignosVitalesService signosVitalesService,
+                                  AlmacenArchivosService almacenArchivosService) {
         this.historiaClinicaRepository = historiaClinicaRepository;
         this.registroMedicoRepository = registroMedicoRepository;
         this.usuarioRepository = usuarioRepository;
+        this.signosVitalesService = signosVitalesService;
+        this.almacenArchivosService = almacenArchivosService;
     }
 
     /**
@@ -92,6 +110,7 @@ public class HistoriaClinicaService {
     public RegistroMedicoResponse agregarRegistro(Long historiaId, RegistroMedicoRequest request) {
         HistoriaClinica historia = historiaClinicaRepository.findById(historiaId)
                 .orElseThrow(() -> new ResourceNotFoundException(ENTIDAD_HISTORIA_CLINICA, "id", historiaId));
+        almacenArchivosService.validarReferencias(request.getArchivos());
 
         RegistroMedico registro = new RegistroMedico();
         registro.setHistoria(historia);
@@ -114,12 +133,39 @@ public class HistoriaClinicaService {
 
         RegistroMedico registroGuardado = registroMedicoRepository.save(registro);
 
+        // Extraer los signos vitales numéricos a la serie temporal
+        signosVitalesService.registrarMediciones(historia.getPaciente().getIdPaciente(),
+                registroGuardado.getIdRegistro(), registroGuardado.getFecha(), registroGuardado.getSignosVitales());
+
         // Nota: El consumo de insumos del inventario se implementará en el servicio de inventario
         // cuando se requiera la funcionalidad completa de gestión de inventario
 
         return mapRegistro(registroGuardado);
     }
 
+    /**
+     * Agrega un archivo del almacén a la lista de archivos de un registro médico.
+     * 
+     * @param registroId ID del registro médico
+     * @param hash SHA-256 del archivo almacenado
+     * @return Registro médico actualizado
+     */
+    @Transactional
+    public RegistroMedicoResponse adjuntarArchivo(Long registroId, String hash) {
+        RegistroMedico registro = registroMedicoRepository.findById(registroId)
+                .orElseThrow(() -> new ResourceNotFoundException("RegistroMedico", "id", registroId));
+        almacenArchivosService.validarReferencias(List.of(hash));
+
+        List<String> archivos = registro.getArchivos() != null
+                ? new ArrayList<>(registro.getArchivos())
+                : new ArrayList<>();
+        if (!archivos.contains(hash)) {
+            archivos.add(hash);
+            registro.setArchivos(archivos);
+        }
+        return mapRegistro(registroMedicoRepository.save(registro));
+    }
+
     /**
      * Obtiene todos los registros médicos de una historia clínica.
      * 
@@ -137,6 +183,20 @@ public class HistoriaClinicaService {
                 .toList();
     }
 
+    /**
+     * Obtiene los registros médicos de un paciente sin consultar antes su historia.
+     * 
+     * @param pacienteId ID del paciente
+     * @return Lista de registros médicos, del más reciente al más antiguo
+     */
+    @Transactional(readOnly = true)
+    public List<RegistroMedicoResponse> obtenerRegistrosPorPaciente(Long pacienteId) {
+        return registroMedicoRepository.findByPacienteId(pacienteId)
+                .stream()
+                .map(this::mapRegistro)
+                .toList();
+    }
+
     /**
      * Exporta la historia clínica como PDF sin dependencias externas (PDF mínimo).
      *
@@ -214,12 +274,8 @@ public class HistoriaClinicaService {
     }
 
     private String normalize(String text) {
-        if (text == null) return "";
         // Remover acentos para evitar caracteres no representables en el PDF mínimo
-        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
-        // Reemplazos comunes adicionales
-        normalized = normalized.replace("ñ", "n").replace("Ñ", "N");
-        return normalized;
+        return TextNormalizationUtil.removeAccents(text);
     }
 
     private HistoriaClinicaResponse mapHistoria(HistoriaClinica historia) {
@@ -0,0 +1,470 @@
+package com.tuorg.veterinaria.gestionpacientes.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuorg.veterinaria.common.constants.AppConstants;
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.common.util.ValidationUtil;
+import com.tuorg.veterinaria.gestionpacientes.dto.ImportacionPacientesResponse;
+import com.tuorg.veterinaria.gestionpacientes.model.FormatoImportacion;
+import com.tuorg.veterinaria.gestionpacientes.repository.ImportacionPacientesRepository;
+import com.tuorg.veterinaria.gestionpacientes.repository.ImportacionPacientesRepository.NuevoCliente;
+import com.tuorg.veterinaria.gestionpacientes.repository.ImportacionPacientesRepository.NuevoPaciente;
+import com.tuorg.veterinaria.gestionusuarios.model.Rol;
+import com.tuorg.veterinaria.gestionusuarios.repository.RolRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Servicio de importación masiva de propietarios y pacientes.
+ *
+ * Procesa archivos CSV o NDJSON en streaming: cada fila se valida con
+ * {@link ValidationUtil} y las reglas de {@link PacienteService}, el
+ * propietario se resuelve contra mapas en memoria (documento de identidad y
+ * correo) cargados una sola vez, y las filas válidas se escriben por lotes
+ * con batch JDBC, cada lote en su propia transacción. Las filas inválidas se
+ * reportan con su número de línea sin detener la importación.
+ *
+ * Columnas reconocidas: documento_identidad, nombre_propietario,
+ * apellido_propietario, correo, telefono, direccion, nombre_paciente,
+ * especie, raza, fecha_nacimiento (yyyy-MM-dd), sexo, peso_kg, estado_salud.
+ *
+ * Los propietarios nuevos se crean con el rol CLIENTE, usuario derivado del
+ * correo y una contraseña aleatoria; deben definir la suya mediante la
+ * recuperación de contraseña.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Service
+public class ImportacionPacientesService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportacionPacientesService.class);
+
+    /**
+     * Filas por lote (una transacción y un batch JDBC por tabla).
+     */
+    static final int TAMANO_LOTE = 1000;
+
+    /**
+     * Máximo de errores detallados en la respuesta.
+     */
+    static final int MAX_ERRORES_DETALLE = 1000;
+
+    /**
+     * Peso máximo admitido por la columna peso_kg (NUMERIC(5,2)).
+     */
+    private static final BigDecimal PESO_MAXIMO = new BigDecimal("999.99");
+
+    /**
+     * Repositorio JDBC de la importación.
+     */
+    private final ImportacionPacientesRepository importacionRepository;
+
+    /**
+     * Repositorio de roles.
+     */
+    private final RolRepository rolRepository;
+
+    /**
+     * Codificador de contraseñas.
+     */
+    private final PasswordEncoder passwordEncoder;
+
+    /**
+     * Plantilla de transacciones (una por lote).
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Mapper JSON para NDJSON.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Servicio de la agenda preventiva de los pacientes importados.
+     */
+    private final AgendaPreventivaService agendaPreventivaService;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param importacionRepository Repositorio JDBC de la importación
+     * @param rolRepository Repositorio de roles
+     * @param passwordEncoder Codificador de contraseñas
+     * @param transactionTemplate Plantilla de transacciones
+     * @param objectMapper Mapper JSON
+     * @param agendaPreventivaService Servicio de agenda preventiva
+     */
+    @Autowired
+    public ImportacionPacientesService(ImportacionPacientesRepository importacionRepository,
+                                       RolRepository rolRepository,
+                                       PasswordEncoder passwordEncoder,
+                                       TransactionTemplate transactionTemplate,
+                                       ObjectMapper objectMapper,
+                                       AgendaPreventivaService agendaPreventivaService) {
+        this.importacionRepository = importacionRepository;
+        this.rolRepository = rolRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.agendaPreventivaService = agendaPreventivaService;
+    }
+
+    /**
+     * Importa propietarios y pacientes desde un archivo en streaming.
+     *
+     * Los lotes ya guardados permanecen aunque un lote posterior falle.
+     *
+     * @param entrada Contenido del archivo (UTF-8)
+     * @param formato Formato del archivo
+     * @return Resumen de la importación con los errores por fila
+     */
+    public ImportacionPacientesResponse importar(InputStream entrada, FormatoImportacion formato) {
+        long inicio = System.currentTimeMillis();
+        Rol rolCliente = rolRepository.findByNombreRol("CLIENTE")
+                .orElseThrow(() -> new BusinessException("El rol CLIENTE no está configurado"));
+
+        Importacion importacion = new Importacion(rolCliente.getIdRol(),
+                passwordEncoder.encode(UUID.randomUUID().toString()));
+        importacionRepository.recorrerClientes(importacion::registrarExistente);
+        importacionRepository.recorrerUsernames(importacion.usernames::add);
+
+        try (LectorFilasImportacion lector = new LectorFilasImportacion(
+                new InputStreamReader(entrada, StandardCharsets.UTF_8), formato, objectMapper)) {
+            LectorFilasImportacion.Fila fila;
+            while ((fila = lector.siguiente()) != null) {
+                importacion.filasProcesadas++;
+                procesarFila(fila, importacion);
+                if (importacion.lote.size() >= TAMANO_LOTE) {
+                    guardarLote(importacion);
+                }
+            }
+        } catch (IOException e) {
+            guardarLote(importacion);
+            logger.warn("Importación interrumpida tras {} filas: {}", importacion.filasProcesadas, e.getMessage());
+            throw new BusinessException("Error al leer el archivo de importación después de "
+                    + importacion.filasProcesadas + " filas; los lotes anteriores se guardaron");
+        }
+        guardarLote(importacion);
+
+        long duracion = System.currentTimeMillis() - inicio;
+        logger.info("Importación {} completada: {} filas, {} pacientes, {} clientes, {} errores en {} ms",
+                formato, importacion.filasProcesadas, importacion.pacientesCreados,
+                importacion.clientesCreados, importacion.filasConError, duracion);
+
+        return ImportacionPacientesResponse.builder()
+                .filasProcesadas(importacion.filasProcesadas)
+                .pacientesCreados(importacion.pacientesCreados)
+                .clientesCreados(importacion.clientesCreados)
+                .filasConError(importacion.filasConError)
+                .errores(importacion.errores)
+                .erroresTruncados(importacion.filasConError > importacion.errores.size())
+                .duracionMs(duracion)
+                .build();
+    }
+
+    /**
+     * Valida una fila y la agrega al lote en curso, o registra su error.
+     */
+    private void procesarFila(LectorFilasImportacion.Fila fila, Importacion importacion) {
+        if (fila.error() != null) {
+            importacion.registrarError(fila.linea(), fila.error());
+            return;
+        }
+        try {
+            DatosPaciente paciente = validarPaciente(fila);
+            Propietario propietario = resolverPropietario(fila, importacion);
+            importacion.lote.add(new FilaPendiente(fila.linea(), propietario, paciente));
+        } catch (BusinessException e) {
+            importacion.registrarError(fila.linea(), e.getMessage());
+        }
+    }
+
+    /**
+     * Aplica las mismas reglas que el registro individual de pacientes.
+     */
+    private DatosPaciente validarPaciente(LectorFilasImportacion.Fila fila) {
+        String nombre = requerido(fila, "nombre_paciente");
+        validarLongitud(nombre, 100, "nombre_paciente");
+
+        String especie = requerido(fila, "especie").toLowerCase(Locale.ROOT);
+        if (!AppConstants.ESPECIE_PERRO.equals(especie) && !AppConstants.ESPECIE_GATO.equals(especie)) {
+            throw new BusinessException("La especie debe ser 'perro' o 'gato'");
+        }
+
+        LocalDate fechaNacimiento = null;
+        String fecha = fila.valor("fecha_nacimiento");
+        if (fecha != null) {
+            try {
+                fechaNacimiento = LocalDate.parse(fecha);
+            } catch (DateTimeParseException e) {
+                throw new BusinessException("La fecha de nacimiento debe tener formato yyyy-MM-dd");
+            }
+            if (fechaNacimiento.isAfter(LocalDate.now())) {
+                throw new BusinessException("La fecha de nacimiento no puede ser futura");
+            }
+        }
+
+        BigDecimal peso = null;
+        String pesoTexto = fila.valor("peso_kg");
+        if (pesoTexto != null) {
+            try {
+                peso = new BigDecimal(pesoTexto);
+            } catch (NumberFormatException e) {
+                throw new BusinessException("El campo peso_kg debe ser numérico");
+            }
+            ValidationUtil.validatePositiveNumber(peso.doubleValue(), "peso_kg");
+            if (peso.compareTo(PESO_MAXIMO) > 0) {
+                throw new BusinessException("El campo peso_kg no puede ser mayor que " + PESO_MAXIMO);
+            }
+        }
+
+        String raza = fila.valor("raza");
+        String sexo = fila.valor("sexo");
+        String estadoSalud = fila.valor("estado_salud");
+        validarLongitud(raza, 80, "raza");
+        validarLongitud(sexo, 10, "sexo");
+        validarLongitud(estadoSalud, 100, "estado_salud");
+
+        return new DatosPaciente(nombre, especie, raza, fechaNacimiento, sexo, peso, estadoSalud);
+    }
+
+    /**
+     * Busca el propietario por documento o correo; si no existe, lo prepara
+     * para crearlo en el lote en curso.
+     */
+    private Propietario resolverPropietario(LectorFilasImportacion.Fila fila, Importacion importacion) {
+        String documento = fila.valor("documento_identidad");
+        String correo = fila.valor("correo");
+        if (documento == null && correo == null) {
+            throw new BusinessException("La fila debe identificar al propietario por documento_identidad o correo");
+        }
+
+        Propietario propietario = documento != null ? importacion.porDocumento.get(documento) : null;
+        if (propietario == null && correo != null) {
+            propietario = importacion.porCorreo.get(correo.toLowerCase(Locale.ROOT));
+        }
+        if (propietario != null) {
+            return propietario;
+        }
+
+        // Propietario nuevo
+        String nombre = requerido(fila, "nombre_propietario");
+        String apellido = requerido(fila, "apellido_propietario");
+        if (correo == null) {
+            throw new BusinessException("El correo es obligatorio para registrar un propietario nuevo");
+        }
+        ValidationUtil.validateEmail(correo);
+        String telefono = fila.valor("telefono");
+        if (telefono != null) {
+            ValidationUtil.validatePhone(telefono);
+        }
+        String direccion = fila.valor("direccion");
+        validarLongitud(nombre, 100, "nombre_propietario");
+        validarLongitud(apellido, 100, "apellido_propietario");
+        validarLongitud(correo, 150, "correo");
+        validarLongitud(telefono, 30, "telefono");
+        validarLongitud(direccion, 255, "direccion");
+        validarLongitud(documento, 50, "documento_identidad");
+
+        Propietario nuevo = new Propietario(null);
+        nuevo.datos = new NuevoCliente(null, nombre, apellido, correo, telefono, direccion,
+                importacion.generarUsername(correo), documento);
+        importacion.registrarNuevo(nuevo);
+        return nuevo;
+    }
+
+    /**
+     * Guarda el lote en curso y su agenda preventiva en una transacción. Si
+     * falla, todas sus filas se reportan como error y la importación continúa
+     * con el siguiente.
+     */
+    private void guardarLote(Importacion importacion) {
+        if (importacion.lote.isEmpty()) {
+            return;
+        }
+        List<FilaPendiente> lote = importacion.lote;
+        List<Propietario> nuevos = importacion.nuevosEnLote;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Long> idsPersona = importacionRepository.reservarIdsPersona(nuevos.size());
+                List<NuevoCliente> clientes = new ArrayList<>(nuevos.size());
+                for (int i = 0; i < nuevos.size(); i++) {
+                    Propietario propietario = nuevos.get(i);
+                    propietario.id = idsPersona.get(i);
+                    NuevoCliente d = propietario.datos;
+                    clientes.add(new NuevoCliente(propietario.id, d.nombre(), d.apellido(), d.correo(),
+                            d.telefono(), d.direccion(), d.username(), d.documentoIdentidad()));
+                }
+
+                List<Long> idsPaciente = importacionRepository.reservarIdsPaciente(lote.size());
+                List<NuevoPaciente> pacientes = new ArrayList<>(lote.size());
+                for (int i = 0; i < lote.size(); i++) {
+                    FilaPendiente fila = lote.get(i);
+                    DatosPaciente p = fila.paciente();
+                    pacientes.add(new NuevoPaciente(idsPaciente.get(i), fila.propietario().id, p.nombre(),
+                            p.especie(), p.raza(), p.fechaNacimiento(), p.sexo(), p.pesoKg(),
+                            p.estadoSalud(), UUID.randomUUID()));
+                }
+
+                LocalDateTime ahora = LocalDateTime.now();
+                importacionRepository.insertarClientes(clientes, importacion.rolClienteId,
+                        importacion.passwordHash, ahora);
+                importacionRepository.insertarPacientesConHistoria(pacientes, ahora);
+                agendaPreventivaService.recalcularPacientes(idsPaciente);
+            });
+            importacion.clientesCreados += nuevos.size();
+            importacion.pacientesCreados += lote.size();
+            nuevos.forEach(propietario -> propietario.datos = null);
+        } catch (DataAccessException e) {
+            String causa = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            logger.warn("Lote de importación descartado ({} filas): {}", lote.size(), causa);
+            nuevos.forEach(importacion::descartarNuevo);
+            for (FilaPendiente fila : lote) {
+                importacion.registrarError(fila.linea(), "No se pudo guardar el lote de la fila: " + causa);
+            }
+        }
+        importacion.lote = new ArrayList<>(TAMANO_LOTE);
+        importacion.nuevosEnLote = new ArrayList<>();
+    }
+
+    private static String requerido(LectorFilasImportacion.Fila fila, String columna) {
+        String valor = fila.valor(columna);
+        if (valor == null) {
+            throw new BusinessException("El campo " + columna + " es obligatorio");
+        }
+        return valor;
+    }
+
+    private static void validarLongitud(String valor, int maximo, String columna) {
+        if (valor != null && valor.length() > maximo) {
+            throw new BusinessException(
+                    String.format("El campo %s no puede tener más de %d caracteres", columna, maximo));
+        }
+    }
+
+    /**
+     * Datos validados del paciente de una fila.
+     */
+    private record DatosPaciente(String nombre, String especie, String raza, LocalDate fechaNacimiento,
+                                 String sexo, BigDecimal pesoKg, String estadoSalud) {
+    }
+
+    /**
+     * Fila válida a la espera de guardarse con su lote.
+     */
+    private record FilaPendiente(long linea, Propietario propietario, DatosPaciente paciente) {
+    }
+
+    /**
+     * Propietario resuelto. Los nuevos reciben su ID al guardarse el lote.
+     */
+    private static final class Propietario {
+        private Long id;
+        private NuevoCliente datos;
+
+        private Propietario(Long id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * Estado de una importación en curso.
+     */
+    private static final class Importacion {
+        private final Long rolClienteId;
+        private final String passwordHash;
+        private final Map<String, Propietario> porDocumento = new HashMap<>();
+        private final Map<String, Propietario> porCorreo = new HashMap<>();
+        private final Set<String> usernames = new HashSet<>();
+        private final List<ImportacionPacientesResponse.ErrorFila> errores = new ArrayList<>();
+        private List<FilaPendiente> lote = new ArrayList<>(TAMANO_LOTE);
+        private List<Propietario> nuevosEnLote = new ArrayList<>();
+        private long filasProcesadas;
+        private long pacientesCreados;
+        private long clientesCreados;
+        private long filasConError;
+
+        private Importacion(Long rolClienteId, String passwordHash) {
+            this.rolClienteId = rolClienteId;
+            this.passwordHash = passwordHash;
+        }
+
+        private void registrarExistente(ImportacionPacientesRepository.ClienteExistente cliente) {
+            Propietario propietario = new Propietario(cliente.id());
+            if (cliente.documentoIdentidad() != null) {
+                porDocumento.put(cliente.documentoIdentidad(), propietario);
+            }
+            porCorreo.put(cliente.correo().toLowerCase(Locale.ROOT), propietario);
+        }
+
+        private void registrarNuevo(Propietario propietario) {
+            NuevoCliente datos = propietario.datos;
+            if (datos.documentoIdentidad() != null) {
+                porDocumento.put(datos.documentoIdentidad(), propietario);
+            }
+            porCorreo.put(datos.correo().toLowerCase(Locale.ROOT), propietario);
+            nuevosEnLote.add(propietario);
+        }
+
+        private void descartarNuevo(Propietario propietario) {
+            NuevoCliente datos = propietario.datos;
+            if (datos.documentoIdentidad() != null) {
+                porDocumento.remove(datos.documentoIdentidad(), propietario);
+            }
+            porCorreo.remove(datos.correo().toLowerCase(Locale.ROOT), propietario);
+            usernames.remove(datos.username());
+            propietario.id = null;
+        }
+
+        /**
+         * Deriva un username único a partir del correo.
+         */
+        private String generarUsername(String correo) {
+            String base = correo.toLowerCase(Locale.ROOT);
+            if (base.length() > AppConstants.MAX_USERNAME_LENGTH) {
+                base = base.substring(0, AppConstants.MAX_USERNAME_LENGTH);
+            }
+            String username = base;
+            for (int sufijo = 2; !usernames.add(username); sufijo++) {
+                String cola = "-" + sufijo;
+                username = base.substring(0, Math.min(base.length(),
+                        AppConstants.MAX_USERNAME_LENGTH - cola.length())) + cola;
+            }
+            return username;
+        }
+
+        private void registrarError(long linea, String mensaje) {
+            filasConError++;
+            if (errores.size() < MAX_ERRORES_DETALLE) {
+                errores.add(ImportacionPacientesResponse.ErrorFila.builder()
+                        .linea(linea)
+                        .mensaje(mensaje)
+                        .build());
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.tuorg.veterinaria.gestionpacientes.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuorg.veterinaria.gestionpacientes.model.FormatoImportacion;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lector incremental de filas de importación en CSV o NDJSON.
+ *
+ * Lee el archivo fila a fila desde un {@link Reader}, sin cargarlo completo
+ * en memoria. Cada fila se entrega como un mapa columna → valor con las
+ * claves en minúsculas; los valores vacíos se omiten. Una fila mal formada
+ * no detiene la lectura: se entrega con su mensaje de error.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public final class LectorFilasImportacion implements Closeable {
+
+    /**
+     * Fila leída del archivo.
+     *
+     * @param linea Línea del archivo donde comienza la fila
+     * @param valores Valores por columna (null si la fila es inválida)
+     * @param error Motivo por el que no se pudo leer la fila (null si es válida)
+     */
+    public record Fila(long linea, Map<String, String> valores, String error) {
+
+        public String valor(String columna) {
+            return valores.get(columna);
+        }
+    }
+
+    private final BufferedReader reader;
+    private final FormatoImportacion formato;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Columnas de la cabecera CSV.
+     */
+    private List<String> cabecera;
+
+    /**
+     * Línea física actual (1-based).
+     */
+    private long lineaActual = 1;
+
+    private final StringBuilder campo = new StringBuilder();
+
+    /**
+     * Constructor.
+     *
+     * @param reader Origen de los datos
+     * @param formato Formato del archivo
+     * @param objectMapper Mapper JSON (para NDJSON)
+     */
+    public LectorFilasImportacion(Reader reader, FormatoImportacion formato, ObjectMapper objectMapper) {
+        this.reader = reader instanceof BufferedReader br ? br : new BufferedReader(reader, 64 * 1024);
+        this.formato = formato;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Lee la siguiente fila de datos.
+     *
+     * @return Fila leída, o null al llegar al final del archivo
+     * @throws IOException Si falla la lectura del origen
+     */
+    public Fila siguiente() throws IOException {
+        if (lineaActual == 1) {
+            omitirBom();
+        }
+        return formato == FormatoImportacion.CSV ? siguienteCsv() : siguienteNdjson();
+    }
+
+    /**
+     * Descarta la marca de orden de bytes UTF-8 que añaden algunas hojas de cálculo.
+     */
+    private void omitirBom() throws IOException {
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') {
+            reader.reset();
+        }
+    }
+
+    private Fila siguienteNdjson() throws IOException {
+        String linea;
+        while ((linea = reader.readLine()) != null) {
+            long numero = lineaActual++;
+            if (linea.isBlank()) {
+                continue;
+            }
+            try {
+                JsonNode nodo = objectMapper.readTree(linea);
+                if (nodo == null || !nodo.isObject()) {
+                    return new Fila(numero, null, "La línea no es un objeto JSON");
+                }
+                Map<String, String> valores = new HashMap<>();
+                Iterator<Map.Entry<String, JsonNode>> campos = nodo.fields();
+                while (campos.hasNext()) {
+                    Map.Entry<String, JsonNode> entrada = campos.next();
+                    JsonNode valor = entrada.getValue();
+                    if (!valor.isNull() && !valor.asText().isBlank()) {
+                        valores.put(entrada.getKey().toLowerCase(Locale.ROOT), valor.asText().trim());
+                    }
+                }
+                return new Fila(numero, valores, null);
+            } catch (JsonProcessingException e) {
+                return new Fila(numero, null, "JSON inválido: " + e.getOriginalMessage());
+            }
+        }
+        return null;
+    }
+
+    private Fila siguienteCsv() throws IOException {
+        if (cabecera == null) {
+            List<String> columnas = leerRegistroCsv();
+            if (columnas == null) {
+                return null;
+            }
+            cabecera = new ArrayList<>(columnas.size());
+            for (String columna : columnas) {
+                cabecera.add(columna.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        while (true) {
+            long numero = lineaActual;
+            List<String> campos;
+            try {
+                campos = leerRegistroCsv();
+            } catch (IllegalStateException e) {
+                return new Fila(numero, null, e.getMessage());
+            }
+            if (campos == null) {
+                return null;
+            }
+            if (campos.size() == 1 && campos.get(0).isBlank()) {
+                continue;
+            }
+            if (campos.size() != cabecera.size()) {
+                return new Fila(numero, null, String.format(
+                        "Se esperaban %d columnas y se encontraron %d", cabecera.size(), campos.size()));
+            }
+            Map<String, String> valores = new HashMap<>();
+            for (int i = 0; i < campos.size(); i++) {
+                String valor = campos.get(i).trim();
+                if (!valor.isEmpty()) {
+                    valores.put(cabecera.get(i), valor);
+                }
+            }
+            return new Fila(numero, valores, null);
+        }
+    }
+
+    /**
+     * Lee un registro CSV completo, que puede abarcar varias líneas si
+     * contiene saltos de línea entre comillas.
+     *
+     * @return Campos del registro, o null al final del archivo
+     * @throws IllegalStateException Si el archivo termina con comillas sin cerrar
+     */
+    private List<String> leerRegistroCsv() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> campos = new ArrayList<>();
+        campo.setLength(0);
+        boolean entreComillas = false;
+        while (true) {
+            if (c == -1) {
+                if (entreComillas) {
+                    throw new IllegalStateException("Comillas sin cerrar al final del archivo");
+                }
+                campos.add(campo.toString());
+                return campos;
+            }
+            char ch = (char) c;
+            if (entreComillas) {
+                if (ch == '"') {
+                    reader.mark(1);
+                    int siguiente = reader.read();
+                    if (siguiente == '"') {
+                        campo.append('"');
+                    } else {
+                        entreComillas = false;
+                        if (siguiente != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    if (ch == '\n') {
+                        lineaActual++;
+                    }
+                    campo.append(ch);
+                }
+            } else if (ch == '"') {
+                entreComillas = true;
+            } else if (ch == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (ch == '\n') {
+                lineaActual++;
+                campos.add(campo.toString());
+                return campos;
+            } else if (ch != '\r') {
+                campo.append(ch);
+            }
+            c = reader.read();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
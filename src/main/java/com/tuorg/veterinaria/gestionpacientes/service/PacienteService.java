@@ -153,7 +153,7 @@ public class PacienteService {
      */
     @Transactional(readOnly = true)
     public List<PacienteResponse> obtenerTodos() {
-        return pacienteRepository.findAll()
+        return pacienteRepository.findAllWithCliente()
                 .stream()
                 .map(this::mapToResponse)
                 .toList();
@@ -0,0 +1,208 @@
+package com.tuorg.veterinaria.gestionpacientes.service;
+
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.common.exception.ResourceNotFoundException;
+import com.tuorg.veterinaria.gestionpacientes.dto.TendenciaSignoVitalResponse;
+import com.tuorg.veterinaria.gestionpacientes.model.SignoVital;
+import com.tuorg.veterinaria.gestionpacientes.repository.PacienteRepository;
+import com.tuorg.veterinaria.gestionpacientes.repository.SignoVitalSerieRepository;
+import com.tuorg.veterinaria.gestionpacientes.repository.SignoVitalSerieRepository.Medicion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Servicio de la serie temporal de signos vitales.
+ *
+ * Al guardar un registro médico se extraen los valores numéricos de su
+ * JSON de signos vitales a una tabla compacta (paciente, métrica, fecha,
+ * valor). Las tendencias se calculan en la base de datos agrupando en
+ * intervalos de ancho fijo, de modo que el tamaño de la respuesta depende
+ * del número de puntos pedidos y no de la longitud del historial.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Service
+public class SignosVitalesService {
+
+    /**
+     * Valor numérico escrito como texto. Debe coincidir con la expresión de
+     * V19__signos_vitales_decimal_coma.sql.
+     */
+    private static final Pattern NUMERO_TEXTO = Pattern.compile("\\s*-?[0-9]+([.,][0-9]+)?\\s*");
+
+    /**
+     * Puntos por defecto de una tendencia.
+     */
+    static final int PUNTOS_POR_DEFECTO = 200;
+
+    /**
+     * Máximo de puntos por tendencia.
+     */
+    static final int PUNTOS_MAXIMOS = 1000;
+
+    /**
+     * Repositorio de la serie temporal.
+     */
+    private final SignoVitalSerieRepository signoVitalSerieRepository;
+
+    /**
+     * Repositorio de pacientes.
+     */
+    private final PacienteRepository pacienteRepository;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param signoVitalSerieRepository Repositorio de la serie temporal
+     * @param pacienteRepository Repositorio de pacientes
+     */
+    @Autowired
+    public SignosVitalesService(SignoVitalSerieRepository signoVitalSerieRepository,
+                                PacienteRepository pacienteRepository) {
+        this.signoVitalSerieRepository = signoVitalSerieRepository;
+        this.pacienteRepository = pacienteRepository;
+    }
+
+    /**
+     * Extrae y guarda las mediciones numéricas de un registro médico.
+     * Los valores no numéricos se ignoran.
+     *
+     * @param pacienteId ID del paciente
+     * @param registroId ID del registro médico
+     * @param fecha Fecha del registro
+     * @param signosVitales Signos vitales tal como se guardaron en el registro
+     */
+    @Transactional
+    public void registrarMediciones(Long pacienteId, Long registroId, LocalDateTime fecha,
+                                    Map<String, Object> signosVitales) {
+        if (signosVitales == null || signosVitales.isEmpty() || fecha == null) {
+            return;
+        }
+        List<Medicion> mediciones = new ArrayList<>(signosVitales.size());
+        signosVitales.forEach((clave, valor) -> {
+            Double numero = aNumero(valor);
+            if (clave != null && !clave.isBlank() && numero != null) {
+                mediciones.add(new Medicion(pacienteId, SignoVital.normalizar(clave), fecha, numero, registroId));
+            }
+        });
+        signoVitalSerieRepository.insertar(mediciones);
+    }
+
+    /**
+     * Lista las métricas con mediciones de un paciente.
+     *
+     * @param pacienteId ID del paciente
+     * @return Nombres de métrica
+     */
+    @Transactional(readOnly = true)
+    public List<String> obtenerMetricas(Long pacienteId) {
+        validarPaciente(pacienteId);
+        return signoVitalSerieRepository.findMetricas(pacienteId);
+    }
+
+    /**
+     * Obtiene la tendencia de una métrica reducida a intervalos con mínimo,
+     * máximo y promedio.
+     *
+     * @param pacienteId ID del paciente
+     * @param metrica Métrica (código o alias)
+     * @param desde Inicio del rango (por defecto, primera medición)
+     * @param hasta Fin del rango (por defecto, última medición)
+     * @param puntos Número máximo de intervalos (por defecto 200, máximo 1000)
+     * @return Serie reducida
+     */
+    @Transactional(readOnly = true)
+    public TendenciaSignoVitalResponse obtenerTendencia(Long pacienteId, String metrica, LocalDateTime desde,
+                                                        LocalDateTime hasta, Integer puntos) {
+        validarPaciente(pacienteId);
+        if (metrica == null || metrica.isBlank()) {
+            throw new BusinessException("Debe indicar la métrica");
+        }
+        String codigo = SignoVital.normalizar(metrica);
+        int maxPuntos = puntos == null ? PUNTOS_POR_DEFECTO : puntos;
+        if (maxPuntos < 1 || maxPuntos > PUNTOS_MAXIMOS) {
+            throw new BusinessException("El número de puntos debe estar entre 1 y " + PUNTOS_MAXIMOS);
+        }
+
+        if (desde == null || hasta == null) {
+            Optional<SignoVitalSerieRepository.Rango> rango = signoVitalSerieRepository.findRango(pacienteId, codigo);
+            if (rango.isEmpty()) {
+                return TendenciaSignoVitalResponse.builder()
+                        .pacienteId(pacienteId)
+                        .metrica(codigo)
+                        .desde(desde)
+                        .hasta(hasta)
+                        .puntos(List.of())
+                        .build();
+            }
+            if (desde == null) {
+                desde = rango.get().desde();
+            }
+            if (hasta == null) {
+                // El fin es exclusivo: incluir la última medición
+                hasta = rango.get().hasta().plusSeconds(1);
+            }
+        }
+        if (!hasta.isAfter(desde)) {
+            throw new BusinessException("La fecha final debe ser posterior a la inicial");
+        }
+
+        long segundos = Duration.between(desde, hasta).toSeconds();
+        long ancho = Math.max(1, (segundos + maxPuntos - 1) / maxPuntos);
+
+        List<TendenciaSignoVitalResponse.Punto> serie = signoVitalSerieRepository
+                .findTendencia(pacienteId, codigo, desde, hasta, ancho).stream()
+                .map(intervalo -> TendenciaSignoVitalResponse.Punto.builder()
+                        .inicio(intervalo.inicio())
+                        .minimo(intervalo.minimo())
+                        .maximo(intervalo.maximo())
+                        .promedio(intervalo.promedio())
+                        .muestras(intervalo.muestras())
+                        .build())
+                .toList();
+
+        return TendenciaSignoVitalResponse.builder()
+                .pacienteId(pacienteId)
+                .metrica(codigo)
+                .desde(desde)
+                .hasta(hasta)
+                .anchoIntervaloSegundos(ancho)
+                .puntos(serie)
+                .build();
+    }
+
+    private void validarPaciente(Long pacienteId) {
+        if (!pacienteRepository.existsById(pacienteId)) {
+            throw new ResourceNotFoundException("Paciente", "id", pacienteId);
+        }
+    }
+
+    /**
+     * Convierte el valor del JSON en número si es posible.
+     * 
+     * Los textos siguen la misma regla que la carga en SQL (V4, V19): dígitos
+     * con un separador decimal opcional, punto o coma. No se aceptan
+     * separadores de miles ("1.234,5"), exponentes ni sufijos.
+     */
+    private static Double aNumero(Object valor) {
+        double numero;
+        if (valor instanceof Number n) {
+            numero = n.doubleValue();
+        } else if (valor instanceof String s && NUMERO_TEXTO.matcher(s).matches()) {
+            numero = Double.parseDouble(s.trim().replace(',', '.'));
+        } else {
+            return null;
+        }
+        return Double.isFinite(numero) ? numero : null;
+    }
+}
@@ -1,5 +1,6 @@
 package com.tuorg.veterinaria.gestionusuarios.model;
 
+import com.tuorg.veterinaria.gestionpacientes.listener.FichaPacienteEntityListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -19,6 +20,7 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "clientes", schema = "public")
+@EntityListeners(FichaPacienteEntityListener.class)
 @PrimaryKeyJoinColumn(name = "id_usuario")
 @Getter
 @Setter
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -77,5 +78,12 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
      * @return Optional con el usuario si existe, vacío en caso contrario
      */
     Optional<Usuario> findByPasswordResetToken(String token);
-}
 
+    /**
+     * Obtiene todos los usuarios con su rol ya inicializado.
+     * 
+     * @return Lista de usuarios con el rol cargado en la misma consulta
+     */
+    @Query("SELECT u FROM Usuario u LEFT JOIN FETCH u.rol")
+    List<Usuario> findAllWithRol();
+}
@@ -1,11 +1,11 @@
 package com.tuorg.veterinaria.gestionusuarios.service;
 
+import com.tuorg.veterinaria.config.security.UsuarioAutenticado;
 import com.tuorg.veterinaria.gestionusuarios.model.Usuario;
 import com.tuorg.veterinaria.gestionusuarios.repository.UsuarioRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -47,7 +47,7 @@ public class CustomUserDetailsService implements UserDetailsService {
      * Carga un usuario por su nombre de usuario.
      * 
      * @param username Nombre de usuario
-     * @return UserDetails con la información del usuario
+     * @return UserDetails con la información y el ID del usuario
      * @throws UsernameNotFoundException Si el usuario no existe
      */
     @Override
@@ -60,15 +60,8 @@ public class CustomUserDetailsService implements UserDetailsService {
             throw new UsernameNotFoundException("Usuario inactivo: " + username);
         }
 
-        return User.builder()
-                .username(usuario.getUsername())
-                .password(usuario.getPasswordHash())
-                .authorities(getAuthorities(usuario))
-                .accountExpired(false)
-                .accountLocked(false)
-                .credentialsExpired(false)
-                .disabled(!usuario.getActivo())
-                .build();
+        return new UsuarioAutenticado(usuario.getIdUsuario(), usuario.getUsername(), usuario.getPasswordHash(),
+                usuario.getActivo(), getAuthorities(usuario));
     }
 
     /**
@@ -136,7 +136,7 @@ public class UsuarioService {
      */
     @Transactional(readOnly = true)
     public List<UsuarioResponse> obtenerTodos() {
-        return usuarioRepository.findAll()
+        return usuarioRepository.findAllWithRol()
                 .stream()
                 .map(this::mapToResponse)
                 .toList();
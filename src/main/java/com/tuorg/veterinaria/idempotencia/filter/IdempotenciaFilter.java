@@ -0,0 +1,246 @@
+package com.tuorg.veterinaria.idempotencia.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuorg.veterinaria.common.dto.ApiResponse;
+import com.tuorg.veterinaria.idempotencia.repository.IdempotenciaRepository.Registro;
+import com.tuorg.veterinaria.idempotencia.service.IdempotenciaService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Filtro que aplica la cabecera Idempotency-Key a las operaciones que el
+ * frontend reintenta: creación de facturas, registro de pagos y
+ * programación de citas.
+ *
+ * Se ejecuta después de la cadena de seguridad, por lo que las claves son
+ * propias de cada usuario. Un reintento con la misma clave y el mismo
+ * cuerpo recibe la respuesta original sin volver a ejecutar el controlador
+ * (ni la transacción, ni el envío de correos); con otro cuerpo se rechaza.
+ * Solo se guardan respuestas 2xx: ante un error la clave se libera para
+ * que el cliente pueda corregir y reintentar.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Component
+public class IdempotenciaFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotenciaFilter.class);
+
+    /**
+     * Cabecera con la clave enviada por el cliente.
+     */
+    public static final String CABECERA_CLAVE = "Idempotency-Key";
+
+    /**
+     * Cabecera que marca una respuesta repetida desde el almacén.
+     */
+    public static final String CABECERA_REPETIDA = "Idempotency-Replayed";
+
+    private static final int LONGITUD_MAXIMA_CLAVE = 128;
+
+    private static final AntPathMatcher MATCHER = new AntPathMatcher();
+
+    /**
+     * Servicio de claves de idempotencia.
+     */
+    private final IdempotenciaService idempotenciaService;
+
+    /**
+     * Mapper para las respuestas de error.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Operaciones protegidas, en formato "MÉTODO /ruta" (admite comodines Ant).
+     */
+    private final List<String> rutas;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param idempotenciaService Servicio de claves de idempotencia
+     * @param objectMapper Mapper JSON de la aplicación
+     * @param rutas Operaciones protegidas
+     */
+    @Autowired
+    public IdempotenciaFilter(IdempotenciaService idempotenciaService, ObjectMapper objectMapper,
+                              @Value("${app.idempotencia.rutas:POST /facturas,PUT /facturas/*/pagar,POST /citas}")
+                              List<String> rutas) {
+        this.idempotenciaService = idempotenciaService;
+        this.objectMapper = objectMapper;
+        this.rutas = rutas.stream().map(String::trim).toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (request.getHeader(CABECERA_CLAVE) == null) {
+            return true;
+        }
+        String operacion = request.getMethod() + " " + ruta(request);
+        return rutas.stream().noneMatch(patron -> MATCHER.match(patron, operacion));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String clave = request.getHeader(CABECERA_CLAVE).trim();
+        if (clave.isEmpty() || clave.length() > LONGITUD_MAXIMA_CLAVE) {
+            rechazar(response, HttpStatus.BAD_REQUEST,
+                    "La cabecera " + CABECERA_CLAVE + " debe tener entre 1 y " + LONGITUD_MAXIMA_CLAVE + " caracteres");
+            return;
+        }
+
+        CuerpoEnMemoria peticion = new CuerpoEnMemoria(request);
+        String alcance = alcance();
+        String huella = IdempotenciaService.huella(request.getMethod(), ruta(request), peticion.cuerpo);
+
+        // Los reintentos habituales se resuelven aquí, normalmente desde memoria
+        Optional<Registro> existente = idempotenciaService.buscar(alcance, clave);
+        if (existente.isPresent()) {
+            responderExistente(existente.get(), huella, response);
+            return;
+        }
+        if (!idempotenciaService.reservar(alcance, clave, huella)) {
+            // Otra petición con la misma clave se adelantó
+            responderExistente(idempotenciaService.buscar(alcance, clave).orElse(null), huella, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper respuesta = new ContentCachingResponseWrapper(response);
+        boolean completada = false;
+        try {
+            filterChain.doFilter(peticion, respuesta);
+            int estado = respuesta.getStatus();
+            if (estado >= 200 && estado < 300) {
+                // Ya ejecutada: si falla el guardado la reserva se mantiene hasta expirar
+                completada = true;
+                idempotenciaService.completar(alcance, clave, huella, estado, respuesta.getContentType(),
+                        respuesta.getContentAsByteArray());
+            }
+        } finally {
+            if (!completada) {
+                idempotenciaService.liberar(alcance, clave);
+            }
+            respuesta.copyBodyToResponse();
+        }
+    }
+
+    private void responderExistente(Registro registro, String huella, HttpServletResponse response)
+            throws IOException {
+        if (registro == null || !registro.completada()) {
+            rechazar(response, HttpStatus.CONFLICT, "Hay una petición en curso con la misma clave de idempotencia");
+        } else if (!registro.huella().equals(huella)) {
+            rechazar(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "La clave de idempotencia ya se utilizó con una petición distinta");
+        } else {
+            logger.debug("Respuesta repetida por clave de idempotencia");
+            response.setStatus(registro.codigoEstado());
+            if (registro.tipoContenido() != null) {
+                response.setContentType(registro.tipoContenido());
+            }
+            response.setHeader(CABECERA_REPETIDA, "true");
+            byte[] cuerpo = registro.cuerpo() != null ? registro.cuerpo() : new byte[0];
+            response.setContentLength(cuerpo.length);
+            response.getOutputStream().write(cuerpo);
+        }
+    }
+
+    private void rechazar(HttpServletResponse response, HttpStatus estado, String mensaje) throws IOException {
+        response.setStatus(estado.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.error(mensaje));
+    }
+
+    private static String alcance() {
+        Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacion == null || autenticacion instanceof AnonymousAuthenticationToken) {
+            return "anonimo";
+        }
+        return autenticacion.getName();
+    }
+
+    private static String ruta(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * Petición con el cuerpo ya leído, para calcular la huella y volver a
+     * entregarlo al controlador.
+     */
+    private static final class CuerpoEnMemoria extends HttpServletRequestWrapper {
+
+        private final byte[] cuerpo;
+
+        private CuerpoEnMemoria(HttpServletRequest request) throws IOException {
+            super(request);
+            this.cuerpo = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream entrada = new ByteArrayInputStream(cuerpo);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return entrada.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return entrada.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return entrada.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String codificacion = getCharacterEncoding();
+            Charset charset = codificacion != null ? Charset.forName(codificacion) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
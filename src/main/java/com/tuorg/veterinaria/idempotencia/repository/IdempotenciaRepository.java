@@ -0,0 +1,127 @@
+package com.tuorg.veterinaria.idempotencia.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Acceso JDBC a las claves de idempotencia.
+ *
+ * Las sentencias se ejecutan fuera de la transacción de negocio, de modo
+ * que la reserva de una clave es visible para los demás nodos antes de
+ * procesar la petición.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Repository
+public class IdempotenciaRepository {
+
+    /**
+     * Estado guardado de una clave.
+     *
+     * @param huella SHA-256 del método, la ruta y el cuerpo de la petición original
+     * @param completada Si la respuesta ya está disponible
+     */
+    public record Registro(String huella, boolean completada, int codigoEstado, String tipoContenido,
+                           byte[] cuerpo, Instant expiraEn) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param jdbcTemplate Plantilla JDBC
+     */
+    @Autowired
+    public IdempotenciaRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Busca una clave vigente.
+     *
+     * @param alcance Usuario dueño de la clave
+     * @param clave Clave enviada por el cliente
+     * @return Registro de la clave, si existe y no ha expirado
+     */
+    public Optional<Registro> buscar(String alcance, String clave) {
+        List<Registro> registros = jdbcTemplate.query(
+                "SELECT huella, estado, codigo_estado, tipo_contenido, cuerpo, expira_en "
+                        + "FROM claves_idempotencia "
+                        + "WHERE alcance = ? AND clave = ? AND expira_en > CURRENT_TIMESTAMP",
+                (rs, rowNum) -> new Registro(
+                        rs.getString(1),
+                        "COMPLETADA".equals(rs.getString(2)),
+                        rs.getInt(3),
+                        rs.getString(4),
+                        rs.getBytes(5),
+                        rs.getTimestamp(6).toInstant()),
+                alcance, clave);
+        return registros.stream().findFirst();
+    }
+
+    /**
+     * Reserva una clave para procesar la petición. Si existe una reserva
+     * expirada con la misma clave se reemplaza.
+     *
+     * @param alcance Usuario dueño de la clave
+     * @param clave Clave enviada por el cliente
+     * @param huella Huella de la petición
+     * @param expiraEn Vencimiento de la reserva
+     * @return true si la reserva se obtuvo
+     */
+    public boolean reservar(String alcance, String clave, String huella, Instant expiraEn) {
+        int filas = jdbcTemplate.update(
+                "INSERT INTO claves_idempotencia (alcance, clave, huella, estado, expira_en) "
+                        + "VALUES (?, ?, ?, 'EN_CURSO', ?) "
+                        + "ON CONFLICT (alcance, clave) DO UPDATE SET huella = EXCLUDED.huella, "
+                        + "estado = 'EN_CURSO', codigo_estado = NULL, tipo_contenido = NULL, cuerpo = NULL, "
+                        + "fecha_creacion = CURRENT_TIMESTAMP, expira_en = EXCLUDED.expira_en "
+                        + "WHERE claves_idempotencia.expira_en <= CURRENT_TIMESTAMP",
+                alcance, clave, huella, Timestamp.from(expiraEn));
+        return filas > 0;
+    }
+
+    /**
+     * Guarda la respuesta de una petición reservada.
+     *
+     * @param alcance Usuario dueño de la clave
+     * @param clave Clave enviada por el cliente
+     * @param registro Respuesta a conservar
+     */
+    public void completar(String alcance, String clave, Registro registro) {
+        jdbcTemplate.update(
+                "UPDATE claves_idempotencia SET estado = 'COMPLETADA', codigo_estado = ?, tipo_contenido = ?, "
+                        + "cuerpo = ?, expira_en = ? WHERE alcance = ? AND clave = ?",
+                registro.codigoEstado(), registro.tipoContenido(), registro.cuerpo(),
+                Timestamp.from(registro.expiraEn()), alcance, clave);
+    }
+
+    /**
+     * Libera una reserva sin respuesta para que el cliente pueda reintentar.
+     *
+     * @param alcance Usuario dueño de la clave
+     * @param clave Clave enviada por el cliente
+     */
+    public void liberar(String alcance, String clave) {
+        jdbcTemplate.update(
+                "DELETE FROM claves_idempotencia WHERE alcance = ? AND clave = ? AND estado = 'EN_CURSO'",
+                alcance, clave);
+    }
+
+    /**
+     * Elimina las claves expiradas.
+     *
+     * @return Número de claves eliminadas
+     */
+    public int eliminarVencidas() {
+        return jdbcTemplate.update("DELETE FROM claves_idempotencia WHERE expira_en <= CURRENT_TIMESTAMP");
+    }
+}
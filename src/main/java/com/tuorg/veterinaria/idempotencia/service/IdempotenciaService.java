@@ -0,0 +1,185 @@
+package com.tuorg.veterinaria.idempotencia.service;
+
+import com.tuorg.veterinaria.idempotencia.repository.IdempotenciaRepository;
+import com.tuorg.veterinaria.idempotencia.repository.IdempotenciaRepository.Registro;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servicio de almacenamiento de respuestas por clave de idempotencia.
+ *
+ * La tabla claves_idempotencia es la fuente de verdad: su clave primaria
+ * garantiza que solo un nodo procese cada clave. Las respuestas completadas
+ * se conservan además en una caché LRU en memoria, de modo que un reintento
+ * en el mismo nodo se responde sin consultar la base de datos.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Service
+public class IdempotenciaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotenciaService.class);
+
+    /**
+     * Tiempo máximo que una clave puede quedar reservada sin respuesta
+     * (por ejemplo, si el nodo cae a mitad de la petición).
+     */
+    private static final Duration DURACION_RESERVA = Duration.ofMinutes(5);
+
+    /**
+     * Intervalo mínimo entre purgas de claves expiradas.
+     */
+    private static final long INTERVALO_PURGA_MS = Duration.ofHours(1).toMillis();
+
+    /**
+     * Repositorio JDBC de claves.
+     */
+    private final IdempotenciaRepository idempotenciaRepository;
+
+    /**
+     * Tiempo de vida de una respuesta guardada.
+     */
+    private final Duration ttl;
+
+    /**
+     * Respuestas completadas más recientes, por alcance y clave.
+     */
+    private final Map<String, Registro> cache;
+
+    /**
+     * Instante a partir del cual toca purgar claves expiradas.
+     */
+    private final AtomicLong proximaPurga = new AtomicLong();
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param idempotenciaRepository Repositorio JDBC de claves
+     * @param ttl Tiempo de vida de una respuesta guardada
+     * @param maximoCache Número máximo de respuestas en memoria
+     */
+    @Autowired
+    public IdempotenciaService(IdempotenciaRepository idempotenciaRepository,
+                               @Value("${app.idempotencia.ttl:PT24H}") Duration ttl,
+                               @Value("${app.idempotencia.cache-max:10000}") int maximoCache) {
+        this.idempotenciaRepository = idempotenciaRepository;
+        this.ttl = ttl;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Registro> eldest) {
+                return size() > maximoCache;
+            }
+        });
+    }
+
+    /**
+     * Busca el estado de una clave, primero en memoria y luego en la base de datos.
+     *
+     * @param alcance Usuario dueño de la clave
+     * @param clave Clave enviada por el cliente
+     * @return Registro de la clave, si existe y no ha expirado
+     */
+    public Optional<Registro> buscar(String alcance, String clave) {
+        String llave = llave(alcance, clave);
+        Registro registro = cache.get(llave);
+        if (registro != null) {
+            if (registro.expiraEn().isAfter(Instant.now())) {
+                return Optional.of(registro);
+            }
+            cache.remove(llave);
+        }
+        Optional<Registro> guardado = idempotenciaRepository.buscar(alcance, clave);
+        guardado.filter(Registro::completada).ifPresent(r -> cache.put(llave, r));
+        return guardado;
+    }
+
+    /**
+     * Reserva una clave antes de procesar la petición.
+     *
+     * @param alcance Usuario dueño de la clave
+     * @param clave Clave enviada por el cliente
+     * @param huella Huella de la petición
+     * @return true si la reserva se obtuvo; false si otra petición ya la tiene
+     */
+    public boolean reservar(String alcance, String clave, String huella) {
+        purgarSiCorresponde();
+        return idempotenciaRepository.reservar(alcance, clave, huella, Instant.now().plus(DURACION_RESERVA));
+    }
+
+    /**
+     * Guarda la respuesta de una petición reservada.
+     *
+     * @param alcance Usuario dueño de la clave
+     * @param clave Clave enviada por el cliente
+     * @param huella Huella de la petición
+     * @param codigoEstado Código HTTP de la respuesta
+     * @param tipoContenido Content-Type de la respuesta
+     * @param cuerpo Cuerpo de la respuesta
+     */
+    public void completar(String alcance, String clave, String huella, int codigoEstado, String tipoContenido,
+                          byte[] cuerpo) {
+        Registro registro = new Registro(huella, true, codigoEstado, tipoContenido, cuerpo, Instant.now().plus(ttl));
+        idempotenciaRepository.completar(alcance, clave, registro);
+        cache.put(llave(alcance, clave), registro);
+    }
+
+    /**
+     * Libera una reserva cuya petición no terminó con éxito.
+     *
+     * @param alcance Usuario dueño de la clave
+     * @param clave Clave enviada por el cliente
+     */
+    public void liberar(String alcance, String clave) {
+        idempotenciaRepository.liberar(alcance, clave);
+    }
+
+    /**
+     * Calcula la huella de una petición.
+     *
+     * @param metodo Método HTTP
+     * @param ruta Ruta de la petición
+     * @param cuerpo Cuerpo de la petición
+     * @return SHA-256 en hexadecimal
+     */
+    public static String huella(String metodo, String ruta, byte[] cuerpo) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((metodo + " " + ruta + "\n").getBytes(StandardCharsets.UTF_8));
+            digest.update(cuerpo);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private void purgarSiCorresponde() {
+        long ahora = System.currentTimeMillis();
+        long programada = proximaPurga.get();
+        if (ahora >= programada && proximaPurga.compareAndSet(programada, ahora + INTERVALO_PURGA_MS)) {
+            int eliminadas = idempotenciaRepository.eliminarVencidas();
+            if (eliminadas > 0) {
+                logger.info("Claves de idempotencia expiradas eliminadas: {}", eliminadas);
+            }
+        }
+    }
+
+    private static String llave(String alcance, String clave) {
+        return alcance + '\u0000' + clave;
+    }
+}
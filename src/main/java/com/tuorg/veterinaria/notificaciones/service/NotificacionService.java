@@ -6,15 +6,21 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tuorg.veterinaria.common.constants.AppConstants;
 import com.tuorg.veterinaria.common.exception.BusinessException;
 import com.tuorg.veterinaria.common.exception.ResourceNotFoundException;
+import com.tuorg.veterinaria.configuracion.service.ConfigService;
+import com.tuorg.veterinaria.configuracion.service.ParametroVigente;
 import com.tuorg.veterinaria.notificaciones.dto.NotificacionEnviarRequest;
 import com.tuorg.veterinaria.notificaciones.dto.NotificacionProgramarRequest;
 import com.tuorg.veterinaria.notificaciones.dto.NotificacionResponse;
 import com.tuorg.veterinaria.notificaciones.model.CanalEmail;
 import com.tuorg.veterinaria.notificaciones.model.CanalEnvio;
+import com.tuorg.veterinaria.notificaciones.model.CanalSMS;
 import com.tuorg.veterinaria.notificaciones.model.Notificacion;
 import com.tuorg.veterinaria.common.event.NotificacionEvent;
 import com.tuorg.veterinaria.notificaciones.repository.CanalEnvioRepository;
 import com.tuorg.veterinaria.notificaciones.repository.NotificacionRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.mail.javamail.JavaMailSender;
@@ -30,28 +36,51 @@ import java.util.Map;
  * Servicio para la gestión de notificaciones.
  *
  * Implementa el patrón Strategy para delegar el envío en los canales concretos
- * y expone DTOs desacoplados de las entidades JPA.
+ * y expone DTOs desacoplados de las entidades JPA. Los canales de email y SMS
+ * se pueden deshabilitar en caliente desde los parámetros del sistema.
  */
 @Service
 public class NotificacionService {
 
+    private static final Logger logger = LoggerFactory.getLogger(NotificacionService.class);
+
     private final NotificacionRepository notificacionRepository;
     private final CanalEnvioRepository canalEnvioRepository;
     private final ObjectMapper objectMapper;
     private final ApplicationEventPublisher eventPublisher;
     private final JavaMailSender mailSender;
+    private final ConfigService configService;
+
+    /**
+     * Envío por correo habilitado.
+     */
+    private final ParametroVigente<Boolean> emailHabilitado =
+            ParametroVigente.booleano(AppConstants.PARAM_EMAIL_HABILITADO, true);
+
+    /**
+     * Envío por SMS habilitado.
+     */
+    private final ParametroVigente<Boolean> smsHabilitado =
+            ParametroVigente.booleano(AppConstants.PARAM_SMS_HABILITADO, true);
 
     @Autowired
     public NotificacionService(NotificacionRepository notificacionRepository,
                                CanalEnvioRepository canalEnvioRepository,
                                ObjectMapper objectMapper,
                                ApplicationEventPublisher eventPublisher,
-                               JavaMailSender mailSender) {
+                               JavaMailSender mailSender,
+                               ConfigService configService) {
         this.notificacionRepository = notificacionRepository;
         this.canalEnvioRepository = canalEnvioRepository;
         this.objectMapper = objectMapper;
         this.eventPublisher = eventPublisher;
         this.mailSender = mailSender;
+        this.configService = configService;
+    }
+
+    @PostConstruct
+    void suscribirConfiguracion() {
+        configService.seguir(emailHabilitado, smsHabilitado);
     }
 
     /**
@@ -93,7 +122,13 @@ public class NotificacionService {
             canalEmail.setMailSender(mailSender);
         }
 
-        boolean enviado = canal.enviar(notificacion);
+        // Un canal deshabilitado no envía; la notificación queda registrada como fallida
+        boolean enviado = false;
+        if (canalHabilitado(canal)) {
+            enviado = canal.enviar(notificacion);
+        } else {
+            logger.info("Canal {} deshabilitado en la configuración; no se envía la notificación", canal.getNombre());
+        }
 
         notificacion.setFechaEnvioReal(LocalDateTime.now());
         notificacion.setEstado(enviado
@@ -131,6 +166,16 @@ public class NotificacionService {
                 .toList();
     }
 
+    private boolean canalHabilitado(CanalEnvio canal) {
+        if (canal instanceof CanalEmail) {
+            return emailHabilitado.get();
+        }
+        if (canal instanceof CanalSMS) {
+            return smsHabilitado.get();
+        }
+        return true;
+    }
+
     private NotificacionResponse mapToResponse(Notificacion notificacion) {
         return NotificacionResponse.builder()
                 .id(notificacion.getIdNotificacion())
@@ -1,6 +1,7 @@
 package com.tuorg.veterinaria.prestacioneservicios.model;
 
 import com.tuorg.veterinaria.common.constants.AppConstants;
+import com.tuorg.veterinaria.gestionpacientes.listener.FichaPacienteEntityListener;
 import com.tuorg.veterinaria.gestionpacientes.model.Paciente;
 import com.tuorg.veterinaria.gestionusuarios.model.UsuarioVeterinario;
 import jakarta.persistence.*;
@@ -22,6 +23,7 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "citas", schema = "public")
+@EntityListeners(FichaPacienteEntityListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -28,7 +28,11 @@ public interface CitaRepository extends JpaRepository<Cita, Long> {
      * @param pacienteId ID del paciente
      * @return Lista de citas del paciente
      */
-    @Query("SELECT c FROM Cita c WHERE c.paciente.idPaciente = :pacienteId")
+    @Query("SELECT c FROM Cita c " +
+           "LEFT JOIN FETCH c.paciente p " +
+           "LEFT JOIN FETCH p.cliente cl " +
+           "LEFT JOIN FETCH c.veterinario v " +
+           "WHERE p.idPaciente = :pacienteId")
     List<Cita> findByPacienteId(@Param("pacienteId") Long pacienteId);
 
     /**
@@ -37,7 +41,11 @@ public interface CitaRepository extends JpaRepository<Cita, Long> {
      * @param veterinarioId ID del veterinario
      * @return Lista de citas del veterinario
      */
-    @Query("SELECT c FROM Cita c WHERE c.veterinario.idPersona = :veterinarioId")
+    @Query("SELECT c FROM Cita c " +
+           "LEFT JOIN FETCH c.paciente p " +
+           "LEFT JOIN FETCH p.cliente cl " +
+           "LEFT JOIN FETCH c.veterinario v " +
+           "WHERE v.idPersona = :veterinarioId")
     List<Cita> findByVeterinarioId(@Param("veterinarioId") Long veterinarioId);
 
     /**
@@ -93,5 +101,15 @@ public interface CitaRepository extends JpaRepository<Cita, Long> {
            "LEFT JOIN FETCH c.veterinario v " +
            "WHERE c.idCita = :id")
     java.util.Optional<Cita> findByIdWithDetails(@Param("id") Long id);
-}
 
+    /**
+     * Obtiene todas las citas con paciente, propietario y veterinario inicializados.
+     * 
+     * @return Lista de citas con sus relaciones cargadas en la misma consulta
+     */
+    @Query("SELECT c FROM Cita c " +
+           "LEFT JOIN FETCH c.paciente p " +
+           "LEFT JOIN FETCH p.cliente cl " +
+           "LEFT JOIN FETCH c.veterinario v")
+    List<Cita> findAllWithDetails();
+}
@@ -26,7 +26,13 @@ public interface ServicioPrestadoRepository extends JpaRepository<ServicioPresta
      * @param citaId ID de la cita
      * @return Lista de servicios prestados de la cita
      */
-    @Query("SELECT sp FROM ServicioPrestado sp WHERE sp.cita.idCita = :citaId")
+    @Query("SELECT sp FROM ServicioPrestado sp " +
+           "LEFT JOIN FETCH sp.servicio s " +
+           "LEFT JOIN FETCH sp.cita c " +
+           "LEFT JOIN FETCH c.paciente p " +
+           "LEFT JOIN FETCH p.cliente cl " +
+           "LEFT JOIN FETCH c.veterinario v " +
+           "WHERE c.idCita = :citaId")
     List<ServicioPrestado> findByCitaId(@Param("citaId") Long citaId);
 }
 
@@ -3,6 +3,10 @@ package com.tuorg.veterinaria.prestacioneservicios.service;
 import com.tuorg.veterinaria.common.constants.AppConstants;
 import com.tuorg.veterinaria.common.exception.BusinessException;
 import com.tuorg.veterinaria.common.exception.ResourceNotFoundException;
+import com.tuorg.veterinaria.configuracion.service.ConfigService;
+import com.tuorg.veterinaria.configuracion.service.ParametroVigente;
+import com.tuorg.veterinaria.dashboard.service.ResumenDiarioService;
+import com.tuorg.veterinaria.dashboard.service.ResumenDiarioService.FotoCita;
 import com.tuorg.veterinaria.gestionpacientes.model.Paciente;
 import com.tuorg.veterinaria.gestionpacientes.repository.PacienteRepository;
 import com.tuorg.veterinaria.gestionusuarios.model.Cliente;
@@ -17,6 +21,7 @@ import com.tuorg.veterinaria.prestacioneservicios.model.Cita;
 import com.tuorg.veterinaria.prestacioneservicios.repository.CitaRepository;
 import com.tuorg.veterinaria.notificaciones.service.NotificacionService;
 import com.tuorg.veterinaria.notificaciones.dto.NotificacionEnviarRequest;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -40,16 +45,33 @@ public class CitaService {
     private final PacienteRepository pacienteRepository;
     private final UsuarioRepository usuarioRepository;
     private final NotificacionService notificacionService;
+    private final ResumenDiarioService resumenDiarioService;
+    private final ConfigService configService;
+
+    /**
+     * Margen en minutos entre citas del mismo veterinario.
+     */
+    private final ParametroVigente<Integer> duracionCitaMinutos =
+            ParametroVigente.entero(AppConstants.PARAM_DURACION_CITA_MINUTOS, AppConstants.DURACION_CITA_MINUTOS);
 
     @Autowired
     public CitaService(CitaRepository citaRepository,
                        PacienteRepository pacienteRepository,
                        UsuarioRepository usuarioRepository,
-                       NotificacionService notificacionService) {
+                       NotificacionService notificacionService,
+                       ResumenDiarioService resumenDiarioService,
+                       ConfigService configService) {
         this.citaRepository = citaRepository;
         this.pacienteRepository = pacienteRepository;
         this.usuarioRepository = usuarioRepository;
         this.notificacionService = notificacionService;
+        this.resumenDiarioService = resumenDiarioService;
+        this.configService = configService;
+    }
+
+    @PostConstruct
+    void suscribirConfiguracion() {
+        configService.seguir(duracionCitaMinutos);
     }
 
     /**
@@ -87,6 +109,7 @@ public class CitaService {
         cita.setEstado(AppConstants.ESTADO_CITA_PROGRAMADA);
 
         Cita guardada = citaRepository.save(cita);
+        resumenDiarioService.registrarCita(null, FotoCita.de(guardada));
         
         // Enviar notificación por email al cliente
         // Recargar la cita con todas las relaciones necesarias para evitar LazyInitializationException
@@ -120,8 +143,10 @@ public class CitaService {
             throw new BusinessException("El veterinario ya tiene una cita programada en ese horario. Por favor, seleccione otra fecha y hora");
         }
 
+        FotoCita anterior = FotoCita.de(cita);
         cita.setFechaHora(nuevaFechaHora);
         Cita actualizada = citaRepository.save(cita);
+        resumenDiarioService.registrarCita(anterior, FotoCita.de(actualizada));
         
         // Enviar notificación de reprogramación al cliente
         // Recargar la cita con todas las relaciones necesarias para evitar LazyInitializationException
@@ -144,11 +169,13 @@ public class CitaService {
             throw new BusinessException("No se puede cancelar una cita ya realizada");
         }
 
+        FotoCita anterior = FotoCita.de(cita);
         cita.setEstado(AppConstants.ESTADO_CITA_CANCELADA);
         cita.setMotivo((cita.getMotivo() != null ? cita.getMotivo() + "\n" : "") +
                 "Cancelada: " + request.getMotivo());
 
         Cita cancelada = citaRepository.save(cita);
+        resumenDiarioService.registrarCita(anterior, FotoCita.de(cancelada));
         return mapToResponse(cancelada);
     }
 
@@ -164,8 +191,10 @@ public class CitaService {
             throw new BusinessException("Solo se pueden completar citas en estado PROGRAMADA");
         }
 
+        FotoCita anterior = FotoCita.de(cita);
         cita.setEstado(AppConstants.ESTADO_CITA_REALIZADA);
         Cita completada = citaRepository.save(cita);
+        resumenDiarioService.registrarCita(anterior, FotoCita.de(completada));
         return mapToResponse(completada);
     }
 
@@ -174,7 +203,7 @@ public class CitaService {
      */
     @Transactional(readOnly = true)
     public List<CitaResponse> obtenerTodas() {
-        return citaRepository.findAll()
+        return citaRepository.findAllWithDetails()
                 .stream()
                 .map(this::mapToResponse)
                 .toList();
@@ -220,15 +249,15 @@ public class CitaService {
 
     /**
      * Valida la disponibilidad de un veterinario en una fecha/hora específica.
-     * Considera un rango de tiempo basado en la duración estándar de las citas.
+     * Considera un rango de tiempo basado en la duración configurada de las citas.
      * 
      * @param veterinarioId ID del veterinario
      * @param fechaHora Fecha y hora a validar
      * @return true si está disponible, false si hay conflicto
      */
     private boolean validarDisponibilidad(Long veterinarioId, LocalDateTime fechaHora) {
-        LocalDateTime inicioRango = fechaHora.minusMinutes(AppConstants.DURACION_CITA_MINUTOS);
-        LocalDateTime finRango = fechaHora.plusMinutes(AppConstants.DURACION_CITA_MINUTOS);
+        LocalDateTime inicioRango = fechaHora.minusMinutes(duracionCitaMinutos.get());
+        LocalDateTime finRango = fechaHora.plusMinutes(duracionCitaMinutos.get());
         
         return !citaRepository.existeCitaEnRango(
                 veterinarioId,
@@ -252,8 +281,8 @@ public class CitaService {
         }
         
         // Verificar si hay otras citas en el rango (excluyendo la cita actual)
-        LocalDateTime inicioRango = nuevaFechaHora.minusMinutes(AppConstants.DURACION_CITA_MINUTOS);
-        LocalDateTime finRango = nuevaFechaHora.plusMinutes(AppConstants.DURACION_CITA_MINUTOS);
+        LocalDateTime inicioRango = nuevaFechaHora.minusMinutes(duracionCitaMinutos.get());
+        LocalDateTime finRango = nuevaFechaHora.plusMinutes(duracionCitaMinutos.get());
         
         // Obtener todas las citas en el rango
         List<Cita> citasEnRango = citaRepository.findByVeterinarioId(veterinarioId)
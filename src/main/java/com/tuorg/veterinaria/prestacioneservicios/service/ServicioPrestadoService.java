@@ -5,6 +5,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tuorg.veterinaria.common.constants.AppConstants;
 import com.tuorg.veterinaria.common.exception.BusinessException;
 import com.tuorg.veterinaria.common.exception.ResourceNotFoundException;
+import com.tuorg.veterinaria.dashboard.service.ResumenDiarioService;
+import com.tuorg.veterinaria.dashboard.service.ResumenDiarioService.FotoCita;
 import com.tuorg.veterinaria.gestioninventario.service.MovimientoInventarioService;
 import com.tuorg.veterinaria.gestionusuarios.model.Cliente;
 import com.tuorg.veterinaria.prestacioneservicios.dto.CitaResponse;
@@ -44,6 +46,7 @@ public class ServicioPrestadoService {
     @SuppressWarnings("unused") // Se usará en el futuro para consumir insumos del inventario (ver TODO línea 95)
     private final MovimientoInventarioService movimientoInventarioService;
     private final FacturaService facturaService;
+    private final ResumenDiarioService resumenDiarioService;
     private final ObjectMapper objectMapper;
 
     @Autowired
@@ -52,12 +55,14 @@ public class ServicioPrestadoService {
                                    ServicioRepository servicioRepository,
                                    MovimientoInventarioService movimientoInventarioService,
                                    FacturaService facturaService,
+                                   ResumenDiarioService resumenDiarioService,
                                    ObjectMapper objectMapper) {
         this.servicioPrestadoRepository = servicioPrestadoRepository;
         this.citaRepository = citaRepository;
         this.servicioRepository = servicioRepository;
         this.movimientoInventarioService = movimientoInventarioService;
         this.facturaService = facturaService;
+        this.resumenDiarioService = resumenDiarioService;
         this.objectMapper = objectMapper;
     }
 
@@ -110,8 +115,9 @@ public class ServicioPrestadoService {
         ));
         facturaService.crear(facturaRequest);
 
+        FotoCita anterior = FotoCita.de(cita);
         cita.setEstado(AppConstants.ESTADO_CITA_REALIZADA);
-        citaRepository.save(cita);
+        resumenDiarioService.registrarCita(anterior, FotoCita.de(citaRepository.save(cita)));
 
         return mapToResponse(guardado);
     }
@@ -0,0 +1,22 @@
+package com.tuorg.veterinaria.reportes.analitica;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Consulta sobre una tabla del cubo: filtra por fechas y valores de
+ * dimensiones, agrupa y cuenta filas sumando, opcionalmente, una medida.
+ *
+ * @param desde Primer día incluido (null para no acotar)
+ * @param hasta Último día incluido (null para no acotar)
+ * @param filtros Valores admitidos por dimensión
+ * @param agrupar Dimensiones de agrupación, propias o derivadas de la fecha
+ * @param medida Medida a sumar (null para solo contar)
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public record ConsultaCubo(LocalDate desde, LocalDate hasta, Map<String, Set<String>> filtros,
+                           List<String> agrupar, String medida) {
+}
@@ -0,0 +1,656 @@
+package com.tuorg.veterinaria.reportes.analitica;
+
+import com.tuorg.veterinaria.common.exception.BusinessException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Tabla de hechos en memoria organizada por columnas.
+ *
+ * Cada dimensión se guarda como un {@code int[]} de códigos de diccionario,
+ * la fecha como días desde la época y la medida como céntimos en un
+ * {@code long[]}, de modo que una consulta recorre arrays primitivos
+ * contiguos sin crear objetos por fila. Las filas eliminadas o
+ * reemplazadas quedan marcadas como muertas y se compactan cuando superan
+ * la mitad de la tabla.
+ *
+ * Las consultas se reparten en bloques de {@link #TAMANO_BLOQUE} filas que
+ * se agregan en paralelo y se combinan al final; las modificaciones
+ * toman el cerrojo de escritura, por lo que una consulta nunca ve un lote
+ * a medio aplicar.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public final class TablaColumnar {
+
+    /**
+     * Fila a cargar en la tabla.
+     *
+     * @param id Clave de la fila en su tabla de origen
+     * @param padre Clave del registro del que depende (0 si no aplica)
+     * @param fecha Días desde 1970-01-01
+     * @param dimensiones Valores de las dimensiones, en el orden de {@link TablaCubo#getDimensiones()}
+     * @param medida Importe en céntimos (0 si la tabla no tiene medida)
+     */
+    public record Fila(long id, long padre, int fecha, String[] dimensiones, long medida) {
+    }
+
+    /**
+     * Grupo del resultado de una consulta.
+     *
+     * @param claves Valores de las dimensiones de agrupación
+     * @param filas Filas del grupo
+     * @param suma Suma de la medida en céntimos (0 si no se pidió medida)
+     */
+    public record Grupo(List<String> claves, long filas, long suma) {
+    }
+
+    /**
+     * Resultado de una consulta.
+     *
+     * @param grupos Grupos ordenados por sus claves
+     * @param filasEscaneadas Filas recorridas
+     */
+    public record Resultado(List<Grupo> grupos, long filasEscaneadas) {
+    }
+
+    /**
+     * Dimensiones derivadas de la fecha disponibles en todas las tablas.
+     */
+    public static final List<String> DIMENSIONES_FECHA = List.of("anio", "mes", "dia", "dia_semana");
+
+    /**
+     * Filas que agrega cada tarea de una consulta.
+     */
+    static final int TAMANO_BLOQUE = 1 << 16;
+
+    /**
+     * Combinaciones de grupos hasta las que se acumula en arrays densos
+     * indexados por la clave; por encima se usa un mapa.
+     */
+    static final int LIMITE_DENSO = 1 << 18;
+
+    private static final int CAPACIDAD_INICIAL = 1024;
+
+    private static final int MINIMO_COMPACTAR = 4096;
+
+    private final TablaCubo tabla;
+    private final Diccionario[] diccionarios;
+    private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock();
+    private final IndiceFilas indice = new IndiceFilas();
+
+    private int[][] dimensiones;
+    private int[] fechas;
+    private long[] medidas;
+    private long[] ids;
+    private long[] padres;
+    private boolean[] vivas;
+    private int filas;
+    private int muertas;
+    private int fechaMinima = Integer.MAX_VALUE;
+    private int fechaMaxima = Integer.MIN_VALUE;
+
+    /**
+     * Crea una tabla vacía.
+     *
+     * @param tabla Tabla de hechos que representa
+     */
+    public TablaColumnar(TablaCubo tabla) {
+        this.tabla = tabla;
+        int numeroDimensiones = tabla.getDimensiones().size();
+        this.diccionarios = new Diccionario[numeroDimensiones];
+        this.dimensiones = new int[numeroDimensiones][CAPACIDAD_INICIAL];
+        for (int d = 0; d < numeroDimensiones; d++) {
+            diccionarios[d] = new Diccionario();
+        }
+        this.fechas = new int[CAPACIDAD_INICIAL];
+        this.medidas = new long[CAPACIDAD_INICIAL];
+        this.ids = new long[CAPACIDAD_INICIAL];
+        this.padres = new long[CAPACIDAD_INICIAL];
+        this.vivas = new boolean[CAPACIDAD_INICIAL];
+    }
+
+    public TablaCubo getTabla() {
+        return tabla;
+    }
+
+    /**
+     * Número de filas vigentes.
+     *
+     * @return Filas vivas
+     */
+    public int filasVivas() {
+        cerrojo.readLock().lock();
+        try {
+            return filas - muertas;
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Inserta una fila o reemplaza la que tenga el mismo ID.
+     *
+     * @param fila Fila a guardar
+     */
+    public void guardar(Fila fila) {
+        cerrojo.writeLock().lock();
+        try {
+            guardarSinCerrojo(fila);
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Aplica un lote de cambios de forma atómica frente a las consultas:
+     * elimina las filas indicadas y las que dependen de los padres
+     * indicados y después guarda las filas nuevas.
+     *
+     * @param idsEliminados IDs de filas a eliminar
+     * @param padresReemplazados Padres cuyas filas se eliminan
+     * @param nuevas Filas a insertar o reemplazar
+     */
+    public void aplicar(Collection<Long> idsEliminados, Collection<Long> padresReemplazados, Collection<Fila> nuevas) {
+        cerrojo.writeLock().lock();
+        try {
+            for (Long id : idsEliminados) {
+                int fila = indice.buscar(id);
+                if (fila >= 0) {
+                    marcarMuerta(fila);
+                }
+            }
+            if (!padresReemplazados.isEmpty()) {
+                long[] ordenados = padresReemplazados.stream().mapToLong(Long::longValue).sorted().toArray();
+                for (int fila = 0; fila < filas; fila++) {
+                    if (vivas[fila] && Arrays.binarySearch(ordenados, padres[fila]) >= 0) {
+                        marcarMuerta(fila);
+                    }
+                }
+            }
+            for (Fila fila : nuevas) {
+                guardarSinCerrojo(fila);
+            }
+            if (muertas >= MINIMO_COMPACTAR && muertas * 2 > filas) {
+                compactar();
+            }
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ejecuta una consulta repartiendo el recorrido entre los hilos del pool.
+     *
+     * @param consulta Consulta a resolver
+     * @param pool Pool en el que se agregan los bloques
+     * @return Grupos resultantes
+     * @throws BusinessException Si la consulta usa dimensiones o medidas desconocidas
+     */
+    public Resultado consultar(ConsultaCubo consulta, ExecutorService pool) {
+        cerrojo.readLock().lock();
+        try {
+            Plan plan = planificar(consulta);
+            if (filas == 0 || plan.vacio) {
+                return new Resultado(List.of(), filas);
+            }
+            List<CompletableFuture<Parcial>> tareas = new ArrayList<>();
+            for (int inicio = 0; inicio < filas; inicio += TAMANO_BLOQUE) {
+                int desde = inicio;
+                int hasta = Math.min(filas, inicio + TAMANO_BLOQUE);
+                tareas.add(CompletableFuture.supplyAsync(() -> agregar(plan, desde, hasta), pool));
+            }
+            Parcial total = null;
+            for (CompletableFuture<Parcial> tarea : tareas) {
+                Parcial parcial = unir(tarea);
+                total = total == null ? parcial : total.combinar(parcial);
+            }
+            return new Resultado(decodificar(plan, total), filas);
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    private void guardarSinCerrojo(Fila fila) {
+        int posicion = indice.buscar(fila.id());
+        if (posicion >= 0 && !vivas[posicion]) {
+            muertas--;
+        } else if (posicion < 0) {
+            asegurarCapacidad(filas + 1);
+            posicion = filas++;
+            indice.poner(fila.id(), posicion);
+        }
+        ids[posicion] = fila.id();
+        padres[posicion] = fila.padre();
+        fechas[posicion] = fila.fecha();
+        medidas[posicion] = fila.medida();
+        for (int d = 0; d < diccionarios.length; d++) {
+            dimensiones[d][posicion] = diccionarios[d].codificar(fila.dimensiones()[d]);
+        }
+        vivas[posicion] = true;
+        fechaMinima = Math.min(fechaMinima, fila.fecha());
+        fechaMaxima = Math.max(fechaMaxima, fila.fecha());
+    }
+
+    private void marcarMuerta(int fila) {
+        if (vivas[fila]) {
+            vivas[fila] = false;
+            muertas++;
+        }
+    }
+
+    private void asegurarCapacidad(int necesaria) {
+        if (necesaria <= ids.length) {
+            return;
+        }
+        redimensionar(Math.max(necesaria, ids.length * 2));
+    }
+
+    private void redimensionar(int capacidad) {
+        for (int d = 0; d < dimensiones.length; d++) {
+            dimensiones[d] = Arrays.copyOf(dimensiones[d], capacidad);
+        }
+        fechas = Arrays.copyOf(fechas, capacidad);
+        medidas = Arrays.copyOf(medidas, capacidad);
+        ids = Arrays.copyOf(ids, capacidad);
+        padres = Arrays.copyOf(padres, capacidad);
+        vivas = Arrays.copyOf(vivas, capacidad);
+    }
+
+    /**
+     * Desplaza las filas vivas al principio y reconstruye el índice.
+     */
+    private void compactar() {
+        int destino = 0;
+        indice.vaciar();
+        for (int origen = 0; origen < filas; origen++) {
+            if (!vivas[origen]) {
+                continue;
+            }
+            for (int[] columna : dimensiones) {
+                columna[destino] = columna[origen];
+            }
+            fechas[destino] = fechas[origen];
+            medidas[destino] = medidas[origen];
+            ids[destino] = ids[origen];
+            padres[destino] = padres[origen];
+            vivas[destino] = true;
+            indice.poner(ids[destino], destino);
+            destino++;
+        }
+        Arrays.fill(vivas, destino, filas, false);
+        filas = destino;
+        muertas = 0;
+        redimensionar(Math.max(CAPACIDAD_INICIAL, destino + destino / 2));
+    }
+
+    // ----------------------------------------------------------------------
+    // Consulta
+    // ----------------------------------------------------------------------
+
+    /**
+     * Consulta traducida a códigos: filtros como tablas de admisión por
+     * código y agrupación como clave mixta con un multiplicador por
+     * dimensión.
+     */
+    private static final class Plan {
+        int fechaDesde;
+        int fechaHasta;
+        int[][] columnasFiltro;
+        boolean[][] admitidos;
+        int[][] columnasGrupo;
+        int[][] derivadasGrupo;
+        String[] nombresGrupo;
+        int[] cardinalidades;
+        long[] multiplicadores;
+        long combinaciones;
+        boolean conMedida;
+        boolean vacio;
+        int anioBase;
+    }
+
+    private Plan planificar(ConsultaCubo consulta) {
+        Plan plan = new Plan();
+        plan.fechaDesde = consulta.desde() != null ? (int) consulta.desde().toEpochDay() : Integer.MIN_VALUE;
+        plan.fechaHasta = consulta.hasta() != null ? (int) consulta.hasta().toEpochDay() : Integer.MAX_VALUE;
+        plan.vacio = plan.fechaDesde > plan.fechaHasta;
+
+        if (consulta.medida() != null) {
+            if (!tabla.getMedidas().contains(consulta.medida())) {
+                throw new BusinessException("La tabla " + tabla + " no tiene la medida '" + consulta.medida() + "'");
+            }
+            plan.conMedida = true;
+        }
+
+        Map<String, Set<String>> filtros = consulta.filtros() != null ? consulta.filtros() : Map.of();
+        plan.columnasFiltro = new int[filtros.size()][];
+        plan.admitidos = new boolean[filtros.size()][];
+        int f = 0;
+        for (Map.Entry<String, Set<String>> filtro : filtros.entrySet()) {
+            int d = indiceDimension(filtro.getKey());
+            Diccionario diccionario = diccionarios[d];
+            boolean[] admitidos = new boolean[diccionario.tamano()];
+            boolean alguno = false;
+            for (String valor : filtro.getValue()) {
+                int codigo = diccionario.buscar(valor);
+                if (codigo >= 0) {
+                    admitidos[codigo] = true;
+                    alguno = true;
+                }
+            }
+            plan.vacio |= !alguno;
+            plan.columnasFiltro[f] = dimensiones[d];
+            plan.admitidos[f] = admitidos;
+            f++;
+        }
+
+        List<String> agrupar = consulta.agrupar() != null ? consulta.agrupar() : List.of();
+        int numeroGrupos = agrupar.size();
+        plan.nombresGrupo = agrupar.toArray(String[]::new);
+        plan.columnasGrupo = new int[numeroGrupos][];
+        plan.derivadasGrupo = new int[numeroGrupos][];
+        plan.cardinalidades = new int[numeroGrupos];
+        plan.multiplicadores = new long[numeroGrupos];
+        plan.anioBase = fechaMinima <= fechaMaxima ? LocalDate.ofEpochDay(fechaMinima).getYear() : 0;
+        long combinaciones = 1;
+        for (int g = numeroGrupos - 1; g >= 0; g--) {
+            String nombre = plan.nombresGrupo[g];
+            if (DIMENSIONES_FECHA.contains(nombre)) {
+                plan.derivadasGrupo[g] = derivar(nombre, plan.anioBase);
+                plan.cardinalidades[g] = cardinalidadFecha(nombre, plan.anioBase);
+            } else {
+                int d = indiceDimension(nombre);
+                plan.columnasGrupo[g] = dimensiones[d];
+                plan.cardinalidades[g] = Math.max(1, diccionarios[d].tamano());
+            }
+            plan.multiplicadores[g] = combinaciones;
+            try {
+                combinaciones = Math.multiplyExact(combinaciones, plan.cardinalidades[g]);
+            } catch (ArithmeticException e) {
+                throw new BusinessException("La agrupación solicitada genera demasiadas combinaciones");
+            }
+        }
+        plan.combinaciones = combinaciones;
+        return plan;
+    }
+
+    private int indiceDimension(String nombre) {
+        int d = tabla.getDimensiones().indexOf(nombre);
+        if (d < 0) {
+            throw new BusinessException("La tabla " + tabla + " no tiene la dimensión '" + nombre + "'");
+        }
+        return d;
+    }
+
+    /**
+     * Código de la dimensión derivada para cada día entre la fecha mínima
+     * y la máxima de la tabla, para resolverla con un acceso a array.
+     */
+    private int[] derivar(String nombre, int anioBase) {
+        if (fechaMinima > fechaMaxima) {
+            return new int[0];
+        }
+        int[] codigos = new int[fechaMaxima - fechaMinima + 1];
+        for (int i = 0; i < codigos.length; i++) {
+            LocalDate dia = LocalDate.ofEpochDay((long) fechaMinima + i);
+            codigos[i] = switch (nombre) {
+                case "anio" -> dia.getYear() - anioBase;
+                case "mes" -> dia.getMonthValue() - 1;
+                case "dia_semana" -> dia.getDayOfWeek().getValue() - 1;
+                default -> i;
+            };
+        }
+        return codigos;
+    }
+
+    private int cardinalidadFecha(String nombre, int anioBase) {
+        if (fechaMinima > fechaMaxima) {
+            return 1;
+        }
+        return switch (nombre) {
+            case "anio" -> LocalDate.ofEpochDay(fechaMaxima).getYear() - anioBase + 1;
+            case "mes" -> 12;
+            case "dia_semana" -> 7;
+            default -> fechaMaxima - fechaMinima + 1;
+        };
+    }
+
+    /**
+     * Acumulados de un bloque: arrays densos indexados por la clave del
+     * grupo o, si hay demasiadas combinaciones, un mapa.
+     */
+    private static final class Parcial {
+        final long[] filasDensas;
+        final long[] sumasDensas;
+        final Map<Long, long[]> disperso;
+
+        Parcial(long combinaciones) {
+            if (combinaciones <= LIMITE_DENSO) {
+                filasDensas = new long[(int) combinaciones];
+                sumasDensas = new long[(int) combinaciones];
+                disperso = null;
+            } else {
+                filasDensas = null;
+                sumasDensas = null;
+                disperso = new HashMap<>();
+            }
+        }
+
+        Parcial combinar(Parcial otro) {
+            if (disperso == null) {
+                for (int i = 0; i < filasDensas.length; i++) {
+                    filasDensas[i] += otro.filasDensas[i];
+                    sumasDensas[i] += otro.sumasDensas[i];
+                }
+            } else {
+                otro.disperso.forEach((clave, valores) -> disperso.merge(clave, valores, (a, b) -> {
+                    a[0] += b[0];
+                    a[1] += b[1];
+                    return a;
+                }));
+            }
+            return this;
+        }
+    }
+
+    private Parcial agregar(Plan plan, int inicio, int fin) {
+        Parcial parcial = new Parcial(plan.combinaciones);
+        int numeroFiltros = plan.columnasFiltro.length;
+        int numeroGrupos = plan.multiplicadores.length;
+        int base = fechaMinima;
+        filas:
+        for (int fila = inicio; fila < fin; fila++) {
+            if (!vivas[fila]) {
+                continue;
+            }
+            int fecha = fechas[fila];
+            if (fecha < plan.fechaDesde || fecha > plan.fechaHasta) {
+                continue;
+            }
+            for (int f = 0; f < numeroFiltros; f++) {
+                if (!plan.admitidos[f][plan.columnasFiltro[f][fila]]) {
+                    continue filas;
+                }
+            }
+            long clave = 0;
+            for (int g = 0; g < numeroGrupos; g++) {
+                int codigo = plan.columnasGrupo[g] != null
+                        ? plan.columnasGrupo[g][fila]
+                        : plan.derivadasGrupo[g][fecha - base];
+                clave += codigo * plan.multiplicadores[g];
+            }
+            long medida = plan.conMedida ? medidas[fila] : 0;
+            if (parcial.disperso == null) {
+                parcial.filasDensas[(int) clave]++;
+                parcial.sumasDensas[(int) clave] += medida;
+            } else {
+                long[] acumulado = parcial.disperso.computeIfAbsent(clave, k -> new long[2]);
+                acumulado[0]++;
+                acumulado[1] += medida;
+            }
+        }
+        return parcial;
+    }
+
+    private List<Grupo> decodificar(Plan plan, Parcial total) {
+        List<Grupo> grupos = new ArrayList<>();
+        if (total.disperso == null) {
+            for (int clave = 0; clave < total.filasDensas.length; clave++) {
+                if (total.filasDensas[clave] > 0) {
+                    grupos.add(new Grupo(claves(plan, clave), total.filasDensas[clave], total.sumasDensas[clave]));
+                }
+            }
+        } else {
+            new TreeMap<>(total.disperso).forEach((clave, valores) ->
+                    grupos.add(new Grupo(claves(plan, clave), valores[0], valores[1])));
+        }
+        return grupos;
+    }
+
+    private List<String> claves(Plan plan, long clave) {
+        List<String> claves = new ArrayList<>(plan.nombresGrupo.length);
+        for (int g = 0; g < plan.nombresGrupo.length; g++) {
+            int codigo = (int) ((clave / plan.multiplicadores[g]) % plan.cardinalidades[g]);
+            String nombre = plan.nombresGrupo[g];
+            claves.add(switch (nombre) {
+                case "anio" -> String.valueOf(plan.anioBase + codigo);
+                case "mes" -> String.valueOf(codigo + 1);
+                case "dia" -> LocalDate.ofEpochDay((long) fechaMinima + codigo).toString();
+                case "dia_semana" -> DayOfWeek.of(codigo + 1).name();
+                default -> diccionarios[indiceDimension(nombre)].valor(codigo);
+            });
+        }
+        return claves;
+    }
+
+    private static <T> T unir(CompletableFuture<T> tarea) {
+        try {
+            return tarea.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Estructuras auxiliares
+    // ----------------------------------------------------------------------
+
+    /**
+     * Codificación de los valores de una dimensión; los códigos no se
+     * reutilizan aunque el valor deje de aparecer.
+     */
+    private static final class Diccionario {
+        private final Map<String, Integer> codigos = new HashMap<>();
+        private final List<String> valores = new ArrayList<>();
+
+        int codificar(String valor) {
+            Integer codigo = codigos.get(valor);
+            if (codigo == null) {
+                codigo = valores.size();
+                valores.add(valor);
+                codigos.put(valor, codigo);
+            }
+            return codigo;
+        }
+
+        int buscar(String valor) {
+            Integer codigo = codigos.get(valor);
+            return codigo != null ? codigo : -1;
+        }
+
+        String valor(int codigo) {
+            return valores.get(codigo);
+        }
+
+        int tamano() {
+            return valores.size();
+        }
+    }
+
+    /**
+     * Índice de ID a posición con direccionamiento abierto sobre arrays
+     * primitivos. Las filas eliminadas conservan su entrada hasta la
+     * siguiente compactación, que lo reconstruye.
+     */
+    private static final class IndiceFilas {
+        private static final long VACIA = Long.MIN_VALUE;
+
+        private long[] claves = nuevasClaves(CAPACIDAD_INICIAL * 2);
+        private int[] posiciones = new int[CAPACIDAD_INICIAL * 2];
+        private int ocupadas;
+
+        int buscar(long id) {
+            int mascara = claves.length - 1;
+            for (int i = mezclar(id) & mascara; ; i = (i + 1) & mascara) {
+                if (claves[i] == id) {
+                    return posiciones[i];
+                }
+                if (claves[i] == VACIA) {
+                    return -1;
+                }
+            }
+        }
+
+        void poner(long id, int posicion) {
+            if ((ocupadas + 1) * 2 > claves.length) {
+                crecer();
+            }
+            int mascara = claves.length - 1;
+            int i = mezclar(id) & mascara;
+            while (claves[i] != VACIA && claves[i] != id) {
+                i = (i + 1) & mascara;
+            }
+            if (claves[i] == VACIA) {
+                ocupadas++;
+            }
+            claves[i] = id;
+            posiciones[i] = posicion;
+        }
+
+        void vaciar() {
+            Arrays.fill(claves, VACIA);
+            ocupadas = 0;
+        }
+
+        private void crecer() {
+            long[] clavesAnteriores = claves;
+            int[] posicionesAnteriores = posiciones;
+            claves = nuevasClaves(clavesAnteriores.length * 2);
+            posiciones = new int[clavesAnteriores.length * 2];
+            ocupadas = 0;
+            for (int i = 0; i < clavesAnteriores.length; i++) {
+                if (clavesAnteriores[i] != VACIA) {
+                    poner(clavesAnteriores[i], posicionesAnteriores[i]);
+                }
+            }
+        }
+
+        private static long[] nuevasClaves(int capacidad) {
+            long[] claves = new long[capacidad];
+            Arrays.fill(claves, VACIA);
+            return claves;
+        }
+
+        private static int mezclar(long id) {
+            long h = id * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
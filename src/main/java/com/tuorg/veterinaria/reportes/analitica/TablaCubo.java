@@ -0,0 +1,44 @@
+package com.tuorg.veterinaria.reportes.analitica;
+
+import java.util.List;
+
+/**
+ * Tablas de hechos del cubo de análisis, con sus dimensiones y medidas.
+ *
+ * Además de las dimensiones propias, todas admiten agrupar por las
+ * derivadas de la fecha: {@code anio}, {@code mes}, {@code dia} y
+ * {@code dia_semana}.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public enum TablaCubo {
+    /**
+     * Una fila por cita, fechada por su día programado.
+     */
+    CITAS(List.of("especie", "tipo_servicio", "veterinario", "triage", "estado"), List.of()),
+    /**
+     * Una fila por servicio prestado, fechada por su ejecución; el importe es su costo total.
+     */
+    SERVICIOS(List.of("especie", "tipo_servicio", "servicio", "veterinario"), List.of("importe")),
+    /**
+     * Una fila por factura, fechada por su emisión; el importe es su total.
+     */
+    FACTURAS(List.of("estado", "forma_pago"), List.of("importe"));
+
+    private final List<String> dimensiones;
+    private final List<String> medidas;
+
+    TablaCubo(List<String> dimensiones, List<String> medidas) {
+        this.dimensiones = dimensiones;
+        this.medidas = medidas;
+    }
+
+    public List<String> getDimensiones() {
+        return dimensiones;
+    }
+
+    public List<String> getMedidas() {
+        return medidas;
+    }
+}
@@ -0,0 +1,52 @@
+package com.tuorg.veterinaria.reportes.calculo;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Cálculo de una métrica para un período.
+ *
+ * Cada implementación es un componente de Spring; EstadisticaService las
+ * recoge todas y ejecuta las que correspondan al tipo de reporte.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public interface CalculadorEstadistica {
+
+    /**
+     * Nombre con el que se guarda la estadística.
+     *
+     * @return Nombre de la métrica
+     */
+    String nombre();
+
+    /**
+     * Tipos de reporte específicos que incluyen esta métrica. Los reportes
+     * generales (diario, mensual, personalizado) incluyen todas.
+     *
+     * @return Tipos de reporte en mayúsculas
+     */
+    Set<String> tiposReporte();
+
+    /**
+     * Indica si el valor de un período es la suma de los valores de sus
+     * meses. Las métricas aditivas se calculan por mes y reutilizan los
+     * meses cerrados ya guardados.
+     *
+     * @return true si la métrica es aditiva
+     */
+    default boolean esAditiva() {
+        return true;
+    }
+
+    /**
+     * Calcula la métrica.
+     *
+     * @param inicio Primer día del período (inclusive)
+     * @param fin Último día del período (inclusive)
+     * @return Valor calculado
+     */
+    BigDecimal calcular(LocalDate inicio, LocalDate fin);
+}
@@ -0,0 +1,42 @@
+package com.tuorg.veterinaria.reportes.calculo;
+
+import com.tuorg.veterinaria.reportes.repository.MetricaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Importe cobrado: total de las facturas pagadas en el período, por fecha
+ * de pago.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Component
+public class CalculadorIngresos implements CalculadorEstadistica {
+
+    private final MetricaRepository metricaRepository;
+
+    @Autowired
+    public CalculadorIngresos(MetricaRepository metricaRepository) {
+        this.metricaRepository = metricaRepository;
+    }
+
+    @Override
+    public String nombre() {
+        return "ingresos";
+    }
+
+    @Override
+    public Set<String> tiposReporte() {
+        return Set.of("FINANCIERO");
+    }
+
+    @Override
+    public BigDecimal calcular(LocalDate inicio, LocalDate fin) {
+        return metricaRepository.ingresosPagados(inicio, fin);
+    }
+}
@@ -0,0 +1,54 @@
+package com.tuorg.veterinaria.reportes.calculo;
+
+import com.tuorg.veterinaria.reportes.repository.MetricaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Rotación de stock: unidades con salida en el período por cada unidad en
+ * existencia. No hay histórico de existencias, así que el denominador es
+ * el stock actual más las salidas del período.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Component
+public class CalculadorRotacionStock implements CalculadorEstadistica {
+
+    private final MetricaRepository metricaRepository;
+
+    @Autowired
+    public CalculadorRotacionStock(MetricaRepository metricaRepository) {
+        this.metricaRepository = metricaRepository;
+    }
+
+    @Override
+    public String nombre() {
+        return "rotacion_stock";
+    }
+
+    @Override
+    public Set<String> tiposReporte() {
+        return Set.of("INVENTARIO");
+    }
+
+    @Override
+    public boolean esAditiva() {
+        return false;
+    }
+
+    @Override
+    public BigDecimal calcular(LocalDate inicio, LocalDate fin) {
+        long salientes = metricaRepository.unidadesSalientes(inicio, fin);
+        long base = metricaRepository.stockTotal() + salientes;
+        if (base == 0) {
+            return BigDecimal.ZERO;
+        }
+        return BigDecimal.valueOf(salientes).divide(BigDecimal.valueOf(base), 4, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,55 @@
+package com.tuorg.veterinaria.reportes.calculo;
+
+import com.tuorg.veterinaria.reportes.repository.MetricaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Tasa de inasistencia: porcentaje de las citas ya vencidas del período
+ * que siguen programadas, es decir, que nunca se marcaron como realizadas.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Component
+public class CalculadorTasaInasistencia implements CalculadorEstadistica {
+
+    private final MetricaRepository metricaRepository;
+
+    @Autowired
+    public CalculadorTasaInasistencia(MetricaRepository metricaRepository) {
+        this.metricaRepository = metricaRepository;
+    }
+
+    @Override
+    public String nombre() {
+        return "tasa_inasistencia";
+    }
+
+    @Override
+    public Set<String> tiposReporte() {
+        return Set.of("CITAS");
+    }
+
+    @Override
+    public boolean esAditiva() {
+        return false;
+    }
+
+    @Override
+    public BigDecimal calcular(LocalDate inicio, LocalDate fin) {
+        MetricaRepository.Proporcion sinAtender = metricaRepository.citasSinAtender(inicio, fin, LocalDateTime.now());
+        if (sinAtender.total() == 0) {
+            return BigDecimal.ZERO;
+        }
+        return BigDecimal.valueOf(sinAtender.parte())
+                .multiply(BigDecimal.valueOf(100))
+                .divide(BigDecimal.valueOf(sinAtender.total()), 4, RoundingMode.HALF_UP);
+    }
+}
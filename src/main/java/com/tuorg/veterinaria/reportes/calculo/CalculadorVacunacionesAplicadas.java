@@ -0,0 +1,41 @@
+package com.tuorg.veterinaria.reportes.calculo;
+
+import com.tuorg.veterinaria.reportes.repository.MetricaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Vacunas aplicadas en el período.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Component
+public class CalculadorVacunacionesAplicadas implements CalculadorEstadistica {
+
+    private final MetricaRepository metricaRepository;
+
+    @Autowired
+    public CalculadorVacunacionesAplicadas(MetricaRepository metricaRepository) {
+        this.metricaRepository = metricaRepository;
+    }
+
+    @Override
+    public String nombre() {
+        return "vacunaciones_aplicadas";
+    }
+
+    @Override
+    public Set<String> tiposReporte() {
+        return Set.of("VACUNACION");
+    }
+
+    @Override
+    public BigDecimal calcular(LocalDate inicio, LocalDate fin) {
+        return BigDecimal.valueOf(metricaRepository.vacunacionesAplicadas(inicio, fin));
+    }
+}
@@ -0,0 +1,41 @@
+package com.tuorg.veterinaria.reportes.calculo;
+
+import com.tuorg.veterinaria.reportes.repository.MetricaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Volumen de citas: citas del período que no se cancelaron.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Component
+public class CalculadorVolumenCitas implements CalculadorEstadistica {
+
+    private final MetricaRepository metricaRepository;
+
+    @Autowired
+    public CalculadorVolumenCitas(MetricaRepository metricaRepository) {
+        this.metricaRepository = metricaRepository;
+    }
+
+    @Override
+    public String nombre() {
+        return "volumen_citas";
+    }
+
+    @Override
+    public Set<String> tiposReporte() {
+        return Set.of("CITAS");
+    }
+
+    @Override
+    public BigDecimal calcular(LocalDate inicio, LocalDate fin) {
+        return BigDecimal.valueOf(metricaRepository.citasNoCanceladas(inicio, fin));
+    }
+}
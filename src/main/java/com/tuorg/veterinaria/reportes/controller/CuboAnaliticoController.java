@@ -0,0 +1,65 @@
+package com.tuorg.veterinaria.reportes.controller;
+
+import com.tuorg.veterinaria.common.dto.ApiResponse;
+import com.tuorg.veterinaria.reportes.dto.ConsultaCuboRequest;
+import com.tuorg.veterinaria.reportes.dto.ResultadoCuboResponse;
+import com.tuorg.veterinaria.reportes.service.CuboAnaliticoService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST del cubo de análisis de citas, servicios prestados y
+ * facturas.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/reportes/cubo")
+public class CuboAnaliticoController {
+
+    /**
+     * Servicio del cubo de análisis.
+     */
+    private final CuboAnaliticoService cuboAnaliticoService;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param cuboAnaliticoService Servicio del cubo de análisis
+     */
+    @Autowired
+    public CuboAnaliticoController(CuboAnaliticoService cuboAnaliticoService) {
+        this.cuboAnaliticoService = cuboAnaliticoService;
+    }
+
+    /**
+     * Filtra, agrupa y agrega una tabla del cubo.
+     *
+     * @param request Consulta
+     * @return Respuesta con los grupos resultantes
+     */
+    @PostMapping("/consultas")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<ResultadoCuboResponse>> consultar(@Valid @RequestBody ConsultaCuboRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Consulta resuelta exitosamente",
+                cuboAnaliticoService.consultar(request)));
+    }
+
+    /**
+     * Programa la recarga completa del cubo desde la base de datos.
+     *
+     * @return Respuesta 202 mientras la recarga se ejecuta en segundo plano
+     */
+    @PostMapping("/recargar")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Void>> recargar() {
+        cuboAnaliticoService.recargar();
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Recarga del cubo programada"));
+    }
+}
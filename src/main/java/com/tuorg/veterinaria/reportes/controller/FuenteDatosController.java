@@ -0,0 +1,113 @@
+package com.tuorg.veterinaria.reportes.controller;
+
+import com.tuorg.veterinaria.common.dto.ApiResponse;
+import com.tuorg.veterinaria.reportes.dto.FuenteDatosRequest;
+import com.tuorg.veterinaria.reportes.dto.FuenteDatosResponse;
+import com.tuorg.veterinaria.reportes.service.FuenteDatosService;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Controlador REST de las fuentes de datos externas de los reportes.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/reportes/fuentes")
+public class FuenteDatosController {
+
+    /**
+     * Tipo MIME de NDJSON.
+     */
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    /**
+     * Servicio de fuentes de datos.
+     */
+    private final FuenteDatosService fuenteDatosService;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param fuenteDatosService Servicio de fuentes de datos
+     */
+    @Autowired
+    public FuenteDatosController(FuenteDatosService fuenteDatosService) {
+        this.fuenteDatosService = fuenteDatosService;
+    }
+
+    /**
+     * Lista las fuentes de datos registradas.
+     *
+     * @return Respuesta con las fuentes
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<FuenteDatosResponse>>> listar() {
+        return ResponseEntity.ok(ApiResponse.success("Fuentes de datos obtenidas exitosamente",
+                fuenteDatosService.listar()));
+    }
+
+    /**
+     * Registra una fuente de datos.
+     *
+     * @param request Datos de la fuente
+     * @return Respuesta con la fuente registrada
+     */
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<FuenteDatosResponse>> crear(@Valid @RequestBody FuenteDatosRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Fuente de datos registrada exitosamente", fuenteDatosService.crear(request)));
+    }
+
+    /**
+     * Modifica una fuente de datos.
+     *
+     * @param id ID de la fuente
+     * @param request Datos de la fuente
+     * @return Respuesta con la fuente modificada
+     */
+    @PutMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<FuenteDatosResponse>> actualizar(@PathVariable Long id,
+                                                                       @Valid @RequestBody FuenteDatosRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Fuente de datos actualizada exitosamente",
+                fuenteDatosService.actualizar(id, request)));
+    }
+
+    /**
+     * Extrae en paralelo las filas de las fuentes indicadas y las escribe
+     * en NDJSON a medida que llegan.
+     *
+     * @param ids IDs de las fuentes
+     * @param response Respuesta HTTP
+     * @throws IOException Si falla la escritura de la respuesta
+     */
+    @GetMapping("/extraccion")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void extraer(@RequestParam List<Long> ids, HttpServletResponse response) throws IOException {
+        fuenteDatosService.validarExtraccion(ids);
+
+        response.setContentType(APPLICATION_NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("fuentes.ndjson")
+                .build()
+                .toString());
+        fuenteDatosService.exportar(ids, response.getOutputStream());
+    }
+}
@@ -0,0 +1,60 @@
+package com.tuorg.veterinaria.reportes.controller;
+
+import com.tuorg.veterinaria.common.dto.ApiResponse;
+import com.tuorg.veterinaria.reportes.dto.IndicadorResponse;
+import com.tuorg.veterinaria.reportes.service.IndicadorService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controlador REST para la consulta de indicadores (KPIs).
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/reportes/indicadores")
+public class IndicadorController {
+
+    /**
+     * Servicio de indicadores.
+     */
+    private final IndicadorService indicadorService;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param indicadorService Servicio de indicadores
+     */
+    @Autowired
+    public IndicadorController(IndicadorService indicadorService) {
+        this.indicadorService = indicadorService;
+    }
+
+    /**
+     * Lista los indicadores con su valor actual y su tendencia.
+     *
+     * @return Respuesta con los indicadores
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<IndicadorResponse>>> listar() {
+        return ResponseEntity.ok(ApiResponse.success("Indicadores obtenidos exitosamente", indicadorService.listar()));
+    }
+
+    /**
+     * Recalcula la serie de un indicador desde el historial de estadísticas.
+     *
+     * @param id ID del indicador
+     * @return Respuesta con el indicador recalculado
+     */
+    @PostMapping("/{id}/reconstruir")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<IndicadorResponse>> reconstruir(@PathVariable Long id) {
+        return ResponseEntity.ok(ApiResponse.success("Indicador recalculado exitosamente",
+                indicadorService.reconstruir(id)));
+    }
+}
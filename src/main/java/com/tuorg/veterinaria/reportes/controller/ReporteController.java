@@ -2,13 +2,22 @@ package com.tuorg.veterinaria.reportes.controller;
 
 import com.tuorg.veterinaria.common.dto.ApiResponse;
 import com.tuorg.veterinaria.reportes.dto.ReporteRequest;
-import com.tuorg.veterinaria.reportes.dto.ReporteResponse;
+import com.tuorg.veterinaria.reportes.dto.TrabajoReporteResponse;
+import com.tuorg.veterinaria.reportes.model.EstadoTrabajoReporte;
 import com.tuorg.veterinaria.reportes.service.ReporteService;
+import com.tuorg.veterinaria.reportes.service.TrabajoReporteService;
+import com.tuorg.veterinaria.reportes.service.TrabajoReporteService.ResultadoTrabajo;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Controlador REST para la gestión de reportes (Facade pattern).
@@ -28,27 +37,82 @@ public class ReporteController {
      */
     private final ReporteService reporteService;
 
+    /**
+     * Servicio de la cola de generación de reportes.
+     */
+    private final TrabajoReporteService trabajoReporteService;
+
     /**
      * Constructor con inyección de dependencias.
      * 
      * @param reporteService Servicio de reportes
+     * @param trabajoReporteService Servicio de la cola de reportes
      */
     @Autowired
-    public ReporteController(ReporteService reporteService) {
+    public ReporteController(ReporteService reporteService, TrabajoReporteService trabajoReporteService) {
         this.reporteService = reporteService;
+        this.trabajoReporteService = trabajoReporteService;
     }
 
     /**
-     * Genera un nuevo reporte (Facade pattern).
+     * Solicita la generación de un reporte (Facade pattern).
+     *
+     * El reporte se genera en segundo plano: la respuesta trae el trabajo
+     * y su URL de estado. Si un reporte idéntico está en curso o ya se
+     * generó hace poco, se devuelve ese trabajo.
      * 
-     * @param requestBody Cuerpo con los datos del reporte
-     * @return Respuesta con el reporte generado
+     * @param request Cuerpo con los datos del reporte
+     * @return Respuesta con el trabajo que genera el reporte
      */
     @PostMapping("/generar")
-    public ResponseEntity<ApiResponse<ReporteResponse>> generar(@RequestBody @Valid ReporteRequest request) {
-        ReporteResponse reporte = reporteService.generar(request);
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(ApiResponse.success("Reporte generado exitosamente", reporte));
+    public ResponseEntity<ApiResponse<TrabajoReporteResponse>> generar(@RequestBody @Valid ReporteRequest request) {
+        TrabajoReporteResponse trabajo = trabajoReporteService.solicitar(request);
+        String mensaje = trabajo.getEstado() == EstadoTrabajoReporte.COMPLETADO
+                ? "Reporte disponible"
+                : "Reporte en cola de generación";
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/reportes/trabajos/{id}")
+                        .buildAndExpand(trabajo.getId())
+                        .toUri())
+                .body(ApiResponse.success(mensaje, trabajo));
+    }
+
+    /**
+     * Obtiene el estado de un trabajo de generación.
+     *
+     * @param id ID del trabajo
+     * @return Respuesta con el estado del trabajo
+     */
+    @GetMapping("/trabajos/{id}")
+    public ResponseEntity<ApiResponse<TrabajoReporteResponse>> obtenerTrabajo(@PathVariable Long id) {
+        TrabajoReporteResponse trabajo = trabajoReporteService.obtener(id);
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (trabajo.getEstado() == EstadoTrabajoReporte.PENDIENTE
+                || trabajo.getEstado() == EstadoTrabajoReporte.EN_PROCESO) {
+            respuesta.header(HttpHeaders.RETRY_AFTER, "2");
+        }
+        return respuesta.body(ApiResponse.success("Estado del reporte obtenido exitosamente", trabajo));
+    }
+
+    /**
+     * Descarga el resultado de un trabajo completado.
+     *
+     * @param id ID del trabajo
+     * @param response Respuesta HTTP donde se escribe el archivo
+     * @throws IOException Si falla la escritura de la respuesta
+     */
+    @GetMapping("/trabajos/{id}/resultado")
+    public void descargarResultado(@PathVariable Long id, HttpServletResponse response) throws IOException {
+        ResultadoTrabajo resultado = trabajoReporteService.obtenerResultado(id);
+        response.setContentType(resultado.tipoContenido());
+        response.setContentLengthLong(resultado.tamanoBytes());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(resultado.nombreArchivo(), StandardCharsets.UTF_8)
+                .build()
+                .toString());
+        trabajoReporteService.transferirResultado(resultado, response.getOutputStream());
     }
 
     /**
@@ -68,17 +132,25 @@ public class ReporteController {
 
     /**
      * Exporta un reporte como Excel.
-     * 
+     *
+     * El libro se escribe directamente sobre la respuesta a medida que se
+     * leen las filas, sin armarlo en memoria.
+     *
      * @param id ID del reporte
-     * @return Respuesta con el archivo Excel en bytes
+     * @param response Respuesta HTTP donde se escribe el archivo
+     * @throws IOException Si falla la escritura de la respuesta
      */
     @GetMapping("/{id}/exportar-excel")
-    public ResponseEntity<byte[]> exportarExcel(@PathVariable Long id) {
-        byte[] excel = reporteService.exportarExcel(id);
-        return ResponseEntity.ok()
-                .header("Content-Type", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
-                .header("Content-Disposition", "attachment; filename=reporte_" + id + ".xlsx")
-                .body(excel);
+    public void exportarExcel(@PathVariable Long id, HttpServletResponse response) throws IOException {
+        // Se valida antes de fijar las cabeceras para que un error aún pueda responderse como JSON
+        String archivo = reporteService.nombreArchivo(id, "xlsx");
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(archivo, StandardCharsets.UTF_8)
+                .build()
+                .toString());
+        reporteService.exportarExcel(id, response.getOutputStream());
     }
 }
 
@@ -0,0 +1,39 @@
+package com.tuorg.veterinaria.reportes.dto;
+
+import com.tuorg.veterinaria.reportes.analitica.TablaCubo;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO con una consulta sobre el cubo de análisis.
+ */
+@Data
+@Schema(name = "ConsultaCuboRequest", description = "Filtros, agrupación y medida de una consulta al cubo de análisis")
+public class ConsultaCuboRequest {
+
+    @NotNull(message = "La tabla es obligatoria")
+    @Schema(description = "Tabla de hechos consultada", example = "SERVICIOS", requiredMode = Schema.RequiredMode.REQUIRED)
+    private TablaCubo tabla;
+
+    @Schema(description = "Primer día incluido", example = "2025-01-01")
+    private LocalDate desde;
+
+    @Schema(description = "Último día incluido", example = "2025-12-31")
+    private LocalDate hasta;
+
+    @Schema(description = "Valores admitidos por dimensión", example = "{\"especie\":[\"perro\"]}")
+    private Map<String, List<String>> filtros;
+
+    @Size(max = 4, message = "No se puede agrupar por más de 4 dimensiones")
+    @Schema(description = "Dimensiones de agrupación, incluidas anio, mes, dia y dia_semana", example = "[\"mes\",\"veterinario\"]")
+    private List<String> agrupar;
+
+    @Schema(description = "Medida a sumar; si se omite solo se cuentan filas", example = "importe")
+    private String medida;
+}
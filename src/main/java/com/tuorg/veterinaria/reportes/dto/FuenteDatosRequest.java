@@ -0,0 +1,28 @@
+package com.tuorg.veterinaria.reportes.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * DTO para registrar o modificar una fuente de datos externa.
+ */
+@Data
+@Schema(name = "FuenteDatosRequest", description = "Datos de una fuente de datos externa para los reportes")
+public class FuenteDatosRequest {
+
+    @NotBlank(message = "El nombre de la fuente es obligatorio")
+    @Size(max = 120, message = "El nombre de la fuente no puede superar 120 caracteres")
+    @Schema(description = "Nombre único de la fuente", example = "Laboratorio Central", requiredMode = Schema.RequiredMode.REQUIRED)
+    private String nombre;
+
+    @NotBlank(message = "El tipo de la fuente es obligatorio")
+    @Schema(description = "Tipo de conector (JDBC, CSV, JSON)", example = "CSV", requiredMode = Schema.RequiredMode.REQUIRED)
+    private String tipo;
+
+    @Schema(description = "Parámetros del conector", example = "{\"directorio\":\"laboratorio\",\"patron\":\"resultados-*.csv\"}")
+    private Map<String, Object> configuracion;
+}
@@ -0,0 +1,31 @@
+package com.tuorg.veterinaria.reportes.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * DTO de salida de una fuente de datos externa.
+ */
+@Data
+@Builder
+@Schema(name = "FuenteDatosResponse", description = "Fuente de datos externa registrada")
+public class FuenteDatosResponse {
+
+    @Schema(description = "Identificador de la fuente", example = "2")
+    private Long id;
+
+    @Schema(description = "Nombre de la fuente", example = "Laboratorio Central")
+    private String nombre;
+
+    @Schema(description = "Tipo de conector", example = "CSV")
+    private String tipo;
+
+    @Schema(description = "Parámetros del conector")
+    private Map<String, Object> configuracion;
+
+    @Schema(description = "Si hay un conector para el tipo de la fuente", example = "true")
+    private boolean soportada;
+}
@@ -0,0 +1,54 @@
+package com.tuorg.veterinaria.reportes.dto;
+
+import com.tuorg.veterinaria.reportes.model.TendenciaIndicador;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO de salida con el valor y la tendencia de un indicador.
+ */
+@Data
+@Builder
+@Schema(name = "IndicadorResponse", description = "Indicador con su valor actual y la tendencia de su serie mensual")
+public class IndicadorResponse {
+
+    @Schema(description = "Identificador del indicador", example = "2")
+    private Long id;
+
+    @Schema(description = "Nombre del indicador", example = "IngresosMensuales")
+    private String nombre;
+
+    @Schema(description = "Descripción del indicador", example = "Ingresos cobrados por mes")
+    private String descripcion;
+
+    @Schema(description = "Estadística que alimenta el indicador", example = "ingresos")
+    private String estadistica;
+
+    @Schema(description = "Último valor registrado", example = "15200.0000")
+    private BigDecimal valorActual;
+
+    @Schema(description = "Media móvil exponencial", example = "14850.5")
+    private Double ewma;
+
+    @Schema(description = "Media de la ventana reciente", example = "14320.7")
+    private double media;
+
+    @Schema(description = "Desviación estándar de la ventana reciente", example = "980.2")
+    private double desviacion;
+
+    @Schema(description = "Pendiente por mes de la ventana reciente", example = "310.4")
+    private double pendiente;
+
+    @Schema(description = "Tendencia de la serie", example = "CRECIENTE")
+    private TendenciaIndicador tendencia;
+
+    @Schema(description = "Meses incorporados a la serie", example = "18")
+    private long observaciones;
+
+    @Schema(description = "Fin del último mes incorporado", example = "2025-10-31")
+    private LocalDate ultimoPeriodoFin;
+}
@@ -1,5 +1,6 @@
 package com.tuorg.veterinaria.reportes.dto;
 
+import com.tuorg.veterinaria.reportes.model.FormatoReporte;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -26,8 +27,11 @@ public class ReporteRequest {
     @Schema(description = "Identificador del usuario que genera el reporte", example = "3")
     private Long generadoPor;
 
-    @Schema(description = "Parámetros utilizados para la generación del reporte", example = "{\"fechaInicio\":\"2025-11-01\",\"fechaFin\":\"2025-11-10\"}")
+    @Schema(description = "Parámetros utilizados para la generación del reporte; fuentes añade las filas de esas fuentes de datos", example = "{\"fechaInicio\":\"2025-11-01\",\"fechaFin\":\"2025-11-10\",\"fuentes\":[1]}")
     private Map<String, Object> parametros;
+
+    @Schema(description = "Formato del resultado (por defecto JSON)", example = "XLSX")
+    private FormatoReporte formato;
 }
 
 
@@ -0,0 +1,47 @@
+package com.tuorg.veterinaria.reportes.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO de salida con los grupos de una consulta al cubo de análisis.
+ */
+@Data
+@Builder
+@Schema(name = "ResultadoCuboResponse", description = "Grupos resultantes de una consulta al cubo de análisis")
+public class ResultadoCuboResponse {
+
+    @Schema(description = "Dimensiones de agrupación, en el orden de las claves", example = "[\"mes\",\"veterinario\"]")
+    private List<String> dimensiones;
+
+    @Schema(description = "Grupos ordenados por sus claves")
+    private List<Grupo> grupos;
+
+    @Schema(description = "Filas recorridas", example = "1250000")
+    private long filasEscaneadas;
+
+    @Schema(description = "Duración de la consulta en milisegundos", example = "18")
+    private long duracionMs;
+
+    /**
+     * Grupo del resultado.
+     */
+    @Data
+    @Builder
+    @Schema(name = "GrupoCubo", description = "Valores de un grupo del cubo")
+    public static class Grupo {
+
+        @Schema(description = "Valores de las dimensiones de agrupación", example = "[\"3\",\"Ana Pérez\"]")
+        private List<String> claves;
+
+        @Schema(description = "Filas del grupo", example = "412")
+        private long filas;
+
+        @Schema(description = "Suma de la medida, si se pidió", example = "18250.40")
+        private BigDecimal suma;
+    }
+}
@@ -0,0 +1,59 @@
+package com.tuorg.veterinaria.reportes.dto;
+
+import com.tuorg.veterinaria.reportes.model.EstadoTrabajoReporte;
+import com.tuorg.veterinaria.reportes.model.FormatoReporte;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * DTO de salida con el estado de un trabajo de generación de reportes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "TrabajoReporteResponse", description = "Estado de un reporte solicitado para generarse en segundo plano")
+public class TrabajoReporteResponse {
+
+    @Schema(description = "Identificador del trabajo", example = "42")
+    private Long id;
+
+    @Schema(description = "Nombre del reporte", example = "Resumen Diario de Consultas")
+    private String nombre;
+
+    @Schema(description = "Tipo de reporte", example = "DIARIO")
+    private String tipo;
+
+    @Schema(description = "Formato del resultado", example = "XLSX")
+    private FormatoReporte formato;
+
+    @Schema(description = "Parámetros normalizados con los que se genera", example = "{\"fechaInicio\":\"2025-11-01\",\"fechaFin\":\"2025-11-10\"}")
+    private Map<String, Object> parametros;
+
+    @Schema(description = "Estado del trabajo", example = "PENDIENTE")
+    private EstadoTrabajoReporte estado;
+
+    @Schema(description = "Indica si la solicitud se atendió con un trabajo idéntico ya existente", example = "false")
+    private boolean reutilizado;
+
+    @Schema(description = "Identificador del reporte generado", example = "25")
+    private Long reporteId;
+
+    @Schema(description = "Motivo del fallo, si lo hubo")
+    private String error;
+
+    @Schema(description = "Fecha y hora de la solicitud", example = "2025-11-10T15:30:00")
+    private LocalDateTime fechaSolicitud;
+
+    @Schema(description = "Fecha y hora en que terminó la generación", example = "2025-11-10T15:30:12")
+    private LocalDateTime fechaFin;
+
+    @Schema(description = "Hasta cuándo se reutiliza el resultado", example = "2025-11-10T16:30:12")
+    private LocalDateTime expiraEn;
+}
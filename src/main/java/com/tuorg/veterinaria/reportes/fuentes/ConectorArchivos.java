@@ -0,0 +1,100 @@
+package com.tuorg.veterinaria.reportes.fuentes;
+
+import com.tuorg.veterinaria.common.exception.BusinessException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Base de los conectores que leen archivos del servidor.
+ *
+ * Las rutas de la configuración se resuelven contra un directorio base y
+ * no pueden salir de él. La huella de cada archivo es su SHA-256; se
+ * recalcula solo si cambian su tamaño o su fecha de modificación.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public abstract class ConectorArchivos implements ConectorFuente {
+
+    /**
+     * Tamaño, fecha de modificación y SHA-256 de un archivo ya leído.
+     */
+    private record Firma(long tamano, long modificado, String sha256) {
+    }
+
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    private final Path directorioBase;
+
+    private final Map<Path, Firma> firmas = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param directorioBase Directorio que contiene las fuentes de archivos
+     */
+    protected ConectorArchivos(String directorioBase) {
+        this.directorioBase = Paths.get(directorioBase).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Resuelve una ruta de la configuración dentro del directorio base.
+     *
+     * @param ruta Ruta relativa al directorio base
+     * @return Ruta absoluta
+     * @throws BusinessException Si la ruta sale del directorio base
+     */
+    protected Path resolver(String ruta) {
+        Path resuelta = directorioBase.resolve(ruta).normalize();
+        if (!resuelta.startsWith(directorioBase)) {
+            throw new BusinessException("La ruta de la fuente debe estar dentro del directorio de fuentes");
+        }
+        return resuelta;
+    }
+
+    /**
+     * Parte correspondiente a un archivo, con su SHA-256 como huella.
+     *
+     * @param archivo Archivo
+     * @return Parte del archivo
+     * @throws IOException Si no se puede leer el archivo
+     */
+    protected ParteFuente parte(Path archivo) throws IOException {
+        BasicFileAttributes atributos = Files.readAttributes(archivo, BasicFileAttributes.class);
+        long tamano = atributos.size();
+        long modificado = atributos.lastModifiedTime().toMillis();
+        Firma firma = firmas.get(archivo);
+        if (firma == null || firma.tamano() != tamano || firma.modificado() != modificado) {
+            firma = new Firma(tamano, modificado, sha256(archivo));
+            firmas.put(archivo, firma);
+        }
+        return new ParteFuente(directorioBase.relativize(archivo).toString(), firma.sha256());
+    }
+
+    private static String sha256(Path archivo) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+        try (InputStream entrada = new DigestInputStream(Files.newInputStream(archivo), digest)) {
+            byte[] buffer = new byte[TAMANO_BUFFER];
+            while (entrada.read(buffer) != -1) {
+                // Solo se recorre para alimentar el digest
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
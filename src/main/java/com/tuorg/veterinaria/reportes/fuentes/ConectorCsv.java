@@ -0,0 +1,105 @@
+package com.tuorg.veterinaria.reportes.fuentes;
+
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.gestionpacientes.model.FormatoImportacion;
+import com.tuorg.veterinaria.gestionpacientes.service.LectorFilasImportacion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Conector de directorios de archivos CSV, como los que deja el
+ * laboratorio externo.
+ *
+ * Configuración: {@code directorio} (relativo al directorio de fuentes) y
+ * {@code patron} (glob, por defecto {@code *.csv}). Cada archivo es una
+ * parte; la primera fila es la cabecera. Las filas mal formadas se omiten.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Component
+public class ConectorCsv extends ConectorArchivos {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConectorCsv.class);
+
+    private static final String PATRON_POR_DEFECTO = "*.csv";
+
+    /**
+     * Constructor.
+     *
+     * @param directorioBase Directorio que contiene las fuentes de archivos
+     */
+    @Autowired
+    public ConectorCsv(@Value("${app.fuentes.directorio-base:./fuentes}") String directorioBase) {
+        super(directorioBase);
+    }
+
+    @Override
+    public String tipo() {
+        return "CSV";
+    }
+
+    @Override
+    public void validar(Map<String, Object> configuracion) {
+        resolver(ConectorFuente.texto(configuracion, "directorio", true));
+    }
+
+    @Override
+    public List<ParteFuente> partes(Map<String, Object> configuracion) throws IOException {
+        Path directorio = resolver(ConectorFuente.texto(configuracion, "directorio", true));
+        if (!Files.isDirectory(directorio)) {
+            throw new BusinessException("No existe el directorio de la fuente: " + directorio.getFileName());
+        }
+        String patron = ConectorFuente.texto(configuracion, "patron", false);
+        List<Path> archivos = new ArrayList<>();
+        try (DirectoryStream<Path> contenido = Files.newDirectoryStream(directorio,
+                patron != null ? patron : PATRON_POR_DEFECTO)) {
+            for (Path archivo : contenido) {
+                if (Files.isRegularFile(archivo)) {
+                    archivos.add(archivo);
+                }
+            }
+        }
+        archivos.sort(null);
+        List<ParteFuente> partes = new ArrayList<>(archivos.size());
+        for (Path archivo : archivos) {
+            partes.add(parte(archivo));
+        }
+        return partes;
+    }
+
+    @Override
+    public void leer(Map<String, Object> configuracion, ParteFuente parte, Consumer<Map<String, Object>> destino)
+            throws IOException {
+        long omitidas = 0;
+        try (LectorFilasImportacion lector = new LectorFilasImportacion(
+                Files.newBufferedReader(resolver(parte.clave()), StandardCharsets.UTF_8),
+                FormatoImportacion.CSV, null)) {
+            LectorFilasImportacion.Fila fila;
+            while ((fila = lector.siguiente()) != null) {
+                if (fila.error() != null) {
+                    omitidas++;
+                    continue;
+                }
+                destino.accept(new HashMap<String, Object>(fila.valores()));
+            }
+        }
+        if (omitidas > 0) {
+            logger.warn("Se omitieron {} filas mal formadas de {}", omitidas, parte.clave());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.tuorg.veterinaria.reportes.fuentes;
+
+import com.tuorg.veterinaria.common.exception.BusinessException;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Conector de un tipo de fuente de datos externa.
+ *
+ * Cada implementación registrada como bean atiende las fuentes cuyo tipo
+ * coincide con {@link #tipo()}. Una fuente se divide en partes con su
+ * huella: el motor de extracción solo vuelve a leer las partes cuya huella
+ * cambió desde la última lectura.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public interface ConectorFuente {
+
+    /**
+     * Tipo de fuente que atiende, en mayúsculas.
+     *
+     * @return Tipo de fuente
+     */
+    String tipo();
+
+    /**
+     * Comprueba que la configuración tenga los parámetros del conector.
+     *
+     * @param configuracion Configuración de la fuente
+     * @throws BusinessException Si falta un parámetro o no es válido
+     */
+    void validar(Map<String, Object> configuracion);
+
+    /**
+     * Enumera las partes de la fuente con su huella actual.
+     *
+     * @param configuracion Configuración de la fuente
+     * @return Partes a leer
+     * @throws IOException Si no se puede acceder a la fuente
+     */
+    List<ParteFuente> partes(Map<String, Object> configuracion) throws IOException;
+
+    /**
+     * Lee en streaming las filas de una parte.
+     *
+     * @param configuracion Configuración de la fuente
+     * @param parte Parte a leer
+     * @param destino Receptor de cada fila (columna → valor)
+     * @throws IOException Si falla la lectura
+     */
+    void leer(Map<String, Object> configuracion, ParteFuente parte, Consumer<Map<String, Object>> destino)
+            throws IOException;
+
+    /**
+     * Obtiene un parámetro de texto de la configuración.
+     *
+     * @param configuracion Configuración de la fuente
+     * @param clave Nombre del parámetro
+     * @param obligatorio Si debe estar presente
+     * @return Valor sin espacios iniciales ni finales, o null si falta y no es obligatorio
+     * @throws BusinessException Si es obligatorio y falta
+     */
+    static String texto(Map<String, Object> configuracion, String clave, boolean obligatorio) {
+        Object valor = configuracion != null ? configuracion.get(clave) : null;
+        if (valor == null || valor.toString().isBlank()) {
+            if (obligatorio) {
+                throw new BusinessException("La configuración de la fuente debe incluir '" + clave + "'");
+            }
+            return null;
+        }
+        return valor.toString().trim();
+    }
+}
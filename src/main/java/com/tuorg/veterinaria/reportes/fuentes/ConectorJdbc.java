@@ -0,0 +1,190 @@
+package com.tuorg.veterinaria.reportes.fuentes;
+
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Conector de bases de datos externas por JDBC, como la contabilidad
+ * heredada.
+ *
+ * Configuración: {@code url}, {@code credencial}, {@code consulta} y,
+ * opcionalmente, {@code consultaVersion}: una consulta de un solo valor (por
+ * ejemplo la última fecha de modificación) que sirve de huella. Sin ella la
+ * consulta se ejecuta siempre. La conexión se abre en solo lectura y el
+ * resultado se recorre con cursor.
+ *
+ * Quien da de alta la fuente no elige a qué se conecta el servidor ni con
+ * qué secretos: la URL debe empezar por uno de los drivers permitidos
+ * ({@code app.fuentes.jdbc.drivers}), apuntar a uno de los servidores
+ * permitidos ({@code app.fuentes.jdbc.hosts}) y no llevar propiedades del
+ * driver; la {@code credencial} es el alias de un usuario y contraseña
+ * definidos en {@code app.fuentes.jdbc.credenciales.<alias>}. Todo se
+ * comprueba al validar y otra vez al conectar.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Component
+public class ConectorJdbc implements ConectorFuente {
+
+    private static final int TAMANO_FETCH = 1000;
+
+    private static final String PREFIJO_CREDENCIALES = "app.fuentes.jdbc.credenciales.";
+
+    /**
+     * {@code //servidor[:puerto]/base}, sin parámetros, varios servidores ni
+     * nada más tras el nombre de la base.
+     */
+    private static final Pattern DESTINO =
+            Pattern.compile("//(\\[[0-9A-Fa-f:]+\\]|[A-Za-z0-9.-]+)(?::(\\d{1,5}))?/[A-Za-z0-9_.-]+");
+
+    private static final Pattern ALIAS = Pattern.compile("[a-z0-9][a-z0-9-]*");
+
+    private final Environment environment;
+    private final List<String> drivers;
+    private final Set<String> hosts;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param environment Entorno del que se leen las credenciales por alias
+     * @param drivers Prefijos de URL admitidos, como {@code jdbc:postgresql:}
+     * @param hosts Servidores admitidos, como {@code contabilidad.interna:5432}
+     */
+    @Autowired
+    public ConectorJdbc(Environment environment,
+                        @Value("${app.fuentes.jdbc.drivers:jdbc:postgresql:}") List<String> drivers,
+                        @Value("${app.fuentes.jdbc.hosts:}") List<String> hosts) {
+        this.environment = environment;
+        this.drivers = drivers.stream().map(String::trim).filter(driver -> !driver.isEmpty()).toList();
+        this.hosts = hosts.stream().map(host -> host.trim().toLowerCase(Locale.ROOT))
+                .filter(host -> !host.isEmpty()).collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public String tipo() {
+        return "JDBC";
+    }
+
+    @Override
+    public void validar(Map<String, Object> configuracion) {
+        validarUrl(ConectorFuente.texto(configuracion, "url", true));
+        credencial(ConectorFuente.texto(configuracion, "credencial", true));
+        ConectorFuente.texto(configuracion, "consulta", true);
+    }
+
+    @Override
+    public List<ParteFuente> partes(Map<String, Object> configuracion) throws IOException {
+        String consultaVersion = ConectorFuente.texto(configuracion, "consultaVersion", false);
+        if (consultaVersion == null) {
+            return List.of(new ParteFuente("consulta", null));
+        }
+        try (Connection conexion = conectar(configuracion);
+             PreparedStatement ps = conexion.prepareStatement(consultaVersion);
+             ResultSet rs = ps.executeQuery()) {
+            String version = rs.next() ? rs.getString(1) : null;
+            return List.of(new ParteFuente("consulta", version));
+        } catch (SQLException e) {
+            throw new IOException("No se pudo consultar la versión de la fuente: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void leer(Map<String, Object> configuracion, ParteFuente parte, Consumer<Map<String, Object>> destino)
+            throws IOException {
+        try (Connection conexion = conectar(configuracion)) {
+            // Sin autocommit para que el driver use cursor con el fetch size
+            conexion.setAutoCommit(false);
+            try (PreparedStatement ps = conexion.prepareStatement(ConectorFuente.texto(configuracion, "consulta", true))) {
+                ps.setFetchSize(TAMANO_FETCH);
+                try (ResultSet rs = ps.executeQuery()) {
+                    ResultSetMetaData metadatos = rs.getMetaData();
+                    int columnas = metadatos.getColumnCount();
+                    String[] nombres = new String[columnas];
+                    for (int i = 0; i < columnas; i++) {
+                        nombres[i] = metadatos.getColumnLabel(i + 1).toLowerCase(Locale.ROOT);
+                    }
+                    while (rs.next()) {
+                        Map<String, Object> fila = new HashMap<>();
+                        for (int i = 0; i < columnas; i++) {
+                            Object valor = rs.getObject(i + 1);
+                            if (valor != null) {
+                                fila.put(nombres[i], valor);
+                            }
+                        }
+                        destino.accept(fila);
+                    }
+                }
+            } finally {
+                conexion.rollback();
+            }
+        } catch (SQLException e) {
+            throw new IOException("Error al leer la fuente JDBC: " + e.getMessage(), e);
+        }
+    }
+
+    private Connection conectar(Map<String, Object> configuracion) throws SQLException {
+        // Una fuente guardada antes de restringir los destinos no se salta la comprobación
+        String url = ConectorFuente.texto(configuracion, "url", true);
+        validarUrl(url);
+        Connection conexion = DriverManager.getConnection(url,
+                credencial(ConectorFuente.texto(configuracion, "credencial", true)));
+        conexion.setReadOnly(true);
+        return conexion;
+    }
+
+    private void validarUrl(String url) {
+        String driver = drivers.stream().filter(url::startsWith).findFirst()
+                .orElseThrow(() -> new BusinessException("Driver JDBC no permitido; admitidos: " + drivers));
+        Matcher destino = DESTINO.matcher(url.substring(driver.length()));
+        if (!destino.matches()) {
+            throw new BusinessException(
+                    "La URL de la fuente debe tener la forma " + driver + "//servidor[:puerto]/base, sin parámetros");
+        }
+        // Un servidor sin puerto en la lista admite cualquier puerto
+        String host = destino.group(1).toLowerCase(Locale.ROOT);
+        String puerto = destino.group(2);
+        if (!hosts.contains(host) && (puerto == null || !hosts.contains(host + ":" + puerto))) {
+            throw new BusinessException("Servidor no permitido para fuentes JDBC: " + host);
+        }
+    }
+
+    /**
+     * Usuario y contraseña del alias, definidos en la configuración de la
+     * aplicación y no en la base de datos.
+     */
+    private Properties credencial(String alias) {
+        if (!ALIAS.matcher(alias).matches()) {
+            throw new BusinessException("Alias de credencial no válido: " + alias);
+        }
+        String usuario = environment.getProperty(PREFIJO_CREDENCIALES + alias + ".usuario");
+        if (usuario == null) {
+            throw new BusinessException("Credencial no configurada: " + alias);
+        }
+        Properties propiedades = new Properties();
+        propiedades.setProperty("user", usuario);
+        propiedades.setProperty("password", environment.getProperty(PREFIJO_CREDENCIALES + alias + ".clave", ""));
+        return propiedades;
+    }
+}
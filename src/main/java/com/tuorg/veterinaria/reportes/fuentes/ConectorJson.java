@@ -0,0 +1,77 @@
+package com.tuorg.veterinaria.reportes.fuentes;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Conector de archivos JSON.
+ *
+ * Configuración: {@code archivo} (relativo al directorio de fuentes). El
+ * archivo puede ser un array de objetos o una secuencia de objetos (NDJSON)
+ * y se lee objeto a objeto, sin cargarlo completo.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Component
+public class ConectorJson extends ConectorArchivos {
+
+    private final ObjectReader lectorFilas;
+
+    /**
+     * Constructor.
+     *
+     * @param directorioBase Directorio que contiene las fuentes de archivos
+     * @param objectMapper Mapper JSON
+     */
+    @Autowired
+    public ConectorJson(@Value("${app.fuentes.directorio-base:./fuentes}") String directorioBase,
+                        ObjectMapper objectMapper) {
+        super(directorioBase);
+        this.lectorFilas = objectMapper.readerFor(new TypeReference<Map<String, Object>>() { });
+    }
+
+    @Override
+    public String tipo() {
+        return "JSON";
+    }
+
+    @Override
+    public void validar(Map<String, Object> configuracion) {
+        resolver(ConectorFuente.texto(configuracion, "archivo", true));
+    }
+
+    @Override
+    public List<ParteFuente> partes(Map<String, Object> configuracion) throws IOException {
+        Path archivo = resolver(ConectorFuente.texto(configuracion, "archivo", true));
+        if (!Files.isRegularFile(archivo)) {
+            throw new BusinessException("No existe el archivo de la fuente: " + archivo.getFileName());
+        }
+        return List.of(parte(archivo));
+    }
+
+    @Override
+    public void leer(Map<String, Object> configuracion, ParteFuente parte, Consumer<Map<String, Object>> destino)
+            throws IOException {
+        try (InputStream entrada = Files.newInputStream(resolver(parte.clave()));
+             MappingIterator<Map<String, Object>> filas = lectorFilas.readValues(entrada)) {
+            while (filas.hasNextValue()) {
+                destino.accept(filas.nextValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.tuorg.veterinaria.reportes.fuentes;
+
+import java.util.Map;
+
+/**
+ * Fila extraída de una fuente de datos.
+ *
+ * @param fuente Nombre de la fuente
+ * @param valores Valores por columna
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public record FilaFuente(String fuente, Map<String, Object> valores) {
+}
@@ -0,0 +1,14 @@
+package com.tuorg.veterinaria.reportes.fuentes;
+
+/**
+ * Unidad de lectura de una fuente: un archivo de un directorio o una
+ * consulta completa.
+ *
+ * @param clave Identificador de la parte dentro de la fuente
+ * @param huella Suma de verificación del contenido; null si no se puede
+ *               calcular y la parte debe leerse siempre
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public record ParteFuente(String clave, String huella) {
+}
@@ -0,0 +1,103 @@
+package com.tuorg.veterinaria.reportes.listener;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuorg.veterinaria.common.event.TipoEntidad;
+import com.tuorg.veterinaria.common.util.OyentePostgres;
+import com.tuorg.veterinaria.reportes.service.CuboAnaliticoService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lleva al cubo de análisis de este nodo los cambios hechos desde cualquier
+ * otro, por SQL directo o por una restauración.
+ *
+ * Escucha el canal {@value #CANAL} (ver {@link OyentePostgres}), en el que los
+ * triggers de las tablas de origen del cubo anuncian los IDs cambiados al
+ * confirmar cada transacción, y se los pasa a {@link CuboAnaliticoService}.
+ * Cada suscripción recarga el cubo completo.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Component
+public class CuboAnaliticoListener extends OyentePostgres {
+
+    private static final Logger logger = LoggerFactory.getLogger(CuboAnaliticoListener.class);
+
+    static final String CANAL = "cubo_analitico";
+
+    private final CuboAnaliticoService cuboAnaliticoService;
+    private final ObjectMapper objectMapper;
+    private final boolean habilitado;
+
+    @Autowired
+    public CuboAnaliticoListener(CuboAnaliticoService cuboAnaliticoService,
+                                 DataSourceProperties dataSourceProperties,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.cubo.notificaciones:true}") boolean habilitado,
+                                 @Value("${app.cubo.verificacion:PT1M}") Duration verificacion,
+                                 @Value("${app.cubo.reintento:PT5S}") Duration reintento) {
+        super(CANAL, "cubo-listener", dataSourceProperties, verificacion, reintento);
+        this.cuboAnaliticoService = cuboAnaliticoService;
+        this.objectMapper = objectMapper;
+        this.habilitado = habilitado;
+    }
+
+    /**
+     * Arranca la escucha cuando la aplicación está lista. Sin notificaciones
+     * el cubo solo se carga una vez.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (habilitado) {
+            iniciarEscucha();
+        } else {
+            cuboAnaliticoService.recargar();
+        }
+    }
+
+    @Override
+    protected void suscrito() {
+        cuboAnaliticoService.recargar();
+    }
+
+    @Override
+    protected void verificar() {
+        cuboAnaliticoService.reintentarPendientes();
+    }
+
+    /**
+     * Aplica una notificación de los triggers del cubo.
+     *
+     * @param payload JSON con el tipo de cambio y, salvo en las recargas, los IDs
+     */
+    @Override
+    protected void procesar(String payload) {
+        try {
+            JsonNode cambio = objectMapper.readTree(payload);
+            String tipo = cambio.path("tipo").asText();
+            if ("RECARGA".equals(tipo)) {
+                cuboAnaliticoService.recargar();
+                return;
+            }
+            List<Long> ids = new ArrayList<>();
+            cambio.path("ids").forEach(id -> ids.add(id.asLong()));
+            cuboAnaliticoService.aplicarCambios(TipoEntidad.valueOf(tipo), ids);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("Notificación del cubo ilegible; se recarga: {}", payload);
+            cuboAnaliticoService.recargar();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.tuorg.veterinaria.reportes.model;
+
+/**
+ * Estados de un trabajo de generación de reportes.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public enum EstadoTrabajoReporte {
+    /**
+     * En cola, a la espera de un hilo libre.
+     */
+    PENDIENTE,
+    /**
+     * Un hilo lo está generando.
+     */
+    EN_PROCESO,
+    /**
+     * Resultado disponible para descargar.
+     */
+    COMPLETADO,
+    /**
+     * La generación terminó con error.
+     */
+    FALLIDO
+}
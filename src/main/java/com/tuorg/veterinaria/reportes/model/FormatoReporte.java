@@ -0,0 +1,38 @@
+package com.tuorg.veterinaria.reportes.model;
+
+/**
+ * Formatos en los que se entrega el resultado de un reporte.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public enum FormatoReporte {
+    /**
+     * Reporte con sus estadísticas en JSON.
+     */
+    JSON("application/json", "json"),
+    /**
+     * Documento PDF.
+     */
+    PDF("application/pdf", "pdf"),
+    /**
+     * Libro de Excel con el resumen y el detalle del período.
+     */
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+    private final String tipoContenido;
+    private final String extension;
+
+    FormatoReporte(String tipoContenido, String extension) {
+        this.tipoContenido = tipoContenido;
+        this.extension = extension;
+    }
+
+    public String getTipoContenido() {
+        return tipoContenido;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,56 @@
+package com.tuorg.veterinaria.reportes.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.util.Map;
+
+/**
+ * Entidad que representa una fuente de datos externa para los reportes.
+ *
+ * El tipo selecciona el conector que la lee y la configuración contiene
+ * los parámetros propios de ese conector.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "fuentes_datos", schema = "public")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FuenteDatos {
+
+    /**
+     * Identificador único de la fuente (clave primaria).
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_fuente")
+    private Long idFuente;
+
+    /**
+     * Nombre único de la fuente.
+     */
+    @Column(name = "nombre", nullable = false, unique = true, length = 120)
+    private String nombre;
+
+    /**
+     * Tipo de conector (JDBC, CSV, JSON).
+     */
+    @Column(name = "tipo", length = 50)
+    private String tipo;
+
+    /**
+     * Parámetros del conector en formato JSON.
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "configuracion", columnDefinition = "JSONB")
+    private Map<String, Object> configuracion;
+}
@@ -51,5 +51,18 @@ public class Indicador {
      */
     @Column(name = "valor_actual", precision = 18, scale = 4)
     private BigDecimal valorActual;
+
+    /**
+     * Nombre de la estadística cuya serie mensual alimenta el indicador.
+     * Si es null, el indicador se mantiene manualmente.
+     */
+    @Column(name = "estadistica", length = 120)
+    private String estadistica;
+
+    /**
+     * Estado incremental de la serie (EWMA, media, desviación y pendiente).
+     */
+    @Embedded
+    private SerieIndicador serie = new SerieIndicador();
 }
 
@@ -0,0 +1,64 @@
+package com.tuorg.veterinaria.reportes.model;
+
+import com.tuorg.veterinaria.common.exception.BusinessException;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * Período cubierto por un reporte, con ambos extremos inclusive.
+ *
+ * Se toma de los parámetros fechaInicio y fechaFin (AAAA-MM-DD); sin
+ * ellos, el fin es la fecha de referencia y el inicio el mismo día para
+ * los reportes diarios o el primer día de ese mes para el resto.
+ *
+ * @param inicio Primer día
+ * @param fin Último día
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public record PeriodoReporte(LocalDate inicio, LocalDate fin) {
+
+    /**
+     * Valida que el período esté completo y ordenado.
+     *
+     * @throws BusinessException Si falta una fecha o el inicio es posterior al fin
+     */
+    public PeriodoReporte {
+        if (inicio == null || fin == null) {
+            throw new BusinessException("El período debe tener fecha de inicio y de fin");
+        }
+        if (inicio.isAfter(fin)) {
+            throw new BusinessException("La fecha de inicio no puede ser posterior a la fecha de fin");
+        }
+    }
+
+    /**
+     * Resuelve el período de un reporte.
+     *
+     * @param tipo Tipo de reporte
+     * @param parametros Parámetros del reporte (puede ser null)
+     * @param referencia Fecha de referencia para los valores por defecto
+     * @return Período del reporte
+     * @throws BusinessException Si alguna fecha no tiene el formato esperado
+     */
+    public static PeriodoReporte de(String tipo, Map<String, Object> parametros, LocalDate referencia) {
+        LocalDate fin = leerFecha(parametros, "fechaFin", referencia);
+        LocalDate inicio = leerFecha(parametros, "fechaInicio",
+                "DIARIO".equalsIgnoreCase(tipo) ? fin : fin.withDayOfMonth(1));
+        return new PeriodoReporte(inicio, fin);
+    }
+
+    private static LocalDate leerFecha(Map<String, Object> parametros, String clave, LocalDate porDefecto) {
+        Object valor = parametros != null ? parametros.get(clave) : null;
+        if (valor == null || valor.toString().isBlank()) {
+            return porDefecto;
+        }
+        try {
+            return LocalDate.parse(valor.toString().trim());
+        } catch (DateTimeParseException e) {
+            throw new BusinessException("El parámetro " + clave + " debe tener el formato AAAA-MM-DD");
+        }
+    }
+}
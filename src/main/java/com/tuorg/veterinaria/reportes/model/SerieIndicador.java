@@ -0,0 +1,188 @@
+package com.tuorg.veterinaria.reportes.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Estado incremental de la serie temporal de un indicador.
+ *
+ * Cada valor nuevo actualiza, sin releer el historial:
+ * <ul>
+ *   <li>una media móvil exponencial (EWMA) con factor {@link #ALFA_EWMA};</li>
+ *   <li>sumas ponderadas con decaimiento {@link #DECAIMIENTO}, de las que se
+ *       obtienen la media y la desviación de la ventana efectiva de
+ *       {@link #VENTANA} períodos y la pendiente por mínimos cuadrados.</li>
+ * </ul>
+ * Un valor a más de {@link #UMBRAL_ANOMALIA} desviaciones de la media
+ * previa se marca como anómalo; si no, la tendencia depende de la
+ * pendiente relativa a la media.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Embeddable
+@Getter
+@NoArgsConstructor
+public class SerieIndicador {
+
+    /**
+     * Peso del valor nuevo en la EWMA.
+     */
+    public static final double ALFA_EWMA = 0.3;
+
+    /**
+     * Períodos que abarca la ventana efectiva de media, desviación y pendiente.
+     */
+    public static final int VENTANA = 12;
+
+    /**
+     * Factor con el que se atenúan las sumas en cada período.
+     */
+    public static final double DECAIMIENTO = 1.0 - 1.0 / VENTANA;
+
+    /**
+     * Desviaciones estándar a partir de las cuales un valor es anómalo.
+     */
+    public static final double UMBRAL_ANOMALIA = 3.0;
+
+    /**
+     * Variación por período, relativa a la media, que se considera tendencia.
+     */
+    public static final double UMBRAL_PENDIENTE = 0.02;
+
+    /**
+     * Observaciones necesarias para estimar la pendiente.
+     */
+    private static final int MINIMO_TENDENCIA = 3;
+
+    /**
+     * Observaciones necesarias para detectar anomalías.
+     */
+    private static final int MINIMO_ANOMALIA = 6;
+
+    @Column(name = "observaciones", nullable = false)
+    private long observaciones;
+
+    /**
+     * Fin del último período incorporado; los anteriores se ignoran.
+     */
+    @Column(name = "ultimo_periodo_fin")
+    private LocalDate ultimoPeriodoFin;
+
+    @Column(name = "ewma")
+    private Double ewma;
+
+    @Column(name = "suma_pesos", nullable = false)
+    private double sumaPesos;
+
+    @Column(name = "suma_x", nullable = false)
+    private double sumaX;
+
+    @Column(name = "suma_y", nullable = false)
+    private double sumaY;
+
+    @Column(name = "suma_xx", nullable = false)
+    private double sumaXX;
+
+    @Column(name = "suma_xy", nullable = false)
+    private double sumaXY;
+
+    @Column(name = "suma_yy", nullable = false)
+    private double sumaYY;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tendencia", length = 20)
+    private TendenciaIndicador tendencia;
+
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
+
+    /**
+     * Incorpora el valor de un período posterior al último registrado.
+     *
+     * @param periodoFin Fin del período del valor
+     * @param valor Valor observado
+     * @return true si se incorporó; false si el período ya estaba cubierto
+     */
+    public boolean registrar(LocalDate periodoFin, double valor) {
+        if (ultimoPeriodoFin != null && !periodoFin.isAfter(ultimoPeriodoFin)) {
+            return false;
+        }
+        boolean anomalo = observaciones >= MINIMO_ANOMALIA && desviacion() > 0
+                && Math.abs(valor - media()) > UMBRAL_ANOMALIA * desviacion();
+
+        double x = observaciones;
+        sumaPesos = DECAIMIENTO * sumaPesos + 1;
+        sumaX = DECAIMIENTO * sumaX + x;
+        sumaY = DECAIMIENTO * sumaY + valor;
+        sumaXX = DECAIMIENTO * sumaXX + x * x;
+        sumaXY = DECAIMIENTO * sumaXY + x * valor;
+        sumaYY = DECAIMIENTO * sumaYY + valor * valor;
+        ewma = ewma == null ? valor : ALFA_EWMA * valor + (1 - ALFA_EWMA) * ewma;
+        observaciones++;
+        ultimoPeriodoFin = periodoFin;
+        fechaActualizacion = LocalDateTime.now();
+
+        tendencia = anomalo ? TendenciaIndicador.ANOMALA : clasificar();
+        return true;
+    }
+
+    /**
+     * Media ponderada de la ventana efectiva.
+     *
+     * @return Media, o 0 si no hay observaciones
+     */
+    public double media() {
+        return sumaPesos > 0 ? sumaY / sumaPesos : 0;
+    }
+
+    /**
+     * Desviación estándar ponderada de la ventana efectiva.
+     *
+     * @return Desviación, o 0 si no hay observaciones
+     */
+    public double desviacion() {
+        if (sumaPesos <= 0) {
+            return 0;
+        }
+        double media = media();
+        // Puede quedar ligeramente negativa por redondeo
+        return Math.sqrt(Math.max(0, sumaYY / sumaPesos - media * media));
+    }
+
+    /**
+     * Pendiente por período de la recta de mínimos cuadrados ponderados.
+     *
+     * @return Pendiente, o 0 si no hay puntos suficientes
+     */
+    public double pendiente() {
+        double denominador = sumaPesos * sumaXX - sumaX * sumaX;
+        if (observaciones < 2 || denominador <= 1e-12) {
+            return 0;
+        }
+        return (sumaPesos * sumaXY - sumaX * sumaY) / denominador;
+    }
+
+    private TendenciaIndicador clasificar() {
+        if (observaciones < MINIMO_TENDENCIA) {
+            return TendenciaIndicador.ESTABLE;
+        }
+        double pendiente = pendiente();
+        double escala = Math.abs(media());
+        double relativa = escala > 1e-9 ? pendiente / escala : Math.signum(pendiente);
+        if (relativa > UMBRAL_PENDIENTE) {
+            return TendenciaIndicador.CRECIENTE;
+        }
+        if (relativa < -UMBRAL_PENDIENTE) {
+            return TendenciaIndicador.DECRECIENTE;
+        }
+        return TendenciaIndicador.ESTABLE;
+    }
+}
@@ -0,0 +1,26 @@
+package com.tuorg.veterinaria.reportes.model;
+
+/**
+ * Clasificación de la tendencia de un indicador.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+public enum TendenciaIndicador {
+    /**
+     * La pendiente reciente supera el umbral en sentido positivo.
+     */
+    CRECIENTE,
+    /**
+     * La pendiente reciente supera el umbral en sentido negativo.
+     */
+    DECRECIENTE,
+    /**
+     * Sin cambio significativo.
+     */
+    ESTABLE,
+    /**
+     * El último valor se aleja de la media más de lo esperado.
+     */
+    ANOMALA
+}
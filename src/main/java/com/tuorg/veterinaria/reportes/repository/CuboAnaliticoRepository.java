@@ -0,0 +1,151 @@
+package com.tuorg.veterinaria.reportes.repository;
+
+import com.tuorg.veterinaria.reportes.analitica.TablaColumnar.Fila;
+import com.tuorg.veterinaria.reportes.analitica.TablaCubo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Acceso JDBC a las filas de hechos del cubo de análisis.
+ *
+ * Cada consulta devuelve, en este orden, el ID de la fila, el de su padre
+ * (la cita, en los servicios prestados), el día como número de días desde
+ * 1970-01-01, las dimensiones de {@link TablaCubo#getDimensiones()} y, si la
+ * tabla la tiene, la medida en céntimos. Se recorren con cursor y deben
+ * ejecutarse dentro de una transacción.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Repository
+public class CuboAnaliticoRepository {
+
+    private static final String SQL_CITAS =
+            "SELECT c.id_cita, 0, c.fecha_hora::date - DATE '1970-01-01', pa.especie, c.tipo_servicio, "
+                    + "CONCAT_WS(' ', v.nombre, v.apellido), c.triage_nivel, c.estado "
+                    + "FROM citas c "
+                    + "JOIN pacientes pa ON pa.id_paciente = c.paciente_id "
+                    + "JOIN personas v ON v.id_persona = c.veterinario_id";
+
+    private static final String SQL_SERVICIOS =
+            "SELECT sp.id_prestado, sp.cita_id, sp.fecha_ejecucion::date - DATE '1970-01-01', pa.especie, s.tipo, "
+                    + "s.nombre, CONCAT_WS(' ', v.nombre, v.apellido), ROUND(sp.costo_total * 100)::bigint "
+                    + "FROM servicios_prestados sp "
+                    + "JOIN servicios s ON s.id_servicio = sp.servicio_id "
+                    + "JOIN citas c ON c.id_cita = sp.cita_id "
+                    + "JOIN pacientes pa ON pa.id_paciente = c.paciente_id "
+                    + "JOIN personas v ON v.id_persona = c.veterinario_id";
+
+    private static final String SQL_FACTURAS =
+            "SELECT f.id_factura, 0, f.fecha_emision::date - DATE '1970-01-01', f.estado, f.forma_pago, "
+                    + "ROUND(f.total * 100)::bigint "
+                    + "FROM facturas f";
+
+    /**
+     * Filas leídas por viaje al servidor.
+     */
+    private static final int TAMANO_FETCH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param jdbcTemplate Plantilla JDBC
+     */
+    @Autowired
+    public CuboAnaliticoRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Recorre en streaming todas las filas de una tabla del cubo.
+     *
+     * @param tabla Tabla del cubo
+     * @param consumidor Receptor de cada fila
+     */
+    public void recorrer(TablaCubo tabla, Consumer<Fila> consumidor) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql(tabla));
+            ps.setFetchSize(TAMANO_FETCH);
+            return ps;
+        }, manejador(tabla, consumidor));
+    }
+
+    /**
+     * Recorre las filas de citas o servicios prestados de las citas indicadas.
+     *
+     * @param tabla {@link TablaCubo#CITAS} o {@link TablaCubo#SERVICIOS}
+     * @param citaIds IDs de las citas
+     * @param consumidor Receptor de cada fila
+     */
+    public void recorrerPorCitas(TablaCubo tabla, Collection<Long> citaIds, Consumer<Fila> consumidor) {
+        String columna = tabla == TablaCubo.SERVICIOS ? "sp.cita_id" : "c.id_cita";
+        recorrerPorIds(tabla, columna, citaIds, consumidor);
+    }
+
+    /**
+     * Recorre las filas de citas o servicios prestados de los pacientes indicados.
+     *
+     * @param tabla {@link TablaCubo#CITAS} o {@link TablaCubo#SERVICIOS}
+     * @param pacienteIds IDs de los pacientes
+     * @param consumidor Receptor de cada fila
+     */
+    public void recorrerPorPacientes(TablaCubo tabla, Collection<Long> pacienteIds, Consumer<Fila> consumidor) {
+        recorrerPorIds(tabla, "c.paciente_id", pacienteIds, consumidor);
+    }
+
+    /**
+     * Recorre las filas de las facturas indicadas.
+     *
+     * @param facturaIds IDs de las facturas
+     * @param consumidor Receptor de cada fila
+     */
+    public void recorrerFacturas(Collection<Long> facturaIds, Consumer<Fila> consumidor) {
+        recorrerPorIds(TablaCubo.FACTURAS, "f.id_factura", facturaIds, consumidor);
+    }
+
+    private void recorrerPorIds(TablaCubo tabla, String columna, Collection<Long> ids, Consumer<Fila> consumidor) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        String sql = sql(tabla) + " WHERE " + columna + " = ANY(?)";
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(TAMANO_FETCH);
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        }, manejador(tabla, consumidor));
+    }
+
+    private static String sql(TablaCubo tabla) {
+        return switch (tabla) {
+            case CITAS -> SQL_CITAS;
+            case SERVICIOS -> SQL_SERVICIOS;
+            case FACTURAS -> SQL_FACTURAS;
+        };
+    }
+
+    private static RowCallbackHandler manejador(TablaCubo tabla, Consumer<Fila> consumidor) {
+        int numeroDimensiones = tabla.getDimensiones().size();
+        boolean conMedida = !tabla.getMedidas().isEmpty();
+        return rs -> consumidor.accept(leer(rs, numeroDimensiones, conMedida));
+    }
+
+    private static Fila leer(ResultSet rs, int numeroDimensiones, boolean conMedida) throws SQLException {
+        String[] dimensiones = new String[numeroDimensiones];
+        for (int d = 0; d < numeroDimensiones; d++) {
+            dimensiones[d] = rs.getString(4 + d);
+        }
+        long medida = conMedida ? rs.getLong(4 + numeroDimensiones) : 0;
+        return new Fila(rs.getLong(1), rs.getLong(2), rs.getInt(3), dimensiones, medida);
+    }
+}
@@ -25,5 +25,13 @@ public interface EstadisticaRepository extends JpaRepository<Estadistica, Long>
      * @return Lista de estadísticas con el nombre especificado
      */
     List<Estadistica> findByNombre(String nombre);
+
+    /**
+     * Busca estadísticas por nombre en orden cronológico.
+     *
+     * @param nombre Nombre de la estadística
+     * @return Estadísticas ordenadas por fin de período
+     */
+    List<Estadistica> findByNombreOrderByPeriodoFinAsc(String nombre);
 }
 
@@ -0,0 +1,23 @@
+package com.tuorg.veterinaria.reportes.repository;
+
+import com.tuorg.veterinaria.reportes.model.FuenteDatos;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio para la entidad FuenteDatos.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Repository
+public interface FuenteDatosRepository extends JpaRepository<FuenteDatos, Long> {
+
+    /**
+     * Verifica si existe una fuente con el nombre indicado.
+     *
+     * @param nombre Nombre de la fuente
+     * @return true si existe
+     */
+    boolean existsByNombre(String nombre);
+}
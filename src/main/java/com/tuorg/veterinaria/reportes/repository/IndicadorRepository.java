@@ -1,9 +1,16 @@
 package com.tuorg.veterinaria.reportes.repository;
 
 import com.tuorg.veterinaria.reportes.model.Indicador;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Repositorio para la entidad Indicador.
  * 
@@ -15,6 +22,27 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface IndicadorRepository extends JpaRepository<Indicador, Long> {
-    // Métodos adicionales pueden agregarse aquí según sea necesario
+
+    /**
+     * Busca y bloquea los indicadores alimentados por las estadísticas
+     * indicadas, para que dos actualizaciones simultáneas no se pisen.
+     *
+     * @param estadisticas Nombres de las estadísticas
+     * @return Indicadores asociados
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Indicador> findByEstadisticaIn(Collection<String> estadisticas);
+
+    /**
+     * Intenta tomar, hasta el final de la transacción, el bloqueo consultivo
+     * de la actualización periódica de una estadística, para que solo un
+     * nodo la calcule en cada pasada.
+     *
+     * @param clave Clave del tipo de bloqueo
+     * @param estadistica Nombre de la estadística
+     * @return true si se tomó el bloqueo
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:clave, hashtext(:estadistica))", nativeQuery = true)
+    boolean bloquearActualizacion(@Param("clave") int clave, @Param("estadistica") String estadistica);
 }
 
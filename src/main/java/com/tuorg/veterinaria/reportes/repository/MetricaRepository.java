@@ -0,0 +1,224 @@
+package com.tuorg.veterinaria.reportes.repository;
+
+import com.tuorg.veterinaria.reportes.model.Estadistica;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Acceso JDBC para el cálculo de estadísticas de reportes.
+ *
+ * Reúne las consultas agregadas de cada métrica y la lectura y escritura
+ * por lotes de la tabla estadisticas. Los períodos se reciben con ambos
+ * extremos inclusive.
+ *
+ * Los triggers de V21 marcan como obsoletas las estadísticas de meses
+ * cerrados cuyos datos de origen cambian; la marca solo se borra al
+ * guardar un cálculo que partió de ella.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Repository
+public class MetricaRepository {
+
+    /**
+     * Parte y total de una proporción.
+     */
+    public record Proporcion(long parte, long total) {
+    }
+
+    /**
+     * Estadística guardada con su estado de vigencia.
+     *
+     * @param marca Marca de obsolescencia, null si ningún cambio posterior la invalidó
+     * @param cerrada true si se calculó después de terminar su período
+     */
+    public record EstadisticaGuardada(String nombre, LocalDate periodoInicio, LocalDate periodoFin,
+                                      BigDecimal valor, Long marca, boolean cerrada) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param jdbcTemplate Plantilla JDBC
+     */
+    @Autowired
+    public MetricaRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Importe de las facturas pagadas en el período, por fecha de pago.
+     *
+     * @param inicio Primer día
+     * @param fin Último día
+     * @return Importe cobrado
+     */
+    public BigDecimal ingresosPagados(LocalDate inicio, LocalDate fin) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(total), 0) FROM facturas "
+                        + "WHERE estado = 'PAGADA' AND fecha_pago >= ? AND fecha_pago < ?",
+                BigDecimal.class, Timestamp.valueOf(inicio.atStartOfDay()),
+                Timestamp.valueOf(fin.plusDays(1).atStartOfDay()));
+    }
+
+    /**
+     * Citas no canceladas del período, según el resumen diario de citas.
+     *
+     * @param inicio Primer día
+     * @param fin Último día
+     * @return Número de citas
+     */
+    public long citasNoCanceladas(LocalDate inicio, LocalDate fin) {
+        Long total = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(cantidad), 0) FROM resumen_diario_citas "
+                        + "WHERE estado <> 'CANCELADA' AND dia BETWEEN ? AND ?",
+                Long.class, Date.valueOf(inicio), Date.valueOf(fin));
+        return total != null ? total : 0L;
+    }
+
+    /**
+     * Citas ya vencidas del período que siguen programadas, frente al total
+     * de citas vencidas no canceladas.
+     *
+     * @param inicio Primer día
+     * @param fin Último día
+     * @param ahora Instante de referencia para considerar una cita vencida
+     * @return Citas sin atender y total de citas vencidas
+     */
+    public Proporcion citasSinAtender(LocalDate inicio, LocalDate fin, LocalDateTime ahora) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FILTER (WHERE estado = 'PROGRAMADA'), COUNT(*) FROM citas "
+                        + "WHERE estado <> 'CANCELADA' AND fecha_hora >= ? AND fecha_hora < ? AND fecha_hora < ?",
+                (rs, rowNum) -> new Proporcion(rs.getLong(1), rs.getLong(2)),
+                Timestamp.valueOf(inicio.atStartOfDay()), Timestamp.valueOf(fin.plusDays(1).atStartOfDay()),
+                Timestamp.valueOf(ahora));
+    }
+
+    /**
+     * Unidades con salida de inventario en el período.
+     *
+     * @param inicio Primer día
+     * @param fin Último día
+     * @return Unidades salientes
+     */
+    public long unidadesSalientes(LocalDate inicio, LocalDate fin) {
+        Long total = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(cantidad), 0) FROM movimientos_inventario "
+                        + "WHERE tipo_movimiento = 'OUT' AND fecha >= ? AND fecha < ?",
+                Long.class, Timestamp.valueOf(inicio.atStartOfDay()), Timestamp.valueOf(fin.plusDays(1).atStartOfDay()));
+        return total != null ? total : 0L;
+    }
+
+    /**
+     * Unidades en existencia de todos los productos.
+     *
+     * @return Stock total
+     */
+    public long stockTotal() {
+        Long total = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(stock), 0) FROM productos", Long.class);
+        return total != null ? total : 0L;
+    }
+
+    /**
+     * Vacunas aplicadas en el período.
+     *
+     * @param inicio Primer día
+     * @param fin Último día
+     * @return Número de vacunaciones
+     */
+    public long vacunacionesAplicadas(LocalDate inicio, LocalDate fin) {
+        Long total = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM vacunaciones WHERE fecha_aplicacion BETWEEN ? AND ?",
+                Long.class, Date.valueOf(inicio), Date.valueOf(fin));
+        return total != null ? total : 0L;
+    }
+
+    /**
+     * Estadísticas guardadas de las métricas indicadas cuyo período cae
+     * dentro del rango.
+     *
+     * @param nombres Nombres de las métricas
+     * @param inicio Primer día del rango
+     * @param fin Último día del rango
+     * @return Estadísticas encontradas
+     */
+    public List<Estadistica> buscarEstadisticas(Collection<String> nombres, LocalDate inicio, LocalDate fin) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT id_estadistica, nombre, valor, periodo_inicio, periodo_fin FROM estadisticas "
+                            + "WHERE nombre = ANY(?) AND periodo_inicio >= ? AND periodo_fin <= ?");
+            ps.setArray(1, con.createArrayOf("varchar", nombres.toArray()));
+            ps.setDate(2, Date.valueOf(inicio));
+            ps.setDate(3, Date.valueOf(fin));
+            return ps;
+        }, (rs, rowNum) -> new Estadistica(rs.getLong(1), rs.getString(2), rs.getBigDecimal(3),
+                rs.getDate(4).toLocalDate(), rs.getDate(5).toLocalDate()));
+    }
+
+    /**
+     * Estadísticas guardadas de las métricas indicadas cuyo período cae
+     * dentro del rango, con su marca de obsolescencia.
+     *
+     * @param nombres Nombres de las métricas
+     * @param inicio Primer día del rango
+     * @param fin Último día del rango
+     * @return Estadísticas encontradas
+     */
+    public List<EstadisticaGuardada> buscarGuardadas(Collection<String> nombres, LocalDate inicio, LocalDate fin) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT nombre, periodo_inicio, periodo_fin, valor, marca, "
+                            + "COALESCE(calculado_en >= periodo_fin + 1, false) FROM estadisticas "
+                            + "WHERE nombre = ANY(?) AND periodo_inicio >= ? AND periodo_fin <= ?");
+            ps.setArray(1, con.createArrayOf("varchar", nombres.toArray()));
+            ps.setDate(2, Date.valueOf(inicio));
+            ps.setDate(3, Date.valueOf(fin));
+            return ps;
+        }, (rs, rowNum) -> new EstadisticaGuardada(rs.getString(1), rs.getDate(2).toLocalDate(),
+                rs.getDate(3).toLocalDate(), rs.getBigDecimal(4), rs.getObject(5, Long.class), rs.getBoolean(6)));
+    }
+
+    /**
+     * Inserta o actualiza un lote de estadísticas en un único envío.
+     *
+     * La marca de obsolescencia se borra solo si sigue siendo la que se leyó
+     * antes de calcular; si un cambio la renovó mientras tanto, se conserva
+     * y la estadística se recalcula en la próxima ejecución.
+     *
+     * @param estadisticas Estadísticas calculadas
+     * @param marcasLeidas Marca leída antes de calcular cada estadística, en el mismo orden (null si no tenía)
+     */
+    public void guardarEstadisticas(List<Estadistica> estadisticas, List<Long> marcasLeidas) {
+        List<Integer> indices = IntStream.range(0, estadisticas.size()).boxed().toList();
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO estadisticas (nombre, valor, periodo_inicio, periodo_fin, calculado_en) "
+                        + "VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP) "
+                        + "ON CONFLICT (nombre, periodo_inicio, periodo_fin) DO UPDATE SET valor = EXCLUDED.valor, "
+                        + "calculado_en = EXCLUDED.calculado_en, "
+                        + "marca = CASE WHEN estadisticas.marca = CAST(? AS BIGINT) THEN NULL "
+                        + "ELSE estadisticas.marca END",
+                indices, indices.size(), (ps, i) -> {
+                    Estadistica estadistica = estadisticas.get(i);
+                    ps.setString(1, estadistica.getNombre());
+                    ps.setBigDecimal(2, estadistica.getValor());
+                    ps.setDate(3, Date.valueOf(estadistica.getPeriodoInicio()));
+                    ps.setDate(4, Date.valueOf(estadistica.getPeriodoFin()));
+                    ps.setObject(5, marcasLeidas.get(i), Types.BIGINT);
+                });
+    }
+}
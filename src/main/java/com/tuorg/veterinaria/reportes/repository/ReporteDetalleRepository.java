@@ -0,0 +1,122 @@
+package com.tuorg.veterinaria.reportes.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Acceso JDBC al detalle de citas y facturas que acompaña a los reportes
+ * exportados.
+ *
+ * Las consultas se recorren con cursor para que un año completo de
+ * detalle no se cargue en memoria; deben ejecutarse dentro de una
+ * transacción.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Repository
+public class ReporteDetalleRepository {
+
+    /**
+     * Fila del detalle de citas.
+     */
+    public record FilaCita(Long idCita, LocalDateTime fechaHora, String paciente, String veterinario,
+                           String tipoServicio, String estado, String motivo) {
+    }
+
+    /**
+     * Fila del detalle de facturas.
+     */
+    public record FilaFactura(String numero, LocalDateTime fechaEmision, String cliente, String correo,
+                              String estado, String formaPago, BigDecimal total) {
+    }
+
+    private static final String SQL_CITAS =
+            "SELECT c.id_cita, c.fecha_hora, pa.nombre, concat_ws(' ', v.nombre, v.apellido), "
+                    + "c.tipo_servicio, c.estado, c.motivo "
+                    + "FROM citas c "
+                    + "JOIN pacientes pa ON pa.id_paciente = c.paciente_id "
+                    + "JOIN personas v ON v.id_persona = c.veterinario_id "
+                    + "WHERE c.fecha_hora >= ? AND c.fecha_hora < ? "
+                    + "ORDER BY c.fecha_hora, c.id_cita";
+
+    private static final String SQL_FACTURAS =
+            "SELECT f.numero, f.fecha_emision, concat_ws(' ', p.nombre, p.apellido), p.correo, "
+                    + "f.estado, f.forma_pago, f.total "
+                    + "FROM facturas f "
+                    + "JOIN personas p ON p.id_persona = f.cliente_id "
+                    + "WHERE f.fecha_emision >= ? AND f.fecha_emision < ? "
+                    + "ORDER BY f.fecha_emision, f.id_factura";
+
+    /**
+     * Filas leídas por viaje al servidor.
+     */
+    private static final int TAMANO_FETCH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param jdbcTemplate Plantilla JDBC
+     */
+    @Autowired
+    public ReporteDetalleRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Recorre en streaming las citas del período en orden cronológico.
+     *
+     * @param inicio Primer día (inclusive)
+     * @param fin Último día (inclusive)
+     * @param consumidor Receptor de cada fila
+     */
+    public void recorrerCitas(LocalDate inicio, LocalDate fin, Consumer<FilaCita> consumidor) {
+        recorrer(SQL_CITAS, inicio, fin, rs -> consumidor.accept(new FilaCita(
+                rs.getLong(1),
+                rs.getTimestamp(2).toLocalDateTime(),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getString(5),
+                rs.getString(6),
+                rs.getString(7))));
+    }
+
+    /**
+     * Recorre en streaming las facturas emitidas en el período en orden cronológico.
+     *
+     * @param inicio Primer día (inclusive)
+     * @param fin Último día (inclusive)
+     * @param consumidor Receptor de cada fila
+     */
+    public void recorrerFacturas(LocalDate inicio, LocalDate fin, Consumer<FilaFactura> consumidor) {
+        recorrer(SQL_FACTURAS, inicio, fin, rs -> consumidor.accept(new FilaFactura(
+                rs.getString(1),
+                rs.getTimestamp(2).toLocalDateTime(),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getString(5),
+                rs.getString(6),
+                rs.getBigDecimal(7))));
+    }
+
+    private void recorrer(String sql, LocalDate inicio, LocalDate fin, RowCallbackHandler manejador) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(TAMANO_FETCH);
+            ps.setTimestamp(1, Timestamp.valueOf(inicio.atStartOfDay()));
+            ps.setTimestamp(2, Timestamp.valueOf(fin.plusDays(1).atStartOfDay()));
+            return ps;
+        }, manejador);
+    }
+}
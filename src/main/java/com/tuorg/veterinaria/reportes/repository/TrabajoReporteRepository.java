@@ -0,0 +1,243 @@
+package com.tuorg.veterinaria.reportes.repository;
+
+import com.tuorg.veterinaria.reportes.model.EstadoTrabajoReporte;
+import com.tuorg.veterinaria.reportes.model.FormatoReporte;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Acceso JDBC a la cola de trabajos de reportes.
+ *
+ * Las sentencias se ejecutan fuera de transacción: cada cambio de estado
+ * queda visible para los demás nodos en cuanto se hace. Las transiciones
+ * comprueban el estado de partida, de modo que un trabajo solo lo toma un
+ * hilo aunque se encole en varios nodos. Mientras un trabajo está en
+ * proceso, su nodo renueva el latido; el barrido de trabajos vencidos
+ * bloquea las filas con SKIP LOCKED para que varios nodos puedan barrer a
+ * la vez sin esperarse ni tocar la misma fila.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Repository
+public class TrabajoReporteRepository {
+
+    /**
+     * Trabajo de la cola.
+     *
+     * @param parametros Parámetros normalizados en JSON
+     * @param archivoHash SHA-256 del resultado en el almacén de archivos
+     */
+    public record Trabajo(Long idTrabajo, String huella, String nombre, String tipo, FormatoReporte formato,
+                          String parametros, Long solicitadoPor, EstadoTrabajoReporte estado, int intentos,
+                          Long reporteId, String archivoHash, String error, Instant fechaSolicitud,
+                          Instant fechaInicio, Instant fechaFin, Instant expiraEn) {
+    }
+
+    private static final String COLUMNAS =
+            "id_trabajo, huella, nombre, tipo, formato, parametros::text, solicitado_por, estado, intentos, "
+                    + "reporte_id, archivo_hash, error, fecha_solicitud, fecha_inicio, fecha_fin, expira_en";
+
+    private static final RowMapper<Trabajo> MAPEO = (rs, rowNum) -> new Trabajo(
+            rs.getLong(1),
+            rs.getString(2),
+            rs.getString(3),
+            rs.getString(4),
+            FormatoReporte.valueOf(rs.getString(5)),
+            rs.getString(6),
+            rs.getObject(7, Long.class),
+            EstadoTrabajoReporte.valueOf(rs.getString(8)),
+            rs.getInt(9),
+            rs.getObject(10, Long.class),
+            rs.getString(11),
+            rs.getString(12),
+            instante(rs.getTimestamp(13)),
+            instante(rs.getTimestamp(14)),
+            instante(rs.getTimestamp(15)),
+            instante(rs.getTimestamp(16)));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param jdbcTemplate Plantilla JDBC
+     */
+    @Autowired
+    public TrabajoReporteRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Busca un trabajo por su identificador.
+     *
+     * @param idTrabajo ID del trabajo
+     * @return Trabajo, si existe
+     */
+    public Optional<Trabajo> buscar(Long idTrabajo) {
+        return jdbcTemplate.query("SELECT " + COLUMNAS + " FROM trabajos_reporte WHERE id_trabajo = ?",
+                MAPEO, idTrabajo).stream().findFirst();
+    }
+
+    /**
+     * Busca un trabajo reutilizable para una huella: uno completado cuyo
+     * resultado no ha expirado o, si no lo hay, el que está en curso.
+     *
+     * @param huella Huella de la solicitud
+     * @return Trabajo reutilizable, si existe
+     */
+    public Optional<Trabajo> buscarVigente(String huella) {
+        return jdbcTemplate.query(
+                "SELECT " + COLUMNAS + " FROM trabajos_reporte "
+                        + "WHERE huella = ? AND (estado IN ('PENDIENTE', 'EN_PROCESO') "
+                        + "OR (estado = 'COMPLETADO' AND expira_en > CURRENT_TIMESTAMP)) "
+                        + "ORDER BY estado = 'COMPLETADO' DESC, fecha_solicitud DESC LIMIT 1",
+                MAPEO, huella).stream().findFirst();
+    }
+
+    /**
+     * Encola un trabajo, salvo que ya haya uno activo con la misma huella.
+     *
+     * @return ID del trabajo creado, o vacío si otra solicitud idéntica se adelantó
+     */
+    public Optional<Long> insertar(String huella, String nombre, String tipo, FormatoReporte formato,
+                                   String parametros, Long solicitadoPor) {
+        return jdbcTemplate.query(
+                "INSERT INTO trabajos_reporte (huella, nombre, tipo, formato, parametros, solicitado_por, estado) "
+                        + "VALUES (?, ?, ?, ?, ?::jsonb, ?, 'PENDIENTE') "
+                        + "ON CONFLICT (huella) WHERE estado IN ('PENDIENTE', 'EN_PROCESO') DO NOTHING "
+                        + "RETURNING id_trabajo",
+                ps -> {
+                    ps.setString(1, huella);
+                    ps.setString(2, nombre);
+                    ps.setString(3, tipo);
+                    ps.setString(4, formato.name());
+                    ps.setString(5, parametros);
+                    if (solicitadoPor != null) {
+                        ps.setLong(6, solicitadoPor);
+                    } else {
+                        ps.setNull(6, Types.BIGINT);
+                    }
+                },
+                (rs, rowNum) -> rs.getLong(1)).stream().findFirst();
+    }
+
+    /**
+     * Toma un trabajo pendiente para generarlo.
+     *
+     * @param idTrabajo ID del trabajo
+     * @return true si este hilo lo tomó; false si ya no estaba pendiente
+     */
+    public boolean reclamar(Long idTrabajo) {
+        return jdbcTemplate.update(
+                "UPDATE trabajos_reporte SET estado = 'EN_PROCESO', intentos = intentos + 1, "
+                        + "fecha_inicio = CURRENT_TIMESTAMP, latido = CURRENT_TIMESTAMP "
+                        + "WHERE id_trabajo = ? AND estado = 'PENDIENTE'",
+                idTrabajo) > 0;
+    }
+
+    /**
+     * Marca un trabajo como completado.
+     *
+     * @param idTrabajo ID del trabajo
+     * @param reporteId ID del reporte generado
+     * @param archivoHash SHA-256 del resultado
+     * @param expiraEn Hasta cuándo se reutiliza el resultado
+     */
+    public void completar(Long idTrabajo, Long reporteId, String archivoHash, Instant expiraEn) {
+        jdbcTemplate.update(
+                "UPDATE trabajos_reporte SET estado = 'COMPLETADO', reporte_id = ?, archivo_hash = ?, error = NULL, "
+                        + "fecha_fin = CURRENT_TIMESTAMP, expira_en = ? WHERE id_trabajo = ? AND estado = 'EN_PROCESO'",
+                reporteId, archivoHash, Timestamp.from(expiraEn), idTrabajo);
+    }
+
+    /**
+     * Marca un trabajo como fallido.
+     *
+     * @param idTrabajo ID del trabajo
+     * @param error Motivo del fallo
+     */
+    public void fallar(Long idTrabajo, String error) {
+        jdbcTemplate.update(
+                "UPDATE trabajos_reporte SET estado = 'FALLIDO', error = ?, fecha_fin = CURRENT_TIMESTAMP "
+                        + "WHERE id_trabajo = ? AND estado = 'EN_PROCESO'",
+                error, idTrabajo);
+    }
+
+    /**
+     * Renueva el latido de los trabajos que este nodo está generando,
+     * salvo los que empezaron antes del límite de duración.
+     *
+     * @param idsTrabajo IDs de los trabajos en curso en este nodo
+     * @param inicioMinimo Inicio más antiguo que aún se renueva
+     * @return Número de trabajos renovados
+     */
+    public int renovarLatido(Collection<Long> idsTrabajo, Instant inicioMinimo) {
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "UPDATE trabajos_reporte SET latido = CURRENT_TIMESTAMP "
+                            + "WHERE id_trabajo = ANY(?) AND estado = 'EN_PROCESO' AND fecha_inicio >= ?");
+            ps.setArray(1, con.createArrayOf("bigint", idsTrabajo.toArray()));
+            ps.setTimestamp(2, Timestamp.from(inicioMinimo));
+            return ps;
+        });
+    }
+
+    /**
+     * Devuelve a la cola los trabajos en proceso cuyo latido es anterior al
+     * límite (el nodo que los generaba se detuvo o los superó la duración
+     * máxima); los que agotaron los intentos se marcan como fallidos. Las
+     * filas que otro nodo está barriendo se saltan.
+     *
+     * @param limite Latido más reciente de un trabajo vencido
+     * @param maximoIntentos Intentos permitidos por trabajo
+     * @return IDs de los trabajos devueltos a la cola
+     */
+    public List<Long> reencolarVencidos(Instant limite, int maximoIntentos) {
+        return jdbcTemplate.query(
+                "WITH vencidos AS ("
+                        + "  SELECT id_trabajo FROM trabajos_reporte "
+                        + "  WHERE estado = 'EN_PROCESO' AND COALESCE(latido, fecha_inicio) < ? "
+                        + "  FOR UPDATE SKIP LOCKED"
+                        + ") "
+                        + "UPDATE trabajos_reporte t SET "
+                        + "estado = CASE WHEN t.intentos >= ? THEN 'FALLIDO' ELSE 'PENDIENTE' END, "
+                        + "error = CASE WHEN t.intentos >= ? THEN 'Generación interrumpida' ELSE NULL END, "
+                        + "fecha_fin = CASE WHEN t.intentos >= ? THEN CURRENT_TIMESTAMP ELSE NULL END, "
+                        + "latido = NULL "
+                        + "FROM vencidos v WHERE t.id_trabajo = v.id_trabajo "
+                        + "RETURNING t.id_trabajo, t.estado",
+                (rs, rowNum) -> "PENDIENTE".equals(rs.getString(2)) ? rs.getLong(1) : null,
+                Timestamp.from(limite), maximoIntentos, maximoIntentos, maximoIntentos)
+                .stream().filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Lista los trabajos pendientes solicitados antes del límite, por orden
+     * de llegada.
+     *
+     * @param solicitadosAntesDe Fecha de solicitud máxima
+     * @return IDs de los trabajos pendientes
+     */
+    public List<Long> pendientes(Instant solicitadosAntesDe) {
+        return jdbcTemplate.queryForList(
+                "SELECT id_trabajo FROM trabajos_reporte WHERE estado = 'PENDIENTE' AND fecha_solicitud < ? "
+                        + "ORDER BY fecha_solicitud",
+                Long.class, Timestamp.from(solicitadosAntesDe));
+    }
+
+    private static Instant instante(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+}
@@ -0,0 +1,178 @@
+package com.tuorg.veterinaria.reportes.service;
+
+import com.tuorg.veterinaria.reportes.model.Indicador;
+import com.tuorg.veterinaria.reportes.model.SerieIndicador;
+import com.tuorg.veterinaria.reportes.repository.IndicadorRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Alimentación periódica de las series de los indicadores.
+ *
+ * En cada pasada calcula, para cada estadística asociada a un indicador, los
+ * meses cerrados de la ventana de la serie y los que falten desde el último
+ * incorporado. {@link EstadisticaService} reutiliza los meses ya guardados y
+ * vigentes, así que solo se calculan los que faltan o los que un cambio
+ * tardío marcó como obsoletos; al guardarse pasan a
+ * {@link IndicadorService}, que los incorpora o rehace la serie si son
+ * correcciones.
+ *
+ * Cada estadística se procesa en su propia transacción con un bloqueo
+ * consultivo, de modo que en cada pasada solo un nodo la calcula.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Component
+public class ActualizacionIndicadores {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActualizacionIndicadores.class);
+
+    /**
+     * Primer argumento de los bloqueos consultivos de la actualización.
+     */
+    private static final int CLAVE_BLOQUEO = 0x494E4443;
+
+    private final IndicadorRepository indicadorRepository;
+    private final EstadisticaService estadisticaService;
+    private final IndicadorService indicadorService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration intervalo;
+    private final Clock reloj;
+    private final ScheduledExecutorService programador;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param indicadorRepository Repositorio de indicadores
+     * @param estadisticaService Servicio de estadísticas
+     * @param indicadorService Servicio de indicadores
+     * @param transactionTemplate Plantilla de transacciones
+     * @param intervalo Tiempo entre pasadas
+     */
+    @Autowired
+    public ActualizacionIndicadores(IndicadorRepository indicadorRepository,
+                                    EstadisticaService estadisticaService,
+                                    IndicadorService indicadorService,
+                                    TransactionTemplate transactionTemplate,
+                                    @Value("${app.indicadores.intervalo:PT6H}") Duration intervalo) {
+        this(indicadorRepository, estadisticaService, indicadorService, transactionTemplate, intervalo,
+                Clock.systemDefaultZone());
+    }
+
+    ActualizacionIndicadores(IndicadorRepository indicadorRepository, EstadisticaService estadisticaService,
+                             IndicadorService indicadorService, TransactionTemplate transactionTemplate,
+                             Duration intervalo, Clock reloj) {
+        this.indicadorRepository = indicadorRepository;
+        this.estadisticaService = estadisticaService;
+        this.indicadorService = indicadorService;
+        this.transactionTemplate = transactionTemplate;
+        this.intervalo = intervalo;
+        this.reloj = reloj;
+        this.programador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "indicadores");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Programa la actualización periódica al arrancar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        programador.scheduleWithFixedDelay(this::actualizarSinFallar, 0, intervalo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Calcula los meses cerrados de todas las series. Un error en una
+     * estadística no impide actualizar las demás.
+     *
+     * @return Estadísticas procesadas por este nodo
+     */
+    public int actualizar() {
+        YearMonth ultimoCerrado = YearMonth.now(reloj).minusMonths(1);
+        YearMonth inicioVentana = ultimoCerrado.minusMonths(SerieIndicador.VENTANA - 1L);
+
+        // Por estadística, el primer mes a revisar: la ventana o, si la serie
+        // se quedó atrás, el mes siguiente al último incorporado
+        Map<String, YearMonth> desde = new TreeMap<>();
+        for (Indicador indicador : indicadorRepository.findAll()) {
+            if (indicador.getEstadistica() == null) {
+                continue;
+            }
+            YearMonth primero = inicioVentana;
+            if (indicador.getSerie().getUltimoPeriodoFin() != null) {
+                YearMonth siguiente = YearMonth.from(indicador.getSerie().getUltimoPeriodoFin()).plusMonths(1);
+                primero = siguiente.isBefore(primero) ? siguiente : primero;
+            }
+            desde.merge(indicador.getEstadistica(), primero, (a, b) -> a.isBefore(b) ? a : b);
+        }
+
+        int procesadas = 0;
+        for (Map.Entry<String, YearMonth> entrada : desde.entrySet()) {
+            try {
+                Boolean procesada = transactionTemplate.execute(estado ->
+                        calcularMeses(entrada.getKey(), entrada.getValue(), ultimoCerrado));
+                if (Boolean.TRUE.equals(procesada)) {
+                    procesadas++;
+                }
+            } catch (RuntimeException e) {
+                logger.warn("No se pudo actualizar la serie de {}: {}", entrada.getKey(), e.getMessage());
+            }
+        }
+        return procesadas;
+    }
+
+    /**
+     * Detiene la actualización periódica.
+     */
+    @PreDestroy
+    public void cerrar() {
+        programador.shutdownNow();
+    }
+
+    private boolean calcularMeses(String estadistica, YearMonth desde, YearMonth hasta) {
+        if (!indicadorRepository.bloquearActualizacion(CLAVE_BLOQUEO, estadistica)) {
+            return false;
+        }
+        for (YearMonth mes = desde; !mes.isAfter(hasta); mes = mes.plusMonths(1)) {
+            estadisticaService.calcular(estadistica, mes.atDay(1), mes.atEndOfMonth());
+        }
+        // Los meses vigentes que ya estaban guardados no se vuelven a guardar;
+        // una serie que no los tiene (indicador nuevo) se rehace desde el historial
+        for (Indicador indicador : indicadorRepository.findByEstadisticaIn(List.of(estadistica))) {
+            LocalDate ultimo = indicador.getSerie().getUltimoPeriodoFin();
+            if (ultimo == null || ultimo.isBefore(hasta.atEndOfMonth())) {
+                indicadorService.reconstruir(indicador.getIdIndicador());
+            }
+        }
+        return true;
+    }
+
+    private void actualizarSinFallar() {
+        try {
+            actualizar();
+        } catch (RuntimeException e) {
+            logger.error("Error en la actualización de indicadores: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.tuorg.veterinaria.reportes.service;
+
+import com.tuorg.veterinaria.auditoria.aspect.Auditable;
+import com.tuorg.veterinaria.common.event.TipoEntidad;
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.reportes.analitica.ConsultaCubo;
+import com.tuorg.veterinaria.reportes.analitica.TablaColumnar;
+import com.tuorg.veterinaria.reportes.analitica.TablaColumnar.Fila;
+import com.tuorg.veterinaria.reportes.analitica.TablaCubo;
+import com.tuorg.veterinaria.reportes.dto.ConsultaCuboRequest;
+import com.tuorg.veterinaria.reportes.dto.ResultadoCuboResponse;
+import com.tuorg.veterinaria.reportes.listener.CuboAnaliticoListener;
+import com.tuorg.veterinaria.reportes.repository.CuboAnaliticoRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servicio del cubo de análisis en memoria sobre citas, servicios
+ * prestados y facturas.
+ *
+ * Las tablas se cargan completas al suscribirse a los avisos de cambios y
+ * después se mantienen con ellos: {@link CuboAnaliticoListener} entrega los
+ * IDs que la base anuncia tras cada commit, venga el cambio de este nodo, de
+ * otro, de SQL directo o de una restauración. Los IDs se acumulan y un único
+ * hilo de mantenimiento relee sus filas por lotes, de modo que una ráfaga
+ * de cambios se aplica de una vez. Una cita arrastra sus servicios
+ * prestados; un paciente, el de sus citas y servicios. Lo que no se acota a
+ * unas filas (vaciados, bajas de pacientes, renombrados) y cada
+ * reconexión de la escucha provocan una recarga completa.
+ *
+ * Las consultas se resuelven en memoria repartiendo el recorrido entre los
+ * hilos del pool del cubo.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Service
+public class CuboAnaliticoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CuboAnaliticoService.class);
+
+    /**
+     * Tiempo máximo que se espera al hilo de mantenimiento al cerrar.
+     */
+    private static final long ESPERA_CIERRE_SEGUNDOS = 10;
+
+    /**
+     * Repositorio JDBC de las filas del cubo.
+     */
+    private final CuboAnaliticoRepository cuboAnaliticoRepository;
+
+    /**
+     * Plantilla de transacciones para leer con cursor.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Pool en el que se recorren los bloques de las consultas.
+     */
+    private final ExecutorService pool;
+
+    /**
+     * Hilo único para la carga y la aplicación de cambios.
+     */
+    private final ExecutorService mantenimiento;
+
+    private final Set<Long> citasPendientes = ConcurrentHashMap.newKeySet();
+    private final Set<Long> facturasPendientes = ConcurrentHashMap.newKeySet();
+    private final Set<Long> pacientesPendientes = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean recargaPendiente = new AtomicBoolean();
+    private final AtomicBoolean drenajeProgramado = new AtomicBoolean();
+
+    /**
+     * Tablas vigentes; null hasta que termina la primera carga. Una
+     * recarga construye tablas nuevas y las publica al terminar.
+     */
+    private volatile Map<TablaCubo, TablaColumnar> tablas;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param cuboAnaliticoRepository Repositorio JDBC del cubo
+     * @param transactionTemplate Plantilla de transacciones
+     * @param paralelismo Hilos de consulta (0 para uno por procesador)
+     */
+    @Autowired
+    public CuboAnaliticoService(CuboAnaliticoRepository cuboAnaliticoRepository,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${app.cubo.paralelismo:0}") int paralelismo) {
+        this.cuboAnaliticoRepository = cuboAnaliticoRepository;
+        this.transactionTemplate = transactionTemplate;
+        int hilos = paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors();
+        AtomicInteger contador = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(hilos, tarea -> {
+            Thread hilo = new Thread(tarea, "cubo-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        this.mantenimiento = Executors.newSingleThreadExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "cubo-mantenimiento");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Programa una recarga completa del cubo. Mientras tanto las consultas
+     * siguen respondiendo con las tablas anteriores.
+     */
+    @Auditable
+    public void recargar() {
+        recargaPendiente.set(true);
+        programar();
+    }
+
+    /**
+     * Vuelve a programar lo que quedó sin aplicar por un error, si lo hay.
+     */
+    public void reintentarPendientes() {
+        if (recargaPendiente.get() || !citasPendientes.isEmpty() || !facturasPendientes.isEmpty()
+                || !pacientesPendientes.isEmpty()) {
+            programar();
+        }
+    }
+
+    /**
+     * Acumula los IDs cambiados de citas, facturas o pacientes para
+     * aplicarlos al cubo.
+     *
+     * @param tipo Tipo de entidad
+     * @param ids IDs cambiados
+     */
+    public void aplicarCambios(TipoEntidad tipo, Collection<Long> ids) {
+        Set<Long> pendientes = switch (tipo) {
+            case CITA -> citasPendientes;
+            case FACTURA -> facturasPendientes;
+            case PACIENTE -> pacientesPendientes;
+            default -> null;
+        };
+        if (pendientes == null || ids.isEmpty()) {
+            return;
+        }
+        pendientes.addAll(ids);
+        programar();
+    }
+
+    /**
+     * Resuelve una consulta sobre el cubo.
+     *
+     * @param request Consulta
+     * @return Grupos resultantes
+     * @throws BusinessException Si el cubo aún se está cargando o la consulta no es válida
+     */
+    public ResultadoCuboResponse consultar(ConsultaCuboRequest request) {
+        Map<TablaCubo, TablaColumnar> actuales = tablas;
+        if (actuales == null) {
+            throw new BusinessException("El cubo de análisis se está cargando; inténtelo de nuevo en unos segundos");
+        }
+        if (request.getDesde() != null && request.getHasta() != null && request.getDesde().isAfter(request.getHasta())) {
+            throw new BusinessException("La fecha inicial no puede ser posterior a la final");
+        }
+        Map<String, Set<String>> filtros = new LinkedHashMap<>();
+        if (request.getFiltros() != null) {
+            request.getFiltros().forEach((dimension, valores) -> filtros.put(dimension, new HashSet<>(valores)));
+        }
+        List<String> agrupar = request.getAgrupar() != null ? List.copyOf(request.getAgrupar()) : List.of();
+        String medida = request.getMedida() != null && !request.getMedida().isBlank() ? request.getMedida().trim() : null;
+
+        long inicio = System.nanoTime();
+        TablaColumnar.Resultado resultado = actuales.get(request.getTabla()).consultar(
+                new ConsultaCubo(request.getDesde(), request.getHasta(), filtros, agrupar, medida), pool);
+        long duracionMs = (System.nanoTime() - inicio) / 1_000_000;
+
+        return ResultadoCuboResponse.builder()
+                .dimensiones(agrupar)
+                .grupos(resultado.grupos().stream()
+                        .map(grupo -> ResultadoCuboResponse.Grupo.builder()
+                                .claves(grupo.claves())
+                                .filas(grupo.filas())
+                                .suma(medida != null ? BigDecimal.valueOf(grupo.suma(), 2) : null)
+                                .build())
+                        .toList())
+                .filasEscaneadas(resultado.filasEscaneadas())
+                .duracionMs(duracionMs)
+                .build();
+    }
+
+    /**
+     * Libera los hilos del cubo al cerrar el contexto, dejando terminar la
+     * aplicación de cambios en curso.
+     */
+    @PreDestroy
+    public void cerrar() {
+        mantenimiento.shutdown();
+        pool.shutdown();
+        try {
+            mantenimiento.awaitTermination(ESPERA_CIERRE_SEGUNDOS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Espera a que el hilo de mantenimiento termine lo que tiene programado.
+     */
+    void esperarMantenimiento() {
+        try {
+            mantenimiento.submit(() -> { }).get(ESPERA_CIERRE_SEGUNDOS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("El mantenimiento del cubo no terminó a tiempo", e);
+        }
+    }
+
+    private void programar() {
+        if (drenajeProgramado.compareAndSet(false, true)) {
+            try {
+                mantenimiento.execute(this::drenar);
+            } catch (RejectedExecutionException e) {
+                // El contexto se está cerrando
+                drenajeProgramado.set(false);
+            }
+        }
+    }
+
+    /**
+     * Aplica los cambios acumulados o, si hay una recarga pendiente, la
+     * ejecuta. Siempre corre en el hilo de mantenimiento.
+     */
+    void drenar() {
+        drenajeProgramado.set(false);
+        if (recargaPendiente.getAndSet(false)) {
+            cargar();
+            return;
+        }
+        Map<TablaCubo, TablaColumnar> actuales = tablas;
+        if (actuales == null) {
+            return;
+        }
+        Set<Long> citas = extraer(citasPendientes);
+        Set<Long> facturas = extraer(facturasPendientes);
+        Set<Long> pacientes = extraer(pacientesPendientes);
+        if (citas.isEmpty() && facturas.isEmpty() && pacientes.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                aplicarCitas(actuales, citas);
+                aplicarPacientes(actuales, pacientes);
+                aplicarFacturas(actuales.get(TablaCubo.FACTURAS), facturas);
+            });
+        } catch (RuntimeException e) {
+            // Se conservan para el siguiente cambio o la siguiente verificación
+            citasPendientes.addAll(citas);
+            facturasPendientes.addAll(facturas);
+            pacientesPendientes.addAll(pacientes);
+            logger.warn("No se pudieron aplicar los cambios al cubo de análisis: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Construye todas las tablas desde la base de datos y las publica.
+     */
+    void cargar() {
+        // Lo modificado hasta aquí ya queda incluido en la carga
+        citasPendientes.clear();
+        facturasPendientes.clear();
+        pacientesPendientes.clear();
+        long inicio = System.nanoTime();
+        Map<TablaCubo, TablaColumnar> nuevas = new EnumMap<>(TablaCubo.class);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (TablaCubo tabla : TablaCubo.values()) {
+                    TablaColumnar columnar = new TablaColumnar(tabla);
+                    cuboAnaliticoRepository.recorrer(tabla, columnar::guardar);
+                    nuevas.put(tabla, columnar);
+                }
+            });
+        } catch (RuntimeException e) {
+            recargaPendiente.set(true);
+            logger.error("No se pudo cargar el cubo de análisis", e);
+            return;
+        }
+        tablas = nuevas;
+        logger.info("Cubo de análisis cargado en {} ms: {} citas, {} servicios prestados, {} facturas",
+                (System.nanoTime() - inicio) / 1_000_000,
+                nuevas.get(TablaCubo.CITAS).filasVivas(),
+                nuevas.get(TablaCubo.SERVICIOS).filasVivas(),
+                nuevas.get(TablaCubo.FACTURAS).filasVivas());
+    }
+
+    /**
+     * Relee las citas modificadas y reemplaza todos sus servicios prestados;
+     * las citas que ya no se leen se eliminan.
+     */
+    private void aplicarCitas(Map<TablaCubo, TablaColumnar> actuales, Set<Long> citas) {
+        if (citas.isEmpty()) {
+            return;
+        }
+        List<Fila> filasCitas = new ArrayList<>();
+        cuboAnaliticoRepository.recorrerPorCitas(TablaCubo.CITAS, citas, filasCitas::add);
+        actuales.get(TablaCubo.CITAS).aplicar(ausentes(citas, filasCitas), List.of(), filasCitas);
+
+        List<Fila> filasServicios = new ArrayList<>();
+        cuboAnaliticoRepository.recorrerPorCitas(TablaCubo.SERVICIOS, citas, filasServicios::add);
+        actuales.get(TablaCubo.SERVICIOS).aplicar(List.of(), citas, filasServicios);
+    }
+
+    /**
+     * Relee las citas y servicios de los pacientes modificados, cuya
+     * especie forma parte de ambas tablas.
+     */
+    private void aplicarPacientes(Map<TablaCubo, TablaColumnar> actuales, Set<Long> pacientes) {
+        if (pacientes.isEmpty()) {
+            return;
+        }
+        for (TablaCubo tabla : List.of(TablaCubo.CITAS, TablaCubo.SERVICIOS)) {
+            List<Fila> filas = new ArrayList<>();
+            cuboAnaliticoRepository.recorrerPorPacientes(tabla, pacientes, filas::add);
+            actuales.get(tabla).aplicar(List.of(), List.of(), filas);
+        }
+    }
+
+    private void aplicarFacturas(TablaColumnar tabla, Set<Long> facturas) {
+        if (facturas.isEmpty()) {
+            return;
+        }
+        List<Fila> filas = new ArrayList<>();
+        cuboAnaliticoRepository.recorrerFacturas(facturas, filas::add);
+        tabla.aplicar(ausentes(facturas, filas), List.of(), filas);
+    }
+
+    private static Set<Long> ausentes(Set<Long> ids, List<Fila> leidas) {
+        Set<Long> ausentes = new HashSet<>(ids);
+        leidas.forEach(fila -> ausentes.remove(fila.id()));
+        return ausentes;
+    }
+
+    private static Set<Long> extraer(Set<Long> pendientes) {
+        Set<Long> extraidos = new LinkedHashSet<>(pendientes);
+        pendientes.removeAll(extraidos);
+        return extraidos;
+    }
+}
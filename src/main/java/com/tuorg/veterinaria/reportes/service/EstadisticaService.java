@@ -1,106 +1,296 @@
 package com.tuorg.veterinaria.reportes.service;
 
+import com.tuorg.veterinaria.auditoria.aspect.Auditable;
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.reportes.calculo.CalculadorEstadistica;
 import com.tuorg.veterinaria.reportes.model.Estadistica;
+import com.tuorg.veterinaria.reportes.model.PeriodoReporte;
 import com.tuorg.veterinaria.reportes.repository.EstadisticaRepository;
+import com.tuorg.veterinaria.reportes.repository.MetricaRepository;
+import com.tuorg.veterinaria.reportes.repository.MetricaRepository.EstadisticaGuardada;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Servicio para la gestión de estadísticas.
- * 
+ *
  * Este servicio proporciona métodos para calcular y actualizar
- * estadísticas del sistema.
- * 
+ * estadísticas del sistema. Cada métrica es un {@link CalculadorEstadistica};
+ * las de un reporte se calculan en paralelo, con un número acotado de
+ * hilos, y se guardan en un único lote. Las métricas aditivas se calculan
+ * por mes y los meses cerrados ya guardados no se vuelven a calcular,
+ * salvo que un cambio posterior en sus datos de origen los haya marcado
+ * como obsoletos.
+ * Los valores guardados se pasan a {@link IndicadorService} para
+ * actualizar la tendencia de los indicadores.
+ *
  * @author Equipo de Desarrollo
  * @version 1.0.0
  */
 @Service
 public class EstadisticaService {
 
+    /**
+     * Tramo de período de una métrica; coincide con la clave única de la
+     * tabla estadisticas.
+     */
+    private record Tramo(String nombre, LocalDate inicio, LocalDate fin) {
+    }
+
     /**
      * Repositorio de estadísticas.
      */
     private final EstadisticaRepository estadisticaRepository;
 
+    /**
+     * Consultas de las métricas y escritura por lotes.
+     */
+    private final MetricaRepository metricaRepository;
+
+    /**
+     * Métricas disponibles.
+     */
+    private final List<CalculadorEstadistica> calculadores;
+
+    /**
+     * Servicio de indicadores, que sigue las series mensuales.
+     */
+    private final IndicadorService indicadorService;
+
+    /**
+     * Ejecutor acotado para los cálculos (cada uno ocupa una conexión).
+     */
+    private final ExecutorService executor;
+
     /**
      * Constructor con inyección de dependencias.
-     * 
+     *
      * @param estadisticaRepository Repositorio de estadísticas
+     * @param metricaRepository Repositorio JDBC de métricas
+     * @param calculadores Métricas disponibles
+     * @param indicadorService Servicio de indicadores
+     * @param paralelismo Cálculos simultáneos como máximo
      */
     @Autowired
-    public EstadisticaService(EstadisticaRepository estadisticaRepository) {
+    public EstadisticaService(EstadisticaRepository estadisticaRepository,
+                              MetricaRepository metricaRepository,
+                              List<CalculadorEstadistica> calculadores,
+                              IndicadorService indicadorService,
+                              @Value("${app.estadisticas.paralelismo:4}") int paralelismo) {
         this.estadisticaRepository = estadisticaRepository;
+        this.metricaRepository = metricaRepository;
+        this.calculadores = List.copyOf(calculadores);
+        this.indicadorService = indicadorService;
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, paralelismo), tarea -> {
+            Thread hilo = new Thread(tarea, "estadisticas-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
     }
 
     /**
      * Calcula una estadística.
-     * 
+     *
      * @param nombre Nombre de la estadística
      * @param periodoInicio Fecha de inicio del período
      * @param periodoFin Fecha de fin del período
      * @return Estadistica calculada
+     * @throws BusinessException Si no hay una métrica con ese nombre o el período no es válido
      */
     @Transactional
     public Estadistica calcular(String nombre, LocalDate periodoInicio, LocalDate periodoFin) {
-        // Nota: El cálculo real de estadísticas según el nombre
-        // se implementará cuando se requiera la funcionalidad completa de análisis
-        Estadistica estadistica = new Estadistica();
-        estadistica.setNombre(nombre);
-        estadistica.setValor(BigDecimal.ZERO);
-        estadistica.setPeriodoInicio(periodoInicio);
-        estadistica.setPeriodoFin(periodoFin);
-        
-        return estadisticaRepository.save(estadistica);
+        CalculadorEstadistica calculador = calculadores.stream()
+                .filter(c -> c.nombre().equals(nombre))
+                .findFirst()
+                .orElseThrow(() -> new BusinessException("No existe un cálculo para la estadística: " + nombre));
+        PeriodoReporte periodo = new PeriodoReporte(periodoInicio, periodoFin);
+        return calcularPeriodo(List.of(calculador), periodo.inicio(), periodo.fin()).get(0);
     }
 
     /**
      * Calcula estadísticas para un reporte (usado por Facade).
-     * 
+     *
+     * El período se resuelve con {@link PeriodoReporte} respecto al día
+     * actual. Un tipo de reporte que ninguna métrica declara incluye todas.
+     *
      * @param tipoReporte Tipo de reporte
      * @param parametros Parámetros del reporte
      * @return Lista de estadísticas calculadas
      */
     @Transactional
     public List<Estadistica> calcularEstadisticasParaReporte(String tipoReporte, Map<String, Object> parametros) {
-        List<Estadistica> estadisticas = new ArrayList<>();
-        
-        // Nota: Los cálculos reales según el tipo de reporte
-        // se implementarán cuando se requiera la funcionalidad completa de análisis
-        return estadisticas;
+        PeriodoReporte periodo = PeriodoReporte.de(tipoReporte, parametros, LocalDate.now());
+        return calcularPeriodo(seleccionar(tipoReporte), periodo.inicio(), periodo.fin());
+    }
+
+    /**
+     * Obtiene las estadísticas guardadas de un período exacto.
+     *
+     * @param periodo Período
+     * @return Estadísticas del período, en el orden de las métricas
+     */
+    @Transactional(readOnly = true)
+    public List<Estadistica> obtenerPorPeriodo(PeriodoReporte periodo) {
+        return delPeriodo(calculadores.stream().map(CalculadorEstadistica::nombre).toList(),
+                periodo.inicio(), periodo.fin());
     }
 
     /**
      * Actualiza una estadística existente.
-     * 
+     *
      * @param estadisticaId ID de la estadística
      * @param nuevoValor Nuevo valor de la estadística
      * @return Estadistica actualizada
      */
     @Transactional
+    @Auditable
     public Estadistica actualizar(Long estadisticaId, BigDecimal nuevoValor) {
         Estadistica estadistica = estadisticaRepository.findById(estadisticaId)
                 .orElseThrow(() -> new RuntimeException("Estadística no encontrada"));
-        
+
         estadistica.setValor(nuevoValor);
         return estadisticaRepository.save(estadistica);
     }
 
     /**
      * Obtiene todas las estadísticas.
-     * 
+     *
      * @return Lista de estadísticas
      */
     @Transactional(readOnly = true)
     public List<Estadistica> obtenerTodas() {
         return estadisticaRepository.findAll();
     }
-}
 
+    /**
+     * Libera los hilos del ejecutor al cerrar el contexto.
+     */
+    @PreDestroy
+    public void cerrar() {
+        executor.shutdown();
+    }
+
+    private List<CalculadorEstadistica> seleccionar(String tipoReporte) {
+        String tipo = tipoReporte != null ? tipoReporte.trim().toUpperCase(Locale.ROOT) : "";
+        List<CalculadorEstadistica> especificos = calculadores.stream()
+                .filter(c -> c.tiposReporte().contains(tipo))
+                .toList();
+        return especificos.isEmpty() ? calculadores : especificos;
+    }
+
+    private List<Estadistica> calcularPeriodo(List<CalculadorEstadistica> seleccion, LocalDate inicio, LocalDate fin) {
+        LocalDate inicioMesActual = LocalDate.now().withDayOfMonth(1);
+        List<String> nombres = seleccion.stream().map(CalculadorEstadistica::nombre).toList();
+
+        // Solo se reutilizan los tramos cerrados: los del mes en curso aún pueden
+        // cambiar, y los marcados recibieron cambios tardíos (pagos, anulaciones...)
+        Map<Tramo, BigDecimal> cerrados = new HashMap<>();
+        Map<Tramo, Long> marcas = new HashMap<>();
+        for (EstadisticaGuardada guardada : metricaRepository.buscarGuardadas(nombres, inicio, fin)) {
+            Tramo tramo = new Tramo(guardada.nombre(), guardada.periodoInicio(), guardada.periodoFin());
+            if (guardada.marca() != null) {
+                marcas.put(tramo, guardada.marca());
+            } else if (guardada.cerrada() && guardada.periodoFin().isBefore(inicioMesActual)) {
+                cerrados.put(tramo, guardada.valor());
+            }
+        }
+
+        Map<Tramo, List<Tramo>> composicion = new LinkedHashMap<>();
+        Map<Tramo, CompletableFuture<BigDecimal>> calculos = new LinkedHashMap<>();
+        for (CalculadorEstadistica calculador : seleccion) {
+            Tramo total = new Tramo(calculador.nombre(), inicio, fin);
+            if (cerrados.containsKey(total)) {
+                continue;
+            }
+            List<Tramo> tramos = calculador.esAditiva() ? dividirPorMes(total) : List.of(total);
+            composicion.put(total, tramos);
+            for (Tramo tramo : tramos) {
+                if (!cerrados.containsKey(tramo)) {
+                    calculos.put(tramo, CompletableFuture.supplyAsync(
+                            () -> calculador.calcular(tramo.inicio(), tramo.fin()), executor));
+                }
+            }
+        }
 
+        try {
+            CompletableFuture.allOf(calculos.values().toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+
+        Map<Tramo, BigDecimal> valores = new HashMap<>(cerrados);
+        List<Estadistica> lote = new ArrayList<>();
+        calculos.forEach((tramo, calculo) -> {
+            valores.put(tramo, calculo.join());
+            lote.add(nueva(tramo, calculo.join()));
+        });
+        composicion.forEach((total, tramos) -> {
+            if (tramos.size() > 1) {
+                BigDecimal suma = tramos.stream().map(valores::get).reduce(BigDecimal.ZERO, BigDecimal::add);
+                lote.add(nueva(total, suma));
+            }
+        });
+        if (!lote.isEmpty()) {
+            metricaRepository.guardarEstadisticas(lote, lote.stream()
+                    .map(e -> marcas.get(new Tramo(e.getNombre(), e.getPeriodoInicio(), e.getPeriodoFin())))
+                    .toList());
+            indicadorService.registrar(lote);
+        }
+
+        // Se releen para devolverlas con su identificador
+        return delPeriodo(nombres, inicio, fin);
+    }
+
+    private List<Estadistica> delPeriodo(List<String> nombres, LocalDate inicio, LocalDate fin) {
+        Map<String, Estadistica> exactas = new HashMap<>();
+        for (Estadistica estadistica : metricaRepository.buscarEstadisticas(nombres, inicio, fin)) {
+            if (estadistica.getPeriodoInicio().equals(inicio) && estadistica.getPeriodoFin().equals(fin)) {
+                exactas.put(estadistica.getNombre(), estadistica);
+            }
+        }
+        return nombres.stream().map(exactas::get).filter(Objects::nonNull).toList();
+    }
+
+    private static List<Tramo> dividirPorMes(Tramo total) {
+        List<Tramo> tramos = new ArrayList<>();
+        LocalDate desde = total.inicio();
+        while (!desde.isAfter(total.fin())) {
+            LocalDate finMes = desde.withDayOfMonth(desde.lengthOfMonth());
+            LocalDate hasta = finMes.isBefore(total.fin()) ? finMes : total.fin();
+            tramos.add(new Tramo(total.nombre(), desde, hasta));
+            desde = hasta.plusDays(1);
+        }
+        return tramos;
+    }
+
+    private static Estadistica nueva(Tramo tramo, BigDecimal valor) {
+        Estadistica estadistica = new Estadistica();
+        estadistica.setNombre(tramo.nombre());
+        estadistica.setValor(valor);
+        estadistica.setPeriodoInicio(tramo.inicio());
+        estadistica.setPeriodoFin(tramo.fin());
+        return estadistica;
+    }
+}
@@ -0,0 +1,472 @@
+package com.tuorg.veterinaria.reportes.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuorg.veterinaria.auditoria.aspect.Auditable;
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.common.exception.ResourceNotFoundException;
+import com.tuorg.veterinaria.reportes.dto.FuenteDatosRequest;
+import com.tuorg.veterinaria.reportes.dto.FuenteDatosResponse;
+import com.tuorg.veterinaria.reportes.fuentes.ConectorFuente;
+import com.tuorg.veterinaria.reportes.fuentes.FilaFuente;
+import com.tuorg.veterinaria.reportes.fuentes.ParteFuente;
+import com.tuorg.veterinaria.reportes.model.FuenteDatos;
+import com.tuorg.veterinaria.reportes.repository.FuenteDatosRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio de fuentes de datos externas para los reportes.
+ *
+ * Cada fuente se lee con el {@link ConectorFuente} de su tipo. En una
+ * extracción las fuentes se leen en paralelo, cada una en un hilo del
+ * pool, y sus filas se entregan al consumidor a través de una cola
+ * acotada: si el consumidor es más lento, los lectores se detienen hasta
+ * que haya sitio. Las filas de cada parte con huella se guardan en caché
+ * y, mientras la huella no cambie, se sirven sin volver a leer la fuente.
+ * La caché se limita al total de filas de todas las partes; al pasarse se
+ * descartan las partes usadas hace más tiempo.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Service
+public class FuenteDatosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FuenteDatosService.class);
+
+    /**
+     * Marca de fin de una fuente en la cola de extracción.
+     */
+    private static final Object FIN = new Object();
+
+    /**
+     * Intervalo con el que un lector bloqueado comprueba si la extracción se canceló.
+     */
+    private static final long ESPERA_COLA_MS = 100;
+
+    /**
+     * Error de una fuente, entregado por la cola al consumidor.
+     */
+    private record Fallo(String fuente, Exception causa) {
+    }
+
+    /**
+     * Filas de una parte leída, válidas mientras su huella no cambie.
+     */
+    private record ParteCacheada(String huella, List<Map<String, Object>> filas) {
+    }
+
+    /**
+     * Repositorio de fuentes de datos.
+     */
+    private final FuenteDatosRepository fuenteDatosRepository;
+
+    /**
+     * Conectores disponibles por tipo.
+     */
+    private final Map<String, ConectorFuente> conectores;
+
+    /**
+     * Mapper JSON para la exportación.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Pool en el que se lee cada fuente.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Filas en tránsito como máximo entre los lectores y el consumidor.
+     */
+    private final int capacidadCola;
+
+    /**
+     * Filas guardadas en caché como máximo, sumando todas las partes.
+     */
+    private final int maximoFilasCache;
+
+    /**
+     * Filas de las partes leídas, por fuente y parte, de la menos a la más
+     * recientemente usada. Se sincroniza sobre el propio mapa.
+     */
+    private final Map<String, ParteCacheada> cache = new LinkedHashMap<>(64, 0.75f, true);
+
+    /**
+     * Filas de todas las partes en caché.
+     */
+    private long filasCache;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param fuenteDatosRepository Repositorio de fuentes de datos
+     * @param conectores Conectores disponibles
+     * @param objectMapper Mapper JSON
+     * @param hilos Fuentes leídas en paralelo como máximo
+     * @param capacidadCola Filas en tránsito como máximo
+     * @param maximoFilasCache Filas que se guardan en caché en total
+     */
+    @Autowired
+    public FuenteDatosService(FuenteDatosRepository fuenteDatosRepository,
+                              List<ConectorFuente> conectores,
+                              ObjectMapper objectMapper,
+                              @Value("${app.fuentes.hilos:4}") int hilos,
+                              @Value("${app.fuentes.capacidad-cola:10000}") int capacidadCola,
+                              @Value("${app.fuentes.cache-max-filas:100000}") int maximoFilasCache) {
+        this.fuenteDatosRepository = fuenteDatosRepository;
+        this.conectores = conectores.stream()
+                .collect(Collectors.toMap(conector -> conector.tipo().toUpperCase(Locale.ROOT), conector -> conector));
+        this.objectMapper = objectMapper;
+        this.capacidadCola = Math.max(1, capacidadCola);
+        this.maximoFilasCache = maximoFilasCache;
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, hilos), tarea -> {
+            Thread hilo = new Thread(tarea, "fuentes-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Lista las fuentes de datos registradas.
+     *
+     * @return Fuentes de datos
+     */
+    @Transactional(readOnly = true)
+    public List<FuenteDatosResponse> listar() {
+        return fuenteDatosRepository.findAll().stream()
+                .map(this::mapToResponse)
+                .toList();
+    }
+
+    /**
+     * Registra una fuente de datos.
+     *
+     * @param request Datos de la fuente
+     * @return Fuente registrada
+     * @throws BusinessException Si el nombre ya existe, el tipo no tiene conector o la configuración no es válida
+     */
+    @Transactional
+    @Auditable
+    public FuenteDatosResponse crear(FuenteDatosRequest request) {
+        if (fuenteDatosRepository.existsByNombre(request.getNombre().trim())) {
+            throw new BusinessException("Ya existe una fuente de datos con ese nombre");
+        }
+        FuenteDatos fuente = new FuenteDatos();
+        aplicar(fuente, request);
+        return mapToResponse(fuenteDatosRepository.save(fuente));
+    }
+
+    /**
+     * Modifica una fuente de datos y descarta lo que haya en caché de ella.
+     *
+     * @param id ID de la fuente
+     * @param request Datos de la fuente
+     * @return Fuente modificada
+     * @throws BusinessException Si el nombre ya existe, el tipo no tiene conector o la configuración no es válida
+     */
+    @Transactional
+    @Auditable
+    public FuenteDatosResponse actualizar(Long id, FuenteDatosRequest request) {
+        FuenteDatos fuente = buscar(id);
+        if (!fuente.getNombre().equals(request.getNombre().trim())
+                && fuenteDatosRepository.existsByNombre(request.getNombre().trim())) {
+            throw new BusinessException("Ya existe una fuente de datos con ese nombre");
+        }
+        aplicar(fuente, request);
+        invalidar(id);
+        return mapToResponse(fuenteDatosRepository.save(fuente));
+    }
+
+    /**
+     * Comprueba que las fuentes existan y tengan conector, antes de
+     * empezar a escribir una extracción.
+     *
+     * @param ids IDs de las fuentes
+     * @throws BusinessException Si alguna fuente no tiene conector
+     * @throws ResourceNotFoundException Si alguna fuente no existe
+     */
+    @Transactional(readOnly = true)
+    public void validarExtraccion(List<Long> ids) {
+        buscarParaExtraer(ids);
+    }
+
+    /**
+     * Extrae las filas de varias fuentes en paralelo y las entrega al
+     * consumidor en el hilo que llama, en el orden en que llegan.
+     *
+     * Las filas servidas desde caché se comparten entre extracciones y no
+     * deben modificarse.
+     *
+     * @param ids IDs de las fuentes
+     * @param destino Receptor de cada fila
+     * @return Filas entregadas
+     * @throws BusinessException Si falla la lectura de alguna fuente
+     */
+    public long extraer(List<Long> ids, Consumer<FilaFuente> destino) {
+        List<FuenteDatos> fuentes = buscarParaExtraer(ids);
+        BlockingQueue<Object> cola = new ArrayBlockingQueue<>(capacidadCola);
+        AtomicBoolean cancelada = new AtomicBoolean();
+        for (FuenteDatos fuente : fuentes) {
+            executor.execute(() -> producir(fuente, cola, cancelada));
+        }
+        int pendientes = fuentes.size();
+        long filas = 0;
+        try {
+            while (pendientes > 0) {
+                Object elemento = cola.take();
+                if (elemento instanceof FilaFuente fila) {
+                    destino.accept(fila);
+                    filas++;
+                } else if (elemento instanceof Fallo fallo) {
+                    logger.warn("Error al extraer la fuente {}", fallo.fuente(), fallo.causa());
+                    throw new BusinessException("No se pudo extraer la fuente " + fallo.fuente() + ": "
+                            + fallo.causa().getMessage());
+                } else {
+                    pendientes--;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Extracción interrumpida", e);
+        } finally {
+            // Libera a los lectores que sigan esperando sitio en la cola
+            cancelada.set(true);
+            cola.clear();
+        }
+        return filas;
+    }
+
+    /**
+     * Extrae las fuentes y escribe sus filas en NDJSON, un objeto
+     * {@code {"fuente": ..., "valores": {...}}} por línea.
+     *
+     * @param ids IDs de las fuentes
+     * @param salida Flujo de salida; no se cierra
+     * @return Filas escritas
+     * @throws IOException Si falla la escritura
+     */
+    public long exportar(List<Long> ids, OutputStream salida) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(salida);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        long filas;
+        try {
+            filas = extraer(ids, fila -> {
+                try {
+                    objectMapper.writeValue(generator, fila);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        generator.close();
+        salida.flush();
+        return filas;
+    }
+
+    /**
+     * Libera los hilos del pool al cerrar el contexto.
+     */
+    @PreDestroy
+    public void cerrar() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Lee las partes de una fuente y publica sus filas en la cola,
+     * sirviendo desde caché las que no han cambiado.
+     */
+    private void producir(FuenteDatos fuente, BlockingQueue<Object> cola, AtomicBoolean cancelada) {
+        String prefijo = fuente.getIdFuente() + "/";
+        Map<String, Object> configuracion = fuente.getConfiguracion() != null ? fuente.getConfiguracion() : Map.of();
+        try {
+            ConectorFuente conector = conector(fuente.getTipo());
+            Set<String> vigentes = new HashSet<>();
+            for (ParteFuente parte : conector.partes(configuracion)) {
+                String clave = prefijo + parte.clave();
+                vigentes.add(clave);
+                ParteCacheada cacheada = cacheada(clave);
+                if (parte.huella() != null && cacheada != null && cacheada.huella().equals(parte.huella())) {
+                    for (Map<String, Object> valores : cacheada.filas()) {
+                        publicar(cola, new FilaFuente(fuente.getNombre(), valores), cancelada);
+                    }
+                    continue;
+                }
+                List<Map<String, Object>> leidas = new ArrayList<>();
+                AtomicBoolean cacheable = new AtomicBoolean(parte.huella() != null);
+                conector.leer(configuracion, parte, valores -> {
+                    if (cacheable.get()) {
+                        if (leidas.size() < maximoFilasCache) {
+                            leidas.add(valores);
+                        } else {
+                            cacheable.set(false);
+                            leidas.clear();
+                        }
+                    }
+                    publicar(cola, new FilaFuente(fuente.getNombre(), valores), cancelada);
+                });
+                if (cacheable.get()) {
+                    cachear(clave, new ParteCacheada(parte.huella(), Collections.unmodifiableList(leidas)));
+                } else {
+                    descartar(clave::equals);
+                }
+            }
+            // Partes que ya no existen, como archivos retirados del directorio
+            descartar(clave -> clave.startsWith(prefijo) && !vigentes.contains(clave));
+            publicar(cola, FIN, cancelada);
+        } catch (CancellationException e) {
+            logger.debug("Extracción de la fuente {} cancelada", fuente.getNombre());
+        } catch (IOException | RuntimeException e) {
+            try {
+                publicar(cola, new Fallo(fuente.getNombre(), e), cancelada);
+            } catch (CancellationException ignorada) {
+                // El consumidor ya terminó
+            }
+        }
+    }
+
+    /**
+     * Encola un elemento esperando a que haya sitio.
+     *
+     * @throws CancellationException Si la extracción se canceló mientras esperaba
+     */
+    private static void publicar(BlockingQueue<Object> cola, Object elemento, AtomicBoolean cancelada) {
+        try {
+            while (!cola.offer(elemento, ESPERA_COLA_MS, TimeUnit.MILLISECONDS)) {
+                if (cancelada.get()) {
+                    throw new CancellationException();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        }
+    }
+
+    private List<FuenteDatos> buscarParaExtraer(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new BusinessException("Debe indicar al menos una fuente de datos");
+        }
+        Map<Long, FuenteDatos> encontradas = new LinkedHashMap<>();
+        fuenteDatosRepository.findAllById(ids).forEach(fuente -> encontradas.put(fuente.getIdFuente(), fuente));
+        List<FuenteDatos> fuentes = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            FuenteDatos fuente = encontradas.get(id);
+            if (fuente == null) {
+                throw new ResourceNotFoundException("FuenteDatos", "id", id);
+            }
+            conector(fuente.getTipo());
+            fuentes.add(fuente);
+        }
+        return fuentes;
+    }
+
+    private FuenteDatos buscar(Long id) {
+        return fuenteDatosRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("FuenteDatos", "id", id));
+    }
+
+    private ConectorFuente conector(String tipo) {
+        ConectorFuente conector = tipo != null ? conectores.get(tipo.trim().toUpperCase(Locale.ROOT)) : null;
+        if (conector == null) {
+            throw new BusinessException("No hay un conector para las fuentes de tipo " + tipo);
+        }
+        return conector;
+    }
+
+    private void aplicar(FuenteDatos fuente, FuenteDatosRequest request) {
+        ConectorFuente conector = conector(request.getTipo());
+        Map<String, Object> configuracion = request.getConfiguracion() != null
+                ? request.getConfiguracion()
+                : Map.of();
+        conector.validar(configuracion);
+        fuente.setNombre(request.getNombre().trim());
+        fuente.setTipo(conector.tipo());
+        fuente.setConfiguracion(new LinkedHashMap<>(configuracion));
+    }
+
+    private void invalidar(Long id) {
+        String prefijo = id + "/";
+        descartar(clave -> clave.startsWith(prefijo));
+    }
+
+    private ParteCacheada cacheada(String clave) {
+        synchronized (cache) {
+            return cache.get(clave);
+        }
+    }
+
+    /**
+     * Guarda una parte y descarta las menos usadas hasta volver al máximo
+     * de filas.
+     */
+    private void cachear(String clave, ParteCacheada parte) {
+        synchronized (cache) {
+            ParteCacheada anterior = cache.put(clave, parte);
+            filasCache += parte.filas().size() - (anterior != null ? anterior.filas().size() : 0);
+            Iterator<ParteCacheada> partes = cache.values().iterator();
+            while (filasCache > maximoFilasCache && partes.hasNext()) {
+                filasCache -= partes.next().filas().size();
+                partes.remove();
+            }
+        }
+    }
+
+    private void descartar(Predicate<String> claves) {
+        synchronized (cache) {
+            Iterator<Map.Entry<String, ParteCacheada>> entradas = cache.entrySet().iterator();
+            while (entradas.hasNext()) {
+                Map.Entry<String, ParteCacheada> entrada = entradas.next();
+                if (claves.test(entrada.getKey())) {
+                    filasCache -= entrada.getValue().filas().size();
+                    entradas.remove();
+                }
+            }
+        }
+    }
+
+    private FuenteDatosResponse mapToResponse(FuenteDatos fuente) {
+        return FuenteDatosResponse.builder()
+                .id(fuente.getIdFuente())
+                .nombre(fuente.getNombre())
+                .tipo(fuente.getTipo())
+                .configuracion(fuente.getConfiguracion())
+                .soportada(fuente.getTipo() != null && conectores.containsKey(fuente.getTipo().toUpperCase(Locale.ROOT)))
+                .build();
+    }
+}
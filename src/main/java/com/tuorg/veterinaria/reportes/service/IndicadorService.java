@@ -1,19 +1,42 @@
 package com.tuorg.veterinaria.reportes.service;
 
+import com.tuorg.veterinaria.auditoria.aspect.Auditable;
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.common.exception.ResourceNotFoundException;
+import com.tuorg.veterinaria.reportes.dto.IndicadorResponse;
+import com.tuorg.veterinaria.reportes.model.Estadistica;
 import com.tuorg.veterinaria.reportes.model.Indicador;
+import com.tuorg.veterinaria.reportes.model.SerieIndicador;
+import com.tuorg.veterinaria.reportes.model.TendenciaIndicador;
+import com.tuorg.veterinaria.reportes.repository.EstadisticaRepository;
 import com.tuorg.veterinaria.reportes.repository.IndicadorRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Servicio para la gestión de indicadores.
- * 
+ *
  * Este servicio proporciona métodos para evaluar tendencias
  * y gestionar indicadores clave de rendimiento (KPIs).
- * 
+ *
+ * Cada indicador asociado a una estadística sigue su serie mensual: los
+ * valores de meses cerrados que se guardan se incorporan uno a uno al
+ * estado de la serie ({@link SerieIndicador}), sin releer el historial.
+ * Un valor de un mes ya incorporado es una corrección: como el estado es
+ * acumulado, la serie se rehace desde las estadísticas guardadas, que
+ * tienen un único valor por período. {@link ActualizacionIndicadores}
+ * calcula los meses cerrados periódicamente para que la serie no dependa de
+ * que alguien pida reportes.
+ *
  * @author Equipo de Desarrollo
  * @version 1.0.0
  */
@@ -25,42 +48,153 @@ public class IndicadorService {
      */
     private final IndicadorRepository indicadorRepository;
 
+    /**
+     * Repositorio de estadísticas, para reconstruir una serie.
+     */
+    private final EstadisticaRepository estadisticaRepository;
+
     /**
      * Constructor con inyección de dependencias.
-     * 
+     *
      * @param indicadorRepository Repositorio de indicadores
+     * @param estadisticaRepository Repositorio de estadísticas
      */
     @Autowired
-    public IndicadorService(IndicadorRepository indicadorRepository) {
+    public IndicadorService(IndicadorRepository indicadorRepository,
+                            EstadisticaRepository estadisticaRepository) {
         this.indicadorRepository = indicadorRepository;
+        this.estadisticaRepository = estadisticaRepository;
     }
 
     /**
      * Evalúa la tendencia de un indicador.
-     * 
+     *
      * @param indicadorId ID del indicador
-     * @return String con la tendencia (creciente, decreciente, estable)
+     * @return String con la tendencia (creciente, decreciente, estable, anomala)
      */
     @Transactional(readOnly = true)
     public String evaluarTendencia(Long indicadorId) {
-        // Verificar que el indicador existe
-        indicadorRepository.findById(indicadorId)
-                .orElseThrow(() -> new RuntimeException("Indicador no encontrado"));
-        
-        // Nota: La evaluación real de tendencia comparando valores históricos
-        // se implementará cuando se requiera la funcionalidad completa de análisis
-        return "estable";
+        Indicador indicador = buscar(indicadorId);
+        TendenciaIndicador tendencia = indicador.getSerie().getTendencia();
+        return (tendencia != null ? tendencia : TendenciaIndicador.ESTABLE).name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Incorpora a los indicadores los valores mensuales recién guardados.
+     * Los valores de otros períodos o del mes en curso se ignoran; uno de
+     * un mes ya incorporado rehace la serie desde el historial.
+     *
+     * @param estadisticas Estadísticas guardadas
+     */
+    @Transactional
+    public void registrar(Collection<Estadistica> estadisticas) {
+        LocalDate inicioMesActual = LocalDate.now().withDayOfMonth(1);
+        Map<String, List<Estadistica>> mensuales = estadisticas.stream()
+                .filter(estadistica -> esMesCerrado(estadistica, inicioMesActual))
+                .collect(Collectors.groupingBy(Estadistica::getNombre));
+        if (mensuales.isEmpty()) {
+            return;
+        }
+        for (Indicador indicador : indicadorRepository.findByEstadisticaIn(mensuales.keySet())) {
+            List<Estadistica> valores = mensuales.get(indicador.getEstadistica()).stream()
+                    .sorted(Comparator.comparing(Estadistica::getPeriodoFin))
+                    .toList();
+            LocalDate ultimo = indicador.getSerie().getUltimoPeriodoFin();
+            if (ultimo != null && !valores.get(0).getPeriodoFin().isAfter(ultimo)) {
+                rehacerSerie(indicador, inicioMesActual);
+            } else {
+                valores.forEach(estadistica -> incorporar(indicador, estadistica));
+            }
+        }
+    }
+
+    /**
+     * Recalcula la serie de un indicador desde el historial guardado, por
+     * ejemplo tras cargar meses anteriores al último incorporado.
+     *
+     * @param indicadorId ID del indicador
+     * @return Indicador actualizado
+     * @throws BusinessException Si el indicador no está asociado a una estadística
+     */
+    @Transactional
+    @Auditable
+    public IndicadorResponse reconstruir(Long indicadorId) {
+        Indicador indicador = buscar(indicadorId);
+        if (indicador.getEstadistica() == null) {
+            throw new BusinessException("El indicador no está asociado a ninguna estadística");
+        }
+        rehacerSerie(indicador, LocalDate.now().withDayOfMonth(1));
+        return mapToResponse(indicadorRepository.save(indicador));
     }
 
     /**
      * Obtiene todos los indicadores.
-     * 
+     *
      * @return Lista de indicadores
      */
     @Transactional(readOnly = true)
     public List<Indicador> obtenerTodos() {
         return indicadorRepository.findAll();
     }
-}
 
+    /**
+     * Obtiene todos los indicadores con su tendencia.
+     *
+     * @return Lista de indicadores como DTO
+     */
+    @Transactional(readOnly = true)
+    public List<IndicadorResponse> listar() {
+        return indicadorRepository.findAll().stream()
+                .map(this::mapToResponse)
+                .toList();
+    }
+
+    private Indicador buscar(Long indicadorId) {
+        return indicadorRepository.findById(indicadorId)
+                .orElseThrow(() -> new ResourceNotFoundException("Indicador", "id", indicadorId));
+    }
+
+    private void rehacerSerie(Indicador indicador, LocalDate inicioMesActual) {
+        indicador.setSerie(new SerieIndicador());
+        estadisticaRepository.findByNombreOrderByPeriodoFinAsc(indicador.getEstadistica()).stream()
+                .filter(estadistica -> esMesCerrado(estadistica, inicioMesActual))
+                .forEach(estadistica -> incorporar(indicador, estadistica));
+    }
+
+    private static void incorporar(Indicador indicador, Estadistica estadistica) {
+        if (indicador.getSerie().registrar(estadistica.getPeriodoFin(), estadistica.getValor().doubleValue())) {
+            indicador.setValorActual(estadistica.getValor());
+        }
+    }
 
+    /**
+     * Solo forman la serie los meses naturales completos ya cerrados: el
+     * valor del mes en curso aún cambia.
+     */
+    private static boolean esMesCerrado(Estadistica estadistica, LocalDate inicioMesActual) {
+        LocalDate inicio = estadistica.getPeriodoInicio();
+        LocalDate fin = estadistica.getPeriodoFin();
+        return estadistica.getValor() != null
+                && inicio.getDayOfMonth() == 1
+                && fin.equals(inicio.withDayOfMonth(inicio.lengthOfMonth()))
+                && fin.isBefore(inicioMesActual);
+    }
+
+    private IndicadorResponse mapToResponse(Indicador indicador) {
+        SerieIndicador serie = indicador.getSerie();
+        return IndicadorResponse.builder()
+                .id(indicador.getIdIndicador())
+                .nombre(indicador.getNombre())
+                .descripcion(indicador.getDescripcion())
+                .estadistica(indicador.getEstadistica())
+                .valorActual(indicador.getValorActual())
+                .ewma(serie.getEwma())
+                .media(serie.media())
+                .desviacion(serie.desviacion())
+                .pendiente(serie.pendiente())
+                .tendencia(serie.getTendencia() != null ? serie.getTendencia() : TendenciaIndicador.ESTABLE)
+                .observaciones(serie.getObservaciones())
+                .ultimoPeriodoFin(serie.getUltimoPeriodoFin())
+                .build();
+    }
+}
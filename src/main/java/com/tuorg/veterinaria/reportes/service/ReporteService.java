@@ -3,43 +3,72 @@ package com.tuorg.veterinaria.reportes.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuorg.veterinaria.auditoria.aspect.Auditable;
 import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.common.util.EscritorXlsx;
 import com.tuorg.veterinaria.reportes.dto.EstadisticaResponse;
 import com.tuorg.veterinaria.reportes.dto.ReporteRequest;
 import com.tuorg.veterinaria.reportes.dto.ReporteResponse;
 import com.tuorg.veterinaria.common.event.ReporteGeneradoEvent;
 import com.tuorg.veterinaria.reportes.model.Estadistica;
+import com.tuorg.veterinaria.reportes.model.PeriodoReporte;
 import com.tuorg.veterinaria.reportes.model.Reporte;
+import com.tuorg.veterinaria.reportes.repository.ReporteDetalleRepository;
 import com.tuorg.veterinaria.reportes.repository.ReporteRepository;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 /**
  * Servicio para la gestión de reportes (Facade pattern).
  *
  * Coordina la generación de reportes combinando cálculos estadísticos y persistencia.
+ * El parámetro {@code fuentes} (IDs de fuentes de datos) añade al reporte las
+ * filas extraídas de esas fuentes: una hoja por fuente en Excel y el número
+ * de filas de cada una en PDF.
  */
 @Service
 public class ReporteService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ReporteService.class);
+
     private final ReporteRepository reporteRepository;
+    private final ReporteDetalleRepository reporteDetalleRepository;
     private final EstadisticaService estadisticaService;
+    private final FuenteDatosService fuenteDatosService;
     private final ObjectMapper objectMapper;
     private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public ReporteService(ReporteRepository reporteRepository,
+                          ReporteDetalleRepository reporteDetalleRepository,
                           EstadisticaService estadisticaService,
+                          FuenteDatosService fuenteDatosService,
                           ObjectMapper objectMapper,
                           ApplicationEventPublisher eventPublisher) {
         this.reporteRepository = reporteRepository;
+        this.reporteDetalleRepository = reporteDetalleRepository;
         this.estadisticaService = estadisticaService;
+        this.fuenteDatosService = fuenteDatosService;
         this.objectMapper = objectMapper;
         this.eventPublisher = eventPublisher;
     }
@@ -48,7 +77,9 @@ public class ReporteService {
      * Genera un reporte y retorna un DTO listo para ser expuesto en la API.
      */
     @Transactional
+    @Auditable
     public ReporteResponse generar(ReporteRequest request) {
+        validarFuentes(request.getParametros());
         Reporte reporte = new Reporte();
         reporte.setNombre(request.getNombre());
         reporte.setTipo(request.getTipo());
@@ -70,27 +101,221 @@ public class ReporteService {
     }
 
     /**
-     * Exporta un reporte como PDF (implementación placeholder).
+     * Comprueba que las fuentes de datos indicadas en los parámetros existen
+     * y tienen conector, para rechazar la solicitud antes de generarla.
+     *
+     * @param parametros Parámetros del reporte
+     * @throws BusinessException Si el parámetro fuentes no es válido o alguna fuente no tiene conector
+     */
+    @Transactional(readOnly = true)
+    public void validarFuentes(Map<String, Object> parametros) {
+        List<Long> fuentes = idsFuentes(parametros);
+        if (!fuentes.isEmpty()) {
+            fuenteDatosService.validarExtraccion(fuentes);
+        }
+    }
+
+    /**
+     * Exporta un reporte como PDF: datos del reporte, estadísticas del período
+     * y filas extraídas de cada fuente de datos del reporte.
      */
     @Transactional(readOnly = true)
     public byte[] exportarPDF(Long reporteId) {
-        reporteRepository.findById(reporteId)
+        Reporte reporte = reporteRepository.findById(reporteId)
                 .orElseThrow(() -> new BusinessException("Reporte no encontrado para exportar a PDF"));
-        // Nota: La generación real de PDF se implementará con iText o JasperReports
-        // cuando se requiera la funcionalidad completa de exportación
-        return new byte[0];
+        PeriodoReporte periodo = PeriodoReporte.de(reporte.getTipo(), toMap(reporte.getParametros()),
+                reporte.getFechaGeneracion().toLocalDate());
+
+        List<String> lineas = new ArrayList<>();
+        lineas.add("Tipo: " + (reporte.getTipo() != null ? reporte.getTipo() : "-"));
+        lineas.add("Período: " + periodo.inicio() + " a " + periodo.fin());
+        lineas.add("Generado: " + reporte.getFechaGeneracion().withNano(0).toString().replace('T', ' '));
+        lineas.add("");
+        List<Estadistica> estadisticas = estadisticaService.obtenerPorPeriodo(periodo);
+        if (estadisticas.isEmpty()) {
+            lineas.add("Sin estadísticas calculadas para el período");
+        }
+        for (Estadistica estadistica : estadisticas) {
+            lineas.add(estadistica.getNombre() + ": " + estadistica.getValor().toPlainString());
+        }
+        List<Long> fuentes = idsFuentes(toMap(reporte.getParametros()));
+        if (!fuentes.isEmpty()) {
+            Map<String, Long> filasPorFuente = new LinkedHashMap<>();
+            fuenteDatosService.extraer(fuentes, fila -> filasPorFuente.merge(fila.fuente(), 1L, Long::sum));
+            lineas.add("");
+            filasPorFuente.forEach((fuente, filas) -> lineas.add("Fuente " + fuente + ": " + filas + " filas"));
+        }
+
+        try (PDDocument documento = new PDDocument();
+             ByteArrayOutputStream salida = new ByteArrayOutputStream()) {
+            escribirPdf(documento, reporte.getNombre(), lineas);
+            documento.save(salida);
+            return salida.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al generar el PDF del reporte", e);
+        }
+    }
+
+    /**
+     * Obtiene el nombre de archivo con el que se exporta un reporte.
+     * Permite validar que el reporte existe antes de empezar a escribir.
+     */
+    @Transactional(readOnly = true)
+    public String nombreArchivo(Long reporteId, String extension) {
+        Reporte reporte = reporteRepository.findById(reporteId)
+                .orElseThrow(() -> new BusinessException("Reporte no encontrado para exportar"));
+        String base = reporte.getNombre() != null ? reporte.getNombre().replaceAll("[^\\p{L}\\p{N} _-]", "_").trim() : "";
+        return (base.isEmpty() ? "reporte_" + reporteId : base) + "." + extension;
     }
 
     /**
-     * Exporta un reporte como Excel (implementación placeholder).
+     * Exporta un reporte como Excel directamente sobre la salida: una hoja
+     * de resumen con las estadísticas del período, el detalle de citas y
+     * facturas, leído con cursor y escrito fila a fila, y una hoja por cada
+     * fuente de datos del reporte. Las hojas se escriben una tras otra, así
+     * que cada fuente se extrae por separado.
      */
     @Transactional(readOnly = true)
-    public byte[] exportarExcel(Long reporteId) {
-        reporteRepository.findById(reporteId)
+    public void exportarExcel(Long reporteId, OutputStream salida) throws IOException {
+        Reporte reporte = reporteRepository.findById(reporteId)
                 .orElseThrow(() -> new BusinessException("Reporte no encontrado para exportar a Excel"));
-        // Nota: La generación real de Excel se implementará con Apache POI
-        // cuando se requiera la funcionalidad completa de exportación
-        return new byte[0];
+        PeriodoReporte periodo = PeriodoReporte.de(reporte.getTipo(), toMap(reporte.getParametros()),
+                reporte.getFechaGeneracion().toLocalDate());
+
+        long inicio = System.currentTimeMillis();
+        long[] filas = {0, 0, 0};
+        try (EscritorXlsx libro = new EscritorXlsx(salida)) {
+            libro.iniciarHoja("Resumen", "Concepto", "Valor", "Desde", "Hasta");
+            libro.escribirFila("Reporte", reporte.getNombre());
+            libro.escribirFila("Tipo", reporte.getTipo());
+            libro.escribirFila("Generado", reporte.getFechaGeneracion());
+            libro.escribirFila("Período", null, periodo.inicio(), periodo.fin());
+            for (Estadistica estadistica : estadisticaService.obtenerPorPeriodo(periodo)) {
+                libro.escribirFila(estadistica.getNombre(), estadistica.getValor(),
+                        estadistica.getPeriodoInicio(), estadistica.getPeriodoFin());
+            }
+
+            libro.iniciarHoja("Citas", "ID", "Fecha y hora", "Paciente", "Veterinario",
+                    "Tipo de servicio", "Estado", "Motivo");
+            reporteDetalleRepository.recorrerCitas(periodo.inicio(), periodo.fin(), fila -> {
+                escribirFila(libro, fila.idCita(), fila.fechaHora(), fila.paciente(), fila.veterinario(),
+                        fila.tipoServicio(), fila.estado(), fila.motivo());
+                filas[0]++;
+            });
+
+            libro.iniciarHoja("Facturas", "Número", "Fecha de emisión", "Cliente", "Correo",
+                    "Estado", "Forma de pago", "Total");
+            reporteDetalleRepository.recorrerFacturas(periodo.inicio(), periodo.fin(), fila -> {
+                escribirFila(libro, fila.numero(), fila.fechaEmision(), fila.cliente(), fila.correo(),
+                        fila.estado(), fila.formaPago(), fila.total());
+                filas[1]++;
+            });
+
+            for (Long idFuente : idsFuentes(toMap(reporte.getParametros()))) {
+                filas[2] += escribirFuente(libro, idFuente);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        logger.info("Reporte {} exportado a Excel: {} citas, {} facturas y {} filas de fuentes en {} ms",
+                reporteId, filas[0], filas[1], filas[2], System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * Escribe las filas de una fuente en una hoja propia. Las columnas son
+     * las de la primera fila; una fuente sin filas no añade hoja.
+     */
+    private long escribirFuente(EscritorXlsx libro, Long idFuente) {
+        List<String> columnas = new ArrayList<>();
+        boolean[] iniciada = {false};
+        return fuenteDatosService.extraer(List.of(idFuente), fila -> {
+            try {
+                if (!iniciada[0]) {
+                    columnas.addAll(fila.valores().keySet());
+                    libro.iniciarHoja("Fuente " + fila.fuente(), columnas.toArray(String[]::new));
+                    iniciada[0] = true;
+                }
+                libro.escribirFila(columnas.stream().map(fila.valores()::get).toArray());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * IDs del parámetro fuentes: una lista o un texto separado por comas.
+     */
+    static List<Long> idsFuentes(Map<String, Object> parametros) {
+        Object valor = parametros != null ? parametros.get("fuentes") : null;
+        if (valor == null) {
+            return List.of();
+        }
+        Collection<?> elementos = valor instanceof Collection<?> lista ? lista : List.of(valor.toString().split(","));
+        List<Long> ids = new ArrayList<>();
+        for (Object elemento : elementos) {
+            String texto = String.valueOf(elemento).trim();
+            if (texto.isEmpty()) {
+                continue;
+            }
+            try {
+                ids.add(Long.valueOf(texto));
+            } catch (NumberFormatException e) {
+                throw new BusinessException("El parámetro fuentes debe contener IDs de fuentes de datos");
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Escribe un título y líneas de texto, pasando de página cuando se llena.
+     */
+    private static void escribirPdf(PDDocument documento, String titulo, List<String> lineas) throws IOException {
+        float margen = 56;
+        float interlineado = 16;
+        PDPage pagina = new PDPage(PDRectangle.A4);
+        documento.addPage(pagina);
+        PDPageContentStream contenido = new PDPageContentStream(documento, pagina);
+        try {
+            float y = pagina.getMediaBox().getHeight() - margen;
+            escribirLinea(contenido, PDType1Font.HELVETICA_BOLD, 16, margen, y, titulo);
+            y -= interlineado * 2;
+            for (String linea : lineas) {
+                if (y < margen) {
+                    contenido.close();
+                    pagina = new PDPage(PDRectangle.A4);
+                    documento.addPage(pagina);
+                    contenido = new PDPageContentStream(documento, pagina);
+                    y = pagina.getMediaBox().getHeight() - margen;
+                }
+                escribirLinea(contenido, PDType1Font.HELVETICA, 11, margen, y, linea);
+                y -= interlineado;
+            }
+        } finally {
+            contenido.close();
+        }
+    }
+
+    private static void escribirLinea(PDPageContentStream contenido, PDType1Font fuente, float tamano,
+                                      float x, float y, String texto) throws IOException {
+        if (texto == null || texto.isEmpty()) {
+            return;
+        }
+        // Las fuentes estándar solo cubren Latin-1 (WinAnsiEncoding)
+        StringBuilder limpio = new StringBuilder(texto.length());
+        texto.chars().forEach(c -> limpio.append(c < 256 && !Character.isISOControl(c) ? (char) c : '?'));
+        contenido.beginText();
+        contenido.setFont(fuente, tamano);
+        contenido.newLineAtOffset(x, y);
+        contenido.showText(limpio.toString());
+        contenido.endText();
+    }
+
+    private static void escribirFila(EscritorXlsx libro, Object... valores) {
+        try {
+            libro.escribirFila(valores);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     private ReporteResponse mapToResponse(Reporte reporte, List<Estadistica> estadisticas) {
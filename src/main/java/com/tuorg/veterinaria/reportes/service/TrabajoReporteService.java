@@ -0,0 +1,494 @@
+package com.tuorg.veterinaria.reportes.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tuorg.veterinaria.archivos.dto.ArchivoAdjuntoResponse;
+import com.tuorg.veterinaria.archivos.model.ArchivoAdjunto;
+import com.tuorg.veterinaria.archivos.service.AlmacenArchivosService;
+import com.tuorg.veterinaria.auditoria.aspect.Auditable;
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.common.exception.ResourceNotFoundException;
+import com.tuorg.veterinaria.reportes.dto.ReporteRequest;
+import com.tuorg.veterinaria.reportes.dto.ReporteResponse;
+import com.tuorg.veterinaria.reportes.dto.TrabajoReporteResponse;
+import com.tuorg.veterinaria.reportes.model.EstadoTrabajoReporte;
+import com.tuorg.veterinaria.reportes.model.FormatoReporte;
+import com.tuorg.veterinaria.reportes.model.PeriodoReporte;
+import com.tuorg.veterinaria.reportes.repository.TrabajoReporteRepository;
+import com.tuorg.veterinaria.reportes.repository.TrabajoReporteRepository.Trabajo;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servicio de la cola de generación de reportes.
+ *
+ * Las solicitudes se guardan en la tabla trabajos_reporte y se generan en
+ * segundo plano con un número acotado de hilos, de modo que la petición
+ * HTTP responde de inmediato con el identificador del trabajo. El
+ * resultado se guarda en el almacén de archivos y se reutiliza durante
+ * un tiempo para cualquier solicitud con el mismo tipo, formato y
+ * parámetros normalizados, aunque la haga otro usuario.
+ *
+ * Cada nodo renueva periódicamente el latido de los trabajos que genera y
+ * barre la cola: los trabajos en proceso sin latido reciente (su nodo cayó)
+ * vuelven a estar pendientes, y los pendientes que nadie tomó a tiempo se
+ * encolan localmente. El barrido es seguro en varios nodos a la vez porque
+ * las filas vencidas se bloquean con SKIP LOCKED y solo un hilo puede
+ * reclamar cada trabajo.
+ *
+ * @author Equipo de Desarrollo
+ * @version 1.0.0
+ */
+@Service
+public class TrabajoReporteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrabajoReporteService.class);
+
+    /**
+     * Tiempo a partir del cual un trabajo en proceso deja de renovar su
+     * latido y se considera interrumpido aunque su nodo siga vivo.
+     */
+    private static final Duration DURACION_MAXIMA = Duration.ofMinutes(30);
+
+    /**
+     * Intentos permitidos por trabajo antes de darlo por fallido.
+     */
+    private static final int MAXIMO_INTENTOS = 3;
+
+    private static final int LONGITUD_MAXIMA_ERROR = 500;
+
+    /**
+     * Resultado descargable de un trabajo completado.
+     *
+     * @param archivoHash SHA-256 del archivo en el almacén
+     * @param nombreArchivo Nombre sugerido para la descarga
+     */
+    public record ResultadoTrabajo(String archivoHash, long tamanoBytes, String tipoContenido,
+                                   String nombreArchivo) {
+    }
+
+    /**
+     * Repositorio JDBC de la cola.
+     */
+    private final TrabajoReporteRepository trabajoReporteRepository;
+
+    /**
+     * Servicio que genera y exporta los reportes.
+     */
+    private final ReporteService reporteService;
+
+    /**
+     * Almacén donde se guardan los resultados.
+     */
+    private final AlmacenArchivosService almacenArchivosService;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Tiempo durante el que se reutiliza un resultado.
+     */
+    private final Duration ttl;
+
+    /**
+     * Tamaño máximo de un resultado en bytes.
+     */
+    private final long tamanoMaximo;
+
+    /**
+     * Tiempo sin latido tras el que un trabajo en proceso se da por
+     * interrumpido; también es la espera antes de tomar un pendiente ajeno.
+     */
+    private final Duration vencimiento;
+
+    /**
+     * Hilos que generan los reportes.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Hilo del latido y del barrido de la cola.
+     */
+    private final ScheduledExecutorService programador;
+
+    /**
+     * Trabajos encolados en este nodo que aún no terminaron.
+     */
+    private final Set<Long> encolados = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Trabajos que este nodo está generando.
+     */
+    private final Set<Long> enCurso = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param trabajoReporteRepository Repositorio JDBC de la cola
+     * @param reporteService Servicio de reportes
+     * @param almacenArchivosService Almacén de archivos
+     * @param objectMapper Serializador JSON
+     * @param hilos Reportes generados simultáneamente como máximo
+     * @param ttl Tiempo durante el que se reutiliza un resultado
+     * @param tamanoMaximo Tamaño máximo de un resultado en bytes
+     * @param vencimiento Tiempo sin latido tras el que un trabajo se da por interrumpido
+     */
+    @Autowired
+    public TrabajoReporteService(TrabajoReporteRepository trabajoReporteRepository,
+                                 ReporteService reporteService,
+                                 AlmacenArchivosService almacenArchivosService,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.reportes.trabajos.hilos:2}") int hilos,
+                                 @Value("${app.reportes.trabajos.cache-ttl:PT1H}") Duration ttl,
+                                 @Value("${app.reportes.trabajos.tamano-maximo:104857600}") long tamanoMaximo,
+                                 @Value("${app.reportes.trabajos.vencimiento:PT2M}") Duration vencimiento) {
+        this.trabajoReporteRepository = trabajoReporteRepository;
+        this.reporteService = reporteService;
+        this.almacenArchivosService = almacenArchivosService;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.tamanoMaximo = tamanoMaximo;
+        this.vencimiento = vencimiento;
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, hilos), tarea -> {
+            Thread hilo = new Thread(tarea, "reportes-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        this.programador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "reportes-barrido");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Solicita la generación de un reporte. Si hay un trabajo idéntico en
+     * curso o un resultado vigente, se devuelve ese trabajo.
+     *
+     * @param request Datos del reporte
+     * @return Trabajo que atenderá la solicitud
+     * @throws BusinessException Si los parámetros no son válidos
+     */
+    @Auditable
+    public TrabajoReporteResponse solicitar(ReporteRequest request) {
+        FormatoReporte formato = request.getFormato() != null ? request.getFormato() : FormatoReporte.JSON;
+        String parametros = normalizar(request.getTipo(), request.getParametros());
+        String huella = huella(request.getTipo(), formato, parametros);
+
+        Optional<Trabajo> vigente = trabajoReporteRepository.buscarVigente(huella);
+        if (vigente.isPresent()) {
+            return mapToResponse(vigente.get(), true);
+        }
+        reporteService.validarFuentes(request.getParametros());
+        Optional<Long> idTrabajo = trabajoReporteRepository.insertar(huella, request.getNombre(), request.getTipo(),
+                formato, parametros, request.getGeneradoPor());
+        if (idTrabajo.isEmpty()) {
+            // Otra solicitud idéntica encoló el trabajo entre la búsqueda y la inserción
+            return trabajoReporteRepository.buscarVigente(huella)
+                    .map(trabajo -> mapToResponse(trabajo, true))
+                    .orElseThrow(() -> new BusinessException("No se pudo encolar el reporte, intente nuevamente"));
+        }
+        encolar(idTrabajo.get());
+        return obtener(idTrabajo.get());
+    }
+
+    /**
+     * Obtiene el estado de un trabajo.
+     *
+     * @param idTrabajo ID del trabajo
+     * @return Estado del trabajo
+     * @throws ResourceNotFoundException Si el trabajo no existe
+     */
+    public TrabajoReporteResponse obtener(Long idTrabajo) {
+        return mapToResponse(buscar(idTrabajo), false);
+    }
+
+    /**
+     * Obtiene el resultado de un trabajo para descargarlo.
+     *
+     * @param idTrabajo ID del trabajo
+     * @return Datos del archivo resultado
+     * @throws BusinessException Si el trabajo aún no ha terminado o falló
+     */
+    public ResultadoTrabajo obtenerResultado(Long idTrabajo) {
+        Trabajo trabajo = buscar(idTrabajo);
+        if (trabajo.estado() == EstadoTrabajoReporte.FALLIDO) {
+            throw new BusinessException("La generación del reporte falló: " + trabajo.error());
+        }
+        if (trabajo.estado() != EstadoTrabajoReporte.COMPLETADO) {
+            throw new BusinessException("El reporte todavía se está generando");
+        }
+        ArchivoAdjunto archivo = almacenArchivosService.obtener(trabajo.archivoHash());
+        return new ResultadoTrabajo(archivo.getHashSha256(), archivo.getTamanoBytes(), archivo.getTipoContenido(),
+                nombreArchivo(trabajo));
+    }
+
+    /**
+     * Escribe el resultado de un trabajo en el flujo de salida.
+     *
+     * @param resultado Resultado obtenido con {@link #obtenerResultado(Long)}
+     * @param salida Flujo de destino (no se cierra)
+     * @throws IOException Si falla la lectura o la escritura
+     */
+    public void transferirResultado(ResultadoTrabajo resultado, OutputStream salida) throws IOException {
+        almacenArchivosService.transferir(resultado.archivoHash(), 0, resultado.tamanoBytes(), salida);
+    }
+
+    /**
+     * Programa el latido y el barrido de la cola al arrancar. El intervalo
+     * es una cuarta parte del vencimiento, así que un nodo vivo renueva
+     * varias veces cada latido antes de que otro lo dé por caído.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        programador.scheduleWithFixedDelay(this::barrerSinFallar, 0,
+                Math.max(1, vencimiento.toMillis() / 4), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Renueva el latido de los trabajos de este nodo, devuelve a la cola los
+     * que perdieron el suyo y encola los pendientes que nadie tomó.
+     */
+    void barrer() {
+        Instant ahora = Instant.now();
+        if (!enCurso.isEmpty()) {
+            trabajoReporteRepository.renovarLatido(List.copyOf(enCurso), ahora.minus(DURACION_MAXIMA));
+        }
+        List<Long> interrumpidos = trabajoReporteRepository.reencolarVencidos(
+                ahora.minus(vencimiento), MAXIMO_INTENTOS);
+        List<Long> pendientes = trabajoReporteRepository.pendientes(ahora.minus(vencimiento));
+        interrumpidos.forEach(this::encolar);
+        pendientes.forEach(this::encolar);
+        if (!interrumpidos.isEmpty() || !pendientes.isEmpty()) {
+            logger.info("Cola de reportes barrida: {} trabajos interrumpidos, {} pendientes sin tomar",
+                    interrumpidos.size(), pendientes.size());
+        }
+    }
+
+    /**
+     * Libera los hilos al cerrar el contexto. Los trabajos sin terminar
+     * dejan de renovar su latido y los retoma otro nodo o el próximo
+     * arranque.
+     */
+    @PreDestroy
+    public void cerrar() {
+        programador.shutdownNow();
+        executor.shutdown();
+    }
+
+    /**
+     * Calcula la huella de una solicitud.
+     *
+     * @param tipo Tipo de reporte
+     * @param formato Formato del resultado
+     * @param parametros Parámetros normalizados en JSON
+     * @return SHA-256 en hexadecimal
+     */
+    public static String huella(String tipo, FormatoReporte formato, String parametros) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String tipoNormalizado = tipo != null ? tipo.trim().toUpperCase(Locale.ROOT) : "";
+            digest.update((tipoNormalizado + "\n" + formato.name() + "\n").getBytes(StandardCharsets.UTF_8));
+            digest.update(parametros.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Normaliza los parámetros para que solicitudes equivalentes tengan la
+     * misma huella: claves ordenadas, sin valores vacíos y con el período
+     * resuelto a fechas explícitas, ya que por defecto depende del día.
+     */
+    String normalizar(String tipo, Map<String, Object> parametros) {
+        Map<String, Object> normalizados = new TreeMap<>();
+        if (parametros != null) {
+            parametros.forEach((clave, valor) -> {
+                Object limpio = valor instanceof String texto ? texto.trim() : valor;
+                if (clave != null && limpio != null && !"".equals(limpio)) {
+                    normalizados.put(clave.trim(), limpio);
+                }
+            });
+        }
+        PeriodoReporte periodo = PeriodoReporte.de(tipo, normalizados, LocalDate.now());
+        normalizados.put("fechaInicio", periodo.inicio().toString());
+        normalizados.put("fechaFin", periodo.fin().toString());
+        try {
+            return objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                    .writeValueAsString(normalizados);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("Los parámetros del reporte no tienen un formato JSON válido");
+        }
+    }
+
+    private void encolar(Long idTrabajo) {
+        // Un trabajo ya en la cola local no se vuelve a añadir en cada barrido
+        if (!encolados.add(idTrabajo)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                ejecutar(idTrabajo);
+            } finally {
+                encolados.remove(idTrabajo);
+            }
+        });
+    }
+
+    private void barrerSinFallar() {
+        try {
+            barrer();
+        } catch (RuntimeException e) {
+            logger.error("Error al barrer la cola de reportes: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Genera un trabajo si sigue pendiente. Cualquier error lo deja fallido
+     * con el motivo, sin reintentos automáticos.
+     */
+    void ejecutar(Long idTrabajo) {
+        if (!trabajoReporteRepository.reclamar(idTrabajo)) {
+            return;
+        }
+        enCurso.add(idTrabajo);
+        long inicio = System.currentTimeMillis();
+        try {
+            Trabajo trabajo = buscar(idTrabajo);
+            ReporteRequest request = new ReporteRequest();
+            request.setNombre(trabajo.nombre());
+            request.setTipo(trabajo.tipo());
+            request.setGeneradoPor(trabajo.solicitadoPor());
+            request.setParametros(toMap(trabajo.parametros()));
+            request.setFormato(trabajo.formato());
+
+            ReporteResponse reporte = reporteService.generar(request);
+            ArchivoAdjuntoResponse archivo = guardarResultado(trabajo, reporte);
+            trabajoReporteRepository.completar(idTrabajo, reporte.getId(), archivo.getHash(), Instant.now().plus(ttl));
+            logger.info("Trabajo de reporte {} ({}) completado en {} ms, {} bytes",
+                    idTrabajo, trabajo.formato(), System.currentTimeMillis() - inicio, archivo.getTamanoBytes());
+        } catch (RuntimeException e) {
+            logger.warn("Trabajo de reporte {} fallido: {}", idTrabajo, e.getMessage(), e);
+            trabajoReporteRepository.fallar(idTrabajo, recortar(e.getMessage() != null
+                    ? e.getMessage() : e.getClass().getSimpleName()));
+        } finally {
+            enCurso.remove(idTrabajo);
+        }
+    }
+
+    private ArchivoAdjuntoResponse guardarResultado(Trabajo trabajo, ReporteResponse reporte) {
+        FormatoReporte formato = trabajo.formato();
+        try {
+            if (formato == FormatoReporte.XLSX) {
+                // El libro se escribe a un temporal para no tenerlo completo en memoria
+                Path temporal = Files.createTempFile("reporte-", "." + formato.getExtension());
+                try {
+                    try (OutputStream salida = Files.newOutputStream(temporal)) {
+                        reporteService.exportarExcel(reporte.getId(), salida);
+                    }
+                    try (InputStream contenido = Files.newInputStream(temporal)) {
+                        return guardar(contenido, trabajo);
+                    }
+                } finally {
+                    Files.deleteIfExists(temporal);
+                }
+            }
+            byte[] contenido = formato == FormatoReporte.PDF
+                    ? reporteService.exportarPDF(reporte.getId())
+                    : objectMapper.writeValueAsBytes(reporte);
+            return guardar(new ByteArrayInputStream(contenido), trabajo);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al guardar el resultado del reporte", e);
+        }
+    }
+
+    private ArchivoAdjuntoResponse guardar(InputStream contenido, Trabajo trabajo) {
+        return almacenArchivosService.guardar(contenido, trabajo.formato().getTipoContenido(),
+                nombreArchivo(trabajo), tamanoMaximo);
+    }
+
+    private Trabajo buscar(Long idTrabajo) {
+        return trabajoReporteRepository.buscar(idTrabajo)
+                .orElseThrow(() -> new ResourceNotFoundException("TrabajoReporte", "id", idTrabajo));
+    }
+
+    private static String nombreArchivo(Trabajo trabajo) {
+        String base = trabajo.nombre() != null ? trabajo.nombre().replaceAll("[^\\p{L}\\p{N} _-]", "_").trim() : "";
+        return (base.isEmpty() ? "reporte_" + trabajo.idTrabajo() : base) + "." + trabajo.formato().getExtension();
+    }
+
+    private static String recortar(String mensaje) {
+        return mensaje.length() > LONGITUD_MAXIMA_ERROR ? mensaje.substring(0, LONGITUD_MAXIMA_ERROR) : mensaje;
+    }
+
+    private TrabajoReporteResponse mapToResponse(Trabajo trabajo, boolean reutilizado) {
+        return TrabajoReporteResponse.builder()
+                .id(trabajo.idTrabajo())
+                .nombre(trabajo.nombre())
+                .tipo(trabajo.tipo())
+                .formato(trabajo.formato())
+                .parametros(toMap(trabajo.parametros()))
+                .estado(trabajo.estado())
+                .reutilizado(reutilizado)
+                .reporteId(trabajo.reporteId())
+                .error(trabajo.error())
+                .fechaSolicitud(fecha(trabajo.fechaSolicitud()))
+                .fechaFin(fecha(trabajo.fechaFin()))
+                .expiraEn(fecha(trabajo.expiraEn()))
+                .build();
+    }
+
+    private static LocalDateTime fecha(Instant instante) {
+        return instante != null ? LocalDateTime.ofInstant(instante, ZoneId.systemDefault()) : null;
+    }
+
+    private Map<String, Object> toMap(String parametrosJson) {
+        if (parametrosJson == null || parametrosJson.isBlank()) {
+            return Collections.emptyMap();
+        }
+        try {
+            return objectMapper.readValue(parametrosJson, new TypeReference<Map<String, Object>>() {});
+        } catch (JsonProcessingException e) {
+            return Collections.emptyMap();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+-- =====================================================
+-- Migración V10: Resúmenes diarios de facturación y citas
+-- Se mantienen en la misma transacción que los cambios de estado
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS resumen_diario_facturas (
+    dia DATE NOT NULL,
+    estado VARCHAR(20) NOT NULL,
+    cantidad BIGINT NOT NULL DEFAULT 0,
+    monto NUMERIC(16,2) NOT NULL DEFAULT 0,
+    CONSTRAINT pk_resumen_diario_facturas PRIMARY KEY (dia, estado)
+);
+
+-- tipo_servicio vacío representa citas sin tipo (la clave primaria no admite NULL)
+CREATE TABLE IF NOT EXISTS resumen_diario_citas (
+    dia DATE NOT NULL,
+    estado VARCHAR(30) NOT NULL,
+    tipo_servicio VARCHAR(50) NOT NULL DEFAULT '',
+    veterinario_id BIGINT NOT NULL,
+    cantidad BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT pk_resumen_diario_citas PRIMARY KEY (dia, estado, tipo_servicio, veterinario_id)
+);
+
+-- Reconstrucción por mes desde el histórico
+CREATE INDEX IF NOT EXISTS idx_citas_fecha_hora ON citas (fecha_hora);
+
+-- Tendencia mensual de clientes nuevos
+CREATE INDEX IF NOT EXISTS idx_clientes_fecha_registro ON clientes (fecha_registro);
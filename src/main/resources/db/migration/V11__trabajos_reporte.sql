@@ -0,0 +1,35 @@
+-- =====================================================
+-- Migración V11: Cola de trabajos de reportes
+-- Cada solicitud se genera en segundo plano; el resultado se guarda en el
+-- almacén de archivos y se reutiliza para solicitudes con la misma huella
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS trabajos_reporte (
+    id_trabajo BIGSERIAL PRIMARY KEY,
+    -- SHA-256 del tipo, el formato y los parámetros normalizados
+    huella CHAR(64) NOT NULL,
+    nombre VARCHAR(120) NOT NULL,
+    tipo VARCHAR(50),
+    formato VARCHAR(10) NOT NULL CHECK (formato IN ('JSON', 'PDF', 'XLSX')),
+    parametros JSONB,
+    solicitado_por BIGINT REFERENCES usuarios(id_usuario),
+    estado VARCHAR(20) NOT NULL CHECK (estado IN ('PENDIENTE', 'EN_PROCESO', 'COMPLETADO', 'FALLIDO')),
+    intentos INTEGER NOT NULL DEFAULT 0,
+    reporte_id BIGINT REFERENCES reportes(id_reporte) ON DELETE SET NULL,
+    archivo_hash CHAR(64) REFERENCES archivos_adjuntos(hash_sha256),
+    error VARCHAR(500),
+    fecha_solicitud TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    fecha_inicio TIMESTAMP WITH TIME ZONE,
+    fecha_fin TIMESTAMP WITH TIME ZONE,
+    expira_en TIMESTAMP WITH TIME ZONE
+);
+
+-- Un solo trabajo activo por huella: las solicitudes idénticas se unen a él
+CREATE UNIQUE INDEX IF NOT EXISTS uq_trabajos_reporte_activo
+    ON trabajos_reporte (huella) WHERE estado IN ('PENDIENTE', 'EN_PROCESO');
+
+CREATE INDEX IF NOT EXISTS idx_trabajos_reporte_completados
+    ON trabajos_reporte (huella, expira_en DESC) WHERE estado = 'COMPLETADO';
+
+CREATE INDEX IF NOT EXISTS idx_trabajos_reporte_pendientes
+    ON trabajos_reporte (fecha_solicitud) WHERE estado = 'PENDIENTE';
@@ -0,0 +1,31 @@
+-- =====================================================
+-- Migración V12: Tendencia incremental de indicadores
+-- Cada indicador sigue la serie mensual de una estadística y guarda un
+-- estado de tamaño fijo que se actualiza con cada mes cerrado
+-- =====================================================
+
+ALTER TABLE indicadores
+    ADD COLUMN IF NOT EXISTS estadistica VARCHAR(120),
+    ADD COLUMN IF NOT EXISTS observaciones BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS ultimo_periodo_fin DATE,
+    ADD COLUMN IF NOT EXISTS ewma DOUBLE PRECISION,
+    -- Sumas con decaimiento exponencial para media, varianza y pendiente
+    ADD COLUMN IF NOT EXISTS suma_pesos DOUBLE PRECISION NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS suma_x DOUBLE PRECISION NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS suma_y DOUBLE PRECISION NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS suma_xx DOUBLE PRECISION NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS suma_xy DOUBLE PRECISION NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS suma_yy DOUBLE PRECISION NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS tendencia VARCHAR(20)
+        CHECK (tendencia IN ('CRECIENTE', 'DECRECIENTE', 'ESTABLE', 'ANOMALA')),
+    ADD COLUMN IF NOT EXISTS fecha_actualizacion TIMESTAMP WITH TIME ZONE;
+
+CREATE INDEX IF NOT EXISTS idx_indicadores_estadistica ON indicadores (estadistica);
+
+INSERT INTO indicadores (nombre, descripcion, estadistica, valor_actual) VALUES
+    ('IngresosMensuales', 'Ingresos cobrados por mes', 'ingresos', NULL),
+    ('VolumenCitasMensual', 'Citas no canceladas por mes', 'volumen_citas', NULL),
+    ('TasaInasistenciaMensual', 'Porcentaje de citas sin atender por mes', 'tasa_inasistencia', NULL),
+    ('RotacionStockMensual', 'Rotación del inventario por mes', 'rotacion_stock', NULL),
+    ('VacunacionesMensuales', 'Vacunas aplicadas por mes', 'vacunaciones_aplicadas', NULL)
+ON CONFLICT (nombre) DO NOTHING;
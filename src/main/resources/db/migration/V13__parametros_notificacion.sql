@@ -0,0 +1,50 @@
+-- =====================================================
+-- Migración V13: Propagación de cambios en parámetros del sistema
+-- Cada alta, modificación o baja recibe una versión creciente y se
+-- anuncia por el canal 'parametros_sistema' (LISTEN/NOTIFY) para que
+-- todos los nodos actualicen su caché sin releer la tabla completa
+-- =====================================================
+
+CREATE SEQUENCE IF NOT EXISTS parametros_sistema_version_seq;
+
+ALTER TABLE parametros_sistema
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT nextval('parametros_sistema_version_seq');
+
+CREATE OR REPLACE FUNCTION parametros_sistema_versionar() RETURNS TRIGGER AS $$
+BEGIN
+    NEW.version := nextval('parametros_sistema_version_seq');
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- El payload lleva el valor (máx. 500 caracteres, muy por debajo del límite
+-- de 8000 bytes de NOTIFY) para que el nodo receptor no tenga que consultar.
+-- Las bajas también consumen versión para ordenarse frente a altas tardías
+CREATE OR REPLACE FUNCTION parametros_sistema_notificar() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' OR (TG_OP = 'UPDATE' AND OLD.clave <> NEW.clave) THEN
+        PERFORM pg_notify('parametros_sistema', json_build_object(
+            'operacion', 'BAJA',
+            'clave', OLD.clave,
+            'version', nextval('parametros_sistema_version_seq'))::text);
+    END IF;
+    IF TG_OP <> 'DELETE' THEN
+        PERFORM pg_notify('parametros_sistema', json_build_object(
+            'operacion', 'CAMBIO',
+            'clave', NEW.clave,
+            'valor', NEW.valor,
+            'version', NEW.version)::text);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_parametros_sistema_version ON parametros_sistema;
+CREATE TRIGGER trg_parametros_sistema_version
+    BEFORE INSERT OR UPDATE ON parametros_sistema
+    FOR EACH ROW EXECUTE FUNCTION parametros_sistema_versionar();
+
+DROP TRIGGER IF EXISTS trg_parametros_sistema_notificar ON parametros_sistema;
+CREATE TRIGGER trg_parametros_sistema_notificar
+    AFTER INSERT OR UPDATE OR DELETE ON parametros_sistema
+    FOR EACH ROW EXECUTE FUNCTION parametros_sistema_notificar();
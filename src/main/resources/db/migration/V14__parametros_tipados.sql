@@ -0,0 +1,7 @@
+-- =====================================================
+-- Migración V14: Parámetros leídos por los servicios en caliente
+-- =====================================================
+
+INSERT INTO parametros_sistema (clave, valor, descripcion, aplicacion) VALUES
+    ('citas.duracion.minutos', '30', 'Duración de una cita en minutos para validar solapamientos', 'citas')
+ON CONFLICT (clave) DO NOTHING;
@@ -0,0 +1,79 @@
+-- =====================================================
+-- Migración V15: logs_sistema particionada por mes
+-- Cada mes vive en su propia partición (logs_sistema_AAAA_MM), de modo que
+-- las consultas por rango solo recorren los meses implicados y los meses
+-- antiguos se archivan y eliminan sin DELETE masivos
+-- =====================================================
+
+ALTER TABLE logs_sistema RENAME TO logs_sistema_anterior;
+ALTER INDEX IF EXISTS logs_sistema_pkey RENAME TO logs_sistema_anterior_pkey;
+DROP INDEX IF EXISTS idx_logs_nivel;
+DROP INDEX IF EXISTS idx_logs_componente;
+DROP INDEX IF EXISTS idx_logs_fecha;
+
+-- La secuencia se conserva para que los IDs sigan creciendo
+ALTER SEQUENCE logs_sistema_id_log_seq OWNED BY NONE;
+
+-- La clave primaria debe incluir la columna de partición; (fecha_hora, id_log)
+-- es además el orden de la paginación por cursor
+CREATE TABLE logs_sistema (
+    id_log BIGINT NOT NULL DEFAULT nextval('logs_sistema_id_log_seq'),
+    fecha_hora TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    nivel VARCHAR(20) NOT NULL,
+    componente VARCHAR(100),
+    mensaje TEXT NOT NULL,
+    metadata JSONB,
+    PRIMARY KEY (fecha_hora, id_log)
+) PARTITION BY RANGE (fecha_hora);
+
+ALTER SEQUENCE logs_sistema_id_log_seq OWNED BY logs_sistema.id_log;
+
+CREATE INDEX IF NOT EXISTS idx_logs_nivel_fecha ON logs_sistema (nivel, fecha_hora DESC, id_log DESC);
+CREATE INDEX IF NOT EXISTS idx_logs_componente_fecha ON logs_sistema (componente, fecha_hora DESC, id_log DESC);
+
+-- Red de seguridad: recoge lo que llegue a un mes sin partición todavía.
+-- El mantenimiento crea los meses con antelación, así que debería estar vacía
+CREATE TABLE IF NOT EXISTS logs_sistema_default PARTITION OF logs_sistema DEFAULT;
+
+-- Crea la partición del mes indicado si no existe. Antes de adjuntarla
+-- traslada las filas de ese mes que hubieran caído en la partición por defecto
+CREATE OR REPLACE FUNCTION logs_sistema_crear_particion(mes DATE) RETURNS TEXT AS $$
+DECLARE
+    desde TIMESTAMP WITH TIME ZONE := date_trunc('month', mes::timestamp with time zone);
+    hasta TIMESTAMP WITH TIME ZONE := desde + INTERVAL '1 month';
+    nombre TEXT := 'logs_sistema_' || to_char(desde, 'YYYY_MM');
+BEGIN
+    IF to_regclass(nombre) IS NOT NULL THEN
+        RETURN NULL;
+    END IF;
+    EXECUTE format('CREATE TABLE %I (LIKE logs_sistema INCLUDING DEFAULTS)', nombre);
+    EXECUTE format('WITH movidas AS (DELETE FROM logs_sistema_default '
+                       || 'WHERE fecha_hora >= %L AND fecha_hora < %L RETURNING *) '
+                       || 'INSERT INTO %I SELECT * FROM movidas', desde, hasta, nombre);
+    -- Con el CHECK previo, ATTACH no necesita recorrer la tabla para validarla
+    EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I CHECK (fecha_hora >= %L AND fecha_hora < %L)',
+                   nombre, nombre || '_rango', desde, hasta);
+    EXECUTE format('ALTER TABLE logs_sistema ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   nombre, desde, hasta);
+    EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', nombre, nombre || '_rango');
+    RETURN nombre;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Particiones desde el mes más antiguo con datos hasta dos meses por delante
+DO $$
+DECLARE
+    mes DATE := date_trunc('month', COALESCE((SELECT MIN(fecha_hora) FROM logs_sistema_anterior),
+                                             CURRENT_TIMESTAMP))::date;
+BEGIN
+    WHILE mes <= (date_trunc('month', CURRENT_DATE) + INTERVAL '2 months')::date LOOP
+        PERFORM logs_sistema_crear_particion(mes);
+        mes := (mes + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO logs_sistema (id_log, fecha_hora, nivel, componente, mensaje, metadata)
+SELECT id_log, fecha_hora, nivel, componente, mensaje, metadata
+FROM logs_sistema_anterior;
+
+DROP TABLE logs_sistema_anterior;
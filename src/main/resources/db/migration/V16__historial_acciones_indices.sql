@@ -0,0 +1,11 @@
+-- =====================================================
+-- Migración V16: índices del historial de auditoría
+-- La consulta pagina por (fecha_hora, id_accion) descendente, con o sin
+-- filtro de usuario; con estos índices cada página es un recorrido acotado
+-- =====================================================
+
+CREATE INDEX IF NOT EXISTS idx_historial_acciones_usuario_fecha
+    ON historial_acciones (usuario_id, fecha_hora DESC, id_accion DESC);
+
+CREATE INDEX IF NOT EXISTS idx_historial_acciones_fecha
+    ON historial_acciones (fecha_hora DESC, id_accion DESC);
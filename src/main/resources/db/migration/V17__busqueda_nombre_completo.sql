@@ -0,0 +1,8 @@
+-- =====================================================
+-- Migración V17: índice del nombre completo para la búsqueda difusa
+-- "ana ramirez" se compara contra nombre y apellido juntos; sin este índice
+-- esa similitud solo podía puntuarse, no filtrarse
+-- =====================================================
+
+CREATE INDEX IF NOT EXISTS idx_personas_nombre_completo_trgm
+    ON personas USING GIN (LOWER(nombre || ' ' || apellido) gin_trgm_ops);
@@ -0,0 +1,100 @@
+-- =====================================================
+-- Migración V18: Versión persistida de la ficha integral del paciente
+-- El ETag de GET /pacientes/{id}/ficha sale de esta tabla, así que todos
+-- los nodos responden con la misma versión y también cuentan los cambios
+-- hechos por JDBC, SQL directo o una restauración
+-- =====================================================
+
+-- Las versiones salen de una secuencia (no de un contador por fila) para
+-- que un paciente nunca repita un valor ya entregado como ETag
+CREATE SEQUENCE IF NOT EXISTS fichas_paciente_version_seq;
+
+CREATE TABLE IF NOT EXISTS fichas_paciente_version (
+    paciente_id BIGINT PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+-- Un paciente sin fila tiene la versión 0. Se ordena por ID para que dos
+-- transacciones que tocan varios pacientes bloqueen las filas en el mismo
+-- orden y no se interbloqueen
+CREATE OR REPLACE FUNCTION ficha_paciente_incrementar(ids BIGINT[]) RETURNS VOID AS $$
+    INSERT INTO fichas_paciente_version AS v (paciente_id, version)
+    SELECT id, nextval('fichas_paciente_version_seq')
+    FROM (SELECT DISTINCT id FROM unnest(ids) AS id WHERE id IS NOT NULL ORDER BY id) AS afectados
+    ON CONFLICT (paciente_id) DO UPDATE SET version = EXCLUDED.version;
+$$ LANGUAGE sql;
+
+-- TG_ARGV[0]: columna con el ID de origen
+-- TG_ARGV[1]: cómo se llega a los pacientes (paciente, historia, cliente o factura)
+CREATE OR REPLACE FUNCTION ficha_paciente_modificada() RETURNS TRIGGER AS $$
+DECLARE
+    origen BIGINT[] := '{}';
+BEGIN
+    IF TG_OP <> 'INSERT' THEN
+        origen := origen || (to_jsonb(OLD) ->> TG_ARGV[0])::BIGINT;
+    END IF;
+    IF TG_OP <> 'DELETE' THEN
+        origen := origen || (to_jsonb(NEW) ->> TG_ARGV[0])::BIGINT;
+    END IF;
+    PERFORM ficha_paciente_incrementar(CASE TG_ARGV[1]
+        WHEN 'paciente' THEN origen
+        WHEN 'historia' THEN ARRAY(SELECT paciente_id FROM historias_clinicas WHERE id_historia = ANY(origen))
+        WHEN 'cliente' THEN ARRAY(SELECT id_paciente FROM pacientes WHERE cliente_id = ANY(origen))
+        WHEN 'factura' THEN ARRAY(SELECT p.id_paciente FROM facturas f
+                                  JOIN pacientes p ON p.cliente_id = f.cliente_id
+                                  WHERE f.id_factura = ANY(origen))
+    END);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- El alta de un paciente no necesita versión: nadie tiene aún un ETag suyo
+DROP TRIGGER IF EXISTS trg_ficha_pacientes ON pacientes;
+CREATE TRIGGER trg_ficha_pacientes
+    AFTER UPDATE OR DELETE ON pacientes
+    FOR EACH ROW EXECUTE FUNCTION ficha_paciente_modificada('id_paciente', 'paciente');
+
+DROP TRIGGER IF EXISTS trg_ficha_historias_clinicas ON historias_clinicas;
+CREATE TRIGGER trg_ficha_historias_clinicas
+    AFTER INSERT OR UPDATE OR DELETE ON historias_clinicas
+    FOR EACH ROW EXECUTE FUNCTION ficha_paciente_modificada('paciente_id', 'paciente');
+
+DROP TRIGGER IF EXISTS trg_ficha_registros_medicos ON registros_medicos;
+CREATE TRIGGER trg_ficha_registros_medicos
+    AFTER INSERT OR UPDATE OR DELETE ON registros_medicos
+    FOR EACH ROW EXECUTE FUNCTION ficha_paciente_modificada('historia_id', 'historia');
+
+DROP TRIGGER IF EXISTS trg_ficha_vacunaciones ON vacunaciones;
+CREATE TRIGGER trg_ficha_vacunaciones
+    AFTER INSERT OR UPDATE OR DELETE ON vacunaciones
+    FOR EACH ROW EXECUTE FUNCTION ficha_paciente_modificada('paciente_id', 'paciente');
+
+DROP TRIGGER IF EXISTS trg_ficha_desparasitaciones ON desparasitaciones;
+CREATE TRIGGER trg_ficha_desparasitaciones
+    AFTER INSERT OR UPDATE OR DELETE ON desparasitaciones
+    FOR EACH ROW EXECUTE FUNCTION ficha_paciente_modificada('paciente_id', 'paciente');
+
+DROP TRIGGER IF EXISTS trg_ficha_citas ON citas;
+CREATE TRIGGER trg_ficha_citas
+    AFTER INSERT OR UPDATE OR DELETE ON citas
+    FOR EACH ROW EXECUTE FUNCTION ficha_paciente_modificada('paciente_id', 'paciente');
+
+DROP TRIGGER IF EXISTS trg_ficha_facturas ON facturas;
+CREATE TRIGGER trg_ficha_facturas
+    AFTER INSERT OR UPDATE OR DELETE ON facturas
+    FOR EACH ROW EXECUTE FUNCTION ficha_paciente_modificada('cliente_id', 'cliente');
+
+DROP TRIGGER IF EXISTS trg_ficha_factura_lineas ON factura_lineas;
+CREATE TRIGGER trg_ficha_factura_lineas
+    AFTER INSERT OR UPDATE OR DELETE ON factura_lineas
+    FOR EACH ROW EXECUTE FUNCTION ficha_paciente_modificada('factura_id', 'factura');
+
+DROP TRIGGER IF EXISTS trg_ficha_clientes ON clientes;
+CREATE TRIGGER trg_ficha_clientes
+    AFTER UPDATE ON clientes
+    FOR EACH ROW EXECUTE FUNCTION ficha_paciente_modificada('id_usuario', 'cliente');
+
+DROP TRIGGER IF EXISTS trg_ficha_personas ON personas;
+CREATE TRIGGER trg_ficha_personas
+    AFTER UPDATE ON personas
+    FOR EACH ROW EXECUTE FUNCTION ficha_paciente_modificada('id_persona', 'cliente');
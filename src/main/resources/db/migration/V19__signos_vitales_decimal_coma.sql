@@ -0,0 +1,34 @@
+-- =====================================================
+-- Migración V19: Decimales con coma en la serie de signos vitales
+-- La carga de V4 solo reconocía el punto decimal ("38.5") mientras que el
+-- registro en la aplicación también acepta la coma ("38,5"), así que los
+-- registros antiguos escritos con coma quedaron fuera de la serie.
+-- Regla común (SignosVitalesService.NUMERO_TEXTO): dígitos con un separador
+-- decimal opcional, punto o coma; sin separadores de miles
+-- =====================================================
+
+INSERT INTO signos_vitales_series (paciente_id, metrica, fecha, valor, registro_id)
+SELECT v.paciente_id, v.metrica, v.fecha, v.valor, v.registro_id
+FROM (
+    SELECT h.paciente_id,
+           CASE LOWER(sv.key)
+               WHEN 'temp' THEN 'temperatura'
+               WHEN 'fc' THEN 'frecuencia_cardiaca'
+               WHEN 'fr' THEN 'frecuencia_respiratoria'
+               WHEN 'peso_kg' THEN 'peso'
+               ELSE LEFT(LOWER(sv.key), 50)
+           END AS metrica,
+           r.fecha,
+           CAST(REPLACE(BTRIM(sv.value #>> '{}'), ',', '.') AS DOUBLE PRECISION) AS valor,
+           r.id_registro AS registro_id
+    FROM registros_medicos r
+    JOIN historias_clinicas h ON h.id_historia = r.historia_id
+    CROSS JOIN LATERAL jsonb_each(r.signos_vitales) sv
+    WHERE jsonb_typeof(r.signos_vitales) = 'object'
+      AND jsonb_typeof(sv.value) = 'string'
+      AND sv.value #>> '{}' ~ '^\s*-?[0-9]+,[0-9]+\s*$'
+) v
+WHERE NOT EXISTS (
+    SELECT 1 FROM signos_vitales_series s
+    WHERE s.registro_id = v.registro_id AND s.metrica = v.metrica
+);
@@ -0,0 +1,48 @@
+-- =====================================================
+-- Migración V20: Versión persistida de conjuntos de datos derivados
+-- Los reportes que se cachean (antigüedad de cartera) comparan esta
+-- versión en lugar de un contador en memoria, así que todos los nodos
+-- ven los cambios hechos desde cualquier nodo, por SQL o por restauración
+-- =====================================================
+
+-- Igual que en V18 las versiones salen de una secuencia para que un
+-- ámbito nunca repita un valor ya entregado como ETag
+CREATE SEQUENCE IF NOT EXISTS versiones_datos_version_seq;
+
+CREATE TABLE IF NOT EXISTS versiones_datos (
+    ambito VARCHAR(50) PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+INSERT INTO versiones_datos (ambito, version)
+VALUES ('cartera', nextval('versiones_datos_version_seq'))
+ON CONFLICT (ambito) DO NOTHING;
+
+-- Sube la versión del ámbito TG_ARGV[0] una sola vez por transacción.
+-- Los triggers que la usan son diferidos: la fila del ámbito se bloquea
+-- justo antes del commit y no durante toda la transacción que escribe
+CREATE OR REPLACE FUNCTION version_datos_incrementar() RETURNS TRIGGER AS $$
+DECLARE
+    marca TEXT := 'versiones_datos.' || TG_ARGV[0];
+BEGIN
+    IF current_setting(marca, true) IS DISTINCT FROM 'si' THEN
+        PERFORM set_config(marca, 'si', true);
+        UPDATE versiones_datos SET version = nextval('versiones_datos_version_seq')
+        WHERE ambito = TG_ARGV[0];
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Cartera: facturas pendientes y nombre/correo del cliente
+DROP TRIGGER IF EXISTS trg_version_cartera_facturas ON facturas;
+CREATE CONSTRAINT TRIGGER trg_version_cartera_facturas
+    AFTER INSERT OR UPDATE OR DELETE ON facturas
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW EXECUTE FUNCTION version_datos_incrementar('cartera');
+
+DROP TRIGGER IF EXISTS trg_version_cartera_personas ON personas;
+CREATE CONSTRAINT TRIGGER trg_version_cartera_personas
+    AFTER UPDATE OR DELETE ON personas
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW EXECUTE FUNCTION version_datos_incrementar('cartera');
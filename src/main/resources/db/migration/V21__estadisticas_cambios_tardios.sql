@@ -0,0 +1,87 @@
+-- =====================================================
+-- Migración V21: Ingresos por fecha de pago y estadísticas de meses
+-- cerrados que se invalidan cuando cambian sus datos de origen
+-- =====================================================
+
+-- Fecha en que la factura pasó a PAGADA; los ingresos se imputan a ella
+ALTER TABLE facturas ADD COLUMN IF NOT EXISTS fecha_pago TIMESTAMP WITH TIME ZONE;
+
+CREATE INDEX IF NOT EXISTS idx_facturas_fecha_pago ON facturas (fecha_pago) WHERE estado = 'PAGADA';
+
+-- La fecha de pago la pone la base para cualquier escritor (servicio,
+-- SQL directo o importación) y se borra si la factura deja de estar pagada
+CREATE OR REPLACE FUNCTION factura_fecha_pago() RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.estado = 'PAGADA' THEN
+        IF TG_OP = 'UPDATE' AND OLD.estado = 'PAGADA' THEN
+            NEW.fecha_pago := COALESCE(NEW.fecha_pago, OLD.fecha_pago);
+        END IF;
+        NEW.fecha_pago := COALESCE(NEW.fecha_pago, CURRENT_TIMESTAMP);
+    ELSE
+        NEW.fecha_pago := NULL;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_facturas_fecha_pago ON facturas;
+CREATE TRIGGER trg_facturas_fecha_pago
+    BEFORE INSERT OR UPDATE ON facturas
+    FOR EACH ROW EXECUTE FUNCTION factura_fecha_pago();
+
+-- marca: no nula mientras la estadística está obsoleta. Sale de una
+-- secuencia para que el cálculo solo la borre si no cambió desde que la leyó
+-- calculado_en: una estadística calculada antes de terminar su período no
+-- sirve como mes cerrado aunque no tenga marca
+CREATE SEQUENCE IF NOT EXISTS estadisticas_marca_seq;
+
+ALTER TABLE estadisticas ADD COLUMN IF NOT EXISTS marca BIGINT;
+ALTER TABLE estadisticas ADD COLUMN IF NOT EXISTS calculado_en TIMESTAMP WITH TIME ZONE;
+
+CREATE INDEX IF NOT EXISTS idx_estadisticas_periodo ON estadisticas (periodo_inicio, periodo_fin);
+
+-- TG_ARGV[0]: columna con la fecha que sitúa la fila en un período.
+-- Solo se marcan los meses cerrados: los del mes en curso se recalculan siempre
+CREATE OR REPLACE FUNCTION estadisticas_marcar_obsoletas() RETURNS TRIGGER AS $$
+DECLARE
+    fechas DATE[] := '{}';
+BEGIN
+    IF TG_OP <> 'INSERT' THEN
+        fechas := fechas || (to_jsonb(OLD) ->> TG_ARGV[0])::DATE;
+    END IF;
+    IF TG_OP <> 'DELETE' THEN
+        fechas := fechas || (to_jsonb(NEW) ->> TG_ARGV[0])::DATE;
+    END IF;
+    UPDATE estadisticas e SET marca = nextval('estadisticas_marca_seq')
+    WHERE EXISTS (SELECT 1 FROM unnest(fechas) AS f
+                  WHERE f < date_trunc('month', CURRENT_DATE)
+                    AND f BETWEEN e.periodo_inicio AND e.periodo_fin);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_estadisticas_facturas ON facturas;
+CREATE TRIGGER trg_estadisticas_facturas
+    AFTER INSERT OR UPDATE OR DELETE ON facturas
+    FOR EACH ROW EXECUTE FUNCTION estadisticas_marcar_obsoletas('fecha_pago');
+
+DROP TRIGGER IF EXISTS trg_estadisticas_citas ON citas;
+CREATE TRIGGER trg_estadisticas_citas
+    AFTER INSERT OR UPDATE OR DELETE ON citas
+    FOR EACH ROW EXECUTE FUNCTION estadisticas_marcar_obsoletas('fecha_hora');
+
+DROP TRIGGER IF EXISTS trg_estadisticas_vacunaciones ON vacunaciones;
+CREATE TRIGGER trg_estadisticas_vacunaciones
+    AFTER INSERT OR UPDATE OR DELETE ON vacunaciones
+    FOR EACH ROW EXECUTE FUNCTION estadisticas_marcar_obsoletas('fecha_aplicacion');
+
+DROP TRIGGER IF EXISTS trg_estadisticas_movimientos ON movimientos_inventario;
+CREATE TRIGGER trg_estadisticas_movimientos
+    AFTER INSERT OR UPDATE OR DELETE ON movimientos_inventario
+    FOR EACH ROW EXECUTE FUNCTION estadisticas_marcar_obsoletas('fecha');
+
+-- No hay registro del momento del pago de las facturas ya pagadas: se
+-- toma la emisión, que es lo que usaba el cálculo hasta ahora. Va al final
+-- porque deja eventos diferidos de V20 pendientes sobre facturas, y con
+-- ellos PostgreSQL no admite más DDL sobre la tabla en esta transacción
+UPDATE facturas SET fecha_pago = fecha_emision WHERE estado = 'PAGADA' AND fecha_pago IS NULL;
@@ -0,0 +1,13 @@
+-- =====================================================
+-- Migración V22: Latido de los trabajos de reportes en proceso
+-- El nodo que genera un trabajo renueva el latido periódicamente; si deja
+-- de hacerlo (el nodo cayó), cualquier otro nodo devuelve el trabajo a la
+-- cola sin esperar a un reinicio
+-- =====================================================
+
+ALTER TABLE trabajos_reporte ADD COLUMN IF NOT EXISTS latido TIMESTAMP WITH TIME ZONE;
+
+UPDATE trabajos_reporte SET latido = fecha_inicio WHERE estado = 'EN_PROCESO' AND latido IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_trabajos_reporte_en_proceso
+    ON trabajos_reporte (latido) WHERE estado = 'EN_PROCESO';
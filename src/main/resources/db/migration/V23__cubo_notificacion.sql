@@ -0,0 +1,116 @@
+-- =====================================================
+-- Migración V23: Propagación de cambios al cubo de análisis
+-- Los cambios en las tablas de origen del cubo se anuncian por el canal
+-- 'cubo_analitico' (LISTEN/NOTIFY), de modo que todos los nodos los
+-- aplican aunque vengan de otro nodo, de SQL directo o de una restauración
+-- =====================================================
+
+-- Un aviso por sentencia con los IDs afectados, agrupados con las tablas de
+-- transición. TG_ARGV[0]: tipo de cambio (CITA, FACTURA, PACIENTE);
+-- TG_ARGV[1]: columna con el ID que se relee. Por encima de 500 IDs el
+-- payload se acercaría al límite de 8000 bytes de NOTIFY y se pide una
+-- recarga completa, que además es más barata que releer tantas filas
+CREATE OR REPLACE FUNCTION cubo_notificar_filas() RETURNS TRIGGER AS $$
+DECLARE
+    ids BIGINT[];
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        EXECUTE format('SELECT array_agg(DISTINCT %I) FROM nuevas', TG_ARGV[1]) INTO ids;
+    ELSIF TG_OP = 'DELETE' THEN
+        EXECUTE format('SELECT array_agg(DISTINCT %I) FROM viejas', TG_ARGV[1]) INTO ids;
+    ELSE
+        EXECUTE format('SELECT array_agg(id) FROM (SELECT %1$I AS id FROM viejas UNION SELECT %1$I FROM nuevas) t',
+                       TG_ARGV[1]) INTO ids;
+    END IF;
+    ids := array_remove(ids, NULL);
+    IF cardinality(ids) > 500 THEN
+        PERFORM pg_notify('cubo_analitico', json_build_object('tipo', 'RECARGA')::text);
+    ELSIF cardinality(ids) > 0 THEN
+        PERFORM pg_notify('cubo_analitico', json_build_object('tipo', TG_ARGV[0], 'ids', ids)::text);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Cambios que no se pueden acotar a unas filas: vaciados, bajas de
+-- pacientes (sus citas se borran en cascada) y renombrados de veterinarios
+-- o servicios. NOTIFY descarta los payloads repetidos en una transacción
+CREATE OR REPLACE FUNCTION cubo_notificar_recarga() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM pg_notify('cubo_analitico', json_build_object('tipo', 'RECARGA')::text);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Las tablas de transición solo se admiten en triggers de un único evento
+DROP TRIGGER IF EXISTS trg_cubo_citas_alta ON citas;
+CREATE TRIGGER trg_cubo_citas_alta AFTER INSERT ON citas
+    REFERENCING NEW TABLE AS nuevas
+    FOR EACH STATEMENT EXECUTE FUNCTION cubo_notificar_filas('CITA', 'id_cita');
+DROP TRIGGER IF EXISTS trg_cubo_citas_cambio ON citas;
+CREATE TRIGGER trg_cubo_citas_cambio AFTER UPDATE ON citas
+    REFERENCING OLD TABLE AS viejas NEW TABLE AS nuevas
+    FOR EACH STATEMENT EXECUTE FUNCTION cubo_notificar_filas('CITA', 'id_cita');
+DROP TRIGGER IF EXISTS trg_cubo_citas_baja ON citas;
+CREATE TRIGGER trg_cubo_citas_baja AFTER DELETE ON citas
+    REFERENCING OLD TABLE AS viejas
+    FOR EACH STATEMENT EXECUTE FUNCTION cubo_notificar_filas('CITA', 'id_cita');
+
+-- Los servicios prestados se releen siempre a través de su cita
+DROP TRIGGER IF EXISTS trg_cubo_servicios_prestados_alta ON servicios_prestados;
+CREATE TRIGGER trg_cubo_servicios_prestados_alta AFTER INSERT ON servicios_prestados
+    REFERENCING NEW TABLE AS nuevas
+    FOR EACH STATEMENT EXECUTE FUNCTION cubo_notificar_filas('CITA', 'cita_id');
+DROP TRIGGER IF EXISTS trg_cubo_servicios_prestados_cambio ON servicios_prestados;
+CREATE TRIGGER trg_cubo_servicios_prestados_cambio AFTER UPDATE ON servicios_prestados
+    REFERENCING OLD TABLE AS viejas NEW TABLE AS nuevas
+    FOR EACH STATEMENT EXECUTE FUNCTION cubo_notificar_filas('CITA', 'cita_id');
+DROP TRIGGER IF EXISTS trg_cubo_servicios_prestados_baja ON servicios_prestados;
+CREATE TRIGGER trg_cubo_servicios_prestados_baja AFTER DELETE ON servicios_prestados
+    REFERENCING OLD TABLE AS viejas
+    FOR EACH STATEMENT EXECUTE FUNCTION cubo_notificar_filas('CITA', 'cita_id');
+
+DROP TRIGGER IF EXISTS trg_cubo_facturas_alta ON facturas;
+CREATE TRIGGER trg_cubo_facturas_alta AFTER INSERT ON facturas
+    REFERENCING NEW TABLE AS nuevas
+    FOR EACH STATEMENT EXECUTE FUNCTION cubo_notificar_filas('FACTURA', 'id_factura');
+DROP TRIGGER IF EXISTS trg_cubo_facturas_cambio ON facturas;
+CREATE TRIGGER trg_cubo_facturas_cambio AFTER UPDATE ON facturas
+    REFERENCING OLD TABLE AS viejas NEW TABLE AS nuevas
+    FOR EACH STATEMENT EXECUTE FUNCTION cubo_notificar_filas('FACTURA', 'id_factura');
+DROP TRIGGER IF EXISTS trg_cubo_facturas_baja ON facturas;
+CREATE TRIGGER trg_cubo_facturas_baja AFTER DELETE ON facturas
+    REFERENCING OLD TABLE AS viejas
+    FOR EACH STATEMENT EXECUTE FUNCTION cubo_notificar_filas('FACTURA', 'id_factura');
+
+-- La especie del paciente forma parte de sus citas y servicios
+DROP TRIGGER IF EXISTS trg_cubo_pacientes_cambio ON pacientes;
+CREATE TRIGGER trg_cubo_pacientes_cambio AFTER UPDATE ON pacientes
+    REFERENCING OLD TABLE AS viejas NEW TABLE AS nuevas
+    FOR EACH STATEMENT EXECUTE FUNCTION cubo_notificar_filas('PACIENTE', 'id_paciente');
+DROP TRIGGER IF EXISTS trg_cubo_pacientes_baja ON pacientes;
+CREATE TRIGGER trg_cubo_pacientes_baja AFTER DELETE ON pacientes
+    FOR EACH STATEMENT EXECUTE FUNCTION cubo_notificar_recarga();
+
+DROP TRIGGER IF EXISTS trg_cubo_personas_nombre ON personas;
+CREATE TRIGGER trg_cubo_personas_nombre AFTER UPDATE OF nombre, apellido ON personas
+    FOR EACH ROW WHEN (OLD.nombre IS DISTINCT FROM NEW.nombre OR OLD.apellido IS DISTINCT FROM NEW.apellido)
+    EXECUTE FUNCTION cubo_notificar_recarga();
+
+DROP TRIGGER IF EXISTS trg_cubo_servicios_nombre ON servicios;
+CREATE TRIGGER trg_cubo_servicios_nombre AFTER UPDATE OF nombre, tipo ON servicios
+    FOR EACH ROW WHEN (OLD.nombre IS DISTINCT FROM NEW.nombre OR OLD.tipo IS DISTINCT FROM NEW.tipo)
+    EXECUTE FUNCTION cubo_notificar_recarga();
+
+DROP TRIGGER IF EXISTS trg_cubo_vaciado ON citas;
+CREATE TRIGGER trg_cubo_vaciado AFTER TRUNCATE ON citas
+    FOR EACH STATEMENT EXECUTE FUNCTION cubo_notificar_recarga();
+DROP TRIGGER IF EXISTS trg_cubo_vaciado ON servicios_prestados;
+CREATE TRIGGER trg_cubo_vaciado AFTER TRUNCATE ON servicios_prestados
+    FOR EACH STATEMENT EXECUTE FUNCTION cubo_notificar_recarga();
+DROP TRIGGER IF EXISTS trg_cubo_vaciado ON facturas;
+CREATE TRIGGER trg_cubo_vaciado AFTER TRUNCATE ON facturas
+    FOR EACH STATEMENT EXECUTE FUNCTION cubo_notificar_recarga();
+DROP TRIGGER IF EXISTS trg_cubo_vaciado ON pacientes;
+CREATE TRIGGER trg_cubo_vaciado AFTER TRUNCATE ON pacientes
+    FOR EACH STATEMENT EXECUTE FUNCTION cubo_notificar_recarga();
@@ -0,0 +1,31 @@
+-- =====================================================
+-- Migración V24: Invalidación de cachés tras una restauración
+-- La restauración carga las tablas con los triggers de usuario
+-- desactivados; al terminar, dentro de la misma transacción, llama a
+-- datos_restaurados() para que todos los nodos descarten lo que tenían
+-- en caché y ningún ETag anterior vuelva a ser válido
+-- =====================================================
+
+-- Cambia con cada restauración: las copias incrementales solo se apoyan
+-- en una copia hecha después de la última restauración
+INSERT INTO versiones_datos (ambito, version)
+VALUES ('restauracion', nextval('versiones_datos_version_seq'))
+ON CONFLICT (ambito) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION datos_restaurados() RETURNS VOID AS $$
+BEGIN
+    -- Las secuencias de versiones no se restauran, así que los valores
+    -- nuevos superan a cualquiera entregado antes de la restauración
+    UPDATE versiones_datos SET version = nextval('versiones_datos_version_seq');
+    PERFORM ficha_paciente_incrementar(ARRAY(SELECT id_paciente FROM pacientes));
+
+    -- Los parámetros reciben versión nueva (cada nodo aplica el CAMBIO) y
+    -- la RECARGA final retira de las cachés las claves que ya no existen.
+    -- La base sigue en mantenimiento hasta que un administrador la reabra
+    UPDATE parametros_sistema SET valor = valor;
+    UPDATE parametros_sistema SET valor = 'true' WHERE clave = 'sistema.mantenimiento';
+    PERFORM pg_notify('parametros_sistema', json_build_object('operacion', 'RECARGA')::text);
+
+    PERFORM pg_notify('cubo_analitico', json_build_object('tipo', 'RECARGA')::text);
+END;
+$$ LANGUAGE plpgsql;
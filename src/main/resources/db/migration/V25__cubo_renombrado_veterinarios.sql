@@ -0,0 +1,21 @@
+-- =====================================================
+-- Migración V25: Recarga del cubo solo al renombrar veterinarios
+-- De las personas, el cubo solo guarda el nombre del veterinario de cada
+-- cita; renombrar a un cliente o a un secretario no debe recargarlo
+-- =====================================================
+
+-- Las condiciones WHEN de un trigger no admiten subconsultas, así que la
+-- comprobación se hace en la función (una búsqueda por clave primaria)
+CREATE OR REPLACE FUNCTION cubo_notificar_veterinario() RETURNS TRIGGER AS $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM usuarios_veterinarios WHERE id_usuario = NEW.id_persona) THEN
+        PERFORM pg_notify('cubo_analitico', json_build_object('tipo', 'RECARGA')::text);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_cubo_personas_nombre ON personas;
+CREATE TRIGGER trg_cubo_personas_nombre AFTER UPDATE OF nombre, apellido ON personas
+    FOR EACH ROW WHEN (OLD.nombre IS DISTINCT FROM NEW.nombre OR OLD.apellido IS DISTINCT FROM NEW.apellido)
+    EXECUTE FUNCTION cubo_notificar_veterinario();
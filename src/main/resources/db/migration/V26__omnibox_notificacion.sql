@@ -0,0 +1,132 @@
+-- =====================================================
+-- Migración V26: Propagación de cambios al buscador global
+-- Los cambios en las tablas del índice del omnibox se anuncian por el
+-- canal 'omnibox', igual que los del cubo por 'cubo_analitico', para que
+-- todos los nodos los apliquen. Las funciones de aviso pasan a ser comunes
+-- a ambos canales
+-- =====================================================
+
+-- Un aviso por sentencia con los IDs afectados. TG_ARGV[0]: canal;
+-- TG_ARGV[1]: tipo de cambio; TG_ARGV[2]: columna con el ID que se relee.
+-- Por encima de 500 IDs el payload se acercaría al límite de 8000 bytes de
+-- NOTIFY y se pide una recarga completa
+CREATE OR REPLACE FUNCTION notificar_filas() RETURNS TRIGGER AS $$
+DECLARE
+    ids BIGINT[];
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        EXECUTE format('SELECT array_agg(DISTINCT %I) FROM nuevas', TG_ARGV[2]) INTO ids;
+    ELSIF TG_OP = 'DELETE' THEN
+        EXECUTE format('SELECT array_agg(DISTINCT %I) FROM viejas', TG_ARGV[2]) INTO ids;
+    ELSE
+        EXECUTE format('SELECT array_agg(id) FROM (SELECT %1$I AS id FROM viejas UNION SELECT %1$I FROM nuevas) t',
+                       TG_ARGV[2]) INTO ids;
+    END IF;
+    ids := array_remove(ids, NULL);
+    IF cardinality(ids) > 500 THEN
+        PERFORM pg_notify(TG_ARGV[0], json_build_object('tipo', 'RECARGA')::text);
+    ELSIF cardinality(ids) > 0 THEN
+        PERFORM pg_notify(TG_ARGV[0], json_build_object('tipo', TG_ARGV[1], 'ids', ids)::text);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Cambios que no se pueden acotar a unas filas. TG_ARGV[0]: canal
+CREATE OR REPLACE FUNCTION notificar_recarga() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM pg_notify(TG_ARGV[0], json_build_object('tipo', 'RECARGA')::text);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Triggers por fila de ambos canales: trg_<prefijo>_<tabla>_<alta|cambio|baja>.
+-- Las tablas de transición solo se admiten en triggers de un único evento
+-- y sin lista de columnas
+DO $$
+DECLARE
+    t RECORD;
+    evento TEXT;
+BEGIN
+    FOR t IN SELECT * FROM (VALUES
+        ('cubo', 'cubo_analitico', 'citas', 'CITA', 'id_cita', ARRAY['alta', 'cambio', 'baja']),
+        ('cubo', 'cubo_analitico', 'servicios_prestados', 'CITA', 'cita_id', ARRAY['alta', 'cambio', 'baja']),
+        ('cubo', 'cubo_analitico', 'facturas', 'FACTURA', 'id_factura', ARRAY['alta', 'cambio', 'baja']),
+        ('cubo', 'cubo_analitico', 'pacientes', 'PACIENTE', 'id_paciente', ARRAY['cambio']),
+        ('omnibox', 'omnibox', 'pacientes', 'PACIENTE', 'id_paciente', ARRAY['alta', 'cambio', 'baja']),
+        ('omnibox', 'omnibox', 'clientes', 'CLIENTE', 'id_usuario', ARRAY['alta', 'cambio', 'baja']),
+        -- Nombre, correo y teléfono del cliente están en personas
+        ('omnibox', 'omnibox', 'personas', 'CLIENTE', 'id_persona', ARRAY['cambio']),
+        ('omnibox', 'omnibox', 'productos', 'PRODUCTO', 'id_producto', ARRAY['alta', 'cambio', 'baja']),
+        ('omnibox', 'omnibox', 'facturas', 'FACTURA', 'id_factura', ARRAY['alta', 'cambio', 'baja']),
+        ('omnibox', 'omnibox', 'citas', 'CITA', 'id_cita', ARRAY['alta', 'cambio', 'baja'])
+    ) AS v(prefijo, canal, tabla, tipo, columna, eventos)
+    LOOP
+        FOREACH evento IN ARRAY t.eventos
+        LOOP
+            EXECUTE format('DROP TRIGGER IF EXISTS %I ON %I', 'trg_' || t.prefijo || '_' || t.tabla || '_' || evento, t.tabla);
+            EXECUTE format('CREATE TRIGGER %I AFTER %s ON %I REFERENCING %s '
+                           || 'FOR EACH STATEMENT EXECUTE FUNCTION notificar_filas(%L, %L, %L)',
+                           'trg_' || t.prefijo || '_' || t.tabla || '_' || evento,
+                           CASE evento WHEN 'alta' THEN 'INSERT' WHEN 'cambio' THEN 'UPDATE' ELSE 'DELETE' END,
+                           t.tabla,
+                           CASE evento WHEN 'alta' THEN 'NEW TABLE AS nuevas'
+                                       WHEN 'cambio' THEN 'OLD TABLE AS viejas NEW TABLE AS nuevas'
+                                       ELSE 'OLD TABLE AS viejas' END,
+                           t.canal, t.tipo, t.columna);
+        END LOOP;
+    END LOOP;
+
+    FOR t IN SELECT * FROM (VALUES
+        ('cubo', 'cubo_analitico', 'citas'),
+        ('cubo', 'cubo_analitico', 'servicios_prestados'),
+        ('cubo', 'cubo_analitico', 'facturas'),
+        ('cubo', 'cubo_analitico', 'pacientes'),
+        ('omnibox', 'omnibox', 'pacientes'),
+        ('omnibox', 'omnibox', 'clientes'),
+        ('omnibox', 'omnibox', 'productos'),
+        ('omnibox', 'omnibox', 'facturas'),
+        ('omnibox', 'omnibox', 'citas')
+    ) AS v(prefijo, canal, tabla)
+    LOOP
+        EXECUTE format('DROP TRIGGER IF EXISTS %I ON %I', 'trg_' || t.prefijo || '_vaciado', t.tabla);
+        EXECUTE format('CREATE TRIGGER %I AFTER TRUNCATE ON %I '
+                       || 'FOR EACH STATEMENT EXECUTE FUNCTION notificar_recarga(%L)',
+                       'trg_' || t.prefijo || '_vaciado', t.tabla, t.canal);
+    END LOOP;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS trg_cubo_pacientes_baja ON pacientes;
+CREATE TRIGGER trg_cubo_pacientes_baja AFTER DELETE ON pacientes
+    FOR EACH STATEMENT EXECUTE FUNCTION notificar_recarga('cubo_analitico');
+
+DROP TRIGGER IF EXISTS trg_cubo_servicios_nombre ON servicios;
+CREATE TRIGGER trg_cubo_servicios_nombre AFTER UPDATE OF nombre, tipo ON servicios
+    FOR EACH ROW WHEN (OLD.nombre IS DISTINCT FROM NEW.nombre OR OLD.tipo IS DISTINCT FROM NEW.tipo)
+    EXECUTE FUNCTION notificar_recarga('cubo_analitico');
+
+-- Ya no las usa ningún trigger
+DROP FUNCTION cubo_notificar_filas();
+DROP FUNCTION cubo_notificar_recarga();
+
+-- La restauración carga con los triggers desactivados: también el
+-- buscador global debe recargarse al terminar
+CREATE OR REPLACE FUNCTION datos_restaurados() RETURNS VOID AS $$
+BEGIN
+    -- Las secuencias de versiones no se restauran, así que los valores
+    -- nuevos superan a cualquiera entregado antes de la restauración
+    UPDATE versiones_datos SET version = nextval('versiones_datos_version_seq');
+    PERFORM ficha_paciente_incrementar(ARRAY(SELECT id_paciente FROM pacientes));
+
+    -- Los parámetros reciben versión nueva (cada nodo aplica el CAMBIO) y
+    -- la RECARGA final retira de las cachés las claves que ya no existen.
+    -- La base sigue en mantenimiento hasta que un administrador la reabra
+    UPDATE parametros_sistema SET valor = valor;
+    UPDATE parametros_sistema SET valor = 'true' WHERE clave = 'sistema.mantenimiento';
+    PERFORM pg_notify('parametros_sistema', json_build_object('operacion', 'RECARGA')::text);
+
+    PERFORM pg_notify('cubo_analitico', json_build_object('tipo', 'RECARGA')::text);
+    PERFORM pg_notify('omnibox', json_build_object('tipo', 'RECARGA')::text);
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,29 @@
+-- =====================================================
+-- Migración V3: Búsqueda difusa por trigramas (pg_trgm)
+-- Pacientes y clientes para el buscador de recepción
+-- =====================================================
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Índices GIN sobre expresiones en minúsculas: sirven tanto al operador de
+-- similitud (%) como a LIKE/ILIKE con comodines a ambos lados
+CREATE INDEX IF NOT EXISTS idx_pacientes_nombre_trgm
+    ON pacientes USING GIN (LOWER(nombre) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_personas_nombre_trgm
+    ON personas USING GIN (LOWER(nombre) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_personas_apellido_trgm
+    ON personas USING GIN (LOWER(apellido) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_personas_correo_trgm
+    ON personas USING GIN (LOWER(correo) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_personas_telefono_trgm
+    ON personas USING GIN (telefono gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_clientes_documento_trgm
+    ON clientes USING GIN (LOWER(documento_identidad) gin_trgm_ops);
+
+-- Búsqueda de pacientes por propietario (join del buscador)
+CREATE INDEX IF NOT EXISTS idx_pacientes_cliente ON pacientes(cliente_id);
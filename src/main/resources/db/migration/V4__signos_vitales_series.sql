@@ -0,0 +1,47 @@
+-- =====================================================
+-- Migración V4: Serie temporal de signos vitales
+-- Valores numéricos extraídos de registros_medicos.signos_vitales
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS signos_vitales_series (
+    paciente_id BIGINT NOT NULL REFERENCES pacientes(id_paciente) ON DELETE CASCADE,
+    metrica VARCHAR(50) NOT NULL,
+    fecha TIMESTAMP WITH TIME ZONE NOT NULL,
+    valor DOUBLE PRECISION NOT NULL,
+    registro_id BIGINT NOT NULL REFERENCES registros_medicos(id_registro) ON DELETE CASCADE
+);
+
+-- Consulta de tendencia: un paciente, una métrica, un rango de fechas.
+-- INCLUDE permite resolver la agregación con un index-only scan
+CREATE INDEX IF NOT EXISTS idx_signos_vitales_paciente_metrica_fecha
+    ON signos_vitales_series (paciente_id, metrica, fecha) INCLUDE (valor);
+
+-- Recorridos por rango de fechas sobre toda la clínica (las filas llegan
+-- casi en orden cronológico, así que BRIN es muy compacto)
+CREATE INDEX IF NOT EXISTS idx_signos_vitales_fecha_brin
+    ON signos_vitales_series USING BRIN (fecha);
+
+-- Borrado en cascada al eliminar un registro médico
+CREATE INDEX IF NOT EXISTS idx_signos_vitales_registro
+    ON signos_vitales_series (registro_id);
+
+-- Carga inicial desde los registros existentes. Los alias deben coincidir
+-- con com.tuorg.veterinaria.gestionpacientes.model.SignoVital
+INSERT INTO signos_vitales_series (paciente_id, metrica, fecha, valor, registro_id)
+SELECT h.paciente_id,
+       CASE LOWER(sv.key)
+           WHEN 'temp' THEN 'temperatura'
+           WHEN 'fc' THEN 'frecuencia_cardiaca'
+           WHEN 'fr' THEN 'frecuencia_respiratoria'
+           WHEN 'peso_kg' THEN 'peso'
+           ELSE LEFT(LOWER(sv.key), 50)
+       END,
+       r.fecha,
+       CAST(sv.value #>> '{}' AS DOUBLE PRECISION),
+       r.id_registro
+FROM registros_medicos r
+JOIN historias_clinicas h ON h.id_historia = r.historia_id
+CROSS JOIN LATERAL jsonb_each(r.signos_vitales) sv
+WHERE jsonb_typeof(r.signos_vitales) = 'object'
+  AND (jsonb_typeof(sv.value) = 'number'
+       OR (jsonb_typeof(sv.value) = 'string' AND sv.value #>> '{}' ~ '^\s*-?[0-9]+(\.[0-9]+)?\s*$'));
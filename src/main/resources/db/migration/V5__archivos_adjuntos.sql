@@ -0,0 +1,12 @@
+-- =====================================================
+-- Migración V5: Almacén de archivos adjuntos por contenido
+-- Cada archivo se identifica por el SHA-256 de su contenido
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS archivos_adjuntos (
+    hash_sha256 CHAR(64) PRIMARY KEY,
+    tamano_bytes BIGINT NOT NULL CHECK (tamano_bytes >= 0),
+    tipo_contenido VARCHAR(150) NOT NULL,
+    nombre_original VARCHAR(255),
+    fecha_creacion TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
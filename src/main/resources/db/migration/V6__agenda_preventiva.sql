@@ -0,0 +1,26 @@
+-- =====================================================
+-- Migración V6: Agenda preventiva materializada
+-- Próxima dosis debida por paciente y pauta del protocolo
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS agenda_preventiva (
+    paciente_id BIGINT NOT NULL REFERENCES pacientes(id_paciente) ON DELETE CASCADE,
+    pauta VARCHAR(50) NOT NULL,
+    tipo VARCHAR(20) NOT NULL CHECK (tipo IN ('VACUNA', 'DESPARASITACION')),
+    fecha_debida DATE NOT NULL,
+    dosis_numero INTEGER NOT NULL CHECK (dosis_numero > 0),
+    ultima_aplicacion DATE,
+    fecha_calculo TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (paciente_id, pauta)
+);
+
+-- "Debidas esta semana" y vencidas: rango sobre fecha_debida
+CREATE INDEX IF NOT EXISTS idx_agenda_preventiva_fecha
+    ON agenda_preventiva (fecha_debida, tipo);
+
+-- Recorrido del historial preventivo por paciente al recalcular
+CREATE INDEX IF NOT EXISTS idx_vacunaciones_paciente_fecha
+    ON vacunaciones (paciente_id, fecha_aplicacion);
+
+CREATE INDEX IF NOT EXISTS idx_desparasitaciones_paciente_fecha
+    ON desparasitaciones (paciente_id, fecha_aplicacion);
@@ -0,0 +1,38 @@
+-- =====================================================
+-- Migración V7: Líneas de factura tipadas
+-- Detalle de servicios y productos facturados con importes
+-- calculados al insertar, agregables por concepto
+-- =====================================================
+
+ALTER TABLE facturas ADD COLUMN IF NOT EXISTS subtotal NUMERIC(14,2) CHECK (subtotal >= 0);
+ALTER TABLE facturas ADD COLUMN IF NOT EXISTS impuestos NUMERIC(14,2) CHECK (impuestos >= 0);
+
+CREATE TABLE IF NOT EXISTS factura_lineas (
+    id_linea BIGSERIAL PRIMARY KEY,
+    factura_id BIGINT NOT NULL REFERENCES facturas(id_factura) ON DELETE CASCADE,
+    numero_linea INTEGER NOT NULL CHECK (numero_linea > 0),
+    tipo VARCHAR(20) NOT NULL CHECK (tipo IN ('SERVICIO', 'PRODUCTO')),
+    servicio_id BIGINT REFERENCES servicios(id_servicio),
+    producto_id BIGINT REFERENCES productos(id_producto),
+    descripcion VARCHAR(255) NOT NULL,
+    cantidad NUMERIC(12,3) NOT NULL CHECK (cantidad > 0),
+    precio_unitario NUMERIC(12,2) NOT NULL CHECK (precio_unitario >= 0),
+    subtotal NUMERIC(14,2) NOT NULL CHECK (subtotal >= 0),
+    porcentaje_impuesto NUMERIC(5,2) NOT NULL DEFAULT 0 CHECK (porcentaje_impuesto BETWEEN 0 AND 100),
+    impuesto NUMERIC(14,2) NOT NULL CHECK (impuesto >= 0),
+    total NUMERIC(14,2) NOT NULL CHECK (total >= 0),
+    UNIQUE (factura_id, numero_linea),
+    CHECK (tipo <> 'SERVICIO' OR producto_id IS NULL),
+    CHECK (tipo <> 'PRODUCTO' OR servicio_id IS NULL)
+);
+
+-- Agregaciones por servicio o producto
+CREATE INDEX IF NOT EXISTS idx_factura_lineas_servicio
+    ON factura_lineas (servicio_id) WHERE servicio_id IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_factura_lineas_producto
+    ON factura_lineas (producto_id) WHERE producto_id IS NOT NULL;
+
+-- Filtro por período de emisión en los reportes
+CREATE INDEX IF NOT EXISTS idx_facturas_fecha_emision
+    ON facturas (fecha_emision);
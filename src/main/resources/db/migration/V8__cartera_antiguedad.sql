@@ -0,0 +1,9 @@
+-- =====================================================
+-- Migración V8: Antigüedad de cartera
+-- Índice parcial de facturas pendientes para el reporte por cliente
+-- =====================================================
+
+-- Solo las facturas abiertas; INCLUDE permite agregar el total sin leer la tabla
+CREATE INDEX IF NOT EXISTS idx_facturas_pendientes_cliente
+    ON facturas (cliente_id, fecha_emision) INCLUDE (total)
+    WHERE estado = 'PENDIENTE';
@@ -0,0 +1,20 @@
+-- =====================================================
+-- Migración V9: Claves de idempotencia
+-- Respuesta original de cada petición reintentada con Idempotency-Key
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS claves_idempotencia (
+    alcance VARCHAR(150) NOT NULL,
+    clave VARCHAR(128) NOT NULL,
+    huella CHAR(64) NOT NULL,
+    estado VARCHAR(20) NOT NULL CHECK (estado IN ('EN_CURSO', 'COMPLETADA')),
+    codigo_estado INTEGER,
+    tipo_contenido VARCHAR(150),
+    cuerpo BYTEA,
+    fecha_creacion TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expira_en TIMESTAMP WITH TIME ZONE NOT NULL,
+    -- La clave primaria serializa los reintentos concurrentes entre nodos
+    CONSTRAINT pk_claves_idempotencia PRIMARY KEY (alcance, clave)
+);
+
+CREATE INDEX IF NOT EXISTS idx_claves_idempotencia_expira ON claves_idempotencia (expira_en);
@@ -0,0 +1,94 @@
+package com.tuorg.veterinaria.archivos.controller;
+
+import com.tuorg.veterinaria.archivos.model.ArchivoAdjunto;
+import com.tuorg.veterinaria.archivos.service.AlmacenArchivosService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para ArchivoController.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de ArchivoController")
+class ArchivoControllerTest {
+
+    private static final String HASH = "a".repeat(64);
+
+    @Mock
+    private AlmacenArchivosService almacenArchivosService;
+
+    @InjectMocks
+    private ArchivoController archivoController;
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    @DisplayName("Descargar HTML subido: debe servirse como adjunto con nosniff")
+    void descargar_TipoActivo_DeberiaServirseComoAdjunto() throws Exception {
+        // Arrange
+        when(almacenArchivosService.obtener(HASH)).thenReturn(archivo("text/html", "informe.html"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        archivoController.descargar(HASH, new MockHttpServletRequest("GET", "/archivos/" + HASH), response);
+
+        // Assert
+        assertThat(response.getHeader("Content-Disposition")).startsWith("attachment;");
+        assertThat(response.getHeader("X-Content-Type-Options")).isEqualTo("nosniff");
+        verify(almacenArchivosService).transferir(eq(HASH), eq(0L), eq(4L), any());
+    }
+
+    @Test
+    @DisplayName("Descargar imagen con sendfile: debe mostrarse en línea y delegar el envío a Tomcat")
+    void descargar_ImagenConSendfile_DeberiaDelegarEnElContenedor() throws Exception {
+        // Arrange
+        Path contenido = Files.writeString(directorio.resolve(HASH), "png!");
+        when(almacenArchivosService.obtener(HASH)).thenReturn(archivo("image/png", "rx.png"));
+        when(almacenArchivosService.rutaContenido(HASH)).thenReturn(contenido);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/archivos/" + HASH);
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader("Range", "bytes=1-2");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        archivoController.descargar(HASH, request, response);
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader("Content-Disposition")).startsWith("inline;");
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename")).isEqualTo(contenido.toString());
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(1L);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(3L);
+        verify(almacenArchivosService, never()).transferir(any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Mostrar en línea: SVG y tipos inválidos no deben mostrarse en el navegador")
+    void mostrarEnLinea_TiposActivos_NoDeberianMostrarse() {
+        assertThat(ArchivoController.mostrarEnLinea("application/pdf")).isTrue();
+        assertThat(ArchivoController.mostrarEnLinea("IMAGE/JPEG; name=rx.jpg")).isTrue();
+        assertThat(ArchivoController.mostrarEnLinea("image/svg+xml")).isFalse();
+        assertThat(ArchivoController.mostrarEnLinea("text/html")).isFalse();
+        assertThat(ArchivoController.mostrarEnLinea("no es un tipo")).isFalse();
+    }
+
+    private static ArchivoAdjunto archivo(String tipo, String nombre) {
+        return new ArchivoAdjunto(HASH, 4L, tipo, nombre, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,133 @@
+package com.tuorg.veterinaria.archivos.service;
+
+import com.tuorg.veterinaria.archivos.dto.ArchivoAdjuntoResponse;
+import com.tuorg.veterinaria.archivos.model.ArchivoAdjunto;
+import com.tuorg.veterinaria.archivos.repository.ArchivoAdjuntoRepository;
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para AlmacenArchivosService.
+ *
+ * Verifica el almacenamiento por hash, la deduplicación, el límite de
+ * tamaño y la lectura de rangos.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de AlmacenArchivosService")
+class AlmacenArchivosServiceTest {
+
+    /**
+     * SHA-256 de "hola mundo".
+     */
+    private static final String HASH_HOLA =
+            "0b894166d3336435c800bea36ff21b29eaa801a52f584c006c49289a0dcf6e2f";
+
+    @Mock
+    private ArchivoAdjuntoRepository archivoAdjuntoRepository;
+
+    @TempDir
+    Path directorio;
+
+    private AlmacenArchivosService almacenArchivosService;
+
+    @BeforeEach
+    void setUp() {
+        almacenArchivosService = new AlmacenArchivosService(archivoAdjuntoRepository, directorio.toString(), 1024);
+    }
+
+    private void stubMetadatos() {
+        when(archivoAdjuntoRepository.findById(HASH_HOLA)).thenReturn(Optional.of(
+                new ArchivoAdjunto(HASH_HOLA, 10L, "text/plain", "hola.txt", LocalDateTime.now())));
+    }
+
+    @Test
+    @DisplayName("Guardar: debe almacenar el archivo bajo su hash y deduplicar el mismo contenido")
+    void guardar_DeberiaAlmacenarPorHashYDeduplicar() throws Exception {
+        // Arrange
+        stubMetadatos();
+        when(archivoAdjuntoRepository.insertarSiNoExiste(eq(HASH_HOLA), eq(10L), eq("text/plain"), any(), any()))
+                .thenReturn(1, 0);
+
+        // Act
+        ArchivoAdjuntoResponse primero = almacenArchivosService.guardar(
+                new ByteArrayInputStream("hola mundo".getBytes(StandardCharsets.UTF_8)), "text/plain", "C:\\lab\\hola.txt");
+        ArchivoAdjuntoResponse segundo = almacenArchivosService.guardar(
+                new ByteArrayInputStream("hola mundo".getBytes(StandardCharsets.UTF_8)), "text/plain", "otro.txt");
+
+        // Assert
+        Path almacenado = directorio.resolve("0b").resolve("89").resolve(HASH_HOLA);
+        assertThat(almacenado).hasContent("hola mundo");
+        assertThat(primero.getHash()).isEqualTo(HASH_HOLA);
+        assertThat(primero.isDuplicado()).isFalse();
+        assertThat(segundo.isDuplicado()).isTrue();
+        verify(archivoAdjuntoRepository).insertarSiNoExiste(eq(HASH_HOLA), eq(10L), eq("text/plain"), eq("hola.txt"), any());
+        try (var temporales = Files.list(directorio.resolve("tmp"))) {
+            assertThat(temporales).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("Guardar: archivo mayor al máximo debe lanzar BusinessException sin dejar temporales")
+    void guardarArchivoGrande_DeberiaLanzarExcepcion() throws Exception {
+        // Act & Assert
+        assertThatThrownBy(() -> almacenArchivosService.guardar(
+                new ByteArrayInputStream(new byte[2048]), "application/pdf", "grande.pdf"))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("tamaño máximo");
+
+        verify(archivoAdjuntoRepository, never()).insertarSiNoExiste(any(), anyLong(), any(), any(), any());
+        try (var temporales = Files.list(directorio.resolve("tmp"))) {
+            assertThat(temporales).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("Transferir: debe escribir solo el rango solicitado")
+    void transferir_DeberiaEscribirRango() throws Exception {
+        // Arrange
+        stubMetadatos();
+        when(archivoAdjuntoRepository.insertarSiNoExiste(any(), anyLong(), any(), any(), any())).thenReturn(1);
+        almacenArchivosService.guardar(
+                new ByteArrayInputStream("hola mundo".getBytes(StandardCharsets.UTF_8)), "text/plain", null);
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        // Act
+        almacenArchivosService.transferir(HASH_HOLA, 5, 5, salida);
+
+        // Assert
+        assertThat(salida.toString(StandardCharsets.UTF_8)).isEqualTo("mundo");
+    }
+
+    @Test
+    @DisplayName("Validar referencias: un hash inexistente debe lanzar BusinessException")
+    void validarReferenciasInexistentes_DeberiaLanzarExcepcion() {
+        // Arrange
+        when(archivoAdjuntoRepository.countByHashSha256In(anyCollection())).thenReturn(0L);
+
+        // Act & Assert
+        assertThatThrownBy(() -> almacenArchivosService.validarReferencias(
+                List.of(HASH_HOLA, "https://laboratorio.example/informe.pdf")))
+                .isInstanceOf(BusinessException.class);
+        verify(archivoAdjuntoRepository).countByHashSha256In(argThat(hashes -> hashes.size() == 1));
+    }
+}
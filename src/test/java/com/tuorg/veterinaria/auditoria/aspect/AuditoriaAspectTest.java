@@ -0,0 +1,341 @@
+package com.tuorg.veterinaria.auditoria.aspect;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuorg.veterinaria.auditoria.repository.AuditoriaRepository.Accion;
+import com.tuorg.veterinaria.auditoria.service.AuditoriaService;
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.config.security.UsuarioAutenticado;
+import com.tuorg.veterinaria.configuracion.model.ParametroSistema;
+import com.tuorg.veterinaria.configuracion.repository.BackupDatosRepository;
+import com.tuorg.veterinaria.configuracion.repository.BackupSistemaRepository;
+import com.tuorg.veterinaria.configuracion.repository.LogSistemaHistorialRepository;
+import com.tuorg.veterinaria.configuracion.repository.ParametroSistemaRepository;
+import com.tuorg.veterinaria.configuracion.service.BackupService;
+import com.tuorg.veterinaria.configuracion.service.ConfigService;
+import com.tuorg.veterinaria.configuracion.service.FotoConfiguracion;
+import com.tuorg.veterinaria.configuracion.service.MantenimientoLogsSistema;
+import com.tuorg.veterinaria.reportes.dto.FuenteDatosRequest;
+import com.tuorg.veterinaria.reportes.dto.ReporteRequest;
+import com.tuorg.veterinaria.reportes.service.CuboAnaliticoService;
+import com.tuorg.veterinaria.reportes.service.EstadisticaService;
+import com.tuorg.veterinaria.reportes.service.FuenteDatosService;
+import com.tuorg.veterinaria.reportes.service.IndicadorService;
+import com.tuorg.veterinaria.reportes.service.ReporteService;
+import com.tuorg.veterinaria.reportes.service.TrabajoReporteService;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para AuditoriaAspect.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de AuditoriaAspect")
+class AuditoriaAspectTest {
+
+    /**
+     * Nombres de operaciones que solo leen o calculan sin modificar datos.
+     */
+    private static final Pattern LECTURAS = Pattern.compile(
+            "(obtener|listar|buscar|contar|exportar|etag|verificar|validar|resolver|resumir|generarPDF"
+                    + "|generarResumen|rutaContenido|transferir).*");
+
+    /**
+     * Operaciones que modifican datos pero no se auditan a propósito: los
+     * flujos anónimos de /auth (historial_acciones exige usuario), el último
+     * acceso, el arranque y cierre de servicios, y el recálculo de la agenda
+     * de pacientes concretos, que siempre ocurre dentro de otra operación ya
+     * auditada (registrar vacuna, campaña, importación).
+     */
+    private static final Set<String> SIN_AUDITORIA = Set.of(
+            "AuthService.*", "CustomUserDetailsService.*", "UsuarioService.actualizarUltimoAcceso",
+            "AgendaPreventivaService.inicializar", "AgendaPreventivaService.recalcularPaciente",
+            "AgendaPreventivaService.recalcularPacientes", "FichaPacienteService.cerrar");
+
+    @Mock
+    private AuditoriaService auditoriaService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private AuditoriaAspect aspecto;
+
+    @BeforeEach
+    void setUp() {
+        aspecto = new AuditoriaAspect(auditoriaService, objectMapper);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Operación correcta: debe registrar usuario, operación e identificadores sin copiar textos")
+    void auditar_OperacionCorrecta_DeberiaRegistrarAccion() throws Throwable {
+        // Arrange
+        autenticar("vet1");
+        ProceedingJoinPoint punto = punto("cancelar", new String[]{"id", "motivo"}, new Object[]{5L, "secreto"});
+        when(punto.proceed()).thenReturn("ok");
+
+        // Act
+        Object resultado = aspecto.auditar(punto);
+
+        // Assert
+        assertThat(resultado).isEqualTo("ok");
+        ArgumentCaptor<Accion> captor = ArgumentCaptor.forClass(Accion.class);
+        verify(auditoriaService).registrar(captor.capture());
+        Accion accion = captor.getValue();
+        assertThat(accion.usuarioId()).isEqualTo(12L);
+        assertThat(accion.username()).isEqualTo("vet1");
+        assertThat(accion.descripcion()).isEqualTo("ServicioPrueba.cancelar(id=5)");
+        JsonNode metadata = objectMapper.readTree(accion.metadata());
+        assertThat(metadata.get("resultado").asText()).isEqualTo("OK");
+        assertThat(metadata.get("argumentos").get("id").asLong()).isEqualTo(5L);
+        assertThat(accion.metadata()).doesNotContain("secreto");
+    }
+
+    @Test
+    @DisplayName("Operación fallida: debe registrar el error y relanzar la excepción original")
+    void auditar_OperacionFallida_DeberiaRegistrarErrorYRelanzar() throws Throwable {
+        // Arrange
+        autenticar("vet1");
+        ProceedingJoinPoint punto = punto("anular", new String[]{"id"}, new Object[]{9L});
+        BusinessException error = new BusinessException("No se puede anular");
+        when(punto.proceed()).thenThrow(error);
+
+        // Act & Assert
+        assertThatThrownBy(() -> aspecto.auditar(punto)).isSameAs(error);
+        ArgumentCaptor<Accion> captor = ArgumentCaptor.forClass(Accion.class);
+        verify(auditoriaService).registrar(captor.capture());
+        JsonNode metadata = objectMapper.readTree(captor.getValue().metadata());
+        assertThat(metadata.get("resultado").asText()).isEqualTo("ERROR");
+        assertThat(metadata.get("error").asText()).isEqualTo("BusinessException");
+    }
+
+    @Test
+    @DisplayName("Llamadas anidadas: solo debe auditarse la operación más externa")
+    void auditar_LlamadasAnidadas_DeberiaAuditarSoloLaExterna() throws Throwable {
+        // Arrange
+        autenticar("vet1");
+        ProceedingJoinPoint interna = punto("registrarSalida", new String[]{"productoId"}, new Object[]{3L});
+        ProceedingJoinPoint externa = punto("crear", new String[0], new Object[0]);
+        when(externa.proceed()).thenAnswer(invocation -> aspecto.auditar(interna));
+
+        // Act
+        aspecto.auditar(externa);
+
+        // Assert
+        ArgumentCaptor<Accion> captor = ArgumentCaptor.forClass(Accion.class);
+        verify(auditoriaService, times(1)).registrar(captor.capture());
+        assertThat(captor.getValue().descripcion()).isEqualTo("ServicioPrueba.crear()");
+        verify(interna).proceed();
+    }
+
+    @Test
+    @DisplayName("Sin usuario autenticado: debe ejecutar la operación sin auditarla")
+    void auditar_Anonimo_NoDeberiaRegistrar() throws Throwable {
+        // Arrange
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken("clave",
+                "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+        ProceedingJoinPoint punto = mock(ProceedingJoinPoint.class);
+        when(punto.proceed()).thenReturn(null);
+
+        // Act
+        aspecto.auditar(punto);
+
+        // Assert
+        verify(punto).proceed();
+        verify(auditoriaService, never()).registrar(any());
+    }
+
+    @Test
+    @DisplayName("Operaciones marcadas fuera de los módulos de negocio: deben quedar dentro del aspecto")
+    void pointcut_OperacionesAuditables_DeberianInterceptarse() throws Exception {
+        // Arrange
+        AspectJExpressionPointcut pointcut = pointcutAuditoria();
+        List<Method> auditadas = List.of(
+                ConfigService.class.getMethod("actualizarValor", String.class, String.class),
+                BackupService.class.getMethod("crear", boolean.class),
+                BackupService.class.getMethod("restaurar", Long.class),
+                MantenimientoLogsSistema.class.getMethod("mantener"),
+                FuenteDatosService.class.getMethod("crear", FuenteDatosRequest.class),
+                FuenteDatosService.class.getMethod("actualizar", Long.class, FuenteDatosRequest.class),
+                TrabajoReporteService.class.getMethod("solicitar", ReporteRequest.class),
+                ReporteService.class.getMethod("generar", ReporteRequest.class),
+                IndicadorService.class.getMethod("reconstruir", Long.class),
+                EstadisticaService.class.getMethod("actualizar", Long.class, BigDecimal.class),
+                CuboAnaliticoService.class.getMethod("recargar"));
+        List<Method> lecturas = List.of(
+                ConfigService.class.getMethod("obtener", String.class),
+                BackupService.class.getMethod("listar"),
+                FuenteDatosService.class.getMethod("listar"));
+
+        // Act & Assert
+        assertThat(auditadas).allSatisfy(metodo -> assertThat(pointcut.matches(metodo, metodo.getDeclaringClass()))
+                .as(metodo.toString()).isTrue());
+        assertThat(lecturas).allSatisfy(metodo -> assertThat(pointcut.matches(metodo, metodo.getDeclaringClass()))
+                .as(metodo.toString()).isFalse());
+    }
+
+    @Test
+    @DisplayName("Servicios de negocio: toda operación pública que no sea de lectura debe auditarse")
+    void pointcut_ServiciosDeNegocio_DeberiaCubrirTodaModificacion() throws Exception {
+        // Arrange
+        AspectJExpressionPointcut pointcut = pointcutAuditoria();
+        ClassPathScanningCandidateComponentProvider escaner = new ClassPathScanningCandidateComponentProvider(false);
+        escaner.addIncludeFilter(new AnnotationTypeFilter(Service.class));
+        List<Method> metodos = new ArrayList<>();
+        for (String modulo : List.of("gestionusuarios", "gestionpacientes", "gestioninventario",
+                "gestionfacturacion", "prestacioneservicios", "archivos")) {
+            for (BeanDefinition definicion : escaner.findCandidateComponents("com.tuorg.veterinaria." + modulo)) {
+                Class<?> servicio = Class.forName(definicion.getBeanClassName());
+                for (Method metodo : servicio.getDeclaredMethods()) {
+                    if (Modifier.isPublic(metodo.getModifiers()) && !Modifier.isStatic(metodo.getModifiers())
+                            && !metodo.isSynthetic()) {
+                        metodos.add(metodo);
+                    }
+                }
+            }
+        }
+
+        // Act
+        List<String> sinAuditar = metodos.stream()
+                .filter(metodo -> !LECTURAS.matcher(metodo.getName()).matches())
+                .filter(metodo -> !SIN_AUDITORIA.contains(
+                        metodo.getDeclaringClass().getSimpleName() + "." + metodo.getName())
+                        && !SIN_AUDITORIA.contains(metodo.getDeclaringClass().getSimpleName() + ".*"))
+                .filter(metodo -> !pointcut.matches(metodo, metodo.getDeclaringClass()))
+                .map(metodo -> metodo.getDeclaringClass().getSimpleName() + "." + metodo.getName())
+                .toList();
+        List<String> lecturasAuditadas = metodos.stream()
+                .filter(metodo -> LECTURAS.matcher(metodo.getName()).matches())
+                .filter(metodo -> pointcut.matches(metodo, metodo.getDeclaringClass()))
+                .map(metodo -> metodo.getDeclaringClass().getSimpleName() + "." + metodo.getName())
+                .toList();
+
+        // Assert
+        assertThat(metodos).hasSizeGreaterThan(50);
+        assertThat(sinAuditar).isEmpty();
+        assertThat(lecturasAuditadas).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Cambio de parámetro: debe registrar la clave pero no el valor")
+    void auditar_ActualizarParametro_DeberiaRegistrarClaveSinValor() throws Exception {
+        // Arrange
+        autenticar("admin");
+        ParametroSistemaRepository repositorio = mock(ParametroSistemaRepository.class);
+        ParametroSistema parametro = new ParametroSistema();
+        parametro.setClave("smtp.clave");
+        parametro.setValor("anterior");
+        when(repositorio.findByClave("smtp.clave")).thenReturn(Optional.of(parametro));
+        ConfigService configService = proxy(new ConfigService(repositorio));
+
+        // Act
+        configService.actualizarValor("smtp.clave", "secreto");
+
+        // Assert
+        ArgumentCaptor<Accion> captor = ArgumentCaptor.forClass(Accion.class);
+        verify(auditoriaService).registrar(captor.capture());
+        assertThat(captor.getValue().descripcion()).isEqualTo("ConfigService.actualizarValor(clave=smtp.clave)");
+        assertThat(captor.getValue().metadata()).doesNotContain("secreto");
+    }
+
+    @Test
+    @DisplayName("Restauración rechazada: también debe quedar auditada como error")
+    void auditar_RestauracionRechazada_DeberiaRegistrarError(@TempDir Path directorio)
+            throws Exception {
+        // Arrange
+        autenticar("admin");
+        ConfigService configService = mock(ConfigService.class);
+        when(configService.getFoto()).thenReturn(FotoConfiguracion.vacia());
+        BackupService objetivo = new BackupService(mock(BackupDatosRepository.class),
+                mock(BackupSistemaRepository.class), mock(LogSistemaHistorialRepository.class), configService,
+                objectMapper, directorio.toString(), 1, List.of(), List.of(), List.of());
+        BackupService backupService = proxy(objetivo);
+
+        try {
+            // Act & Assert
+            assertThatThrownBy(() -> backupService.restaurar(7L)).isInstanceOf(BusinessException.class);
+            ArgumentCaptor<Accion> captor = ArgumentCaptor.forClass(Accion.class);
+            verify(auditoriaService).registrar(captor.capture());
+            assertThat(captor.getValue().descripcion()).startsWith("BackupService.restaurar(idBackup=7) falló");
+            assertThat(objectMapper.readTree(captor.getValue().metadata()).get("resultado").asText())
+                    .isEqualTo("ERROR");
+        } finally {
+            objetivo.cerrar();
+        }
+    }
+
+    private static AspectJExpressionPointcut pointcutAuditoria() throws NoSuchMethodException {
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut(AuditoriaAspect.class, new String[0],
+                new Class<?>[0]);
+        pointcut.setExpression(AuditoriaAspect.class.getMethod("auditar", ProceedingJoinPoint.class)
+                .getAnnotation(Around.class).value());
+        return pointcut;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(T objetivo) {
+        AspectJProxyFactory fabrica = new AspectJProxyFactory(objetivo);
+        fabrica.setProxyTargetClass(true);
+        fabrica.addAspect(aspecto);
+        return (T) fabrica.getProxy();
+    }
+
+    private static void autenticar(String username) {
+        UsuarioAutenticado usuario = new UsuarioAutenticado(12L, username, "hash", true,
+                AuthorityUtils.createAuthorityList("ROLE_VETERINARIO"));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(usuario,
+                null, usuario.getAuthorities()));
+    }
+
+    private static ProceedingJoinPoint punto(String metodo, String[] nombres, Object[] argumentos) {
+        MethodSignature firma = mock(MethodSignature.class);
+        lenient().when(firma.getDeclaringType()).thenReturn(ServicioPrueba.class);
+        lenient().when(firma.getName()).thenReturn(metodo);
+        lenient().when(firma.getParameterNames()).thenReturn(nombres);
+        ProceedingJoinPoint punto = mock(ProceedingJoinPoint.class);
+        lenient().when(punto.getSignature()).thenReturn(firma);
+        lenient().when(punto.getArgs()).thenReturn(argumentos);
+        return punto;
+    }
+
+    private static class ServicioPrueba {
+    }
+}
@@ -0,0 +1,147 @@
+package com.tuorg.veterinaria.auditoria.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuorg.veterinaria.auditoria.repository.AuditoriaRepository;
+import com.tuorg.veterinaria.auditoria.repository.AuditoriaRepository.Accion;
+import com.tuorg.veterinaria.common.util.EscritorPorLotes.Desborde;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para EscritorAuditoria.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de EscritorAuditoria")
+class EscritorAuditoriaTest {
+
+    @Mock
+    private AuditoriaRepository auditoriaRepository;
+
+    @TempDir
+    Path directorio;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private EscritorAuditoria escritor;
+
+    @AfterEach
+    void tearDown() {
+        if (escritor != null) {
+            escritor.cerrar();
+        }
+    }
+
+    @Test
+    @DisplayName("Base de datos caída: el lote debe guardarse en el respaldo y reenviarse al recuperarse")
+    void registrar_BaseDeDatosCaida_DeberiaRespaldarYReenviar() throws Exception {
+        // Arrange
+        Path respaldo = directorio.resolve("pendientes.jsonl");
+        List<String> insertadas = Collections.synchronizedList(new ArrayList<>());
+        doThrow(new DataAccessResourceFailureException("sin conexión"))
+                .doThrow(new DataAccessResourceFailureException("sin conexión"))
+                .doThrow(new DataAccessResourceFailureException("sin conexión"))
+                .doAnswer(invocation -> {
+                    invocation.<List<Accion>>getArgument(0).forEach(accion -> insertadas.add(accion.descripcion()));
+                    return null;
+                })
+                .when(auditoriaRepository).insertar(any());
+        escritor = crear(respaldo);
+
+        // Act
+        escritor.registrar(accion("CitaService.cancelar(id=1)"));
+        esperar(() -> escritor.getRespaldadas() == 1);
+        assertThat(Files.readAllLines(respaldo)).hasSize(1);
+        escritor.registrar(accion("CitaService.cancelar(id=2)"));
+        escritor.cerrar();
+
+        // Assert
+        assertThat(insertadas).containsExactlyInAnyOrder("CitaService.cancelar(id=1)", "CitaService.cancelar(id=2)");
+        assertThat(respaldo).doesNotExist();
+        assertThat(escritor.getDescartados()).isZero();
+    }
+
+    @Test
+    @DisplayName("Respaldo al arrancar: debe reenviarse ignorando las líneas ilegibles")
+    void reenviarRespaldo_ConLineaDaniada_DeberiaReenviarElRestoYBorrarlo() throws Exception {
+        // Arrange
+        Path respaldo = directorio.resolve("pendientes.jsonl");
+        Files.writeString(respaldo, objectMapper.writeValueAsString(accion("FacturaService.anular(id=7)"))
+                + "\n{\"username\":\"vet");
+        escritor = crear(respaldo);
+
+        // Act
+        escritor.reenviarAlArrancar();
+
+        // Assert
+        verify(auditoriaRepository).insertar(argThat(acciones -> acciones.size() == 1
+                && acciones.get(0).descripcion().equals("FacturaService.anular(id=7)")));
+        assertThat(respaldo).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Respaldo con una acción de un usuario borrado: debe reenviarse el resto y vaciarse el respaldo")
+    void reenviarRespaldo_ConAccionRechazada_DeberiaDescartarlaYBorrarElRespaldo() throws Exception {
+        // Arrange
+        Path respaldo = directorio.resolve("pendientes.jsonl");
+        Accion huerfana = new Accion(99L, "borrado", LocalDateTime.of(2024, 6, 15, 9, 0),
+                "UsuarioService.actualizar(id=99)", "{}");
+        Files.writeString(respaldo, objectMapper.writeValueAsString(accion("CitaService.completar(id=1)")) + "\n"
+                + objectMapper.writeValueAsString(huerfana) + "\n"
+                + objectMapper.writeValueAsString(accion("CitaService.completar(id=2)")) + "\n");
+        List<String> insertadas = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<Accion> acciones = invocation.getArgument(0);
+            if (acciones.stream().anyMatch(accion -> accion.usuarioId() == 99L)) {
+                throw new DataIntegrityViolationException("historial_acciones_usuario_id_fkey");
+            }
+            acciones.forEach(accion -> insertadas.add(accion.descripcion()));
+            return null;
+        }).when(auditoriaRepository).insertar(any());
+        escritor = crear(respaldo);
+
+        // Act
+        int reenviadas = escritor.reenviarRespaldo();
+
+        // Assert
+        assertThat(reenviadas).isEqualTo(2);
+        assertThat(insertadas).containsExactly("CitaService.completar(id=1)", "CitaService.completar(id=2)");
+        assertThat(respaldo).doesNotExist();
+    }
+
+    private EscritorAuditoria crear(Path respaldo) {
+        return new EscritorAuditoria(auditoriaRepository, objectMapper, 64, 10, Duration.ofMillis(10),
+                Desborde.ESPERAR, Duration.ofMillis(100), Duration.ofSeconds(5), respaldo);
+    }
+
+    private static Accion accion(String descripcion) {
+        return new Accion(4L, "vet1", LocalDateTime.of(2024, 6, 15, 10, 0), descripcion, "{}");
+    }
+
+    private static void esperar(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5_000;
+        while (!condicion.getAsBoolean() && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        assertThat(condicion.getAsBoolean()).isTrue();
+    }
+}
@@ -0,0 +1,102 @@
+package com.tuorg.veterinaria.busqueda.listener;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuorg.veterinaria.busqueda.model.TipoDocumentoOmnibox;
+import com.tuorg.veterinaria.busqueda.service.OmniboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para OmniboxListener.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de OmniboxListener")
+class OmniboxListenerTest {
+
+    @Mock
+    private OmniboxService omniboxService;
+
+    private OmniboxListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new OmniboxListener(omniboxService, new DataSourceProperties(), new ObjectMapper(),
+                true, Duration.ofMinutes(1), Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Varios avisos en una lectura: debe releerlos con una llamada por tipo")
+    void notificacionesProcesadas_VariosAvisos_DeberiaAgruparPorTipo() {
+        // Act
+        listener.procesar("{\"tipo\" : \"CLIENTE\", \"ids\" : [10]}");
+        listener.procesar("{\"tipo\" : \"PACIENTE\", \"ids\" : [1,2]}");
+        listener.procesar("{\"tipo\" : \"CLIENTE\", \"ids\" : [11,10]}");
+        listener.procesar("{\"tipo\" : \"PACIENTE\", \"ids\" : [3]}");
+        listener.notificacionesProcesadas();
+
+        // Assert
+        verify(omniboxService).reindexar(TipoDocumentoOmnibox.CLIENTE, Set.of(10L, 11L));
+        verify(omniboxService).reindexar(TipoDocumentoOmnibox.PACIENTE, Set.of(1L, 2L, 3L));
+        verifyNoMoreInteractions(omniboxService);
+    }
+
+    @Test
+    @DisplayName("Aviso de recarga o ilegible: debe recargar el índice una vez y descartar los IDs")
+    void notificacionesProcesadas_RecargaOIlegible_DeberiaRecargarUnaVez() {
+        // Act
+        listener.procesar("{\"tipo\" : \"CITA\", \"ids\" : [7]}");
+        listener.procesar("{\"tipo\" : \"RECARGA\"}");
+        listener.procesar("{\"tipo\" : \"DESCONOCIDO\", \"ids\" : [1]}");
+        listener.procesar("no es json");
+        listener.notificacionesProcesadas();
+
+        // Assert
+        verify(omniboxService).cargarIndice();
+        verify(omniboxService, never()).reindexar(any(), any());
+    }
+
+    @Test
+    @DisplayName("Fallo al releer: debe conservar los IDs y reintentarlos en la verificación")
+    void verificar_FalloAlReleer_DeberiaReintentar() {
+        // Arrange
+        doThrow(new DataAccessResourceFailureException("sin conexión"))
+                .doNothing()
+                .when(omniboxService).reindexar(eq(TipoDocumentoOmnibox.FACTURA), any());
+        listener.procesar("{\"tipo\" : \"FACTURA\", \"ids\" : [5]}");
+        listener.notificacionesProcesadas();
+
+        // Act
+        listener.verificar();
+        listener.verificar();
+
+        // Assert
+        verify(omniboxService, times(2)).reindexar(TipoDocumentoOmnibox.FACTURA, Set.of(5L));
+    }
+
+    @Test
+    @DisplayName("Notificaciones deshabilitadas: debe cargar el índice una vez sin escuchar")
+    void iniciar_NotificacionesDeshabilitadas_DeberiaCargarUnaVez() {
+        // Arrange
+        OmniboxListener sinNotificaciones = new OmniboxListener(omniboxService, new DataSourceProperties(),
+                new ObjectMapper(), false, Duration.ofMinutes(1), Duration.ofSeconds(5));
+
+        // Act
+        sinNotificaciones.iniciar();
+
+        // Assert
+        verify(omniboxService).cargarIndice();
+    }
+}
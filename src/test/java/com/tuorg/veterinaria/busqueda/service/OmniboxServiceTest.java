@@ -0,0 +1,149 @@
+package com.tuorg.veterinaria.busqueda.service;
+
+import com.tuorg.veterinaria.busqueda.dto.DocumentoOmnibox;
+import com.tuorg.veterinaria.busqueda.dto.OmniboxResultadoResponse;
+import com.tuorg.veterinaria.busqueda.model.TipoDocumentoOmnibox;
+import com.tuorg.veterinaria.busqueda.repository.OmniboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas unitarias para OmniboxService.
+ * 
+ * Verifica la búsqueda por prefijos sin acentos, la intersección de tokens,
+ * el filtrado por rol y la actualización incremental del índice.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de OmniboxService")
+class OmniboxServiceTest {
+
+    @Mock
+    private OmniboxRepository omniboxRepository;
+
+    @InjectMocks
+    private OmniboxService omniboxService;
+
+    @BeforeEach
+    void setUp() {
+        // Arrange: índice inicial cargado en streaming
+        when(omniboxRepository.streamPacientes()).thenReturn(Stream.of(
+                new DocumentoOmnibox("PACIENTE", 1L, "Max", "perro - Diego López", "Max Diego López"),
+                new DocumentoOmnibox("PACIENTE", 2L, "Maxi", "gato - Ana Peña", "Maxi Ana Peña")));
+        when(omniboxRepository.streamClientes()).thenReturn(Stream.of(
+                new DocumentoOmnibox("CLIENTE", 10L, "Diego López", "diego@email.com", "Diego López 1032 diego@email.com")));
+        when(omniboxRepository.streamProductos()).thenReturn(Stream.empty());
+        when(omniboxRepository.streamFacturas()).thenReturn(Stream.of(
+                new DocumentoOmnibox("FACTURA", 5L, "FAC-000123", "Diego López", "FAC-000123 Diego López")));
+        when(omniboxRepository.streamCitas()).thenReturn(Stream.empty());
+        omniboxService.cargarIndice();
+    }
+
+    @Test
+    @DisplayName("Buscar: prefijo sin acentos debe encontrar el texto acentuado")
+    void buscarPrefijoSinAcentos_DeberiaEncontrarTextoAcentuado() {
+        // Act
+        List<OmniboxResultadoResponse> resultados = omniboxService.buscar("pen", List.of("ADMIN"), null);
+
+        // Assert
+        assertThat(resultados).extracting(OmniboxResultadoResponse::getId).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Buscar: varios tokens deben intersectarse y priorizar coincidencia exacta")
+    void buscarVariosTokens_DeberiaIntersectarYOrdenar() {
+        // Act
+        List<OmniboxResultadoResponse> resultados = omniboxService.buscar("max lop", List.of("ADMIN"), null);
+        List<OmniboxResultadoResponse> porNombre = omniboxService.buscar("max", List.of("ADMIN"), null);
+
+        // Assert
+        assertThat(resultados).extracting(OmniboxResultadoResponse::getId).containsExactly(1L);
+        assertThat(porNombre).extracting(OmniboxResultadoResponse::getId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Buscar: el veterinario no debe ver facturas")
+    void buscarComoVeterinario_NoDeberiaIncluirFacturas() {
+        // Act
+        List<OmniboxResultadoResponse> admin = omniboxService.buscar("diego", List.of("ADMIN"), null);
+        List<OmniboxResultadoResponse> veterinario = omniboxService.buscar("diego", List.of("VETERINARIO"), null);
+        List<OmniboxResultadoResponse> cliente = omniboxService.buscar("diego", List.of("CLIENTE"), null);
+
+        // Assert
+        assertThat(admin).extracting(OmniboxResultadoResponse::getTipo).contains(TipoDocumentoOmnibox.FACTURA);
+        assertThat(veterinario).extracting(OmniboxResultadoResponse::getTipo)
+                .doesNotContain(TipoDocumentoOmnibox.FACTURA)
+                .contains(TipoDocumentoOmnibox.CLIENTE, TipoDocumentoOmnibox.PACIENTE);
+        assertThat(cliente).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Reindexar y eliminar: el índice debe reflejar el cambio")
+    void reindexarYEliminar_DeberiaActualizarIndice() {
+        // Arrange
+        when(omniboxRepository.findPacientes(List.of(1L))).thenReturn(List.of(
+                new DocumentoOmnibox("PACIENTE", 1L, "Rocky", "perro - Diego López", "Rocky Diego López")));
+
+        // Act
+        omniboxService.reindexar(TipoDocumentoOmnibox.PACIENTE, List.of(1L));
+
+        // Assert
+        assertThat(omniboxService.buscar("rock", List.of("ADMIN"), null))
+                .extracting(OmniboxResultadoResponse::getId).containsExactly(1L);
+        assertThat(omniboxService.buscar("max", List.of("ADMIN"), null))
+                .extracting(OmniboxResultadoResponse::getId).containsExactly(2L);
+
+        omniboxService.eliminar(TipoDocumentoOmnibox.PACIENTE, 1L);
+        assertThat(omniboxService.buscar("rock", List.of("ADMIN"), null)).isEmpty();
+        assertThat(omniboxService.totalDocumentos()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Reindexar un cliente: debe arrastrar sus pacientes y facturas y quitar los que ya no existen")
+    void reindexarCliente_DeberiaArrastrarPacientesYFacturas() {
+        // Arrange
+        when(omniboxRepository.findClientes(List.of(10L, 11L))).thenReturn(List.of(
+                new DocumentoOmnibox("CLIENTE", 10L, "Diego Ruiz", "diego@email.com", "Diego Ruiz diego@email.com")));
+        when(omniboxRepository.findPacientesPorClientes(List.of(10L, 11L))).thenReturn(List.of(
+                new DocumentoOmnibox("PACIENTE", 1L, "Max", "perro - Diego Ruiz", "Max Diego Ruiz")));
+        when(omniboxRepository.findFacturasPorClientes(List.of(10L, 11L))).thenReturn(List.of(
+                new DocumentoOmnibox("FACTURA", 5L, "FAC-000123", "Diego Ruiz", "FAC-000123 Diego Ruiz")));
+
+        // Act
+        omniboxService.reindexar(TipoDocumentoOmnibox.CLIENTE, List.of(10L, 11L));
+
+        // Assert
+        assertThat(omniboxService.buscar("ruiz", List.of("ADMIN"), null))
+                .extracting(OmniboxResultadoResponse::getId).containsExactlyInAnyOrder(1L, 5L, 10L);
+        assertThat(omniboxService.buscar("lopez", List.of("ADMIN"), null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Recargar: debe reemplazar el índice completo")
+    void cargarIndice_DeberiaReemplazarIndice() {
+        // Arrange
+        when(omniboxRepository.streamPacientes()).thenReturn(Stream.of(
+                new DocumentoOmnibox("PACIENTE", 2L, "Maxi", "gato - Ana Peña", "Maxi Ana Peña")));
+        when(omniboxRepository.streamClientes()).thenReturn(Stream.empty());
+        when(omniboxRepository.streamProductos()).thenReturn(Stream.empty());
+        when(omniboxRepository.streamFacturas()).thenReturn(Stream.empty());
+        when(omniboxRepository.streamCitas()).thenReturn(Stream.empty());
+
+        // Act
+        omniboxService.cargarIndice();
+
+        // Assert
+        assertThat(omniboxService.totalDocumentos()).isEqualTo(1);
+        assertThat(omniboxService.buscar("diego", List.of("ADMIN"), null)).isEmpty();
+    }
+}
@@ -0,0 +1,190 @@
+package com.tuorg.veterinaria.common.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas unitarias para EscritorXlsx.
+ *
+ * Leen de vuelta el ZIP generado para verificar las partes del libro y el
+ * uso de la tabla de cadenas compartidas. La medición de memoria con
+ * distintos volúmenes solo se ejecuta con -Dbenchmark=true.
+ */
+@DisplayName("Pruebas unitarias de EscritorXlsx")
+class EscritorXlsxTest {
+
+    @Test
+    @DisplayName("Libro con dos hojas: debe contener todas las partes y los valores tipados")
+    void escribir_DosHojas_DeberiaGenerarLibroCompleto() throws IOException {
+        // Arrange
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        // Act
+        try (EscritorXlsx libro = new EscritorXlsx(salida)) {
+            libro.iniciarHoja("Citas", "Paciente", "Fecha", "Total");
+            libro.escribirFila("Firulais", LocalDate.of(2024, 1, 1), new BigDecimal("1500.50"));
+            libro.escribirFila("Firulais", LocalDateTime.of(2024, 1, 1, 12, 0), null);
+            libro.iniciarHoja("Facturas/2024", "Número");
+            libro.escribirFila("F-001 <A&B>");
+        }
+
+        // Assert
+        Map<String, String> partes = leer(salida.toByteArray());
+        assertThat(partes).containsKeys("[Content_Types].xml", "_rels/.rels", "xl/workbook.xml",
+                "xl/_rels/workbook.xml.rels", "xl/styles.xml", "xl/sharedStrings.xml",
+                "xl/worksheets/sheet1.xml", "xl/worksheets/sheet2.xml");
+        assertThat(partes.get("xl/workbook.xml")).contains("name=\"Citas\"", "name=\"Facturas 2024\"");
+        assertThat(partes.get("xl/worksheets/sheet1.xml"))
+                .contains("<c r=\"B2\" s=\"1\"><v>45292</v></c>")
+                .contains("<c r=\"C2\"><v>1500.50</v></c>")
+                .contains("<c r=\"B3\" s=\"2\"><v>45292.5</v></c>")
+                .doesNotContain("r=\"C3\"");
+        assertThat(partes.get("xl/sharedStrings.xml"))
+                .contains("count=\"7\" uniqueCount=\"6\"")
+                .contains("<t xml:space=\"preserve\">F-001 &lt;A&amp;B&gt;</t>");
+    }
+
+    @Test
+    @DisplayName("Más textos distintos que el tope: deben escribirse en línea sin crecer la tabla")
+    void escribir_TextosDistintosSobreElTope_DeberiaEscribirEnLinea() throws IOException {
+        // Arrange
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        int filas = EscritorXlsx.MAX_CADENAS_COMPARTIDAS + 10;
+        int tablaCompartida;
+
+        // Act
+        try (EscritorXlsx libro = new EscritorXlsx(salida)) {
+            libro.iniciarHoja("Datos");
+            for (int i = 0; i < filas; i++) {
+                libro.escribirFila("valor-" + i);
+            }
+            libro.escribirFila("valor-0");
+            tablaCompartida = libro.getCadenasCompartidas();
+            assertThat(libro.getFilasHoja()).isEqualTo(filas + 1L);
+        }
+
+        // Assert
+        assertThat(tablaCompartida).isEqualTo(EscritorXlsx.MAX_CADENAS_COMPARTIDAS);
+        String hoja = leer(salida.toByteArray()).get("xl/worksheets/sheet1.xml");
+        assertThat(hoja).contains("<is><t xml:space=\"preserve\">valor-" + EscritorXlsx.MAX_CADENAS_COMPARTIDAS + "</t></is>");
+        assertThat(hoja).contains("<c r=\"A" + (filas + 1) + "\" t=\"s\"><v>0</v></c>");
+    }
+
+    @Test
+    @DisplayName("Hoja llena: debe continuar en otra hoja numerada con los mismos encabezados")
+    void escribirFila_HojaLlena_DeberiaContinuarEnOtraHoja() throws IOException {
+        // Arrange
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        int hojas;
+
+        // Act
+        try (EscritorXlsx libro = new EscritorXlsx(salida, 3)) {
+            libro.iniciarHoja("Citas", "ID");
+            for (long id = 1; id <= 5; id++) {
+                libro.escribirFila(id);
+            }
+            hojas = libro.getHojas();
+        }
+
+        // Assert
+        Map<String, String> partes = leer(salida.toByteArray());
+        assertThat(hojas).isEqualTo(3);
+        assertThat(partes.get("xl/workbook.xml"))
+                .contains("name=\"Citas\"", "name=\"Citas (2)\"", "name=\"Citas (3)\"");
+        assertThat(partes.get("xl/worksheets/sheet2.xml"))
+                .contains("<c r=\"A1\" s=\"3\" t=\"s\">")
+                .contains("<c r=\"A2\"><v>3</v></c>", "<c r=\"A3\"><v>4</v></c>")
+                .doesNotContain("r=\"A4\"");
+        assertThat(partes.get("xl/worksheets/sheet3.xml")).contains("<c r=\"A2\"><v>5</v></c>");
+    }
+
+    @Test
+    @DisplayName("Nombres que coinciden al recortarlos: deben numerarse sin pasar de 31 caracteres")
+    void iniciarHoja_NombresRepetidosAlRecortar_DeberiaNumerarlos() throws IOException {
+        // Arrange
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        String largo = "Fuente Historial de vacunación anual";
+
+        // Act
+        try (EscritorXlsx libro = new EscritorXlsx(salida)) {
+            libro.iniciarHoja(largo + " 2023");
+            libro.iniciarHoja(largo + " 2024");
+            libro.iniciarHoja("resumen");
+            libro.iniciarHoja("Resumen");
+        }
+
+        // Assert
+        assertThat(leer(salida.toByteArray()).get("xl/workbook.xml"))
+                .contains("name=\"Fuente Historial de vacunación\"")
+                .contains("name=\"Fuente Historial de vacunac (2)\"")
+                .contains("name=\"resumen\"", "name=\"Resumen (2)\"");
+    }
+
+    /**
+     * Mide el pico de heap al escribir 10 mil, 100 mil y 1 millón de filas.
+     * Con escritura en streaming el pico debe mantenerse plano.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark: el pico de memoria no debe crecer con el número de filas")
+    void benchmark_PicoDeMemoria_DeberiaSerConstante() throws IOException {
+        Map<Integer, Long> picos = new LinkedHashMap<>();
+        for (int filas : List.of(10_000, 100_000, 1_000_000)) {
+            System.gc();
+            List<MemoryPoolMXBean> heap = ManagementFactory.getMemoryPoolMXBeans().stream()
+                    .filter(pool -> pool.getType() == MemoryType.HEAP)
+                    .toList();
+            heap.forEach(MemoryPoolMXBean::resetPeakUsage);
+            long inicio = System.nanoTime();
+
+            try (EscritorXlsx libro = new EscritorXlsx(OutputStream.nullOutputStream())) {
+                libro.iniciarHoja("Citas", "ID", "Fecha y hora", "Paciente", "Estado", "Total");
+                LocalDateTime base = LocalDateTime.of(2024, 1, 1, 8, 0);
+                for (int i = 0; i < filas; i++) {
+                    libro.escribirFila((long) i, base.plusMinutes(i), "Paciente " + (i % 5_000),
+                            i % 3 == 0 ? "REALIZADA" : "PROGRAMADA", BigDecimal.valueOf(i, 2));
+                }
+            }
+
+            long pico = heap.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+            picos.put(filas, pico);
+            System.out.printf("%,d filas: pico de heap %,d KiB en %d ms%n",
+                    filas, pico / 1024, (System.nanoTime() - inicio) / 1_000_000);
+        }
+
+        // El pico de 1 millón de filas no debe superar al de 10 mil más un margen para el GC
+        assertThat(picos.get(1_000_000)).isLessThan(picos.get(10_000) * 2 + 64L * 1024 * 1024);
+    }
+
+    private static Map<String, String> leer(byte[] xlsx) throws IOException {
+        Map<String, String> partes = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(xlsx))) {
+            ZipEntry entrada;
+            while ((entrada = zip.getNextEntry()) != null) {
+                partes.put(entrada.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return partes;
+    }
+}
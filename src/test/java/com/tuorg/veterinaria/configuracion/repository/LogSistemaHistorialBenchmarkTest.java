@@ -0,0 +1,98 @@
+package com.tuorg.veterinaria.configuracion.repository;
+
+import com.tuorg.veterinaria.config.AbstractIntegrationTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark de consultas de un día sobre logs_sistema particionada a medida
+ * que crece el histórico. El plan solo debe recorrer la partición del mes
+ * consultado y el coste de la página debe mantenerse estable.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("Benchmark de LogSistemaHistorialRepository")
+class LogSistemaHistorialBenchmarkTest extends AbstractIntegrationTest {
+
+    private static final int FILAS_POR_MES = 300_000;
+
+    private static final Pattern PARTICION = Pattern.compile(" on (logs_sistema_\\w+)");
+
+    @Autowired
+    private LogSistemaHistorialRepository logSistemaHistorialRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Benchmark: página de un día con 1, 6 y 12 meses de histórico")
+    void benchmark_ConsultaDeUnDia_SegunHistorico() {
+        YearMonth actual = YearMonth.now();
+        OffsetDateTime desde = actual.atDay(10).atStartOfDay().atOffset(ZoneOffset.UTC);
+        Map<Integer, Double> milisegundos = new LinkedHashMap<>();
+        int cargados = 0;
+        for (int meses : new int[]{1, 6, 12}) {
+            for (; cargados < meses; cargados++) {
+                YearMonth mes = actual.minusMonths(cargados);
+                logSistemaHistorialRepository.crearParticion(mes);
+                jdbcTemplate.update("INSERT INTO logs_sistema (fecha_hora, nivel, componente, mensaje) "
+                        + "SELECT ?::timestamptz + (random() * INTERVAL '28 days'), "
+                        + "(ARRAY['INFO','WARN','ERROR','DEBUG'])[1 + (g % 4)], 'Benchmark', 'evento ' || g "
+                        + "FROM generate_series(1, ?) g",
+                        mes.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC), FILAS_POR_MES);
+            }
+            jdbcTemplate.execute("ANALYZE logs_sistema");
+
+            // Poda de particiones: solo el mes consultado, ni los demás ni la de por defecto
+            assertThat(particionesRecorridas(desde, desde.plusDays(1)))
+                    .containsOnly("logs_sistema_" + actual.toString().replace('-', '_'));
+
+            for (int i = 0; i < 20; i++) {
+                logSistemaHistorialRepository.buscar(desde, desde.plusDays(1), "ERROR", null, null, 101);
+            }
+            int repeticiones = 200;
+            long inicio = System.nanoTime();
+            for (int i = 0; i < repeticiones; i++) {
+                logSistemaHistorialRepository.buscar(desde, desde.plusDays(1), "ERROR", null, null, 101);
+            }
+            double porPagina = (System.nanoTime() - inicio) / 1e6 / repeticiones;
+            milisegundos.put(meses, porPagina);
+            System.out.printf("Histórico de %d meses (%d filas): %.2f ms por página%n",
+                    meses, (long) meses * FILAS_POR_MES, porPagina);
+        }
+
+        // Doce veces más histórico no debe notarse más allá del ruido de medida
+        assertThat(milisegundos.get(12)).isLessThan(milisegundos.get(1) * 2 + 1);
+    }
+
+    /**
+     * Particiones que recorre el plan de la consulta de una página.
+     */
+    private Set<String> particionesRecorridas(OffsetDateTime desde, OffsetDateTime hasta) {
+        Set<String> particiones = new TreeSet<>();
+        jdbcTemplate.queryForList("EXPLAIN SELECT id_log, fecha_hora, nivel, componente, mensaje, metadata::text "
+                        + "FROM logs_sistema WHERE fecha_hora >= ? AND fecha_hora < ? AND nivel = ? "
+                        + "ORDER BY fecha_hora DESC, id_log DESC LIMIT 101", String.class, desde, hasta, "ERROR")
+                .forEach(linea -> {
+                    Matcher matcher = PARTICION.matcher(linea);
+                    while (matcher.find()) {
+                        particiones.add(matcher.group(1));
+                    }
+                });
+        return particiones;
+    }
+}
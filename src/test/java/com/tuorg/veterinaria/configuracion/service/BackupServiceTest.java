@@ -0,0 +1,326 @@
+package com.tuorg.veterinaria.configuracion.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.configuracion.dto.BackupResponse;
+import com.tuorg.veterinaria.configuracion.model.BackupSistema;
+import com.tuorg.veterinaria.configuracion.repository.BackupDatosRepository;
+import com.tuorg.veterinaria.configuracion.repository.BackupDatosRepository.Carga;
+import com.tuorg.veterinaria.configuracion.repository.BackupDatosRepository.Instantanea;
+import com.tuorg.veterinaria.configuracion.repository.BackupDatosRepository.Origenes;
+import com.tuorg.veterinaria.configuracion.repository.BackupDatosRepository.Recorte;
+import com.tuorg.veterinaria.configuracion.repository.BackupDatosRepository.Tabla;
+import com.tuorg.veterinaria.configuracion.repository.BackupSistemaRepository;
+import com.tuorg.veterinaria.configuracion.repository.LogSistemaHistorialRepository;
+import com.tuorg.veterinaria.configuracion.repository.LogSistemaHistorialRepository.Particion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para BackupService.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de BackupService")
+class BackupServiceTest {
+
+    private static final Tabla USUARIOS = new Tabla("usuarios", List.of("id_usuario", "nombre"), Set.of());
+    private static final Tabla LOGS = new Tabla("logs_sistema", List.of("id_log", "mensaje"), Set.of());
+    private static final Tabla HISTORIAL = new Tabla("historial_acciones", List.of("id_accion", "usuario_id"),
+            Set.of("usuarios"));
+
+    @Mock
+    private BackupDatosRepository backupDatosRepository;
+
+    @Mock
+    private BackupSistemaRepository backupSistemaRepository;
+
+    @Mock
+    private LogSistemaHistorialRepository logSistemaHistorialRepository;
+
+    @Mock
+    private ConfigService configService;
+
+    @TempDir
+    Path directorio;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final Map<Long, BackupSistema> registrados = new ConcurrentHashMap<>();
+    private final AtomicLong secuencia = new AtomicLong();
+    private final AtomicReference<String> corte = new AtomicReference<>("100:100:");
+    private final AtomicLong generacion = new AtomicLong(1);
+
+    private BackupService backupService;
+
+    @BeforeEach
+    void setUp() {
+        backupService = new BackupService(backupDatosRepository, backupSistemaRepository,
+                logSistemaHistorialRepository, configService, objectMapper, directorio, 2, List.of(),
+                Set.of("logs_sistema"), Set.of("historial_acciones"), relojQueAvanza());
+        lenient().when(backupDatosRepository.versionEsquema()).thenReturn("15");
+        lenient().when(backupDatosRepository.listarTablas(any())).thenReturn(List.of(HISTORIAL, LOGS, USUARIOS));
+        lenient().when(backupDatosRepository.registrar(any(), anyString(), anyString())).thenAnswer(invocation -> {
+            long id = secuencia.incrementAndGet();
+            registrados.put(id, new BackupSistema(id, invocation.getArgument(0), invocation.getArgument(1),
+                    invocation.getArgument(2)));
+            return id;
+        });
+        lenient().when(backupSistemaRepository.findById(any()))
+                .thenAnswer(invocation -> Optional.ofNullable(registrados.get(invocation.<Long>getArgument(0))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        backupService.cerrar();
+    }
+
+    @Test
+    @DisplayName("Copia completa: debe empaquetar todas las tablas y registrar tamaños y sumas")
+    void crear_Completa_DeberiaEmpaquetarTodasLasTablas() throws Exception {
+        // Arrange
+        prepararExportacion();
+
+        // Act
+        BackupResponse respuesta = backupService.crear(false);
+
+        // Assert
+        assertThat(respuesta.getTipo()).isEqualTo(ManifiestoBackup.COMPLETA);
+        assertThat(respuesta.getTablas()).isEqualTo(3);
+        assertThat(respuesta.getBytesArchivo()).isPositive();
+        try (ZipFile zip = new ZipFile(respuesta.getRutaArchivo())) {
+            assertThat(zip.stream().map(entrada -> entrada.getName())).containsExactlyInAnyOrder(
+                    "manifiesto.json", "tablas/usuarios.copy.gz", "tablas/logs_sistema.copy.gz",
+                    "tablas/historial_acciones.copy.gz");
+        }
+        ManifiestoBackup manifiesto = objectMapper.readValue(registrados.get(1L).getMetadata(),
+                ManifiestoBackup.class);
+        assertThat(manifiesto.corte()).isEqualTo("100:100:");
+        assertThat(manifiesto.generacion()).isEqualTo(1L);
+        assertThat(manifiesto.entrada("logs_sistema").modo()).isEqualTo(ManifiestoBackup.COMPLETA);
+        assertThat(manifiesto.tablas()).allSatisfy(entrada -> assertThat(entrada.sha256()).hasSize(64));
+        assertThat(directorio.toFile().list()).containsExactly(Path.of(respuesta.getRutaArchivo()).getFileName()
+                .toString());
+    }
+
+    @Test
+    @DisplayName("Copia incremental: solo las tablas de solo inserción deben partir del corte anterior")
+    void crear_Incremental_DeberiaPartirDelCorteAnterior() throws Exception {
+        // Arrange: una transacción (98) seguía abierta en el corte de la copia base
+        prepararExportacion();
+        corte.set("97:100:98");
+        backupService.crear(false);
+        when(backupSistemaRepository.findFirstByOrderByIdBackupDesc()).thenReturn(Optional.of(registrados.get(1L)));
+        corte.set("140:140:");
+
+        // Act
+        BackupResponse respuesta = backupService.crear(true);
+
+        // Assert
+        assertThat(respuesta.getTipo()).isEqualTo(ManifiestoBackup.INCREMENTAL);
+        assertThat(respuesta.getIdBase()).isEqualTo(1L);
+        verify(backupDatosRepository).exportar(any(), eq(LOGS), eq("97:100:98"), any());
+        verify(backupDatosRepository, times(2)).exportar(any(), eq(USUARIOS), eq(null), any());
+        ManifiestoBackup manifiesto = objectMapper.readValue(registrados.get(2L).getMetadata(),
+                ManifiestoBackup.class);
+        assertThat(manifiesto.corte()).isEqualTo("140:140:");
+        assertThat(manifiesto.entrada("logs_sistema").modo()).isEqualTo(ManifiestoBackup.INCREMENTAL);
+        assertThat(manifiesto.entrada("usuarios").modo()).isEqualTo(ManifiestoBackup.COMPLETA);
+    }
+
+    @Test
+    @DisplayName("Copia incremental tras una restauración o de otro servidor: debe hacerse completa")
+    void crear_IncrementalSinBaseEncadenable_DeberiaHacerseCompleta() {
+        // Arrange
+        prepararExportacion();
+        backupService.crear(false);
+        when(backupSistemaRepository.findFirstByOrderByIdBackupDesc()).thenReturn(Optional.of(registrados.get(1L)));
+        generacion.set(2);
+
+        // Act
+        BackupResponse trasRestaurar = backupService.crear(true);
+        when(backupSistemaRepository.findFirstByOrderByIdBackupDesc()).thenReturn(Optional.of(registrados.get(2L)));
+        corte.set("40:40:");
+        BackupResponse otroServidor = backupService.crear(true);
+
+        // Assert
+        assertThat(trasRestaurar.getTipo()).isEqualTo(ManifiestoBackup.COMPLETA);
+        assertThat(otroServidor.getTipo()).isEqualTo(ManifiestoBackup.COMPLETA);
+        verify(backupDatosRepository, never()).exportar(any(), any(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Restaurar incremental: debe cargar la cadena en una sola operación por orden de dependencias")
+    void restaurar_Incremental_DeberiaCargarCadenaEnOrden() {
+        // Arrange
+        prepararExportacion();
+        backupService.crear(false);
+        when(backupSistemaRepository.findFirstByOrderByIdBackupDesc()).thenReturn(Optional.of(registrados.get(1L)));
+        corte.set("140:140:");
+        backupService.crear(true);
+        enMantenimiento(true);
+        Map<String, List<String>> cargado = new ConcurrentHashMap<>();
+        List<String> orden = new ArrayList<>();
+        when(logSistemaHistorialRepository.listarParticiones()).thenReturn(List.of(
+                new Particion("logs_sistema_2024_07", YearMonth.of(2024, 7)),
+                new Particion("logs_sistema_2024_06", YearMonth.of(2024, 6))));
+        when(backupDatosRepository.restaurar(any(), any(), any())).thenAnswer(invocation -> {
+            Origenes origenes = invocation.getArgument(2);
+            long filas = 0;
+            for (Tabla tabla : invocation.<List<Tabla>>getArgument(0)) {
+                List<String> contenidos = new ArrayList<>();
+                for (InputStream origen : origenes.abrir(tabla)) {
+                    try (origen) {
+                        contenidos.add(new String(origen.readAllBytes(), StandardCharsets.UTF_8));
+                    }
+                }
+                cargado.put(tabla.nombre(), contenidos);
+                orden.add(tabla.nombre());
+                filas += contenidos.size();
+            }
+            return filas;
+        });
+
+        // Act
+        BackupService.Restauracion restauracion = backupService.restaurar(2L);
+
+        // Assert
+        assertThat(restauracion.copias()).containsExactly(1L, 2L);
+        assertThat(restauracion.filas()).isEqualTo(4);
+        assertThat(cargado.get("logs_sistema")).containsExactly("logs_sistema completa",
+                "logs_sistema desde 100:100:");
+        assertThat(cargado.get("usuarios")).containsExactly("usuarios completa");
+        assertThat(orden.indexOf("historial_acciones")).isGreaterThan(orden.indexOf("usuarios"));
+        InOrder enOrden = inOrder(backupDatosRepository, configService);
+        ArgumentCaptor<Carga> carga = ArgumentCaptor.forClass(Carga.class);
+        enOrden.verify(backupDatosRepository).restaurar(any(), carga.capture(), any());
+        enOrden.verify(configService).cargarTodos();
+        assertThat(carga.getValue().conservadas()).containsExactly("historial_acciones");
+        assertThat(carga.getValue().recortes()).containsOnlyKeys("logs_sistema");
+        assertThat(carga.getValue().recortes().get("logs_sistema"))
+                .isEqualTo(new Recorte("fecha_hora", LocalDateTime.of(2024, 6, 1, 0, 0)));
+    }
+
+    @Test
+    @DisplayName("Restaurar sin el sistema en mantenimiento: debe rechazarse sin leer las copias")
+    void restaurar_SinMantenimiento_DeberiaLanzarExcepcion() {
+        // Arrange
+        enMantenimiento(false);
+
+        // Act & Assert
+        assertThatThrownBy(() -> backupService.restaurar(1L))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("sistema.mantenimiento");
+        verify(backupSistemaRepository, never()).findById(any());
+        verify(backupDatosRepository, never()).restaurar(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Restaurar con un volcado dañado: no debe vaciar ninguna tabla")
+    void restaurar_VolcadoDaniado_NoDeberiaTocarLaBaseDeDatos() throws Exception {
+        // Arrange
+        prepararExportacion();
+        backupService.crear(false);
+        BackupSistema registro = registrados.get(1L);
+        ObjectNode metadata = (ObjectNode) objectMapper.readTree(registro.getMetadata());
+        ((ObjectNode) metadata.withArray("tablas").get(0)).put("sha256", "0".repeat(64));
+        registro.setMetadata(objectMapper.writeValueAsString(metadata));
+        enMantenimiento(true);
+
+        // Act & Assert
+        assertThatThrownBy(() -> backupService.restaurar(1L))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("dañada");
+        verify(backupDatosRepository, never()).restaurar(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Niveles: cada tabla debe cargarse después de las que referencia")
+    void niveles_ConDependencias_DeberiaOrdenarPorClavesForaneas() {
+        // Arrange
+        Tabla citas = new Tabla("citas", List.of("id_cita"), Set.of("usuarios", "historial_acciones"));
+
+        // Act
+        List<List<Tabla>> niveles = BackupService.niveles(List.of(citas, HISTORIAL, LOGS, USUARIOS));
+
+        // Assert
+        assertThat(niveles).containsExactly(List.of(LOGS, USUARIOS), List.of(HISTORIAL), List.of(citas));
+    }
+
+    private void enMantenimiento(boolean activo) {
+        when(configService.getFoto()).thenReturn(
+                FotoConfiguracion.de(Map.of("sistema.mantenimiento", String.valueOf(activo)), 1));
+    }
+
+    private void prepararExportacion() {
+        Instantanea instantanea = mock(Instantanea.class);
+        lenient().when(instantanea.corte()).thenAnswer(invocation -> corte.get());
+        lenient().when(instantanea.generacion()).thenAnswer(invocation -> generacion.get());
+        lenient().when(backupDatosRepository.abrirInstantanea()).thenReturn(instantanea);
+        lenient().when(backupDatosRepository.exportar(any(), any(), any(), any())).thenAnswer(invocation -> {
+            Tabla tabla = invocation.getArgument(1);
+            String corteBase = invocation.getArgument(2);
+            String contenido = tabla.nombre() + (corteBase == null ? " completa" : " desde " + corteBase);
+            invocation.<OutputStream>getArgument(3).write(contenido.getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+    }
+
+    /**
+     * Reloj que avanza un segundo en cada lectura, para que cada copia tenga su propio archivo.
+     */
+    private static Clock relojQueAvanza() {
+        AtomicLong segundos = new AtomicLong();
+        Instant inicio = Instant.parse("2024-06-15T02:00:00Z");
+        return new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zona) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return inicio.plusSeconds(segundos.getAndIncrement());
+            }
+        };
+    }
+}
@@ -0,0 +1,179 @@
+package com.tuorg.veterinaria.configuracion.service;
+
+import com.tuorg.veterinaria.configuracion.model.ParametroSistema;
+import com.tuorg.veterinaria.configuracion.repository.ParametroSistemaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para ConfigService.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de ConfigService")
+class ConfigServiceTest {
+
+    @Mock
+    private ParametroSistemaRepository parametroSistemaRepository;
+
+    private ConfigService configService;
+
+    @BeforeEach
+    void setUp() {
+        when(parametroSistemaRepository.findAll()).thenReturn(List.of(
+                parametro("inventario.stock.minimo", "10", 3L),
+                parametro("sistema.mantenimiento", "false", 4L)));
+        configService = new ConfigService(parametroSistemaRepository);
+    }
+
+    @Test
+    @DisplayName("Notificación más reciente: debe actualizar solo esa clave sin consultar la tabla")
+    void aplicarCambio_VersionPosterior_DeberiaActualizarLaClave() {
+        // Act
+        boolean aplicado = configService.aplicarCambio("inventario.stock.minimo", "25", 9L);
+
+        // Assert
+        assertThat(aplicado).isTrue();
+        assertThat(configService.obtener("inventario.stock.minimo")).isEqualTo("25");
+        assertThat(configService.obtener("sistema.mantenimiento")).isEqualTo("false");
+        assertThat(configService.getVersion()).isEqualTo(9L);
+        verify(parametroSistemaRepository, never()).findByClave(anyString());
+        verify(parametroSistemaRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("Notificación atrasada o baja antigua: no debe pisar un valor más reciente")
+    void aplicarCambio_VersionAnterior_DeberiaIgnorarse() {
+        // Arrange
+        configService.aplicarCambio("inventario.stock.minimo", "25", 9L);
+
+        // Act
+        boolean cambio = configService.aplicarCambio("inventario.stock.minimo", "15", 7L);
+        boolean baja = configService.aplicarBaja("inventario.stock.minimo", 8L);
+
+        // Assert
+        assertThat(cambio).isFalse();
+        assertThat(baja).isFalse();
+        assertThat(configService.obtenerTodos()).containsEntry("inventario.stock.minimo", "25");
+    }
+
+    @Test
+    @DisplayName("Huella igual a la de la tabla: no debe recargarse la caché")
+    void verificarHuella_HuellaCoincide_NoDeberiaRecargar() throws Exception {
+        // Arrange
+        when(parametroSistemaRepository.calcularHuella())
+                .thenReturn(md5("inventario.stock.minimo=10\nsistema.mantenimiento=false"));
+
+        // Act
+        boolean recargado = configService.verificarHuella();
+
+        // Assert
+        assertThat(recargado).isFalse();
+        verify(parametroSistemaRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("Huella distinta (notificación perdida): debe recargar y retirar las claves borradas")
+    void verificarHuella_HuellaDistinta_DeberiaRecargar() {
+        // Arrange
+        when(parametroSistemaRepository.calcularHuella()).thenReturn("otra");
+        when(parametroSistemaRepository.findAll()).thenReturn(List.of(
+                parametro("inventario.stock.minimo", "40", 12L)));
+
+        // Act
+        boolean recargado = configService.verificarHuella();
+
+        // Assert
+        assertThat(recargado).isTrue();
+        assertThat(configService.obtenerTodos()).containsExactlyEntriesOf(
+                Map.of("inventario.stock.minimo", "40"));
+        assertThat(configService.getVersion()).isEqualTo(12L);
+    }
+
+    @Test
+    @DisplayName("Recarga que leyó antes de una notificación: no debe pisar ni retirar lo notificado")
+    void cargarTodos_LecturaAnteriorANotificacion_DeberiaConservarVersionPosterior() {
+        // Arrange: la recarga lee la tabla y, antes de aplicarla, llegan dos notificaciones
+        when(parametroSistemaRepository.findAll()).thenAnswer(invocacion -> {
+            configService.aplicarCambio("inventario.stock.minimo", "30", 15L);
+            configService.aplicarCambio("citas.duracion.minutos", "45", 16L);
+            return List.of(
+                    parametro("inventario.stock.minimo", "20", 13L),
+                    parametro("sistema.mantenimiento", "false", 4L));
+        });
+
+        // Act
+        configService.cargarTodos();
+
+        // Assert
+        assertThat(configService.obtenerTodos()).containsExactlyInAnyOrderEntriesOf(Map.of(
+                "inventario.stock.minimo", "30",
+                "sistema.mantenimiento", "false",
+                "citas.duracion.minutos", "45"));
+        assertThat(configService.getVersion()).isEqualTo(16L);
+    }
+
+    @Test
+    @DisplayName("Suscripción: debe recibir la foto al suscribirse y solo cuando cambian sus claves")
+    void suscribir_CambiosDeOtrasClaves_NoDeberiaAvisar() {
+        // Arrange
+        List<Integer> recibidos = new ArrayList<>();
+        configService.suscribir(List.of("inventario.stock.minimo"),
+                foto -> recibidos.add(foto.getEntero("inventario.stock.minimo", -1)));
+
+        // Act
+        configService.aplicarCambio("sistema.mantenimiento", "true", 10L);
+        configService.aplicarCambio("inventario.stock.minimo", "5", 11L);
+        configService.aplicarCambio("inventario.stock.minimo", "5", 12L);
+
+        // Assert
+        assertThat(recibidos).containsExactly(10, 5);
+        assertThat(configService.getFoto().getBooleano("sistema.mantenimiento", false)).isTrue();
+        assertThat(configService.getFoto().getVersion()).isEqualTo(12L);
+    }
+
+    @Test
+    @DisplayName("Parámetros seguidos: deben partir del defecto y tomar cada valor nuevo")
+    void seguir_CambioDeValor_DeberiaActualizarParametros() {
+        // Arrange
+        ParametroVigente<Integer> stockMinimo = ParametroVigente.entero("inventario.stock.minimo", -1);
+        ParametroVigente<Boolean> mantenimiento = ParametroVigente.booleano("sistema.mantenimiento", true);
+        ParametroVigente<Integer> ausente = ParametroVigente.entero("no.existe", 7);
+        assertThat(stockMinimo.get()).isEqualTo(-1);
+
+        // Act
+        configService.seguir(stockMinimo, mantenimiento, ausente);
+        configService.aplicarCambio("inventario.stock.minimo", "4", 10L);
+
+        // Assert
+        assertThat(stockMinimo.get()).isEqualTo(4);
+        assertThat(mantenimiento.get()).isFalse();
+        assertThat(ausente.get()).isEqualTo(7);
+    }
+
+    private static ParametroSistema parametro(String clave, String valor, Long version) {
+        ParametroSistema parametro = new ParametroSistema();
+        parametro.setClave(clave);
+        parametro.setValor(valor);
+        parametro.setVersion(version);
+        return parametro;
+    }
+
+    private static String md5(String contenido) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("MD5")
+                .digest(contenido.getBytes(StandardCharsets.UTF_8)));
+    }
+}
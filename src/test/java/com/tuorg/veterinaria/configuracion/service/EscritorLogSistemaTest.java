@@ -0,0 +1,204 @@
+package com.tuorg.veterinaria.configuracion.service;
+
+import com.tuorg.veterinaria.common.util.EscritorPorLotes.Desborde;
+import com.tuorg.veterinaria.configuracion.repository.LogSistemaLoteRepository;
+import com.tuorg.veterinaria.configuracion.repository.LogSistemaLoteRepository.Evento;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para EscritorLogSistema.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de EscritorLogSistema")
+class EscritorLogSistemaTest {
+
+    @Mock
+    private LogSistemaLoteRepository logSistemaLoteRepository;
+
+    private EscritorLogSistema escritor;
+
+    @AfterEach
+    void tearDown() {
+        if (escritor != null) {
+            escritor.cerrar();
+        }
+    }
+
+    @Test
+    @DisplayName("Varios productores: todos los eventos deben escribirse en lotes del tamaño configurado")
+    void registrar_VariosProductores_DeberiaEscribirTodoPorLotes() throws Exception {
+        // Arrange
+        List<Integer> tamanos = Collections.synchronizedList(new ArrayList<>());
+        List<String> mensajes = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            List<Evento> lote = invocation.getArgument(0);
+            tamanos.add(lote.size());
+            lote.forEach(evento -> mensajes.add(evento.mensaje()));
+            return null;
+        }).when(logSistemaLoteRepository).insertar(any());
+        escritor = crear(1_024, 100, Desborde.ESPERAR);
+        ExecutorService productores = Executors.newFixedThreadPool(4);
+        CountDownLatch salida = new CountDownLatch(1);
+
+        // Act
+        for (int p = 0; p < 4; p++) {
+            int productor = p;
+            productores.submit(() -> {
+                salida.await();
+                for (int i = 0; i < 2_500; i++) {
+                    escritor.registrar(evento(productor + "-" + i));
+                }
+                return null;
+            });
+        }
+        salida.countDown();
+        productores.shutdown();
+        assertThat(productores.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        escritor.cerrar();
+
+        // Assert
+        assertThat(mensajes).hasSize(10_000).doesNotHaveDuplicates();
+        assertThat(tamanos).allMatch(tamano -> tamano <= 100);
+        assertThat(escritor.getEscritos()).isEqualTo(10_000);
+        assertThat(escritor.getDescartados()).isZero();
+    }
+
+    @Test
+    @DisplayName("Lote incompleto: debe escribirse al vencer el intervalo sin esperar a llenarse")
+    void registrar_PocosEventos_DeberiaEscribirAlVencerIntervalo() throws Exception {
+        // Arrange
+        CountDownLatch escrito = new CountDownLatch(1);
+        List<Integer> tamanos = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            tamanos.add(invocation.<List<Evento>>getArgument(0).size());
+            escrito.countDown();
+            return null;
+        }).when(logSistemaLoteRepository).insertar(any());
+        escritor = crear(64, 100, Desborde.DESCARTAR);
+
+        // Act
+        escritor.registrar(evento("uno"));
+        escritor.registrar(evento("dos"));
+
+        // Assert
+        assertThat(escrito.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(tamanos).containsExactly(2);
+    }
+
+    @Test
+    @DisplayName("Base de datos bloqueada y anillo lleno: debe descartar sin bloquear y dejar constancia")
+    void registrar_AnilloLleno_DeberiaDescartarYRegistrarAviso() throws Exception {
+        // Arrange: el primer lote se queda esperando a la base de datos
+        CountDownLatch bloqueo = new CountDownLatch(1);
+        List<Evento> escritos = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            bloqueo.await();
+            escritos.addAll(invocation.getArgument(0));
+            return null;
+        }).when(logSistemaLoteRepository).insertar(any());
+        escritor = crear(8, 4, Desborde.DESCARTAR);
+        for (int i = 0; i < 4; i++) {
+            escritor.registrar(evento("lote-" + i));
+        }
+        verify(logSistemaLoteRepository, timeout(2_000)).insertar(any());
+
+        // Act
+        int aceptados = 0;
+        for (int i = 0; i < 20; i++) {
+            if (escritor.registrar(evento("extra-" + i))) {
+                aceptados++;
+            }
+        }
+        bloqueo.countDown();
+        escritor.cerrar();
+
+        // Assert
+        assertThat(aceptados).isEqualTo(8);
+        assertThat(escritor.getDescartados()).isEqualTo(12);
+        assertThat(escritos).extracting(Evento::mensaje)
+                .contains("Se descartaron 12 eventos por saturación del registro")
+                .hasSize(4 + 8 + 1);
+    }
+
+    @Test
+    @DisplayName("Evento que la base de datos rechaza: solo debe perderse ese evento, no su lote")
+    void registrar_EventoRechazado_DeberiaEscribirElRestoDelLote() {
+        // Arrange: el INSERT falla si el lote lleva un componente demasiado largo
+        List<Evento> escritos = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            List<Evento> lote = invocation.getArgument(0);
+            if (lote.stream().anyMatch(evento -> evento.componente().length() > 100)) {
+                throw new DataIntegrityViolationException("value too long for type character varying(100)");
+            }
+            escritos.addAll(lote);
+            return null;
+        }).when(logSistemaLoteRepository).insertar(any());
+        escritor = crear(64, 8, Desborde.ESPERAR);
+
+        // Act
+        for (int i = 0; i < 8; i++) {
+            escritor.registrar(i == 5
+                    ? new Evento(LocalDateTime.now(), "INFO", "x".repeat(150), "malo", null)
+                    : evento("bueno-" + i));
+        }
+        escritor.cerrar();
+
+        // Assert
+        assertThat(escritos).extracting(Evento::mensaje).hasSize(7).doesNotContain("malo");
+        assertThat(escritor.getEscritos()).isEqualTo(7);
+        assertThat(escritor.getRechazados()).isEqualTo(1);
+        assertThat(escritor.getDescartados()).isZero();
+    }
+
+    @Test
+    @DisplayName("Error inesperado al escribir: el hilo escritor debe seguir atendiendo los lotes siguientes")
+    void registrar_ErrorInesperado_NoDeberiaDetenerElEscritor() {
+        // Arrange
+        List<Evento> escritos = Collections.synchronizedList(new ArrayList<>());
+        doThrow(new IllegalStateException("fallo del driver"))
+                .doAnswer(invocation -> escritos.addAll(invocation.getArgument(0)))
+                .when(logSistemaLoteRepository).insertar(any());
+        escritor = crear(64, 1, Desborde.DESCARTAR);
+
+        // Act
+        escritor.registrar(evento("perdido"));
+        verify(logSistemaLoteRepository, timeout(2_000)).insertar(any());
+        escritor.registrar(evento("siguiente"));
+        escritor.cerrar();
+
+        // Assert
+        assertThat(escritos).extracting(Evento::mensaje)
+                .contains("siguiente", "Se descartaron 1 eventos por saturación del registro")
+                .doesNotContain("perdido");
+        assertThat(escritor.getDescartados()).isEqualTo(1);
+    }
+
+    private EscritorLogSistema crear(int capacidad, int lote, Desborde desborde) {
+        return new EscritorLogSistema(logSistemaLoteRepository, capacidad, lote, Duration.ofMillis(50),
+                desborde, Duration.ofMillis(200), Duration.ofSeconds(5));
+    }
+
+    private static Evento evento(String mensaje) {
+        return new Evento(LocalDateTime.now(), "INFO", "Prueba", mensaje, null);
+    }
+}
@@ -0,0 +1,55 @@
+package com.tuorg.veterinaria.configuracion.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pruebas unitarias para FotoConfiguracion.
+ */
+@DisplayName("Pruebas unitarias de FotoConfiguracion")
+class FotoConfiguracionTest {
+
+    @Test
+    @DisplayName("Valores bien formados: deben devolverse con su tipo")
+    void getters_ValoresValidos_DeberianInterpretarse() {
+        // Arrange
+        FotoConfiguracion foto = FotoConfiguracion.de(Map.of(
+                "citas.duracion.minutos", " 45 ",
+                "facturacion.iva", "0.21",
+                "notificaciones.sms.enabled", "TRUE",
+                "agenda.recordatorio", "PT2H",
+                "agenda.margen", "15m",
+                "canales", "EMAIL, SMS,,APP"), 7L);
+
+        // Act & Assert
+        assertThat(foto.getVersion()).isEqualTo(7L);
+        assertThat(foto.getEntero("citas.duracion.minutos", 30)).isEqualTo(45);
+        assertThat(foto.getDecimal("facturacion.iva", BigDecimal.ZERO)).isEqualByComparingTo("0.21");
+        assertThat(foto.getBooleano("notificaciones.sms.enabled", false)).isTrue();
+        assertThat(foto.getDuracion("agenda.recordatorio", Duration.ZERO)).isEqualTo(Duration.ofHours(2));
+        assertThat(foto.getDuracion("agenda.margen", Duration.ZERO)).isEqualTo(Duration.ofMinutes(15));
+        assertThat(foto.getLista("canales")).containsExactly("EMAIL", "SMS", "APP");
+    }
+
+    @Test
+    @DisplayName("Clave inexistente o valor de otro tipo: debe devolverse el valor por defecto")
+    void getters_ValorNoInterpretable_DeberiaDevolverDefecto() {
+        // Arrange
+        FotoConfiguracion foto = FotoConfiguracion.de(Map.of("inventario.stock.minimo", "diez"), 1L);
+
+        // Act & Assert
+        assertThat(foto.getEntero("inventario.stock.minimo", 10)).isEqualTo(10);
+        assertThat(foto.getBooleano("inventario.stock.minimo", true)).isTrue();
+        assertThat(foto.getEntero("no.existe", 3)).isEqualTo(3);
+        assertThat(foto.getLista("no.existe")).isEmpty();
+        assertThatThrownBy(() -> foto.comoMapa().put("otra", "1"))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+}
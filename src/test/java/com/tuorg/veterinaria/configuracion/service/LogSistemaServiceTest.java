@@ -0,0 +1,118 @@
+package com.tuorg.veterinaria.configuracion.service;
+
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.configuracion.dto.PaginaLogsResponse;
+import com.tuorg.veterinaria.configuracion.repository.LogSistemaHistorialRepository;
+import com.tuorg.veterinaria.configuracion.repository.LogSistemaHistorialRepository.Cursor;
+import com.tuorg.veterinaria.configuracion.repository.LogSistemaHistorialRepository.Registro;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para LogSistemaService.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de LogSistemaService")
+class LogSistemaServiceTest {
+
+    private static final OffsetDateTime BASE = OffsetDateTime.of(2024, 6, 15, 10, 0, 0, 0, ZoneOffset.UTC);
+
+    @Mock
+    private LogSistemaHistorialRepository logSistemaHistorialRepository;
+
+    @Mock
+    private EscritorLogSistema escritorLogSistema;
+
+    @InjectMocks
+    private LogSistemaService logSistemaService;
+
+    @Test
+    @DisplayName("Buscar con más resultados que el límite: debe devolver un cursor que apunte al último")
+    void buscar_HayMasResultados_DeberiaDevolverCursorDelUltimo() {
+        // Arrange
+        when(logSistemaHistorialRepository.buscar(any(), any(), eq("ERROR"), isNull(), isNull(), eq(3)))
+                .thenReturn(registros(3));
+        LocalDateTime hasta = LocalDateTime.of(2024, 6, 16, 0, 0);
+
+        // Act
+        PaginaLogsResponse primera = logSistemaService.buscar(null, hasta, "ERROR", " ", null, 2);
+        when(logSistemaHistorialRepository.buscar(any(), any(), eq("ERROR"), isNull(), any(Cursor.class), eq(3)))
+                .thenReturn(registros(1));
+        PaginaLogsResponse segunda = logSistemaService.buscar(null, hasta, "ERROR", null,
+                primera.getSiguienteCursor(), 2);
+
+        // Assert
+        assertThat(primera.getLogs()).hasSize(2);
+        assertThat(primera.getSiguienteCursor()).isNotBlank();
+        assertThat(segunda.getSiguienteCursor()).isNull();
+        ArgumentCaptor<Cursor> cursor = ArgumentCaptor.forClass(Cursor.class);
+        verify(logSistemaHistorialRepository, times(2))
+                .buscar(any(), any(), eq("ERROR"), isNull(), cursor.capture(), eq(3));
+        assertThat(cursor.getAllValues().get(0)).isNull();
+        assertThat(cursor.getAllValues().get(1).id()).isEqualTo(2L);
+        assertThat(cursor.getAllValues().get(1).fechaHora().toInstant())
+                .isEqualTo(BASE.minusSeconds(1).toInstant());
+    }
+
+    @Test
+    @DisplayName("Buscar sin rango: debe limitarse a los últimos 7 días y al límite por defecto")
+    void buscar_SinRango_DeberiaUsarSieteDias() {
+        // Arrange
+        ArgumentCaptor<OffsetDateTime> desde = ArgumentCaptor.forClass(OffsetDateTime.class);
+        ArgumentCaptor<OffsetDateTime> hasta = ArgumentCaptor.forClass(OffsetDateTime.class);
+        when(logSistemaHistorialRepository.buscar(desde.capture(), hasta.capture(), isNull(), isNull(), isNull(),
+                anyInt())).thenReturn(List.of());
+
+        // Act
+        PaginaLogsResponse pagina = logSistemaService.buscar(null, null, null, null, null, null);
+
+        // Assert
+        assertThat(pagina.getLogs()).isEmpty();
+        assertThat(pagina.getSiguienteCursor()).isNull();
+        assertThat(desde.getValue().plusDays(7)).isEqualTo(hasta.getValue());
+        verify(logSistemaHistorialRepository).buscar(any(), any(), isNull(), isNull(), isNull(), eq(101));
+    }
+
+    @Test
+    @DisplayName("Cursor manipulado o rango invertido: debe lanzar BusinessException")
+    void buscar_ParametrosInvalidos_DeberiaLanzarExcepcion() {
+        // Arrange
+        LocalDateTime ahora = LocalDateTime.of(2024, 6, 15, 10, 0);
+
+        // Act & Assert
+        assertThatThrownBy(() -> logSistemaService.buscar(null, ahora, null, null, "no-es-un-cursor", null))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("cursor");
+        assertThatThrownBy(() -> logSistemaService.buscar(ahora, ahora.minusDays(1), null, null, null, null))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("fecha de inicio");
+        verifyNoInteractions(logSistemaHistorialRepository);
+    }
+
+    private static List<Registro> registros(int cantidad) {
+        List<Registro> registros = new ArrayList<>();
+        for (int i = 1; i <= cantidad; i++) {
+            registros.add(new Registro(i, BASE.minusSeconds(i - 1), "ERROR", "Prueba", "mensaje " + i, null));
+        }
+        return registros;
+    }
+}
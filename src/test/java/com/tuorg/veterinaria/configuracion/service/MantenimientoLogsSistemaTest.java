@@ -0,0 +1,227 @@
+package com.tuorg.veterinaria.configuracion.service;
+
+import com.tuorg.veterinaria.configuracion.repository.LogSistemaHistorialRepository;
+import com.tuorg.veterinaria.configuracion.repository.LogSistemaHistorialRepository.Particion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para MantenimientoLogsSistema.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de MantenimientoLogsSistema")
+class MantenimientoLogsSistemaTest {
+
+    private static final Clock RELOJ = Clock.fixed(Instant.parse("2024-06-15T10:00:00Z"), ZoneOffset.UTC);
+
+    @Mock
+    private LogSistemaHistorialRepository logSistemaHistorialRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @TempDir
+    Path directorio;
+
+    private MantenimientoLogsSistema mantenimiento;
+
+    @BeforeEach
+    void setUp() {
+        mantenimiento = new MantenimientoLogsSistema(logSistemaHistorialRepository, transactionTemplate, 2, 12,
+                Duration.ofHours(6), directorio, RELOJ);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mantenimiento.cerrar();
+    }
+
+    @Test
+    @DisplayName("Mantener: debe crear el mes actual y los siguientes, y archivar solo los vencidos")
+    void mantener_ParticionesVencidas_DeberiaCrearFuturasYArchivarVencidas() throws Exception {
+        // Arrange
+        ejecutarTransacciones();
+        when(logSistemaHistorialRepository.bloquearCreacion()).thenReturn(true);
+        when(logSistemaHistorialRepository.crearParticion(any())).thenReturn(null);
+        when(logSistemaHistorialRepository.crearParticion(YearMonth.of(2024, 8))).thenReturn("logs_sistema_2024_08");
+        Particion vencida = new Particion("logs_sistema_2023_05", YearMonth.of(2023, 5));
+        Particion vigente = new Particion("logs_sistema_2023_06", YearMonth.of(2023, 6));
+        when(logSistemaHistorialRepository.listarParticiones()).thenReturn(List.of(vencida, vigente));
+        when(logSistemaHistorialRepository.reservar(vencida)).thenReturn(true);
+        when(logSistemaHistorialRepository.contarBloqueando(vencida)).thenReturn(1L);
+        when(logSistemaHistorialRepository.exportar(eq(vencida), any())).thenAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write("id_log,fecha_hora\n1,2023-05-01\n"
+                    .getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        // Act
+        MantenimientoLogsSistema.Resultado resultado = mantenimiento.mantener();
+
+        // Assert
+        verify(logSistemaHistorialRepository).crearParticion(YearMonth.of(2024, 6));
+        verify(logSistemaHistorialRepository).crearParticion(YearMonth.of(2024, 7));
+        verify(logSistemaHistorialRepository).crearParticion(YearMonth.of(2024, 8));
+        assertThat(resultado.creadas()).containsExactly("logs_sistema_2024_08");
+
+        Path archivo = directorio.resolve("logs_sistema_2023_05.csv.gz");
+        assertThat(resultado.archivos()).containsExactly(archivo.toString());
+        try (InputStream entrada = new GZIPInputStream(Files.newInputStream(archivo))) {
+            assertThat(new String(entrada.readAllBytes(), StandardCharsets.UTF_8)).contains("1,2023-05-01");
+        }
+        InOrder orden = inOrder(logSistemaHistorialRepository);
+        orden.verify(logSistemaHistorialRepository).reservar(vencida);
+        orden.verify(logSistemaHistorialRepository).exportar(eq(vencida), any());
+        orden.verify(logSistemaHistorialRepository).eliminar(vencida);
+        verify(logSistemaHistorialRepository, never()).exportar(eq(vigente), any());
+        verify(logSistemaHistorialRepository, never()).eliminar(vigente);
+    }
+
+    @Test
+    @DisplayName("Filas vencidas en la partición por defecto: debe darles partición y archivarla")
+    void mantener_FilasVencidasEnDefecto_DeberiaTrasladarlasYArchivarlas() {
+        // Arrange
+        ejecutarTransacciones();
+        when(logSistemaHistorialRepository.bloquearCreacion()).thenReturn(true);
+        when(logSistemaHistorialRepository.mesesEnParticionPorDefecto(YearMonth.of(2024, 6)))
+                .thenReturn(List.of(YearMonth.of(2022, 3)));
+        when(logSistemaHistorialRepository.crearParticion(any())).thenReturn(null);
+        when(logSistemaHistorialRepository.crearParticion(YearMonth.of(2022, 3))).thenReturn("logs_sistema_2022_03");
+        Particion trasladada = new Particion("logs_sistema_2022_03", YearMonth.of(2022, 3));
+        when(logSistemaHistorialRepository.listarParticiones()).thenReturn(List.of(trasladada));
+        when(logSistemaHistorialRepository.reservar(trasladada)).thenReturn(true);
+        when(logSistemaHistorialRepository.contarBloqueando(trasladada)).thenReturn(1L);
+        when(logSistemaHistorialRepository.exportar(eq(trasladada), any())).thenAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write("id_log,fecha_hora\n7,2022-03-09\n"
+                    .getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        // Act
+        MantenimientoLogsSistema.Resultado resultado = mantenimiento.mantener();
+
+        // Assert
+        assertThat(resultado.creadas()).containsExactly("logs_sistema_2022_03");
+        assertThat(resultado.archivos())
+                .containsExactly(directorio.resolve("logs_sistema_2022_03.csv.gz").toString());
+        InOrder orden = inOrder(logSistemaHistorialRepository);
+        orden.verify(logSistemaHistorialRepository).crearParticion(YearMonth.of(2022, 3));
+        orden.verify(logSistemaHistorialRepository).eliminar(trasladada);
+    }
+
+    @Test
+    @DisplayName("Fallo al exportar: no debe eliminar la partición ni dejar un archivo incompleto")
+    void mantener_FalloAlExportar_NoDeberiaEliminarParticion() {
+        // Arrange
+        ejecutarTransacciones();
+        Particion vencida = new Particion("logs_sistema_2022_01", YearMonth.of(2022, 1));
+        when(logSistemaHistorialRepository.listarParticiones()).thenReturn(List.of(vencida));
+        when(logSistemaHistorialRepository.reservar(vencida)).thenReturn(true);
+        when(logSistemaHistorialRepository.exportar(eq(vencida), any()))
+                .thenThrow(new IllegalStateException("conexión perdida"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> mantenimiento.mantener()).isInstanceOf(IllegalStateException.class);
+        verify(logSistemaHistorialRepository, never()).eliminar(any());
+        assertThat(directorio.resolve("logs_sistema_2022_01.csv.gz")).doesNotExist();
+        assertThat(directorio.resolve("logs_sistema_2022_01.csv.gz.parcial")).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Volcado con menos filas que la partición: no debe eliminarla ni publicar el archivo")
+    void mantener_FilasDistintas_NoDeberiaEliminarParticion() {
+        // Arrange
+        ejecutarTransacciones();
+        Particion vencida = new Particion("logs_sistema_2022_02", YearMonth.of(2022, 2));
+        when(logSistemaHistorialRepository.listarParticiones()).thenReturn(List.of(vencida));
+        when(logSistemaHistorialRepository.reservar(vencida)).thenReturn(true);
+        when(logSistemaHistorialRepository.contarBloqueando(vencida)).thenReturn(2L);
+        when(logSistemaHistorialRepository.exportar(eq(vencida), any())).thenReturn(1L);
+
+        // Act & Assert
+        assertThatThrownBy(() -> mantenimiento.mantener()).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("logs_sistema_2022_02");
+        verify(logSistemaHistorialRepository, never()).eliminar(any());
+        assertThat(directorio.resolve("logs_sistema_2022_02.csv.gz")).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Otro nodo con los bloqueos: no debe crear ni archivar nada")
+    void mantener_BloqueosDeOtroNodo_NoDeberiaHacerNada() {
+        // Arrange
+        ejecutarTransacciones();
+        Particion vencida = new Particion("logs_sistema_2022_03", YearMonth.of(2022, 3));
+        when(logSistemaHistorialRepository.bloquearCreacion()).thenReturn(false);
+        when(logSistemaHistorialRepository.listarParticiones()).thenReturn(List.of(vencida));
+        when(logSistemaHistorialRepository.reservar(vencida)).thenReturn(false);
+
+        // Act
+        MantenimientoLogsSistema.Resultado resultado = mantenimiento.mantener();
+
+        // Assert
+        assertThat(resultado.creadas()).isEmpty();
+        assertThat(resultado.archivos()).isEmpty();
+        verify(logSistemaHistorialRepository, never()).crearParticion(any());
+        verify(logSistemaHistorialRepository, never()).exportar(any(), any());
+        verify(logSistemaHistorialRepository, never()).eliminar(any());
+    }
+
+    @Test
+    @DisplayName("Sin directorio de archivo compartido: debe conservar las particiones vencidas")
+    void mantener_SinDirectorioDeArchivo_NoDeberiaArchivar() {
+        // Arrange
+        MantenimientoLogsSistema sinDirectorio = new MantenimientoLogsSistema(logSistemaHistorialRepository,
+                transactionTemplate, 2, 12, Duration.ofHours(6), null, RELOJ);
+        ejecutarTransacciones();
+        when(logSistemaHistorialRepository.listarParticiones()).thenReturn(List.of(
+                new Particion("logs_sistema_2022_04", YearMonth.of(2022, 4))));
+
+        // Act
+        MantenimientoLogsSistema.Resultado resultado = sinDirectorio.mantener();
+        sinDirectorio.cerrar();
+
+        // Assert
+        assertThat(resultado.archivos()).isEmpty();
+        verify(logSistemaHistorialRepository, never()).reservar(any());
+        verify(logSistemaHistorialRepository, never()).eliminar(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void ejecutarTransacciones() {
+        lenient().doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+}
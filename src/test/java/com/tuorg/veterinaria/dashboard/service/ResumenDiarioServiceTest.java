@@ -0,0 +1,133 @@
+package com.tuorg.veterinaria.dashboard.service;
+
+import com.tuorg.veterinaria.dashboard.dto.ReconstruccionResumenResponse;
+import com.tuorg.veterinaria.dashboard.repository.ResumenDiarioRepository;
+import com.tuorg.veterinaria.dashboard.service.ResumenDiarioService.FotoCita;
+import com.tuorg.veterinaria.dashboard.service.ResumenDiarioService.FotoFactura;
+import com.tuorg.veterinaria.gestionfacturacion.model.Factura;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para ResumenDiarioService.
+ *
+ * Verifica que los cambios se aplican como diferencia entre la foto
+ * anterior y la posterior, y que la reconstrucción recorre cada mes del
+ * histórico.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de ResumenDiarioService")
+class ResumenDiarioServiceTest {
+
+    private static final LocalDate DIA = LocalDate.of(2025, 3, 14);
+
+    @Mock
+    private ResumenDiarioRepository resumenDiarioRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ResumenDiarioService resumenDiarioService;
+
+    @BeforeEach
+    void setUp() {
+        resumenDiarioService = new ResumenDiarioService(resumenDiarioRepository,
+                new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    @DisplayName("Pago de factura: debe restar del estado anterior y sumar al nuevo")
+    void registrarFactura_CambioEstado_DeberiaAplicarDiferencia() {
+        // Arrange
+        FotoFactura pendiente = new FotoFactura(DIA, "PENDIENTE", new BigDecimal("120.00"));
+        FotoFactura pagada = new FotoFactura(DIA, "PAGADA", new BigDecimal("120.00"));
+
+        // Act
+        resumenDiarioService.registrarFactura(pendiente, pagada);
+
+        // Assert
+        verify(resumenDiarioRepository).bloquearMeses(new TreeSet<>(List.of(YearMonth.of(2025, 3))));
+        verify(resumenDiarioRepository).sumarFactura(DIA, "PENDIENTE", -1, new BigDecimal("-120.00"));
+        verify(resumenDiarioRepository).sumarFactura(DIA, "PAGADA", 1, new BigDecimal("120.00"));
+    }
+
+    @Test
+    @DisplayName("Reprogramación a otro mes: debe bloquear ambos meses en orden")
+    void registrarCita_Reprogramada_DeberiaMoverDeDia() {
+        // Arrange
+        LocalDate nuevoDia = LocalDate.of(2025, 4, 2);
+        FotoCita anterior = new FotoCita(DIA, "PROGRAMADA", "CONSULTA", 7L);
+        FotoCita actual = new FotoCita(nuevoDia, "PROGRAMADA", "CONSULTA", 7L);
+
+        // Act
+        resumenDiarioService.registrarCita(anterior, actual);
+
+        // Assert
+        verify(resumenDiarioRepository).bloquearMeses(argThat(meses -> List.copyOf(meses)
+                .equals(List.of(YearMonth.of(2025, 3), YearMonth.of(2025, 4)))));
+        verify(resumenDiarioRepository).sumarCita(DIA, "PROGRAMADA", "CONSULTA", 7L, -1);
+        verify(resumenDiarioRepository).sumarCita(nuevoDia, "PROGRAMADA", "CONSULTA", 7L, 1);
+    }
+
+    @Test
+    @DisplayName("Foto sin cambios o sin fecha: no debe tocar el resumen")
+    void registrar_SinCambios_NoDeberiaEscribir() {
+        // Arrange
+        Factura borrador = new Factura();
+        borrador.setEstado("PENDIENTE");
+        Factura emitida = new Factura();
+        emitida.setEstado("PENDIENTE");
+        emitida.setFechaEmision(LocalDateTime.of(2025, 3, 14, 10, 0));
+        FotoFactura foto = FotoFactura.de(emitida);
+
+        // Act
+        resumenDiarioService.registrarFactura(foto, FotoFactura.de(emitida));
+        resumenDiarioService.registrarFactura(null, FotoFactura.de(borrador));
+
+        // Assert
+        assertThat(foto.total()).isEqualByComparingTo(BigDecimal.ZERO);
+        verifyNoInteractions(resumenDiarioRepository);
+    }
+
+    @Test
+    @DisplayName("Reconstrucción: debe recalcular cada mes del histórico y purgar el resto")
+    void reconstruir_DeberiaRecorrerTodosLosMeses() {
+        // Arrange
+        LocalDate hoy = LocalDate.now();
+        LocalDate desde = hoy.minusMonths(2).withDayOfMonth(1);
+        when(resumenDiarioRepository.rangoHistorico()).thenReturn(Optional.of(new LocalDate[]{desde, hoy}));
+
+        // Act
+        ReconstruccionResumenResponse resultado = resumenDiarioService.reconstruir();
+
+        // Assert
+        assertThat(resultado.getMeses()).isEqualTo(3);
+        assertThat(resultado.getDesde()).isEqualTo(desde);
+        assertThat(resultado.getHasta()).isEqualTo(hoy);
+        verify(resumenDiarioRepository, times(3)).reconstruirMes(any(YearMonth.class));
+        verify(resumenDiarioRepository).reconstruirMes(YearMonth.from(hoy));
+        verify(resumenDiarioRepository).eliminarFueraDeRango(desde, hoy);
+        verify(resumenDiarioRepository, never()).sumarCita(any(), anyString(), anyString(), anyLong(), anyLong());
+    }
+}
@@ -0,0 +1,164 @@
+package com.tuorg.veterinaria.gestionfacturacion.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.gestionfacturacion.model.FormatoExportacion;
+import com.tuorg.veterinaria.gestionfacturacion.repository.CarteraRepository;
+import com.tuorg.veterinaria.gestionfacturacion.repository.CarteraRepository.FilaAntiguedad;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para CarteraService.
+ *
+ * Verifica el formato de las exportaciones en streaming y que la caché
+ * se reutilice hasta que cambia la versión de cartera guardada en la base.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de CarteraService")
+class CarteraServiceTest {
+
+    private static final LocalDate CORTE = LocalDate.of(2025, 6, 30);
+
+    @Mock
+    private CarteraRepository carteraRepository;
+
+    @TempDir
+    private Path directorioCache;
+
+    private CarteraService carteraService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        carteraService = new CarteraService(carteraRepository, objectMapper, directorioCache.toString());
+        List<FilaAntiguedad> filas = List.of(
+                new FilaAntiguedad(7L, "Ana Pérez", "ana@correo.com", 3, new BigDecimal("100.00"),
+                        BigDecimal.ZERO, new BigDecimal("50.50"), new BigDecimal("200.00"),
+                        new BigDecimal("350.50"), new BigDecimal("70.10"), LocalDate.of(2025, 1, 15), 166),
+                new FilaAntiguedad(9L, "Luis \"Lucho\", Gómez", "luis@correo.com", 1, new BigDecimal("149.50"),
+                        BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+                        new BigDecimal("149.50"), new BigDecimal("29.90"), LocalDate.of(2025, 6, 20), 10));
+        lenient().doAnswer(invocacion -> {
+            Consumer<FilaAntiguedad> consumidor = invocacion.getArgument(1);
+            filas.forEach(consumidor);
+            return null;
+        }).when(carteraRepository).recorrerAntiguedad(eq(CORTE), any(Consumer.class));
+    }
+
+    @Test
+    @DisplayName("Exportar CSV: debe escribir cabecera y escapar los campos según RFC 4180")
+    void exportarCsv_DeberiaEscaparCampos() throws Exception {
+        // Act
+        String csv = exportar(FormatoExportacion.CSV);
+
+        // Assert
+        String[] lineas = csv.split("\r\n");
+        assertThat(lineas).hasSize(3);
+        assertThat(lineas[0]).startsWith("cliente_id,cliente,correo,facturas,tramo_0_30");
+        assertThat(lineas[1]).isEqualTo("7,Ana Pérez,ana@correo.com,3,100.00,0,50.50,200.00,350.50,70.10,2025-01-15,166");
+        assertThat(lineas[2]).startsWith("9,\"Luis \"\"Lucho\"\", Gómez\",luis@correo.com,1,149.50");
+    }
+
+    @Test
+    @DisplayName("Exportar NDJSON: debe escribir un objeto JSON por línea")
+    void exportarNdjson_DeberiaEscribirUnaLineaPorCliente() throws Exception {
+        // Act
+        String ndjson = exportar(FormatoExportacion.NDJSON);
+
+        // Assert
+        String[] lineas = ndjson.split("\n");
+        assertThat(lineas).hasSize(2);
+        assertThat(lineas[0]).startsWith("{\"clienteId\":7,").contains("\"tramoMas90\":200.00")
+                .contains("\"facturaMasAntigua\":\"2025-01-15\"");
+        assertThat(ndjson).endsWith("}\n");
+    }
+
+    @Test
+    @DisplayName("Exportar: la segunda petición del día debe servirse desde la caché")
+    @SuppressWarnings("unchecked")
+    void exportarRepetido_DeberiaUsarCache() throws Exception {
+        // Act
+        String primera = exportar(FormatoExportacion.CSV);
+        String segunda = exportar(FormatoExportacion.CSV);
+
+        // Assert
+        assertThat(segunda).isEqualTo(primera);
+        verify(carteraRepository, times(1)).recorrerAntiguedad(eq(CORTE), any(Consumer.class));
+    }
+
+    @Test
+    @DisplayName("Exportar: un cambio de versión en la base debe invalidar la caché y el ETag")
+    @SuppressWarnings("unchecked")
+    void exportarTrasCambioDeVersion_DeberiaRecalcular() throws Exception {
+        // Arrange
+        when(carteraRepository.version()).thenReturn(5L);
+        exportar(FormatoExportacion.NDJSON);
+        String etagAnterior = carteraService.etag(CORTE, FormatoExportacion.NDJSON);
+
+        // Act: otro nodo registra un pago y los triggers suben la versión
+        when(carteraRepository.version()).thenReturn(6L);
+        exportar(FormatoExportacion.NDJSON);
+
+        // Assert
+        assertThat(carteraService.etag(CORTE, FormatoExportacion.NDJSON))
+                .isNotEqualTo(etagAnterior).isEqualTo("W/\"2025-06-30-ndjson-6\"");
+        verify(carteraRepository, times(2)).recorrerAntiguedad(eq(CORTE), any(Consumer.class));
+        assertThat(directorioCache.resolve("cartera-5-2025-06-30.ndjson")).doesNotExist();
+        assertThat(directorioCache.resolve("cartera-6-2025-06-30.ndjson")).exists();
+    }
+
+    @Test
+    @DisplayName("Exportar: si la versión cambia durante el recorrido no debe conservarse la caché")
+    @SuppressWarnings("unchecked")
+    void exportarConCambioDuranteRecorrido_NoDeberiaCachear() throws Exception {
+        // Arrange
+        when(carteraRepository.version()).thenReturn(5L, 6L, 6L);
+
+        // Act
+        exportar(FormatoExportacion.CSV);
+        exportar(FormatoExportacion.CSV);
+
+        // Assert
+        verify(carteraRepository, times(2)).recorrerAntiguedad(eq(CORTE), any(Consumer.class));
+        assertThat(directorioCache.resolve("cartera-5-2025-06-30.csv")).doesNotExist();
+        assertThat(directorioCache.resolve("cartera-6-2025-06-30.csv")).exists();
+    }
+
+    @Test
+    @DisplayName("Resolver fecha de corte: una fecha futura debe lanzar excepción")
+    void resolverFechaCorteFutura_DeberiaLanzarExcepcion() {
+        // Act & Assert
+        assertThat(carteraService.resolverFechaCorte(null)).isEqualTo(LocalDate.now());
+        assertThatThrownBy(() -> carteraService.resolverFechaCorte(LocalDate.now().plusDays(1)))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    private String exportar(FormatoExportacion formato) throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        carteraService.exportar(CORTE, formato, salida);
+        return salida.toString(StandardCharsets.UTF_8);
+    }
+}
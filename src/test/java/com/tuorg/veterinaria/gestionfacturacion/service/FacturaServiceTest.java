@@ -2,28 +2,38 @@ package com.tuorg.veterinaria.gestionfacturacion.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.dashboard.service.ResumenDiarioService;
 import com.tuorg.veterinaria.gestionusuarios.model.Cliente;
 import com.tuorg.veterinaria.gestionusuarios.model.Usuario;
 import com.tuorg.veterinaria.gestionusuarios.repository.UsuarioRepository;
+import com.tuorg.veterinaria.gestionfacturacion.dto.FacturaLineaRequest;
 import com.tuorg.veterinaria.gestionfacturacion.dto.FacturaRequest;
 import com.tuorg.veterinaria.gestionfacturacion.dto.FacturaResponse;
 import com.tuorg.veterinaria.gestionfacturacion.model.Factura;
+import com.tuorg.veterinaria.gestionfacturacion.model.TipoLineaFactura;
+import com.tuorg.veterinaria.gestionfacturacion.repository.FacturaLineaRepository;
+import com.tuorg.veterinaria.gestionfacturacion.repository.FacturaLineaRepository.Concepto;
+import com.tuorg.veterinaria.gestionfacturacion.repository.FacturaLineaRepository.Linea;
 import com.tuorg.veterinaria.gestionfacturacion.repository.FacturaRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -41,9 +51,15 @@ class FacturaServiceTest {
     @Mock
     private FacturaRepository facturaRepository;
 
+    @Mock
+    private FacturaLineaRepository facturaLineaRepository;
+
     @Mock
     private UsuarioRepository usuarioRepository;
 
+    @Mock
+    private ResumenDiarioService resumenDiarioService;
+
     @Mock
     private ObjectMapper objectMapper;
 
@@ -160,5 +176,78 @@ class FacturaServiceTest {
         verify(usuarioRepository).findById(2L);
         verify(facturaRepository, never()).save(any());
     }
-}
 
+    @Test
+    @DisplayName("Crear factura con líneas: debe calcular importes y total e insertar las líneas")
+    @SuppressWarnings("unchecked")
+    void crearFacturaConLineas_DeberiaCalcularTotales() {
+        // Arrange
+        facturaRequest.setTotal(null);
+        facturaRequest.setContenido(null);
+        facturaRequest.setLineas(List.of(
+                linea(TipoLineaFactura.SERVICIO, 1L, null, null, "1", null, "19"),
+                linea(TipoLineaFactura.PRODUCTO, null, null, "Collar", "2", "15000", null)));
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(cliente));
+        when(facturaLineaRepository.findServicios(Set.of(1L)))
+                .thenReturn(Map.of(1L, new Concepto("Consulta general", BigDecimal.valueOf(40000))));
+        when(facturaRepository.findByNumero(anyString())).thenReturn(Optional.empty());
+        when(facturaRepository.save(any(Factura.class))).thenAnswer(invocacion -> {
+            Factura factura = invocacion.getArgument(0);
+            factura.setIdFactura(7L);
+            return factura;
+        });
+
+        // Act
+        FacturaResponse response = facturaService.crear(facturaRequest);
+
+        // Assert
+        assertThat(response.getSubtotal()).isEqualByComparingTo("70000");
+        assertThat(response.getImpuestos()).isEqualByComparingTo("7600");
+        assertThat(response.getTotal()).isEqualByComparingTo("77600");
+        assertThat(response.getLineas()).extracting(FacturaResponse.LineaSummary::getDescripcion)
+                .containsExactly("Consulta general", "Collar");
+        assertThat(response.getContenido()).containsKeys("lineas", "subtotal", "impuestos", "total");
+
+        ArgumentCaptor<List<Linea>> captor = ArgumentCaptor.forClass(List.class);
+        verify(facturaLineaRepository).insertar(captor.capture());
+        assertThat(captor.getValue())
+                .extracting(Linea::facturaId, Linea::numero, Linea::servicioId, Linea::total)
+                .containsExactly(
+                        tuple(7L, 1, 1L, new BigDecimal("47600.00")),
+                        tuple(7L, 2, null, new BigDecimal("30000.00")));
+        verifyNoInteractions(objectMapper);
+    }
+
+    @Test
+    @DisplayName("Crear factura con líneas: total que no coincide o servicio inexistente debe lanzar excepción")
+    void crearFacturaConLineasInvalidas_DeberiaLanzarExcepcion() {
+        // Arrange
+        facturaRequest.setContenido(null);
+        facturaRequest.setLineas(List.of(linea(TipoLineaFactura.PRODUCTO, null, null, "Collar", "1", "15000", null)));
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(cliente));
+
+        // Act & Assert
+        assertThatThrownBy(() -> facturaService.crear(facturaRequest))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("no coincide");
+
+        facturaRequest.setLineas(List.of(linea(TipoLineaFactura.SERVICIO, 99L, null, null, "1", null, null)));
+        assertThatThrownBy(() -> facturaService.crear(facturaRequest))
+                .isInstanceOf(com.tuorg.veterinaria.common.exception.ResourceNotFoundException.class)
+                .hasMessageContaining("Servicio");
+        verify(facturaRepository, never()).save(any());
+    }
+
+    private static FacturaLineaRequest linea(TipoLineaFactura tipo, Long servicioId, Long productoId,
+                                             String descripcion, String cantidad, String precio, String impuesto) {
+        FacturaLineaRequest linea = new FacturaLineaRequest();
+        linea.setTipo(tipo);
+        linea.setServicioId(servicioId);
+        linea.setProductoId(productoId);
+        linea.setDescripcion(descripcion);
+        linea.setCantidad(new BigDecimal(cantidad));
+        linea.setPrecioUnitario(precio != null ? new BigDecimal(precio) : null);
+        linea.setPorcentajeImpuesto(impuesto != null ? new BigDecimal(impuesto) : null);
+        return linea;
+    }
+}
@@ -0,0 +1,186 @@
+package com.tuorg.veterinaria.gestionpacientes.service;
+
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.gestionpacientes.model.PautaPreventiva;
+import com.tuorg.veterinaria.gestionpacientes.model.PautaPreventiva.Tipo;
+import com.tuorg.veterinaria.gestionpacientes.repository.AgendaPreventivaRepository;
+import com.tuorg.veterinaria.gestionpacientes.repository.AgendaPreventivaRepository.EntradaAgenda;
+import com.tuorg.veterinaria.gestionpacientes.repository.AgendaPreventivaRepository.FilaHistorial;
+import com.tuorg.veterinaria.gestionpacientes.repository.PacienteRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para AgendaPreventivaService.
+ *
+ * Verifica las reglas de cálculo de la próxima dosis por pauta y el
+ * recálculo en streaming de toda la población.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de AgendaPreventivaService")
+class AgendaPreventivaServiceTest {
+
+    private static final LocalDate HOY = LocalDate.of(2025, 6, 1);
+    private static final LocalDate NACIMIENTO = LocalDate.of(2025, 1, 1);
+
+    @Mock
+    private AgendaPreventivaRepository agendaPreventivaRepository;
+
+    @Mock
+    private PacienteRepository pacienteRepository;
+
+    @InjectMocks
+    private AgendaPreventivaService agendaPreventivaService;
+
+    @Test
+    @DisplayName("Calcular: sin aplicaciones la primera dosis vence a la edad de inicio")
+    void calcularSinAplicaciones_DeberiaUsarEdadDeInicio() {
+        // Arrange
+        List<FilaHistorial> historial = List.of(fila(1L, "Perro", null, null, null, null));
+
+        // Act
+        Map<PautaPreventiva, EntradaAgenda> agenda = porPauta(AgendaPreventivaService.calcular(historial, HOY));
+
+        // Assert
+        assertThat(agenda).containsOnlyKeys(PautaPreventiva.PERRO_POLIVALENTE,
+                PautaPreventiva.PERRO_RABIA, PautaPreventiva.PERRO_DESPARASITACION);
+        assertThat(agenda.get(PautaPreventiva.PERRO_POLIVALENTE).fechaDebida()).isEqualTo(NACIMIENTO.plusWeeks(6));
+        assertThat(agenda.get(PautaPreventiva.PERRO_RABIA).fechaDebida()).isEqualTo(NACIMIENTO.plusWeeks(12));
+        assertThat(agenda.get(PautaPreventiva.PERRO_RABIA).dosisNumero()).isEqualTo(1);
+        assertThat(agenda.get(PautaPreventiva.PERRO_RABIA).ultimaAplicacion()).isNull();
+    }
+
+    @Test
+    @DisplayName("Calcular: durante la serie inicial usa el intervalo y completada usa el refuerzo")
+    void calcularConAplicaciones_DeberiaAplicarSerieYRefuerzo() {
+        // Arrange
+        LocalDate primera = LocalDate.of(2025, 2, 15);
+        LocalDate rabia = LocalDate.of(2025, 4, 1);
+        List<FilaHistorial> historial = List.of(
+                fila(1L, "Perro", Tipo.VACUNA, "Quíntuple canina", primera, null),
+                fila(1L, "Perro", Tipo.VACUNA, "Antirrábica", rabia, null));
+
+        // Act
+        Map<PautaPreventiva, EntradaAgenda> agenda = porPauta(AgendaPreventivaService.calcular(historial, HOY));
+
+        // Assert
+        EntradaAgenda polivalente = agenda.get(PautaPreventiva.PERRO_POLIVALENTE);
+        assertThat(polivalente.dosisNumero()).isEqualTo(2);
+        assertThat(polivalente.fechaDebida()).isEqualTo(primera.plusWeeks(3));
+        EntradaAgenda antirrabica = agenda.get(PautaPreventiva.PERRO_RABIA);
+        assertThat(antirrabica.dosisNumero()).isEqualTo(2);
+        assertThat(antirrabica.fechaDebida()).isEqualTo(rabia.plusMonths(12));
+        assertThat(antirrabica.ultimaAplicacion()).isEqualTo(rabia);
+    }
+
+    @Test
+    @DisplayName("Calcular: una próxima dosis registrada tiene prioridad sobre el protocolo")
+    void calcularConProximaExplicita_DeberiaRespetarla() {
+        // Arrange
+        LocalDate proxima = LocalDate.of(2025, 7, 20);
+        List<FilaHistorial> historial = List.of(
+                fila(1L, "Gato", Tipo.DESPARASITACION, "Milbemax", LocalDate.of(2025, 5, 1), proxima));
+
+        // Act
+        Map<PautaPreventiva, EntradaAgenda> agenda = porPauta(AgendaPreventivaService.calcular(historial, HOY));
+
+        // Assert
+        assertThat(agenda.get(PautaPreventiva.GATO_DESPARASITACION).fechaDebida()).isEqualTo(proxima);
+        assertThat(agenda.get(PautaPreventiva.GATO_TRIPLE_FELINA).fechaDebida()).isEqualTo(NACIMIENTO.plusWeeks(8));
+    }
+
+    @Test
+    @DisplayName("Calcular: especies sin protocolo no generan entradas")
+    void calcularEspecieSinProtocolo_DeberiaDevolverVacio() {
+        // Act & Assert
+        assertThat(AgendaPreventivaService.calcular(List.of(fila(1L, "Conejo", null, null, null, null)), HOY))
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("Recalcular todo: debe agrupar el recorrido por paciente e insertar la agenda")
+    @SuppressWarnings("unchecked")
+    void recalcularTodo_DeberiaAgruparPorPaciente() {
+        // Arrange
+        List<FilaHistorial> filas = List.of(
+                fila(1L, "Perro", Tipo.VACUNA, "Rabia", LocalDate.of(2025, 4, 1), null),
+                fila(1L, "Perro", Tipo.DESPARASITACION, "Drontal", LocalDate.of(2025, 4, 2), null),
+                fila(2L, "Gato", null, null, null, null),
+                fila(3L, "Conejo", null, null, null, null));
+        doAnswer(invocacion -> {
+            Consumer<FilaHistorial> consumidor = invocacion.getArgument(0);
+            filas.forEach(consumidor);
+            return null;
+        }).when(agendaPreventivaRepository).recorrerHistorial(any(Consumer.class));
+        List<EntradaAgenda> insertadas = new ArrayList<>();
+        doAnswer(invocacion -> insertadas.addAll(invocacion.getArgument(0)))
+                .when(agendaPreventivaRepository).insertar(any());
+
+        // Act
+        long total = agendaPreventivaService.recalcularTodo();
+
+        // Assert
+        verify(agendaPreventivaRepository).eliminarTodo();
+        assertThat(total).isEqualTo(6);
+        assertThat(insertadas).hasSize(6);
+        assertThat(insertadas).filteredOn(e -> e.pacienteId().equals(1L)).hasSize(3);
+        assertThat(insertadas).filteredOn(e -> e.pacienteId().equals(2L)).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("Recalcular paciente: debe reemplazar solo las entradas del paciente")
+    @SuppressWarnings("unchecked")
+    void recalcularPaciente_DeberiaReemplazarEntradas() {
+        // Arrange
+        doAnswer(invocacion -> {
+            Consumer<FilaHistorial> consumidor = invocacion.getArgument(1);
+            consumidor.accept(fila(5L, "Gato", null, null, null, null));
+            return null;
+        }).when(agendaPreventivaRepository).recorrerHistorial(eq(List.of(5L)), any(Consumer.class));
+        List<EntradaAgenda> insertadas = new ArrayList<>();
+        doAnswer(invocacion -> insertadas.addAll(invocacion.getArgument(0)))
+                .when(agendaPreventivaRepository).insertar(any());
+
+        // Act
+        agendaPreventivaService.recalcularPaciente(5L);
+
+        // Assert
+        verify(agendaPreventivaRepository).eliminarPorPacientes(List.of(5L));
+        assertThat(insertadas).hasSize(3).allMatch(e -> e.pacienteId().equals(5L));
+        verify(agendaPreventivaRepository, never()).eliminarTodo();
+    }
+
+    @Test
+    @DisplayName("Obtener pendientes: días negativos deben lanzar excepción")
+    void obtenerPendientesDiasNegativos_DeberiaLanzarExcepcion() {
+        // Act & Assert
+        assertThatThrownBy(() -> agendaPreventivaService.obtenerPendientes(-1, true, null, null))
+                .isInstanceOf(BusinessException.class);
+        verifyNoInteractions(agendaPreventivaRepository);
+    }
+
+    private static FilaHistorial fila(Long pacienteId, String especie, Tipo tipo, String descripcion,
+                                      LocalDate aplicacion, LocalDate proxima) {
+        return new FilaHistorial(pacienteId, especie, NACIMIENTO, tipo, descripcion, aplicacion, proxima);
+    }
+
+    private static Map<PautaPreventiva, EntradaAgenda> porPauta(List<EntradaAgenda> entradas) {
+        return entradas.stream().collect(Collectors.toMap(EntradaAgenda::pauta, e -> e));
+    }
+}
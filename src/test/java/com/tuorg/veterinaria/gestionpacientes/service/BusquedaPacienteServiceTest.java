@@ -0,0 +1,105 @@
+package com.tuorg.veterinaria.gestionpacientes.service;
+
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.gestionpacientes.dto.BusquedaPacienteResponse;
+import com.tuorg.veterinaria.gestionpacientes.repository.PacienteBusquedaView;
+import com.tuorg.veterinaria.gestionpacientes.repository.PacienteRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para BusquedaPacienteService.
+ * 
+ * Verifica la validación del término, el cursor de la primera página,
+ * el cálculo del cursor siguiente y el escape de comodines LIKE.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de BusquedaPacienteService")
+class BusquedaPacienteServiceTest {
+
+    @Mock
+    private PacienteRepository pacienteRepository;
+
+    @InjectMocks
+    private BusquedaPacienteService busquedaPacienteService;
+
+    @Test
+    @DisplayName("Buscar: término demasiado corto debe lanzar excepción")
+    void buscarTerminoCorto_DeberiaLanzarExcepcion() {
+        // Act & Assert
+        assertThatThrownBy(() -> busquedaPacienteService.buscar(" m ", null, null, null))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("al menos 2 caracteres");
+
+        verifyNoInteractions(pacienteRepository);
+    }
+
+    @Test
+    @DisplayName("Buscar primera página: debe normalizar el término y devolver el cursor siguiente")
+    void buscarPrimeraPagina_DeberiaDevolverCursorSiguiente() {
+        // Arrange
+        PacienteBusquedaView max = fila(7L, "Max", new BigDecimal("0.80000"));
+        PacienteBusquedaView maxi = fila(3L, "Maxi", new BigDecimal("0.50000"));
+        PacienteBusquedaView extra = fila(9L, "Maximus", new BigDecimal("0.40000"));
+        when(pacienteRepository.buscarPorSimilitud(eq("max"), eq("max%"), eq(new BigDecimal("2")), eq(0L), eq(3)))
+                .thenReturn(List.of(max, maxi, extra));
+
+        // Act
+        BusquedaPacienteResponse response = busquedaPacienteService.buscar("  MAX ", 2, null, null);
+
+        // Assert
+        assertThat(response.getResultados()).hasSize(2);
+        assertThat(response.getResultados().get(0).getNombre()).isEqualTo("Max");
+        assertThat(response.getResultados().get(0).getPropietario().getNombre()).isEqualTo("Juan");
+        assertThat(response.isHayMas()).isTrue();
+        assertThat(response.getCursorPuntaje()).isEqualByComparingTo("0.5");
+        assertThat(response.getCursorId()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("Buscar última página: no debe devolver cursor y debe escapar comodines")
+    void buscarUltimaPagina_SinCursorYConComodinesEscapados() {
+        // Arrange
+        when(pacienteRepository.buscarPorSimilitud(eq("50%_x"), eq("50\\%\\_x%"), any(), eq(3L), eq(21)))
+                .thenReturn(List.of());
+
+        // Act
+        BusquedaPacienteResponse response = busquedaPacienteService.buscar("50%_x", null, new BigDecimal("0.5"), 3L);
+
+        // Assert
+        assertThat(response.getResultados()).isEmpty();
+        assertThat(response.isHayMas()).isFalse();
+        assertThat(response.getCursorPuntaje()).isNull();
+        assertThat(response.getCursorId()).isNull();
+    }
+
+    @Test
+    @DisplayName("Buscar: cursor incompleto debe lanzar excepción")
+    void buscarCursorIncompleto_DeberiaLanzarExcepcion() {
+        // Act & Assert
+        assertThatThrownBy(() -> busquedaPacienteService.buscar("max", null, new BigDecimal("0.5"), null))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("cursor");
+    }
+
+    private PacienteBusquedaView fila(Long id, String nombre, BigDecimal puntaje) {
+        PacienteBusquedaView fila = mock(PacienteBusquedaView.class);
+        lenient().when(fila.getIdPaciente()).thenReturn(id);
+        lenient().when(fila.getNombrePaciente()).thenReturn(nombre);
+        lenient().when(fila.getPuntaje()).thenReturn(puntaje);
+        lenient().when(fila.getNombreCliente()).thenReturn("Juan");
+        return fila;
+    }
+}
@@ -0,0 +1,146 @@
+package com.tuorg.veterinaria.gestionpacientes.service;
+
+import com.tuorg.veterinaria.common.event.FichaPacienteModificadaEvent;
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.gestionpacientes.dto.CampanaVacunacionRequest;
+import com.tuorg.veterinaria.gestionpacientes.dto.CampanaVacunacionResponse;
+import com.tuorg.veterinaria.gestionpacientes.repository.CampanaVacunacionRepository;
+import com.tuorg.veterinaria.gestionpacientes.repository.CampanaVacunacionRepository.NuevaVacunacion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para CampanaVacunacionService.
+ *
+ * Verifica la validación por conjunto de pacientes y veterinarios, la
+ * resolución de valores por defecto de la campaña y que una campaña
+ * inválida no inserte nada.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de CampanaVacunacionService")
+class CampanaVacunacionServiceTest {
+
+    @Mock
+    private CampanaVacunacionRepository campanaVacunacionRepository;
+
+    @Mock
+    private AgendaPreventivaService agendaPreventivaService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private CampanaVacunacionService campanaVacunacionService;
+
+    private CampanaVacunacionRequest request;
+
+    @BeforeEach
+    void setUp() {
+        request = new CampanaVacunacionRequest();
+        request.setTipoVacuna("Rabia");
+        request.setFechaAplicacion(LocalDate.now());
+        request.setVeterinarioId(2L);
+        request.setProximaDosis(LocalDate.now().plusYears(1));
+        request.setAplicaciones(new ArrayList<>(List.of(aplicacion(1L, null, null), aplicacion(2L, 3L, null))));
+    }
+
+    @Test
+    @DisplayName("Registrar campaña: debe validar por conjunto e insertar en un solo batch")
+    @SuppressWarnings("unchecked")
+    void registrarCampana_DeberiaInsertarEnBatch() {
+        // Arrange
+        when(campanaVacunacionRepository.findPacientesExistentes(Set.of(1L, 2L))).thenReturn(Set.of(1L, 2L));
+        when(campanaVacunacionRepository.findVeterinariosExistentes(Set.of(2L, 3L))).thenReturn(Set.of(2L, 3L));
+        when(campanaVacunacionRepository.reservarIds(2)).thenReturn(List.of(100L, 101L));
+
+        // Act
+        CampanaVacunacionResponse respuesta = campanaVacunacionService.registrarCampana(request);
+
+        // Assert
+        ArgumentCaptor<List<NuevaVacunacion>> captor = ArgumentCaptor.forClass(List.class);
+        verify(campanaVacunacionRepository).insertar(captor.capture());
+        assertThat(captor.getValue())
+                .extracting(NuevaVacunacion::id, NuevaVacunacion::pacienteId, NuevaVacunacion::veterinarioId)
+                .containsExactly(tuple(100L, 1L, 2L), tuple(101L, 2L, 3L));
+        assertThat(captor.getValue()).allMatch(v -> request.getProximaDosis().equals(v.proximaDosis()));
+        assertThat(respuesta.getRegistradas()).isEqualTo(2);
+        assertThat(respuesta.getProximasDosisProgramadas()).isEqualTo(2);
+        assertThat(respuesta.getVacunacionIds()).containsExactly(100L, 101L);
+        verify(agendaPreventivaService).recalcularPacientes(Set.of(1L, 2L));
+        verify(eventPublisher, times(2)).publishEvent(any(FichaPacienteModificadaEvent.class));
+    }
+
+    @Test
+    @DisplayName("Registrar campaña: pacientes inexistentes deben rechazar toda la campaña")
+    void registrarCampanaPacienteInexistente_DeberiaLanzarExcepcion() {
+        // Arrange
+        when(campanaVacunacionRepository.findPacientesExistentes(Set.of(1L, 2L))).thenReturn(Set.of(1L));
+
+        // Act & Assert
+        assertThatThrownBy(() -> campanaVacunacionService.registrarCampana(request))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("Pacientes inexistentes: 2");
+        verify(campanaVacunacionRepository, never()).insertar(any());
+        verifyNoInteractions(agendaPreventivaService);
+    }
+
+    @Test
+    @DisplayName("Registrar campaña: usuarios que no son veterinarios deben lanzar excepción")
+    void registrarCampanaVeterinarioInvalido_DeberiaLanzarExcepcion() {
+        // Arrange
+        when(campanaVacunacionRepository.findPacientesExistentes(Set.of(1L, 2L))).thenReturn(Set.of(1L, 2L));
+        when(campanaVacunacionRepository.findVeterinariosExistentes(Set.of(2L, 3L))).thenReturn(Set.of(2L));
+
+        // Act & Assert
+        assertThatThrownBy(() -> campanaVacunacionService.registrarCampana(request))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("veterinarios: 3");
+        verify(campanaVacunacionRepository, never()).insertar(any());
+    }
+
+    @Test
+    @DisplayName("Registrar campaña: pacientes repetidos o próxima dosis inválida deben lanzar excepción")
+    void registrarCampanaDatosInvalidos_DeberiaLanzarExcepcion() {
+        // Arrange
+        request.getAplicaciones().add(aplicacion(1L, null, null));
+
+        // Act & Assert
+        assertThatThrownBy(() -> campanaVacunacionService.registrarCampana(request))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("repetidos");
+
+        request.getAplicaciones().remove(2);
+        request.getAplicaciones().get(0).setProximaDosis(request.getFechaAplicacion());
+        assertThatThrownBy(() -> campanaVacunacionService.registrarCampana(request))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("posterior");
+        verifyNoInteractions(campanaVacunacionRepository);
+    }
+
+    private static CampanaVacunacionRequest.Aplicacion aplicacion(Long pacienteId, Long veterinarioId,
+                                                                 LocalDate proximaDosis) {
+        CampanaVacunacionRequest.Aplicacion aplicacion = new CampanaVacunacionRequest.Aplicacion();
+        aplicacion.setPacienteId(pacienteId);
+        aplicacion.setVeterinarioId(veterinarioId);
+        aplicacion.setProximaDosis(proximaDosis);
+        return aplicacion;
+    }
+}
@@ -0,0 +1,108 @@
+package com.tuorg.veterinaria.gestionpacientes.service;
+
+import com.tuorg.veterinaria.common.exception.ResourceNotFoundException;
+import com.tuorg.veterinaria.gestionfacturacion.dto.FacturaResponse;
+import com.tuorg.veterinaria.gestionfacturacion.service.FacturaService;
+import com.tuorg.veterinaria.gestionpacientes.dto.FichaPacienteResponse;
+import com.tuorg.veterinaria.gestionpacientes.dto.PacienteOwnerResponse;
+import com.tuorg.veterinaria.gestionpacientes.dto.PacienteResponse;
+import com.tuorg.veterinaria.gestionpacientes.dto.VacunacionResponse;
+import com.tuorg.veterinaria.prestacioneservicios.service.CitaService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para FichaPacienteService.
+ * 
+ * Verifica el armado de la ficha a partir de las secciones consultadas en
+ * paralelo, la ausencia de historia clínica y la propagación del 404.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de FichaPacienteService")
+class FichaPacienteServiceTest {
+
+    @Mock
+    private PacienteService pacienteService;
+
+    @Mock
+    private HistoriaClinicaService historiaClinicaService;
+
+    @Mock
+    private VacunacionService vacunacionService;
+
+    @Mock
+    private DesparasitacionService desparasitacionService;
+
+    @Mock
+    private CitaService citaService;
+
+    @Mock
+    private FacturaService facturaService;
+
+    @InjectMocks
+    private FichaPacienteService fichaPacienteService;
+
+    @AfterEach
+    void tearDown() {
+        fichaPacienteService.cerrar();
+    }
+
+    @Test
+    @DisplayName("Obtener ficha: debe combinar todas las secciones con las facturas del propietario")
+    void obtenerFicha_DeberiaCombinarSecciones() {
+        // Arrange
+        PacienteResponse paciente = new PacienteResponse();
+        paciente.setId(1L);
+        paciente.setNombre("Max");
+        paciente.setCliente(new PacienteOwnerResponse(4L, "Diego", "López", "diego@email.com"));
+        FacturaResponse factura = FacturaResponse.builder().idFactura(9L).numero("FAC-1").build();
+
+        when(pacienteService.obtener(1L)).thenReturn(paciente);
+        when(historiaClinicaService.obtenerPorPaciente(1L))
+                .thenThrow(new ResourceNotFoundException("HistoriaClinica", "paciente_id", 1L));
+        when(historiaClinicaService.obtenerRegistrosPorPaciente(1L)).thenReturn(List.of());
+        when(vacunacionService.obtenerPorPaciente(1L)).thenReturn(List.of(new VacunacionResponse()));
+        when(desparasitacionService.obtenerPorPaciente(1L)).thenReturn(List.of());
+        when(citaService.obtenerPorPaciente(1L)).thenReturn(List.of());
+        when(facturaService.obtenerPorCliente(4L)).thenReturn(List.of(factura));
+
+        // Act
+        FichaPacienteResponse ficha = fichaPacienteService.obtenerFicha(1L);
+
+        // Assert
+        assertThat(ficha.getPaciente().getNombre()).isEqualTo("Max");
+        assertThat(ficha.getHistoria()).isNull();
+        assertThat(ficha.getVacunaciones()).hasSize(1);
+        assertThat(ficha.getFacturas()).extracting(FacturaResponse::getNumero).containsExactly("FAC-1");
+        verify(facturaService).obtenerPorCliente(4L);
+    }
+
+    @Test
+    @DisplayName("Obtener ficha: paciente inexistente debe propagar ResourceNotFoundException")
+    void obtenerFichaPacienteInexistente_DeberiaLanzarExcepcion() {
+        // Arrange
+        when(pacienteService.obtener(99L)).thenThrow(new ResourceNotFoundException("Paciente", "id", 99L));
+        lenient().when(historiaClinicaService.obtenerRegistrosPorPaciente(99L)).thenReturn(List.of());
+        lenient().when(vacunacionService.obtenerPorPaciente(99L)).thenReturn(List.of());
+        lenient().when(desparasitacionService.obtenerPorPaciente(99L)).thenReturn(List.of());
+        lenient().when(citaService.obtenerPorPaciente(99L)).thenReturn(List.of());
+
+        // Act & Assert
+        assertThatThrownBy(() -> fichaPacienteService.obtenerFicha(99L))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("Paciente");
+
+        verify(facturaService, never()).obtenerPorCliente(any());
+    }
+}
@@ -0,0 +1,42 @@
+package com.tuorg.veterinaria.gestionpacientes.service;
+
+import com.tuorg.veterinaria.gestionpacientes.repository.FichaPacienteVersionRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para FichaPacienteVersionService.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de FichaPacienteVersionService")
+class FichaPacienteVersionServiceTest {
+
+    @Mock
+    private FichaPacienteVersionRepository fichaPacienteVersionRepository;
+
+    @InjectMocks
+    private FichaPacienteVersionService fichaPacienteVersionService;
+
+    @Test
+    @DisplayName("ETag: debe salir de la versión persistida, igual en todos los nodos")
+    void etag_VersionPersistida_DeberiaCambiarConLaBaseDeDatos() {
+        // Arrange
+        when(fichaPacienteVersionRepository.version(7L)).thenReturn(41L, 41L, 42L);
+
+        // Act
+        String primero = fichaPacienteVersionService.etag(7L);
+        String otroNodo = new FichaPacienteVersionService(fichaPacienteVersionRepository).etag(7L);
+        String trasCambio = fichaPacienteVersionService.etag(7L);
+
+        // Assert
+        assertThat(primero).isEqualTo("W/\"7-41\"").isEqualTo(otroNodo);
+        assertThat(trasCambio).isEqualTo("W/\"7-42\"");
+    }
+}
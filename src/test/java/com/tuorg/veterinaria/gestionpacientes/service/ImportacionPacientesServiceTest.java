@@ -0,0 +1,189 @@
+package com.tuorg.veterinaria.gestionpacientes.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuorg.veterinaria.gestionpacientes.dto.ImportacionPacientesResponse;
+import com.tuorg.veterinaria.gestionpacientes.model.FormatoImportacion;
+import com.tuorg.veterinaria.gestionpacientes.repository.ImportacionPacientesRepository;
+import com.tuorg.veterinaria.gestionpacientes.repository.ImportacionPacientesRepository.ClienteExistente;
+import com.tuorg.veterinaria.gestionpacientes.repository.ImportacionPacientesRepository.NuevoCliente;
+import com.tuorg.veterinaria.gestionpacientes.repository.ImportacionPacientesRepository.NuevoPaciente;
+import com.tuorg.veterinaria.gestionusuarios.model.Rol;
+import com.tuorg.veterinaria.gestionusuarios.repository.RolRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para ImportacionPacientesService.
+ *
+ * Verifica el reporte de errores por fila, la resolución de propietarios
+ * existentes y nuevos, y que un lote fallido no aborte la importación.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de ImportacionPacientesService")
+class ImportacionPacientesServiceTest {
+
+    private static final String CABECERA =
+            "documento_identidad,nombre_propietario,apellido_propietario,correo,telefono,"
+                    + "nombre_paciente,especie,fecha_nacimiento,peso_kg\n";
+
+    @Mock
+    private ImportacionPacientesRepository importacionRepository;
+
+    @Mock
+    private RolRepository rolRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private AgendaPreventivaService agendaPreventivaService;
+
+    private ImportacionPacientesService importacionService;
+
+    @BeforeEach
+    void setUp() {
+        importacionService = new ImportacionPacientesService(importacionRepository, rolRepository,
+                passwordEncoder, transactionTemplate, new ObjectMapper(), agendaPreventivaService);
+
+        Rol rol = new Rol();
+        rol.setIdRol(3L);
+        when(rolRepository.findByNombreRol("CLIENTE")).thenReturn(java.util.Optional.of(rol));
+        when(passwordEncoder.encode(anyString())).thenReturn("hash");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void ejecutarTransacciones() {
+        doAnswer(inv -> {
+            ((Consumer<TransactionStatus>) inv.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(importacionRepository.reservarIdsPaciente(anyInt()))
+                .thenAnswer(inv -> LongStream.rangeClosed(101, 100 + (int) inv.getArgument(0)).boxed().toList());
+        lenient().when(importacionRepository.reservarIdsPersona(anyInt()))
+                .thenAnswer(inv -> LongStream.rangeClosed(501, 500 + (int) inv.getArgument(0)).boxed().toList());
+    }
+
+    private static InputStream csv(String... filas) {
+        return new ByteArrayInputStream((CABECERA + String.join("\n", filas)).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Importar CSV: debe guardar filas válidas y reportar las inválidas con su línea")
+    @SuppressWarnings("unchecked")
+    void importarCsv_DeberiaReportarErroresPorFila() {
+        // Arrange
+        ejecutarTransacciones();
+        InputStream entrada = csv(
+                "111,Ana,Gómez,ana@email.com,3001234567,Max,Perro,2020-01-15,12.5",
+                "111,Ana,Gómez,ana@email.com,,Luna,gato,,",
+                "222,Luis,Pérez,luis@email.com,,Toby,conejo,,",
+                "333,Eva,Ruiz,correo-invalido,,Mía,gato,,",
+                "\"444\",\"Díaz, Marta\",Soto,marta@email.com,,Kira,perro,2099-01-01,");
+
+        // Act
+        ImportacionPacientesResponse resultado = importacionService.importar(entrada, FormatoImportacion.CSV);
+
+        // Assert
+        assertThat(resultado.getFilasProcesadas()).isEqualTo(5);
+        assertThat(resultado.getPacientesCreados()).isEqualTo(2);
+        assertThat(resultado.getClientesCreados()).isEqualTo(1);
+        assertThat(resultado.getErrores())
+                .extracting(ImportacionPacientesResponse.ErrorFila::getLinea)
+                .containsExactly(4L, 5L, 6L);
+        assertThat(resultado.getErrores().get(0).getMensaje()).contains("perro");
+
+        ArgumentCaptor<List<NuevoCliente>> clientes = ArgumentCaptor.forClass(List.class);
+        verify(importacionRepository).insertarClientes(clientes.capture(), eq(3L), eq("hash"), any());
+        assertThat(clientes.getValue()).singleElement()
+                .satisfies(c -> {
+                    assertThat(c.id()).isEqualTo(501L);
+                    assertThat(c.username()).isEqualTo("ana@email.com");
+                });
+
+        ArgumentCaptor<List<NuevoPaciente>> pacientes = ArgumentCaptor.forClass(List.class);
+        verify(importacionRepository).insertarPacientesConHistoria(pacientes.capture(), any());
+        assertThat(pacientes.getValue())
+                .extracting(NuevoPaciente::clienteId, NuevoPaciente::especie)
+                .containsExactly(tuple(501L, "perro"), tuple(501L, "gato"));
+        verify(agendaPreventivaService).recalcularPacientes(List.of(101L, 102L));
+    }
+
+    @Test
+    @DisplayName("Importar NDJSON: debe resolver propietarios existentes por documento o correo")
+    @SuppressWarnings("unchecked")
+    void importarNdjson_DeberiaResolverPropietariosExistentes() {
+        // Arrange
+        ejecutarTransacciones();
+        doAnswer(inv -> {
+            Consumer<ClienteExistente> consumidor = inv.getArgument(0);
+            consumidor.accept(new ClienteExistente(7L, "999", "Diego@Email.com"));
+            return null;
+        }).when(importacionRepository).recorrerClientes(any());
+        String ndjson = """
+                {"documento_identidad": "999", "nombre_paciente": "Rocky", "especie": "perro"}
+                {"correo": "diego@email.com", "nombre_paciente": "Nala", "especie": "gato"}
+                {"nombre_paciente": "Sin dueño"
+                """;
+
+        // Act
+        ImportacionPacientesResponse resultado = importacionService.importar(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), FormatoImportacion.NDJSON);
+
+        // Assert
+        assertThat(resultado.getPacientesCreados()).isEqualTo(2);
+        assertThat(resultado.getClientesCreados()).isZero();
+        assertThat(resultado.getErrores()).singleElement()
+                .satisfies(e -> {
+                    assertThat(e.getLinea()).isEqualTo(3L);
+                    assertThat(e.getMensaje()).startsWith("JSON inválido");
+                });
+
+        ArgumentCaptor<List<NuevoPaciente>> pacientes = ArgumentCaptor.forClass(List.class);
+        verify(importacionRepository).insertarPacientesConHistoria(pacientes.capture(), any());
+        assertThat(pacientes.getValue()).extracting(NuevoPaciente::clienteId).containsOnly(7L);
+        verify(importacionRepository, never()).reservarIdsPersona(intThat(n -> n > 0));
+    }
+
+    @Test
+    @DisplayName("Importar: un lote que falla en BD debe reportarse sin abortar la importación")
+    void importarLoteFallido_DeberiaReportarFilasDelLote() {
+        // Arrange
+        doThrow(new DataIntegrityViolationException("duplicado"))
+                .when(transactionTemplate).executeWithoutResult(any());
+        InputStream entrada = csv("111,Ana,Gómez,ana@email.com,,Max,perro,,");
+
+        // Act
+        ImportacionPacientesResponse resultado = importacionService.importar(entrada, FormatoImportacion.CSV);
+
+        // Assert
+        assertThat(resultado.getPacientesCreados()).isZero();
+        assertThat(resultado.getClientesCreados()).isZero();
+        assertThat(resultado.getFilasConError()).isEqualTo(1);
+        assertThat(resultado.getErrores().get(0).getMensaje()).contains("duplicado");
+        verifyNoInteractions(agendaPreventivaService);
+    }
+}
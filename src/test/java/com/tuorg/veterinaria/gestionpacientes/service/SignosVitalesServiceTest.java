@@ -0,0 +1,156 @@
+package com.tuorg.veterinaria.gestionpacientes.service;
+
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.common.exception.ResourceNotFoundException;
+import com.tuorg.veterinaria.gestionpacientes.dto.TendenciaSignoVitalResponse;
+import com.tuorg.veterinaria.gestionpacientes.repository.PacienteRepository;
+import com.tuorg.veterinaria.gestionpacientes.repository.SignoVitalSerieRepository;
+import com.tuorg.veterinaria.gestionpacientes.repository.SignoVitalSerieRepository.Intervalo;
+import com.tuorg.veterinaria.gestionpacientes.repository.SignoVitalSerieRepository.Medicion;
+import com.tuorg.veterinaria.gestionpacientes.repository.SignoVitalSerieRepository.Rango;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para SignosVitalesService.
+ *
+ * Verifica la extracción de mediciones numéricas, la normalización de
+ * alias y el cálculo del ancho de intervalo de las tendencias.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de SignosVitalesService")
+class SignosVitalesServiceTest {
+
+    @Mock
+    private SignoVitalSerieRepository signoVitalSerieRepository;
+
+    @Mock
+    private PacienteRepository pacienteRepository;
+
+    @InjectMocks
+    private SignosVitalesService signosVitalesService;
+
+    @Test
+    @DisplayName("Registrar mediciones: debe extraer solo valores numéricos y normalizar alias")
+    @SuppressWarnings("unchecked")
+    void registrarMediciones_DeberiaExtraerValoresNumericos() {
+        // Arrange
+        LocalDateTime fecha = LocalDateTime.of(2025, 3, 1, 10, 0);
+        Map<String, Object> signos = new LinkedHashMap<>();
+        signos.put("temperatura", 38.2);
+        signos.put("FC", 95);
+        signos.put("peso_kg", "12,5");
+        signos.put("mucosas", "rosadas");
+        signos.put("observaciones", null);
+
+        // Act
+        signosVitalesService.registrarMediciones(1L, 10L, fecha, signos);
+
+        // Assert
+        ArgumentCaptor<List<Medicion>> captor = ArgumentCaptor.forClass(List.class);
+        verify(signoVitalSerieRepository).insertar(captor.capture());
+        assertThat(captor.getValue())
+                .extracting(Medicion::metrica, Medicion::valor)
+                .containsExactly(
+                        tuple("temperatura", 38.2),
+                        tuple("frecuencia_cardiaca", 95.0),
+                        tuple("peso", 12.5));
+    }
+
+    @Test
+    @DisplayName("Registrar mediciones: la coma decimal se acepta y los separadores de miles no, igual que en V19")
+    @SuppressWarnings("unchecked")
+    void registrarMediciones_DecimalConComa_DeberiaSeguirLaReglaDeLaMigracion() {
+        // Arrange
+        Map<String, Object> signos = new LinkedHashMap<>();
+        signos.put("temp", " 38,5 ");
+        signos.put("fc", "-1.5");
+        signos.put("peso", "1.234,5");
+        signos.put("fr", "3e1");
+        signos.put("glucosa", "98d");
+
+        // Act
+        signosVitalesService.registrarMediciones(1L, 10L, LocalDateTime.of(2025, 3, 1, 10, 0), signos);
+
+        // Assert
+        ArgumentCaptor<List<Medicion>> captor = ArgumentCaptor.forClass(List.class);
+        verify(signoVitalSerieRepository).insertar(captor.capture());
+        assertThat(captor.getValue())
+                .extracting(Medicion::metrica, Medicion::valor)
+                .containsExactly(
+                        tuple("temperatura", 38.5),
+                        tuple("frecuencia_cardiaca", -1.5));
+    }
+
+    @Test
+    @DisplayName("Obtener tendencia: sin rango debe usar la primera y última medición")
+    void obtenerTendenciaSinRango_DeberiaUsarRangoDeMediciones() {
+        // Arrange
+        LocalDateTime primera = LocalDateTime.of(2015, 1, 1, 0, 0);
+        LocalDateTime ultima = LocalDateTime.of(2025, 1, 1, 0, 0);
+        when(pacienteRepository.existsById(1L)).thenReturn(true);
+        when(signoVitalSerieRepository.findRango(1L, "peso")).thenReturn(Optional.of(new Rango(primera, ultima)));
+        when(signoVitalSerieRepository.findTendencia(eq(1L), eq("peso"), eq(primera), eq(ultima.plusSeconds(1)), anyLong()))
+                .thenReturn(List.of(new Intervalo(primera, 10.0, 12.0, 11.0, 4)));
+
+        // Act
+        TendenciaSignoVitalResponse tendencia =
+                signosVitalesService.obtenerTendencia(1L, "peso_kg", null, null, 100);
+
+        // Assert
+        assertThat(tendencia.getMetrica()).isEqualTo("peso");
+        assertThat(tendencia.getPuntos()).singleElement()
+                .satisfies(p -> assertThat(p.getPromedio()).isEqualTo(11.0));
+        // 10 años en 100 intervalos: algo más de 36 días por intervalo
+        assertThat(tendencia.getAnchoIntervaloSegundos()).isBetween(36L * 86400, 37L * 86400);
+    }
+
+    @Test
+    @DisplayName("Obtener tendencia: sin mediciones debe devolver serie vacía")
+    void obtenerTendenciaSinMediciones_DeberiaDevolverVacio() {
+        // Arrange
+        when(pacienteRepository.existsById(1L)).thenReturn(true);
+        when(signoVitalSerieRepository.findRango(1L, "temperatura")).thenReturn(Optional.empty());
+
+        // Act
+        TendenciaSignoVitalResponse tendencia =
+                signosVitalesService.obtenerTendencia(1L, "temperatura", null, null, null);
+
+        // Assert
+        assertThat(tendencia.getPuntos()).isEmpty();
+        verify(signoVitalSerieRepository, never()).findTendencia(any(), any(), any(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Obtener tendencia: paciente inexistente o rango inválido deben lanzar excepción")
+    void obtenerTendenciaInvalida_DeberiaLanzarExcepcion() {
+        // Arrange
+        LocalDateTime fecha = LocalDateTime.of(2025, 1, 1, 0, 0);
+        when(pacienteRepository.existsById(99L)).thenReturn(false);
+        when(pacienteRepository.existsById(1L)).thenReturn(true);
+
+        // Act & Assert
+        assertThatThrownBy(() -> signosVitalesService.obtenerTendencia(99L, "peso", null, null, null))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> signosVitalesService.obtenerTendencia(1L, "peso", fecha, fecha, null))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("posterior");
+    }
+}
@@ -0,0 +1,164 @@
+package com.tuorg.veterinaria.idempotencia.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuorg.veterinaria.idempotencia.repository.IdempotenciaRepository;
+import com.tuorg.veterinaria.idempotencia.repository.IdempotenciaRepository.Registro;
+import com.tuorg.veterinaria.idempotencia.service.IdempotenciaService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para IdempotenciaFilter.
+ *
+ * Usa el servicio real con el repositorio simulado para verificar que un
+ * reintento se responde desde memoria sin ejecutar el controlador, y que
+ * las claves reutilizadas o en curso se rechazan.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de IdempotenciaFilter")
+class IdempotenciaFilterTest {
+
+    private static final String CUERPO = "{\"clienteId\":1,\"total\":100}";
+
+    @Mock
+    private IdempotenciaRepository idempotenciaRepository;
+
+    private IdempotenciaFilter idempotenciaFilter;
+
+    private final AtomicInteger ejecuciones = new AtomicInteger();
+
+    private final FilterChain controlador = (req, res) -> {
+        ejecuciones.incrementAndGet();
+        String cuerpo = new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        HttpServletResponse respuesta = (HttpServletResponse) res;
+        respuesta.setStatus(cuerpo.contains("invalido") ? 400 : 201);
+        respuesta.setContentType("application/json");
+        respuesta.getOutputStream().write(("{\"eco\":" + cuerpo.length() + "}").getBytes(StandardCharsets.UTF_8));
+    };
+
+    @BeforeEach
+    void setUp() {
+        IdempotenciaService idempotenciaService =
+                new IdempotenciaService(idempotenciaRepository, Duration.ofHours(24), 100);
+        idempotenciaFilter = new IdempotenciaFilter(idempotenciaService, new ObjectMapper().findAndRegisterModules(),
+                List.of("POST /facturas", "PUT /facturas/*/pagar", "POST /citas"));
+    }
+
+    @Test
+    @DisplayName("Reintento con la misma clave: debe repetir la respuesta sin ejecutar el controlador")
+    void reintento_DeberiaRepetirRespuestaDesdeMemoria() throws Exception {
+        // Arrange
+        when(idempotenciaRepository.buscar("anonimo", "clave-1")).thenReturn(Optional.empty());
+        when(idempotenciaRepository.reservar(eq("anonimo"), eq("clave-1"), anyString(), any())).thenReturn(true);
+
+        // Act
+        MockHttpServletResponse primera = ejecutar("POST", "/facturas", "clave-1", CUERPO);
+        MockHttpServletResponse segunda = ejecutar("POST", "/facturas", "clave-1", CUERPO);
+
+        // Assert
+        assertThat(ejecuciones).hasValue(1);
+        assertThat(primera.getStatus()).isEqualTo(201);
+        assertThat(segunda.getStatus()).isEqualTo(201);
+        assertThat(segunda.getContentAsString()).isEqualTo(primera.getContentAsString());
+        assertThat(segunda.getHeader(IdempotenciaFilter.CABECERA_REPETIDA)).isEqualTo("true");
+        verify(idempotenciaRepository).completar(eq("anonimo"), eq("clave-1"), any(Registro.class));
+        verify(idempotenciaRepository, times(1)).buscar("anonimo", "clave-1");
+        verify(idempotenciaRepository, never()).liberar(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Clave reutilizada con otro cuerpo: debe responder 422")
+    void claveConOtroCuerpo_DeberiaRechazarse() throws Exception {
+        // Arrange
+        String huellaOriginal = IdempotenciaService.huella("POST", "/citas", "{}".getBytes(StandardCharsets.UTF_8));
+        when(idempotenciaRepository.buscar("anonimo", "clave-2")).thenReturn(Optional.of(
+                new Registro(huellaOriginal, true, 201, "application/json", new byte[0],
+                        Instant.now().plusSeconds(60))));
+
+        // Act
+        MockHttpServletResponse respuesta = ejecutar("POST", "/citas", "clave-2", CUERPO);
+
+        // Assert
+        assertThat(respuesta.getStatus()).isEqualTo(422);
+        assertThat(ejecuciones).hasValue(0);
+        verify(idempotenciaRepository, never()).reservar(anyString(), anyString(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Clave reservada por otra petición: debe responder 409")
+    void claveEnCurso_DeberiaResponderConflicto() throws Exception {
+        // Arrange
+        when(idempotenciaRepository.buscar("anonimo", "clave-3")).thenReturn(Optional.empty());
+        when(idempotenciaRepository.reservar(eq("anonimo"), eq("clave-3"), anyString(), any())).thenReturn(false);
+
+        // Act
+        MockHttpServletResponse respuesta = ejecutar("PUT", "/facturas/5/pagar", "clave-3", CUERPO);
+
+        // Assert
+        assertThat(respuesta.getStatus()).isEqualTo(409);
+        assertThat(ejecuciones).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("Respuesta de error: debe liberar la clave sin guardar la respuesta")
+    void respuestaError_DeberiaLiberarClave() throws Exception {
+        // Arrange
+        when(idempotenciaRepository.buscar("anonimo", "clave-4")).thenReturn(Optional.empty());
+        when(idempotenciaRepository.reservar(eq("anonimo"), eq("clave-4"), anyString(), any())).thenReturn(true);
+
+        // Act
+        MockHttpServletResponse respuesta = ejecutar("POST", "/facturas", "clave-4", "{\"invalido\":true}");
+
+        // Assert
+        assertThat(respuesta.getStatus()).isEqualTo(400);
+        verify(idempotenciaRepository).liberar("anonimo", "clave-4");
+        verify(idempotenciaRepository, never()).completar(anyString(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Operaciones no protegidas: no deben consultar el almacén")
+    void rutaNoProtegida_DeberiaIgnorarClave() throws Exception {
+        // Act
+        ejecutar("POST", "/pacientes", "clave-5", CUERPO);
+        ejecutar("POST", "/facturas", null, CUERPO);
+
+        // Assert
+        assertThat(ejecuciones).hasValue(2);
+        verifyNoInteractions(idempotenciaRepository);
+    }
+
+    private MockHttpServletResponse ejecutar(String metodo, String ruta, String clave, String cuerpo)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(metodo, "/api" + ruta);
+        request.setContextPath("/api");
+        request.setContentType("application/json");
+        request.setContent(cuerpo.getBytes(StandardCharsets.UTF_8));
+        if (clave != null) {
+            request.addHeader(IdempotenciaFilter.CABECERA_CLAVE, clave);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        idempotenciaFilter.doFilter(request, response, controlador);
+        return response;
+    }
+}
@@ -2,6 +2,7 @@ package com.tuorg.veterinaria.prestacioneservicios.service;
 
 import com.tuorg.veterinaria.common.constants.AppConstants;
 import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.dashboard.service.ResumenDiarioService;
 import com.tuorg.veterinaria.gestionpacientes.model.Paciente;
 import com.tuorg.veterinaria.gestionpacientes.repository.PacienteRepository;
 import com.tuorg.veterinaria.gestionusuarios.model.UsuarioVeterinario;
@@ -48,6 +49,9 @@ class CitaServiceTest {
     @Mock
     private UsuarioRepository usuarioRepository;
 
+    @Mock
+    private ResumenDiarioService resumenDiarioService;
+
     @InjectMocks
     private CitaService citaService;
 
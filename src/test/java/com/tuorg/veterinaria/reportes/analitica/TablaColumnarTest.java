@@ -0,0 +1,198 @@
+package com.tuorg.veterinaria.reportes.analitica;
+
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.reportes.analitica.TablaColumnar.Fila;
+import com.tuorg.veterinaria.reportes.analitica.TablaColumnar.Grupo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pruebas unitarias para TablaColumnar.
+ */
+@DisplayName("Pruebas unitarias de TablaColumnar")
+class TablaColumnarTest {
+
+    private static final LocalDate INICIO = LocalDate.of(2024, 1, 1);
+    private static final String[] ESPECIES = {"perro", "gato"};
+    private static final String[] TIPOS = {"consulta", "vacunacion", "cirugia", "laboratorio"};
+
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Filtro, rango de fechas y agrupación: deben coincidir con el cálculo fila a fila")
+    void consultar_FiltroYAgrupacion_DeberiaCoincidirConRecorridoSimple() {
+        // Arrange
+        List<Fila> filas = generar(200_000, 20, 50, new Random(7));
+        TablaColumnar tabla = cargar(filas);
+        LocalDate desde = INICIO.plusDays(30);
+        LocalDate hasta = INICIO.plusDays(400);
+
+        // Act
+        TablaColumnar.Resultado resultado = tabla.consultar(new ConsultaCubo(desde, hasta,
+                Map.of("especie", Set.of("perro")), List.of("mes", "tipo_servicio"), "importe"), pool);
+
+        // Assert
+        Map<List<String>, long[]> esperado = new HashMap<>();
+        for (Fila fila : filas) {
+            LocalDate dia = LocalDate.ofEpochDay(fila.fecha());
+            if (dia.isBefore(desde) || dia.isAfter(hasta) || !"perro".equals(fila.dimensiones()[0])) {
+                continue;
+            }
+            long[] acumulado = esperado.computeIfAbsent(
+                    List.of(String.valueOf(dia.getMonthValue()), fila.dimensiones()[1]), k -> new long[2]);
+            acumulado[0]++;
+            acumulado[1] += fila.medida();
+        }
+        assertThat(resultado.filasEscaneadas()).isEqualTo(filas.size());
+        assertThat(aMapa(resultado.grupos())).containsExactlyInAnyOrderEntriesOf(aComparables(esperado));
+    }
+
+    @Test
+    @DisplayName("Agrupación con demasiadas combinaciones para arrays densos: debe agregarse igual")
+    void consultar_AgrupacionDispersa_DeberiaCoincidirConRecorridoSimple() {
+        // Arrange
+        List<Fila> filas = generar(50_000, 30, 2_000, new Random(11));
+        TablaColumnar tabla = cargar(filas);
+
+        // Act
+        TablaColumnar.Resultado resultado = tabla.consultar(new ConsultaCubo(null, null, Map.of(),
+                List.of("dia", "servicio"), null), pool);
+
+        // Assert
+        Map<List<String>, long[]> esperado = new HashMap<>();
+        for (Fila fila : filas) {
+            esperado.computeIfAbsent(List.of(LocalDate.ofEpochDay(fila.fecha()).toString(), fila.dimensiones()[2]),
+                    k -> new long[2])[0]++;
+        }
+        assertThat(aMapa(resultado.grupos())).containsExactlyInAnyOrderEntriesOf(aComparables(esperado));
+    }
+
+    @Test
+    @DisplayName("Lote de cambios: debe reemplazar filas, eliminar por padre y compactar sin perder datos")
+    void aplicar_CambiosYEliminaciones_DeberiaReflejarEstadoFinal() {
+        // Arrange
+        TablaColumnar tabla = new TablaColumnar(TablaCubo.SERVICIOS);
+        for (long id = 1; id <= 10_000; id++) {
+            tabla.guardar(fila(id, id % 100, 0, "perro", "consulta", 100));
+        }
+
+        // Act: desaparecen los servicios de 60 citas y se corrige el importe de una fila superviviente
+        List<Long> padres = new ArrayList<>();
+        for (long padre = 0; padre < 60; padre++) {
+            padres.add(padre);
+        }
+        tabla.aplicar(List.of(), padres, List.of(fila(99, 99, 1, "gato", "cirugia", 5_000)));
+        TablaColumnar.Resultado resultado = tabla.consultar(new ConsultaCubo(null, null, Map.of(),
+                List.of("especie"), "importe"), pool);
+
+        // Assert
+        assertThat(tabla.filasVivas()).isEqualTo(4_000);
+        assertThat(resultado.grupos()).containsExactly(
+                new Grupo(List.of("perro"), 3_999, 399_900),
+                new Grupo(List.of("gato"), 1, 5_000));
+        assertThat(resultado.filasEscaneadas()).isEqualTo(4_000);
+    }
+
+    @Test
+    @DisplayName("Dimensión desconocida o valor de filtro inexistente: debe rechazarse o no devolver grupos")
+    void consultar_DimensionDesconocida_DeberiaLanzarExcepcion() {
+        // Arrange
+        TablaColumnar tabla = new TablaColumnar(TablaCubo.SERVICIOS);
+        tabla.guardar(fila(1, 1, 0, "perro", "consulta", 100));
+
+        // Act & Assert
+        assertThatThrownBy(() -> tabla.consultar(new ConsultaCubo(null, null, Map.of(),
+                List.of("cliente"), null), pool))
+                .isInstanceOf(BusinessException.class);
+        assertThat(tabla.consultar(new ConsultaCubo(null, null, Map.of("especie", Set.of("huron")),
+                List.of(), null), pool).grupos()).isEmpty();
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark: agregación de 5 millones de servicios prestados")
+    void benchmark_CincoMillonesDeFilas() {
+        TablaColumnar tabla = new TablaColumnar(TablaCubo.SERVICIOS);
+        generar(5_000_000, 40, 200, new Random(3), tabla::guardar);
+        ConsultaCubo consulta = new ConsultaCubo(INICIO.plusDays(90), INICIO.plusDays(800),
+                Map.of("especie", Set.of("gato")), List.of("mes", "veterinario"), "importe");
+        for (int i = 0; i < 5; i++) {
+            tabla.consultar(consulta, pool);
+        }
+        long inicio = System.nanoTime();
+        int repeticiones = 20;
+        for (int i = 0; i < repeticiones; i++) {
+            tabla.consultar(consulta, pool);
+        }
+        System.out.printf("Consulta sobre 5M filas: %.1f ms de media%n",
+                (System.nanoTime() - inicio) / 1e6 / repeticiones);
+    }
+
+    private static TablaColumnar cargar(List<Fila> filas) {
+        TablaColumnar tabla = new TablaColumnar(TablaCubo.SERVICIOS);
+        filas.forEach(tabla::guardar);
+        return tabla;
+    }
+
+    private static List<Fila> generar(int cantidad, int veterinarios, int servicios, Random aleatorio) {
+        List<Fila> filas = new ArrayList<>(cantidad);
+        generar(cantidad, veterinarios, servicios, aleatorio, filas::add);
+        return filas;
+    }
+
+    private static void generar(int cantidad, int veterinarios, int servicios, Random aleatorio,
+                                Consumer<Fila> destino) {
+        for (int i = 0; i < cantidad; i++) {
+            destino.accept(new Fila(i + 1L, i / 3 + 1L, (int) INICIO.toEpochDay() + aleatorio.nextInt(900), new String[]{
+                    ESPECIES[aleatorio.nextInt(ESPECIES.length)],
+                    TIPOS[aleatorio.nextInt(TIPOS.length)],
+                    "servicio-" + aleatorio.nextInt(servicios),
+                    "veterinario-" + aleatorio.nextInt(veterinarios)},
+                    aleatorio.nextInt(50_000)));
+        }
+    }
+
+    private static Fila fila(long id, long padre, int dias, String especie, String tipo, long importe) {
+        return new Fila(id, padre, (int) INICIO.plusDays(dias).toEpochDay(),
+                new String[]{especie, tipo, tipo, "Ana Pérez"}, importe);
+    }
+
+    private static Map<List<String>, List<Long>> aMapa(List<Grupo> grupos) {
+        Map<List<String>, List<Long>> mapa = new HashMap<>();
+        grupos.forEach(grupo -> mapa.put(grupo.claves(), List.of(grupo.filas(), grupo.suma())));
+        return mapa;
+    }
+
+    private static Map<List<String>, List<Long>> aComparables(Map<List<String>, long[]> esperado) {
+        Map<List<String>, List<Long>> mapa = new HashMap<>();
+        esperado.forEach((claves, valores) -> mapa.put(claves, List.of(valores[0], valores[1])));
+        return mapa;
+    }
+}
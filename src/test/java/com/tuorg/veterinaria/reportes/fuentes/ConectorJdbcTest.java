@@ -0,0 +1,75 @@
+package com.tuorg.veterinaria.reportes.fuentes;
+
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pruebas unitarias para ConectorJdbc.
+ */
+@DisplayName("Pruebas unitarias de ConectorJdbc")
+class ConectorJdbcTest {
+
+    private ConectorJdbc conector;
+
+    @BeforeEach
+    void setUp() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.fuentes.jdbc.credenciales.contabilidad.usuario", "lector")
+                .withProperty("app.fuentes.jdbc.credenciales.contabilidad.clave", "secreto");
+        conector = new ConectorJdbc(environment, List.of("jdbc:postgresql:"),
+                List.of("contabilidad.interna", "legado.interna:5433"));
+    }
+
+    @Test
+    @DisplayName("Servidor, driver y credencial permitidos: la fuente debe aceptarse")
+    void validar_DestinoPermitido_NoDeberiaLanzarExcepcion() {
+        assertThatCode(() -> conector.validar(configuracion("jdbc:postgresql://contabilidad.interna:5432/conta",
+                "contabilidad"))).doesNotThrowAnyException();
+        assertThatCode(() -> conector.validar(configuracion("jdbc:postgresql://legado.interna:5433/historico",
+                "contabilidad"))).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("Servidor, puerto o driver fuera de la lista: la fuente debe rechazarse")
+    void validar_DestinoNoPermitido_DeberiaLanzarExcepcion() {
+        assertThatThrownBy(() -> conector.validar(configuracion("jdbc:postgresql://169.254.169.254/meta",
+                "contabilidad"))).isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> conector.validar(configuracion("jdbc:postgresql://legado.interna:22/historico",
+                "contabilidad"))).isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> conector.validar(configuracion("jdbc:h2:mem:prueba", "contabilidad")))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    @DisplayName("Propiedades del driver o varios servidores en la URL: la fuente debe rechazarse")
+    void validar_UrlConPropiedades_DeberiaLanzarExcepcion() {
+        assertThatThrownBy(() -> conector.validar(configuracion(
+                "jdbc:postgresql://contabilidad.interna/conta?socketFactory=org.ejemplo.Fabrica", "contabilidad")))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> conector.validar(configuracion(
+                "jdbc:postgresql://contabilidad.interna,otro.host/conta", "contabilidad")))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    @DisplayName("Credencial no configurada o con otro formato: la fuente debe rechazarse")
+    void validar_CredencialDesconocida_DeberiaLanzarExcepcion() {
+        assertThatThrownBy(() -> conector.validar(configuracion("jdbc:postgresql://contabilidad.interna/conta",
+                "nominas"))).isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> conector.validar(configuracion("jdbc:postgresql://contabilidad.interna/conta",
+                "spring.datasource"))).isInstanceOf(BusinessException.class);
+    }
+
+    private static Map<String, Object> configuracion(String url, String credencial) {
+        return Map.of("url", url, "credencial", credencial, "consulta", "SELECT 1");
+    }
+}
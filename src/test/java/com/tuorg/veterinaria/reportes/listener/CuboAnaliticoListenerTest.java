@@ -0,0 +1,75 @@
+package com.tuorg.veterinaria.reportes.listener;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuorg.veterinaria.common.event.TipoEntidad;
+import com.tuorg.veterinaria.reportes.service.CuboAnaliticoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para CuboAnaliticoListener.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de CuboAnaliticoListener")
+class CuboAnaliticoListenerTest {
+
+    @Mock
+    private CuboAnaliticoService cuboAnaliticoService;
+
+    private CuboAnaliticoListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new CuboAnaliticoListener(cuboAnaliticoService, new DataSourceProperties(), new ObjectMapper(),
+                true, Duration.ofMinutes(1), Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Aviso con IDs: debe acumularlos en el cubo")
+    void procesar_AvisoConIds_DeberiaAplicarCambios() {
+        // Act
+        listener.procesar("{\"tipo\" : \"CITA\", \"ids\" : [3,7]}");
+
+        // Assert
+        verify(cuboAnaliticoService).aplicarCambios(TipoEntidad.CITA, List.of(3L, 7L));
+        verify(cuboAnaliticoService, never()).recargar();
+    }
+
+    @Test
+    @DisplayName("Aviso de recarga o ilegible: debe recargar el cubo completo")
+    void procesar_RecargaOIlegible_DeberiaRecargar() {
+        // Act
+        listener.procesar("{\"tipo\" : \"RECARGA\"}");
+        listener.procesar("{\"tipo\" : \"DESCONOCIDO\", \"ids\" : [1]}");
+        listener.procesar("no es json");
+
+        // Assert
+        verify(cuboAnaliticoService, times(3)).recargar();
+        verify(cuboAnaliticoService, never()).aplicarCambios(any(), any());
+    }
+
+    @Test
+    @DisplayName("Notificaciones deshabilitadas: debe cargar el cubo una vez sin escuchar")
+    void iniciar_NotificacionesDeshabilitadas_DeberiaCargarUnaVez() {
+        // Arrange
+        CuboAnaliticoListener sinNotificaciones = new CuboAnaliticoListener(cuboAnaliticoService,
+                new DataSourceProperties(), new ObjectMapper(), false, Duration.ofMinutes(1), Duration.ofSeconds(5));
+
+        // Act
+        sinNotificaciones.iniciar();
+
+        // Assert
+        verify(cuboAnaliticoService).recargar();
+    }
+}
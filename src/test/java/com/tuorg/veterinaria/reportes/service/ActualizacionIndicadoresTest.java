@@ -0,0 +1,139 @@
+package com.tuorg.veterinaria.reportes.service;
+
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.reportes.model.Indicador;
+import com.tuorg.veterinaria.reportes.repository.IndicadorRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para ActualizacionIndicadores.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de ActualizacionIndicadores")
+class ActualizacionIndicadoresTest {
+
+    private static final Clock RELOJ = Clock.fixed(Instant.parse("2024-06-15T10:00:00Z"), ZoneOffset.UTC);
+
+    @Mock
+    private IndicadorRepository indicadorRepository;
+
+    @Mock
+    private EstadisticaService estadisticaService;
+
+    @Mock
+    private IndicadorService indicadorService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private ActualizacionIndicadores actualizacion;
+
+    @BeforeEach
+    void setUp() {
+        actualizacion = new ActualizacionIndicadores(indicadorRepository, estadisticaService, indicadorService,
+                transactionTemplate, Duration.ofHours(6), RELOJ);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocacion -> invocacion.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        actualizacion.cerrar();
+    }
+
+    @Test
+    @DisplayName("Serie atrasada: debe calcular cada mes cerrado desde el último incorporado")
+    void actualizar_SerieAtrasada_DeberiaCalcularMesesPendientes() {
+        // Arrange
+        Indicador ingresos = indicador(1L, "ingresos", LocalDate.of(2023, 2, 28));
+        when(indicadorRepository.findAll()).thenReturn(List.of(ingresos));
+        when(indicadorRepository.bloquearActualizacion(anyInt(), eq("ingresos"))).thenReturn(true);
+        when(indicadorRepository.findByEstadisticaIn(List.of("ingresos"))).thenAnswer(invocacion -> {
+            ingresos.getSerie().registrar(LocalDate.of(2024, 5, 31), 10);
+            return List.of(ingresos);
+        });
+
+        // Act
+        int procesadas = actualizacion.actualizar();
+
+        // Assert: de marzo de 2023 a mayo de 2024, el último mes cerrado
+        assertThat(procesadas).isEqualTo(1);
+        verify(estadisticaService, times(15)).calcular(eq("ingresos"), any(), any());
+        verify(estadisticaService).calcular("ingresos", LocalDate.of(2023, 3, 1), LocalDate.of(2023, 3, 31));
+        verify(estadisticaService).calcular("ingresos", LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 31));
+        verify(indicadorService, never()).reconstruir(any());
+    }
+
+    @Test
+    @DisplayName("Indicador nuevo con meses ya guardados: debe rehacer la serie desde el historial")
+    void actualizar_IndicadorSinSerie_DeberiaReconstruir() {
+        // Arrange
+        Indicador vacunas = indicador(2L, "vacunaciones_aplicadas", null);
+        when(indicadorRepository.findAll()).thenReturn(List.of(vacunas));
+        when(indicadorRepository.bloquearActualizacion(anyInt(), eq("vacunaciones_aplicadas"))).thenReturn(true);
+        when(indicadorRepository.findByEstadisticaIn(List.of("vacunaciones_aplicadas"))).thenReturn(List.of(vacunas));
+
+        // Act
+        actualizacion.actualizar();
+
+        // Assert: la ventana son los doce meses cerrados
+        verify(estadisticaService).calcular("vacunaciones_aplicadas", LocalDate.of(2023, 6, 1),
+                LocalDate.of(2023, 6, 30));
+        verify(estadisticaService, times(12)).calcular(eq("vacunaciones_aplicadas"), any(), any());
+        verify(indicadorService).reconstruir(2L);
+    }
+
+    @Test
+    @DisplayName("Estadística bloqueada por otro nodo o con error: no debe impedir las demás")
+    void actualizar_BloqueoAjenoOError_DeberiaSeguirConLasDemas() {
+        // Arrange
+        when(indicadorRepository.findAll()).thenReturn(List.of(
+                indicador(1L, "ingresos", LocalDate.of(2024, 5, 31)),
+                indicador(2L, "rotacion_stock", LocalDate.of(2024, 5, 31)),
+                indicador(3L, "volumen_citas", LocalDate.of(2024, 5, 31))));
+        when(indicadorRepository.bloquearActualizacion(anyInt(), eq("ingresos"))).thenReturn(false);
+        when(indicadorRepository.bloquearActualizacion(anyInt(), eq("rotacion_stock"))).thenReturn(true);
+        when(indicadorRepository.bloquearActualizacion(anyInt(), eq("volumen_citas"))).thenReturn(true);
+        when(estadisticaService.calcular(eq("rotacion_stock"), any(), any()))
+                .thenThrow(new BusinessException("fallo"));
+
+        // Act
+        int procesadas = actualizacion.actualizar();
+
+        // Assert
+        assertThat(procesadas).isEqualTo(1);
+        verify(estadisticaService, never()).calcular(eq("ingresos"), any(), any());
+        verify(estadisticaService, times(12)).calcular(eq("volumen_citas"), any(), any());
+    }
+
+    private static Indicador indicador(Long id, String estadistica, LocalDate ultimoPeriodoFin) {
+        Indicador indicador = new Indicador();
+        indicador.setIdIndicador(id);
+        indicador.setNombre(estadistica);
+        indicador.setEstadistica(estadistica);
+        if (ultimoPeriodoFin != null) {
+            indicador.getSerie().registrar(ultimoPeriodoFin, 1);
+        }
+        return indicador;
+    }
+}
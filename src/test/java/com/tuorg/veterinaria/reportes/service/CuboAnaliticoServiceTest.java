@@ -0,0 +1,174 @@
+package com.tuorg.veterinaria.reportes.service;
+
+import com.tuorg.veterinaria.common.event.TipoEntidad;
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.reportes.analitica.TablaColumnar.Fila;
+import com.tuorg.veterinaria.reportes.analitica.TablaCubo;
+import com.tuorg.veterinaria.reportes.dto.ConsultaCuboRequest;
+import com.tuorg.veterinaria.reportes.dto.ResultadoCuboResponse;
+import com.tuorg.veterinaria.reportes.repository.CuboAnaliticoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para CuboAnaliticoService.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de CuboAnaliticoService")
+class CuboAnaliticoServiceTest {
+
+    private static final int DIA = (int) LocalDate.of(2025, 3, 10).toEpochDay();
+
+    @Mock
+    private CuboAnaliticoRepository cuboAnaliticoRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private CuboAnaliticoService cuboAnaliticoService;
+
+    @BeforeEach
+    void setUp() {
+        cuboAnaliticoService = new CuboAnaliticoService(cuboAnaliticoRepository, transactionTemplate, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cuboAnaliticoService.cerrar();
+    }
+
+    @Test
+    @DisplayName("Cubo aún sin cargar: la consulta debe rechazarse")
+    void consultar_CuboSinCargar_DeberiaLanzarExcepcion() {
+        assertThatThrownBy(() -> cuboAnaliticoService.consultar(consulta(TablaCubo.CITAS, "estado")))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    @DisplayName("Cita modificada: debe releerse con sus servicios y reflejarse en las consultas")
+    void aplicarCambios_CitaModificada_DeberiaActualizarCitasYServicios() {
+        // Arrange
+        ejecutarTransacciones();
+        doAnswer(invocation -> {
+            TablaCubo tabla = invocation.getArgument(0);
+            Consumer<Fila> consumidor = invocation.getArgument(1);
+            if (tabla == TablaCubo.CITAS) {
+                consumidor.accept(cita(1L, "PROGRAMADA"));
+                consumidor.accept(cita(2L, "PROGRAMADA"));
+            } else if (tabla == TablaCubo.SERVICIOS) {
+                consumidor.accept(servicio(10L, 1L, 2_500));
+            }
+            return null;
+        }).when(cuboAnaliticoRepository).recorrer(any(), any());
+        cuboAnaliticoService.cargar();
+
+        doAnswer(invocation -> {
+            Consumer<Fila> consumidor = invocation.getArgument(2);
+            consumidor.accept(cita(1L, "REALIZADA"));
+            return null;
+        }).when(cuboAnaliticoRepository).recorrerPorCitas(eq(TablaCubo.CITAS), any(), any());
+        doAnswer(invocation -> {
+            Consumer<Fila> consumidor = invocation.getArgument(2);
+            consumidor.accept(servicio(11L, 1L, 4_000));
+            consumidor.accept(servicio(12L, 1L, 1_000));
+            return null;
+        }).when(cuboAnaliticoRepository).recorrerPorCitas(eq(TablaCubo.SERVICIOS), any(), any());
+
+        // Act: la cita 1 pasa a realizada y la 2 se elimina
+        cuboAnaliticoService.aplicarCambios(TipoEntidad.CITA, List.of(1L));
+        cuboAnaliticoService.aplicarCambios(TipoEntidad.CITA, List.of(2L));
+        cuboAnaliticoService.esperarMantenimiento();
+
+        // Assert
+        ResultadoCuboResponse citas = cuboAnaliticoService.consultar(consulta(TablaCubo.CITAS, "estado"));
+        assertThat(citas.getGrupos()).singleElement().satisfies(grupo -> {
+            assertThat(grupo.getClaves()).containsExactly("REALIZADA");
+            assertThat(grupo.getFilas()).isEqualTo(1);
+        });
+        ConsultaCuboRequest importe = consulta(TablaCubo.SERVICIOS, "especie");
+        importe.setMedida("importe");
+        ResultadoCuboResponse servicios = cuboAnaliticoService.consultar(importe);
+        assertThat(servicios.getGrupos()).singleElement().satisfies(grupo -> {
+            assertThat(grupo.getFilas()).isEqualTo(2);
+            assertThat(grupo.getSuma()).isEqualByComparingTo("50.00");
+        });
+    }
+
+    @Test
+    @DisplayName("Recarga pedida con cambios acumulados: debe recargar sin releerlos")
+    void recargar_ConCambiosAcumulados_DeberiaRecargarCompleto() {
+        // Arrange
+        ejecutarTransacciones();
+
+        // Act
+        cuboAnaliticoService.aplicarCambios(TipoEntidad.PACIENTE, List.of(4L));
+        cuboAnaliticoService.recargar();
+        cuboAnaliticoService.esperarMantenimiento();
+
+        // Assert
+        verify(cuboAnaliticoRepository).recorrer(eq(TablaCubo.FACTURAS), any());
+        verify(cuboAnaliticoRepository, never()).recorrerPorPacientes(any(), any(Collection.class), any());
+    }
+
+    @Test
+    @DisplayName("Carga fallida: debe reintentarse en la siguiente verificación")
+    void reintentarPendientes_CargaFallida_DeberiaVolverACargar() {
+        // Arrange
+        ejecutarTransacciones();
+        doThrow(new IllegalStateException("sin conexión"))
+                .doNothing()
+                .when(cuboAnaliticoRepository).recorrer(eq(TablaCubo.CITAS), any());
+        cuboAnaliticoService.recargar();
+        cuboAnaliticoService.esperarMantenimiento();
+        assertThatThrownBy(() -> cuboAnaliticoService.consultar(consulta(TablaCubo.CITAS, "estado")))
+                .isInstanceOf(BusinessException.class);
+
+        // Act
+        cuboAnaliticoService.reintentarPendientes();
+        cuboAnaliticoService.esperarMantenimiento();
+
+        // Assert
+        assertThat(cuboAnaliticoService.consultar(consulta(TablaCubo.CITAS, "estado")).getGrupos()).isEmpty();
+    }
+
+    private void ejecutarTransacciones() {
+        doAnswer(invocation -> {
+            Consumer<TransactionStatus> accion = invocation.getArgument(0);
+            accion.accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private static ConsultaCuboRequest consulta(TablaCubo tabla, String agrupar) {
+        ConsultaCuboRequest request = new ConsultaCuboRequest();
+        request.setTabla(tabla);
+        request.setAgrupar(List.of(agrupar));
+        return request;
+    }
+
+    private static Fila cita(long id, String estado) {
+        return new Fila(id, 0, DIA, new String[]{"perro", "consulta", "Ana Pérez", null, estado}, 0);
+    }
+
+    private static Fila servicio(long id, long citaId, long importe) {
+        return new Fila(id, citaId, DIA, new String[]{"perro", "CONSULTA", "Consulta general", "Ana Pérez"}, importe);
+    }
+}
@@ -0,0 +1,244 @@
+package com.tuorg.veterinaria.reportes.service;
+
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.reportes.calculo.CalculadorEstadistica;
+import com.tuorg.veterinaria.reportes.model.Estadistica;
+import com.tuorg.veterinaria.reportes.repository.EstadisticaRepository;
+import com.tuorg.veterinaria.reportes.repository.MetricaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para EstadisticaService.
+ *
+ * Usa métricas de prueba que registran los períodos calculados para
+ * verificar la selección por tipo de reporte, la reutilización de meses
+ * cerrados, el recálculo de los marcados como obsoletos y el guardado en
+ * un único lote.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de EstadisticaService")
+class EstadisticaServiceTest {
+
+    @Mock
+    private EstadisticaRepository estadisticaRepository;
+
+    @Mock
+    private MetricaRepository metricaRepository;
+
+    @Mock
+    private IndicadorService indicadorService;
+
+    private MetricaFija ingresos;
+    private MetricaFija inasistencia;
+    private EstadisticaService estadisticaService;
+
+    @BeforeEach
+    void setUp() {
+        ingresos = new MetricaFija("ingresos", "FINANCIERO", true, new BigDecimal("100"));
+        inasistencia = new MetricaFija("tasa_inasistencia", "CITAS", false, new BigDecimal("12.5"));
+        estadisticaService = new EstadisticaService(estadisticaRepository, metricaRepository,
+                List.of(ingresos, inasistencia), indicadorService, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        estadisticaService.cerrar();
+    }
+
+    @Test
+    @DisplayName("Meses cerrados ya guardados: no deben recalcularse")
+    void reporte_MesesCerradosGuardados_DeberiaReutilizarlos() {
+        // Arrange
+        LocalDate inicio = LocalDate.of(2024, 1, 1);
+        LocalDate fin = LocalDate.of(2024, 3, 31);
+        Estadistica total = estadistica("ingresos", "300", inicio, fin);
+        when(metricaRepository.buscarGuardadas(any(), eq(inicio), eq(fin))).thenReturn(
+                List.of(guardada("ingresos", "80", inicio, LocalDate.of(2024, 1, 31), null),
+                        guardada("ingresos", "120", LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29), null)));
+        when(metricaRepository.buscarEstadisticas(any(), eq(inicio), eq(fin))).thenReturn(List.of(total));
+
+        // Act
+        List<Estadistica> resultado = estadisticaService.calcularEstadisticasParaReporte("FINANCIERO",
+                Map.of("fechaInicio", "2024-01-01", "fechaFin", "2024-03-31"));
+
+        // Assert
+        assertThat(ingresos.periodos).containsExactly(List.of(LocalDate.of(2024, 3, 1), fin));
+        assertThat(inasistencia.periodos).isEmpty();
+        ArgumentCaptor<List<Estadistica>> lote = ArgumentCaptor.forClass(List.class);
+        verify(metricaRepository).guardarEstadisticas(lote.capture(), eq(Arrays.asList(null, null)));
+        assertThat(lote.getValue())
+                .extracting(Estadistica::getPeriodoInicio, Estadistica::getValor)
+                .containsExactly(
+                        tuple(LocalDate.of(2024, 3, 1), new BigDecimal("100")),
+                        tuple(inicio, new BigDecimal("300")));
+        assertThat(resultado).containsExactly(total);
+        verify(indicadorService).registrar(lote.getValue());
+    }
+
+    @Test
+    @DisplayName("Período cerrado completo ya guardado: no debe calcular ni escribir")
+    void reporte_PeriodoGuardado_NoDeberiaCalcular() {
+        // Arrange
+        LocalDate inicio = LocalDate.of(2024, 5, 1);
+        LocalDate fin = LocalDate.of(2024, 5, 31);
+        Estadistica guardada = estadistica("tasa_inasistencia", "7.5", inicio, fin);
+        when(metricaRepository.buscarGuardadas(any(), eq(inicio), eq(fin)))
+                .thenReturn(List.of(guardada("tasa_inasistencia", "7.5", inicio, fin, null)));
+        when(metricaRepository.buscarEstadisticas(any(), eq(inicio), eq(fin))).thenReturn(List.of(guardada));
+
+        // Act
+        List<Estadistica> resultado = estadisticaService.calcularEstadisticasParaReporte("citas",
+                Map.of("fechaInicio", "2024-05-01", "fechaFin", "2024-05-31"));
+
+        // Assert
+        assertThat(resultado).containsExactly(guardada);
+        assertThat(inasistencia.periodos).isEmpty();
+        verify(metricaRepository, never()).guardarEstadisticas(anyList(), anyList());
+    }
+
+    @Test
+    @DisplayName("Mes cerrado marcado por un cambio tardío: debe recalcularse pasando la marca leída")
+    void reporte_MesCerradoMarcado_DeberiaRecalcularlo() {
+        // Arrange
+        LocalDate inicio = LocalDate.of(2024, 1, 1);
+        LocalDate fin = LocalDate.of(2024, 2, 29);
+        when(metricaRepository.buscarGuardadas(any(), eq(inicio), eq(fin))).thenReturn(List.of(
+                guardada("ingresos", "80", inicio, LocalDate.of(2024, 1, 31), null),
+                guardada("ingresos", "120", LocalDate.of(2024, 2, 1), fin, 41L),
+                guardada("ingresos", "200", inicio, fin, 42L)));
+
+        // Act
+        estadisticaService.calcularEstadisticasParaReporte("FINANCIERO",
+                Map.of("fechaInicio", "2024-01-01", "fechaFin", "2024-02-29"));
+
+        // Assert
+        assertThat(ingresos.periodos).containsExactly(List.of(LocalDate.of(2024, 2, 1), fin));
+        ArgumentCaptor<List<Estadistica>> lote = ArgumentCaptor.forClass(List.class);
+        verify(metricaRepository).guardarEstadisticas(lote.capture(), eq(List.of(41L, 42L)));
+        assertThat(lote.getValue())
+                .extracting(Estadistica::getPeriodoInicio, Estadistica::getValor)
+                .containsExactly(
+                        tuple(LocalDate.of(2024, 2, 1), new BigDecimal("100")),
+                        tuple(inicio, new BigDecimal("180")));
+    }
+
+    @Test
+    @DisplayName("Mes calculado antes de cerrarse: no debe reutilizarse")
+    void reporte_MesCalculadoAntesDelCierre_DeberiaRecalcularlo() {
+        // Arrange
+        LocalDate inicio = LocalDate.of(2024, 5, 1);
+        LocalDate fin = LocalDate.of(2024, 5, 31);
+        when(metricaRepository.buscarGuardadas(any(), eq(inicio), eq(fin))).thenReturn(List.of(
+                new MetricaRepository.EstadisticaGuardada("tasa_inasistencia", inicio, fin,
+                        new BigDecimal("7.5"), null, false)));
+
+        // Act
+        estadisticaService.calcularEstadisticasParaReporte("CITAS",
+                Map.of("fechaInicio", "2024-05-01", "fechaFin", "2024-05-31"));
+
+        // Assert
+        assertThat(inasistencia.periodos).containsExactly(List.of(inicio, fin));
+    }
+
+    @Test
+    @DisplayName("Reporte general del mes en curso: debe calcular todas las métricas")
+    void reporte_TipoGeneral_DeberiaIncluirTodasLasMetricas() {
+        // Arrange
+        LocalDate hoy = LocalDate.now();
+        when(metricaRepository.buscarGuardadas(any(), any(), any())).thenReturn(List.of());
+        when(metricaRepository.buscarEstadisticas(any(), any(), any())).thenReturn(List.of());
+
+        // Act
+        estadisticaService.calcularEstadisticasParaReporte("MENSUAL", Map.of());
+
+        // Assert
+        assertThat(ingresos.periodos).containsExactly(List.of(hoy.withDayOfMonth(1), hoy));
+        assertThat(inasistencia.periodos).containsExactly(List.of(hoy.withDayOfMonth(1), hoy));
+        verify(metricaRepository, times(1)).guardarEstadisticas(argThat(lote -> lote.size() == 2), anyList());
+    }
+
+    @Test
+    @DisplayName("Fechas inválidas: deben lanzar BusinessException")
+    void reporte_FechasInvalidas_DeberiaLanzarExcepcion() {
+        assertThatThrownBy(() -> estadisticaService.calcularEstadisticasParaReporte("MENSUAL",
+                Map.of("fechaInicio", "01/02/2024")))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> estadisticaService.calcularEstadisticasParaReporte("MENSUAL",
+                Map.of("fechaInicio", "2024-03-01", "fechaFin", "2024-02-01")))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> estadisticaService.calcular("desconocida", LocalDate.now(), LocalDate.now()))
+                .isInstanceOf(BusinessException.class);
+        verifyNoInteractions(metricaRepository);
+    }
+
+    private static MetricaRepository.EstadisticaGuardada guardada(String nombre, String valor, LocalDate inicio,
+                                                                 LocalDate fin, Long marca) {
+        return new MetricaRepository.EstadisticaGuardada(nombre, inicio, fin, new BigDecimal(valor), marca, true);
+    }
+
+    private static Estadistica estadistica(String nombre, String valor, LocalDate inicio, LocalDate fin) {
+        return new Estadistica(1L, nombre, new BigDecimal(valor), inicio, fin);
+    }
+
+    /**
+     * Métrica de prueba con valor constante que registra los períodos pedidos.
+     */
+    private static final class MetricaFija implements CalculadorEstadistica {
+
+        private final String nombre;
+        private final String tipo;
+        private final boolean aditiva;
+        private final BigDecimal valor;
+        private final List<List<LocalDate>> periodos = new CopyOnWriteArrayList<>();
+
+        private MetricaFija(String nombre, String tipo, boolean aditiva, BigDecimal valor) {
+            this.nombre = nombre;
+            this.tipo = tipo;
+            this.aditiva = aditiva;
+            this.valor = valor;
+        }
+
+        @Override
+        public String nombre() {
+            return nombre;
+        }
+
+        @Override
+        public Set<String> tiposReporte() {
+            return Set.of(tipo);
+        }
+
+        @Override
+        public boolean esAditiva() {
+            return aditiva;
+        }
+
+        @Override
+        public BigDecimal calcular(LocalDate inicio, LocalDate fin) {
+            periodos.add(List.of(inicio, fin));
+            return valor;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.tuorg.veterinaria.reportes.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.reportes.dto.FuenteDatosRequest;
+import com.tuorg.veterinaria.reportes.fuentes.ConectorCsv;
+import com.tuorg.veterinaria.reportes.fuentes.ConectorFuente;
+import com.tuorg.veterinaria.reportes.fuentes.ConectorJson;
+import com.tuorg.veterinaria.reportes.fuentes.FilaFuente;
+import com.tuorg.veterinaria.reportes.model.FuenteDatos;
+import com.tuorg.veterinaria.reportes.repository.FuenteDatosRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para FuenteDatosService.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de FuenteDatosService")
+class FuenteDatosServiceTest {
+
+    @TempDir
+    Path directorio;
+
+    @Mock
+    private FuenteDatosRepository fuenteDatosRepository;
+
+    private ConectorCsv conectorCsv;
+
+    private FuenteDatosService fuenteDatosService;
+
+    @BeforeEach
+    void setUp() {
+        conectorCsv = spy(new ConectorCsv(directorio.toString()));
+        ConectorJson conectorJson = new ConectorJson(directorio.toString(), new ObjectMapper());
+        fuenteDatosService = new FuenteDatosService(fuenteDatosRepository,
+                List.<ConectorFuente>of(conectorCsv, conectorJson), new ObjectMapper(), 2, 2, 1_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fuenteDatosService.cerrar();
+    }
+
+    @Test
+    @DisplayName("Varias fuentes con cola pequeña: deben entregarse todas las filas de cada una")
+    void extraer_VariasFuentes_DeberiaEntregarTodasLasFilas() throws IOException {
+        // Arrange
+        Files.createDirectories(directorio.resolve("laboratorio"));
+        escribirCsv(directorio.resolve("laboratorio/enero.csv"), 300);
+        escribirCsv(directorio.resolve("laboratorio/febrero.csv"), 200);
+        Files.writeString(directorio.resolve("contabilidad.json"),
+                "[{\"cuenta\":\"4300\",\"saldo\":12.5},{\"cuenta\":\"5720\",\"saldo\":-3}]");
+        when(fuenteDatosRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(
+                fuente(1L, "Laboratorio", "CSV", Map.of("directorio", "laboratorio")),
+                fuente(2L, "Contabilidad", "JSON", Map.of("archivo", "contabilidad.json"))));
+
+        // Act
+        List<FilaFuente> filas = new ArrayList<>();
+        long total = fuenteDatosService.extraer(List.of(1L, 2L), filas::add);
+
+        // Assert
+        assertThat(total).isEqualTo(502);
+        assertThat(filas).filteredOn(fila -> fila.fuente().equals("Laboratorio")).hasSize(500)
+                .allSatisfy(fila -> assertThat(fila.valores()).containsKeys("paciente", "resultado"));
+        assertThat(filas).filteredOn(fila -> fila.fuente().equals("Contabilidad"))
+                .extracting(fila -> fila.valores().get("cuenta"))
+                .containsExactly("4300", "5720");
+    }
+
+    @Test
+    @DisplayName("Archivo sin cambios: debe servirse desde caché sin volver a leerlo")
+    void extraer_ArchivoSinCambios_NoDeberiaReleerlo() throws IOException {
+        // Arrange
+        Files.createDirectories(directorio.resolve("laboratorio"));
+        Path enero = directorio.resolve("laboratorio/enero.csv");
+        Path febrero = directorio.resolve("laboratorio/febrero.csv");
+        escribirCsv(enero, 10);
+        escribirCsv(febrero, 10);
+        when(fuenteDatosRepository.findAllById(List.of(1L))).thenReturn(List.of(
+                fuente(1L, "Laboratorio", "CSV", Map.of("directorio", "laboratorio"))));
+        fuenteDatosService.extraer(List.of(1L), fila -> { });
+
+        // Act: solo cambia febrero
+        escribirCsv(febrero, 25);
+        List<FilaFuente> filas = new ArrayList<>();
+        fuenteDatosService.extraer(List.of(1L), filas::add);
+
+        // Assert
+        assertThat(filas).hasSize(35);
+        verify(conectorCsv, times(1)).leer(any(), argThat(parte -> parte.clave().endsWith("enero.csv")), any());
+        verify(conectorCsv, times(2)).leer(any(), argThat(parte -> parte.clave().endsWith("febrero.csv")), any());
+    }
+
+    @Test
+    @DisplayName("Caché llena: debe descartar las partes usadas hace más tiempo")
+    void extraer_CacheLlena_DeberiaDescartarLasMenosUsadas() throws IOException {
+        // Arrange: cada archivo ocupa 400 de las 1.000 filas de caché
+        for (String nombre : List.of("a", "b", "c")) {
+            Files.createDirectories(directorio.resolve(nombre));
+            escribirCsv(directorio.resolve(nombre + "/datos.csv"), 400);
+        }
+        when(fuenteDatosRepository.findAllById(any())).thenAnswer(invocacion -> {
+            Long id = invocacion.<List<Long>>getArgument(0).get(0);
+            String nombre = List.of("a", "b", "c").get(id.intValue() - 1);
+            return List.of(fuente(id, nombre, "CSV", Map.of("directorio", nombre)));
+        });
+        fuenteDatosService.extraer(List.of(1L), fila -> { });
+        fuenteDatosService.extraer(List.of(2L), fila -> { });
+
+        // Act: la tercera no cabe sin sacar la primera
+        fuenteDatosService.extraer(List.of(3L), fila -> { });
+        fuenteDatosService.extraer(List.of(2L), fila -> { });
+        fuenteDatosService.extraer(List.of(1L), fila -> { });
+
+        // Assert
+        verify(conectorCsv, times(2)).leer(any(), argThat(parte -> parte.clave().startsWith("a/")), any());
+        verify(conectorCsv, times(1)).leer(any(), argThat(parte -> parte.clave().startsWith("b/")), any());
+    }
+
+    @Test
+    @DisplayName("Fuente ilegible: debe lanzar BusinessException con el nombre de la fuente")
+    void extraer_FuenteInexistente_DeberiaLanzarExcepcion() {
+        // Arrange
+        when(fuenteDatosRepository.findAllById(List.of(3L))).thenReturn(List.of(
+                fuente(3L, "Laboratorio", "CSV", Map.of("directorio", "no-existe"))));
+
+        // Act & Assert
+        assertThatThrownBy(() -> fuenteDatosService.extraer(List.of(3L), fila -> { }))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("Laboratorio");
+    }
+
+    @Test
+    @DisplayName("Tipo sin conector: la extracción debe rechazarse antes de empezar")
+    void validarExtraccion_TipoSinConector_DeberiaLanzarExcepcion() throws IOException {
+        // Arrange
+        when(fuenteDatosRepository.findAllById(List.of(4L))).thenReturn(List.of(
+                fuente(4L, "PostgreSQL Interno", "DATABASE", Map.of())));
+
+        // Act & Assert
+        assertThatThrownBy(() -> fuenteDatosService.validarExtraccion(List.of(4L)))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("DATABASE");
+        verify(conectorCsv, never()).partes(any());
+    }
+
+    @Test
+    @DisplayName("Ruta fuera del directorio de fuentes: debe rechazarse al registrar la fuente")
+    void crear_RutaFueraDelDirectorio_DeberiaLanzarExcepcion() {
+        // Arrange
+        FuenteDatosRequest request = new FuenteDatosRequest();
+        request.setNombre("Laboratorio");
+        request.setTipo("csv");
+        request.setConfiguracion(Map.of("directorio", "../../etc"));
+        when(fuenteDatosRepository.existsByNombre(anyString())).thenReturn(false);
+
+        // Act & Assert
+        assertThatThrownBy(() -> fuenteDatosService.crear(request))
+                .isInstanceOf(BusinessException.class);
+        verify(fuenteDatosRepository, never()).save(any());
+    }
+
+    private static void escribirCsv(Path archivo, int filas) throws IOException {
+        StringBuilder contenido = new StringBuilder("paciente,resultado\n");
+        for (int i = 0; i < filas; i++) {
+            contenido.append("P-").append(i).append(',').append(i % 7).append('\n');
+        }
+        Files.writeString(archivo, contenido);
+    }
+
+    private static FuenteDatos fuente(Long id, String nombre, String tipo, Map<String, Object> configuracion) {
+        return new FuenteDatos(id, nombre, tipo, configuracion);
+    }
+}
@@ -0,0 +1,179 @@
+package com.tuorg.veterinaria.reportes.service;
+
+import com.tuorg.veterinaria.common.exception.ResourceNotFoundException;
+import com.tuorg.veterinaria.reportes.dto.IndicadorResponse;
+import com.tuorg.veterinaria.reportes.model.Estadistica;
+import com.tuorg.veterinaria.reportes.model.Indicador;
+import com.tuorg.veterinaria.reportes.model.SerieIndicador;
+import com.tuorg.veterinaria.reportes.model.TendenciaIndicador;
+import com.tuorg.veterinaria.reportes.repository.EstadisticaRepository;
+import com.tuorg.veterinaria.reportes.repository.IndicadorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para IndicadorService.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de IndicadorService")
+class IndicadorServiceTest {
+
+    private static final YearMonth PRIMER_MES = YearMonth.of(2023, 1);
+
+    @Mock
+    private IndicadorRepository indicadorRepository;
+
+    @Mock
+    private EstadisticaRepository estadisticaRepository;
+
+    @InjectMocks
+    private IndicadorService indicadorService;
+
+    private Indicador indicador;
+
+    @BeforeEach
+    void setUp() {
+        indicador = new Indicador();
+        indicador.setIdIndicador(1L);
+        indicador.setNombre("IngresosMensuales");
+        indicador.setEstadistica("ingresos");
+    }
+
+    @Test
+    @DisplayName("Serie lineal creciente: debe estimar la pendiente y clasificarla como creciente")
+    void registrar_SerieCreciente_DeberiaDetectarTendencia() {
+        // Arrange
+        when(indicadorRepository.findByEstadisticaIn(any())).thenReturn(List.of(indicador));
+        List<Estadistica> valores = new ArrayList<>();
+        for (int i = 5; i >= 0; i--) {
+            valores.add(mensual("ingresos", i, 100 + 10 * i));
+        }
+
+        // Act
+        indicadorService.registrar(valores);
+
+        // Assert
+        assertThat(indicador.getSerie().getObservaciones()).isEqualTo(6);
+        assertThat(indicador.getSerie().pendiente()).isCloseTo(10.0, within(1e-9));
+        assertThat(indicador.getSerie().getTendencia()).isEqualTo(TendenciaIndicador.CRECIENTE);
+        assertThat(indicador.getValorActual()).isEqualByComparingTo("150");
+        assertThat(indicador.getSerie().getUltimoPeriodoFin()).isEqualTo(PRIMER_MES.plusMonths(5).atEndOfMonth());
+    }
+
+    @Test
+    @DisplayName("Meses parciales o del mes en curso: deben ignorarse")
+    void registrar_ValoresNoIncorporables_DeberiaIgnorarlos() {
+        // Arrange
+        when(indicadorRepository.findByEstadisticaIn(any())).thenReturn(List.of(indicador));
+        indicadorService.registrar(List.of(mensual("ingresos", 0, 100), mensual("ingresos", 1, 110)));
+        LocalDate inicioMesActual = LocalDate.now().withDayOfMonth(1);
+
+        // Act
+        indicadorService.registrar(List.of(
+                estadistica("ingresos", 500, PRIMER_MES.plusMonths(2).atDay(1), PRIMER_MES.plusMonths(2).atDay(15)),
+                estadistica("ingresos", 700, inicioMesActual, inicioMesActual.withDayOfMonth(inicioMesActual.lengthOfMonth()))));
+
+        // Assert
+        assertThat(indicador.getSerie().getObservaciones()).isEqualTo(2);
+        assertThat(indicador.getValorActual()).isEqualByComparingTo("110");
+        verify(indicadorRepository, times(1)).findByEstadisticaIn(any());
+        verifyNoInteractions(estadisticaRepository);
+    }
+
+    @Test
+    @DisplayName("Corrección de un mes ya incorporado: debe rehacer la serie desde el historial")
+    void registrar_CorreccionDeMesIncorporado_DeberiaRehacerSerie() {
+        // Arrange
+        when(indicadorRepository.findByEstadisticaIn(any())).thenReturn(List.of(indicador));
+        indicadorService.registrar(List.of(mensual("ingresos", 0, 100), mensual("ingresos", 1, 110)));
+        when(estadisticaRepository.findByNombreOrderByPeriodoFinAsc("ingresos")).thenReturn(List.of(
+                mensual("ingresos", 0, 130), mensual("ingresos", 1, 110)));
+
+        // Act: un pago tardío corrige el primer mes
+        indicadorService.registrar(List.of(mensual("ingresos", 0, 130)));
+
+        // Assert
+        assertThat(indicador.getSerie().getObservaciones()).isEqualTo(2);
+        assertThat(indicador.getSerie().media()).isCloseTo((130 * SerieIndicador.DECAIMIENTO + 110)
+                / (SerieIndicador.DECAIMIENTO + 1), within(1e-9));
+        assertThat(indicador.getValorActual()).isEqualByComparingTo("110");
+        assertThat(indicador.getSerie().getUltimoPeriodoFin()).isEqualTo(PRIMER_MES.plusMonths(1).atEndOfMonth());
+    }
+
+    @Test
+    @DisplayName("Valor muy alejado de la media: debe marcarse como anómalo")
+    void registrar_ValorAtipico_DeberiaMarcarAnomalia() {
+        // Arrange
+        when(indicadorRepository.findByEstadisticaIn(any())).thenReturn(List.of(indicador));
+        List<Estadistica> valores = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            valores.add(mensual("ingresos", i, i % 2 == 0 ? 98 : 102));
+        }
+        valores.add(mensual("ingresos", 8, 400));
+        when(indicadorRepository.findById(1L)).thenReturn(Optional.of(indicador));
+
+        // Act
+        indicadorService.registrar(valores);
+
+        // Assert
+        assertThat(indicador.getSerie().getTendencia()).isEqualTo(TendenciaIndicador.ANOMALA);
+        assertThat(indicadorService.evaluarTendencia(1L)).isEqualTo("anomala");
+    }
+
+    @Test
+    @DisplayName("Reconstrucción: debe reiniciar la serie y recorrer el historial")
+    void reconstruir_ConHistorial_DeberiaRecalcularDesdeCero() {
+        // Arrange
+        indicador.getSerie().registrar(PRIMER_MES.plusMonths(10).atEndOfMonth(), 1_000);
+        when(indicadorRepository.findById(1L)).thenReturn(Optional.of(indicador));
+        when(estadisticaRepository.findByNombreOrderByPeriodoFinAsc("ingresos")).thenReturn(List.of(
+                mensual("ingresos", 0, 50), mensual("ingresos", 1, 50), mensual("ingresos", 2, 50)));
+        when(indicadorRepository.save(any(Indicador.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        IndicadorResponse respuesta = indicadorService.reconstruir(1L);
+
+        // Assert
+        assertThat(respuesta.getObservaciones()).isEqualTo(3);
+        assertThat(respuesta.getMedia()).isCloseTo(50.0, within(1e-9));
+        assertThat(respuesta.getDesviacion()).isCloseTo(0.0, within(1e-6));
+        assertThat(respuesta.getTendencia()).isEqualTo(TendenciaIndicador.ESTABLE);
+        assertThat(respuesta.getUltimoPeriodoFin()).isEqualTo(PRIMER_MES.plusMonths(2).atEndOfMonth());
+    }
+
+    @Test
+    @DisplayName("Indicador inexistente: debe lanzar ResourceNotFoundException")
+    void evaluarTendencia_IndicadorInexistente_DeberiaLanzarExcepcion() {
+        when(indicadorRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> indicadorService.evaluarTendencia(99L))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private static Estadistica mensual(String nombre, int mes, double valor) {
+        YearMonth periodo = PRIMER_MES.plusMonths(mes);
+        return estadistica(nombre, valor, periodo.atDay(1), periodo.atEndOfMonth());
+    }
+
+    private static Estadistica estadistica(String nombre, double valor, LocalDate inicio, LocalDate fin) {
+        return new Estadistica(null, nombre, BigDecimal.valueOf(valor), inicio, fin);
+    }
+}
@@ -0,0 +1,171 @@
+package com.tuorg.veterinaria.reportes.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.reportes.fuentes.FilaFuente;
+import com.tuorg.veterinaria.reportes.model.Reporte;
+import com.tuorg.veterinaria.reportes.repository.ReporteDetalleRepository;
+import com.tuorg.veterinaria.reportes.repository.ReporteRepository;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para ReporteService.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de ReporteService")
+class ReporteServiceTest {
+
+    @Mock
+    private ReporteRepository reporteRepository;
+
+    @Mock
+    private ReporteDetalleRepository reporteDetalleRepository;
+
+    @Mock
+    private EstadisticaService estadisticaService;
+
+    @Mock
+    private FuenteDatosService fuenteDatosService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ReporteService reporteService;
+
+    @BeforeEach
+    void setUp() {
+        reporteService = new ReporteService(reporteRepository, reporteDetalleRepository, estadisticaService,
+                fuenteDatosService, new ObjectMapper(), eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Exportar a Excel un reporte con fuentes debe añadir una hoja por fuente")
+    void exportarExcel_ConFuentes_DeberiaAnadirUnaHojaPorFuente() throws IOException {
+        // Arrange
+        when(reporteRepository.findById(1L)).thenReturn(Optional.of(reporte("{\"fuentes\":[5,6]}")));
+        extraeFilas(List.of(5L), new FilaFuente("laboratorio", fila("muestra", "M-1", "resultado", "positivo")),
+                new FilaFuente("laboratorio", fila("muestra", "M-2", "resultado", "negativo")));
+        extraeFilas(List.of(6L));
+
+        // Act
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        reporteService.exportarExcel(1L, salida);
+
+        // Assert
+        Map<String, String> partes = leer(salida.toByteArray());
+        assertThat(partes.get("xl/workbook.xml")).contains("name=\"Fuente laboratorio\"");
+        assertThat(partes).doesNotContainKey("xl/worksheets/sheet5.xml");
+        assertThat(partes.get("xl/sharedStrings.xml")).contains("muestra", "resultado", "M-1", "negativo");
+        assertThat(partes.get("xl/worksheets/sheet4.xml")).contains("r=\"3\"").doesNotContain("r=\"4\"");
+    }
+
+    @Test
+    @DisplayName("Exportar a PDF un reporte con fuentes debe indicar las filas de cada fuente")
+    void exportarPDF_ConFuentes_DeberiaIndicarLasFilasDeCadaFuente() throws IOException {
+        // Arrange
+        when(reporteRepository.findById(1L)).thenReturn(Optional.of(reporte("{\"fuentes\":\"5, 6\"}")));
+        extraeFilas(List.of(5L, 6L), new FilaFuente("laboratorio", fila("muestra", "M-1")),
+                new FilaFuente("contabilidad", fila("asiento", 10)),
+                new FilaFuente("laboratorio", fila("muestra", "M-2")));
+
+        // Act
+        byte[] pdf = reporteService.exportarPDF(1L);
+
+        // Assert
+        try (PDDocument documento = PDDocument.load(pdf)) {
+            assertThat(new PDFTextStripper().getText(documento))
+                    .contains("Fuente laboratorio: 2 filas", "Fuente contabilidad: 1 filas");
+        }
+    }
+
+    @Test
+    @DisplayName("Validar fuentes con un ID no numérico debe lanzar excepción")
+    void validarFuentes_IdNoNumerico_DeberiaLanzarExcepcion() {
+        // Act & Assert
+        assertThatThrownBy(() -> reporteService.validarFuentes(Map.of("fuentes", List.of("laboratorio"))))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("fuentes");
+        verifyNoInteractions(fuenteDatosService);
+    }
+
+    @Test
+    @DisplayName("Validar fuentes debe comprobar las fuentes indicadas")
+    void validarFuentes_ConFuentes_DeberiaComprobarLasFuentes() {
+        // Act
+        reporteService.validarFuentes(Map.of("fuentes", List.of(5, 6)));
+        reporteService.validarFuentes(Map.of("fechaInicio", "2025-11-01"));
+
+        // Assert
+        verify(fuenteDatosService).validarExtraccion(List.of(5L, 6L));
+        verifyNoMoreInteractions(fuenteDatosService);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void extraeFilas(List<Long> ids, FilaFuente... filas) {
+        when(fuenteDatosService.extraer(eq(ids), any())).thenAnswer(invocacion -> {
+            Consumer<FilaFuente> destino = invocacion.getArgument(1);
+            for (FilaFuente fila : filas) {
+                destino.accept(fila);
+            }
+            return (long) filas.length;
+        });
+    }
+
+    private static Map<String, Object> fila(Object... claveValor) {
+        Map<String, Object> valores = new LinkedHashMap<>();
+        for (int i = 0; i < claveValor.length; i += 2) {
+            valores.put((String) claveValor[i], claveValor[i + 1]);
+        }
+        return valores;
+    }
+
+    private static Reporte reporte(String parametros) {
+        Reporte reporte = new Reporte();
+        reporte.setIdReporte(1L);
+        reporte.setNombre("Resultados de laboratorio");
+        reporte.setTipo("MENSUAL");
+        reporte.setFechaGeneracion(LocalDateTime.of(2025, 11, 10, 9, 0));
+        reporte.setParametros(parametros);
+        return reporte;
+    }
+
+    private static Map<String, String> leer(byte[] xlsx) throws IOException {
+        Map<String, String> partes = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(xlsx))) {
+            ZipEntry entrada;
+            while ((entrada = zip.getNextEntry()) != null) {
+                partes.put(entrada.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return partes;
+    }
+}
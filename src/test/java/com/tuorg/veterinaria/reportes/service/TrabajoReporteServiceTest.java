@@ -0,0 +1,214 @@
+package com.tuorg.veterinaria.reportes.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuorg.veterinaria.archivos.dto.ArchivoAdjuntoResponse;
+import com.tuorg.veterinaria.archivos.service.AlmacenArchivosService;
+import com.tuorg.veterinaria.common.exception.BusinessException;
+import com.tuorg.veterinaria.reportes.dto.ReporteRequest;
+import com.tuorg.veterinaria.reportes.dto.ReporteResponse;
+import com.tuorg.veterinaria.reportes.dto.TrabajoReporteResponse;
+import com.tuorg.veterinaria.reportes.model.EstadoTrabajoReporte;
+import com.tuorg.veterinaria.reportes.model.FormatoReporte;
+import com.tuorg.veterinaria.reportes.repository.TrabajoReporteRepository;
+import com.tuorg.veterinaria.reportes.repository.TrabajoReporteRepository.Trabajo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para TrabajoReporteService.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas unitarias de TrabajoReporteService")
+class TrabajoReporteServiceTest {
+
+    private static final long TAMANO_MAXIMO = 1_000_000L;
+
+    @Mock
+    private TrabajoReporteRepository trabajoReporteRepository;
+
+    @Mock
+    private ReporteService reporteService;
+
+    @Mock
+    private AlmacenArchivosService almacenArchivosService;
+
+    private TrabajoReporteService trabajoReporteService;
+
+    @BeforeEach
+    void setUp() {
+        trabajoReporteService = new TrabajoReporteService(trabajoReporteRepository, reporteService,
+                almacenArchivosService, new ObjectMapper().findAndRegisterModules(), 1,
+                Duration.ofHours(1), TAMANO_MAXIMO, Duration.ofMinutes(2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        trabajoReporteService.cerrar();
+    }
+
+    @Test
+    @DisplayName("Parámetros equivalentes: deben producir la misma huella")
+    void huella_ParametrosEquivalentes_DeberiaCoincidir() {
+        // Arrange
+        Map<String, Object> primero = new LinkedHashMap<>();
+        primero.put("fechaFin", " 2024-03-31 ");
+        primero.put("fechaInicio", "2024-03-01");
+        primero.put("veterinario", "");
+        Map<String, Object> segundo = new LinkedHashMap<>();
+        segundo.put("fechaInicio", "2024-03-01");
+        segundo.put("fechaFin", "2024-03-31");
+
+        // Act
+        String normalizadoPrimero = trabajoReporteService.normalizar("mensual", primero);
+        String normalizadoSegundo = trabajoReporteService.normalizar("MENSUAL", segundo);
+
+        // Assert
+        assertThat(normalizadoPrimero).isEqualTo("{\"fechaFin\":\"2024-03-31\",\"fechaInicio\":\"2024-03-01\"}");
+        assertThat(TrabajoReporteService.huella("mensual", FormatoReporte.PDF, normalizadoPrimero))
+                .isEqualTo(TrabajoReporteService.huella(" MENSUAL", FormatoReporte.PDF, normalizadoSegundo))
+                .isNotEqualTo(TrabajoReporteService.huella("MENSUAL", FormatoReporte.XLSX, normalizadoSegundo));
+    }
+
+    @Test
+    @DisplayName("Reporte idéntico ya generado: debe reutilizar el trabajo sin encolar otro")
+    void solicitar_ResultadoVigente_DeberiaReutilizarTrabajo() {
+        // Arrange
+        Trabajo completado = trabajo(5L, EstadoTrabajoReporte.COMPLETADO, FormatoReporte.PDF);
+        when(trabajoReporteRepository.buscarVigente(anyString())).thenReturn(Optional.of(completado));
+
+        // Act
+        TrabajoReporteResponse respuesta = trabajoReporteService.solicitar(request(FormatoReporte.PDF));
+
+        // Assert
+        assertThat(respuesta.getId()).isEqualTo(5L);
+        assertThat(respuesta.isReutilizado()).isTrue();
+        assertThat(respuesta.getEstado()).isEqualTo(EstadoTrabajoReporte.COMPLETADO);
+        verify(trabajoReporteRepository, never()).insertar(any(), any(), any(), any(), any(), any());
+        verifyNoInteractions(reporteService);
+    }
+
+    @Test
+    @DisplayName("Reporte nuevo: debe encolarse, generarse en segundo plano y guardar el resultado")
+    void solicitar_ReporteNuevo_DeberiaGenerarEnSegundoPlano() {
+        // Arrange
+        when(trabajoReporteRepository.buscarVigente(anyString())).thenReturn(Optional.empty());
+        when(trabajoReporteRepository.insertar(anyString(), eq("Mensual"), eq("MENSUAL"), eq(FormatoReporte.JSON),
+                eq("{\"fechaFin\":\"2024-03-31\",\"fechaInicio\":\"2024-03-01\"}"), eq(3L)))
+                .thenReturn(Optional.of(7L));
+        when(trabajoReporteRepository.buscar(7L))
+                .thenReturn(Optional.of(trabajo(7L, EstadoTrabajoReporte.PENDIENTE, FormatoReporte.JSON)));
+        when(trabajoReporteRepository.reclamar(7L)).thenReturn(true);
+        when(reporteService.generar(any(ReporteRequest.class))).thenReturn(ReporteResponse.builder()
+                .id(25L).nombre("Mensual").fechaGeneracion(LocalDateTime.now()).estadisticas(List.of()).build());
+        when(almacenArchivosService.guardar(any(), eq("application/json"), eq("Mensual.json"), eq(TAMANO_MAXIMO)))
+                .thenReturn(ArchivoAdjuntoResponse.builder().hash("a".repeat(64)).tamanoBytes(120L).build());
+
+        // Act
+        TrabajoReporteResponse respuesta = trabajoReporteService.solicitar(request(null));
+
+        // Assert
+        assertThat(respuesta.getId()).isEqualTo(7L);
+        assertThat(respuesta.isReutilizado()).isFalse();
+        verify(trabajoReporteRepository, timeout(2000)).completar(eq(7L), eq(25L), eq("a".repeat(64)), any());
+        verify(trabajoReporteRepository, never()).fallar(any(), any());
+    }
+
+    @Test
+    @DisplayName("Error al generar: el trabajo debe quedar fallido con el motivo")
+    void ejecutar_ErrorAlGenerar_DeberiaMarcarFallido() {
+        // Arrange
+        when(trabajoReporteRepository.reclamar(9L)).thenReturn(true);
+        when(trabajoReporteRepository.buscar(9L))
+                .thenReturn(Optional.of(trabajo(9L, EstadoTrabajoReporte.EN_PROCESO, FormatoReporte.XLSX)));
+        when(reporteService.generar(any(ReporteRequest.class)))
+                .thenThrow(new BusinessException("Ya existe un reporte con ese nombre"));
+
+        // Act
+        trabajoReporteService.ejecutar(9L);
+
+        // Assert
+        verify(trabajoReporteRepository).fallar(9L, "Ya existe un reporte con ese nombre");
+        verify(trabajoReporteRepository, never()).completar(any(), any(), any(), any());
+        verifyNoInteractions(almacenArchivosService);
+    }
+
+    @Test
+    @DisplayName("Trabajo tomado por otro hilo: no debe generarse de nuevo")
+    void ejecutar_TrabajoYaReclamado_NoDeberiaGenerar() {
+        // Arrange
+        when(trabajoReporteRepository.reclamar(9L)).thenReturn(false);
+
+        // Act
+        trabajoReporteService.ejecutar(9L);
+
+        // Assert
+        verifyNoInteractions(reporteService, almacenArchivosService);
+        verify(trabajoReporteRepository, never()).fallar(any(), any());
+    }
+
+    @Test
+    @DisplayName("Barrido: debe renovar el latido propio y encolar una sola vez los trabajos retomados")
+    void barrer_TrabajosVencidosYPendientes_DeberiaEncolarlosUnaVez() throws Exception {
+        // Arrange: el trabajo 3 se genera en este nodo y queda bloqueado hasta liberarlo
+        CountDownLatch generando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(trabajoReporteRepository.reclamar(anyLong())).thenReturn(true);
+        when(trabajoReporteRepository.buscar(anyLong())).thenAnswer(invocacion -> Optional.of(
+                trabajo(invocacion.getArgument(0), EstadoTrabajoReporte.EN_PROCESO, FormatoReporte.JSON)));
+        when(reporteService.generar(any(ReporteRequest.class))).thenAnswer(invocacion -> {
+            generando.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            throw new BusinessException("detenido");
+        });
+        when(trabajoReporteRepository.reencolarVencidos(any(), eq(3))).thenReturn(List.of(3L));
+        when(trabajoReporteRepository.pendientes(any())).thenReturn(List.of(3L));
+
+        // Act
+        trabajoReporteService.barrer();
+        assertThat(generando.await(2, TimeUnit.SECONDS)).isTrue();
+        trabajoReporteService.barrer();
+        liberar.countDown();
+
+        // Assert
+        verify(trabajoReporteRepository).renovarLatido(eq(List.of(3L)), any());
+        verify(trabajoReporteRepository, timeout(2000)).fallar(3L, "detenido");
+        verify(trabajoReporteRepository, times(1)).reclamar(3L);
+    }
+
+    private static ReporteRequest request(FormatoReporte formato) {
+        ReporteRequest request = new ReporteRequest();
+        request.setNombre("Mensual");
+        request.setTipo("MENSUAL");
+        request.setGeneradoPor(3L);
+        request.setParametros(Map.of("fechaInicio", "2024-03-01", "fechaFin", "2024-03-31"));
+        request.setFormato(formato);
+        return request;
+    }
+
+    private static Trabajo trabajo(Long id, EstadoTrabajoReporte estado, FormatoReporte formato) {
+        return new Trabajo(id, "f".repeat(64), "Mensual", "MENSUAL", formato,
+                "{\"fechaFin\":\"2024-03-31\",\"fechaInicio\":\"2024-03-01\"}", 3L, estado, 1,
+                null, null, null, Instant.now(), null, null, null);
+    }
+}